@@ -1,6 +1,6 @@
 package my_spring_app.my_spring_app.config;
 
-import my_spring_app.my_spring_app.service.ServerService;
+import my_spring_app.my_spring_app.ssh.ServerConnectionRegistry;
 import my_spring_app.my_spring_app.ws.TerminalWebSocketHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,16 +14,16 @@ import org.springframework.web.socket.server.support.HttpSessionHandshakeInterce
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
-    private final ServerService serverService;
+    private final ServerConnectionRegistry serverConnectionRegistry;
 
-    public WebSocketConfig(ServerService serverService) {
-        this.serverService = serverService;
+    public WebSocketConfig(ServerConnectionRegistry serverConnectionRegistry) {
+        this.serverConnectionRegistry = serverConnectionRegistry;
     }
 
     @Bean
     @NonNull
     public TerminalWebSocketHandler terminalWebSocketHandler() {
-        return new TerminalWebSocketHandler(serverService);
+        return new TerminalWebSocketHandler(serverConnectionRegistry);
     }
 
     @Override
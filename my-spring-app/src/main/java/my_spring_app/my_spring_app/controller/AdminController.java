@@ -14,6 +14,8 @@ import my_spring_app.my_spring_app.dto.reponse.ServerAuthStatusResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminDatabaseDetailResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminBackendDetailResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminFrontendDetailResponse;
+import my_spring_app.my_spring_app.dto.reponse.BuildCacheStatsResponse;
+import my_spring_app.my_spring_app.dto.reponse.SshConnectionStatsResponse;
 import my_spring_app.my_spring_app.dto.reponse.DashboardMetricsResponse;
 import my_spring_app.my_spring_app.dto.reponse.NodeListResponse;
 import my_spring_app.my_spring_app.dto.reponse.NamespaceListResponse;
@@ -37,6 +39,8 @@ import my_spring_app.my_spring_app.dto.request.SavePlaybookRequest;
 import my_spring_app.my_spring_app.dto.request.DeletePlaybookRequest;
 import my_spring_app.my_spring_app.dto.request.ExecutePlaybookRequest;
 import my_spring_app.my_spring_app.dto.request.InstallK8sRequest;
+import my_spring_app.my_spring_app.dto.request.ResourceListRequest;
+import my_spring_app.my_spring_app.dto.request.UsageHistoryRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -59,22 +63,23 @@ public class AdminController {
     // User Services - Services
     // Cluster & Overview - Overview
     @GetMapping("/user-services/overview")
-    public ResponseEntity<AdminOverviewResponse> getOverview() {
-        AdminOverviewResponse response = adminService.getOverview();
+    public ResponseEntity<AdminOverviewResponse> getOverview(@ModelAttribute UsageHistoryRequest history) {
+        AdminOverviewResponse response = adminService.getOverview(history);
         return ResponseEntity.ok(response);
     }
 
     // User Services - Services
     @GetMapping("/user-services/users")
-    public ResponseEntity<AdminUserUsageResponse> getUserUsage() {
-        AdminUserUsageResponse response = adminService.getUserResourceOverview();
+    public ResponseEntity<AdminUserUsageResponse> getUserUsage(@ModelAttribute UsageHistoryRequest history) {
+        AdminUserUsageResponse response = adminService.getUserResourceOverview(history);
         return ResponseEntity.ok(response);
     }
 
     // User Services - Services
     @GetMapping("/user-services/user-summary")
-    public ResponseEntity<AdminUserProjectSummaryResponse> getUserSummary(@RequestParam Long userId) {
-        AdminUserProjectSummaryResponse response = adminService.getUserProjectSummary(userId);
+    public ResponseEntity<AdminUserProjectSummaryResponse> getUserSummary(@RequestParam Long userId,
+                                                                          @ModelAttribute UsageHistoryRequest history) {
+        AdminUserProjectSummaryResponse response = adminService.getUserProjectSummary(userId, history);
         return ResponseEntity.ok(response);
     }
 
@@ -305,71 +310,83 @@ public class AdminController {
 
     // Cluster & Overview - Overview
     @GetMapping("/dashboard/metrics")
-    public ResponseEntity<DashboardMetricsResponse> getDashboardMetrics() {
-        DashboardMetricsResponse response = adminService.getDashboardMetrics();
+    public ResponseEntity<DashboardMetricsResponse> getDashboardMetrics(@ModelAttribute UsageHistoryRequest history) {
+        DashboardMetricsResponse response = adminService.getDashboardMetrics(history);
         return ResponseEntity.ok(response);
     }
 
+    // Cluster & Overview - Build cache trên DOCKER server
+    @GetMapping("/build-cache/stats")
+    public ResponseEntity<BuildCacheStatsResponse> getBuildCacheStats() {
+        return ResponseEntity.ok(adminService.getBuildCacheStats());
+    }
+
+    // Cluster & Overview - Cache thông tin kết nối SSH
+    @GetMapping("/ssh-connections/stats")
+    public ResponseEntity<SshConnectionStatsResponse> getSshConnectionStats() {
+        return ResponseEntity.ok(adminService.getSshConnectionStats());
+    }
+
     // Cluster & Overview  - Nodes
     @GetMapping("/cluster/nodes")
-    public ResponseEntity<NodeListResponse> getNodes() {
-        NodeListResponse response = adminService.getNodes();
+    public ResponseEntity<NodeListResponse> getNodes(@Valid @ModelAttribute ResourceListRequest request) {
+        NodeListResponse response = adminService.getNodes(request);
         return ResponseEntity.ok(response);
     }
 
     // Cluster & Overview  - Namespaces
     @GetMapping("/cluster/namespaces")
-    public ResponseEntity<NamespaceListResponse> getNamespaces() {
-        NamespaceListResponse response = adminService.getNamespaces();
+    public ResponseEntity<NamespaceListResponse> getNamespaces(@Valid @ModelAttribute ResourceListRequest request) {
+        NamespaceListResponse response = adminService.getNamespaces(request);
         return ResponseEntity.ok(response);
     }
 
     // Workloads - Deployments
     @GetMapping("/workloads/deployments")
-    public ResponseEntity<DeploymentListResponse> getDeployments() {
-        DeploymentListResponse response = adminService.getDeployments();
+    public ResponseEntity<DeploymentListResponse> getDeployments(@Valid @ModelAttribute ResourceListRequest request) {
+        DeploymentListResponse response = adminService.getDeployments(request);
         return ResponseEntity.ok(response);
     }
 
     // Workloads - Pods
     @GetMapping("/workloads/pods")
-    public ResponseEntity<PodListResponse> getPods() {
-        PodListResponse response = adminService.getPods();
+    public ResponseEntity<PodListResponse> getPods(@Valid @ModelAttribute ResourceListRequest request) {
+        PodListResponse response = adminService.getPods(request);
         return ResponseEntity.ok(response);
     }
 
     // Workloads - Statefulsets
     @GetMapping("/workloads/statefulsets")
-    public ResponseEntity<StatefulsetListResponse> getStatefulsets() {
-        StatefulsetListResponse response = adminService.getStatefulsets();
+    public ResponseEntity<StatefulsetListResponse> getStatefulsets(@Valid @ModelAttribute ResourceListRequest request) {
+        StatefulsetListResponse response = adminService.getStatefulsets(request);
         return ResponseEntity.ok(response);
     }
 
     // Service Discovery - Services
     @GetMapping("/services")
-    public ResponseEntity<ServiceListResponse> getServices() {
-        ServiceListResponse response = adminService.getServices();
+    public ResponseEntity<ServiceListResponse> getServices(@Valid @ModelAttribute ResourceListRequest request) {
+        ServiceListResponse response = adminService.getServices(request);
         return ResponseEntity.ok(response);
     }
 
     // Service Discovery - Ingress
     @GetMapping("/ingress")
-    public ResponseEntity<IngressListResponse> getIngress() {
-        IngressListResponse response = adminService.getIngress();
+    public ResponseEntity<IngressListResponse> getIngress(@Valid @ModelAttribute ResourceListRequest request) {
+        IngressListResponse response = adminService.getIngress(request);
         return ResponseEntity.ok(response);
     }
 
     // Storage - PVCs
     @GetMapping("/storage/pvcs")
-    public ResponseEntity<PVCListResponse> getPVCs() {
-        PVCListResponse response = adminService.getPVCs();
+    public ResponseEntity<PVCListResponse> getPVCs(@Valid @ModelAttribute ResourceListRequest request) {
+        PVCListResponse response = adminService.getPVCs(request);
         return ResponseEntity.ok(response);
     }
 
     // Storage - PVs
     @GetMapping("/storage/pvs")
-    public ResponseEntity<PVListResponse> getPVs() {
-        PVListResponse response = adminService.getPVs();
+    public ResponseEntity<PVListResponse> getPVs(@Valid @ModelAttribute ResourceListRequest request) {
+        PVListResponse response = adminService.getPVs(request);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
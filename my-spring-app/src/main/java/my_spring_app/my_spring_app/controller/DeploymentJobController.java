@@ -0,0 +1,44 @@
+package my_spring_app.my_spring_app.controller;
+
+import my_spring_app.my_spring_app.deploy.DeploymentJobEngine;
+import my_spring_app.my_spring_app.dto.reponse.DeploymentJobResponse;
+import my_spring_app.my_spring_app.service.DeploymentJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/deployment-jobs")
+public class DeploymentJobController {
+
+    @Autowired
+    private DeploymentJobService deploymentJobService;
+
+    @Autowired
+    private DeploymentJobEngine deploymentJobEngine;
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<DeploymentJobResponse> getJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(deploymentJobService.getJob(jobId));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<DeploymentJobResponse>> listJobs(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) Long projectId) {
+        return ResponseEntity.ok(deploymentJobService.listJobs(username, projectId));
+    }
+
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable Long jobId) {
+        return deploymentJobEngine.subscribe(jobId);
+    }
+}
@@ -1,8 +1,11 @@
 package my_spring_app.my_spring_app.controller;
 
 import jakarta.validation.Valid;
-import my_spring_app.my_spring_app.dto.reponse.DeployBackendResponse;
+import my_spring_app.my_spring_app.deploy.DeploymentJobEngine;
+import my_spring_app.my_spring_app.dto.reponse.DeploymentJobResponse;
 import my_spring_app.my_spring_app.dto.request.DeployBackendRequest;
+import my_spring_app.my_spring_app.entity.DeploymentJobEntity;
+import my_spring_app.my_spring_app.service.DeploymentJobService;
 import my_spring_app.my_spring_app.service.ProjectBackendService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/project-backends")
@@ -21,10 +25,24 @@ public class ProjectBackendController {
     @Autowired
     private ProjectBackendService projectBackendService;
 
+    @Autowired
+    private DeploymentJobEngine deploymentJobEngine;
+
+    @Autowired
+    private DeploymentJobService deploymentJobService;
+
+    // Chạy qua job deploy nhưng vẫn trả DeployBackendResponse khi xong (thread Tomcat không bị giữ trong lúc chờ)
     @PostMapping(value = "/deploy", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<DeployBackendResponse> deploy(@ModelAttribute @Valid DeployBackendRequest request) {
-        DeployBackendResponse response = projectBackendService.deploy(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public DeferredResult<ResponseEntity<?>> deploy(@ModelAttribute @Valid DeployBackendRequest request) {
+        DeploymentJobEntity job = deploymentJobEngine.submit(DeploymentJobEngine.TYPE_BACKEND, request);
+        return deploymentJobEngine.awaitResult(job.getId());
+    }
+
+    // Nhận deploy và trả job ngay (202), theo dõi qua /api/deployment-jobs/{jobId}
+    @PostMapping(value = "/deploy-jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<DeploymentJobResponse> submitDeployJob(@ModelAttribute @Valid DeployBackendRequest request) {
+        DeploymentJobEntity job = deploymentJobEngine.submit(DeploymentJobEngine.TYPE_BACKEND, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(deploymentJobService.getJob(job.getId()));
     }
 
     @PostMapping("/{projectId}/{backendId}/stop")
@@ -1,6 +1,7 @@
 package my_spring_app.my_spring_app.controller;
 
 import jakarta.validation.Valid;
+import my_spring_app.my_spring_app.dto.reponse.BulkComponentResponse;
 import my_spring_app.my_spring_app.dto.reponse.CreateProjectResponse;
 import my_spring_app.my_spring_app.dto.reponse.ProjectBackendListResponse;
 import my_spring_app.my_spring_app.dto.reponse.ProjectBasicInfoResponse;
@@ -10,7 +11,9 @@ import my_spring_app.my_spring_app.dto.reponse.ProjectFrontendListResponse;
 import my_spring_app.my_spring_app.dto.reponse.ProjectOverviewResponse;
 import my_spring_app.my_spring_app.dto.reponse.ProjectSummaryResponse;
 import my_spring_app.my_spring_app.dto.reponse.ProjectDeploymentHistoryResponse;
+import my_spring_app.my_spring_app.dto.request.BulkComponentRequest;
 import my_spring_app.my_spring_app.dto.request.CreateProjectRequest;
+import my_spring_app.my_spring_app.service.ProjectComponentService;
 import my_spring_app.my_spring_app.service.ProjectService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -31,6 +34,9 @@ public class ProjectController {
     @Autowired
     private ProjectService projectService;
 
+    @Autowired
+    private ProjectComponentService projectComponentService;
+
     @PostMapping
     public ResponseEntity<CreateProjectResponse> createProject(@Valid @RequestBody CreateProjectRequest request) {
         CreateProjectResponse response = projectService.createProject(request);
@@ -94,5 +100,24 @@ public class ProjectController {
         ProjectDeploymentHistoryResponse response = projectService.getProjectDeploymentHistory(id);
         return ResponseEntity.ok(response);
     }
-}
 
+    // Thao tác hàng loạt trên component của project: action = stop, start, delete, scale
+    @PostMapping("/{id}/components:{action}")
+    public ResponseEntity<BulkComponentResponse> bulkProjectComponents(
+            @PathVariable Long id,
+            @PathVariable String action,
+            @RequestBody(required = false) BulkComponentRequest request) {
+        BulkComponentResponse response = projectComponentService.bulkProjectComponents(id, action, request);
+        return ResponseEntity.ok(response);
+    }
+
+    // Thao tác hàng loạt trên component của mọi project thuộc user
+    @PostMapping("/components:{action}")
+    public ResponseEntity<BulkComponentResponse> bulkUserComponents(
+            @PathVariable String action,
+            @RequestParam String username,
+            @RequestBody(required = false) BulkComponentRequest request) {
+        BulkComponentResponse response = projectComponentService.bulkUserComponents(username, action, request);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,216 @@
+package my_spring_app.my_spring_app.deploy;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import my_spring_app.my_spring_app.entity.ArtifactCacheEntity;
+import my_spring_app.my_spring_app.repository.ArtifactCacheRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache image đã build theo nội dung source: SHA-256 của file zip + loại component + framework -> image đã push
+ * (ghim theo digest, {@code <repo>@sha256:...}).
+ *
+ * Deploy FILE trước đây luôn upload, unzip, docker build rồi docker push kể cả khi đúng file zip đó vừa được
+ * deploy. Nay service deploy tính fingerprint của file trước khi kết nối DOCKER server; nếu đã có image cho
+ * fingerprint đó thì bỏ qua upload/build/push và apply manifest với image cũ. Image được tham chiếu theo digest
+ * nên việc tag {@code :latest} của component khác bị ghi đè không ảnh hưởng.
+ *
+ * Quy trình dọn dẹp (LRU): mỗi {@code evictIntervalMs} xoá entry không được dùng quá {@code maxIdleDays} ngày,
+ * rồi xoá các entry dùng lâu nhất cho tới khi còn {@code maxEntries}.
+ */
+@Component
+public class ArtifactCache {
+
+    // Bật/tắt cache (tắt thì luôn build lại)
+    @Value("${app.deploy.artifact-cache.enabled:true}")
+    private boolean enabled = true;
+
+    // Số entry tối đa giữ trong bảng artifact_cache
+    @Value("${app.deploy.artifact-cache.max-entries:500}")
+    private int maxEntries = 500;
+
+    // Entry không được dùng lại quá số ngày này thì bị xoá
+    @Value("${app.deploy.artifact-cache.max-idle-days:30}")
+    private int maxIdleDays = 30;
+
+    // Chu kỳ dọn dẹp
+    @Value("${app.deploy.artifact-cache.evict-interval-ms:3600000}")
+    private long evictIntervalMs = 3600000;
+
+    // Repository bảng artifact_cache
+    @Autowired
+    private ArtifactCacheRepository artifactCacheRepository;
+
+    // Ghi entry trong transaction riêng: image đã push vẫn được nhớ dù transaction deploy rollback
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate requiresNew;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "artifact-cache-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    void start() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::evictSafely, evictIntervalMs, evictIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * SHA-256 (hex) của file upload; null nếu cache đang tắt.
+     */
+    public String fingerprint(MultipartFile file) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        if (file instanceof StagedMultipartFile staged) {
+            return staged.sha256();
+        }
+        try (InputStream in = file.getInputStream()) {
+            return sha256(in);
+        }
+    }
+
+    /**
+     * Image đã push cho fingerprint này, null nếu chưa có; mỗi lần trúng được tính là một lần dùng.
+     */
+    public String lookup(String contentHash, String componentType, String frameworkType) {
+        if (!enabled || contentHash == null) {
+            return null;
+        }
+        return artifactCacheRepository
+                .findByContentHashAndComponentTypeAndFrameworkType(contentHash, componentType, frameworkType)
+                .map(entry -> {
+                    artifactCacheRepository.touch(entry.getId(), LocalDateTime.now());
+                    System.out.println("[ArtifactCache] Dung lai image " + entry.getImageRef() + " cho " + componentType
+                            + "/" + frameworkType + " (" + shortHash(contentHash) + ")");
+                    return entry.getImageRef();
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Lưu image vừa push; imageRef phải là tham chiếu theo digest để dùng lại được an toàn.
+     */
+    public void record(String contentHash, String componentType, String frameworkType, String imageRef, long sizeBytes) {
+        if (!enabled || contentHash == null || imageRef == null || !imageRef.contains("@sha256:")) {
+            return;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                ArtifactCacheEntity entry = artifactCacheRepository
+                        .findByContentHashAndComponentTypeAndFrameworkType(contentHash, componentType, frameworkType)
+                        .orElseGet(ArtifactCacheEntity::new);
+                entry.setContentHash(contentHash);
+                entry.setComponentType(componentType);
+                entry.setFrameworkType(frameworkType);
+                entry.setImageRef(imageRef);
+                entry.setSizeBytes(sizeBytes);
+                entry.setLastUsedAt(LocalDateTime.now());
+                artifactCacheRepository.save(entry);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Deploy khác cùng nội dung vừa ghi trước: giữ entry của lần đó
+            System.out.println("[ArtifactCache] Entry " + shortHash(contentHash) + " da duoc ghi boi deploy khac");
+        }
+    }
+
+    /**
+     * Lệnh lấy các digest registry của image sau khi push (mỗi dòng một {@code <repo>@sha256:...}).
+     */
+    public static String inspectDigestsCommand(String imageTag) {
+        return "docker inspect --format '{{range .RepoDigests}}{{println .}}{{end}}' '" + imageTag.replace("'", "'\\''") + "'";
+    }
+
+    /**
+     * Chọn digest của đúng repository của {@code imageTag} từ output của {@link #inspectDigestsCommand(String)};
+     * null nếu không có (image chưa được push).
+     */
+    public static String digestReference(String inspectOutput, String imageTag) {
+        if (inspectOutput == null || imageTag == null) {
+            return null;
+        }
+        // Bỏ tag (phần sau dấu ':' cuối cùng, không tính ':' của host:port registry)
+        int slash = imageTag.lastIndexOf('/');
+        int colon = imageTag.lastIndexOf(':');
+        String repository = colon > slash ? imageTag.substring(0, colon) : imageTag;
+        for (String line : inspectOutput.split("\\R")) {
+            String ref = line.trim();
+            if (ref.startsWith(repository + "@sha256:")) {
+                return ref;
+            }
+        }
+        return null;
+    }
+
+    void evict() {
+        int idle = artifactCacheRepository.deleteUnusedSince(LocalDateTime.now().minusDays(maxIdleDays));
+        long excess = artifactCacheRepository.count() - maxEntries;
+        int trimmed = 0;
+        if (excess > 0) {
+            List<Long> ids = artifactCacheRepository.findIdsByLeastRecentlyUsed(PageRequest.of(0, (int) excess));
+            artifactCacheRepository.deleteAllByIdInBatch(ids);
+            trimmed = ids.size();
+        }
+        if (idle + trimmed > 0) {
+            System.out.println("[ArtifactCache] Da xoa " + idle + " entry qua han va " + trimmed + " entry vuot gioi han");
+        }
+    }
+
+    private void evictSafely() {
+        try {
+            evict();
+        } catch (Exception e) {
+            System.err.println("[ArtifactCache] Loi khi don dep cache: " + e.getMessage());
+        }
+    }
+
+    static String sha256(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM khong ho tro SHA-256", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String shortHash(String contentHash) {
+        return contentHash.length() > 12 ? contentHash.substring(0, 12) : contentHash;
+    }
+}
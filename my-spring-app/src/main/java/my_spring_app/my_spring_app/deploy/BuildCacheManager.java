@@ -0,0 +1,192 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Build Docker image trên DOCKER server với cache layer được giữ lại giữa các lần deploy.
+ *
+ * Trước đây mỗi lần deploy FILE build bằng builder mặc định rồi xoá toàn bộ thư mục uploads, nên mỗi lần build
+ * Spring Boot/Node đều tải lại dependency Maven/npm. Ở đây:
+ * - Build bằng BuildKit ({@code DOCKER_BUILDKIT=1}, output dạng plain): cache các bước được giữ trong build cache
+ *   của BuildKit kể cả khi image đã bị {@code docker rmi}, base image (FROM) không bị xoá
+ * - Dung lượng cache bị giới hạn theo {@code diskBudgetGb}: {@code docker builder prune --keep-storage} bỏ các bản
+ *   ghi dùng lâu nhất trước (LRU của BuildKit), chạy tối đa một lần mỗi {@code pruneIntervalMs} cho mỗi server
+ * - Số bước CACHED trên tổng số bước và thời gian build được cộng dồn theo framework
+ */
+@Component
+public class BuildCacheManager {
+
+    // Dòng bắt đầu một bước của Dockerfile trong output plain: "#7 [3/6] RUN mvn ..." hoặc "#7 [build 3/6] ..."
+    private static final Pattern STEP = Pattern.compile("^#(\\d+) \\[(?:[^\\]]*\\s)?\\d+/\\d+\\]");
+    private static final Pattern CACHED = Pattern.compile("^#(\\d+) CACHED");
+    private static final int ERROR_TAIL_LINES = 30;
+
+    // Bật BuildKit + giới hạn dung lượng cache (tắt thì build như cũ)
+    @Value("${app.build-cache.enabled:true}")
+    private boolean enabled = true;
+
+    // Dung lượng tối đa build cache được giữ trên mỗi DOCKER server
+    @Value("${app.build-cache.disk-budget-gb:20}")
+    private int diskBudgetGb = 20;
+
+    // Khoảng cách tối thiểu giữa hai lần prune trên cùng server
+    @Value("${app.build-cache.prune-interval-ms:600000}")
+    private long pruneIntervalMs = 600000;
+
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Thời điểm prune gần nhất theo server id
+    private final Map<Long, Long> lastPruneAt = new ConcurrentHashMap<>();
+
+    // Thống kê theo framework
+    private final Map<String, FrameworkStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Kết quả một lần build: số bước, số bước dùng cache, thời gian.
+     */
+    public record BuildResult(int steps, int cachedSteps, long durationMs) {
+
+        public double hitRate() {
+            return steps > 0 ? cachedSteps / (double) steps : 0;
+        }
+    }
+
+    /**
+     * Thống kê cộng dồn của một framework (bản sao tại thời điểm đọc).
+     */
+    public record FrameworkSnapshot(String framework, long builds, long steps, long cachedSteps,
+                                    long totalBuildMs, long lastBuildMs) {
+
+        public double hitRate() {
+            return steps > 0 ? cachedSteps / (double) steps : 0;
+        }
+
+        public long averageBuildMs() {
+            return builds > 0 ? totalBuildMs / builds : 0;
+        }
+    }
+
+    private static final class FrameworkStats {
+        private long builds;
+        private long steps;
+        private long cachedSteps;
+        private long totalBuildMs;
+        private long lastBuildMs;
+
+        synchronized void add(BuildResult result) {
+            builds++;
+            steps += result.steps();
+            cachedSteps += result.cachedSteps();
+            totalBuildMs += result.durationMs();
+            lastBuildMs = result.durationMs();
+        }
+
+        synchronized FrameworkSnapshot snapshot(String framework) {
+            return new FrameworkSnapshot(framework, builds, steps, cachedSteps, totalBuildMs, lastBuildMs);
+        }
+    }
+
+    /**
+     * Build image từ thư mục source trên DOCKER server; lỗi build ném RuntimeException kèm phần cuối output.
+     */
+    public BuildResult build(Session session, String framework, String projectDir, String imageTag) throws Exception {
+        String command = "cd '" + quote(projectDir) + "' && "
+                + (enabled ? "DOCKER_BUILDKIT=1 docker build --progress=plain" : "docker build")
+                + " -t '" + quote(imageTag) + "' .";
+        System.out.println("[BuildCacheManager] Docker build: " + command);
+        CommandResult result = remoteCommandExecutor.execute(session, command, 0);
+        if (!result.isSuccess()) {
+            throw new RuntimeException("Docker build thất bại (exit " + result.exitStatus() + "): "
+                    + tail(result.stderr().isEmpty() ? result.stdout() : result.stderr()));
+        }
+        BuildResult build = parse(result.stdout() + "\n" + result.stderr(), result.durationMs());
+        stats.computeIfAbsent(framework, f -> new FrameworkStats()).add(build);
+        System.out.println("[BuildCacheManager] Build " + framework + " xong trong " + build.durationMs() + " ms, "
+                + build.cachedSteps() + "/" + build.steps() + " buoc dung cache");
+        return build;
+    }
+
+    /**
+     * Giữ build cache trong {@code diskBudgetGb}; bỏ qua nếu server vừa được prune. Lỗi chỉ được log.
+     */
+    public void enforceBudget(Session session, ServerEntity server) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long last = lastPruneAt.get(server.getId());
+        if (last != null && now - last < pruneIntervalMs) {
+            return;
+        }
+        lastPruneAt.put(server.getId(), now);
+        String command = "docker builder prune -f --keep-storage " + diskBudgetGb + "gb && docker image prune -f";
+        try {
+            CommandResult result = remoteCommandExecutor.execute(session, command, 0);
+            if (!result.isSuccess()) {
+                System.err.println("[BuildCacheManager] Prune cache tren " + server.getIp() + " loi: " + result.stderr().trim());
+            }
+        } catch (Exception e) {
+            System.err.println("[BuildCacheManager] Khong prune duoc cache tren " + server.getIp() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Thống kê build theo framework, sắp theo tên.
+     */
+    public List<FrameworkSnapshot> snapshot() {
+        List<FrameworkSnapshot> result = new ArrayList<>();
+        new TreeMap<>(stats).forEach((framework, s) -> result.add(s.snapshot(framework)));
+        return result;
+    }
+
+    public int getDiskBudgetGb() {
+        return diskBudgetGb;
+    }
+
+    static BuildResult parse(String output, long durationMs) {
+        Set<String> steps = new HashSet<>();
+        Set<String> cached = new HashSet<>();
+        for (String line : output.split("\\R")) {
+            Matcher step = STEP.matcher(line);
+            if (step.find()) {
+                steps.add(step.group(1));
+                continue;
+            }
+            Matcher hit = CACHED.matcher(line);
+            if (hit.find()) {
+                cached.add(hit.group(1));
+            }
+        }
+        cached.retainAll(steps);
+        return new BuildResult(steps.size(), cached.size(), durationMs);
+    }
+
+    private static String tail(String output) {
+        String[] lines = output.trim().split("\\R");
+        int from = Math.max(0, lines.length - ERROR_TAIL_LINES);
+        return String.join("\n", Arrays.copyOfRange(lines, from, lines.length));
+    }
+
+    private static String quote(String value) {
+        return value.replace("'", "'\\''");
+    }
+}
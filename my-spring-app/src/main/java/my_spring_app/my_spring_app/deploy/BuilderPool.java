@@ -0,0 +1,321 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.ssh.ColumnTokenizer;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.ServerHealthRegistry;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool các server build image (mặc định role DOCKER), chọn builder theo tải cho từng lần build.
+ *
+ * Trước đây mọi deploy FILE gọi {@code serverRepository.findByRole("DOCKER")} nên chỉ dùng được đúng một
+ * builder, các build song song dồn lên cùng một máy và deploy thất bại ngay khi máy đó mất kết nối. Ở đây:
+ * - Builder là mọi server ONLINE có role trong {@code roles}, bỏ qua server đang bị circuit breaker chặn (OPEN)
+ * - Mỗi builder chạy tối đa {@code maxBuildsPerBuilder} build; build vượt quá xếp hàng FIFO tối đa
+ *   {@code acquireTimeoutMs}
+ * - Tải (load 1 phút / số core, RAM đã dùng / tổng RAM) được đo qua session SSH của pool và cache
+ *   {@code metricsTtlMs}; builder có điểm thấp nhất được chọn, builder chưa đo được tải chỉ tính theo số build
+ * - Builder mất kết nối giữa chừng (không chạy được lệnh kiểm tra sau khi build lỗi) thì build được chạy lại
+ *   trên builder khác, tối đa {@code maxFailovers} lần; lỗi build thật (Dockerfile sai, push lỗi...) được ném lại
+ *
+ * Quy trình xử lý:
+ * 1. Lấy danh sách builder ứng viên, đo tải (dùng cache nếu còn hạn)
+ * 2. Khi tới lượt (đầu hàng đợi) và có builder còn slot: giữ slot trên builder điểm thấp nhất
+ * 3. Chạy build trên builder đó, trả slot khi xong
+ * 4. Build lỗi và builder không còn phản hồi: loại builder đó, quay lại bước 1
+ */
+@Component
+public class BuilderPool {
+
+    // Lệnh đo tải: "<load 1 phút> <số core> <RAM tổng> <RAM đã dùng>"
+    static final String LOAD_COMMAND = "echo $(cut -d' ' -f1 /proc/loadavg) $(nproc) "
+            + "$(free -b | awk '/^Mem:/{print $2\" \"$3}')";
+    private static final long PROBE_TIMEOUT_MS = 10000;
+
+    // Role của các server được dùng làm builder
+    @Value("${app.builders.roles:DOCKER}")
+    private List<String> roles = List.of("DOCKER");
+
+    // Số build chạy đồng thời tối đa trên mỗi builder
+    @Value("${app.builders.max-builds-per-builder:2}")
+    private int maxBuildsPerBuilder = 2;
+
+    // Thời gian tối đa một build chờ trong hàng đợi
+    @Value("${app.builders.acquire-timeout-ms:1800000}")
+    private long acquireTimeoutMs = 1800000;
+
+    // Thời gian dùng lại kết quả đo tải của một builder
+    @Value("${app.builders.metrics-ttl-ms:30000}")
+    private long metricsTtlMs = 30000;
+
+    // Số lần chuyển sang builder khác khi builder đang build bị mất kết nối
+    @Value("${app.builders.max-failovers:1}")
+    private int maxFailovers = 1;
+
+    // Repository để lấy danh sách builder
+    @Autowired
+    private ServerRepository serverRepository;
+
+    // Pool SSH session dùng chung (đo tải, kiểm tra builder còn sống)
+    @Autowired
+    private SshSessionPool sshSessionPool;
+
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Circuit breaker theo server
+    @Autowired
+    private ServerHealthRegistry serverHealthRegistry;
+
+    private final Object lock = new Object();
+
+    // Số build đang chạy theo builder id (truy cập trong lock)
+    private final Map<Long, Integer> running = new HashMap<>();
+
+    // Hàng đợi FIFO các build đang chờ slot (truy cập trong lock)
+    private final Deque<Object> waiting = new ArrayDeque<>();
+
+    // Kết quả đo tải gần nhất theo builder id
+    private final Map<Long, Load> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Công việc chạy trên một builder đã được chọn.
+     */
+    @FunctionalInterface
+    public interface BuildTask<T> {
+        T run(ServerEntity builder) throws Exception;
+    }
+
+    /**
+     * Tải đo được của một builder.
+     */
+    record Load(double loadAverage, int cores, long ramTotal, long ramUsed, long measuredAt) {
+
+        double cpuRatio() {
+            return cores > 0 ? loadAverage / cores : loadAverage;
+        }
+
+        double ramRatio() {
+            return ramTotal > 0 ? ramUsed / (double) ramTotal : 0;
+        }
+    }
+
+    /**
+     * Chạy {@code task} trên builder phù hợp nhất, xếp hàng nếu mọi builder đều đủ slot.
+     *
+     * @param label Mô tả build (dùng cho log)
+     */
+    public <T> T run(String label, BuildTask<T> task) throws Exception {
+        Set<Long> excluded = new HashSet<>();
+        Exception lastFailure = null;
+        for (int attempt = 0; ; attempt++) {
+            ServerEntity builder;
+            try {
+                builder = acquire(label, excluded);
+            } catch (RuntimeException e) {
+                if (lastFailure == null) {
+                    throw e;
+                }
+                // Không còn builder nào để chuyển sang: giữ lỗi build gốc làm nguyên nhân
+                throw new RuntimeException(e.getMessage(), lastFailure);
+            }
+            try {
+                return task.run(builder);
+            } catch (Exception e) {
+                if (attempt >= maxFailovers || reachable(builder)) {
+                    throw e;
+                }
+                lastFailure = e;
+                excluded.add(builder.getId());
+                loads.remove(builder.getId());
+                System.err.println("[BuilderPool] Builder " + builder.getIp() + " mat ket noi khi build " + label
+                        + " (" + e.getMessage() + "), chuyen sang builder khac");
+                DeploymentProgress.stage(DeploymentProgress.BUILD,
+                        "Builder " + builder.getIp() + " mất kết nối, chuyển sang builder khác");
+            } finally {
+                release(builder);
+            }
+        }
+    }
+
+    ServerEntity acquire(String label, Set<Long> excluded) throws InterruptedException {
+        Object ticket = new Object();
+        long deadline = System.currentTimeMillis() + acquireTimeoutMs;
+        boolean announced = false;
+        synchronized (lock) {
+            waiting.addLast(ticket);
+        }
+        try {
+            while (true) {
+                // Đọc DB và đo tải ngoài lock; chỉ phần chọn và giữ slot nằm trong lock
+                List<ServerEntity> builders = candidates(excluded);
+                if (builders.isEmpty()) {
+                    throw new RuntimeException("Không có builder ONLINE (role " + String.join("/", roles)
+                            + "). Vui lòng cấu hình server build image trong hệ thống.");
+                }
+                Map<Long, Load> measured = new HashMap<>();
+                for (ServerEntity builder : builders) {
+                    Load load = load(builder);
+                    if (load != null) {
+                        measured.put(builder.getId(), load);
+                    }
+                }
+                synchronized (lock) {
+                    if (waiting.peekFirst() == ticket) {
+                        ServerEntity best = pick(builders, measured);
+                        if (best != null) {
+                            running.merge(best.getId(), 1, Integer::sum);
+                            waiting.removeFirst();
+                            lock.notifyAll();
+                            System.out.println("[BuilderPool] Build " + label + " chay tren builder " + best.getIp()
+                                    + " (dang chay " + running.get(best.getId()) + "/" + maxBuildsPerBuilder + ")");
+                            return best;
+                        }
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new RuntimeException("Hết thời gian chờ builder trống cho " + label
+                                + " (" + waiting.size() + " build đang chờ)");
+                    }
+                    if (!announced) {
+                        announced = true;
+                        DeploymentProgress.stage(DeploymentProgress.QUEUED, "Đang chờ builder trống ("
+                                + waiting.size() + " build trong hàng đợi)");
+                    }
+                    // Thức dậy định kỳ để nhận builder mới ONLINE / tải thay đổi
+                    lock.wait(Math.min(remaining, Math.max(1000, metricsTtlMs)));
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                if (waiting.remove(ticket)) {
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    void release(ServerEntity builder) {
+        synchronized (lock) {
+            running.computeIfPresent(builder.getId(), (id, n) -> n > 1 ? n - 1 : null);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Builder còn slot có điểm thấp nhất; builder chưa đo được tải thì chỉ tính theo số build đang chạy.
+     * Gọi trong lock.
+     */
+    ServerEntity pick(List<ServerEntity> builders, Map<Long, Load> measured) {
+        ServerEntity best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (ServerEntity builder : builders) {
+            int builds = running.getOrDefault(builder.getId(), 0);
+            Load load = measured.get(builder.getId());
+            if (builds >= maxBuildsPerBuilder) {
+                continue;
+            }
+            double score = load != null ? score(builds, load) : builds / (double) maxBuildsPerBuilder;
+            if (score < bestScore) {
+                best = builder;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    double score(int builds, Load load) {
+        return builds / (double) maxBuildsPerBuilder + load.cpuRatio() + load.ramRatio();
+    }
+
+    private List<ServerEntity> candidates(Set<Long> excluded) {
+        List<ServerEntity> result = new ArrayList<>();
+        for (ServerEntity server : serverRepository.findAllByRoleInAndStatus(roles, ServerEntity.ServerStatus.ONLINE)) {
+            if (excluded.contains(server.getId())) {
+                continue;
+            }
+            if (serverHealthRegistry.snapshot(server.getId()).state() == ServerHealthRegistry.State.OPEN) {
+                continue;
+            }
+            result.add(server);
+        }
+        return result;
+    }
+
+    /**
+     * Tải của builder (cache {@code metricsTtlMs}); null nếu không đo được.
+     */
+    Load load(ServerEntity builder) {
+        Load cached = loads.get(builder.getId());
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.measuredAt() < metricsTtlMs) {
+            return cached;
+        }
+        Session session = null;
+        try {
+            session = sshSessionPool.acquire(builder);
+            CommandResult result = remoteCommandExecutor.execute(session, LOAD_COMMAND, PROBE_TIMEOUT_MS);
+            Load load = result.isSuccess() ? parseLoad(result.stdout(), now) : null;
+            if (load == null) {
+                System.err.println("[BuilderPool] Khong doc duoc tai cua builder " + builder.getIp() + ": "
+                        + result.stdout().trim() + " " + result.stderr().trim());
+                loads.remove(builder.getId());
+                return null;
+            }
+            loads.put(builder.getId(), load);
+            return load;
+        } catch (Exception e) {
+            System.err.println("[BuilderPool] Khong do duoc tai cua builder " + builder.getIp() + ": " + e.getMessage());
+            loads.remove(builder.getId());
+            return null;
+        } finally {
+            sshSessionPool.release(session);
+        }
+    }
+
+    /**
+     * Builder còn chạy được lệnh hay không (phân biệt mất kết nối với lỗi build).
+     */
+    boolean reachable(ServerEntity builder) {
+        Session session = null;
+        try {
+            session = sshSessionPool.acquire(builder);
+            return remoteCommandExecutor.execute(session, "true", PROBE_TIMEOUT_MS).isSuccess();
+        } catch (Exception e) {
+            return false;
+        } finally {
+            sshSessionPool.release(session);
+        }
+    }
+
+    static Load parseLoad(String output, long measuredAt) {
+        ColumnTokenizer columns = new ColumnTokenizer(4);
+        if (columns.tokenize(output) < 4) {
+            return null;
+        }
+        try {
+            return new Load(Double.parseDouble(columns.column(0)), Integer.parseInt(columns.column(1)),
+                    Long.parseLong(columns.column(2)), Long.parseLong(columns.column(3)), measuredAt);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
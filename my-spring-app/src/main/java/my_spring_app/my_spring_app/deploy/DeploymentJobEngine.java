@@ -0,0 +1,458 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import my_spring_app.my_spring_app.dto.request.DeployBackendRequest;
+import my_spring_app.my_spring_app.dto.request.DeployDatabaseRequest;
+import my_spring_app.my_spring_app.dto.request.DeployFrontendRequest;
+import my_spring_app.my_spring_app.entity.DeploymentJobEntity;
+import my_spring_app.my_spring_app.entity.DeploymentJobEventEntity;
+import my_spring_app.my_spring_app.repository.DeploymentJobEventRepository;
+import my_spring_app.my_spring_app.repository.DeploymentJobRepository;
+import my_spring_app.my_spring_app.service.ProjectBackendService;
+import my_spring_app.my_spring_app.service.ProjectDatabaseService;
+import my_spring_app.my_spring_app.service.ProjectFrontendService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chạy deploy Database/Backend/Frontend bất đồng bộ dưới dạng DeploymentJob lưu trong MySQL.
+ *
+ * Trước đây toàn bộ pipeline (upload SFTP, unzip, docker build/push, apply manifest) chạy trên thread request
+ * của Tomcat: một lần build chậm giữ thread vài phút, vài lần deploy đồng thời là cạn connector.
+ *
+ * Quy trình xử lý:
+ * 1. submit: lưu file upload vào {@code stagingDir}, ghi request (JSON, không gồm file) thành job QUEUED
+ *    và đưa id job vào hàng đợi của pool {@code workers} thread cố định
+ * 2. Worker chuyển job sang RUNNING, gắn DeploymentProgress cho thread; mỗi bước của service deploy được ghi
+ *    thành DeploymentJobEvent và đẩy tới các client đang theo dõi qua SSE
+ * 3. Kết thúc: lưu kết quả (Deploy*Response dạng JSON) hoặc lỗi, xoá file tạm và request payload
+ * 4. Khởi động lại app: job QUEUED (chưa chạy bước nào) được đưa lại vào hàng đợi; job RUNNING bị ngắt giữa
+ *    chừng được đánh dấu FAILED để người dùng kiểm tra rồi deploy lại, không tự chạy lại vì các service deploy
+ *    không idempotent (có thể đã tạo một phần resource, push image, ghi DB...)
+ *
+ * Endpoint {@code /deploy} cũ vẫn trả Deploy*Response như trước nhưng chờ job qua DeferredResult nên không
+ * giữ thread Tomcat trong lúc build.
+ */
+@Component
+public class DeploymentJobEngine {
+
+    public static final String TYPE_DATABASE = "DATABASE";
+    public static final String TYPE_BACKEND = "BACKEND";
+    public static final String TYPE_FRONTEND = "FRONTEND";
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // Bỏ MultipartFile khi ghi request thành JSON (file được lưu riêng trên đĩa)
+    @JsonIgnoreType
+    private interface IgnoredType {
+    }
+
+    // Số job deploy chạy đồng thời
+    @Value("${app.deploy.jobs.workers:4}")
+    private int workers = 4;
+
+    // Thư mục lưu file upload của job đang chờ/chạy
+    @Value("${app.deploy.jobs.staging-dir:data/deploy-jobs}")
+    private String stagingDir = "data/deploy-jobs";
+
+    // Thời gian endpoint /deploy đồng bộ chờ job; quá hạn thì trả 202 kèm job để client theo dõi tiếp
+    @Value("${app.deploy.jobs.sync-timeout-ms:1800000}")
+    private long syncTimeoutMs = 1800000;
+
+    // Thời gian giữ một kết nối SSE theo dõi job
+    @Value("${app.deploy.jobs.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs = 1800000;
+
+    // Repository job và sự kiện tiến độ
+    @Autowired
+    private DeploymentJobRepository deploymentJobRepository;
+
+    @Autowired
+    private DeploymentJobEventRepository deploymentJobEventRepository;
+
+    // Các service deploy thực sự
+    @Autowired
+    private ProjectDatabaseService projectDatabaseService;
+
+    @Autowired
+    private ProjectBackendService projectBackendService;
+
+    @Autowired
+    private ProjectFrontendService projectFrontendService;
+
+    // ObjectMapper của Spring (đã có module LocalDateTime)
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper requestMapper;
+
+    private ExecutorService pool;
+
+    // Job đang có request đồng bộ chờ kết quả: id job -> Deploy*Response
+    private final Map<Long, CompletableFuture<Object>> completions = new ConcurrentHashMap<>();
+
+    // Client SSE đang theo dõi: id job -> emitter
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        requestMapper = objectMapper.copy().addMixIn(MultipartFile.class, IgnoredType.class);
+        AtomicInteger counter = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread t = new Thread(r, "deploy-job-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Job đang chạy dở giữ trạng thái RUNNING và được đánh dấu FAILED ở lần khởi động sau
+        pool.shutdownNow();
+    }
+
+    /**
+     * Xử lý các job chưa kết thúc sau khi app khởi động: job QUEUED được đưa lại vào hàng đợi,
+     * job RUNNING bị ngắt giữa chừng được đánh dấu FAILED (không chạy lại tự động).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<DeploymentJobEntity> unfinished = deploymentJobRepository
+                .findByStatusInOrderByIdAsc(List.of(STATUS_QUEUED, STATUS_RUNNING));
+        int requeued = 0;
+        int interrupted = 0;
+        for (DeploymentJobEntity job : unfinished) {
+            if (STATUS_RUNNING.equals(job.getStatus())) {
+                finish(job, null, "Job bị ngắt ở bước " + job.getStage() + " khi app khởi động lại. "
+                        + "Deploy có thể đã được áp dụng một phần, vui lòng kiểm tra rồi deploy lại");
+                interrupted++;
+                continue;
+            }
+            pool.execute(() -> run(job.getId()));
+            requeued++;
+        }
+        if (requeued > 0 || interrupted > 0) {
+            System.out.println("[DeploymentJobEngine] Dua lai " + requeued + " job deploy vao hang doi, "
+                    + interrupted + " job bi ngat danh dau FAILED");
+        }
+    }
+
+    /**
+     * Tạo job deploy từ request của controller và đưa vào hàng đợi.
+     *
+     * @param componentType TYPE_DATABASE, TYPE_BACKEND hoặc TYPE_FRONTEND (phải khớp kiểu request)
+     */
+    public DeploymentJobEntity submit(String componentType, Object request) {
+        MultipartFile file = switch (request) {
+            case DeployDatabaseRequest r when TYPE_DATABASE.equals(componentType) -> r.getFile();
+            case DeployBackendRequest r when TYPE_BACKEND.equals(componentType) -> r.getFile();
+            case DeployFrontendRequest r when TYPE_FRONTEND.equals(componentType) -> r.getFile();
+            default -> throw new IllegalArgumentException("Loại component không khớp request deploy: " + componentType);
+        };
+
+        DeploymentJobEntity job = new DeploymentJobEntity();
+        job.setComponentType(componentType);
+        job.setStatus(STATUS_QUEUED);
+        job.setStage(DeploymentProgress.QUEUED);
+        job.setAttempts(0);
+        try {
+            job.setRequestPayload(requestMapper.writeValueAsString(request));
+            var tree = requestMapper.valueToTree(request);
+            job.setUsername(tree.path("username").isTextual() ? tree.path("username").asText() : null);
+            job.setProjectId(tree.path("projectId").canConvertToLong() ? tree.path("projectId").asLong() : null);
+        } catch (IOException e) {
+            throw new RuntimeException("Không thể lưu request deploy: " + e.getMessage(), e);
+        }
+
+        Path staged = null;
+        if (file != null && !file.isEmpty()) {
+            staged = stageFile(file);
+            job.setStagedFilePath(staged.toString());
+            job.setStagedFileName(file.getOriginalFilename());
+            job.setStagedContentType(file.getContentType());
+        }
+
+        try {
+            job = deploymentJobRepository.save(job);
+        } catch (RuntimeException e) {
+            deleteQuietly(staged);
+            throw e;
+        }
+        recordEvent(job.getId(), DeploymentProgress.QUEUED, "Đã nhận yêu cầu deploy " + componentType);
+
+        Long jobId = job.getId();
+        afterCommit(() -> pool.execute(() -> run(jobId)));
+        System.out.println("[DeploymentJobEngine] Nhan job deploy " + componentType + " #" + jobId);
+        return job;
+    }
+
+    /**
+     * Chờ job kết thúc mà không giữ thread request: thành công trả 201 + Deploy*Response như endpoint cũ,
+     * lỗi chuyển cho GlobalExceptionHandler, quá {@code syncTimeoutMs} trả 202 + job id.
+     */
+    public DeferredResult<ResponseEntity<?>> awaitResult(Long jobId) {
+        DeferredResult<ResponseEntity<?>> deferred = new DeferredResult<>(syncTimeoutMs);
+        CompletableFuture<Object> completion = completions.computeIfAbsent(jobId, id -> new CompletableFuture<>());
+        deferred.onTimeout(() -> deferred.setResult(ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("jobId", jobId, "message", "Deploy vẫn đang chạy, theo dõi tại /api/deployment-jobs/" + jobId))));
+        completion.whenComplete((result, error) -> {
+            if (error != null) {
+                deferred.setErrorResult(error);
+            } else {
+                deferred.setResult(ResponseEntity.status(HttpStatus.CREATED).body(result));
+            }
+        });
+        // Job có thể đã kết thúc trước khi đăng ký chờ
+        completeIfFinished(jobId);
+        return deferred;
+    }
+
+    /**
+     * Theo dõi tiến độ job qua SSE: gửi lại các sự kiện đã lưu (event "stage"), rồi các sự kiện mới;
+     * khi job kết thúc gửi event "status" và đóng kết nối.
+     */
+    public SseEmitter subscribe(Long jobId) {
+        DeploymentJobEntity job = deploymentJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy job deploy " + jobId));
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        List<SseEmitter> list = emitters.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        emitter.onCompletion(() -> list.remove(emitter));
+        emitter.onTimeout(() -> list.remove(emitter));
+        emitter.onError(e -> list.remove(emitter));
+        try {
+            for (DeploymentJobEventEntity event : deploymentJobEventRepository.findByJobIdOrderByIdAsc(jobId)) {
+                emitter.send(SseEmitter.event().id(String.valueOf(event.getId())).name("stage").data(event));
+            }
+            if (isFinished(job.getStatus())) {
+                emitter.send(SseEmitter.event().name("status").data(job.getStatus()));
+                emitter.complete();
+            }
+        } catch (IOException e) {
+            list.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    // ==================== Worker ====================
+
+    void run(Long jobId) {
+        DeploymentJobEntity job = deploymentJobRepository.findById(jobId).orElse(null);
+        if (job == null || !STATUS_QUEUED.equals(job.getStatus())) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        job.setStatus(STATUS_RUNNING);
+        job.setStage(DeploymentProgress.PREPARE);
+        job.setAttempts((job.getAttempts() != null ? job.getAttempts() : 0) + 1);
+        job.setStartedAt(LocalDateTime.now());
+        DeploymentJobEntity running = deploymentJobRepository.save(job);
+        recordEvent(jobId, DeploymentProgress.PREPARE, "Bắt đầu deploy (lần " + running.getAttempts() + ")");
+
+        DeploymentProgress.bind((stage, message) -> {
+            running.setStage(stage);
+            deploymentJobRepository.save(running);
+            recordEvent(jobId, stage, message);
+        });
+        Object result = null;
+        String error = null;
+        try {
+            result = execute(running);
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            DeploymentProgress.clear();
+        }
+        if (error != null && Thread.currentThread().isInterrupted()) {
+            // App đang tắt giữa chừng: giữ RUNNING, lần khởi động sau đánh dấu FAILED kèm bước bị ngắt.
+            // Deploy đã trả kết quả thì vẫn ghi nhận bình thường dù thread bị ngắt sau đó
+            return;
+        }
+        finish(running, result, error);
+        System.out.println("[DeploymentJobEngine] Job #" + jobId + " " + running.getStatus()
+                + " sau " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private Object execute(DeploymentJobEntity job) throws IOException {
+        MultipartFile file = job.getStagedFilePath() != null
+                ? new StagedMultipartFile(Paths.get(job.getStagedFilePath()), job.getStagedFileName(), job.getStagedContentType())
+                : null;
+        String payload = job.getRequestPayload();
+        return switch (job.getComponentType()) {
+            case TYPE_DATABASE -> {
+                DeployDatabaseRequest request = requestMapper.readValue(payload, DeployDatabaseRequest.class);
+                request.setFile(file);
+                yield projectDatabaseService.deploy(request);
+            }
+            case TYPE_BACKEND -> {
+                DeployBackendRequest request = requestMapper.readValue(payload, DeployBackendRequest.class);
+                request.setFile(file);
+                yield projectBackendService.deploy(request);
+            }
+            case TYPE_FRONTEND -> {
+                DeployFrontendRequest request = requestMapper.readValue(payload, DeployFrontendRequest.class);
+                request.setFile(file);
+                yield projectFrontendService.deploy(request);
+            }
+            default -> throw new IllegalArgumentException("Loại component không hợp lệ: " + job.getComponentType());
+        };
+    }
+
+    private void finish(DeploymentJobEntity job, Object result, String error) {
+        if (error == null) {
+            job.setStatus(STATUS_SUCCEEDED);
+            job.setStage(DeploymentProgress.COMPLETE);
+            try {
+                job.setResultPayload(result != null ? objectMapper.writeValueAsString(result) : null);
+            } catch (IOException e) {
+                System.err.println("[DeploymentJobEngine] Khong ghi duoc ket qua job #" + job.getId() + ": " + e.getMessage());
+            }
+        } else {
+            job.setStatus(STATUS_FAILED);
+            job.setStage(DeploymentProgress.FAILED);
+            job.setErrorMessage(error.length() > 2000 ? error.substring(0, 2000) : error);
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        job.setRequestPayload(null);
+        deleteQuietly(job.getStagedFilePath() != null ? Paths.get(job.getStagedFilePath()) : null);
+        job.setStagedFilePath(null);
+        deploymentJobRepository.save(job);
+        recordEvent(job.getId(), job.getStage(), error == null ? "Deploy thành công" : error);
+
+        CompletableFuture<Object> completion = completions.remove(job.getId());
+        if (completion != null) {
+            if (error == null) {
+                completion.complete(result);
+            } else {
+                completion.completeExceptionally(new RuntimeException(error));
+            }
+        }
+        List<SseEmitter> list = emitters.remove(job.getId());
+        if (list != null) {
+            for (SseEmitter emitter : list) {
+                try {
+                    emitter.send(SseEmitter.event().name("status").data(job.getStatus()));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    // Hoàn tất ngay request đồng bộ nếu job đã kết thúc (kết quả đọc lại từ DB)
+    private void completeIfFinished(Long jobId) {
+        DeploymentJobEntity job = deploymentJobRepository.findById(jobId).orElse(null);
+        if (job == null || !isFinished(job.getStatus())) {
+            return;
+        }
+        CompletableFuture<Object> completion = completions.remove(jobId);
+        if (completion == null) {
+            return;
+        }
+        if (STATUS_SUCCEEDED.equals(job.getStatus())) {
+            try {
+                completion.complete(job.getResultPayload() != null ? objectMapper.readTree(job.getResultPayload()) : null);
+            } catch (IOException e) {
+                completion.completeExceptionally(e);
+            }
+        } else {
+            completion.completeExceptionally(new RuntimeException(job.getErrorMessage()));
+        }
+    }
+
+    private void recordEvent(Long jobId, String stage, String message) {
+        DeploymentJobEventEntity event = new DeploymentJobEventEntity();
+        event.setJobId(jobId);
+        event.setStage(stage);
+        event.setMessage(message != null && message.length() > 2000 ? message.substring(0, 2000) : message);
+        event = deploymentJobEventRepository.save(event);
+        List<SseEmitter> list = emitters.get(jobId);
+        if (list == null) {
+            return;
+        }
+        for (SseEmitter emitter : list) {
+            try {
+                emitter.send(SseEmitter.event().id(String.valueOf(event.getId())).name("stage").data(event));
+            } catch (IOException | IllegalStateException e) {
+                list.remove(emitter);
+            }
+        }
+    }
+
+    static boolean isFinished(String status) {
+        return STATUS_SUCCEEDED.equals(status) || STATUS_FAILED.equals(status);
+    }
+
+    // ==================== File tạm ====================
+
+    private Path stageFile(MultipartFile file) {
+        try {
+            Path dir = Paths.get(stagingDir);
+            Files.createDirectories(dir);
+            Path target = dir.resolve(UUID.randomUUID() + ".upload").toAbsolutePath();
+            // File part của Tomcat đã nằm trên đĩa: transferTo đổi tên (cùng filesystem) thay vì chép lại;
+            // SHA-256 được tính khi worker upload lên server (SftpStreamUploader)
+            file.transferTo(target.toFile());
+            return target;
+        } catch (IOException e) {
+            throw new RuntimeException("Không thể lưu file upload cho job deploy: " + e.getMessage(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("[DeploymentJobEngine] Khong xoa duoc file tam " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package my_spring_app.my_spring_app.deploy;
+
+/**
+ * Báo tiến độ theo từng bước của một lần deploy (upload, build, push, apply...).
+ *
+ * Service deploy gọi {@link #stage(String, String)} ở đầu mỗi bước; nếu lần deploy đang chạy trong một
+ * DeploymentJob thì DeploymentJobEngine đã gắn listener cho thread worker và sự kiện được lưu lại + đẩy tới
+ * client đang theo dõi. Gọi ngoài job (không có listener) thì không làm gì.
+ */
+public final class DeploymentProgress {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String PREPARE = "PREPARE";
+    public static final String UPLOAD = "UPLOAD";
+    public static final String BUILD = "BUILD";
+    public static final String PUSH = "PUSH";
+    public static final String APPLY = "APPLY";
+    public static final String EXPOSE = "EXPOSE";
+    public static final String IMPORT = "IMPORT";
+    public static final String COMPLETE = "COMPLETE";
+    public static final String FAILED = "FAILED";
+
+    /**
+     * Nhận sự kiện tiến độ của thread hiện tại.
+     */
+    public interface Listener {
+        void stage(String stage, String message);
+    }
+
+    private static final ThreadLocal<Listener> CURRENT = new ThreadLocal<>();
+
+    private DeploymentProgress() {
+    }
+
+    static void bind(Listener listener) {
+        CURRENT.set(listener);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Báo bắt đầu một bước; lỗi của listener không được làm hỏng lần deploy.
+     */
+    public static void stage(String stage, String message) {
+        Listener listener = CURRENT.get();
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.stage(stage, message);
+        } catch (Exception e) {
+            System.err.println("[DeploymentProgress] Khong ghi duoc tien do " + stage + ": " + e.getMessage());
+        }
+    }
+}
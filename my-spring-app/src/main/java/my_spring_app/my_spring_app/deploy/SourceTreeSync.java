@@ -0,0 +1,431 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.SftpStreamUploader;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Đồng bộ source của một component lên builder theo kiểu rsync: chỉ gửi các file thay đổi so với lần deploy trước.
+ *
+ * Trước đây mỗi lần deploy FILE upload nguyên file zip vào thư mục mới rồi xoá thư mục đó sau khi build, nên sửa
+ * một file cũng phải gửi lại toàn bộ source. Ở đây builder giữ cây source đã giải nén của từng component
+ * ({@code <root>/<username>/<project>/<loại>/<tên component>/src}) cùng manifest (SHA-256, kích thước, quyền unix
+ * của từng file). Lần deploy sau:
+ * - Các entry của file zip mới được băm cục bộ và so với manifest trên builder
+ * - Entry mới/thay đổi được chép nguyên dạng nén (raw, giữ quyền thực thi) sang một zip delta nhỏ rồi upload
+ * - File không còn trong zip mới bị xoá khỏi cây source, cùng các thư mục cha chỉ còn chứa chúng
+ * - Chưa có cây/manifest (lần đầu, builder khác, lần đồng bộ trước bị lỗi) thì gửi nguyên zip và giải nén lại
+ *
+ * Manifest bị xoá trước khi thay đổi cây và chỉ được ghi lại khi đồng bộ xong, nên lỗi giữa chừng làm lần sau
+ * tự quay về gửi nguyên zip. Cây không được deploy lại quá {@code maxIdleDays} ngày thì bị dọn.
+ *
+ * Quy trình xử lý:
+ * 1. Mở zip thẳng trên file đã stage của job (chỉ chép ra file tạm khi upload không nằm sẵn trên đĩa), đọc
+ *    danh sách entry và băm nội dung
+ * 2. Đọc manifest cũ trên builder (chỉ khi cây source còn tồn tại)
+ * 3. Tính phần khác biệt, upload zip delta (hoặc zip đầy đủ), giải nén đè lên cây, xoá file thừa
+ * 4. Ghi manifest mới
+ */
+@Component
+public class SourceTreeSync {
+
+    private static final String MANIFEST = "manifest";
+    private static final String TREE = "src";
+    private static final String DELTA = "delta.zip";
+    private static final String DELETED = "deleted";
+    private static final String DELETED_DIRS = "deleted-dirs";
+
+    // Bật đồng bộ delta (tắt thì luôn gửi nguyên zip, cây source vẫn được giữ)
+    @Value("${app.deploy.delta.enabled:true}")
+    private boolean enabled = true;
+
+    // Cây source không được deploy lại quá số ngày này thì bị xoá khỏi builder
+    @Value("${app.deploy.delta.max-idle-days:14}")
+    private int maxIdleDays = 14;
+
+    // Khoảng cách tối thiểu giữa hai lần dọn cây source trên cùng builder
+    @Value("${app.deploy.delta.prune-interval-ms:3600000}")
+    private long pruneIntervalMs = 3600000;
+
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Upload SFTP có pipelining và SHA-256
+    @Autowired
+    private SftpStreamUploader sftpStreamUploader;
+
+    // Khoá theo builder + cây source: hai deploy cùng component không sửa cùng một cây
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    // Thời điểm dọn gần nhất theo builder id
+    private final Map<Long, Long> lastPruneAt = new ConcurrentHashMap<>();
+
+    /**
+     * Thông tin một file trong zip: SHA-256 nội dung, kích thước và quyền unix.
+     */
+    record Entry(String sha256, long size, int mode) {
+    }
+
+    /**
+     * Phần khác biệt giữa hai manifest.
+     */
+    record Delta(List<String> changed, List<String> deleted, int unchanged) {
+    }
+
+    /**
+     * Kết quả đồng bộ: thư mục source trên builder và lượng dữ liệu đã gửi.
+     */
+    public record SyncResult(String treeDir, boolean delta, int changedFiles, int deletedFiles, int unchangedFiles,
+                             long sentBytes, long archiveBytes, long elapsedMs) {
+
+        public String describe() {
+            if (!delta) {
+                return String.format("nguyên zip %.1f MB (%d file) trong %d ms",
+                        archiveBytes / 1048576d, changedFiles, elapsedMs);
+            }
+            return String.format("delta %d file thay đổi, %d file bị xoá, %d file giữ nguyên: gửi %.1f KB / %.1f MB trong %d ms",
+                    changedFiles, deletedFiles, unchangedFiles, sentBytes / 1024d, archiveBytes / 1048576d, elapsedMs);
+        }
+    }
+
+    /**
+     * Khoá cây source {@code treeKey} trên builder; caller phải {@code unlock()} sau khi build xong.
+     */
+    public ReentrantLock lock(ServerEntity builder, String treeKey) {
+        ReentrantLock lock = locks.computeIfAbsent(builder.getId() + ":" + treeKey, k -> new ReentrantLock());
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Khoá của cây source theo component; các phần được chuẩn hoá để dùng làm đường dẫn.
+     */
+    public static String treeKey(String... parts) {
+        List<String> safe = new ArrayList<>();
+        for (String part : parts) {
+            safe.add(part == null || part.isBlank() ? "_" : part.replaceAll("[^a-zA-Z0-9._-]", "_"));
+        }
+        return String.join("/", safe);
+    }
+
+    /**
+     * Đưa cây source {@code treeKey} trên builder về đúng nội dung của {@code file}.
+     */
+    public SyncResult sync(Session session, ChannelSftp sftp, ServerEntity builder, String treeKey,
+                           MultipartFile file) throws Exception {
+        long start = System.currentTimeMillis();
+        String base = treeRoot(builder) + "/" + treeKey;
+        String treeDir = base + "/" + TREE;
+        Path copy = null;
+        Path delta = null;
+        try {
+            Path archive;
+            if (file instanceof StagedMultipartFile staged) {
+                archive = staged.getPath();
+            } else {
+                copy = Files.createTempFile("source-", ".zip");
+                try (InputStream in = file.getInputStream()) {
+                    Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+                }
+                archive = copy;
+            }
+            Map<String, Entry> entries = index(archive);
+            Map<String, Entry> previous = enabled && entries != null ? readManifest(session, base) : null;
+            // Bỏ manifest trước khi sửa cây: lỗi giữa chừng thì lần sau gửi nguyên zip
+            run(session, "mkdir -p '" + quote(base) + "' && rm -f '" + quote(base + "/" + MANIFEST) + "'"
+                    + " '" + quote(base + "/" + DELTA) + "' '" + quote(base + "/" + DELETED) + "'"
+                    + " '" + quote(base + "/" + DELETED_DIRS) + "'");
+            SyncResult result;
+            if (previous == null) {
+                sftpStreamUploader.upload(sftp, Files.newInputStream(archive), base + "/" + DELTA);
+                run(session, "cd '" + quote(base) + "' && rm -rf " + TREE + " && mkdir " + TREE
+                        + " && unzip -q -o " + DELTA + " -d " + TREE + " && rm -f " + DELTA);
+                long size = Files.size(archive);
+                result = new SyncResult(treeDir, false, entries != null ? entries.size() : 0, 0, 0,
+                        size, size, System.currentTimeMillis() - start);
+            } else {
+                Delta diff = diff(previous, entries);
+                long sent = 0;
+                if (!diff.changed().isEmpty()) {
+                    delta = Files.createTempFile("delta-", ".zip");
+                    writeDelta(archive, new HashSet<>(diff.changed()), delta);
+                    sent = sftpStreamUploader.upload(sftp, Files.newInputStream(delta), base + "/" + DELTA).bytes();
+                    run(session, "cd '" + quote(base) + "' && unzip -q -o " + DELTA + " -d " + TREE + " && rm -f " + DELTA);
+                }
+                if (!diff.deleted().isEmpty()) {
+                    byte[] list = (String.join("\n", diff.deleted()) + "\n").getBytes(StandardCharsets.UTF_8);
+                    sftp.put(new ByteArrayInputStream(list), base + "/" + DELETED, ChannelSftp.OVERWRITE);
+                    sent += list.length;
+                    String command = "cd '" + quote(treeDir) + "' && tr '\\n' '\\0' < ../" + DELETED
+                            + " | xargs -0 -r rm -f -- && rm -f ../" + DELETED;
+                    // Chỉ dọn thư mục cha của file vừa xoá; thư mục rỗng có trong zip mới được giữ nguyên
+                    List<String> dirs = emptiedDirectories(diff.deleted(), entries.keySet(), directories(archive));
+                    if (!dirs.isEmpty()) {
+                        byte[] dirList = (String.join("\n", dirs) + "\n").getBytes(StandardCharsets.UTF_8);
+                        sftp.put(new ByteArrayInputStream(dirList), base + "/" + DELETED_DIRS, ChannelSftp.OVERWRITE);
+                        sent += dirList.length;
+                        // Dọn thư mục là best-effort: thư mục đã mất hoặc còn file ngoài zip không làm hỏng lần đồng bộ
+                        command += " && { tr '\\n' '\\0' < ../" + DELETED_DIRS
+                                + " | xargs -0 -r rmdir --ignore-fail-on-non-empty -- 2>/dev/null; rm -f ../" + DELETED_DIRS + "; }";
+                    }
+                    run(session, command);
+                }
+                result = new SyncResult(treeDir, true, diff.changed().size(), diff.deleted().size(), diff.unchanged(),
+                        sent, Files.size(archive), System.currentTimeMillis() - start);
+            }
+            if (entries != null) {
+                sftp.put(new ByteArrayInputStream(renderManifest(entries).getBytes(StandardCharsets.UTF_8)),
+                        base + "/" + MANIFEST, ChannelSftp.OVERWRITE);
+            }
+            System.out.println("[SourceTreeSync] Dong bo " + treeKey + " len " + builder.getIp() + ": " + result.describe());
+            prune(session, builder);
+            return result;
+        } finally {
+            if (copy != null) {
+                Files.deleteIfExists(copy);
+            }
+            if (delta != null) {
+                Files.deleteIfExists(delta);
+            }
+        }
+    }
+
+    static String treeRoot(ServerEntity builder) {
+        return "/home/" + builder.getUsername() + "/build-trees";
+    }
+
+    /**
+     * Danh sách file trong zip (bỏ thư mục); null nếu zip không đọc được hoặc tên entry không dùng được làm đường
+     * dẫn, khi đó luôn gửi nguyên zip và để unzip xử lý như trước.
+     */
+    static Map<String, Entry> index(Path archive) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (!safePath(entry.getName())) {
+                    System.err.println("[SourceTreeSync] Bo qua dong bo delta, entry khong hop le: " + entry.getName());
+                    return null;
+                }
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                long size = 0;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, n);
+                        size += n;
+                    }
+                }
+                entries.put(entry.getName(), new Entry(HexFormat.of().formatHex(digest.digest()), size, entry.getUnixMode()));
+            }
+            return entries;
+        } catch (Exception e) {
+            System.err.println("[SourceTreeSync] Khong doc duoc danh sach entry cua zip: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Tên các thư mục có entry riêng trong zip (không có dấu / cuối), kể cả thư mục rỗng.
+     */
+    static Set<String> directories(Path archive) throws IOException {
+        Set<String> dirs = new HashSet<>();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                if (entry.isDirectory()) {
+                    dirs.add(entry.getName().replaceAll("/+$", ""));
+                }
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * Thư mục cha của các file bị xoá mà zip mới không còn file hay thư mục nào bên trong, sâu nhất trước để
+     * {@code rmdir} xoá được cả chuỗi thư mục lồng nhau.
+     */
+    static List<String> emptiedDirectories(List<String> deleted, Set<String> files, Set<String> directories) {
+        Set<String> kept = new HashSet<>();
+        for (String path : files) {
+            addParents(kept, path);
+        }
+        for (String path : directories) {
+            kept.add(path);
+            addParents(kept, path);
+        }
+        Set<String> candidates = new HashSet<>();
+        for (String path : deleted) {
+            addParents(candidates, path);
+        }
+        candidates.removeAll(kept);
+        List<String> result = new ArrayList<>(candidates);
+        result.sort(Comparator.comparingInt((String dir) -> dir.split("/").length).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return result;
+    }
+
+    private static void addParents(Set<String> dirs, String path) {
+        for (int i = path.lastIndexOf('/'); i > 0; i = path.lastIndexOf('/', i - 1)) {
+            dirs.add(path.substring(0, i));
+        }
+    }
+
+    static Delta diff(Map<String, Entry> previous, Map<String, Entry> current) {
+        List<String> changed = new ArrayList<>();
+        int unchanged = 0;
+        for (Map.Entry<String, Entry> entry : current.entrySet()) {
+            if (entry.getValue().equals(previous.get(entry.getKey()))) {
+                unchanged++;
+            } else {
+                changed.add(entry.getKey());
+            }
+        }
+        List<String> deleted = new ArrayList<>();
+        for (String path : previous.keySet()) {
+            if (!current.containsKey(path)) {
+                deleted.add(path);
+            }
+        }
+        return new Delta(changed, deleted, unchanged);
+    }
+
+    /**
+     * Chép nguyên dạng nén các entry trong {@code names} sang zip mới (giữ CRC, thời gian và quyền unix).
+     */
+    static void writeDelta(Path archive, Set<String> names, Path target) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile());
+             ZipArchiveOutputStream out = new ZipArchiveOutputStream(target.toFile())) {
+            zip.copyRawEntries(out, entry -> names.contains(entry.getName()));
+        }
+    }
+
+    static String renderManifest(Map<String, Entry> entries) {
+        StringBuilder sb = new StringBuilder();
+        entries.forEach((path, entry) -> sb.append(entry.sha256()).append(' ').append(entry.size()).append(' ')
+                .append(Integer.toOctalString(entry.mode())).append(' ').append(path).append('\n'));
+        return sb.toString();
+    }
+
+    static Map<String, Entry> parseManifest(String manifest) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (String line : manifest.split("\n")) {
+            if (!addManifestLine(entries, line)) {
+                return null;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Thêm một dòng "sha256 size mode path" vào entries; dòng rỗng bị bỏ qua, dòng hỏng trả về false.
+     */
+    static boolean addManifestLine(Map<String, Entry> entries, String line) {
+        int first = line.indexOf(' ');
+        int second = first < 0 ? -1 : line.indexOf(' ', first + 1);
+        int third = second < 0 ? -1 : line.indexOf(' ', second + 1);
+        if (third < 0) {
+            return true;
+        }
+        try {
+            entries.put(line.substring(third + 1), new Entry(line.substring(0, first),
+                    Long.parseLong(line, first + 1, second, 10), Integer.parseInt(line, second + 1, third, 8)));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Đọc manifest trên builder theo từng dòng (executeLines): manifest của cây lớn có hàng chục nghìn dòng,
+     * được dựng thẳng thành map thay vì gom cả chuỗi rồi split.
+     */
+    private Map<String, Entry> readManifest(Session session, String base) throws Exception {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        AtomicBoolean valid = new AtomicBoolean(true);
+        CommandResult result = remoteCommandExecutor.executeLines(session,
+                "test -d '" + quote(base + "/" + TREE) + "' && cat '" + quote(base + "/" + MANIFEST) + "'", 0,
+                line -> {
+                    if (valid.get() && !addManifestLine(entries, line)) {
+                        valid.set(false);
+                    }
+                });
+        return result.isSuccess() && valid.get() ? entries : null;
+    }
+
+    private void prune(Session session, ServerEntity builder) {
+        long now = System.currentTimeMillis();
+        Long last = lastPruneAt.get(builder.getId());
+        if (last != null && now - last < pruneIntervalMs) {
+            return;
+        }
+        lastPruneAt.put(builder.getId(), now);
+        // <root>/<username>/<project>/<loại>/<tên component>: thư mục component đổi mtime mỗi lần đồng bộ
+        String command = "find '" + quote(treeRoot(builder)) + "' -mindepth 4 -maxdepth 4 -type d -mtime +" + maxIdleDays
+                + " -prune -exec rm -rf {} + 2>/dev/null; true";
+        try {
+            remoteCommandExecutor.execute(session, command, 0);
+        } catch (Exception e) {
+            System.err.println("[SourceTreeSync] Khong don duoc cay source tren " + builder.getIp() + ": " + e.getMessage());
+        }
+    }
+
+    private void run(Session session, String command) throws Exception {
+        CommandResult result = remoteCommandExecutor.execute(session, command, 0);
+        if (!result.isSuccess()) {
+            throw new RuntimeException("Đồng bộ source thất bại (exit " + result.exitStatus() + "): "
+                    + (result.stderr().isBlank() ? result.stdout() : result.stderr()).trim());
+        }
+    }
+
+    private static boolean safePath(String name) {
+        if (name.isEmpty() || name.startsWith("/") || name.contains("\\") || name.contains("\n") || name.contains("\r")
+                || name.contains("\0")) {
+            return false;
+        }
+        for (String segment : name.split("/")) {
+            if (segment.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String quote(String value) {
+        return value.replace("'", "'\\''");
+    }
+}
@@ -0,0 +1,100 @@
+package my_spring_app.my_spring_app.deploy;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * MultipartFile đọc từ file đã lưu tạm trên đĩa, dùng khi worker chạy lại request deploy của một job
+ * (request gốc đã kết thúc, file upload của Tomcat không còn).
+ */
+class StagedMultipartFile implements MultipartFile {
+
+    private final Path path;
+    private final String originalFilename;
+    private final String contentType;
+
+    // SHA-256 của file, tính ở lần đọc đầu tiên
+    private volatile String sha256;
+
+    StagedMultipartFile(Path path, String originalFilename, String contentType) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+    }
+
+    /**
+     * File đã stage trên đĩa: SourceTreeSync mở zip thẳng trên file này thay vì chép ra file tạm khác.
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * SHA-256 (hex) của file; chỉ đọc file một lần, các lần gọi sau dùng lại kết quả.
+     */
+    String sha256() throws IOException {
+        String value = sha256;
+        if (value == null) {
+            try (InputStream in = Files.newInputStream(path)) {
+                value = ArtifactCache.sha256(in);
+            }
+            sha256 = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        Files.copy(path, dest, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
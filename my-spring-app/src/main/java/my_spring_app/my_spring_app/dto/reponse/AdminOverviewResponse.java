@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,5 +14,18 @@ public class AdminOverviewResponse {
     private Long totalProjects;
     private Double totalCpuCores;
     private Double totalMemoryGb;
+    // Số user role USER và số project của họ theo từng tier
+    private List<TierSummary> tiers;
+    // Lịch sử CPU/Memory của các namespace project (chỉ có khi request truyền from)
+    private List<UsagePointResponse> history;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TierSummary {
+        private String tier;
+        private long userCount;
+        private long projectCount;
+    }
 }
 
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,5 +16,7 @@ public class AdminUserProjectSummaryResponse {
     private int projectCount;
     private double cpuCores;
     private double memoryGb;
+    // Lịch sử CPU/Memory của các namespace thuộc user (chỉ có khi request truyền from)
+    private List<UsagePointResponse> history;
 }
 
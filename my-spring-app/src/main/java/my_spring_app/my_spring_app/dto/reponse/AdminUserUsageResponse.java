@@ -23,6 +23,8 @@ public class AdminUserUsageResponse {
         private String tier;
         private double cpuCores;
         private double memoryGb;
+        // Lịch sử CPU/Memory của user (chỉ có khi request truyền from)
+        private List<UsagePointResponse> history;
     }
 }
 
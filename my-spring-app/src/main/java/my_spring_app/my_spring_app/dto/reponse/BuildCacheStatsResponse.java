@@ -0,0 +1,32 @@
+package my_spring_app.my_spring_app.dto.reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Thống kê build Docker trên DOCKER server theo framework (BuildCacheManager), tính từ lúc app khởi động.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildCacheStatsResponse {
+
+    private int diskBudgetGb; // dung lượng build cache tối đa trên mỗi DOCKER server
+    private List<FrameworkStats> frameworks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FrameworkStats {
+        private String framework; // SPRINGBOOT, NODEJS, REACT, VUE, ANGULAR
+        private long builds;
+        private long steps;
+        private long cachedSteps;
+        private double cacheHitRate; // cachedSteps / steps
+        private long averageBuildMs;
+        private long lastBuildMs;
+    }
+}
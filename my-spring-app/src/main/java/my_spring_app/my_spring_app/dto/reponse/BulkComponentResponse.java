@@ -0,0 +1,36 @@
+package my_spring_app.my_spring_app.dto.reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkComponentResponse {
+
+    private String action; // STOP, START, DELETE, SCALE
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long elapsedMs;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String type; // DATABASE, BACKEND, FRONTEND
+        private Long id;
+        private Long projectId;
+        private String name;
+        private String uuid_k8s;
+        private String result; // OK, FAILED
+        private String message;
+        private String status; // status của component sau thao tác (null nếu đã xóa)
+        private Integer replicas;
+        private long durationMs;
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Response DTO cho Dashboard Metrics - Tổng quan về cluster resources
  */
@@ -37,6 +39,11 @@ public class DashboardMetricsResponse {
      */
     private ResourceUsage memoryUsage;
     
+    /**
+     * Lịch sử CPU/Memory của toàn cluster (chỉ có khi request truyền from)
+     */
+    private List<UsagePointResponse> history;
+    
     /**
      * Inner class cho Node metrics
      */
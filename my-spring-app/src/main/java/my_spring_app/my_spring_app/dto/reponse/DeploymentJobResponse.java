@@ -0,0 +1,39 @@
+package my_spring_app.my_spring_app.dto.reponse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeploymentJobResponse {
+
+    private Long id;
+    private String componentType; // DATABASE, BACKEND, FRONTEND
+    private Long projectId;
+    private String username;
+    private String status; // QUEUED, RUNNING, SUCCEEDED, FAILED
+    private String stage; // bước hiện tại: QUEUED, PREPARE, UPLOAD, BUILD, PUSH, APPLY, EXPOSE, IMPORT, COMPLETE, FAILED
+    private Integer attempts;
+    private String errorMessage;
+    private JsonNode result; // Deploy*Response khi SUCCEEDED
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<Event> events; // null khi lấy danh sách
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+        private Long id;
+        private String stage;
+        private String message;
+        private LocalDateTime createdAt;
+    }
+}
@@ -11,5 +11,17 @@ import java.util.List;
 @AllArgsConstructor
 public class DeploymentListResponse {
     private List<DeploymentResponse> deployments;
+
+    // resourceVersion của informer tại thời điểm đọc
+    private String resourceVersion;
+
+    // Độ trễ dữ liệu cache (ms), 0 nếu watch đang đồng bộ
+    private Long cacheStalenessMs;
+
+    // Token để lấy trang tiếp theo (null nếu đã là trang cuối)
+    private String continueToken;
+
+    // Số phần tử còn lại sau trang này (null nếu không biết)
+    private Long remainingItemCount;
 }
 
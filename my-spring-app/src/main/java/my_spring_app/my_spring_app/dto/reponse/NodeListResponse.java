@@ -11,5 +11,15 @@ import java.util.List;
 @AllArgsConstructor
 public class NodeListResponse {
     private List<NodeResponse> nodes;
+
+    // Token để lấy trang tiếp theo (null nếu đã là trang cuối)
+    private String continueToken;
+
+    // Số phần tử còn lại sau trang này (null nếu không biết)
+    private Long remainingItemCount;
+
+    public NodeListResponse(List<NodeResponse> nodes) {
+        this.nodes = nodes;
+    }
 }
 
@@ -0,0 +1,20 @@
+package my_spring_app.my_spring_app.dto.reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thống kê cache thông tin kết nối SSH (ServerConnectionRegistry), tính từ lúc app khởi động.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SshConnectionStatsResponse {
+
+    private long hits; // số lần lấy được từ cache
+    private long misses; // số lần phải load từ DB và parse SSH key
+    private long invalidations; // số entry bị bỏ sau khi server thay đổi
+    private int cachedServers;
+    private double hitRatio; // hits / (hits + misses)
+}
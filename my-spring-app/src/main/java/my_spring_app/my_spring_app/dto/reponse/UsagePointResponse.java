@@ -0,0 +1,18 @@
+package my_spring_app.my_spring_app.dto.reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một điểm của biểu đồ lịch sử CPU/Memory (giá trị trung bình trong cửa sổ step).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsagePointResponse {
+    // Thời điểm bắt đầu cửa sổ (epoch ms)
+    private Long timestamp;
+    private Double cpuCores;
+    private Double memoryGb;
+}
@@ -0,0 +1,35 @@
+package my_spring_app.my_spring_app.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Thao tác hàng loạt (stop/start/delete/scale) trên các component của một project hoặc của một user.
+ * Ví dụ: POST /api/projects/12/components:scale {"types": ["BACKEND"], "replicas": 2}
+ * Không truyền types/components thì áp dụng cho mọi component trong phạm vi.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkComponentRequest {
+
+    // Chỉ lấy các loại này: DATABASE, BACKEND, FRONTEND
+    private List<String> types;
+
+    // Chỉ lấy các component này (theo loại + id)
+    private List<ComponentRef> components;
+
+    // Số replica đích, bắt buộc với scale
+    private Integer replicas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ComponentRef {
+        private String type; // DATABASE, BACKEND, FRONTEND
+        private Long id;
+    }
+}
@@ -0,0 +1,48 @@
+package my_spring_app.my_spring_app.dto.request;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tham số query chung của các endpoint danh sách resource Kubernetes (admin).
+ * Ví dụ: /api/admin/workloads/pods?namespace=demo&labelSelector=app%3Dweb&sort=-created&limit=50&continue=...
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceListRequest {
+
+    // Lọc theo một namespace
+    private String namespace;
+
+    // Label selector, cùng cú pháp với kubectl -l (app=web,tier in (fe,be))
+    private String labelSelector;
+
+    // Field selector, chuyển thẳng cho API server (status.phase=Running, spec.nodeName=worker-1)
+    private String fieldSelector;
+
+    // name, namespace, created (cũ nhất trước), age (mới nhất trước); tiền tố "-" để đảo chiều
+    private String sort;
+
+    // Số phần tử tối đa mỗi trang (bỏ trống = cấu hình mặc định)
+    @Min(value = 1, message = "limit phải lớn hơn 0")
+    private Integer limit;
+
+    // Token trang tiếp theo (query param "continue")
+    private String continueToken;
+
+    // Chỉ lấy resource thuộc namespace của project này
+    private Long projectId;
+
+    // Chỉ lấy resource thuộc namespace của các project của user này
+    private Long userId;
+
+    /**
+     * Cho phép bind query param "continue" (từ khoá Java nên field tên là continueToken).
+     */
+    public void setContinue(String continueToken) {
+        this.continueToken = continueToken;
+    }
+}
@@ -0,0 +1,25 @@
+package my_spring_app.my_spring_app.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tham số truy vấn lịch sử CPU/Memory cho biểu đồ của các màn hình tổng quan (admin).
+ * Ví dụ: /api/admin/user-services/overview?from=1760745600000&to=1760832000000&step=5m
+ * Không truyền from thì response không kèm lịch sử.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageHistoryRequest {
+
+    // Thời điểm bắt đầu (epoch ms)
+    private Long from;
+
+    // Thời điểm kết thúc (epoch ms), bỏ trống = hiện tại
+    private Long to;
+
+    // Độ dài mỗi điểm: 30s, 5m, 1h, 1d hoặc số giây; bỏ trống = tự chọn (khoảng 300 điểm)
+    private String step;
+}
@@ -0,0 +1,59 @@
+package my_spring_app.my_spring_app.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "artifact_cache",
+        uniqueConstraints = @UniqueConstraint(name = "uk_artifact_cache_key", columnNames = {"content_hash", "component_type", "framework_type"}),
+        indexes = @Index(name = "idx_artifact_cache_last_used_at", columnList = "last_used_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArtifactCacheEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash; // SHA-256 (hex) của file zip source
+
+    @Column(name = "component_type", nullable = false)
+    private String componentType; // BACKEND, FRONTEND
+
+    @Column(name = "framework_type", nullable = false)
+    private String frameworkType; // SPRINGBOOT, NODEJS, REACT, VUE, ANGULAR
+
+    @Column(name = "image_ref", nullable = false, length = 512)
+    private String imageRef; // image đã push, ghim theo digest: <repo>@sha256:...
+
+    @Column(name = "size_bytes", nullable = true)
+    private Long sizeBytes;
+
+    @Column(name = "hit_count", nullable = false)
+    private Long hitCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (lastUsedAt == null) {
+            lastUsedAt = createdAt;
+        }
+        if (hitCount == null) {
+            hitCount = 0L;
+        }
+    }
+}
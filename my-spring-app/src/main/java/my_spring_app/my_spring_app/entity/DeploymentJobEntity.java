@@ -0,0 +1,94 @@
+package my_spring_app.my_spring_app.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "deployment_jobs", indexes = {
+        @Index(name = "idx_deployment_jobs_status", columnList = "status"),
+        @Index(name = "idx_deployment_jobs_username", columnList = "username")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeploymentJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "component_type", nullable = false)
+    private String componentType; // DATABASE, BACKEND, FRONTEND
+
+    @Column(name = "project_id", nullable = true)
+    private Long projectId;
+
+    @Column(name = "username", nullable = true)
+    private String username;
+
+    @Column(nullable = false)
+    private String status; // QUEUED, RUNNING, SUCCEEDED, FAILED
+
+    @Column(name = "stage", nullable = true)
+    private String stage; // bước đang chạy, xem DeploymentProgress
+
+    // Request deploy dạng JSON (không gồm file), xoá khi job kết thúc để không giữ mật khẩu database
+    @Lob
+    @Column(name = "request_payload", nullable = true, columnDefinition = "LONGTEXT")
+    private String requestPayload;
+
+    // File upload đã lưu tạm trên máy chạy app
+    @Column(name = "staged_file_path", nullable = true)
+    private String stagedFilePath;
+
+    @Column(name = "staged_file_name", nullable = true)
+    private String stagedFileName;
+
+    @Column(name = "staged_content_type", nullable = true)
+    private String stagedContentType;
+
+    // Deploy*Response dạng JSON khi thành công
+    @Lob
+    @Column(name = "result_payload", nullable = true, columnDefinition = "LONGTEXT")
+    private String resultPayload;
+
+    @Column(name = "error_message", nullable = true, length = 2000)
+    private String errorMessage;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    //
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at", nullable = true)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at", nullable = true)
+    private LocalDateTime finishedAt;
+
+    @Column(name = "updated_at", nullable = true)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
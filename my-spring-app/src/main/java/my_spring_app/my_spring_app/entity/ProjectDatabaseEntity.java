@@ -4,11 +4,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import my_spring_app.my_spring_app.tenancy.TenancyEntityListener;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "project_database")
+@EntityListeners(TenancyEntityListener.class)
+@Table(name = "project_database", indexes = @Index(name = "idx_project_database_uuid_k8s", columnList = "uuid_k8s"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -47,6 +49,9 @@ public class ProjectDatabaseEntity {
     @Column(name = "uuid_k8s", nullable = false)
     private String uuid_k8s; // uuid short id for k8s
 
+    @Column(name = "replicas", nullable = true)
+    private Integer replicas; // spec.replicas của StatefulSet (ComponentStatusReconciler đồng bộ)
+
     @Column(name = "storage_size", nullable = true)
     private Integer storageSize; // storage size in GB
 
@@ -59,7 +64,7 @@ public class ProjectDatabaseEntity {
     //
 
     @Column(nullable = false)
-    private String status; // RUNNING, STOPPED, ERROR
+    private String status; // BUILDING, PENDING, RUNNING, STOPPED, ERROR
 
     // Relations
 
@@ -4,12 +4,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import my_spring_app.my_spring_app.tenancy.TenancyEntityListener;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(TenancyEntityListener.class)
 @Table(name = "projects")
 @Data
 @NoArgsConstructor
@@ -4,11 +4,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import my_spring_app.my_spring_app.tenancy.TenancyEntityListener;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "project_frontend")
+@EntityListeners(TenancyEntityListener.class)
+@Table(name = "project_frontend", indexes = @Index(name = "idx_project_frontend_uuid_k8s", columnList = "uuid_k8s"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,7 +55,7 @@ public class ProjectFrontendEntity {
     //
 
     @Column(nullable = false)
-    private String status; // RUNNING, STOPPED, ERROR
+    private String status; // BUILDING, PENDING, RUNNING, STOPPED, ERROR
 
     // Relations
 
@@ -13,8 +13,24 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(ServerUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleServerUnavailableException(ServerUnavailableException ex) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("message", ex.getMessage());
+        errorResponse.put("status", "error");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(Math.max(1, ex.getRetryAfterMs() / 1000)))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
+        // Service thường bọc lỗi vào RuntimeException: vẫn trả 503 nếu nguyên nhân là server bị breaker chặn
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServerUnavailableException unavailable) {
+                return handleServerUnavailableException(unavailable);
+            }
+        }
         Map<String, String> errorResponse = new HashMap<>();
         errorResponse.put("message", ex.getMessage());
         errorResponse.put("status", "error");
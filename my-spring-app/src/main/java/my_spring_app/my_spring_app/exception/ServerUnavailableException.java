@@ -0,0 +1,25 @@
+package my_spring_app.my_spring_app.exception;
+
+/**
+ * Server đang bị circuit breaker chặn (OPEN) sau nhiều lần kết nối/thực thi lỗi liên tiếp.
+ * Ném ra ngay thay vì chờ hết timeout kết nối tới host đã chết.
+ */
+public class ServerUnavailableException extends RuntimeException {
+
+    private final Long serverId;
+    private final long retryAfterMs;
+
+    public ServerUnavailableException(Long serverId, long retryAfterMs, String message) {
+        super(message);
+        this.serverId = serverId;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public Long getServerId() {
+        return serverId;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,220 @@
+package my_spring_app.my_spring_app.k8s;
+
+import io.kubernetes.client.Metrics;
+import io.kubernetes.client.custom.ContainerMetrics;
+import io.kubernetes.client.custom.NodeMetrics;
+import io.kubernetes.client.custom.PodMetrics;
+import io.kubernetes.client.custom.PodMetricsList;
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1Node;
+import io.kubernetes.client.openapi.models.V1NodeCondition;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cổng lấy dữ liệu node/pod/deployment và usage (metrics.k8s.io) của cluster bằng API có kiểu.
+ *
+ * Thay cho việc chạy kubectl get ... --no-headers / kubectl top ... qua SSH rồi tách cột văn bản:
+ * - Nodes, Pods, Deployments: object có kiểu từ ClusterStateCache (informer; chưa sync thì list trực tiếp)
+ * - Usage: metrics.k8s.io qua Metrics của client-java (node) và cùng API đó cho pod (toàn cluster hoặc
+ *   một namespace kèm label selector)
+ * - CPU/Memory đọc từ Quantity (cores / bytes), không parse chuỗi "250m", "512Mi"
+ *
+ * Tất cả đi qua một ApiClient dùng chung (KubernetesClientProvider), không mở thêm SSH session.
+ */
+@Component
+public class ClusterMetricsGateway {
+
+    @Autowired
+    private KubernetesClientProvider kubernetesClientProvider;
+
+    @Autowired
+    private ClusterStateCache clusterStateCache;
+
+    /**
+     * CPU (cores) và Memory (bytes).
+     */
+    public record Usage(double cpuCores, long memoryBytes) {
+
+        public static final Usage ZERO = new Usage(0.0, 0L);
+
+        public Usage plus(Usage other) {
+            return new Usage(cpuCores + other.cpuCores, memoryBytes + other.memoryBytes);
+        }
+    }
+
+    /**
+     * Usage của một pod.
+     */
+    public record PodUsage(String namespace, String name, Usage usage) {
+    }
+
+    public List<V1Node> nodes() {
+        return clusterStateCache.list(V1Node.class).items();
+    }
+
+    public List<V1Pod> pods() {
+        return clusterStateCache.list(V1Pod.class).items();
+    }
+
+    public List<V1Deployment> deployments() {
+        return clusterStateCache.list(V1Deployment.class).items();
+    }
+
+    /**
+     * Usage hiện tại của từng node (metrics.k8s.io/v1beta1 nodes).
+     *
+     * @return Map tên node -> Usage
+     * @throws RuntimeException nếu metrics-server không khả dụng
+     */
+    public Map<String, Usage> nodeUsage() {
+        try {
+            Map<String, Usage> usageByNode = new HashMap<>();
+            List<NodeMetrics> items = new Metrics(kubernetesClientProvider.client()).getNodeMetrics().getItems();
+            if (items != null) {
+                for (NodeMetrics metrics : items) {
+                    if (metrics.getMetadata() != null && metrics.getMetadata().getName() != null) {
+                        usageByNode.put(metrics.getMetadata().getName(), usage(metrics.getUsage()));
+                    }
+                }
+            }
+            return usageByNode;
+        } catch (ApiException e) {
+            throw new RuntimeException("Không thể lấy metrics của nodes (metrics-server): " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Usage của tất cả pod, cộng dồn theo namespace (metrics.k8s.io/v1beta1 pods, mọi namespace).
+     * Metrics.getPodMetrics chỉ nhận một namespace cụ thể nên gọi cùng API đó không kèm namespace.
+     *
+     * @return Map namespace -> Usage
+     * @throws RuntimeException nếu metrics-server không khả dụng
+     */
+    public Map<String, Usage> podUsageByNamespace() {
+        Map<String, Usage> usageByNamespace = new HashMap<>();
+        for (PodUsage pod : podUsages()) {
+            usageByNamespace.merge(pod.namespace(), pod.usage(), Usage::plus);
+        }
+        return usageByNamespace;
+    }
+
+    /**
+     * Usage của từng pod trên toàn cluster (một lần gọi metrics.k8s.io/v1beta1 pods, mọi namespace).
+     *
+     * @throws RuntimeException nếu metrics-server không khả dụng
+     */
+    public List<PodUsage> podUsages() {
+        List<PodUsage> pods = new ArrayList<>();
+        for (PodMetrics pod : listPodMetrics(null, null)) {
+            if (pod.getMetadata() != null && pod.getMetadata().getNamespace() != null && pod.getMetadata().getName() != null) {
+                pods.add(new PodUsage(pod.getMetadata().getNamespace(), pod.getMetadata().getName(), podUsage(pod)));
+            }
+        }
+        return pods;
+    }
+
+    /**
+     * Usage của từng pod trong một namespace, lọc theo label selector ngay trên metrics API
+     * (một lần gọi cho cả project/component thay vì kubectl top pods cho từng app label).
+     *
+     * @param namespace Namespace cần lấy
+     * @param labelSelector Label selector (null = mọi pod trong namespace)
+     * @return Map tên pod -> Usage
+     * @throws RuntimeException nếu metrics-server không khả dụng
+     */
+    public Map<String, Usage> podUsage(String namespace, String labelSelector) {
+        Map<String, Usage> usageByPod = new HashMap<>();
+        for (PodMetrics pod : listPodMetrics(namespace, labelSelector)) {
+            if (pod.getMetadata() != null && pod.getMetadata().getName() != null) {
+                usageByPod.put(pod.getMetadata().getName(), podUsage(pod));
+            }
+        }
+        return usageByPod;
+    }
+
+    private List<PodMetrics> listPodMetrics(String namespace, String labelSelector) {
+        GenericKubernetesApi<PodMetrics, PodMetricsList> api = new GenericKubernetesApi<>(
+                PodMetrics.class, PodMetricsList.class, "metrics.k8s.io", "v1beta1", "pods",
+                kubernetesClientProvider.client());
+        KubernetesApiResponse<PodMetricsList> response;
+        if (namespace == null) {
+            response = api.list();
+        } else {
+            ListOptions options = new ListOptions();
+            options.setLabelSelector(labelSelector);
+            response = api.list(namespace, options);
+        }
+        try {
+            response.throwsApiException();
+        } catch (ApiException e) {
+            throw new RuntimeException("Không thể lấy metrics của pods (metrics-server): " + e.getMessage(), e);
+        }
+        List<PodMetrics> items = response.getObject().getItems();
+        return items != null ? items : List.of();
+    }
+
+    private static Usage podUsage(PodMetrics pod) {
+        Usage podUsage = Usage.ZERO;
+        if (pod.getContainers() != null) {
+            for (ContainerMetrics container : pod.getContainers()) {
+                podUsage = podUsage.plus(usage(container.getUsage()));
+            }
+        }
+        return podUsage;
+    }
+
+    /**
+     * Node có condition Ready=True.
+     */
+    public static boolean isReady(V1Node node) {
+        if (node.getStatus() == null || node.getStatus().getConditions() == null) {
+            return false;
+        }
+        for (V1NodeCondition condition : node.getStatus().getConditions()) {
+            if ("Ready".equals(condition.getType())) {
+                return "True".equals(condition.getStatus());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tổng capacity của node (CPU cores, Memory bytes).
+     */
+    public static Usage capacity(V1Node node) {
+        return node.getStatus() == null ? Usage.ZERO : usage(node.getStatus().getCapacity());
+    }
+
+    /**
+     * Tổng allocatable của node (CPU cores, Memory bytes).
+     */
+    public static Usage allocatable(V1Node node) {
+        return node.getStatus() == null ? Usage.ZERO : usage(node.getStatus().getAllocatable());
+    }
+
+    /**
+     * Đọc cpu/memory từ map Quantity (usage, capacity, allocatable...).
+     */
+    public static Usage usage(Map<String, Quantity> quantities) {
+        if (quantities == null) {
+            return Usage.ZERO;
+        }
+        Quantity cpu = quantities.get("cpu");
+        Quantity memory = quantities.get("memory");
+        return new Usage(
+                cpu != null ? cpu.getNumber().doubleValue() : 0.0,
+                memory != null ? memory.getNumber().longValue() : 0L);
+    }
+}
@@ -0,0 +1,599 @@
+package my_spring_app.my_spring_app.k8s;
+
+import io.kubernetes.client.common.KubernetesListObject;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.informer.cache.Caches;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1Ingress;
+import io.kubernetes.client.openapi.models.V1IngressList;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1NamespaceList;
+import io.kubernetes.client.openapi.models.V1Node;
+import io.kubernetes.client.openapi.models.V1NodeList;
+import io.kubernetes.client.openapi.models.V1PersistentVolume;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimList;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeList;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.openapi.models.V1Service;
+import io.kubernetes.client.openapi.models.V1ServiceList;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetList;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.Watchable;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache trạng thái cluster trong bộ nhớ, giữ đồng bộ bằng informer (list + watch).
+ *
+ * Trước đây mỗi HTTP request danh sách (nodes, pods, deployments, services...) đều gọi một
+ * list*ForAllNamespaces đầy đủ tới API server. Cache dùng SharedInformerFactory: mỗi loại resource
+ * được list một lần rồi cập nhật liên tục qua watch stream, các endpoint chỉ đọc từ indexer cục bộ.
+ *
+ * - Index theo namespace ({@link Caches#NAMESPACE_INDEX}) và theo label ({@link #LABEL_INDEX}, khoá "key=value")
+ * - Mỗi snapshot trả kèm resourceVersion của informer và độ trễ (staleness) của dữ liệu; staleness về 0
+ *   khi có sự kiện watch hoặc khi informer list lại thành công sau lỗi (kể cả khi danh sách không đổi)
+ * - Informer khởi động lười ở lần đọc đầu tiên (MASTER có thể chưa được cấu hình khi app start)
+ * - Watch client đổi (kubeconfig/tunnel mới) thì dừng informer cũ và list + watch lại
+ * - Tắt cache hoặc informer chưa sync kịp: đọc trực tiếp bằng một lần list (giống hành vi cũ)
+ * - {@link #query} lọc theo namespace/label, sắp xếp và phân trang (limit/continue) trên cache;
+ *   field selector và token của API server được truyền thẳng xuống API server
+ * - {@link #addListener} nhận sự kiện add/update/delete của informer (giữ nguyên qua các lần khởi động lại;
+ *   informer mới phát lại onAdd cho mọi object)
+ *
+ * Quy trình xử lý:
+ * 1. Lấy watch client từ KubernetesClientProvider, tạo informer cho các loại resource hỗ trợ
+ * 2. Chờ tín hiệu sync của informer loại được hỏi (tối đa {@code syncTimeoutMs}; lần list đầu lỗi thì
+ *    không chờ thêm mà đọc trực tiếp ngay)
+ * 3. Đọc danh sách từ indexer (toàn bộ, theo namespace hoặc theo label)
+ * 4. Trả về Snapshot gồm items, resourceVersion và staleness
+ */
+@Component
+public class ClusterStateCache {
+
+    /**
+     * Tên index theo label; giá trị index có dạng "key=value".
+     */
+    public static final String LABEL_INDEX = "labels";
+
+    // Tiền tố của continue token do cache cấp (phân trang theo vị trí); token khác là của API server
+    private static final String OFFSET_TOKEN_PREFIX = "offset:";
+
+    // Các loại resource được cache: class -> thông tin API (group, version, plural, class danh sách)
+    private static final Map<Class<? extends KubernetesObject>, Resource<?, ?>> RESOURCES = new LinkedHashMap<>();
+
+    static {
+        register(new Resource<>(V1Namespace.class, V1NamespaceList.class, "", "v1", "namespaces"));
+        register(new Resource<>(V1Node.class, V1NodeList.class, "", "v1", "nodes"));
+        register(new Resource<>(V1Pod.class, V1PodList.class, "", "v1", "pods"));
+        register(new Resource<>(V1Service.class, V1ServiceList.class, "", "v1", "services"));
+        register(new Resource<>(V1PersistentVolumeClaim.class, V1PersistentVolumeClaimList.class, "", "v1", "persistentvolumeclaims"));
+        register(new Resource<>(V1PersistentVolume.class, V1PersistentVolumeList.class, "", "v1", "persistentvolumes"));
+        register(new Resource<>(V1Deployment.class, V1DeploymentList.class, "apps", "v1", "deployments"));
+        register(new Resource<>(V1StatefulSet.class, V1StatefulSetList.class, "apps", "v1", "statefulsets"));
+        register(new Resource<>(V1Ingress.class, V1IngressList.class, "networking.k8s.io", "v1", "ingresses"));
+    }
+
+    @Autowired
+    private KubernetesClientProvider kubernetesClientProvider;
+
+    // Tắt để mọi lần đọc đều list trực tiếp từ API server
+    @Value("${app.k8s.informer.enabled:true}")
+    private boolean enabled = true;
+
+    // Thời gian tối đa chờ informer sync lần đầu trước khi đọc trực tiếp
+    @Value("${app.k8s.informer.sync-timeout-ms:3000}")
+    private long syncTimeoutMs = 3000;
+
+    private volatile Informers informers;
+
+    // Listener sự kiện theo loại resource, dùng chung cho mọi lần khởi động informer
+    private final Map<Class<?>, List<ResourceEventHandler<?>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Danh sách đọc từ cache.
+     *
+     * @param items Các object (không được sửa: là object dùng chung trong indexer)
+     * @param resourceVersion resourceVersion của lần list/watch gần nhất
+     * @param stalenessMs 0 nếu watch đang khoẻ; ngược lại là số ms từ lần dữ liệu được xác nhận đồng bộ
+     * @param fromCache false nếu đọc trực tiếp từ API server
+     * @param continueToken Token để lấy trang tiếp theo (null nếu đã hết)
+     * @param remainingItemCount Số object còn lại sau trang này (null nếu không biết)
+     */
+    public record Snapshot<T>(List<T> items, String resourceVersion, long stalenessMs, boolean fromCache,
+                              String continueToken, Long remainingItemCount) {
+
+        public Snapshot(List<T> items, String resourceVersion, long stalenessMs, boolean fromCache) {
+            this(items, resourceVersion, stalenessMs, fromCache, null, null);
+        }
+    }
+
+    /**
+     * Toàn bộ object của một loại resource.
+     */
+    public <T extends KubernetesObject> Snapshot<T> list(Class<T> type) {
+        return read(type, null, null);
+    }
+
+    /**
+     * Object của một loại resource trong một namespace (dùng index namespace).
+     */
+    public <T extends KubernetesObject> Snapshot<T> listByNamespace(Class<T> type, String namespace) {
+        return read(type, Caches.NAMESPACE_INDEX, namespace);
+    }
+
+    /**
+     * Object có label key=value (dùng index label).
+     */
+    public <T extends KubernetesObject> Snapshot<T> listByLabel(Class<T> type, String key, String value) {
+        return read(type, LABEL_INDEX, key + "=" + value);
+    }
+
+    /**
+     * Đọc một trang object theo điều kiện lọc, sắp xếp và phân trang.
+     *
+     * Quy trình xử lý:
+     * 1. Kiểm tra label selector và khoá sắp xếp (sai cú pháp thì báo lỗi ngay)
+     * 2. Field selector hoặc continue token do API server cấp: đọc trực tiếp, truyền limit/continue/selector
+     *    xuống API server (chỉ API server hiểu field selector và token của nó)
+     * 3. Còn lại: đọc từ indexer (theo index namespace nếu có phạm vi namespace), lọc label trong bộ nhớ
+     * 4. Sắp xếp rồi cắt trang theo vị trí; token trang sau có dạng "offset:N"
+     *
+     * Phân trang bằng vị trí trên cache không cố định theo resourceVersion: object thêm/xoá giữa hai lần
+     * đọc có thể làm một phần tử bị lặp hoặc bị bỏ qua ở ranh giới trang.
+     * Khi API server tự phân trang, sắp xếp chỉ áp dụng trong phạm vi từng trang.
+     *
+     * @throws IllegalArgumentException nếu selector, khoá sắp xếp hoặc continue token không hợp lệ
+     */
+    public <T extends KubernetesObject> Snapshot<T> query(Class<T> type, ListQuery query) {
+        Resource<T, ?> resource = resource(type);
+        Predicate<Map<String, String>> labels = LabelSelectors.parse(query.labelSelector());
+        Comparator<KubernetesObject> order = comparator(query.sort());
+        if (query.namespaces() != null && query.namespaces().isEmpty()) {
+            return new Snapshot<>(List.of(), null, 0, false);
+        }
+        boolean serverToken = query.continueToken() != null && !query.continueToken().startsWith(OFFSET_TOKEN_PREFIX);
+        boolean fieldSelector = query.fieldSelector() != null && !query.fieldSelector().isBlank();
+        if (!enabled || serverToken || fieldSelector) {
+            return queryDirect(resource, query, order);
+        }
+        Informers current = ensureStarted();
+        @SuppressWarnings("unchecked")
+        Tracker<T> tracker = (Tracker<T>) current.trackers().get(type);
+        if (!awaitSynced(tracker)) {
+            System.err.println("[ClusterStateCache] Informer " + resource.plural() + " chua sync sau "
+                    + syncTimeoutMs + " ms, doc truc tiep tu API server");
+            return queryDirect(resource, query, order);
+        }
+        List<T> items = new ArrayList<>();
+        if (query.namespaces() == null) {
+            items.addAll(tracker.informer().getIndexer().list());
+        } else {
+            for (String namespace : query.namespaces()) {
+                items.addAll(tracker.informer().getIndexer().byIndex(Caches.NAMESPACE_INDEX, namespace));
+            }
+        }
+        items.removeIf(item -> !labels.test(item.getMetadata() != null ? item.getMetadata().getLabels() : null)
+                || (query.filter() != null && !query.filter().test(item)));
+        return page(items, query, order, tracker.informer().lastSyncResourceVersion(), tracker.stalenessMs(), true);
+    }
+
+    /**
+     * Đăng ký nhận sự kiện của một loại resource. Informer vẫn khởi động lười: listener chỉ nhận sự kiện
+     * sau lần đọc đầu tiên của loại đó. Lỗi trong listener được log và không làm dừng informer.
+     *
+     * @throws IllegalArgumentException nếu loại resource không được cache
+     */
+    public <T extends KubernetesObject> void addListener(Class<T> type, ResourceEventHandler<T> listener) {
+        resource(type);
+        listeners.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Dừng informer hiện tại; lần đọc tiếp theo sẽ list + watch lại từ đầu.
+     */
+    public synchronized void invalidate() {
+        Informers previous = informers;
+        informers = null;
+        if (previous != null) {
+            previous.factory().stopAllRegisteredInformers();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        invalidate();
+    }
+
+    private <T extends KubernetesObject> Snapshot<T> read(Class<T> type, String indexName, String indexValue) {
+        Resource<T, ?> resource = resource(type);
+        if (!enabled) {
+            return listDirect(resource, indexName, indexValue);
+        }
+        Informers current = ensureStarted();
+        @SuppressWarnings("unchecked")
+        Tracker<T> tracker = (Tracker<T>) current.trackers().get(type);
+        if (!awaitSynced(tracker)) {
+            System.err.println("[ClusterStateCache] Informer " + resource.plural() + " chua sync sau "
+                    + syncTimeoutMs + " ms, doc truc tiep tu API server");
+            return listDirect(resource, indexName, indexValue);
+        }
+        List<T> items = indexName == null
+                ? tracker.informer().getIndexer().list()
+                : tracker.informer().getIndexer().byIndex(indexName, indexValue);
+        return new Snapshot<>(items, tracker.informer().lastSyncResourceVersion(), tracker.stalenessMs(), true);
+    }
+
+    private Informers ensureStarted() {
+        ApiClient watchClient = kubernetesClientProvider.watchClient();
+        Informers current = informers;
+        if (current != null && current.watchClient() == watchClient) {
+            return current;
+        }
+        synchronized (this) {
+            current = informers;
+            if (current != null && current.watchClient() == watchClient) {
+                return current;
+            }
+            if (current != null) {
+                System.out.println("[ClusterStateCache] Watch client thay doi, khoi dong lai informer");
+                current.factory().stopAllRegisteredInformers();
+            }
+            SharedInformerFactory factory = new SharedInformerFactory(watchClient);
+            Map<Class<?>, Tracker<?>> trackers = new HashMap<>();
+            for (Resource<?, ?> resource : RESOURCES.values()) {
+                trackers.put(resource.type(), resource.start(factory, watchClient,
+                        listeners.computeIfAbsent(resource.type(), k -> new CopyOnWriteArrayList<>())));
+            }
+            factory.startAllRegisteredInformers();
+            System.out.println("[ClusterStateCache] Da khoi dong informer cho " + RESOURCES.size() + " loai resource");
+            informers = new Informers(watchClient, factory, trackers);
+            return informers;
+        }
+    }
+
+    private boolean awaitSynced(Tracker<?> tracker) {
+        try {
+            return tracker.awaitSynced(syncTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T extends KubernetesObject, L extends KubernetesListObject> Snapshot<T> listDirect(
+            Resource<T, L> resource, String indexName, String indexValue) {
+        GenericKubernetesApi<T, L> api = resource.api(kubernetesClientProvider.client());
+        KubernetesApiResponse<L> response = Caches.NAMESPACE_INDEX.equals(indexName)
+                ? api.list(indexValue)
+                : api.list();
+        try {
+            response.throwsApiException();
+        } catch (ApiException e) {
+            throw new RuntimeException("Không thể lấy danh sách " + resource.plural() + " từ Kubernetes API: " + e.getMessage(), e);
+        }
+        L list = response.getObject();
+        @SuppressWarnings("unchecked")
+        List<T> items = list.getItems() == null ? new ArrayList<>() : new ArrayList<>((List<T>) list.getItems());
+        if (LABEL_INDEX.equals(indexName)) {
+            items.removeIf(item -> !labelIndex(item).contains(indexValue));
+        }
+        String resourceVersion = list.getMetadata() != null ? list.getMetadata().getResourceVersion() : null;
+        return new Snapshot<>(items, resourceVersion, 0, false);
+    }
+
+    private <T extends KubernetesObject, L extends KubernetesListObject> Snapshot<T> queryDirect(
+            Resource<T, L> resource, ListQuery query, Comparator<KubernetesObject> order) {
+        GenericKubernetesApi<T, L> api = resource.api(kubernetesClientProvider.client());
+        boolean offsetToken = query.continueToken() != null && query.continueToken().startsWith(OFFSET_TOKEN_PREFIX);
+        boolean singleScope = query.namespaces() == null || query.namespaces().size() == 1;
+        // API server tự phân trang được khi chỉ có một phạm vi list và không có điều kiện lọc trong bộ nhớ
+        boolean serverPaged = singleScope && query.filter() == null && !offsetToken;
+
+        ListOptions options = new ListOptions();
+        options.setLabelSelector(blankToNull(query.labelSelector()));
+        options.setFieldSelector(blankToNull(query.fieldSelector()));
+        if (serverPaged && query.paged()) {
+            options.setLimit(query.limit());
+            options.setContinue(query.continueToken());
+        }
+
+        List<T> items = new ArrayList<>();
+        String resourceVersion = null;
+        String continueToken = null;
+        Long remaining = null;
+        for (String namespace : query.namespaces() == null ? Collections.<String>singletonList(null) : query.namespaces()) {
+            KubernetesApiResponse<L> response = namespace == null ? api.list(options) : api.list(namespace, options);
+            try {
+                response.throwsApiException();
+            } catch (ApiException e) {
+                throw new RuntimeException("Không thể lấy danh sách " + resource.plural() + " từ Kubernetes API: " + e.getMessage(), e);
+            }
+            L list = response.getObject();
+            if (list.getItems() != null) {
+                @SuppressWarnings("unchecked")
+                List<T> page = (List<T>) list.getItems();
+                items.addAll(page);
+            }
+            if (list.getMetadata() != null) {
+                resourceVersion = list.getMetadata().getResourceVersion();
+                continueToken = blankToNull(list.getMetadata().getContinue());
+                remaining = list.getMetadata().getRemainingItemCount();
+            }
+        }
+        if (query.filter() != null) {
+            items.removeIf(item -> !query.filter().test(item));
+        }
+        if (serverPaged) {
+            items.sort(order);
+            return new Snapshot<>(items, resourceVersion, 0, false, continueToken, remaining);
+        }
+        return page(items, query, order, resourceVersion, 0, false);
+    }
+
+    private static <T extends KubernetesObject> Snapshot<T> page(List<T> items, ListQuery query, Comparator<KubernetesObject> order,
+                                                                 String resourceVersion, long stalenessMs, boolean fromCache) {
+        items.sort(order);
+        int offset = 0;
+        if (query.continueToken() != null) {
+            try {
+                offset = Integer.parseInt(query.continueToken().substring(OFFSET_TOKEN_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Continue token không hợp lệ: " + query.continueToken());
+            }
+        }
+        int from = Math.min(Math.max(offset, 0), items.size());
+        int to = query.paged() ? Math.min(items.size(), from + query.limit()) : items.size();
+        String next = to < items.size() ? OFFSET_TOKEN_PREFIX + to : null;
+        return new Snapshot<>(new ArrayList<>(items.subList(from, to)), resourceVersion, stalenessMs, fromCache,
+                next, (long) (items.size() - to));
+    }
+
+    /**
+     * Thứ tự mặc định namespace rồi name; khoá chính (nếu có) đứng trước, namespace/name làm khoá phụ
+     * để thứ tự luôn ổn định giữa các trang.
+     */
+    private static Comparator<KubernetesObject> comparator(String sort) {
+        Comparator<KubernetesObject> byNamespaceAndName = Comparator
+                .comparing((KubernetesObject o) -> nullToEmpty(o.getMetadata() != null ? o.getMetadata().getNamespace() : null))
+                .thenComparing(o -> nullToEmpty(o.getMetadata() != null ? o.getMetadata().getName() : null));
+        if (sort == null || sort.isBlank()) {
+            return byNamespaceAndName;
+        }
+        String key = sort.trim();
+        boolean descending = key.startsWith("-");
+        if (descending) {
+            key = key.substring(1);
+        }
+        Comparator<KubernetesObject> primary = switch (key) {
+            case "name" -> Comparator.comparing(o -> nullToEmpty(o.getMetadata() != null ? o.getMetadata().getName() : null));
+            case "namespace" -> Comparator.comparing(o -> nullToEmpty(o.getMetadata() != null ? o.getMetadata().getNamespace() : null));
+            case "created" -> byCreationTimestamp();
+            // Tuổi tăng dần = creationTimestamp giảm dần
+            case "age" -> byCreationTimestamp().reversed();
+            default -> throw new IllegalArgumentException("Khoá sắp xếp không hợp lệ: " + sort
+                    + " (hỗ trợ name, namespace, created, age; thêm tiền tố - để đảo chiều)");
+        };
+        return (descending ? primary.reversed() : primary).thenComparing(byNamespaceAndName);
+    }
+
+    private static Comparator<KubernetesObject> byCreationTimestamp() {
+        return Comparator.comparing(
+                (KubernetesObject o) -> o.getMetadata() != null ? o.getMetadata().getCreationTimestamp() : null,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends KubernetesObject> Resource<T, ?> resource(Class<T> type) {
+        Resource<?, ?> resource = RESOURCES.get(type);
+        if (resource == null) {
+            throw new IllegalArgumentException("Loại resource không được cache: " + type.getSimpleName());
+        }
+        return (Resource<T, ?>) resource;
+    }
+
+    private static void register(Resource<?, ?> resource) {
+        RESOURCES.put(resource.type(), resource);
+    }
+
+    private static List<String> labelIndex(KubernetesObject object) {
+        if (object.getMetadata() == null || object.getMetadata().getLabels() == null) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>(object.getMetadata().getLabels().size());
+        object.getMetadata().getLabels().forEach((key, value) -> keys.add(key + "=" + value));
+        return keys;
+    }
+
+    private static ListOptions informerOptions(CallGeneratorParams params) {
+        ListOptions options = new ListOptions();
+        options.setResourceVersion(params.resourceVersion);
+        options.setTimeoutSeconds(params.timeoutSeconds);
+        return options;
+    }
+
+    private record Informers(ApiClient watchClient, SharedInformerFactory factory, Map<Class<?>, Tracker<?>> trackers) {
+    }
+
+    /**
+     * Thông tin API của một loại resource.
+     */
+    private record Resource<T extends KubernetesObject, L extends KubernetesListObject>(
+            Class<T> type, Class<L> listType, String group, String version, String plural) {
+
+        GenericKubernetesApi<T, L> api(ApiClient client) {
+            return new GenericKubernetesApi<>(type, listType, group, version, plural, client);
+        }
+
+        Tracker<T> start(SharedInformerFactory factory, ApiClient watchClient, List<ResourceEventHandler<?>> listeners) {
+            Tracker<T> tracker = new Tracker<>(plural, listeners);
+            GenericKubernetesApi<T, L> api = api(watchClient);
+            // Giống list/watch mặc định của factory (mọi namespace), thêm tín hiệu list thành công cho tracker
+            ListerWatcher<T, L> listerWatcher = new ListerWatcher<>() {
+                @Override
+                public L list(CallGeneratorParams params) throws ApiException {
+                    L list = api.list(informerOptions(params)).throwsApiException().getObject();
+                    tracker.onListed();
+                    return list;
+                }
+
+                @Override
+                public Watchable<T> watch(CallGeneratorParams params) throws ApiException {
+                    return api.watch(informerOptions(params));
+                }
+            };
+            SharedIndexInformer<T> informer = factory.sharedIndexInformerFor(listerWatcher, type, 0L, tracker::onError);
+            Map<String, Function<T, List<String>>> indexers = new HashMap<>();
+            indexers.put(LABEL_INDEX, ClusterStateCache::labelIndex);
+            if (!informer.getIndexer().getIndexers().containsKey(Caches.NAMESPACE_INDEX)) {
+                indexers.put(Caches.NAMESPACE_INDEX, Caches::metaNamespaceIndexFunc);
+            }
+            informer.addIndexers(indexers);
+            informer.addEventHandler(tracker);
+            tracker.informer = informer;
+            return tracker;
+        }
+    }
+
+    /**
+     * Theo dõi sự kiện/lỗi của một informer để tính staleness và chuyển sự kiện cho các listener.
+     */
+    private static final class Tracker<T extends KubernetesObject> implements ResourceEventHandler<T> {
+        // Sau khi list xong, informer còn phải đưa các object vào indexer: chờ thêm theo từng bước ngắn
+        private static final long DRAIN_WAIT_MS = 5;
+
+        private final String plural;
+        private final List<ResourceEventHandler<?>> listeners;
+        private final long startedAtMs = System.currentTimeMillis();
+        // Được báo khi list thành công hoặc list/watch lỗi
+        private final Object syncSignal = new Object();
+        private SharedIndexInformer<T> informer;
+        private volatile long lastGoodAtMs;
+        private volatile long lastErrorAtMs;
+        private volatile long listedAtMs;
+
+        private Tracker(String plural, List<ResourceEventHandler<?>> listeners) {
+            this.plural = plural;
+            this.listeners = listeners;
+        }
+
+        SharedIndexInformer<T> informer() {
+            return informer;
+        }
+
+        /**
+         * Chờ informer sync lần đầu.
+         *
+         * @return false nếu hết thời gian, hoặc lần list đầu tiên đã lỗi (người gọi đọc trực tiếp thay vì chờ)
+         */
+        boolean awaitSynced(long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            synchronized (syncSignal) {
+                while (!informer.hasSynced()) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0 || (listedAtMs == 0 && lastErrorAtMs > 0)) {
+                        return false;
+                    }
+                    syncSignal.wait(listedAtMs == 0 ? remaining : Math.min(remaining, DRAIN_WAIT_MS));
+                }
+            }
+            if (lastGoodAtMs == 0) {
+                lastGoodAtMs = System.currentTimeMillis();
+            }
+            return true;
+        }
+
+        /**
+         * List (lần đầu hoặc list lại sau lỗi watch) thành công: dữ liệu vừa được xác nhận với API server.
+         */
+        void onListed() {
+            long now = System.currentTimeMillis();
+            lastGoodAtMs = now;
+            listedAtMs = now;
+            synchronized (syncSignal) {
+                syncSignal.notifyAll();
+            }
+        }
+
+        long stalenessMs() {
+            long now = System.currentTimeMillis();
+            if (lastGoodAtMs == 0) {
+                return now - startedAtMs;
+            }
+            // Watch lỗi sau sự kiện cuối: dữ liệu chỉ được xác nhận đến lần sự kiện/sync cuối cùng
+            return lastErrorAtMs > lastGoodAtMs ? now - lastGoodAtMs : 0;
+        }
+
+        void onError(Class<T> type, Throwable error) {
+            lastErrorAtMs = System.currentTimeMillis();
+            System.err.println("[ClusterStateCache] Loi list/watch " + plural + ": " + error.getMessage());
+            synchronized (syncSignal) {
+                syncSignal.notifyAll();
+            }
+        }
+
+        @Override
+        public void onAdd(T obj) {
+            lastGoodAtMs = System.currentTimeMillis();
+            dispatch(listener -> listener.onAdd(obj));
+        }
+
+        @Override
+        public void onUpdate(T oldObj, T newObj) {
+            lastGoodAtMs = System.currentTimeMillis();
+            dispatch(listener -> listener.onUpdate(oldObj, newObj));
+        }
+
+        @Override
+        public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+            lastGoodAtMs = System.currentTimeMillis();
+            dispatch(listener -> listener.onDelete(obj, deletedFinalStateUnknown));
+        }
+
+        @SuppressWarnings("unchecked")
+        private void dispatch(Consumer<ResourceEventHandler<T>> event) {
+            for (ResourceEventHandler<?> listener : listeners) {
+                try {
+                    event.accept((ResourceEventHandler<T>) listener);
+                } catch (RuntimeException e) {
+                    System.err.println("[ClusterStateCache] Listener " + plural + " loi: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
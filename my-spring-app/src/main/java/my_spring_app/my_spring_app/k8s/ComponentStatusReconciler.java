@@ -0,0 +1,314 @@
+package my_spring_app.my_spring_app.k8s;
+
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentCondition;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Đồng bộ status và số replicas của Database/Backend/Frontend trong MySQL theo trạng thái thật của
+ * Deployment/StatefulSet trên cluster.
+ *
+ * Trước đây status chỉ được gán khi deploy/stop/start (RUNNING ngay sau kubectl apply dù pod có lên hay không),
+ * muốn biết trạng thái thật phải gọi các màn hình chi tiết. Reconciler nghe sự kiện informer của
+ * ClusterStateCache, gộp các thay đổi theo component (chỉ giữ trạng thái mới nhất) và ghi xuống DB theo lô
+ * JDBC mỗi {@code flushIntervalMs}; danh sách đọc status thẳng từ MySQL.
+ *
+ * - Component nhận diện qua label sở hữu (OwnershipLabels); object cũ chưa có label thì theo tên
+ *   db-{uuid} (StatefulSet database) / app-{uuid} (Deployment backend hoặc frontend)
+ * - RUNNING: đủ replica ready; PENDING: đang lên/đang scale; STOPPED: replicas = 0;
+ *   ERROR: Deployment quá progress deadline / ReplicaFailure, hoặc workload bị xoá khỏi cluster
+ * - Định kỳ {@code resyncIntervalMs} đọc lại toàn bộ từ cache để sửa các lần ghi đè từ JPA
+ *   (UPDATE chỉ ghi khi giá trị khác nên lượt resync không đổi gì gần như không tốn)
+ */
+@Component
+public class ComponentStatusReconciler {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_STOPPED = "STOPPED";
+    public static final String STATUS_ERROR = "ERROR";
+
+    // Bảng theo loại component; null = object cũ app-{uuid}, chưa biết là backend hay frontend
+    private static final Map<String, List<String>> TABLES = Map.of(
+            OwnershipLabels.TYPE_DATABASE, List.of("project_database"),
+            OwnershipLabels.TYPE_BACKEND, List.of("project_backend"),
+            OwnershipLabels.TYPE_FRONTEND, List.of("project_frontend"));
+    private static final List<String> LEGACY_APP_TABLES = List.of("project_backend", "project_frontend");
+
+    /**
+     * Trạng thái quan sát được của một component.
+     *
+     * @param type OwnershipLabels.TYPE_*; null nếu là Deployment cũ chưa có label
+     * @param replicas spec.replicas; null nếu workload đã bị xoá (giữ nguyên giá trị trong DB)
+     */
+    record Observation(String type, String uuid, String status, Integer replicas) {
+
+        String key() {
+            return type + ":" + uuid;
+        }
+    }
+
+    // Bật/tắt reconciler
+    @Value("${app.k8s.reconciler.enabled:true}")
+    private boolean enabled = true;
+
+    // Chu kỳ gộp thay đổi và ghi xuống DB
+    @Value("${app.k8s.reconciler.flush-interval-ms:300}")
+    private long flushIntervalMs = 300;
+
+    // Chu kỳ đọc lại toàn bộ Deployment/StatefulSet từ cache
+    @Value("${app.k8s.reconciler.resync-interval-ms:60000}")
+    private long resyncIntervalMs = 60000;
+
+    // Timeout của một lô UPDATE (tránh treo thread khi row đang bị transaction khác khoá)
+    @Value("${app.k8s.reconciler.query-timeout-seconds:5}")
+    private int queryTimeoutSeconds = 5;
+
+    // Cache informer dùng chung
+    @Autowired
+    private ClusterStateCache clusterStateCache;
+
+    // DataSource của ứng dụng (JdbcTemplate riêng để đặt query timeout)
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    // Thay đổi chờ ghi: key component -> trạng thái mới nhất
+    private final Map<String, Observation> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "component-status-reconciler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Lượt trước có lỗi không (chỉ log khi trạng thái thay đổi)
+    private volatile boolean failing;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            System.out.println("[ComponentStatusReconciler] Da tat dong bo status component");
+            return;
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        clusterStateCache.addListener(V1Deployment.class, listener(ComponentStatusReconciler::observe));
+        clusterStateCache.addListener(V1StatefulSet.class, listener(ComponentStatusReconciler::observe));
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        // Lượt resync đầu tiên cũng là lần đọc khởi động informer của Deployment/StatefulSet
+        scheduler.scheduleWithFixedDelay(this::resyncSafely, 0, resyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private <T extends KubernetesObject> ResourceEventHandler<T> listener(Function<T, Observation> observe) {
+        return new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(T obj) {
+                enqueue(observe.apply(obj));
+            }
+
+            @Override
+            public void onUpdate(T oldObj, T newObj) {
+                enqueue(observe.apply(newObj));
+            }
+
+            @Override
+            public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+                Observation observation = observe.apply(obj);
+                if (observation != null) {
+                    enqueue(new Observation(observation.type(), observation.uuid(), STATUS_ERROR, null));
+                }
+            }
+        };
+    }
+
+    private void enqueue(Observation observation) {
+        if (observation != null) {
+            pending.put(observation.key(), observation);
+        }
+    }
+
+    /**
+     * Đọc lại toàn bộ Deployment/StatefulSet từ cache và đưa vào hàng đợi.
+     */
+    void resync() {
+        for (V1Deployment deployment : clusterStateCache.list(V1Deployment.class).items()) {
+            enqueue(observe(deployment));
+        }
+        for (V1StatefulSet statefulSet : clusterStateCache.list(V1StatefulSet.class).items()) {
+            enqueue(observe(statefulSet));
+        }
+    }
+
+    /**
+     * Ghi các thay đổi đang chờ xuống DB.
+     *
+     * Quy trình xử lý:
+     * 1. Lấy ra toàn bộ thay đổi đang chờ (mỗi component chỉ còn trạng thái mới nhất)
+     * 2. Gom theo bảng, mỗi bảng một lô UPDATE ... WHERE uuid_k8s = ? (chỉ ghi khi status/replicas khác)
+     * 3. Lỗi DB: đưa lại vào hàng đợi những component chưa có trạng thái mới hơn, thử lại ở chu kỳ sau
+     *
+     * @return Số row thực sự thay đổi
+     */
+    int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Observation> batch = new ArrayList<>();
+        for (String key : new ArrayList<>(pending.keySet())) {
+            Observation observation = pending.remove(key);
+            if (observation != null) {
+                batch.add(observation);
+            }
+        }
+        Map<String, List<Object[]>> byTable = new HashMap<>();
+        for (Observation observation : batch) {
+            List<String> tables = observation.type() == null ? LEGACY_APP_TABLES : TABLES.get(observation.type());
+            if (tables == null) {
+                continue;
+            }
+            for (String table : tables) {
+                byTable.computeIfAbsent(table, k -> new ArrayList<>()).add(new Object[]{
+                        observation.status(), observation.replicas(), observation.uuid(),
+                        observation.status(), observation.replicas()});
+            }
+        }
+        int changed = 0;
+        try {
+            for (Map.Entry<String, List<Object[]>> entry : byTable.entrySet()) {
+                // <=> là so sánh bằng an toàn với NULL của MySQL; replicas NULL (workload đã xoá) giữ giá trị cũ
+                String sql = "UPDATE " + entry.getKey() + " SET status = ?, replicas = COALESCE(?, replicas)"
+                        + " WHERE uuid_k8s = ? AND NOT (status <=> ? AND replicas <=> COALESCE(?, replicas))";
+                for (int rows : jdbcTemplate.batchUpdate(sql, entry.getValue())) {
+                    changed += Math.max(rows, 0);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (Observation observation : batch) {
+                pending.putIfAbsent(observation.key(), observation);
+            }
+            throw e;
+        }
+        if (changed > 0) {
+            System.out.println("[ComponentStatusReconciler] Cap nhat status cua " + changed + " component");
+        }
+        return changed;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+            if (failing) {
+                failing = false;
+                System.out.println("[ComponentStatusReconciler] Ghi status component hoat dong tro lai");
+            }
+        } catch (Exception e) {
+            if (!failing) {
+                failing = true;
+                System.err.println("[ComponentStatusReconciler] Khong ghi duoc status component: " + e.getMessage());
+            }
+        }
+    }
+
+    private void resyncSafely() {
+        try {
+            resync();
+        } catch (Exception e) {
+            // MASTER chưa cấu hình hoặc API server không truy cập được: thử lại ở chu kỳ sau
+            System.err.println("[ComponentStatusReconciler] Khong doc duoc workload tu cluster: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Trạng thái của component từ Deployment (backend/frontend); null nếu không phải workload do hệ thống tạo.
+     */
+    static Observation observe(V1Deployment deployment) {
+        String[] component = component(deployment, "app-", null);
+        if (component == null) {
+            return null;
+        }
+        int desired = deployment.getSpec() != null && deployment.getSpec().getReplicas() != null
+                ? deployment.getSpec().getReplicas() : 1;
+        int ready = deployment.getStatus() != null && deployment.getStatus().getReadyReplicas() != null
+                ? deployment.getStatus().getReadyReplicas() : 0;
+        boolean failed = false;
+        if (deployment.getStatus() != null && deployment.getStatus().getConditions() != null) {
+            for (V1DeploymentCondition condition : deployment.getStatus().getConditions()) {
+                if ("Progressing".equals(condition.getType()) && "False".equals(condition.getStatus())
+                        || "ReplicaFailure".equals(condition.getType()) && "True".equals(condition.getStatus())) {
+                    failed = true;
+                }
+            }
+        }
+        return new Observation(component[0], component[1], status(desired, ready, failed), desired);
+    }
+
+    /**
+     * Trạng thái của database từ StatefulSet; null nếu không phải workload do hệ thống tạo.
+     */
+    static Observation observe(V1StatefulSet statefulSet) {
+        String[] component = component(statefulSet, "db-", OwnershipLabels.TYPE_DATABASE);
+        if (component == null) {
+            return null;
+        }
+        int desired = statefulSet.getSpec() != null && statefulSet.getSpec().getReplicas() != null
+                ? statefulSet.getSpec().getReplicas() : 1;
+        int ready = statefulSet.getStatus() != null && statefulSet.getStatus().getReadyReplicas() != null
+                ? statefulSet.getStatus().getReadyReplicas() : 0;
+        return new Observation(component[0], component[1], status(desired, ready, false), desired);
+    }
+
+    private static String status(int desired, int ready, boolean failed) {
+        if (desired == 0) {
+            return STATUS_STOPPED;
+        }
+        if (ready >= desired) {
+            return STATUS_RUNNING;
+        }
+        return failed ? STATUS_ERROR : STATUS_PENDING;
+    }
+
+    /**
+     * [type, uuid] của workload: ưu tiên label sở hữu, không có thì theo tên (legacyPrefix + uuid).
+     */
+    private static String[] component(KubernetesObject object, String legacyPrefix, String legacyType) {
+        if (object.getMetadata() == null) {
+            return null;
+        }
+        Map<String, String> labels = object.getMetadata().getLabels();
+        if (labels != null && labels.get(OwnershipLabels.COMPONENT_ID) != null
+                && labels.get(OwnershipLabels.COMPONENT_TYPE) != null) {
+            return new String[]{labels.get(OwnershipLabels.COMPONENT_TYPE), labels.get(OwnershipLabels.COMPONENT_ID)};
+        }
+        String name = object.getMetadata().getName();
+        if (name == null || !name.startsWith(legacyPrefix) || name.length() == legacyPrefix.length()) {
+            return null;
+        }
+        return new String[]{legacyType, name.substring(legacyPrefix.length())};
+    }
+}
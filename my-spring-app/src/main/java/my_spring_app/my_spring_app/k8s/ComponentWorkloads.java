@@ -0,0 +1,114 @@
+package my_spring_app.my_spring_app.k8s;
+
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.models.V1Scale;
+import io.kubernetes.client.util.PatchUtils;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thao tác Kubernetes trên workload của một component (Database/Backend/Frontend) qua ApiClient dùng chung.
+ *
+ * Tên resource theo quy ước khi deploy: Backend/Frontend là Deployment {@code app-<uuid>} kèm Service
+ * {@code -svc} và Ingress {@code -ing}; Database là StatefulSet {@code db-<uuid>} kèm Service {@code -svc},
+ * Secret {@code -secret} (MySQL) và PVC dữ liệu của pod đầu tiên.
+ *
+ * Scale dùng một lệnh merge patch trên subresource scale (không đọc rồi ghi lại); xoá bỏ qua resource
+ * không còn tồn tại (404) như {@code kubectl delete ... || true} trước đây.
+ */
+@Component
+public class ComponentWorkloads {
+
+    // ApiClient Kubernetes dùng chung (SSH tunnel tới MASTER)
+    @Autowired
+    private KubernetesClientProvider kubernetesClientProvider;
+
+    /**
+     * Một resource cần xoá: group/version/plural theo Kubernetes API và tên.
+     */
+    public record ResourceRef(String group, String version, String plural, String name) {
+    }
+
+    /**
+     * Tên workload (Deployment/StatefulSet) của component.
+     */
+    public static String workloadName(String componentType, String uuid) {
+        return (OwnershipLabels.TYPE_DATABASE.equals(componentType) ? "db-" : "app-") + uuid;
+    }
+
+    /**
+     * Danh sách resource của component theo thứ tự xoá (Ingress/Service trước, workload, rồi dữ liệu).
+     *
+     * @param databaseType MYSQL, MONGODB hoặc null (không rõ: xoá PVC của cả hai loại)
+     */
+    public static List<ResourceRef> resourcesOf(String componentType, String uuid, String databaseType) {
+        String workload = workloadName(componentType, uuid);
+        List<ResourceRef> refs = new ArrayList<>();
+        if (OwnershipLabels.TYPE_DATABASE.equals(componentType)) {
+            refs.add(new ResourceRef("apps", "v1", "statefulsets", workload));
+            refs.add(new ResourceRef("", "v1", "services", workload + "-svc"));
+            if (databaseType == null || "MYSQL".equalsIgnoreCase(databaseType)) {
+                refs.add(new ResourceRef("", "v1", "secrets", workload + "-secret"));
+                refs.add(new ResourceRef("", "v1", "persistentvolumeclaims", "mysql-data-" + workload + "-0"));
+            }
+            if (databaseType == null || "MONGODB".equalsIgnoreCase(databaseType)) {
+                refs.add(new ResourceRef("", "v1", "persistentvolumeclaims", "mongodb-data-" + workload + "-0"));
+            }
+        } else {
+            refs.add(new ResourceRef("networking.k8s.io", "v1", "ingresses", workload + "-ing"));
+            refs.add(new ResourceRef("", "v1", "services", workload + "-svc"));
+            refs.add(new ResourceRef("apps", "v1", "deployments", workload));
+        }
+        return refs;
+    }
+
+    /**
+     * Đặt spec.replicas cho Deployment (Backend/Frontend) hoặc StatefulSet (Database) bằng một lệnh patch.
+     */
+    public void scale(String namespace, String componentType, String uuid, int replicas) throws ApiException {
+        ApiClient client = kubernetesClientProvider.client();
+        AppsV1Api appsApi = new AppsV1Api(client);
+        String name = workloadName(componentType, uuid);
+        V1Patch patch = new V1Patch("{\"spec\":{\"replicas\":" + replicas + "}}");
+        if (OwnershipLabels.TYPE_DATABASE.equals(componentType)) {
+            PatchUtils.patch(V1Scale.class,
+                    () -> appsApi.patchNamespacedStatefulSetScaleCall(name, namespace, patch, null, null, null, null, null, null),
+                    V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH, client);
+        } else {
+            PatchUtils.patch(V1Scale.class,
+                    () -> appsApi.patchNamespacedDeploymentScaleCall(name, namespace, patch, null, null, null, null, null, null),
+                    V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH, client);
+        }
+    }
+
+    /**
+     * Xoá các resource trong namespace; resource không tồn tại được bỏ qua.
+     *
+     * @return Số resource thực sự bị xoá
+     */
+    public int delete(String namespace, List<ResourceRef> resources) {
+        ApiClient client = kubernetesClientProvider.client();
+        int deleted = 0;
+        for (ResourceRef ref : resources) {
+            DynamicKubernetesApi api = new DynamicKubernetesApi(ref.group(), ref.version(), ref.plural(), client);
+            KubernetesApiResponse<DynamicKubernetesObject> response = api.delete(namespace, ref.name());
+            if (response.isSuccess()) {
+                deleted++;
+            } else if (response.getHttpStatusCode() != 404) {
+                String message = response.getStatus() != null ? response.getStatus().getMessage() : null;
+                throw new RuntimeException("Không thể xóa " + ref.plural() + "/" + ref.name() + ": "
+                        + (message != null ? message : "HTTP " + response.getHttpStatusCode()));
+            }
+        }
+        return deleted;
+    }
+}
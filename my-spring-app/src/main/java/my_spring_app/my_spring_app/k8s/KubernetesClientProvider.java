@@ -0,0 +1,369 @@
+package my_spring_app.my_spring_app.k8s;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.ClientBuilder;
+import io.kubernetes.client.util.KubeConfig;
+import jakarta.annotation.PreDestroy;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.exception.ServerUnavailableException;
+import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.ServerConnectionRegistry;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
+import okhttp3.internal.tls.OkHostnameVerifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Cung cấp một ApiClient Kubernetes dùng chung, sống lâu, đi qua SSH tunnel tới MASTER server.
+ *
+ * Trước đây mỗi lần gọi API đều: cat ~/.kube/config qua SSH, ghi file tạm, tạo ApiClient mới và
+ * Configuration.setDefaultApiClient(...) (biến global, các request song song ghi đè lẫn nhau).
+ * Provider giữ một ApiClient duy nhất nên connection pool HTTP của OkHttp được tái sử dụng,
+ * kubeconfig được parse trong bộ nhớ và chỉ tạo lại client khi fingerprint (SHA-256) thay đổi.
+ *
+ * Quy trình xử lý:
+ * 1. Mở SSH session riêng tới MASTER qua {@link SshSessionPool#openDedicated} (tunnel sống lâu nên không
+ *    mượn session của pool, nhưng dùng chung xác thực, keep-alive, timeout và circuit breaker của pool)
+ * 2. Đọc kubeconfig qua chính session đó, tính fingerprint
+ * 3. Mở local port forwarding (direct-tcpip) 127.0.0.1:port -> API server trong kubeconfig
+ * 4. Tạo ApiClient trỏ tới đầu tunnel, hostname TLS vẫn được kiểm tra theo host gốc của API server
+ * 5. Mỗi {@code configCheckIntervalMs}: đọc lại kubeconfig, chỉ tạo client mới nếu fingerprint đổi;
+ *    session rớt thì dựng lại tunnel ở lần gọi tiếp theo. Client mới dùng cổng forward mới; cổng của client cũ
+ *    chỉ bị gỡ ở lần kiểm tra sau, khi các request đang giữ client cũ đã xong
+ * 7. MASTER đổi thông tin kết nối, role, status hoặc bị xóa: ServerServiceImpl gọi {@link #invalidate(Long)},
+ *    tunnel cũ bị đóng ngay và một lần nữa sau commit
+ * 6. Chỉ một luồng làm mới tại một thời điểm và làm ngoài khoá; luồng khác dùng tiếp client cũ nếu tunnel
+ *    còn sống, ngược lại chờ kết quả của lần làm mới đó (MASTER chết không làm các request xếp hàng)
+ *
+ * Người gọi dùng {@code new CoreV1Api(kubernetesClientProvider.client())}, không dùng Configuration global.
+ */
+@Component
+public class KubernetesClientProvider {
+
+    private static final String KUBECONFIG_COMMAND = "cat ~/.kube/config";
+
+    @Autowired
+    private ServerRepository serverRepository;
+
+    @Autowired
+    private ServerConnectionRegistry serverConnectionRegistry;
+
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Mở session tunnel bằng logic kết nối của pool
+    @Autowired
+    private SshSessionPool sshSessionPool;
+
+    // Tắt tunnel để gọi thẳng địa chỉ API server ghi trong kubeconfig (khi app chạy cùng mạng với cluster)
+    @Value("${app.k8s.tunnel.enabled:true}")
+    private boolean tunnelEnabled = true;
+
+    @Value("${app.k8s.config-check-interval-ms:60000}")
+    private long configCheckIntervalMs = 60000;
+
+    private volatile Handle current;
+
+    // Lần làm mới đang chạy (single-flight) và số lần invalidate(); cả hai được bảo vệ bởi khoá của provider
+    private CompletableFuture<Handle> refreshing;
+    private long generation;
+
+    /**
+     * Trạng thái hiện tại: client, fingerprint của kubeconfig đã dùng và tunnel tương ứng.
+     */
+    private record Handle(ApiClient client, ApiClient watchClient, String fingerprint, Session tunnel, int localPort,
+                          int retiredPort, Long masterServerId, long checkedAtMs) {
+
+        boolean tunnelAlive() {
+            return tunnel != null && tunnel.isConnected();
+        }
+
+        Handle checkedNow() {
+            return new Handle(client, watchClient, fingerprint, tunnel, localPort, retiredPort, masterServerId,
+                    System.currentTimeMillis());
+        }
+
+        Handle withoutRetiredPort() {
+            return new Handle(client, watchClient, fingerprint, tunnel, localPort, -1, masterServerId, checkedAtMs);
+        }
+    }
+
+    /**
+     * Lấy ApiClient dùng chung (tạo/làm mới nếu cần).
+     *
+     * @return ApiClient đã cấu hình sẵn xác thực và tunnel
+     * @throws RuntimeException nếu không có MASTER server hoặc không đọc được kubeconfig lần đầu
+     */
+    public ApiClient client() {
+        return handle().client();
+    }
+
+    /**
+     * ApiClient dùng cho watch (informer): cùng kubeconfig và tunnel nhưng không có read timeout,
+     * vì watch stream có thể im lặng lâu khi cluster không thay đổi.
+     * Client mới (instance khác) nghĩa là kubeconfig/tunnel đã đổi, người dùng cần mở lại watch.
+     */
+    public ApiClient watchClient() {
+        return handle().watchClient();
+    }
+
+    private Handle handle() {
+        Handle handle = current;
+        if (fresh(handle)) {
+            return handle;
+        }
+        CompletableFuture<Handle> flight;
+        long startedGeneration;
+        synchronized (this) {
+            handle = current;
+            if (fresh(handle)) {
+                return handle;
+            }
+            if (refreshing != null) {
+                // Đã có luồng khác đang làm mới: client cũ còn tunnel thì dùng tiếp, không chờ SSH
+                if (handle != null && handle.tunnelAlive()) {
+                    return handle;
+                }
+                flight = refreshing;
+                startedGeneration = -1;
+            } else {
+                flight = new CompletableFuture<>();
+                refreshing = flight;
+                startedGeneration = generation;
+            }
+        }
+        if (startedGeneration < 0) {
+            Handle refreshed = await(flight);
+            return refreshed != null ? refreshed : handle();
+        }
+
+        // SSH connect và đọc kubeconfig chạy ngoài khoá; chỉ bước gán handle mới cần khoá
+        Handle refreshed;
+        try {
+            refreshed = refresh(handle);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                refreshing = null;
+            }
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        boolean superseded;
+        synchronized (this) {
+            superseded = generation != startedGeneration;
+            if (!superseded) {
+                current = refreshed;
+            }
+            refreshing = null;
+        }
+        if (superseded) {
+            // invalidate() được gọi trong lúc làm mới: bỏ kết quả, lần gọi sau dựng lại từ đầu
+            if (handle == null || refreshed.tunnel() != handle.tunnel()) {
+                closeTunnel(refreshed.tunnel());
+            }
+            flight.complete(null);
+            return handle();
+        }
+        flight.complete(refreshed);
+        return refreshed;
+    }
+
+    private boolean fresh(Handle handle) {
+        return handle != null && handle.tunnelAlive()
+                && System.currentTimeMillis() - handle.checkedAtMs() < configCheckIntervalMs;
+    }
+
+    private static Handle await(CompletableFuture<Handle> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Bỏ client hiện tại (ví dụ server khác trở thành MASTER); lần gọi client() tiếp theo sẽ dựng lại tunnel.
+     * Lần làm mới đang chạy (nếu có) sẽ bị bỏ kết quả. Nếu đang trong transaction thì bỏ thêm một lần sau commit,
+     * tránh trường hợp thread khác dựng lại tunnel từ dữ liệu cũ trong khoảng giữa save và commit.
+     */
+    public void invalidate() {
+        invalidateNow();
+        afterCommit(this::invalidateNow);
+    }
+
+    /**
+     * Server thay đổi thông tin kết nối, status hoặc bị xóa: bỏ client nếu tunnel hiện tại đi qua server đó
+     * (hoặc đang có lần làm mới chạy dở, có thể đọc dữ liệu cũ). Gọi sau ServerConnectionRegistry.invalidate(...)
+     * để lần dựng lại sau commit đọc được thông tin kết nối mới.
+     */
+    public void invalidate(Long serverId) {
+        if (serverId == null) return;
+        invalidateIfMaster(serverId);
+        afterCommit(() -> invalidateIfMaster(serverId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        invalidateNow();
+    }
+
+    private synchronized void invalidateIfMaster(Long serverId) {
+        Handle handle = current;
+        if (refreshing != null || (handle != null && serverId.equals(handle.masterServerId()))) {
+            invalidateNow();
+        }
+    }
+
+    private synchronized void invalidateNow() {
+        Handle handle = current;
+        current = null;
+        generation++;
+        if (handle != null) {
+            System.out.println("[KubernetesClientProvider] Bo ApiClient hien tai (MASTER server ID "
+                    + handle.masterServerId() + " thay doi)");
+            closeTunnel(handle.tunnel());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private Handle refresh(Handle previous) {
+        ServerEntity master = serverRepository.findByRole("MASTER")
+                .orElseThrow(() -> new RuntimeException(
+                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
+
+        boolean reuseTunnel = previous != null && previous.tunnelAlive()
+                && previous.masterServerId().equals(master.getId());
+        Session session = reuseTunnel ? previous.tunnel() : null;
+        try {
+            if (session == null) {
+                session = openSession(master.getId());
+            } else if (previous.retiredPort() > 0) {
+                // Cổng của client trước đó đã nghỉ được một chu kỳ kiểm tra: request cũ đã xong, gỡ forward
+                try {
+                    session.delPortForwardingL("127.0.0.1", previous.retiredPort());
+                } catch (JSchException e) {
+                    System.err.println("[KubernetesClientProvider] Khong go duoc cong forward cu "
+                            + previous.retiredPort() + ": " + e.getMessage());
+                }
+                previous = previous.withoutRetiredPort();
+            }
+
+            String kubeconfig = readKubeconfig(session);
+            String fingerprint = fingerprint(kubeconfig);
+            if (reuseTunnel && fingerprint.equals(previous.fingerprint())) {
+                return previous.checkedNow();
+            }
+
+            KubeConfig kubeConfig = KubeConfig.loadKubeConfig(new StringReader(kubeconfig));
+            URI apiServer = URI.create(kubeConfig.getServer());
+            ApiClient client = ClientBuilder.kubeconfig(kubeConfig).build();
+            ApiClient watchClient = ClientBuilder.kubeconfig(kubeConfig).setReadTimeout(Duration.ZERO).build();
+
+            int localPort = -1;
+            if (tunnelEnabled) {
+                int apiPort = apiServer.getPort() > 0 ? apiServer.getPort() : 443;
+                localPort = session.setPortForwardingL("127.0.0.1", 0, apiServer.getHost(), apiPort);
+                pointAtTunnel(client, apiServer, localPort);
+                pointAtTunnel(watchClient, apiServer, localPort);
+            }
+
+            // Bỏ client/tunnel cũ sau khi client mới đã sẵn sàng. Cùng tunnel thì giữ cổng forward cũ tới lần
+            // kiểm tra sau: request đang giữ client cũ vẫn mở được kết nối mới tới cổng đó
+            int retiredPort = -1;
+            if (previous != null) {
+                previous.client().getHttpClient().connectionPool().evictAll();
+                previous.watchClient().getHttpClient().connectionPool().evictAll();
+                if (!reuseTunnel) {
+                    closeTunnel(previous.tunnel());
+                } else {
+                    retiredPort = previous.localPort();
+                }
+            }
+            System.out.println("[KubernetesClientProvider] Tao ApiClient moi (fingerprint " + fingerprint.substring(0, 12)
+                    + ", API server " + apiServer.getHost() + ":" + apiServer.getPort()
+                    + (tunnelEnabled ? ", tunnel 127.0.0.1:" + localPort : "") + ")");
+            return new Handle(client, watchClient, fingerprint, session, localPort, retiredPort, master.getId(),
+                    System.currentTimeMillis());
+        } catch (Exception e) {
+            if (!reuseTunnel) {
+                closeTunnel(session);
+            }
+            // Kiểm tra định kỳ lỗi nhưng tunnel cũ vẫn sống: giữ client cũ, thử lại ở chu kỳ sau
+            if (reuseTunnel) {
+                System.err.println("[KubernetesClientProvider] Khong kiem tra duoc kubeconfig, giu client cu: " + e.getMessage());
+                return previous.checkedNow();
+            }
+            // Breaker của MASTER đang OPEN: giữ nguyên loại lỗi để trả 503 và cho phép dùng dữ liệu cache
+            if (e instanceof ServerUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw new RuntimeException("Không thể tạo Kubernetes client: " + e.getMessage(), e);
+        }
+    }
+
+    private static void pointAtTunnel(ApiClient client, URI apiServer, int localPort) {
+        client.setBasePath(apiServer.getScheme() + "://127.0.0.1:" + localPort);
+        // Kết nối tới 127.0.0.1 nhưng certificate cấp cho host gốc: kiểm tra hostname theo host gốc
+        String apiHost = apiServer.getHost();
+        client.setHttpClient(client.getHttpClient().newBuilder()
+                .hostnameVerifier((hostname, sslSession) ->
+                        OkHostnameVerifier.INSTANCE.verify(apiHost, sslSession))
+                .build());
+    }
+
+    private Session openSession(Long masterServerId) throws JSchException {
+        return sshSessionPool.openDedicated(serverConnectionRegistry.get(masterServerId));
+    }
+
+    private String readKubeconfig(Session session) throws JSchException {
+        CommandResult result = remoteCommandExecutor.execute(session, KUBECONFIG_COMMAND, 15000);
+        if (!result.isSuccess() || result.stdout().isBlank()) {
+            throw new RuntimeException("Không thể đọc kubeconfig từ master server"
+                    + (result.stderr().isBlank() ? "" : ": " + result.stderr().trim()));
+        }
+        return result.stdout();
+    }
+
+    private static String fingerprint(String kubeconfig) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(kubeconfig.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void closeTunnel(Session session) {
+        sshSessionPool.closeDedicated(session);
+    }
+}
@@ -0,0 +1,124 @@
+package my_spring_app.my_spring_app.k8s;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Phân tích label selector dạng chuỗi (cùng cú pháp với kubectl -l / labelSelector của API server)
+ * để lọc object trong ClusterStateCache mà không phải gọi lại API server.
+ *
+ * Hỗ trợ: key=value, key==value, key!=value, key, !key, key in (a,b), key notin (a,b);
+ * các điều kiện cách nhau bằng dấu phẩy và được AND với nhau.
+ */
+public final class LabelSelectors {
+
+    private static final Pattern SET_REQUIREMENT = Pattern.compile("^([^\\s!=(),]+)\\s+(in|notin)\\s*\\((.*)\\)$");
+
+    private LabelSelectors() {
+    }
+
+    /**
+     * @param selector Label selector (null/rỗng = khớp tất cả)
+     * @return Predicate trên map labels của object (null được coi là không có label)
+     * @throws IllegalArgumentException nếu selector sai cú pháp
+     */
+    public static Predicate<Map<String, String>> parse(String selector) {
+        if (selector == null || selector.isBlank()) {
+            return labels -> true;
+        }
+        List<Predicate<Map<String, String>>> requirements = new ArrayList<>();
+        for (String requirement : splitRequirements(selector)) {
+            requirements.add(requirement(requirement.trim(), selector));
+        }
+        return labels -> {
+            Map<String, String> actual = labels != null ? labels : Map.of();
+            for (Predicate<Map<String, String>> requirement : requirements) {
+                if (!requirement.test(actual)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<Map<String, String>> requirement(String requirement, String selector) {
+        if (requirement.isEmpty()) {
+            throw invalid(selector);
+        }
+        Matcher set = SET_REQUIREMENT.matcher(requirement);
+        if (set.matches()) {
+            String key = set.group(1);
+            Set<String> values = Arrays.stream(set.group(3).split(","))
+                    .map(String::trim)
+                    .collect(Collectors.toSet());
+            if (values.contains("")) {
+                throw invalid(selector);
+            }
+            return "in".equals(set.group(2))
+                    ? labels -> values.contains(labels.get(key))
+                    : labels -> !values.contains(labels.get(key));
+        }
+        int notEquals = requirement.indexOf("!=");
+        if (notEquals > 0) {
+            String key = key(requirement.substring(0, notEquals), selector);
+            String value = requirement.substring(notEquals + 2).trim();
+            return labels -> !value.equals(labels.get(key));
+        }
+        int equals = requirement.indexOf('=');
+        if (equals > 0) {
+            String key = key(requirement.substring(0, equals), selector);
+            String rest = requirement.substring(equals + 1);
+            String value = (rest.startsWith("=") ? rest.substring(1) : rest).trim();
+            return labels -> value.equals(labels.get(key));
+        }
+        if (requirement.startsWith("!")) {
+            String key = key(requirement.substring(1), selector);
+            return labels -> !labels.containsKey(key);
+        }
+        String key = key(requirement, selector);
+        return labels -> labels.containsKey(key);
+    }
+
+    private static String key(String raw, String selector) {
+        String key = raw.trim();
+        if (key.isEmpty() || key.chars().anyMatch(c -> Character.isWhitespace(c) || "!=(),".indexOf(c) >= 0)) {
+            throw invalid(selector);
+        }
+        return key;
+    }
+
+    // Tách theo dấu phẩy nằm ngoài ngoặc (dấu phẩy trong "in (a,b)" thuộc về danh sách giá trị)
+    private static List<String> splitRequirements(String selector) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth < 0) throw invalid(selector);
+            } else if (c == ',' && depth == 0) {
+                parts.add(selector.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (depth != 0) {
+            throw invalid(selector);
+        }
+        parts.add(selector.substring(start));
+        return parts;
+    }
+
+    private static IllegalArgumentException invalid(String selector) {
+        return new IllegalArgumentException("Label selector không hợp lệ: " + selector);
+    }
+}
@@ -0,0 +1,40 @@
+package my_spring_app.my_spring_app.k8s;
+
+import io.kubernetes.client.common.KubernetesObject;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Điều kiện lọc/sắp xếp/phân trang khi đọc danh sách resource từ ClusterStateCache.
+ *
+ * @param namespaces Chỉ lấy object thuộc các namespace này (null = mọi namespace; rỗng = không có kết quả)
+ * @param labelSelector Label selector (cú pháp của API server), null nếu không lọc
+ * @param fieldSelector Field selector, chỉ API server hỗ trợ nên luôn được đọc trực tiếp
+ * @param sort Khoá sắp xếp (tiền tố "-" để đảo chiều); null = namespace rồi name.
+ *             name, namespace; created = theo creationTimestamp, cũ nhất trước;
+ *             age = theo tuổi như cột AGE của kubectl, mới nhất trước (tương đương -created)
+ * @param limit Số phần tử tối đa của một trang (null hoặc <= 0 = không giới hạn)
+ * @param continueToken Token trang tiếp theo trả về ở lần đọc trước
+ * @param filter Điều kiện bổ sung chạy trong bộ nhớ (ví dụ phạm vi project với resource cluster-scoped)
+ */
+public record ListQuery(Set<String> namespaces, String labelSelector, String fieldSelector, String sort,
+                        Integer limit, String continueToken, Predicate<KubernetesObject> filter) {
+
+    /**
+     * Không lọc, không phân trang.
+     */
+    public static final ListQuery ALL = new ListQuery(null, null, null, null, null, null, null);
+
+    public boolean paged() {
+        return limit != null && limit > 0;
+    }
+
+    public ListQuery withFilter(Predicate<KubernetesObject> filter) {
+        return new ListQuery(namespaces, labelSelector, fieldSelector, sort, limit, continueToken, filter);
+    }
+
+    public ListQuery withNamespaces(Set<String> namespaces) {
+        return new ListQuery(namespaces, labelSelector, fieldSelector, sort, limit, continueToken, filter);
+    }
+}
@@ -0,0 +1,327 @@
+package my_spring_app.my_spring_app.k8s;
+
+import com.google.gson.Gson;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesObject;
+import io.kubernetes.client.util.generic.options.PatchOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Apply manifest sinh ra khi deploy Database/Backend/Frontend bằng server-side apply qua Kubernetes API.
+ *
+ * Trước đây mỗi lần deploy: mở SFTP tới MASTER, cd/mkdir từng cấp /home/<user>/uploads/..., upload YAML,
+ * kiểm tra namespace (read + create), rồi mở thêm một exec channel để chạy {@code kubectl apply -f}.
+ * Applier dùng ApiClient dùng chung (KubernetesClientProvider) nên không còn round trip SSH nào:
+ * namespace cũng được apply như một object, các object còn lại được PATCH (application/apply-patch+yaml)
+ * lần lượt trên cùng connection HTTP với fieldManager cố định và force=true (giống {@code kubectl apply --server-side}).
+ *
+ * Quy trình xử lý:
+ * 1. Tách manifest nhiều document thành danh sách object (group/version/plural/namespace/name)
+ * 2. Apply namespace đích (idempotent, thay cho readNamespace + createNamespace)
+ * 3. Apply từng object theo thứ tự trong manifest, object lỗi thì dừng và báo lỗi kèm kind/name
+ * 4. Ghi log số object và thời gian apply
+ *
+ * Manifest được lưu (nếu bật) vào thư mục cục bộ {@code archiveDir} thay vì /home/<user>/uploads trên MASTER;
+ * yamlPath của component trỏ tới file lưu trữ này.
+ */
+@Component
+public class ManifestApplier {
+
+    // Các kind không thuộc namespace nào
+    private static final Set<String> CLUSTER_SCOPED_KINDS = Set.of(
+            "Namespace", "PersistentVolume", "StorageClass", "ClusterRole", "ClusterRoleBinding",
+            "CustomResourceDefinition", "IngressClass", "PriorityClass");
+
+    // Plural của các kind mà app sinh ra (tránh một lần discovery cho mỗi lần deploy)
+    private static final Map<String, String> PLURALS = Map.ofEntries(
+            Map.entry("Namespace", "namespaces"),
+            Map.entry("Deployment", "deployments"),
+            Map.entry("StatefulSet", "statefulsets"),
+            Map.entry("Service", "services"),
+            Map.entry("Secret", "secrets"),
+            Map.entry("ConfigMap", "configmaps"),
+            Map.entry("Ingress", "ingresses"),
+            Map.entry("PersistentVolumeClaim", "persistentvolumeclaims"),
+            Map.entry("IngressClass", "ingressclasses"),
+            Map.entry("StorageClass", "storageclasses"));
+
+    private static final Gson GSON = new Gson();
+
+    // ApiClient Kubernetes dùng chung (SSH tunnel tới MASTER)
+    @Autowired
+    private KubernetesClientProvider kubernetesClientProvider;
+
+    // Tên field manager ghi vào managedFields của object
+    @Value("${app.k8s.manifest.field-manager:my-spring-app}")
+    private String fieldManager = "my-spring-app";
+
+    // Thư mục lưu manifest đã apply (rỗng = không lưu)
+    @Value("${app.k8s.manifest.archive-dir:data/manifests}")
+    private String archiveDir = "data/manifests";
+
+    /**
+     * Một object trong manifest, đã chuẩn hoá để gọi API.
+     */
+    record ManifestObject(String group, String version, String plural, String kind, String namespace,
+                          String name, String json) {
+
+        String describe() {
+            return kind + "/" + name + (namespace != null ? " (ns " + namespace + ")" : "");
+        }
+    }
+
+    /**
+     * Kết quả apply: số object (kể cả namespace) và thời gian apply.
+     */
+    public record ApplyResult(int objectCount, long elapsedMs) {
+    }
+
+    /**
+     * Apply toàn bộ manifest vào namespace đích.
+     *
+     * @param namespace Namespace đích, được tạo nếu chưa có; object thiếu namespace sẽ dùng giá trị này
+     * @param manifest Nội dung YAML (nhiều document ngăn cách bởi ---)
+     * @return Số object đã apply và thời gian apply
+     */
+    public ApplyResult apply(String namespace, String manifest) {
+        long startedNs = System.nanoTime();
+        List<ManifestObject> objects = new ArrayList<>();
+        if (namespace != null && !namespace.isBlank()) {
+            objects.add(namespaceObject(namespace.trim()));
+        }
+        for (ManifestObject object : parse(manifest, namespace)) {
+            // Namespace đã có trong manifest thì không apply lại
+            if (!("Namespace".equals(object.kind()) && namespace != null && namespace.trim().equals(object.name()))) {
+                objects.add(object);
+            }
+        }
+
+        ApiClient client = kubernetesClientProvider.client();
+        PatchOptions options = new PatchOptions().fieldManager(fieldManager).force(true);
+        for (ManifestObject object : objects) {
+            DynamicKubernetesApi api = new DynamicKubernetesApi(object.group(), object.version(), object.plural(), client);
+            V1Patch patch = new V1Patch(object.json());
+            KubernetesApiResponse<DynamicKubernetesObject> response = object.namespace() != null
+                    ? api.patch(object.namespace(), object.name(), V1Patch.PATCH_FORMAT_APPLY_YAML, patch, options)
+                    : api.patch(object.name(), V1Patch.PATCH_FORMAT_APPLY_YAML, patch, options);
+            if (!response.isSuccess()) {
+                String message = response.getStatus() != null ? response.getStatus().getMessage() : null;
+                System.err.println("[ManifestApplier] Apply that bai " + object.describe() + ", HTTP "
+                        + response.getHttpStatusCode() + ": " + message);
+                throw new RuntimeException("Không thể apply " + object.describe() + ": "
+                        + (message != null ? message : "HTTP " + response.getHttpStatusCode()));
+            }
+        }
+
+        long elapsedMs = (System.nanoTime() - startedNs) / 1_000_000L;
+        System.out.println("[ManifestApplier] Da apply " + objects.size() + " object vao namespace " + namespace
+                + " trong " + elapsedMs + " ms");
+        return new ApplyResult(objects.size(), elapsedMs);
+    }
+
+    /**
+     * Lưu manifest vào thư mục lưu trữ cục bộ: {@code <archiveDir>/<username>/<projectUuid>/<componentType>/<uuid>.yaml}.
+     *
+     * @return Đường dẫn tuyệt đối của file đã lưu, null nếu không bật lưu trữ hoặc ghi thất bại
+     */
+    public String archive(String username, String projectUuid, String componentType, String uuid, String manifest) {
+        Path root = archiveRoot();
+        if (root == null) {
+            return null;
+        }
+        Path target = root.resolve(segment(username)).resolve(segment(projectUuid))
+                .resolve(segment(componentType)).resolve(segment(uuid) + ".yaml");
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), segment(uuid), ".tmp");
+            Files.writeString(temp, manifest, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target.toString();
+        } catch (IOException e) {
+            // Lưu trữ chỉ để tra cứu, không làm hỏng lần deploy
+            System.err.println("[ManifestApplier] Khong the luu manifest " + target + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Xoá file manifest nếu đường dẫn thuộc thư mục lưu trữ cục bộ (kèm thư mục cha nếu đã rỗng).
+     *
+     * @return true nếu đường dẫn thuộc thư mục lưu trữ (đã xử lý tại đây), false nếu là đường dẫn cũ trên MASTER
+     */
+    public boolean removeArchived(String yamlPath) {
+        Path root = archiveRoot();
+        if (root == null || yamlPath == null || yamlPath.isBlank()) {
+            return false;
+        }
+        Path file = Paths.get(yamlPath.trim()).toAbsolutePath().normalize();
+        if (!file.startsWith(root)) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(file);
+            Path dir = file.getParent();
+            while (dir != null && !dir.equals(root) && dir.startsWith(root) && isEmptyDirectory(dir)) {
+                Files.delete(dir);
+                dir = dir.getParent();
+            }
+        } catch (IOException e) {
+            System.err.println("[ManifestApplier] Khong the xoa manifest " + file + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Xoá toàn bộ manifest đã lưu của một project.
+     */
+    public void removeProjectArchive(String username, String projectUuid) {
+        Path root = archiveRoot();
+        if (root == null || username == null || projectUuid == null) {
+            return;
+        }
+        Path projectDir = root.resolve(segment(username)).resolve(segment(projectUuid));
+        if (!Files.isDirectory(projectDir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(projectDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            System.err.println("[ManifestApplier] Khong the xoa thu muc manifest " + projectDir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tách manifest nhiều document thành các object; document rỗng bị bỏ qua.
+     *
+     * @param defaultNamespace Namespace gán cho object thuộc namespace nhưng không khai báo metadata.namespace
+     */
+    @SuppressWarnings("unchecked")
+    static List<ManifestObject> parse(String manifest, String defaultNamespace) {
+        if (manifest == null || manifest.isBlank()) {
+            throw new IllegalArgumentException("Manifest trống");
+        }
+        List<ManifestObject> objects = new ArrayList<>();
+        for (Object document : new Yaml().loadAll(manifest)) {
+            if (document == null) {
+                continue;
+            }
+            if (!(document instanceof Map)) {
+                throw new IllegalArgumentException("Document trong manifest không phải object Kubernetes");
+            }
+            Map<String, Object> body = new LinkedHashMap<>((Map<String, Object>) document);
+            String apiVersion = stringValue(body.get("apiVersion"));
+            String kind = stringValue(body.get("kind"));
+            Map<String, Object> metadata = body.get("metadata") instanceof Map
+                    ? new LinkedHashMap<>((Map<String, Object>) body.get("metadata"))
+                    : new LinkedHashMap<>();
+            String name = stringValue(metadata.get("name"));
+            if (apiVersion == null || kind == null || name == null) {
+                throw new IllegalArgumentException("Object trong manifest thiếu apiVersion/kind/metadata.name");
+            }
+
+            String namespace = null;
+            if (!CLUSTER_SCOPED_KINDS.contains(kind)) {
+                namespace = stringValue(metadata.get("namespace"));
+                if (namespace == null) {
+                    if (defaultNamespace == null || defaultNamespace.isBlank()) {
+                        throw new IllegalArgumentException("Object " + kind + "/" + name + " thiếu namespace");
+                    }
+                    namespace = defaultNamespace.trim();
+                    metadata.put("namespace", namespace);
+                }
+            }
+            body.put("metadata", metadata);
+
+            int slash = apiVersion.indexOf('/');
+            String group = slash < 0 ? "" : apiVersion.substring(0, slash);
+            String version = slash < 0 ? apiVersion : apiVersion.substring(slash + 1);
+            objects.add(new ManifestObject(group, version, plural(kind), kind, namespace, name, GSON.toJson(body)));
+        }
+        if (objects.isEmpty()) {
+            throw new IllegalArgumentException("Manifest không có object nào");
+        }
+        return objects;
+    }
+
+    static String plural(String kind) {
+        String known = PLURALS.get(kind);
+        if (known != null) {
+            return known;
+        }
+        String lower = kind.toLowerCase(Locale.ROOT);
+        if (lower.endsWith("s")) {
+            return lower + "es";
+        }
+        if (lower.endsWith("y")) {
+            return lower.substring(0, lower.length() - 1) + "ies";
+        }
+        return lower + "s";
+    }
+
+    private static ManifestObject namespaceObject(String namespace) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("apiVersion", "v1");
+        body.put("kind", "Namespace");
+        body.put("metadata", Map.of("name", namespace));
+        return new ManifestObject("", "v1", "namespaces", "Namespace", null, namespace, GSON.toJson(body));
+    }
+
+    private Path archiveRoot() {
+        if (archiveDir == null || archiveDir.isBlank()) {
+            return null;
+        }
+        return Paths.get(archiveDir.trim()).toAbsolutePath().normalize();
+    }
+
+    private static boolean isEmptyDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return false;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            return !entries.iterator().hasNext();
+        }
+    }
+
+    /**
+     * Một cấp thư mục an toàn: chỉ giữ chữ, số, '.', '_', '-' và không cho phép "." hoặc "..".
+     */
+    private static String segment(String value) {
+        String cleaned = value == null ? "" : value.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+        if (cleaned.isEmpty() || cleaned.chars().allMatch(c -> c == '.')) {
+            return "_" + cleaned;
+        }
+        return cleaned;
+    }
+
+    private static String stringValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+}
@@ -0,0 +1,93 @@
+package my_spring_app.my_spring_app.k8s;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bộ label sở hữu được gắn vào mọi object Kubernetes do hệ thống sinh ra (Deployment/StatefulSet,
+ * pod template, Service, Ingress, Secret, PVC template).
+ *
+ * Nhờ đó màn hình chi tiết lấy được toàn bộ resource của một component/project bằng một label selector
+ * cho mỗi loại resource, thay vì đoán tên (db-{uuid}, db-{uuid}-0, -svc...) rồi truy vấn từng object.
+ *
+ * Lưu ý: selector của Deployment/StatefulSet/Service vẫn chỉ dùng label "app" (selector không sửa được
+ * sau khi tạo), các label dưới đây chỉ dùng để tra cứu.
+ */
+public final class OwnershipLabels {
+
+    public static final String MANAGED_BY = "app.kubernetes.io/managed-by";
+    public static final String MANAGED_BY_VALUE = "my-spring-app";
+    public static final String PROJECT = "my-spring-app/project";
+    public static final String COMPONENT_ID = "my-spring-app/component-id";
+    public static final String COMPONENT_TYPE = "my-spring-app/component-type";
+    public static final String OWNER = "my-spring-app/owner";
+
+    public static final String TYPE_DATABASE = "database";
+    public static final String TYPE_BACKEND = "backend";
+    public static final String TYPE_FRONTEND = "frontend";
+
+    // Giá trị label: tối đa 63 ký tự, chỉ gồm [A-Za-z0-9._-], bắt đầu và kết thúc bằng chữ/số
+    private static final int MAX_VALUE_LENGTH = 63;
+
+    private OwnershipLabels() {
+    }
+
+    /**
+     * @param projectUuid uuid_k8s của project
+     * @param componentUuid uuid_k8s của component (database/backend/frontend)
+     * @param componentType TYPE_DATABASE, TYPE_BACKEND hoặc TYPE_FRONTEND
+     * @param owner Username của chủ project
+     * @return Map label theo thứ tự cố định (để YAML sinh ra ổn định)
+     */
+    public static Map<String, String> of(String projectUuid, String componentUuid, String componentType, String owner) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        labels.put(MANAGED_BY, MANAGED_BY_VALUE);
+        labels.put(PROJECT, sanitize(projectUuid));
+        labels.put(COMPONENT_ID, sanitize(componentUuid));
+        labels.put(COMPONENT_TYPE, componentType);
+        labels.put(OWNER, sanitize(owner));
+        return labels;
+    }
+
+    /**
+     * Render các label thành dòng YAML "key: value" với số khoảng trắng thụt đầu dòng cho trước.
+     * Giá trị được đặt trong nháy kép để chuỗi toàn số (uuid) không bị hiểu thành số.
+     */
+    public static String yaml(Map<String, String> labels, int indent) {
+        String prefix = " ".repeat(indent);
+        StringBuilder yaml = new StringBuilder();
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            yaml.append(prefix).append(label.getKey()).append(": \"").append(label.getValue()).append("\"\n");
+        }
+        return yaml.toString();
+    }
+
+    /**
+     * Selector lấy mọi resource của một component.
+     */
+    public static String componentSelector(String componentUuid) {
+        return COMPONENT_ID + "=" + sanitize(componentUuid);
+    }
+
+    /**
+     * Selector lấy mọi resource của một project.
+     */
+    public static String projectSelector(String projectUuid) {
+        return PROJECT + "=" + sanitize(projectUuid);
+    }
+
+    /**
+     * Chuẩn hoá chuỗi thành giá trị label hợp lệ (ký tự không hợp lệ thành "-", cắt 63 ký tự,
+     * bỏ ký tự không phải chữ/số ở hai đầu).
+     */
+    public static String sanitize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String sanitized = value.replaceAll("[^A-Za-z0-9._-]", "-");
+        if (sanitized.length() > MAX_VALUE_LENGTH) {
+            sanitized = sanitized.substring(0, MAX_VALUE_LENGTH);
+        }
+        return sanitized.replaceAll("^[^A-Za-z0-9]+", "").replaceAll("[^A-Za-z0-9]+$", "");
+    }
+}
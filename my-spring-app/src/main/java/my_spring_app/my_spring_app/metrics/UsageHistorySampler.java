@@ -0,0 +1,134 @@
+package my_spring_app.my_spring_app.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import my_spring_app.my_spring_app.k8s.ClusterMetricsGateway;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lấy mẫu CPU/Memory định kỳ của pod, namespace, node và toàn cluster vào UsageHistoryStore.
+ *
+ * Mỗi lượt gồm đúng hai lời gọi metrics.k8s.io (pods mọi namespace, nodes) qua ClusterMetricsGateway;
+ * namespace và cluster được cộng dồn từ usage của pod nên không cần gọi thêm. Chạy trên một thread
+ * daemon riêng với fixed delay: lượt chậm không làm các lượt sau dồn lại.
+ */
+@Component
+public class UsageHistorySampler {
+
+    // Bật/tắt lấy mẫu nền (tắt thì các màn hình tổng quan gọi metrics-server trực tiếp như trước)
+    @Value("${app.metrics.history.enabled:true}")
+    private boolean enabled = true;
+
+    // Chu kỳ lấy mẫu
+    @Value("${app.metrics.history.sample-interval-ms:15000}")
+    private long sampleIntervalMs = 15000;
+
+    // Có ghi chuỗi cho từng pod không (namespace/node/cluster luôn được ghi)
+    @Value("${app.metrics.history.pod-series:true}")
+    private boolean podSeries = true;
+
+    // Cổng metrics.k8s.io dùng chung
+    @Autowired
+    private ClusterMetricsGateway clusterMetricsGateway;
+
+    // Kho chuỗi thời gian
+    @Autowired
+    private UsageHistoryStore usageHistoryStore;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "usage-history-sampler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Lượt trước có lỗi không (chỉ log khi trạng thái thay đổi để không lặp log mỗi chu kỳ)
+    private volatile boolean failing;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            System.out.println("[UsageHistorySampler] Da tat lay mau lich su usage");
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::sampleSafely, sampleIntervalMs, sampleIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Một lượt lấy mẫu.
+     *
+     * Quy trình xử lý:
+     * 1. Lấy usage của mọi pod (một lời gọi), cộng dồn theo namespace và toàn cluster
+     * 2. Lấy usage của mọi node (một lời gọi)
+     * 3. Ghi cluster, node, namespace trước rồi mới tới pod (khi hết ngân sách bộ nhớ thì pod bị bỏ trước)
+     * 4. Đánh dấu lượt đã hoàn tất và dọn các chuỗi đã hết dữ liệu
+     */
+    void sample() {
+        long now = System.currentTimeMillis();
+
+        // Bước 1: Pods -> namespace -> cluster
+        List<ClusterMetricsGateway.PodUsage> pods = clusterMetricsGateway.podUsages();
+        Map<String, ClusterMetricsGateway.Usage> byNamespace = new HashMap<>();
+        ClusterMetricsGateway.Usage cluster = ClusterMetricsGateway.Usage.ZERO;
+        for (ClusterMetricsGateway.PodUsage pod : pods) {
+            byNamespace.merge(pod.namespace(), pod.usage(), ClusterMetricsGateway.Usage::plus);
+            cluster = cluster.plus(pod.usage());
+        }
+
+        // Bước 2: Nodes
+        Map<String, ClusterMetricsGateway.Usage> byNode = clusterMetricsGateway.nodeUsage();
+
+        // Bước 3: Ghi theo thứ tự ưu tiên
+        usageHistoryStore.record(UsageHistoryStore.clusterKey(), now, cluster.cpuCores(), cluster.memoryBytes());
+        byNode.forEach((node, usage) ->
+                usageHistoryStore.record(UsageHistoryStore.nodeKey(node), now, usage.cpuCores(), usage.memoryBytes()));
+        byNamespace.forEach((namespace, usage) ->
+                usageHistoryStore.record(UsageHistoryStore.namespaceKey(namespace), now, usage.cpuCores(), usage.memoryBytes()));
+        int dropped = 0;
+        if (podSeries) {
+            for (ClusterMetricsGateway.PodUsage pod : pods) {
+                if (!usageHistoryStore.record(UsageHistoryStore.podKey(pod.namespace(), pod.name()), now,
+                        pod.usage().cpuCores(), pod.usage().memoryBytes())) {
+                    dropped++;
+                }
+            }
+        }
+        if (dropped > 0) {
+            System.err.println("[UsageHistorySampler] Het ngan sach bo nho, bo qua " + dropped + " chuoi pod");
+        }
+
+        // Bước 4: Hoàn tất lượt
+        usageHistoryStore.markSampled(now);
+        usageHistoryStore.expire(now);
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+            if (failing) {
+                failing = false;
+                System.out.println("[UsageHistorySampler] Lay mau usage hoat dong tro lai ("
+                        + usageHistoryStore.seriesCount() + " chuoi)");
+            }
+        } catch (Exception e) {
+            // API server/metrics-server chưa sẵn sàng hoặc MASTER bị circuit breaker chặn: thử lại ở chu kỳ sau
+            if (!failing) {
+                failing = true;
+                System.err.println("[UsageHistorySampler] Khong lay duoc metrics: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package my_spring_app.my_spring_app.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kho chuỗi thời gian CPU/Memory trong bộ nhớ cho cluster, namespace, node và pod.
+ *
+ * - UsageHistorySampler ghi mẫu định kỳ; các màn hình tổng quan đọc mẫu mới nhất thay vì gọi metrics-server
+ *   trong lúc xử lý request
+ * - Mỗi chuỗi có ba tầng rollup 1 phút / 5 phút / 1 giờ (ring buffer mảng nguyên thuỷ, xem UsageSeries)
+ * - Ngân sách bộ nhớ (app.metrics.history.max-memory-mb) quy ra số chuỗi tối đa; khi đầy, chuỗi lâu không
+ *   được cập nhật nhất (thường là pod đã bị xoá) bị loại để nhường chỗ, nếu không có thì chuỗi mới bị bỏ qua
+ */
+@Component
+public class UsageHistoryStore {
+
+    public static final long MINUTE_MS = 60_000L;
+    public static final long FIVE_MINUTES_MS = 5 * MINUTE_MS;
+    public static final long HOUR_MS = 60 * MINUTE_MS;
+
+    private static final long[] RESOLUTIONS_MS = {MINUTE_MS, FIVE_MINUTES_MS, HOUR_MS};
+
+    // Số điểm mặc định của một truy vấn range khi không truyền step
+    private static final int DEFAULT_POINTS = 300;
+
+    // Số ô của tầng 1 phút (360 = 6 giờ)
+    @Value("${app.metrics.history.slots-1m:360}")
+    private int slots1m = 360;
+
+    // Số ô của tầng 5 phút (576 = 2 ngày)
+    @Value("${app.metrics.history.slots-5m:576}")
+    private int slots5m = 576;
+
+    // Số ô của tầng 1 giờ (720 = 30 ngày)
+    @Value("${app.metrics.history.slots-1h:720}")
+    private int slots1h = 720;
+
+    // Ngân sách bộ nhớ cho toàn bộ chuỗi
+    @Value("${app.metrics.history.max-memory-mb:64}")
+    private long maxMemoryMb = 64;
+
+    // Số điểm tối đa của một truy vấn range
+    @Value("${app.metrics.history.max-points:2000}")
+    private int maxPoints = 2000;
+
+    // Mẫu mới nhất cũ hơn ngưỡng này thì coi như kho không còn dùng được (sampler dừng/lỗi)
+    @Value("${app.metrics.history.max-staleness-ms:45000}")
+    private long maxStalenessMs = 45000;
+
+    private final Map<String, UsageSeries> series = new ConcurrentHashMap<>();
+
+    // Thời điểm của lượt lấy mẫu hoàn tất gần nhất (-1 = chưa có)
+    private final AtomicLong lastSampleAtMs = new AtomicLong(-1);
+
+    // Số chuỗi mới bị bỏ qua vì hết ngân sách bộ nhớ
+    private final AtomicLong droppedSeries = new AtomicLong();
+
+    public static String clusterKey() {
+        return "cluster";
+    }
+
+    public static String namespaceKey(String namespace) {
+        return "ns:" + namespace;
+    }
+
+    public static String nodeKey(String node) {
+        return "node:" + node;
+    }
+
+    public static String podKey(String namespace, String pod) {
+        return "pod:" + namespace + "/" + pod;
+    }
+
+    /**
+     * Ghi một mẫu vào chuỗi (tạo chuỗi nếu chưa có và còn ngân sách).
+     *
+     * @return false nếu chuỗi mới bị bỏ qua vì hết ngân sách bộ nhớ
+     */
+    public boolean record(String key, long timestampMs, double cpuCores, long memoryBytes) {
+        UsageSeries target = series.get(key);
+        if (target == null) {
+            target = createSeries(key, timestampMs);
+            if (target == null) {
+                droppedSeries.incrementAndGet();
+                return false;
+            }
+        }
+        target.record(timestampMs, cpuCores, memoryBytes);
+        return true;
+    }
+
+    /**
+     * Đánh dấu một lượt lấy mẫu đã ghi xong (mọi chuỗi có mặt trong lượt này có mẫu tại timestampMs).
+     */
+    public void markSampled(long timestampMs) {
+        lastSampleAtMs.accumulateAndGet(timestampMs, Math::max);
+    }
+
+    /**
+     * Thời điểm lượt lấy mẫu gần nhất nếu còn mới (trong max-staleness-ms), ngược lại -1.
+     */
+    public long freshSampleAt() {
+        long sampledAt = lastSampleAtMs.get();
+        return sampledAt >= 0 && System.currentTimeMillis() - sampledAt <= maxStalenessMs ? sampledAt : -1;
+    }
+
+    /**
+     * Mẫu của chuỗi trong lượt lấy mẫu sampledAtMs; null nếu chuỗi không có mặt trong lượt đó
+     * (ví dụ namespace không còn pod nào).
+     */
+    public UsagePoint sampleAt(String key, long sampledAtMs) {
+        UsageSeries target = series.get(key);
+        UsagePoint latest = target != null ? target.latest() : null;
+        return latest != null && latest.timestampMs() == sampledAtMs ? latest : null;
+    }
+
+    /**
+     * Chuỗi điểm trung bình theo cửa sổ step của một chuỗi.
+     *
+     * @throws IllegalArgumentException nếu khoảng thời gian không hợp lệ hoặc quá nhiều điểm
+     */
+    public List<UsagePoint> range(String key, long fromMs, long toMs, long stepMs) {
+        return rangeSum(List.of(key), fromMs, toMs, stepMs);
+    }
+
+    /**
+     * Tổng theo từng cửa sổ của nhiều chuỗi (ví dụ các namespace của một user).
+     * Các chuỗi dùng chung cách căn cửa sổ theo bội số của step nên cộng trực tiếp theo timestamp.
+     *
+     * @throws IllegalArgumentException nếu khoảng thời gian không hợp lệ hoặc quá nhiều điểm
+     */
+    public List<UsagePoint> rangeSum(Collection<String> keys, long fromMs, long toMs, long stepMs) {
+        int windows = windows(fromMs, toMs, stepMs);
+        long nowMs = System.currentTimeMillis();
+        TreeMap<Long, double[]> sums = new TreeMap<>();
+        for (String key : keys) {
+            UsageSeries target = series.get(key);
+            if (target == null) {
+                continue;
+            }
+            for (UsagePoint point : target.range(fromMs, toMs, stepMs, nowMs, windows)) {
+                double[] sum = sums.computeIfAbsent(point.timestampMs(), t -> new double[2]);
+                sum[0] += point.cpuCores();
+                sum[1] += point.memoryBytes();
+            }
+        }
+        List<UsagePoint> points = new ArrayList<>(sums.size());
+        sums.forEach((timestamp, sum) -> points.add(new UsagePoint(timestamp, sum[0], Math.round(sum[1]))));
+        return points;
+    }
+
+    /**
+     * Step mặc định cho khoảng [fromMs, toMs]: khoảng DEFAULT_POINTS điểm, làm tròn lên theo phút.
+     */
+    public long defaultStepMs(long fromMs, long toMs) {
+        long raw = Math.max(1, (toMs - fromMs) / DEFAULT_POINTS);
+        return Math.max(MINUTE_MS, (raw + MINUTE_MS - 1) / MINUTE_MS * MINUTE_MS);
+    }
+
+    /**
+     * Bỏ các chuỗi không còn dữ liệu trong tầng dài nhất (pod/namespace/node đã biến mất từ lâu).
+     */
+    public void expire(long nowMs) {
+        long horizon = nowMs - RESOLUTIONS_MS[RESOLUTIONS_MS.length - 1] * slots1h;
+        series.entrySet().removeIf(entry -> entry.getValue().lastTimestampMs() < horizon);
+    }
+
+    public int seriesCount() {
+        return series.size();
+    }
+
+    public long droppedSeries() {
+        return droppedSeries.get();
+    }
+
+    private int maxSeries() {
+        long perSeries = UsageSeries.estimateBytes(slots());
+        return (int) Math.max(1, maxMemoryMb * 1024 * 1024 / perSeries);
+    }
+
+    private int[] slots() {
+        return new int[]{slots1m, slots5m, slots1h};
+    }
+
+    private synchronized UsageSeries createSeries(String key, long timestampMs) {
+        UsageSeries existing = series.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (series.size() >= maxSeries()) {
+            // Nhường chỗ bằng chuỗi lâu không được cập nhật nhất, nhưng không loại chuỗi đã có mẫu ở lượt hiện tại
+            String stalestKey = null;
+            long stalest = Long.MAX_VALUE;
+            for (Map.Entry<String, UsageSeries> entry : series.entrySet()) {
+                long last = entry.getValue().lastTimestampMs();
+                if (last < stalest) {
+                    stalest = last;
+                    stalestKey = entry.getKey();
+                }
+            }
+            if (stalestKey == null || stalest >= timestampMs) {
+                return null;
+            }
+            series.remove(stalestKey);
+        }
+        UsageSeries created = new UsageSeries(RESOLUTIONS_MS, slots());
+        series.put(key, created);
+        return created;
+    }
+
+    private int windows(long fromMs, long toMs, long stepMs) {
+        if (stepMs < MINUTE_MS) {
+            throw new IllegalArgumentException("step phải từ 1 phút trở lên (độ phân giải nhỏ nhất của lịch sử)");
+        }
+        if (fromMs > toMs) {
+            throw new IllegalArgumentException("from phải nhỏ hơn hoặc bằng to");
+        }
+        long start = Math.floorDiv(fromMs, stepMs) * stepMs;
+        long windows = (toMs - start) / stepMs + 1;
+        if (windows > maxPoints) {
+            throw new IllegalArgumentException("Khoảng thời gian quá lớn so với step (tối đa " + maxPoints + " điểm)");
+        }
+        return (int) windows;
+    }
+}
@@ -0,0 +1,11 @@
+package my_spring_app.my_spring_app.metrics;
+
+/**
+ * Một điểm CPU/Memory của chuỗi thời gian.
+ *
+ * @param timestampMs Thời điểm bắt đầu cửa sổ (epoch ms); với mẫu mới nhất là thời điểm lấy mẫu
+ * @param cpuCores CPU trung bình trong cửa sổ (cores)
+ * @param memoryBytes Memory trung bình trong cửa sổ (bytes)
+ */
+public record UsagePoint(long timestampMs, double cpuCores, long memoryBytes) {
+}
@@ -0,0 +1,159 @@
+package my_spring_app.my_spring_app.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chuỗi thời gian CPU/Memory của một đối tượng (cluster, namespace, node hoặc pod).
+ *
+ * Mỗi mẫu được cộng vào các tầng rollup (1 phút, 5 phút, 1 giờ). Mỗi tầng là một ring buffer
+ * gồm các mảng nguyên thuỷ (long[]/double[]/int[]) cấp phát một lần, nên bộ nhớ của chuỗi cố định
+ * và không sinh object khi ghi. Ô của bucket b nằm ở vị trí b % slots; bucket cũ bị ghi đè khi vòng lại.
+ */
+final class UsageSeries {
+
+    private final Tier[] tiers;
+
+    // Mẫu gần nhất (trả lời ngay cho các màn hình tổng quan)
+    private long lastTimestampMs = -1;
+    private double lastCpuCores;
+    private long lastMemoryBytes;
+
+    /**
+     * @param resolutionsMs Độ phân giải từng tầng, tăng dần
+     * @param slots Số ô của từng tầng (retention = resolution * slots)
+     */
+    UsageSeries(long[] resolutionsMs, int[] slots) {
+        tiers = new Tier[resolutionsMs.length];
+        for (int i = 0; i < resolutionsMs.length; i++) {
+            tiers[i] = new Tier(resolutionsMs[i], slots[i]);
+        }
+    }
+
+    /**
+     * Số byte của phần dữ liệu (các mảng) của một chuỗi, dùng để quy đổi ngân sách bộ nhớ ra số chuỗi.
+     */
+    static long estimateBytes(int[] slots) {
+        long bytes = 64;
+        for (int slot : slots) {
+            bytes += (long) slot * (Long.BYTES + Double.BYTES + Long.BYTES + Integer.BYTES) + 4 * 16;
+        }
+        return bytes;
+    }
+
+    synchronized void record(long timestampMs, double cpuCores, long memoryBytes) {
+        for (Tier tier : tiers) {
+            tier.add(timestampMs, cpuCores, memoryBytes);
+        }
+        if (timestampMs >= lastTimestampMs) {
+            lastTimestampMs = timestampMs;
+            lastCpuCores = cpuCores;
+            lastMemoryBytes = memoryBytes;
+        }
+    }
+
+    synchronized long lastTimestampMs() {
+        return lastTimestampMs;
+    }
+
+    synchronized UsagePoint latest() {
+        return lastTimestampMs < 0 ? null : new UsagePoint(lastTimestampMs, lastCpuCores, lastMemoryBytes);
+    }
+
+    /**
+     * Gom dữ liệu trong [fromMs, toMs] theo cửa sổ stepMs (căn theo bội số của stepMs).
+     *
+     * Quy trình xử lý:
+     * 1. Chọn tầng mịn nhất có độ phân giải <= step và còn giữ dữ liệu từ fromMs;
+     *    nếu không tầng nào giữ đủ xa thì dùng tầng thô nhất có độ phân giải <= step
+     * 2. Cộng tổng/số mẫu của các bucket vào cửa sổ chứa chúng
+     * 3. Mỗi cửa sổ có dữ liệu cho ra một điểm trung bình (cửa sổ trống bị bỏ qua)
+     *
+     * @param nowMs Thời điểm hiện tại (để biết tầng nào còn giữ dữ liệu từ fromMs)
+     * @param windows Số cửa sổ (đã được kiểm tra giới hạn bởi người gọi)
+     */
+    synchronized List<UsagePoint> range(long fromMs, long toMs, long stepMs, long nowMs, int windows) {
+        Tier tier = tiers[0];
+        for (Tier candidate : tiers) {
+            if (candidate.resolutionMs > stepMs) {
+                break;
+            }
+            tier = candidate;
+            if (candidate.oldestRetainedMs(nowMs) <= fromMs) {
+                break;
+            }
+        }
+        long start = Math.floorDiv(fromMs, stepMs) * stepMs;
+        double[] cpuSum = new double[windows];
+        double[] memorySum = new double[windows];
+        int[] count = new int[windows];
+        for (int slot = 0; slot < tier.bucket.length; slot++) {
+            long bucket = tier.bucket[slot];
+            if (bucket < 0 || tier.count[slot] == 0) {
+                continue;
+            }
+            long bucketStart = bucket * tier.resolutionMs;
+            if (bucketStart < start || bucketStart > toMs) {
+                continue;
+            }
+            int window = (int) ((bucketStart - start) / stepMs);
+            if (window >= windows) {
+                continue;
+            }
+            cpuSum[window] += tier.cpuSum[slot];
+            memorySum[window] += tier.memorySum[slot];
+            count[window] += tier.count[slot];
+        }
+        List<UsagePoint> points = new ArrayList<>();
+        for (int window = 0; window < windows; window++) {
+            if (count[window] > 0) {
+                points.add(new UsagePoint(start + window * stepMs,
+                        cpuSum[window] / count[window],
+                        Math.round(memorySum[window] / count[window])));
+            }
+        }
+        return points;
+    }
+
+    private static final class Tier {
+
+        final long resolutionMs;
+        // Chỉ số bucket (timestamp / resolution) đang nằm trong ô, -1 = trống
+        final long[] bucket;
+        final double[] cpuSum;
+        final long[] memorySum;
+        final int[] count;
+
+        Tier(long resolutionMs, int slots) {
+            this.resolutionMs = resolutionMs;
+            this.bucket = new long[slots];
+            this.cpuSum = new double[slots];
+            this.memorySum = new long[slots];
+            this.count = new int[slots];
+            Arrays.fill(bucket, -1);
+        }
+
+        void add(long timestampMs, double cpuCores, long memoryBytes) {
+            long b = timestampMs / resolutionMs;
+            int slot = (int) (b % bucket.length);
+            if (bucket[slot] != b) {
+                if (bucket[slot] > b) {
+                    // Mẫu cũ hơn cả vòng buffer: bỏ qua
+                    return;
+                }
+                bucket[slot] = b;
+                cpuSum[slot] = 0;
+                memorySum[slot] = 0;
+                count[slot] = 0;
+            }
+            cpuSum[slot] += cpuCores;
+            memorySum[slot] += memoryBytes;
+            count[slot]++;
+        }
+
+        long oldestRetainedMs(long nowMs) {
+            return (nowMs / resolutionMs - bucket.length + 1) * resolutionMs;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package my_spring_app.my_spring_app.repository;
+
+import my_spring_app.my_spring_app.entity.ArtifactCacheEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArtifactCacheRepository extends JpaRepository<ArtifactCacheEntity, Long> {
+
+    Optional<ArtifactCacheEntity> findByContentHashAndComponentTypeAndFrameworkType(String contentHash, String componentType, String frameworkType);
+
+    // Ghi nhận một lần dùng lại (không load entity)
+    @Modifying
+    @Transactional
+    @Query("UPDATE ArtifactCacheEntity e SET e.hitCount = e.hitCount + 1, e.lastUsedAt = :now WHERE e.id = :id")
+    int touch(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Bỏ các entry lâu không dùng
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArtifactCacheEntity e WHERE e.lastUsedAt < :cutoff")
+    int deleteUnusedSince(@Param("cutoff") LocalDateTime cutoff);
+
+    // Entry dùng lâu nhất trước (LRU)
+    @Query("SELECT e.id FROM ArtifactCacheEntity e ORDER BY e.lastUsedAt ASC")
+    List<Long> findIdsByLeastRecentlyUsed(Pageable pageable);
+}
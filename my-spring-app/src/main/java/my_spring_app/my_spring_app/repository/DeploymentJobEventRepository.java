@@ -0,0 +1,13 @@
+package my_spring_app.my_spring_app.repository;
+
+import my_spring_app.my_spring_app.entity.DeploymentJobEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeploymentJobEventRepository extends JpaRepository<DeploymentJobEventEntity, Long> {
+
+    List<DeploymentJobEventEntity> findByJobIdOrderByIdAsc(Long jobId);
+}
@@ -0,0 +1,19 @@
+package my_spring_app.my_spring_app.repository;
+
+import my_spring_app.my_spring_app.entity.DeploymentJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeploymentJobRepository extends JpaRepository<DeploymentJobEntity, Long> {
+
+    // Job chưa kết thúc khi app khởi động lại (QUEUED, RUNNING)
+    List<DeploymentJobEntity> findByStatusInOrderByIdAsc(Collection<String> statuses);
+
+    List<DeploymentJobEntity> findByUsernameOrderByIdDesc(String username);
+
+    List<DeploymentJobEntity> findByProjectIdOrderByIdDesc(Long projectId);
+}
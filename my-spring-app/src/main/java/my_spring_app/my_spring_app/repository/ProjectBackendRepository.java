@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ProjectBackendRepository extends JpaRepository<ProjectBackendEntity, Long> {
 
@@ -16,5 +18,16 @@ public interface ProjectBackendRepository extends JpaRepository<ProjectBackendEn
     boolean existsByUuid_k8s(@Param("uuid_k8s") String uuid_k8s);
     
     long countByProject_User(UserEntity user);
+
+    // Cặp [id, project id] của mọi bản ghi (nạp TenancyIndex, không load entity)
+    @Query("SELECT e.id, e.project.id FROM ProjectBackendEntity e")
+    List<Object[]> findAllIdAndProjectId();
+
+    // Component kèm project (JOIN FETCH) cho thao tác hàng loạt
+    @Query("SELECT e FROM ProjectBackendEntity e JOIN FETCH e.project p WHERE p.id = :projectId")
+    List<ProjectBackendEntity> findByProjectIdWithProject(@Param("projectId") Long projectId);
+
+    @Query("SELECT e FROM ProjectBackendEntity e JOIN FETCH e.project p WHERE p.user = :user")
+    List<ProjectBackendEntity> findByUserWithProject(@Param("user") UserEntity user);
 }
 
@@ -7,11 +7,24 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ProjectDatabaseRepository extends JpaRepository<ProjectDatabaseEntity, Long> {
     @Query("SELECT COUNT(e) > 0 FROM ProjectDatabaseEntity e WHERE e.uuid_k8s = :uuid_k8s")
     boolean existsByUuid_k8s(@Param("uuid_k8s") String uuid_k8s);
     
     long countByProject_User(UserEntity user);
+
+    // Cặp [id, project id] của mọi bản ghi (nạp TenancyIndex, không load entity)
+    @Query("SELECT e.id, e.project.id FROM ProjectDatabaseEntity e")
+    List<Object[]> findAllIdAndProjectId();
+
+    // Component kèm project (JOIN FETCH) cho thao tác hàng loạt
+    @Query("SELECT e FROM ProjectDatabaseEntity e JOIN FETCH e.project p WHERE p.id = :projectId")
+    List<ProjectDatabaseEntity> findByProjectIdWithProject(@Param("projectId") Long projectId);
+
+    @Query("SELECT e FROM ProjectDatabaseEntity e JOIN FETCH e.project p WHERE p.user = :user")
+    List<ProjectDatabaseEntity> findByUserWithProject(@Param("user") UserEntity user);
 }
 
@@ -22,5 +22,16 @@ public interface ProjectFrontendRepository extends JpaRepository<ProjectFrontend
     boolean existsByUuid_k8s(@Param("uuid_k8s") String uuid_k8s);
     
     long countByProject_User(UserEntity user);
+
+    // Cặp [id, project id] của mọi bản ghi (nạp TenancyIndex, không load entity)
+    @Query("SELECT e.id, e.project.id FROM ProjectFrontendEntity e")
+    List<Object[]> findAllIdAndProjectId();
+
+    // Component kèm project (JOIN FETCH) cho thao tác hàng loạt
+    @Query("SELECT e FROM ProjectFrontendEntity e JOIN FETCH e.project p WHERE p.id = :projectId")
+    List<ProjectFrontendEntity> findByProjectIdWithProject(@Param("projectId") Long projectId);
+
+    @Query("SELECT e FROM ProjectFrontendEntity e JOIN FETCH e.project p WHERE p.user = :user")
+    List<ProjectFrontendEntity> findByUserWithProject(@Param("user") UserEntity user);
 }
 
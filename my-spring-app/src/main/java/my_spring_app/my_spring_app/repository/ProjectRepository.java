@@ -39,6 +39,10 @@ public interface ProjectRepository extends JpaRepository<ProjectEntity, Long> {
     @Query("SELECT DISTINCT p FROM ProjectEntity p LEFT JOIN FETCH p.backends WHERE p.id = :id")
     Optional<ProjectEntity> findByIdWithBackends(@Param("id") Long id);
     
+    // Cột [id, projectName, namespace, user id] của mọi project (nạp TenancyIndex, không load entity)
+    @Query("SELECT p.id, p.projectName, p.namespace, p.user.id FROM ProjectEntity p")
+    List<Object[]> findAllTenancyRows();
+    
     // Query để fetch project by ID với frontends
     @Query("SELECT DISTINCT p FROM ProjectEntity p LEFT JOIN FETCH p.frontends WHERE p.id = :id")
     Optional<ProjectEntity> findByIdWithFrontends(@Param("id") Long id);
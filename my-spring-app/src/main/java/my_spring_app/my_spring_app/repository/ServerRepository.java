@@ -3,8 +3,10 @@ package my_spring_app.my_spring_app.repository;
 import my_spring_app.my_spring_app.entity.ServerEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +15,9 @@ public interface ServerRepository extends JpaRepository<ServerEntity, Long> {
 
     Optional<ServerEntity> findByRole(String role);
 
+    // Các server theo role và trạng thái (pool builder: mọi server DOCKER đang ONLINE)
+    List<ServerEntity> findAllByRoleInAndStatus(Collection<String> roles, ServerEntity.ServerStatus status);
+
     // Kiểm tra server đã tồn tại với cùng ip, port, username
     boolean existsByIpAndPortAndUsername(String ip, Integer port, String username);
 
@@ -22,6 +27,10 @@ public interface ServerRepository extends JpaRepository<ServerEntity, Long> {
     // Eager load SSH keys để tránh LazyInitializationException
     @Query("SELECT s FROM ServerEntity s LEFT JOIN FETCH s.sshKey")
     List<ServerEntity> findAllWithSshKeys();
+
+    // Eager load SSH key của một server (dùng cho ServerConnectionRegistry, không cần transaction)
+    @Query("SELECT s FROM ServerEntity s LEFT JOIN FETCH s.sshKey WHERE s.id = :id")
+    Optional<ServerEntity> findByIdWithSshKey(@Param("id") Long id);
 }
 
 
@@ -11,6 +11,8 @@ import my_spring_app.my_spring_app.dto.reponse.ClusterInfoResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminDatabaseDetailResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminBackendDetailResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminFrontendDetailResponse;
+import my_spring_app.my_spring_app.dto.reponse.BuildCacheStatsResponse;
+import my_spring_app.my_spring_app.dto.reponse.SshConnectionStatsResponse;
 import my_spring_app.my_spring_app.dto.reponse.DashboardMetricsResponse;
 import my_spring_app.my_spring_app.dto.reponse.NodeListResponse;
 import my_spring_app.my_spring_app.dto.reponse.NamespaceListResponse;
@@ -21,14 +23,16 @@ import my_spring_app.my_spring_app.dto.reponse.ServiceListResponse;
 import my_spring_app.my_spring_app.dto.reponse.IngressListResponse;
 import my_spring_app.my_spring_app.dto.reponse.PVCListResponse;
 import my_spring_app.my_spring_app.dto.reponse.PVListResponse;
+import my_spring_app.my_spring_app.dto.request.ResourceListRequest;
+import my_spring_app.my_spring_app.dto.request.UsageHistoryRequest;
 
 public interface AdminService {
 
-    AdminOverviewResponse getOverview();
+    AdminOverviewResponse getOverview(UsageHistoryRequest history);
 
-    AdminUserUsageResponse getUserResourceOverview();
+    AdminUserUsageResponse getUserResourceOverview(UsageHistoryRequest history);
 
-    AdminUserProjectSummaryResponse getUserProjectSummary(Long userId);
+    AdminUserProjectSummaryResponse getUserProjectSummary(Long userId, UsageHistoryRequest history);
 
     AdminUserProjectListResponse getUserProjectsDetail(Long userId);
 
@@ -46,23 +50,27 @@ public interface AdminService {
 
     AdminFrontendDetailResponse getFrontendDetail(Long frontendId);
 
-    DashboardMetricsResponse getDashboardMetrics();
+    DashboardMetricsResponse getDashboardMetrics(UsageHistoryRequest history);
 
-    NodeListResponse getNodes();
+    NodeListResponse getNodes(ResourceListRequest request);
 
-    NamespaceListResponse getNamespaces();
+    NamespaceListResponse getNamespaces(ResourceListRequest request);
 
-    DeploymentListResponse getDeployments();
+    DeploymentListResponse getDeployments(ResourceListRequest request);
 
-    PodListResponse getPods();
+    PodListResponse getPods(ResourceListRequest request);
 
-    StatefulsetListResponse getStatefulsets();
+    StatefulsetListResponse getStatefulsets(ResourceListRequest request);
 
-    ServiceListResponse getServices();
+    ServiceListResponse getServices(ResourceListRequest request);
 
-    IngressListResponse getIngress();
+    IngressListResponse getIngress(ResourceListRequest request);
 
-    PVCListResponse getPVCs();
+    PVCListResponse getPVCs(ResourceListRequest request);
 
-    PVListResponse getPVs();
-}
\ No newline at end of file
+    PVListResponse getPVs(ResourceListRequest request);
+
+    BuildCacheStatsResponse getBuildCacheStats();
+
+    SshConnectionStatsResponse getSshConnectionStats();
+}
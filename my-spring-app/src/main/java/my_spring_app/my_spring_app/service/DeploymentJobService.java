@@ -0,0 +1,12 @@
+package my_spring_app.my_spring_app.service;
+
+import my_spring_app.my_spring_app.dto.reponse.DeploymentJobResponse;
+
+import java.util.List;
+
+public interface DeploymentJobService {
+
+    DeploymentJobResponse getJob(Long jobId);
+
+    List<DeploymentJobResponse> listJobs(String username, Long projectId);
+}
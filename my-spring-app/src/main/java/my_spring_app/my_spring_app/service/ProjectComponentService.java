@@ -0,0 +1,11 @@
+package my_spring_app.my_spring_app.service;
+
+import my_spring_app.my_spring_app.dto.reponse.BulkComponentResponse;
+import my_spring_app.my_spring_app.dto.request.BulkComponentRequest;
+
+public interface ProjectComponentService {
+
+    BulkComponentResponse bulkProjectComponents(Long projectId, String action, BulkComponentRequest request);
+
+    BulkComponentResponse bulkUserComponents(String username, String action, BulkComponentRequest request);
+}
@@ -8,8 +8,11 @@ import my_spring_app.my_spring_app.dto.request.CreateServerRequest;
 import my_spring_app.my_spring_app.dto.request.UpdateServerRequest;
 import my_spring_app.my_spring_app.dto.request.TestSshRequest;
 import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandFuture;
 
 import java.util.List;
+import java.util.concurrent.Flow;
 import java.util.function.Consumer;
 
 public interface ServerService {
@@ -39,6 +42,12 @@ public interface ServerService {
 
     String execCommand(Long id, String command, int timeoutMs, Consumer<String> outputHandler);
 
+    CommandResult execCommandStreaming(Long id, String command, int timeoutMs, Consumer<String> outputHandler);
+
+    RemoteCommandFuture execCommandAsync(Long id, String command, int timeoutMs);
+
+    RemoteCommandFuture execCommandAsync(Long id, String command, int timeoutMs, Flow.Subscriber<? super String> outputSubscriber);
+
     String shutdownServer(Long id);
 
     String restartServer(Long id);
@@ -1,7 +1,5 @@
 package my_spring_app.my_spring_app.service.impl;
 
-import com.jcraft.jsch.ChannelExec;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.Session;
 import my_spring_app.my_spring_app.dto.reponse.AdminOverviewResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminProjectResourceDetailResponse;
@@ -14,6 +12,9 @@ import my_spring_app.my_spring_app.dto.reponse.ClusterInfoResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminDatabaseDetailResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminBackendDetailResponse;
 import my_spring_app.my_spring_app.dto.reponse.AdminFrontendDetailResponse;
+import my_spring_app.my_spring_app.deploy.BuildCacheManager;
+import my_spring_app.my_spring_app.dto.reponse.BuildCacheStatsResponse;
+import my_spring_app.my_spring_app.dto.reponse.SshConnectionStatsResponse;
 import my_spring_app.my_spring_app.dto.reponse.DashboardMetricsResponse;
 import my_spring_app.my_spring_app.dto.reponse.NodeListResponse;
 import my_spring_app.my_spring_app.dto.reponse.NodeResponse;
@@ -33,30 +34,40 @@ import my_spring_app.my_spring_app.dto.reponse.PVCListResponse;
 import my_spring_app.my_spring_app.dto.reponse.PVCResponse;
 import my_spring_app.my_spring_app.dto.reponse.PVListResponse;
 import my_spring_app.my_spring_app.dto.reponse.PVResponse;
+import my_spring_app.my_spring_app.dto.reponse.UsagePointResponse;
+import my_spring_app.my_spring_app.dto.request.ResourceListRequest;
+import my_spring_app.my_spring_app.dto.request.UsageHistoryRequest;
 import my_spring_app.my_spring_app.entity.ProjectEntity;
 import my_spring_app.my_spring_app.entity.ProjectBackendEntity;
 import my_spring_app.my_spring_app.entity.ProjectDatabaseEntity;
 import my_spring_app.my_spring_app.entity.ProjectFrontendEntity;
 import my_spring_app.my_spring_app.entity.ServerEntity;
-import my_spring_app.my_spring_app.entity.UserEntity;
+import my_spring_app.my_spring_app.exception.ServerUnavailableException;
+import my_spring_app.my_spring_app.k8s.ClusterMetricsGateway;
+import my_spring_app.my_spring_app.k8s.ClusterStateCache;
+import my_spring_app.my_spring_app.k8s.ListQuery;
+import my_spring_app.my_spring_app.k8s.OwnershipLabels;
+import my_spring_app.my_spring_app.metrics.UsageHistoryStore;
+import my_spring_app.my_spring_app.metrics.UsagePoint;
+import my_spring_app.my_spring_app.tenancy.TenancyIndex;
 import my_spring_app.my_spring_app.repository.ProjectRepository;
 import my_spring_app.my_spring_app.repository.ProjectDatabaseRepository;
 import my_spring_app.my_spring_app.repository.ProjectBackendRepository;
 import my_spring_app.my_spring_app.repository.ProjectFrontendRepository;
 import my_spring_app.my_spring_app.repository.ServerRepository;
-import my_spring_app.my_spring_app.repository.UserRepository;
 import my_spring_app.my_spring_app.service.AdminService;
 import my_spring_app.my_spring_app.service.ServerService;
+import my_spring_app.my_spring_app.ssh.ColumnTokenizer;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.ServerConnectionRegistry;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.ApiException;
-import io.kubernetes.client.openapi.Configuration;
-import io.kubernetes.client.openapi.apis.CoreV1Api;
-import io.kubernetes.client.openapi.apis.AppsV1Api;
-import io.kubernetes.client.openapi.apis.NetworkingV1Api;
+import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.openapi.models.V1ContainerStatus;
 import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1PodStatus;
@@ -71,6 +82,7 @@ import io.kubernetes.client.openapi.models.V1IngressSpec;
 import io.kubernetes.client.openapi.models.V1IngressRule;
 import io.kubernetes.client.openapi.models.V1IngressStatus;
 import io.kubernetes.client.openapi.models.V1IngressLoadBalancerIngress;
+import io.kubernetes.client.openapi.models.V1HTTPIngressPath;
 import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
 import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimSpec;
 import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimStatus;
@@ -86,11 +98,8 @@ import io.kubernetes.client.openapi.models.V1Deployment;
 import io.kubernetes.client.openapi.models.V1DeploymentStatus;
 import io.kubernetes.client.openapi.models.V1DeploymentCondition;
 import io.kubernetes.client.openapi.models.V1LabelSelector;
-import io.kubernetes.client.util.Config;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import io.kubernetes.client.openapi.models.V1Node;
+import io.kubernetes.client.openapi.models.V1NodeSelectorTerm;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
@@ -98,13 +107,16 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Dịch vụ phục vụ dashboard admin: thống kê tổng quan và usage của từng user.
@@ -116,7 +128,8 @@ import java.util.Set;
  * - Lấy thông tin cluster capacity và allocatable
  * - Lấy chi tiết thông tin Kubernetes cho Database/Backend/Frontend
  * 
- * Tất cả các thao tác với Kubernetes được thực hiện qua SSH đến server MASTER.
+ * Danh sách resource, nodes và metrics đọc qua Kubernetes API (ClusterStateCache, ClusterMetricsGateway);
+ * các thao tác còn lại với Kubernetes được thực hiện qua SSH đến server MASTER.
  */
 @Service
 @Transactional
@@ -134,9 +147,41 @@ public class AdminServiceImpl implements AdminService {
      */
     private static final double BYTES_PER_GB = 1024d * 1024 * 1024;
 
-    // Repository thao tác bảng user
+    // Pool SSH session dùng chung (giữ kết nối ấm tới MASTER/WORKER)
     @Autowired
-    private UserRepository userRepository;
+    private SshSessionPool sshSessionPool;
+
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Cache trạng thái cluster (informer list + watch) cho các danh sách resource
+    @Autowired
+    private ClusterStateCache clusterStateCache;
+
+    // Node/pod/deployment có kiểu và usage từ metrics.k8s.io (thay cho kubectl get/top qua SSH)
+    @Autowired
+    private ClusterMetricsGateway clusterMetricsGateway;
+
+    // Số phần tử mỗi trang khi request không truyền limit (0 = trả về tất cả)
+    @Value("${app.k8s.list.default-limit:0}")
+    private int defaultListLimit;
+
+    // Giới hạn trên của limit cho các endpoint danh sách
+    @Value("${app.k8s.list.max-limit:1000}")
+    private int maxListLimit = 1000;
+
+    // Chỉ mục namespace <-> project <-> user trong bộ nhớ (thay cho findAll users/projects mỗi request)
+    @Autowired
+    private TenancyIndex tenancyIndex;
+
+    // Lịch sử CPU/Memory do UsageHistorySampler ghi nền (mẫu mới nhất + rollup cho biểu đồ)
+    @Autowired
+    private UsageHistoryStore usageHistoryStore;
+
+    // Kết quả gần nhất lấy được từ MASTER, dùng khi MASTER lỗi hoặc bị circuit breaker chặn
+    private volatile Map<String, ResourceUsage> lastClusterUsageByNamespace;
+    private volatile DashboardMetricsResponse lastDashboardMetrics;
 
     // Repository thao tác bảng project
     @Autowired
@@ -162,41 +207,59 @@ public class AdminServiceImpl implements AdminService {
     @Autowired
     private ServerService serverService;
 
+    // Thống kê build/cache trên DOCKER server
+    @Autowired
+    private BuildCacheManager buildCacheManager;
+
+    // Cache thông tin kết nối SSH (thống kê hit/miss)
+    @Autowired
+    private ServerConnectionRegistry serverConnectionRegistry;
+
     /**
      * Tổng hợp số lượng user, project và tài nguyên CPU/Memory đang sử dụng trên toàn hệ thống.
      * 
      * Quy trình xử lý:
-     * 1. Đếm tổng số user có role USER (loại trừ admin/devops)
-     * 2. Lấy toàn bộ project từ database và đếm tổng số
-     * 3. Gom các namespace đang được sử dụng (tránh trùng lặp)
-     * 4. Chạy kubectl top pods để lấy tổng CPU/Memory đang sử dụng
+     * 1. Đếm tổng số user có role USER (loại trừ admin/devops) và thống kê theo tier từ TenancyIndex
+     * 2. Đếm tổng số project từ TenancyIndex
+     * 3. Lấy các namespace đang được sử dụng từ TenancyIndex
+     * 4. Lấy tổng CPU/Memory đang sử dụng (mẫu mới nhất của UsageHistoryStore, không có thì gọi metrics-server)
      * 5. Chuyển đổi và làm tròn dữ liệu để trả về
+     * 6. Nếu request có from: kèm lịch sử CPU/Memory (tổng các namespace project) theo from/to/step
      * 
+     * @param request Khoảng thời gian của lịch sử (có thể null = không kèm lịch sử)
      * @return AdminOverviewResponse chứa tổng số user, project, CPU cores và Memory GB đang dùng
      */
     @Override
-    public AdminOverviewResponse getOverview() {
-        // Bước 1: Đếm tổng user có role USER (không bao gồm admin/devops)
-        long totalUsers = userRepository.countByRole(ROLE_USER);
+    public AdminOverviewResponse getOverview(UsageHistoryRequest request) {
+        // Bước 1: Đếm tổng user có role USER (không bao gồm admin/devops) và thống kê theo tier
+        List<AdminOverviewResponse.TierSummary> tiers = tenancyIndex.tierStats().stream()
+                .map(stats -> new AdminOverviewResponse.TierSummary(stats.tier(), stats.userCount(), stats.projectCount()))
+                .toList();
+        long totalUsers = tenancyIndex.usersWithRole(ROLE_USER).size();
 
-        // Bước 2: Lấy toàn bộ project từ database để đếm và gom namespace
-        List<ProjectEntity> projects = projectRepository.findAll();
-        long totalProjects = projects.size();
+        // Bước 2: Đếm tổng số project
+        long totalProjects = tenancyIndex.projectCount();
 
-        // Bước 3: Gom các namespace đang được sử dụng (loại bỏ trùng lặp)
-        Set<String> namespaces = collectNamespaces(projects);
+        // Bước 3: Các namespace đang được sử dụng (đã loại bỏ trùng lặp)
+        Set<String> namespaces = tenancyIndex.namespaces();
 
-        // Bước 4: Chạy kubectl top pods để lấy tổng CPU/Memory đang sử dụng
-        // Hàm này sẽ SSH đến MASTER server và thực thi lệnh kubectl top pods cho từng namespace
+        // Bước 4: Lấy tổng CPU/Memory đang sử dụng của các namespace
         ResourceUsageMap usageMap = calculateUsagePerNamespace(namespaces);
 
         // Bước 5: Mapping dữ liệu vào response object
         AdminOverviewResponse response = new AdminOverviewResponse();
         response.setTotalUsers(totalUsers);
         response.setTotalProjects(totalProjects);
+        response.setTiers(tiers);
         // Làm tròn CPU cores và chuyển Memory từ bytes sang GB, làm tròn 3 chữ số thập phân
         response.setTotalCpuCores(roundToThreeDecimals(usageMap.totalUsage().getCpuCores()));
         response.setTotalMemoryGb(roundToThreeDecimals(bytesToGb(usageMap.totalUsage().getMemoryBytes())));
+
+        // Bước 6: Lịch sử cho biểu đồ
+        HistoryRange range = toHistoryRange(request);
+        if (range != null) {
+            response.setHistory(namespaceHistory(namespaces, range));
+        }
         
         return response;
     }
@@ -209,28 +272,26 @@ public class AdminServiceImpl implements AdminService {
      * 2. Lọc các project thuộc về user này
      * 3. Gom các namespace của các project đó
      * 4. Tính tổng CPU/Memory đang sử dụng từ các namespace
-     * 5. Trả về thông tin tổng hợp
+     * 5. Trả về thông tin tổng hợp, kèm lịch sử của các namespace nếu request có from
      * 
      * @param userId ID của user cần lấy thống kê
+     * @param request Khoảng thời gian của lịch sử (có thể null = không kèm lịch sử)
      * @return AdminUserProjectSummaryResponse chứa thông tin user và tổng CPU/Memory đang dùng
      * @throws RuntimeException nếu user không tồn tại hoặc không có role USER
      */
     @Override
-    public AdminUserProjectSummaryResponse getUserProjectSummary(Long userId) {
+    public AdminUserProjectSummaryResponse getUserProjectSummary(Long userId, UsageHistoryRequest request) {
         // Bước 1: Kiểm tra user có tồn tại không
-        UserEntity user = userRepository.findById(userId)
+        TenancyIndex.UserInfo user = tenancyIndex.user(userId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy user với id " + userId));
         
         // Bước 2: Kiểm tra user có role USER không (chỉ user role USER mới được tính)
-        if (!ROLE_USER.equalsIgnoreCase(user.getRole())) {
+        if (!ROLE_USER.equalsIgnoreCase(user.role())) {
             throw new RuntimeException("User không hợp lệ hoặc không có role USER");
         }
 
-        // Bước 3: Lọc các project thuộc về user này
-        List<ProjectEntity> projects = projectRepository.findAll();
-        List<ProjectEntity> userProjects = projects.stream()
-                .filter(project -> project.getUser() != null && userId.equals(project.getUser().getId()))
-                .toList();
+        // Bước 3: Các project thuộc về user này
+        List<TenancyIndex.ProjectInfo> userProjects = tenancyIndex.projectsOf(userId);
 
         // Bước 4: Gom các namespace của các project này (tránh trùng lặp)
         Set<String> namespaces = collectNamespaces(userProjects);
@@ -240,13 +301,19 @@ public class AdminServiceImpl implements AdminService {
 
         // Bước 6: Build response object
         AdminUserProjectSummaryResponse response = new AdminUserProjectSummaryResponse();
-        response.setUserId(user.getId());
-        response.setFullname(user.getFullname());
-        response.setUsername(user.getUsername());
+        response.setUserId(user.id());
+        response.setFullname(user.fullname());
+        response.setUsername(user.username());
         response.setProjectCount(userProjects.size());
         // Làm tròn CPU cores và chuyển Memory từ bytes sang GB
         response.setCpuCores(roundToThreeDecimals(usageMap.totalUsage().getCpuCores()));
         response.setMemoryGb(roundToThreeDecimals(bytesToGb(usageMap.totalUsage().getMemoryBytes())));
+
+        // Bước 7: Lịch sử cho biểu đồ
+        HistoryRange range = toHistoryRange(request);
+        if (range != null) {
+            response.setHistory(namespaceHistory(namespaces, range));
+        }
         
         return response;
     }
@@ -270,18 +337,16 @@ public class AdminServiceImpl implements AdminService {
     @Override
     public AdminUserProjectListResponse getUserProjectsDetail(Long userId) {
         // Bước 1: Kiểm tra user có tồn tại không
-        UserEntity user = userRepository.findById(userId)
+        TenancyIndex.UserInfo user = tenancyIndex.user(userId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy user với id " + userId));
         
         // Bước 2: Kiểm tra user có role USER không
-        if (!ROLE_USER.equalsIgnoreCase(user.getRole())) {
+        if (!ROLE_USER.equalsIgnoreCase(user.role())) {
             throw new RuntimeException("User không hợp lệ hoặc không có role USER");
         }
 
-        // Bước 3: Lọc các project thuộc về user này
-        List<ProjectEntity> projects = projectRepository.findAll().stream()
-                .filter(project -> project.getUser() != null && userId.equals(project.getUser().getId()))
-                .toList();
+        // Bước 3: Các project thuộc về user này (kèm số Database/Backend/Frontend)
+        List<TenancyIndex.ProjectInfo> projects = tenancyIndex.projectsOf(userId);
 
         // Bước 4: Gom các namespace và tính usage cho từng namespace
         Set<String> namespaces = collectNamespaces(projects);
@@ -289,22 +354,19 @@ public class AdminServiceImpl implements AdminService {
 
         // Bước 5: Tạo item thống kê cho từng project
         List<AdminUserProjectListResponse.ProjectUsageItem> items = new ArrayList<>();
-        for (ProjectEntity project : projects) {
+        for (TenancyIndex.ProjectInfo project : projects) {
             // Tạo item thống kê cho project này
             AdminUserProjectListResponse.ProjectUsageItem item = new AdminUserProjectListResponse.ProjectUsageItem();
-            item.setProjectId(project.getId());
-            item.setProjectName(project.getProjectName());
+            item.setProjectId(project.id());
+            item.setProjectName(project.projectName());
             
-            // Đếm số lượng Database/Backend/Frontend (xử lý null-safe)
-            item.setDatabaseCount(project.getDatabases() != null ? project.getDatabases().size() : 0);
-            item.setBackendCount(project.getBackends() != null ? project.getBackends().size() : 0);
-            item.setFrontendCount(project.getFrontends() != null ? project.getFrontends().size() : 0);
+            // Số lượng Database/Backend/Frontend
+            item.setDatabaseCount(project.databaseCount());
+            item.setBackendCount(project.backendCount());
+            item.setFrontendCount(project.frontendCount());
 
             // Lấy usage từ namespace của project (nếu có)
-            ResourceUsage usage = null;
-            if (project.getNamespace() != null && !project.getNamespace().trim().isEmpty()) {
-                usage = usageMap.namespaceUsage().get(project.getNamespace().trim());
-            }
+            ResourceUsage usage = project.namespace() != null ? usageMap.namespaceUsage().get(project.namespace()) : null;
             
             // Tính CPU và Memory (nếu không có usage thì mặc định là 0)
             double cpu = usage != null ? usage.getCpuCores() : 0.0;
@@ -319,9 +381,9 @@ public class AdminServiceImpl implements AdminService {
 
         // Bước 6: Tạo response object và trả về
         AdminUserProjectListResponse response = new AdminUserProjectListResponse();
-        response.setUserId(user.getId());
-        response.setFullname(user.getFullname());
-        response.setUsername(user.getUsername());
+        response.setUserId(user.id());
+        response.setFullname(user.fullname());
+        response.setUsername(user.username());
         response.setProjects(items);
         
         return response;
@@ -332,16 +394,16 @@ public class AdminServiceImpl implements AdminService {
      * 
      * Quy trình xử lý:
      * 1. Kiểm tra project có tồn tại và có namespace không
-     * 2. Kết nối SSH đến MASTER server
+     * 2. Lấy usage của các pod trong namespace, gom theo component sở hữu (fetchUsageByComponent):
+     *    một lần gọi metrics.k8s.io và một lần đọc pod từ ClusterStateCache cho cả project
      * 3. Với mỗi Database/Backend/Frontend trong project:
-     *    - Lấy uuid_k8s để tạo app label
-     *    - Chạy kubectl top pods với label selector để lấy CPU/Memory
+     *    - Tra usage theo uuid_k8s của component
      *    - Cộng dồn vào tổng
      * 4. Trả về chi tiết usage cho từng thành phần và tổng
      * 
      * @param projectId ID của project cần lấy chi tiết
      * @return AdminProjectResourceDetailResponse chứa chi tiết CPU/Memory của từng Database/Backend/Frontend
-     * @throws RuntimeException nếu project không tồn tại hoặc không có namespace
+     * @throws RuntimeException nếu project không tồn tại, không có namespace hoặc không lấy được metrics
      */
     @Override
     public AdminProjectResourceDetailResponse getProjectResourceDetail(Long projectId) {
@@ -357,12 +419,7 @@ public class AdminServiceImpl implements AdminService {
         }
         namespace = namespace.trim();
 
-        // Bước 3: Lấy thông tin server MASTER để kết nối SSH
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        // Bước 4: Khởi tạo response object
+        // Bước 3: Khởi tạo response object
         AdminProjectResourceDetailResponse response = new AdminProjectResourceDetailResponse();
         response.setProjectId(project.getId());               // Lưu lại id để FE biết project nào
         response.setProjectName(project.getProjectName());    // Lưu lại tên hiển thị
@@ -376,113 +433,96 @@ public class AdminServiceImpl implements AdminService {
         double totalCpu = 0.0;       // Tổng CPU cộng dồn (đơn vị: cores)
         double totalMemoryGb = 0.0;  // Tổng Memory cộng dồn (đơn vị: GB)
 
-        // Session SSH tới MASTER server để chạy các lệnh kubectl
-        Session session = null;
+        // Bước 4: Usage của cả namespace, gom theo uuid_k8s của component
+        Map<String, ResourceUsage> usageByComponent;
         try {
-            // Bước 5: Tạo SSH session và kết nối đến MASTER server
-            session = createSession(masterServer);
-
-            // Bước 6: Xử lý các Database trong project
-            if (project.getDatabases() != null) {
-                for (ProjectDatabaseEntity database : project.getDatabases()) {
-                    // Bỏ qua database không có uuid_k8s (chưa được deploy)
-                    if (database.getUuid_k8s() == null || database.getUuid_k8s().trim().isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Tạo app label theo format: "db-{uuid_k8s}" (format chuẩn khi deploy database)
-                    String appLabel = "db-" + database.getUuid_k8s().trim();
-                    
-                    // Gọi kubectl top pods với label selector để lấy CPU/Memory của các pod có label này
-                    ResourceUsage usage = fetchUsageForApp(session, namespace, appLabel);
-                    double cpu = usage.getCpuCores();
-                    double memoryGb = bytesToGb(usage.getMemoryBytes());
-
-                    // Tạo ComponentUsage object và thêm vào danh sách
-                    databaseUsages.add(new AdminProjectResourceDetailResponse.ComponentUsage(
-                            database.getId(),
-                            database.getProjectName(),
-                            database.getStatus(),
-                            roundToThreeDecimals(cpu),      // Làm tròn 3 chữ số thập phân
-                            roundToThreeDecimals(memoryGb)   // Làm tròn 3 chữ số thập phân
-                    ));
-
-                    // Cộng dồn vào tổng
-                    totalCpu += cpu;
-                    totalMemoryGb += memoryGb;
+            usageByComponent = fetchUsageByComponent(namespace);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Không thể lấy metrics cho project: " + e.getMessage(), e);
+        }
+
+        // Bước 5: Xử lý các Database trong project
+        if (project.getDatabases() != null) {
+            for (ProjectDatabaseEntity database : project.getDatabases()) {
+                // Bỏ qua database không có uuid_k8s (chưa được deploy)
+                if (database.getUuid_k8s() == null || database.getUuid_k8s().trim().isEmpty()) {
+                    continue;
                 }
+                
+                ResourceUsage usage = usageByComponent.getOrDefault(database.getUuid_k8s().trim(), new ResourceUsage());
+                double cpu = usage.getCpuCores();
+                double memoryGb = bytesToGb(usage.getMemoryBytes());
+
+                // Tạo ComponentUsage object và thêm vào danh sách
+                databaseUsages.add(new AdminProjectResourceDetailResponse.ComponentUsage(
+                        database.getId(),
+                        database.getProjectName(),
+                        database.getStatus(),
+                        roundToThreeDecimals(cpu),      // Làm tròn 3 chữ số thập phân
+                        roundToThreeDecimals(memoryGb)   // Làm tròn 3 chữ số thập phân
+                ));
+
+                // Cộng dồn vào tổng
+                totalCpu += cpu;
+                totalMemoryGb += memoryGb;
             }
+        }
 
-            // Bước 7: Xử lý các Backend trong project
-            if (project.getBackends() != null) {
-                for (ProjectBackendEntity backend : project.getBackends()) {
-                    // Bỏ qua backend không có uuid_k8s (chưa được deploy)
-                    if (backend.getUuid_k8s() == null || backend.getUuid_k8s().trim().isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Tạo app label theo format: "app-{uuid_k8s}" (format chuẩn khi deploy backend)
-                    String appLabel = "app-" + backend.getUuid_k8s().trim();
-                    
-                    // Gọi kubectl top pods với label selector để lấy CPU/Memory
-                    ResourceUsage usage = fetchUsageForApp(session, namespace, appLabel);
-                    double cpu = usage.getCpuCores();
-                    double memoryGb = bytesToGb(usage.getMemoryBytes());
-
-                    // Tạo ComponentUsage object và thêm vào danh sách
-                    backendUsages.add(new AdminProjectResourceDetailResponse.ComponentUsage(
-                            backend.getId(),
-                            backend.getProjectName(),
-                            backend.getStatus(),
-                            roundToThreeDecimals(cpu),
-                            roundToThreeDecimals(memoryGb)
-                    ));
-
-                    // Cộng dồn vào tổng
-                    totalCpu += cpu;
-                    totalMemoryGb += memoryGb;
+        // Bước 6: Xử lý các Backend trong project
+        if (project.getBackends() != null) {
+            for (ProjectBackendEntity backend : project.getBackends()) {
+                // Bỏ qua backend không có uuid_k8s (chưa được deploy)
+                if (backend.getUuid_k8s() == null || backend.getUuid_k8s().trim().isEmpty()) {
+                    continue;
                 }
+                
+                ResourceUsage usage = usageByComponent.getOrDefault(backend.getUuid_k8s().trim(), new ResourceUsage());
+                double cpu = usage.getCpuCores();
+                double memoryGb = bytesToGb(usage.getMemoryBytes());
+
+                // Tạo ComponentUsage object và thêm vào danh sách
+                backendUsages.add(new AdminProjectResourceDetailResponse.ComponentUsage(
+                        backend.getId(),
+                        backend.getProjectName(),
+                        backend.getStatus(),
+                        roundToThreeDecimals(cpu),
+                        roundToThreeDecimals(memoryGb)
+                ));
+
+                // Cộng dồn vào tổng
+                totalCpu += cpu;
+                totalMemoryGb += memoryGb;
             }
+        }
 
-            // Bước 8: Xử lý các Frontend trong project
-            if (project.getFrontends() != null) {
-                for (ProjectFrontendEntity frontend : project.getFrontends()) {
-                    // Bỏ qua frontend không có uuid_k8s (chưa được deploy)
-                    if (frontend.getUuid_k8s() == null || frontend.getUuid_k8s().trim().isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Tạo app label theo format: "app-{uuid_k8s}" (format chuẩn khi deploy frontend, giống backend)
-                    String appLabel = "app-" + frontend.getUuid_k8s().trim();
-                    
-                    // Gọi kubectl top pods với label selector để lấy CPU/Memory
-                    ResourceUsage usage = fetchUsageForApp(session, namespace, appLabel);
-                    double cpu = usage.getCpuCores();
-                    double memoryGb = bytesToGb(usage.getMemoryBytes());
-
-                    // Tạo ComponentUsage object và thêm vào danh sách
-                    frontendUsages.add(new AdminProjectResourceDetailResponse.ComponentUsage(
-                            frontend.getId(),
-                            frontend.getProjectName(),
-                            frontend.getStatus(),
-                            roundToThreeDecimals(cpu),
-                            roundToThreeDecimals(memoryGb)
-                    ));
-
-                    // Cộng dồn vào tổng
-                    totalCpu += cpu;
-                    totalMemoryGb += memoryGb;
+        // Bước 7: Xử lý các Frontend trong project
+        if (project.getFrontends() != null) {
+            for (ProjectFrontendEntity frontend : project.getFrontends()) {
+                // Bỏ qua frontend không có uuid_k8s (chưa được deploy)
+                if (frontend.getUuid_k8s() == null || frontend.getUuid_k8s().trim().isEmpty()) {
+                    continue;
                 }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Không thể lấy metrics cho project: " + e.getMessage(), e);
-        } finally {
-            if (session != null && session.isConnected()) {
-                session.disconnect();
+                
+                ResourceUsage usage = usageByComponent.getOrDefault(frontend.getUuid_k8s().trim(), new ResourceUsage());
+                double cpu = usage.getCpuCores();
+                double memoryGb = bytesToGb(usage.getMemoryBytes());
+
+                // Tạo ComponentUsage object và thêm vào danh sách
+                frontendUsages.add(new AdminProjectResourceDetailResponse.ComponentUsage(
+                        frontend.getId(),
+                        frontend.getProjectName(),
+                        frontend.getStatus(),
+                        roundToThreeDecimals(cpu),
+                        roundToThreeDecimals(memoryGb)
+                ));
+
+                // Cộng dồn vào tổng
+                totalCpu += cpu;
+                totalMemoryGb += memoryGb;
             }
         }
 
-        // 4. Tổng hợp dữ liệu trả về
+        // Bước 8: Tổng hợp dữ liệu trả về
         response.setDatabases(databaseUsages);
         response.setBackends(backendUsages);
         response.setFrontends(frontendUsages);
@@ -495,67 +535,41 @@ public class AdminServiceImpl implements AdminService {
      * Lấy usage tổng quan cho từng user (số project, CPU, Memory).
      * 
      * Quy trình xử lý:
-     * 1. Khởi tạo map chứa thống kê cho từng user có role USER
-     * 2. Duyệt tất cả project, đếm số project và ghi lại namespace thuộc user nào
+     * 1. Khởi tạo map chứa thống kê cho từng user có role USER (TenancyIndex)
+     * 2. Lấy số project của từng user và namespace thuộc user nào từ TenancyIndex
      * 3. Gom các namespace và tính usage cho từng namespace
      * 4. Phân bổ usage của namespace về user sở hữu namespace đó
-     * 5. Làm tròn dữ liệu và trả về
+     * 5. Làm tròn dữ liệu, kèm lịch sử của từng user nếu request có from, và trả về
      * 
+     * @param request Khoảng thời gian của lịch sử (có thể null = không kèm lịch sử)
      * @return AdminUserUsageResponse chứa danh sách user với thống kê usage
      */
     @Override
-    public AdminUserUsageResponse getUserResourceOverview() {
+    public AdminUserUsageResponse getUserResourceOverview(UsageHistoryRequest request) {
         // Bước 1: Chuẩn bị map chứa thống kê cho từng user có role USER
-        List<UserEntity> users = userRepository.findAll();
-        Map<Long, AdminUserUsageResponse.UserUsageItem> userStats = new HashMap<>(); // Map userId -> usage tổng hợp
+        Map<Long, AdminUserUsageResponse.UserUsageItem> userStats = new LinkedHashMap<>(); // Map userId -> usage tổng hợp
         
-        for (UserEntity user : users) {
-            // Chỉ xử lý user có role USER (bỏ qua admin/devops)
-            if (!ROLE_USER.equalsIgnoreCase(user.getRole())) {
-                continue;
-            }
-            
-            // Khởi tạo UserUsageItem với giá trị mặc định (0 project, 0 CPU, 0 Memory)
+        for (TenancyIndex.UserInfo user : tenancyIndex.usersWithRole(ROLE_USER)) {
+            // Khởi tạo UserUsageItem (số project từ chỉ mục, 0 CPU, 0 Memory)
             AdminUserUsageResponse.UserUsageItem item = new AdminUserUsageResponse.UserUsageItem();
-            item.setId(user.getId());
-            item.setFullname(user.getFullname());
-            item.setUsername(user.getUsername());
-            item.setTier(user.getTier());
-            item.setProjectCount(0);
+            item.setId(user.id());
+            item.setFullname(user.fullname());
+            item.setUsername(user.username());
+            item.setTier(user.tier());
+            item.setProjectCount(tenancyIndex.projectsOf(user.id()).size());
             item.setCpuCores(0.0);
             item.setMemoryGb(0.0);
-            userStats.put(user.getId(), item);
+            userStats.put(user.id(), item);
         }
 
-        // Bước 2: Với mỗi project, tăng số dự án và ghi lại namespace thuộc user nào
-        List<ProjectEntity> projects = projectRepository.findAll();
-        Set<String> namespaces = new HashSet<>();          // Tập namespace cần truy vấn metrics (loại bỏ trùng)
+        // Bước 2: Namespace thuộc user nào (chỉ giữ namespace của user role USER)
         Map<String, Long> namespaceOwner = new HashMap<>(); // Map namespace -> userId sở hữu (để phân bổ usage)
-        
-        for (ProjectEntity project : projects) {
-            UserEntity owner = project.getUser();
-            // Bỏ qua project không có owner
-            if (owner == null) {
-                continue;
-            }
-            
-            // Lấy UserUsageItem của owner
-            AdminUserUsageResponse.UserUsageItem item = userStats.get(owner.getId());
-            // Nếu owner không có trong userStats (không phải role USER), bỏ qua
-            if (item == null) {
-                continue;
-            }
-            
-            // Tăng số project của user
-            item.setProjectCount(item.getProjectCount() + 1);
-
-            // Nếu project có namespace, thêm vào danh sách và ghi lại owner
-            if (project.getNamespace() != null && !project.getNamespace().trim().isEmpty()) {
-                String namespace = project.getNamespace().trim();
-                namespaces.add(namespace);
-                namespaceOwner.put(namespace, owner.getId());
+        tenancyIndex.namespaceOwners().forEach((namespace, ownerId) -> {
+            if (userStats.containsKey(ownerId)) {
+                namespaceOwner.put(namespace, ownerId);
             }
-        }
+        });
+        Set<String> namespaces = new HashSet<>(namespaceOwner.keySet()); // Tập namespace cần truy vấn metrics
 
         // Bước 3: Lấy metrics từng namespace rồi cộng ngược vào user tương ứng
         ResourceUsageMap usageMap = calculateUsagePerNamespace(namespaces);
@@ -581,6 +595,16 @@ public class AdminServiceImpl implements AdminService {
             item.setMemoryGb(roundToThreeDecimals(item.getMemoryGb()));
         });
 
+        // Lịch sử của từng user = tổng các namespace user sở hữu
+        HistoryRange range = toHistoryRange(request);
+        if (range != null) {
+            Map<Long, Set<String>> namespacesByOwner = new HashMap<>();
+            namespaceOwner.forEach((namespace, ownerId) ->
+                    namespacesByOwner.computeIfAbsent(ownerId, id -> new HashSet<>()).add(namespace));
+            userStats.forEach((userId, item) ->
+                    item.setHistory(namespaceHistory(namespacesByOwner.getOrDefault(userId, Set.of()), range)));
+        }
+
         // Bước 5: Tạo response và trả về
         AdminUserUsageResponse response = new AdminUserUsageResponse();
         response.setUsers(new ArrayList<>(userStats.values()));
@@ -601,19 +625,18 @@ public class AdminServiceImpl implements AdminService {
      * 4. Nếu có, thêm namespace vào Set (đã trim để loại bỏ khoảng trắng thừa)
      * 5. Trả về Set các namespace duy nhất
      * 
-     * @param projects Danh sách các project cần lấy namespace
+     * @param projects Danh sách các project (từ TenancyIndex, namespace đã được trim) cần lấy namespace
      * @return Set<String> chứa các namespace duy nhất (không trùng lặp)
      */
-    private Set<String> collectNamespaces(List<ProjectEntity> projects) {
+    private Set<String> collectNamespaces(List<TenancyIndex.ProjectInfo> projects) {
         // Bước 1: Khởi tạo Set để tự động loại bỏ namespace trùng lặp
         Set<String> namespaces = new HashSet<>();
         
         // Bước 2: Duyệt từng project và thêm namespace hợp lệ vào Set
-        for (ProjectEntity project : projects) {
-            // Kiểm tra project có namespace hợp lệ không (không null và không rỗng)
-            if (project.getNamespace() != null && !project.getNamespace().trim().isEmpty()) {
-                String namespace = project.getNamespace().trim(); // Trim để loại bỏ khoảng trắng thừa
-                namespaces.add(namespace);
+        for (TenancyIndex.ProjectInfo project : projects) {
+            // Chỉ mục chỉ giữ namespace không rỗng (null = project chưa có namespace)
+            if (project.namespace() != null) {
+                namespaces.add(project.namespace());
             }
         }
         
@@ -622,17 +645,17 @@ public class AdminServiceImpl implements AdminService {
     }
 
     /**
-     * Chạy kubectl top pods cho danh sách namespace để thu thập CPU/Memory.
+     * Thu thập CPU/Memory (metrics.k8s.io) cho danh sách namespace.
      * Kết quả trả về cả tổng usage và usage theo từng namespace.
      * 
      * Quy trình xử lý:
      * 1. Kiểm tra danh sách namespace có rỗng không
-     * 2. Kết nối SSH đến MASTER server
-     * 3. Với mỗi namespace:
-     *    - Chạy lệnh: kubectl top pods -n {namespace} --no-headers
-     *    - Parse output để lấy CPU và Memory của từng pod
-     *    - Cộng dồn vào tổng và vào namespace tương ứng
-     * 4. Trả về ResourceUsageMap chứa tổng usage và usage theo namespace
+     * 1b. UsageHistoryStore có lượt lấy mẫu còn mới: đọc mẫu của từng namespace trong lượt đó (không gọi API)
+     * 2. Nếu không: một lời gọi metrics.k8s.io cho pods của mọi namespace qua ClusterMetricsGateway
+     *    (thay cho một lệnh cho mỗi namespace), CPU/Memory đọc từ Quantity và cộng dồn theo namespace
+     * 3. Lưu kết quả toàn cluster làm cache; nếu API server lỗi hoặc MASTER bị circuit breaker chặn
+     *    thì dùng cache gần nhất thay vì trả về toàn số 0
+     * 4. Lọc theo danh sách namespace cần truy vấn và trả về ResourceUsageMap
      * 
      * @param namespaces Set các namespace cần truy vấn metrics
      * @return ResourceUsageMap chứa tổng usage và usage theo từng namespace
@@ -647,76 +670,35 @@ public class AdminServiceImpl implements AdminService {
             return new ResourceUsageMap(totalUsage, namespaceUsage);
         }
 
-        // Lấy thông tin server MASTER để kết nối SSH
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session clusterSession = null;
-        try {
-            // Tạo SSH session và kết nối đến MASTER server
-            clusterSession = createSession(masterServer);
-            
-            // Bước 1: Lặp qua từng namespace để gọi kubectl top pods
+        // Mẫu mới nhất do sampler ghi nền: trả lời ngay, không gọi metrics-server trong request
+        long sampledAt = usageHistoryStore.freshSampleAt();
+        if (sampledAt >= 0) {
             for (String namespace : namespaces) {
-                try {
-                    // Tạo lệnh kubectl top pods cho namespace này (--no-headers để bỏ dòng header)
-                    String cmd = String.format("kubectl top pods -n %s --no-headers", namespace);
-                    
-                    // Thực thi lệnh (ignoreNonZeroExit=true để không throw exception nếu lệnh fail)
-                    String output = executeCommand(clusterSession, cmd, true);
-                    
-                    // Nếu không có output (namespace không có pod hoặc lỗi), bỏ qua
-                    if (output == null || output.trim().isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Chia output thành các dòng (mỗi dòng là một pod)
-                    String[] lines = output.split("\\r?\\n");
-                    
-                    // Bước 2: Parse từng dòng output để lấy CPU và Memory
-                    for (String line : lines) {
-                        line = line.trim();
-                        // Bỏ qua dòng rỗng
-                        if (line.isEmpty()) {
-                            continue;
-                        }
-                        
-                        // Chia dòng thành các phần: [pod-name] [CPU] [Memory]
-                        String[] parts = line.split("\\s+");
-                        if (parts.length < 3) {
-                            continue;
-                        }
-                        
-                        try {
-                            // Parse CPU từ phần thứ 2 (có thể là "15m", "0.2", etc.)
-                            double cpu = parseCpuCores(parts[1]);
-                            // Parse Memory từ phần thứ 3 (có thể là "100Mi", "2Gi", etc.)
-                            long memory = parseMemoryBytes(parts[2]);
-
-                            // Cộng dồn vào tổng usage
-                            totalUsage.addCpu(cpu).addMemory(memory);
-                            
-                            // Cộng dồn vào usage của namespace này
-                            // computeIfAbsent: nếu namespace chưa có trong map, tạo mới ResourceUsage
-                            namespaceUsage
-                                    .computeIfAbsent(namespace, key -> new ResourceUsage())
-                                    .addCpu(cpu)
-                                    .addMemory(memory);
-                        } catch (NumberFormatException ex) {
-                            // Nếu không parse được, log lỗi nhưng tiếp tục xử lý pod khác
-                        }
-                    }
-                } catch (Exception e) {
-                    // Nếu lỗi khi xử lý một namespace, log nhưng tiếp tục xử lý namespace khác
+                UsagePoint point = usageHistoryStore.sampleAt(UsageHistoryStore.namespaceKey(namespace), sampledAt);
+                if (point != null) {
+                    ResourceUsage usage = new ResourceUsage().addCpu(point.cpuCores()).addMemory(point.memoryBytes());
+                    totalUsage.addCpu(usage.getCpuCores()).addMemory(usage.getMemoryBytes());
+                    namespaceUsage.put(namespace, usage);
                 }
             }
-        } catch (Exception e) {
-            // Lỗi khi kết nối SSH hoặc lỗi chung
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
+            return new ResourceUsageMap(totalUsage, namespaceUsage);
+        }
+
+        Map<String, ResourceUsage> clusterUsage = fetchClusterUsageByNamespace();
+        if (clusterUsage == null) {
+            clusterUsage = lastClusterUsageByNamespace;
+            if (clusterUsage == null) {
+                return new ResourceUsageMap(totalUsage, namespaceUsage);
+            }
+            System.out.println("[calculateUsagePerNamespace] Khong lay duoc metrics tu MASTER, dung ket qua gan nhat");
+        }
+
+        // Chỉ giữ các namespace cần truy vấn
+        for (String namespace : namespaces) {
+            ResourceUsage usage = clusterUsage.get(namespace);
+            if (usage != null) {
+                totalUsage.addCpu(usage.getCpuCores()).addMemory(usage.getMemoryBytes());
+                namespaceUsage.put(namespace, usage);
             }
         }
 
@@ -724,124 +706,112 @@ public class AdminServiceImpl implements AdminService {
     }
 
     /**
-     * Lấy metrics CPU/Memory cho một nhóm pod theo label "app".
-     * Hàm này giúp tái sử dụng logic kubectl top pods -l app=<label>.
-     * 
-     * Mục đích: Lấy tổng CPU và Memory của tất cả pod có label app={appLabel} trong namespace.
-     * Được sử dụng để lấy metrics cho một Database/Backend/Frontend cụ thể.
-     * 
-     * Quy trình xử lý:
-     * 1. Kiểm tra tham số đầu vào hợp lệ
-     * 2. Chạy lệnh: kubectl top pods -n {namespace} -l app={appLabel} --no-headers
-     * 3. Parse output để lấy CPU và Memory của từng pod
-     * 4. Cộng dồn vào ResourceUsage và trả về
-     * 
-     * @param session SSH session đã kết nối đến MASTER server
-     * @param namespace Namespace chứa các pod cần truy vấn
-     * @param appLabel Label "app" để filter pod (ví dụ: "db-abc123", "app-xyz789")
-     * @return ResourceUsage chứa tổng CPU (cores) và Memory (bytes) của các pod thỏa label
+     * Lấy CPU/Memory theo namespace của toàn cluster (metrics.k8s.io pods, mọi namespace) và cập nhật cache.
+     *
+     * @return Map namespace -> ResourceUsage, hoặc null nếu API server / metrics-server không khả dụng
      */
-    private ResourceUsage fetchUsageForApp(Session session, String namespace, String appLabel) {
-        // Khởi tạo ResourceUsage rỗng (CPU=0, Memory=0)
-        ResourceUsage usage = new ResourceUsage();
-        
-        // Kiểm tra tham số đầu vào hợp lệ
-        if (session == null || namespace == null || namespace.isBlank() || appLabel == null || appLabel.isBlank()) {
-            return usage;
-        }
-        
+    private Map<String, ResourceUsage> fetchClusterUsageByNamespace() {
+        Map<String, ResourceUsage> clusterUsage = new HashMap<>();
         try {
-            // Tạo lệnh kubectl top pods với label selector
-            // -l app={appLabel}: chỉ lấy pod có label app={appLabel}
-            // --no-headers: bỏ dòng header để dễ parse
-            String cmd = String.format("kubectl top pods -n %s -l app=%s --no-headers", namespace, appLabel);
-            
-            // Thực thi lệnh (ignoreNonZeroExit=true để không throw exception nếu không có pod)
-            String output = executeCommand(session, cmd, true);
-            
-            // Nếu không có output (không có pod thỏa label), trả về usage rỗng
-            if (output == null || output.trim().isEmpty()) {
-                return usage;
-            }
-            
-            // Chia output thành các dòng (mỗi dòng là một pod)
-            String[] lines = output.split("\\r?\\n");
-            
-            // Bước 1: Lặp qua từng pod thỏa label để parse CPU và Memory
-            for (String line : lines) {
-                line = line.trim();
-                // Bỏ qua dòng rỗng
-                if (line.isEmpty()) {
-                    continue;
-                }
-                
-                // Chia dòng thành các phần: [pod-name] [CPU] [Memory]
-                String[] parts = line.split("\\s+");
-                if (parts.length < 3) {
-                    continue;
-                }
-                
-                // Parse CPU và Memory từ output
-                double cpu = parseCpuCores(parts[1]);
-                long memory = parseMemoryBytes(parts[2]);
-                
-                // Cộng dồn vào usage
-                usage.addCpu(cpu).addMemory(memory);
+            // Usage đã cộng dồn theo namespace, CPU (cores) và Memory (bytes) đọc trực tiếp từ Quantity
+            for (Map.Entry<String, ClusterMetricsGateway.Usage> entry : clusterMetricsGateway.podUsageByNamespace().entrySet()) {
+                clusterUsage.put(entry.getKey(), new ResourceUsage()
+                        .addCpu(entry.getValue().cpuCores())
+                        .addMemory(entry.getValue().memoryBytes()));
             }
         } catch (Exception e) {
-            // Nếu có lỗi, log nhưng vẫn trả về usage (có thể là 0 nếu chưa parse được gì)
+            // Lỗi khi kết nối API server, breaker của MASTER đang OPEN hoặc metrics-server chưa sẵn sàng
+            System.err.println("[calculateUsagePerNamespace] Loi khi lay metrics: " + e.getMessage());
+            return null;
         }
-        return usage;
+
+        lastClusterUsageByNamespace = clusterUsage;
+        return clusterUsage;
     }
 
     /**
-     * Mở SSH session tới server MASTER để chạy lệnh kubectl.
+     * Lấy usage CPU/Memory của các pod trong namespace của project, gom theo component sở hữu.
+     * Thay cho việc chạy kubectl top pods -l app=<label> riêng cho từng Database/Backend/Frontend.
      * 
      * Quy trình xử lý:
-     * 1. Tạo JSch object để quản lý SSH connection
-     * 2. Tạo session với thông tin đăng nhập (username, IP, port)
-     * 3. Set password cho authentication
-     * 4. Cấu hình session (tắt StrictHostKeyChecking để không cần xác nhận host key)
-     * 5. Set timeout 7 giây
-     * 6. Kết nối thực tế đến server
+     * 1. Một lần gọi metrics.k8s.io cho cả namespace (usage của từng pod)
+     * 2. Một lần đọc pod của namespace từ ClusterStateCache để biết label của từng pod
+     * 3. Component của pod lấy từ label my-spring-app/component-id; pod deploy trước khi có label sở hữu
+     *    thì suy ra từ label "app" (db-{uuid} cho database, app-{uuid} cho backend/frontend)
+     * 4. Cộng dồn usage theo uuid_k8s của component
+     * 
+     * @param namespace Namespace của project
+     * @return Map uuid_k8s của component -> ResourceUsage (CPU cores, Memory bytes)
+     * @throws RuntimeException nếu metrics-server hoặc API server không khả dụng
+     */
+    private Map<String, ResourceUsage> fetchUsageByComponent(String namespace) {
+        Map<String, ClusterMetricsGateway.Usage> usageByPod = clusterMetricsGateway.podUsage(namespace, null);
+        Map<String, ResourceUsage> usageByComponent = new HashMap<>();
+        if (usageByPod.isEmpty()) {
+            return usageByComponent;
+        }
+        for (V1Pod pod : clusterStateCache.listByNamespace(V1Pod.class, namespace).items()) {
+            ClusterMetricsGateway.Usage usage = usageByPod.get(nameOf(pod));
+            String componentUuid = componentUuidOf(pod);
+            if (usage == null || componentUuid == null) {
+                continue;
+            }
+            usageByComponent.computeIfAbsent(componentUuid, key -> new ResourceUsage())
+                    .addCpu(usage.cpuCores())
+                    .addMemory(usage.memoryBytes());
+        }
+        return usageByComponent;
+    }
+
+    /**
+     * uuid_k8s của component sở hữu object: label my-spring-app/component-id, nếu không có thì
+     * suy ra từ label "app" theo quy ước tên cũ (db-{uuid} / app-{uuid}); null nếu không xác định được.
+     */
+    private static String componentUuidOf(KubernetesObject object) {
+        Map<String, String> labels = object.getMetadata() != null ? object.getMetadata().getLabels() : null;
+        if (labels == null) {
+            return null;
+        }
+        String componentId = labels.get(OwnershipLabels.COMPONENT_ID);
+        if (componentId != null && !componentId.isEmpty()) {
+            return componentId;
+        }
+        String app = labels.get("app");
+        if (app == null) {
+            return null;
+        }
+        if (app.startsWith("db-")) {
+            return app.substring("db-".length());
+        }
+        if (app.startsWith("app-")) {
+            return app.substring("app-".length());
+        }
+        return null;
+    }
+
+    /**
+     * Mượn SSH session tới server MASTER từ pool để chạy lệnh kubectl.
+     * 
+     * Session được giữ ấm trong SshSessionPool (keep-alive, nhiều channel trên một kết nối),
+     * nên request không phải trả chi phí handshake + xác thực mỗi lần.
+     * Người gọi phải trả session bằng sshSessionPool.release(session) trong finally.
      * 
      * @param server ServerEntity chứa thông tin server MASTER (IP, port, username, password)
      * @return Session đã kết nối thành công, sẵn sàng để thực thi lệnh
      * @throws Exception nếu không thể kết nối (sai thông tin đăng nhập, server không khả dụng, etc.)
      */
     private Session createSession(ServerEntity server) throws Exception {
-        // Bước 1: Tạo JSch object để quản lý SSH connection
-        JSch jsch = new JSch();
-        
-        // Bước 2: Tạo session với thông tin đăng nhập server
-        Session session = jsch.getSession(server.getUsername(), server.getIp(), server.getPort());
-        
-        // Bước 3: Set password cho authentication
-        session.setPassword(server.getPassword());
-        
-        // Bước 4: Cấu hình session
-        Properties config = new Properties();
-        config.put("StrictHostKeyChecking", "no");  // Tắt kiểm tra host key (cho phép kết nối mà không cần xác nhận)
-        session.setConfig(config);
-        session.setTimeout(7000);  // Timeout 7 giây
-        
-        // Bước 5: Kết nối thực tế đến server
-        session.connect();
-        
-        return session;
+        return sshSessionPool.acquire(server);
     }
 
     /**
      * Thực thi lệnh shell trên server MASTER thông qua SSH.
      * 
      * Quy trình xử lý:
-     * 1. Mở channel "exec" để thực thi lệnh
-     * 2. Set lệnh cần thực thi
-     * 3. Redirect stderr để log lỗi
-     * 4. Kết nối channel và bắt đầu thực thi
-     * 5. Đọc output từ inputStream liên tục cho đến khi lệnh kết thúc
-     * 6. Kiểm tra exit status và xử lý lỗi nếu cần
-     * 7. Đóng channel và trả về output
+     * 1. Giao lệnh cho RemoteCommandExecutor (mở channel "exec", chờ sự kiện đóng channel)
+     * 2. In stderr ra console để log lỗi
+     * 3. Kiểm tra exit status và xử lý lỗi nếu cần
+     * 4. Trả về output (đã trim)
      * 
      * @param session SSH session đã kết nối
      * @param command Lệnh shell cần thực thi (ví dụ: "kubectl get pods -n default")
@@ -850,119 +820,27 @@ public class AdminServiceImpl implements AdminService {
      * @throws Exception nếu có lỗi khi thực thi hoặc exit code != 0 và ignoreNonZeroExit=false
      */
     private String executeCommand(Session session, String command, boolean ignoreNonZeroExit) throws Exception {
-        ChannelExec channelExec = null;
-
-        try {
-            // Bước 1: Mở channel "exec" để thực thi lệnh shell
-            channelExec = (ChannelExec) session.openChannel("exec");
-            
-            // Bước 2: Set lệnh cần thực thi
-            channelExec.setCommand(command);
-            
-            // Bước 3: Redirect stderr để log lỗi ra console
-            channelExec.setErrStream(System.err);
-
-            // Bước 4: Lấy inputStream để đọc output của lệnh
-            InputStream inputStream = channelExec.getInputStream();
-            
-            // Bước 5: Kết nối channel và bắt đầu thực thi lệnh
-            channelExec.connect();
-
-            // Bước 6: Đọc output từ inputStream
-            StringBuilder output = new StringBuilder();
-            byte[] buffer = new byte[1024];  // Buffer 1KB để đọc dữ liệu
-
-            // Vòng lặp đọc output cho đến khi lệnh kết thúc hoàn toàn
-            while (true) {
-                // Đọc liên tục tất cả dữ liệu có sẵn trong inputStream
-                while (inputStream.available() > 0) {
-                    int bytesRead = inputStream.read(buffer, 0, 1024);
-                    if (bytesRead < 0) {
-                        break;  // Không còn dữ liệu để đọc
-                    }
-                    // Chuyển đổi bytes sang String (UTF-8) và append vào output
-                    output.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
-                }
-
-                // Kiểm tra channel đã đóng chưa (lệnh đã kết thúc)
-                if (channelExec.isClosed()) {
-                    // Nếu vẫn còn dữ liệu trong inputStream, tiếp tục đọc
-                    if (inputStream.available() > 0) {
-                        continue;
-                    }
-                    // Nếu không còn dữ liệu, thoát vòng lặp
-                    break;
-                }
-
-                // Nghỉ 100ms trước khi kiểm tra lại (tránh busy waiting)
-                Thread.sleep(100);
-            }
-
-            // Bước 7: Lấy exit status của lệnh (0 = thành công, != 0 = lỗi)
-            int exitStatus = channelExec.getExitStatus();
-            String result = output.toString().trim();
-
-            // Bước 8: Xử lý exit status
-            if (exitStatus != 0) {
-                if (ignoreNonZeroExit) {
-                    // Nếu cho phép ignore, bỏ qua lỗi (không throw exception)
-                } else {
-                    // Nếu không cho phép ignore, throw exception
-                    throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
-                }
-            }
+        // Thực thi qua engine dùng chung: chờ sự kiện đóng channel thay vì sleep-polling
+        CommandResult commandResult = remoteCommandExecutor.execute(session, command, 0);
+        // Giữ hành vi cũ: stderr của lệnh được in ra console để dễ debug
+        if (!commandResult.stderr().isEmpty()) {
+            System.err.print(commandResult.stderr());
+        }
 
-            return result;
+        // Lấy exit status của lệnh (0 = thành công, != 0 = lỗi)
+        int exitStatus = commandResult.exitStatus();
+        String result = commandResult.stdout().trim();
 
-        } finally {
-            // Bước 9: Đảm bảo đóng channel dù có lỗi hay không
-            if (channelExec != null && channelExec.isConnected()) {
-                channelExec.disconnect();
+        if (exitStatus != 0) {
+            if (ignoreNonZeroExit) {
+                // Nếu cho phép ignore, bỏ qua lỗi (không throw exception)
+            } else {
+                // Nếu không cho phép ignore, throw exception
+                throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
             }
         }
-    }
 
-    /**
-     * Parse chuỗi CPU từ kubectl về đơn vị cores (double).
-     * 
-     * Kubernetes có thể trả về CPU theo 2 định dạng:
-     * - Millicores: "15m", "3950m" (m = millicores, 1000m = 1 core)
-     * - Cores: "0.2", "4", "1.5" (số cores trực tiếp)
-     * 
-     * Logic xử lý:
-     * 1. Kiểm tra chuỗi có rỗng không
-     * 2. Chuyển về lowercase để xử lý
-     * 3. Nếu kết thúc bằng "m" → millicores, chia cho 1000 để chuyển sang cores
-     * 4. Nếu không → cores trực tiếp, parse thành double
-     * 
-     * Ví dụ:
-     * - "15m" → 0.015 cores
-     * - "3950m" → 3.95 cores
-     * - "0.2" → 0.2 cores
-     * - "4" → 4.0 cores
-     * 
-     * @param cpuStr Chuỗi CPU từ kubectl (ví dụ: "15m", "0.2", "3950m")
-     * @return double số cores (ví dụ: 0.015, 0.2, 3.95)
-     */
-    private double parseCpuCores(String cpuStr) {
-        // Kiểm tra chuỗi rỗng
-        if (cpuStr == null || cpuStr.isEmpty()) {
-            return 0.0;
-        }
-        
-        // Chuyển về lowercase và trim để xử lý
-        cpuStr = cpuStr.trim().toLowerCase();
-        
-        // Kiểm tra nếu là millicores (kết thúc bằng "m")
-        if (cpuStr.endsWith("m")) {
-            // Lấy phần số (bỏ ký tự "m" cuối)
-            String value = cpuStr.substring(0, cpuStr.length() - 1);
-            // Chuyển millicores sang cores: chia cho 1000
-            return Double.parseDouble(value) / 1000.0;
-        }
-        
-        // Nếu không có "m", đó là cores trực tiếp
-        return Double.parseDouble(cpuStr);
+        return result;
     }
 
     /**
@@ -1215,178 +1093,71 @@ public class AdminServiceImpl implements AdminService {
     }
 
     /**
-     * Lấy tổng CPU và RAM capacity (tổng dung lượng) của cluster từ kubectl get nodes.
+     * Lấy tổng CPU và RAM capacity (tổng dung lượng) của cluster từ status của các node.
      * 
      * Capacity là tổng tài nguyên vật lý của cluster (tất cả node cộng lại).
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server
-     * 2. Chạy lệnh: kubectl get nodes -o custom-columns=NAME:.metadata.name,CPU:.status.capacity.cpu,RAM:.status.capacity.memory
-     * 3. Parse output để lấy CPU và Memory của từng node
-     * 4. Cộng dồn tất cả node để có tổng capacity
-     * 5. Chuyển đổi và làm tròn dữ liệu
+     * 1. Lấy danh sách V1Node qua ClusterMetricsGateway (informer cache, chưa sync thì list trực tiếp)
+     * 2. Đọc status.capacity (cpu, memory) của từng node dưới dạng Quantity
+     * 3. Cộng dồn tất cả node để có tổng capacity
+     * 4. Chuyển đổi và làm tròn dữ liệu
      * 
      * @return ClusterCapacityResponse chứa tổng CPU cores và Memory GB của cluster
-     * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi thực thi lệnh
+     * @throws RuntimeException nếu không thể kết nối API server
      */
     @Override
     public ClusterCapacityResponse getClusterCapacity() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
         try {
-            // Kết nối SSH đến MASTER server
-            session = createSession(masterServer);
-            
-            // Tạo lệnh kubectl get nodes với custom columns để lấy CPU và Memory capacity
-            // Output format: NAME    CPU    RAM
-            //                node1   4      8Gi
-            //                node2   4      8Gi
-            String command = "kubectl get nodes -o custom-columns=NAME:.metadata.name,CPU:.status.capacity.cpu,RAM:.status.capacity.memory";
-            
-            // Thực thi lệnh (ignoreNonZeroExit=false vì lệnh này phải thành công)
-            String output = executeCommand(session, command, false);
-
-            // Khởi tạo biến để cộng dồn
-            double totalCpu = 0.0;        // Tổng CPU cores
-            long totalMemoryBytes = 0L;   // Tổng Memory bytes
-
-            // Parse output nếu có
-            if (output != null && !output.trim().isEmpty()) {
-                String[] lines = output.split("\\r?\\n");
-                
-                // Bỏ qua dòng header (dòng đầu tiên: "NAME    CPU    RAM")
-                for (int i = 1; i < lines.length; i++) {
-                    String line = lines[i].trim();
-                    if (line.isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Parse dòng: node-name   4   8Gi
-                    // Format: [node-name] [CPU] [Memory]
-                    String[] parts = line.split("\\s+");
-                    if (parts.length >= 3) {
-                        try {
-                            // CPU có thể là số nguyên (cores) hoặc millicores (3950m)
-                            double cpu = parseCpuCores(parts[1]);
-                            // RAM có thể là 8Gi, 16Gi, etc.
-                            long memoryBytes = parseMemoryBytes(parts[2]);
-                            
-                            // Cộng dồn vào tổng
-                            totalCpu += cpu;
-                            totalMemoryBytes += memoryBytes;
-                        } catch (NumberFormatException e) {
-                        }
-                    }
-                }
+            ClusterMetricsGateway.Usage total = ClusterMetricsGateway.Usage.ZERO;
+            for (V1Node node : clusterMetricsGateway.nodes()) {
+                total = total.plus(ClusterMetricsGateway.capacity(node));
             }
 
             // Tạo response và set dữ liệu
             ClusterCapacityResponse response = new ClusterCapacityResponse();
-            response.setTotalCpuCores(roundToThreeDecimals(totalCpu));
-            response.setTotalMemoryGb(roundToThreeDecimals(bytesToGb(totalMemoryBytes)));
+            response.setTotalCpuCores(roundToThreeDecimals(total.cpuCores()));
+            response.setTotalMemoryGb(roundToThreeDecimals(bytesToGb(total.memoryBytes())));
             
             return response;
 
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy cluster capacity: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
     /**
-     * Lấy tổng CPU và RAM allocatable (khả dụng) của cluster từ kubectl get nodes.
+     * Lấy tổng CPU và RAM allocatable (khả dụng) của cluster từ status của các node.
      * 
      * Allocatable là tài nguyên khả dụng sau khi trừ đi phần dành cho hệ thống (system reserved).
      * Thường nhỏ hơn capacity vì một phần tài nguyên được dành cho OS và các thành phần hệ thống.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server
-     * 2. Chạy lệnh: kubectl get nodes -o custom-columns=NAME:.metadata.name,CPU_ALLOC:.status.allocatable.cpu,RAM_ALLOC:.status.allocatable.memory
-     * 3. Parse output để lấy CPU và Memory allocatable của từng node
-     * 4. Cộng dồn tất cả node để có tổng allocatable
-     * 5. Chuyển đổi và làm tròn dữ liệu
+     * 1. Lấy danh sách V1Node qua ClusterMetricsGateway (informer cache, chưa sync thì list trực tiếp)
+     * 2. Đọc status.allocatable (cpu, memory) của từng node dưới dạng Quantity
+     * 3. Cộng dồn tất cả node để có tổng allocatable
+     * 4. Chuyển đổi và làm tròn dữ liệu
      * 
      * @return ClusterAllocatableResponse chứa tổng CPU cores và Memory GB allocatable của cluster
-     * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi thực thi lệnh
+     * @throws RuntimeException nếu không thể kết nối API server
      */
     @Override
     public ClusterAllocatableResponse getClusterAllocatable() {
-        
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
         try {
-            // Kết nối SSH đến MASTER server
-            session = createSession(masterServer);
-            
-            // Tạo lệnh kubectl get nodes với custom columns để lấy CPU và Memory allocatable
-            // Output format: NAME    CPU_ALLOC    RAM_ALLOC
-            //                node1   3950m        16Gi
-            //                node2   3950m        16Gi
-            String command = "kubectl get nodes -o custom-columns=NAME:.metadata.name,CPU_ALLOC:.status.allocatable.cpu,RAM_ALLOC:.status.allocatable.memory";
-            
-            // Thực thi lệnh (ignoreNonZeroExit=false vì lệnh này phải thành công)
-            String output = executeCommand(session, command, false);
-
-            // Khởi tạo biến để cộng dồn
-            double totalCpu = 0.0;        // Tổng CPU cores allocatable
-            long totalMemoryBytes = 0L;   // Tổng Memory bytes allocatable
-
-            // Parse output nếu có
-            if (output != null && !output.trim().isEmpty()) {
-                String[] lines = output.split("\\r?\\n");
-                
-                // Bỏ qua dòng header (dòng đầu tiên: "NAME    CPU_ALLOC    RAM_ALLOC")
-                for (int i = 1; i < lines.length; i++) {
-                    String line = lines[i].trim();
-                    if (line.isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Parse dòng: node-name   3950m   16Gi
-                    // Format: [node-name] [CPU_ALLOC] [Memory_ALLOC]
-                    String[] parts = line.split("\\s+");
-                    if (parts.length >= 3) {
-                        try {
-                            // CPU có thể là 4 hoặc 3950m (millicores)
-                            double cpu = parseCpuCores(parts[1]);
-                            // RAM có thể là 8Gi, 16Gi, etc.
-                            long memoryBytes = parseMemoryBytes(parts[2]);
-                            
-                            // Cộng dồn vào tổng
-                            totalCpu += cpu;
-                            totalMemoryBytes += memoryBytes;
-                        } catch (NumberFormatException e) {
-                            // Bỏ qua dòng không parse được
-                        }
-                    }
-                }
+            ClusterMetricsGateway.Usage total = ClusterMetricsGateway.Usage.ZERO;
+            for (V1Node node : clusterMetricsGateway.nodes()) {
+                total = total.plus(ClusterMetricsGateway.allocatable(node));
             }
 
             // Tạo response và set dữ liệu
             ClusterAllocatableResponse response = new ClusterAllocatableResponse();
-            response.setTotalCpuCores(roundToThreeDecimals(totalCpu));
-            response.setTotalMemoryGb(roundToThreeDecimals(bytesToGb(totalMemoryBytes)));
+            response.setTotalCpuCores(roundToThreeDecimals(total.cpuCores()));
+            response.setTotalMemoryGb(roundToThreeDecimals(bytesToGb(total.memoryBytes())));
             
             return response;
 
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy cluster allocatable: " + e.getMessage(), e);
-        } finally {
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -1471,18 +1242,15 @@ public class AdminServiceImpl implements AdminService {
      * 
      * Quy trình xử lý:
      * 1. Lấy database entity từ database và kiểm tra thông tin cơ bản (project, namespace, uuid_k8s)
-     * 2. Tạo tên các Kubernetes resource dựa trên uuid_k8s:
-     *    - Pod: db-{uuid}-0 (StatefulSet pattern)
+     * 2. Set thông tin database từ entity (IP, Port, name, username, password, type)
+     * 3. Với mỗi loại Pod/Service/StatefulSet/PVC: một lần đọc từ ClusterStateCache theo label
+     *    my-spring-app/component-id={uuid} (label sở hữu được gắn khi deploy)
+     * 4. Database deploy trước khi có label sở hữu: nhận diện theo tên/label chuẩn cũ
+     *    - Pod: db-{uuid}-0 hoặc label app=db-{uuid}
      *    - Service: db-{uuid}-svc
      *    - StatefulSet: db-{uuid}
      *    - PVC: mysql-data-db-{uuid}-0 hoặc mongodb-data-db-{uuid}-0
-     * 3. Kết nối SSH đến MASTER server
-     * 4. Set thông tin database từ entity (IP, Port, name, username, password, type)
-     * 5. Lấy thông tin Pod (name, node, status) - thử theo tên trước, fallback theo label
-     * 6. Lấy thông tin Service (name, external IP, port)
-     * 7. Lấy thông tin StatefulSet (name)
-     * 8. Lấy thông tin PVC (name, status, volume, capacity)
-     * 9. Lấy thông tin PV từ volume name (name, capacity, node)
+     * 5. PV (cluster-scoped) lấy theo volume name của PVC (name, capacity, node)
      * 
      * @param databaseId ID của database cần lấy chi tiết
      * @return AdminDatabaseDetailResponse chứa đầy đủ thông tin database và Kubernetes resources
@@ -1508,32 +1276,23 @@ public class AdminServiceImpl implements AdminService {
         }
         namespace = namespace.trim();
         
-        // Bước 4: Kiểm tra database có uuid_k8s không (bắt buộc để tạo tên resource)
+        // Bước 4: Kiểm tra database có uuid_k8s không (bắt buộc để tra label/tên resource)
         String uuid_k8s = database.getUuid_k8s();
         if (uuid_k8s == null || uuid_k8s.trim().isEmpty()) {
             throw new RuntimeException("Database không có uuid_k8s");
         }
         uuid_k8s = uuid_k8s.trim();
         
-        // Bước 5: Tạo tên các Kubernetes resource dựa trên uuid_k8s
+        // Bước 5: Tên chuẩn cũ, chỉ dùng khi resource chưa có label sở hữu
         String resourceName = "db-" + uuid_k8s;           // Tên chung cho database resource
         String serviceName = resourceName + "-svc";       // Service name: db-{uuid}-svc
         String statefulSetName = resourceName;            // StatefulSet name: db-{uuid}
         String podName = resourceName + "-0";             // Pod name: db-{uuid}-0 (StatefulSet pattern: {name}-{ordinal})
         
-        // Bước 6: Lấy thông tin server MASTER để kết nối SSH
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-        
-        Session session = null;
         AdminDatabaseDetailResponse response = new AdminDatabaseDetailResponse();
         
         try {
-            // Bước 7: Kết nối SSH đến MASTER server
-            session = createSession(masterServer);
-            
-            // Bước 8: Set thông tin database từ entity (không cần truy vấn Kubernetes)
+            // Bước 6: Set thông tin database từ entity (không cần truy vấn Kubernetes)
             response.setDatabaseId(database.getId());
             response.setDatabaseType(database.getDatabaseType());
             response.setDatabaseIp(database.getDatabaseIp());
@@ -1542,163 +1301,90 @@ public class AdminServiceImpl implements AdminService {
             response.setDatabaseUsername(database.getDatabaseUsername());
             response.setDatabasePassword(database.getDatabasePassword());
             
-            // Bước 9: Lấy thông tin Pod (name, node, status)
-            // Strategy: Thử lấy theo pod name trước (StatefulSet pattern), nếu không có thì lấy theo label selector
-            try {
-                
-                // Strategy 1: Thử lấy pod theo tên chính xác (StatefulSet pod name pattern: db-{uuid}-0)
-                String podNameCmd = String.format("kubectl get pod %s -n %s -o jsonpath='{.metadata.name}'", podName, namespace);
-                String podNameResult = executeCommand(session, podNameCmd, true);
-                
-                if (podNameResult != null && !podNameResult.trim().isEmpty()) {
-                    // Tìm thấy pod theo tên, lấy thêm thông tin node và status
-                    response.setPodName(podNameResult.trim());
-                    
-                    // Lấy node mà pod đang chạy
-                    String podNodeCmd = String.format("kubectl get pod %s -n %s -o jsonpath='{.spec.nodeName}'", podName, namespace);
-                    String podNodeResult = executeCommand(session, podNodeCmd, true);
-                    if (podNodeResult != null && !podNodeResult.trim().isEmpty()) {
-                        response.setPodNode(podNodeResult.trim());
-                    }
-                    
-                    // Lấy trạng thái pod (Running, Pending, Error, etc.)
-                    String podStatusCmd = String.format("kubectl get pod %s -n %s -o jsonpath='{.status.phase}'", podName, namespace);
-                    String podStatusResult = executeCommand(session, podStatusCmd, true);
-                    if (podStatusResult != null && !podStatusResult.trim().isEmpty()) {
-                        response.setPodStatus(podStatusResult.trim());
-                    }
-                } else {
-                    // Strategy 2: Fallback - lấy pod theo label selector (app=db-{uuid})
-                    String podJsonPath = "{.items[0].metadata.name},{.items[0].spec.nodeName},{.items[0].status.phase}";
-                    String podCmd = String.format("kubectl get pod -l app=%s -n %s -o jsonpath='%s'", resourceName, namespace, podJsonPath);
-                    String podOutput = executeCommand(session, podCmd, true);
-                    
-                    if (podOutput != null && !podOutput.trim().isEmpty()) {
-                        // Parse output: name,node,status
-                        String[] podParts = podOutput.split(",");
-                        if (podParts.length >= 3) {
-                            response.setPodName(podParts[0].trim());
-                            response.setPodNode(podParts[1].trim());
-                            response.setPodStatus(podParts[2].trim());
-                        }
-                    }
+            // Tên PVC dựa trên database type
+            // PVC name pattern: mysql-data-db-{uuid}-0 hoặc mongodb-data-db-{uuid}-0
+            String pvcNamePattern = database.getDatabaseType().equalsIgnoreCase("MYSQL") 
+                ? "mysql-data-" + statefulSetName + "-0"   // MySQL: mysql-data-db-{uuid}-0
+                : "mongodb-data-" + statefulSetName + "-0"; // MongoDB: mongodb-data-db-{uuid}-0
+            
+            // Bước 7: Thông tin Pod (name, node, status)
+            // Ưu tiên pod theo tên StatefulSet (db-{uuid}-0), nếu không có thì lấy pod đầu tiên của component
+            V1Pod pod = preferNamed(componentResources(V1Pod.class, namespace, uuid_k8s,
+                    item -> podName.equals(nameOf(item)) || hasAppLabel(item, resourceName)), podName);
+            if (pod != null) {
+                response.setPodName(nameOf(pod));
+                if (pod.getSpec() != null && pod.getSpec().getNodeName() != null) {
+                    response.setPodNode(pod.getSpec().getNodeName());
+                }
+                if (pod.getStatus() != null && pod.getStatus().getPhase() != null) {
+                    response.setPodStatus(pod.getStatus().getPhase());
                 }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Pod
             }
             
-            // Bước 10: Lấy thông tin Service (name, external IP, port)
-            try {
-                // Lấy name, external IP (nếu có LoadBalancer), và port trong một lệnh
-                String svcJsonPath = "{.metadata.name},{.status.loadBalancer.ingress[0].ip},{.spec.ports[0].port}";
-                String svcCmd = String.format("kubectl get svc %s -n %s -o jsonpath='%s'", serviceName, namespace, svcJsonPath);
-                String svcOutput = executeCommand(session, svcCmd, true);
+            // Bước 8: Thông tin Service (name, external IP, port)
+            V1Service service = preferNamed(componentResources(V1Service.class, namespace, uuid_k8s,
+                    item -> serviceName.equals(nameOf(item))), serviceName);
+            if (service != null) {
+                response.setServiceName(nameOf(service));
                 
-                if (svcOutput != null && !svcOutput.trim().isEmpty()) {
-                    // Parse output: name,externalIp,port
-                    String[] svcParts = svcOutput.split(",");
-                    if (svcParts.length >= 1) {
-                        response.setServiceName(svcParts[0].trim());
-                        
-                        // External IP chỉ có nếu Service type là LoadBalancer
-                        if (svcParts.length >= 2 && !svcParts[1].trim().isEmpty()) {
-                            response.setServiceExternalIp(svcParts[1].trim());
-                        }
-                        
-                        // Port của service
-                        if (svcParts.length >= 3 && !svcParts[2].trim().isEmpty()) {
-                            try {
-                                response.setServicePort(Integer.parseInt(svcParts[2].trim()));
-                            } catch (NumberFormatException e) {
-                                // Ignore
-                            }
-                        }
-                    }
+                // External IP chỉ có nếu Service type là LoadBalancer
+                V1ServiceStatus serviceStatus = service.getStatus();
+                if (serviceStatus != null && serviceStatus.getLoadBalancer() != null
+                        && serviceStatus.getLoadBalancer().getIngress() != null
+                        && !serviceStatus.getLoadBalancer().getIngress().isEmpty()
+                        && serviceStatus.getLoadBalancer().getIngress().get(0).getIp() != null) {
+                    response.setServiceExternalIp(serviceStatus.getLoadBalancer().getIngress().get(0).getIp());
+                }
+                
+                // Port của service
+                V1ServicePort servicePort = firstPort(service);
+                if (servicePort != null) {
+                    response.setServicePort(servicePort.getPort());
                 }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Service
             }
             
-            // Bước 11: Lấy thông tin StatefulSet (name)
-            try {
-                String stsCmd = String.format("kubectl get statefulset %s -n %s -o jsonpath='{.metadata.name}'", statefulSetName, namespace);
-                String stsOutput = executeCommand(session, stsCmd, true);
-                if (stsOutput != null && !stsOutput.trim().isEmpty()) {
-                    response.setStatefulSetName(stsOutput.trim());
-                }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin StatefulSet
+            // Bước 9: Thông tin StatefulSet (name)
+            V1StatefulSet statefulSet = preferNamed(componentResources(V1StatefulSet.class, namespace, uuid_k8s,
+                    item -> statefulSetName.equals(nameOf(item))), statefulSetName);
+            if (statefulSet != null) {
+                response.setStatefulSetName(nameOf(statefulSet));
             }
             
-            // Bước 12: Lấy thông tin PVC (PersistentVolumeClaim) - tìm PVC liên quan đến StatefulSet
-            // PVC name pattern: mysql-data-db-{uuid}-0 hoặc mongodb-data-db-{uuid}-0
-            try {
-                
-                // Tạo tên PVC dựa trên database type
-                String pvcNamePattern = database.getDatabaseType().equalsIgnoreCase("MYSQL") 
-                    ? "mysql-data-" + statefulSetName + "-0"   // MySQL: mysql-data-db-{uuid}-0
-                    : "mongodb-data-" + statefulSetName + "-0"; // MongoDB: mongodb-data-db-{uuid}-0
-                
-                // Lấy name, status, volume name, và capacity trong một lệnh
-                String pvcJsonPath = "{.metadata.name},{.status.phase},{.spec.volumeName},{.status.capacity.storage}";
-                String pvcCmd = String.format("kubectl get pvc %s -n %s -o jsonpath='%s'", pvcNamePattern, namespace, pvcJsonPath);
-                String pvcOutput = executeCommand(session, pvcCmd, true);
-                
-                if (pvcOutput != null && !pvcOutput.trim().isEmpty()) {
-                    // Parse output: name,status,volumeName,capacity
-                    String[] pvcParts = pvcOutput.split(",");
-                    if (pvcParts.length >= 1) {
-                        response.setPvcName(pvcParts[0].trim());
-                        
-                        if (pvcParts.length >= 2) {
-                            response.setPvcStatus(pvcParts[1].trim());
-                        }
-                        
-                        if (pvcParts.length >= 3) {
-                            response.setPvcVolume(pvcParts[2].trim());
-                        }
-                        
-                        if (pvcParts.length >= 4) {
-                            response.setPvcCapacity(pvcParts[3].trim());
-                        }
-                    }
+            // Bước 10: Thông tin PVC (name, status, volume, capacity)
+            V1PersistentVolumeClaim pvc = preferNamed(componentResources(V1PersistentVolumeClaim.class, namespace, uuid_k8s,
+                    item -> pvcNamePattern.equals(nameOf(item))), pvcNamePattern);
+            if (pvc != null) {
+                response.setPvcName(nameOf(pvc));
+                if (pvc.getStatus() != null && pvc.getStatus().getPhase() != null) {
+                    response.setPvcStatus(pvc.getStatus().getPhase());
+                }
+                if (pvc.getSpec() != null && pvc.getSpec().getVolumeName() != null) {
+                    response.setPvcVolume(pvc.getSpec().getVolumeName());
+                }
+                if (pvc.getStatus() != null && pvc.getStatus().getCapacity() != null
+                        && pvc.getStatus().getCapacity().get("storage") != null) {
+                    response.setPvcCapacity(pvc.getStatus().getCapacity().get("storage").toSuffixedString());
                 }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin PVC
             }
             
-            // Bước 13: Lấy thông tin PV (PersistentVolume) - chỉ lấy nếu có PVC volume name
+            // Bước 11: Thông tin PV (name, capacity, node) - chỉ có nếu PVC đã bind volume
             // PV là tài nguyên cluster-level, không thuộc namespace
-            if (response.getPvcVolume() != null && !response.getPvcVolume().isEmpty()) {
-                try {
-                    
-                    // Lấy PV name (thường trùng với volume name)
-                    String pvNameCmd = String.format("kubectl get pv %s -o jsonpath='{.metadata.name}'", response.getPvcVolume());
-                    String pvName = executeCommand(session, pvNameCmd, true);
-                    if (pvName != null && !pvName.trim().isEmpty()) {
-                        response.setPvName(pvName.trim());
-                    }
-                    
-                    // Lấy PV capacity (dung lượng storage)
-                    String pvCapacityCmd = String.format("kubectl get pv %s -o jsonpath='{.spec.capacity.storage}'", response.getPvcVolume());
-                    String pvCapacity = executeCommand(session, pvCapacityCmd, true);
-                    if (pvCapacity != null && !pvCapacity.trim().isEmpty()) {
-                        response.setPvCapacity(pvCapacity.trim());
+            // nodeAffinity chỉ tồn tại khi PV được bind với một node cụ thể (local storage)
+            String volumeName = response.getPvcVolume();
+            if (volumeName != null && !volumeName.isEmpty()) {
+                List<V1PersistentVolume> volumes = clusterStateCache.query(V1PersistentVolume.class,
+                        ListQuery.ALL.withFilter(item -> volumeName.equals(nameOf(item)))).items();
+                if (!volumes.isEmpty()) {
+                    V1PersistentVolume pv = volumes.get(0);
+                    response.setPvName(nameOf(pv));
+                    V1PersistentVolumeSpec pvSpec = pv.getSpec();
+                    if (pvSpec != null && pvSpec.getCapacity() != null && pvSpec.getCapacity().get("storage") != null) {
+                        response.setPvCapacity(pvSpec.getCapacity().get("storage").toSuffixedString());
                     }
-                    
-                    // Thử lấy node từ nodeAffinity (chỉ có với local storage, có thể không có)
-                    // nodeAffinity chỉ tồn tại khi PV được bind với một node cụ thể (local storage)
-                    try {
-                        String pvNodeCmd = String.format("kubectl get pv %s -o jsonpath='{.spec.nodeAffinity.required.nodeSelectorTerms[0].matchExpressions[0].values[0]}'", response.getPvcVolume());
-                        String pvNode = executeCommand(session, pvNodeCmd, true);
-                        if (pvNode != null && !pvNode.trim().isEmpty() && !pvNode.trim().equals("<none>")) {
-                            response.setPvNode(pvNode.trim());
-                        }
-                    } catch (Exception e) {
-                        // Node info có thể không có, bỏ qua
+                    String pvNode = pvNode(pvSpec);
+                    if (pvNode != null) {
+                        response.setPvNode(pvNode);
                     }
-                } catch (Exception e) {
-                    // Bỏ qua lỗi khi lấy thông tin PV
                 }
             }
             
@@ -1706,10 +1392,6 @@ public class AdminServiceImpl implements AdminService {
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy chi tiết database: " + e.getMessage(), e);
-        } finally {
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -1718,16 +1400,10 @@ public class AdminServiceImpl implements AdminService {
      * 
      * Quy trình xử lý:
      * 1. Lấy backend entity và kiểm tra thông tin cơ bản (project, namespace, uuid_k8s)
-     * 2. Tạo tên các Kubernetes resource:
-     *    - Deployment: app-{uuid}
-     *    - Service: app-{uuid}-svc
-     *    - Ingress: app-{uuid}-ing
-     * 3. Kết nối SSH đến MASTER server
-     * 4. Set thông tin backend từ entity (deployment type, framework, domain, docker image, database connection)
-     * 5. Lấy thông tin Deployment (name, replicas)
-     * 6. Lấy thông tin Pod (name, node, status) - lấy pod đầu tiên từ deployment
-     * 7. Lấy thông tin Service (name, type, port)
-     * 8. Lấy thông tin Ingress (name, hosts, address, port, class) - có fallback nếu không tìm thấy theo tên
+     * 2. Set thông tin backend từ entity (deployment type, framework, domain, docker image, database connection)
+     * 3. Đọc Deployment, Pod, Service, Ingress của component qua readWorkload
+     *    (mỗi loại một lần đọc theo label sở hữu, fallback theo tên app-{uuid} / app-{uuid}-svc / app-{uuid}-ing)
+     * 4. Replicas lấy từ Deployment, không có thì lấy từ entity
      * 
      * @param backendId ID của backend cần lấy chi tiết
      * @return AdminBackendDetailResponse chứa đầy đủ thông tin backend và Kubernetes resources
@@ -1759,25 +1435,10 @@ public class AdminServiceImpl implements AdminService {
         }
         uuid_k8s = uuid_k8s.trim();
         
-        // Bước 5: Tạo tên các Kubernetes resource dựa trên uuid_k8s
-        String resourceName = "app-" + uuid_k8s;           // Tên chung cho backend resource
-        String deploymentName = resourceName;               // Deployment name: app-{uuid}
-        String serviceName = resourceName + "-svc";          // Service name: app-{uuid}-svc
-        String ingressName = resourceName + "-ing";         // Ingress name: app-{uuid}-ing
-        
-        // Bước 6: Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-        
-        Session session = null;
         AdminBackendDetailResponse response = new AdminBackendDetailResponse();
         
         try {
-            // Bước 7: Kết nối SSH đến MASTER server
-            session = createSession(masterServer);
-            
-            // Bước 8: Set thông tin backend từ entity (không cần truy vấn Kubernetes)
+            // Bước 5: Set thông tin backend từ entity (không cần truy vấn Kubernetes)
             response.setBackendId(backend.getId());
             response.setProjectName(backend.getProjectName());
             response.setDeploymentType(backend.getDeploymentType());
@@ -1785,181 +1446,33 @@ public class AdminServiceImpl implements AdminService {
             response.setDomainNameSystem(backend.getDomainNameSystem());
             response.setDockerImage(backend.getDockerImage());
             
-            // Bước 9: Set thông tin kết nối database (backend sử dụng để kết nối database)
+            // Bước 6: Set thông tin kết nối database (backend sử dụng để kết nối database)
             response.setDatabaseIp(backend.getDatabaseIp());
             response.setDatabasePort(backend.getDatabasePort());
             response.setDatabaseName(backend.getDatabaseName());
             response.setDatabaseUsername(backend.getDatabaseUsername());
             response.setDatabasePassword(backend.getDatabasePassword());
             
-            // Bước 10: Lấy thông tin Deployment (name, replicas)
-            try {
-                String deployNameCmd = String.format("kubectl get deployment %s -n %s -o jsonpath='{.metadata.name}'", deploymentName, namespace);
-                String deployName = executeCommand(session, deployNameCmd, true);
-                if (deployName != null && !deployName.trim().isEmpty()) {
-                    response.setDeploymentName(deployName.trim());
-                }
-                
-                String deployReplicasCmd = String.format("kubectl get deployment %s -n %s -o jsonpath='{.spec.replicas}'", deploymentName, namespace);
-                String deployReplicas = executeCommand(session, deployReplicasCmd, true);
-                if (deployReplicas != null && !deployReplicas.trim().isEmpty()) {
-                    try {
-                        response.setReplicas(Integer.parseInt(deployReplicas.trim()));
-                    } catch (NumberFormatException e) {
-                        // Fallback: sử dụng replicas từ entity
-                        response.setReplicas(backend.getReplicas());
-                    }
-                } else {
-                    response.setReplicas(backend.getReplicas());
-                }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Deployment, sử dụng giá trị mặc định
-                response.setDeploymentName(deploymentName);
-                response.setReplicas(backend.getReplicas());
-            }
-            
-            // Lấy thông tin Pod (lấy pod đầu tiên từ deployment)
-            try {
-                String podJsonPath = "{.items[0].metadata.name},{.items[0].spec.nodeName},{.items[0].status.phase}";
-                String podCmd = String.format("kubectl get pod -l app=%s -n %s -o jsonpath='%s'", resourceName, namespace, podJsonPath);
-                String podOutput = executeCommand(session, podCmd, true);
-                if (podOutput != null && !podOutput.trim().isEmpty()) {
-                    String[] podParts = podOutput.split(",");
-                    if (podParts.length >= 3) {
-                        response.setPodName(podParts[0].trim());
-                        response.setPodNode(podParts[1].trim());
-                        response.setPodStatus(podParts[2].trim());
-                    }
-                }
-            } catch (Exception e) {
-            }
-            
-            // Lấy thông tin Service
-            try {
-                String svcNameCmd = String.format("kubectl get svc %s -n %s -o jsonpath='{.metadata.name}'", serviceName, namespace);
-                String svcName = executeCommand(session, svcNameCmd, true);
-                if (svcName != null && !svcName.trim().isEmpty()) {
-                    response.setServiceName(svcName.trim());
-                }
-                
-                String svcTypeCmd = String.format("kubectl get svc %s -n %s -o jsonpath='{.spec.type}'", serviceName, namespace);
-                String svcType = executeCommand(session, svcTypeCmd, true);
-                if (svcType != null && !svcType.trim().isEmpty()) {
-                    response.setServiceType(svcType.trim());
-                }
-                
-                String svcPortCmd = String.format("kubectl get svc %s -n %s -o jsonpath='{.spec.ports[0].port}'", serviceName, namespace);
-                String svcPort = executeCommand(session, svcPortCmd, true);
-                if (svcPort != null && !svcPort.trim().isEmpty()) {
-                    response.setServicePort(svcPort.trim());
-                }
-            } catch (Exception e) {
-            }
-            
-            // Bước 13: Lấy thông tin Ingress (name, hosts, address, port, class)
-            // Strategy: Thử tìm theo tên trước, nếu không có thì tìm tất cả ingress và filter theo service name
-            try {
-                
-                // Strategy 1: Kiểm tra xem ingress có tồn tại không (theo tên chuẩn)
-                String checkIngressCmd = String.format("kubectl get ingress %s -n %s --ignore-not-found -o name", ingressName, namespace);
-                String ingressExists = executeCommand(session, checkIngressCmd, true);
-                
-                if (ingressExists != null && !ingressExists.trim().isEmpty() && ingressExists.contains("ingress")) {
-                    // Tìm thấy ingress theo tên chuẩn
-                    response.setIngressName(ingressName);
-                    
-                    // Lấy hosts (danh sách domain names được cấu hình)
-                    String ingressHostsCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].host}'", ingressName, namespace);
-                    String ingressHosts = executeCommand(session, ingressHostsCmd, true);
-                    if (ingressHosts != null && !ingressHosts.trim().isEmpty()) {
-                        response.setIngressHosts(ingressHosts.trim());
-                    }
-                    
-                    // Lấy address (có thể là IP hoặc hostname từ LoadBalancer)
-                    String ingressAddressCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.status.loadBalancer.ingress[0].ip}{.status.loadBalancer.ingress[0].hostname}'", ingressName, namespace);
-                    String ingressAddress = executeCommand(session, ingressAddressCmd, true);
-                    if (ingressAddress != null && !ingressAddress.trim().isEmpty() && !ingressAddress.trim().equals("<none>")) {
-                        response.setIngressAddress(ingressAddress.trim());
-                    }
-                    
-                    // Lấy port (từ backend service port được cấu hình trong ingress)
-                    String ingressPortCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].http.paths[*].backend.service.port.number}'", ingressName, namespace);
-                    String ingressPort = executeCommand(session, ingressPortCmd, true);
-                    if (ingressPort != null && !ingressPort.trim().isEmpty()) {
-                        // Lấy port đầu tiên nếu có nhiều port (split bằng khoảng trắng)
-                        String[] ports = ingressPort.trim().split("\\s+");
-                        if (ports.length > 0) {
-                            response.setIngressPort(ports[0]);
-                        }
-                    }
-                    
-                    // Lấy ingress class (ví dụ: nginx, traefik, etc.)
-                    String ingressClassCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.ingressClassName}'", ingressName, namespace);
-                    String ingressClass = executeCommand(session, ingressClassCmd, true);
-                    if (ingressClass != null && !ingressClass.trim().isEmpty()) {
-                        response.setIngressClass(ingressClass.trim());
-                    }
-                } else {
-                    // Strategy 2: Fallback - tìm tất cả ingress trong namespace và filter theo service name
-                    String findIngressCmd = String.format("kubectl get ingress -n %s -o jsonpath='{range .items[*]}{.metadata.name}{\\\"\\t\\\"}{.spec.rules[*].http.paths[*].backend.service.name}{\\\"\\n\\\"}{end}'", namespace);
-                    String allIngresses = executeCommand(session, findIngressCmd, true);
-                    
-                    if (allIngresses != null && !allIngresses.trim().isEmpty()) {
-                        String[] lines = allIngresses.split("\n");
-                        
-                        // Tìm ingress có backend service trùng với serviceName
-                        for (String line : lines) {
-                            if (line.contains(serviceName)) {
-                                String[] parts = line.split("\t");
-                                if (parts.length > 0) {
-                                    String foundIngressName = parts[0].trim();
-                                    response.setIngressName(foundIngressName);
-                                    
-                                    // Lấy các thông tin tương tự như Strategy 1
-                                    String ingressHostsCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].host}'", foundIngressName, namespace);
-                                    String ingressHosts = executeCommand(session, ingressHostsCmd, true);
-                                    if (ingressHosts != null && !ingressHosts.trim().isEmpty()) {
-                                        response.setIngressHosts(ingressHosts.trim());
-                                    }
-                                    
-                                    String ingressAddressCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.status.loadBalancer.ingress[0].ip}{.status.loadBalancer.ingress[0].hostname}'", foundIngressName, namespace);
-                                    String ingressAddress = executeCommand(session, ingressAddressCmd, true);
-                                    if (ingressAddress != null && !ingressAddress.trim().isEmpty() && !ingressAddress.trim().equals("<none>")) {
-                                        response.setIngressAddress(ingressAddress.trim());
-                                    }
-                                    
-                                    String ingressPortCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].http.paths[*].backend.service.port.number}'", foundIngressName, namespace);
-                                    String ingressPort = executeCommand(session, ingressPortCmd, true);
-                                    if (ingressPort != null && !ingressPort.trim().isEmpty()) {
-                                        String[] ports = ingressPort.trim().split("\\s+");
-                                        if (ports.length > 0) {
-                                            response.setIngressPort(ports[0]);
-                                        }
-                                    }
-                                    
-                                    String ingressClassCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.ingressClassName}'", foundIngressName, namespace);
-                                    String ingressClass = executeCommand(session, ingressClassCmd, true);
-                                    if (ingressClass != null && !ingressClass.trim().isEmpty()) {
-                                        response.setIngressClass(ingressClass.trim());
-                                    }
-                                    break;  // Tìm thấy rồi, không cần tìm tiếp
-                                }
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Ingress
-            }
+            // Bước 7: Deployment, Pod, Service, Ingress của component
+            WorkloadResources workload = readWorkload(namespace, uuid_k8s);
+            response.setDeploymentName(workload.deploymentName());
+            response.setReplicas(workload.replicas() != null ? workload.replicas() : backend.getReplicas());
+            response.setPodName(workload.podName());
+            response.setPodNode(workload.podNode());
+            response.setPodStatus(workload.podStatus());
+            response.setServiceName(workload.serviceName());
+            response.setServiceType(workload.serviceType());
+            response.setServicePort(workload.servicePort());
+            response.setIngressName(workload.ingressName());
+            response.setIngressHosts(workload.ingressHosts());
+            response.setIngressAddress(workload.ingressAddress());
+            response.setIngressPort(workload.ingressPort());
+            response.setIngressClass(workload.ingressClass());
             
             return response;
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy chi tiết backend: " + e.getMessage(), e);
-        } finally {
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -1970,10 +1483,8 @@ public class AdminServiceImpl implements AdminService {
      * 
      * Quy trình xử lý:
      * 1. Lấy frontend entity và kiểm tra thông tin cơ bản (project, namespace, uuid_k8s)
-     * 2. Tạo tên các Kubernetes resource (giống backend: app-{uuid})
-     * 3. Kết nối SSH đến MASTER server
-     * 4. Set thông tin frontend từ entity (deployment type, framework, domain, docker image)
-     * 5. Lấy thông tin Deployment, Pod, Service, Ingress (tương tự backend)
+     * 2. Set thông tin frontend từ entity (deployment type, framework, domain, docker image)
+     * 3. Đọc Deployment, Pod, Service, Ingress của component qua readWorkload (giống backend)
      * 
      * @param frontendId ID của frontend cần lấy chi tiết
      * @return AdminFrontendDetailResponse chứa đầy đủ thông tin frontend và Kubernetes resources
@@ -2005,25 +1516,10 @@ public class AdminServiceImpl implements AdminService {
         }
         uuid_k8s = uuid_k8s.trim();
         
-        // Bước 5: Tạo tên các Kubernetes resource (giống backend)
-        String resourceName = "app-" + uuid_k8s;           // Tên chung cho frontend resource
-        String deploymentName = resourceName;               // Deployment name: app-{uuid}
-        String serviceName = resourceName + "-svc";          // Service name: app-{uuid}-svc
-        String ingressName = resourceName + "-ing";         // Ingress name: app-{uuid}-ing
-        
-        // Bước 6: Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-        
-        Session session = null;
         AdminFrontendDetailResponse response = new AdminFrontendDetailResponse();
         
         try {
-            // Bước 7: Kết nối SSH đến MASTER server
-            session = createSession(masterServer);
-            
-            // Bước 8: Set thông tin frontend từ entity (không cần truy vấn Kubernetes)
+            // Bước 5: Set thông tin frontend từ entity (không cần truy vấn Kubernetes)
             response.setFrontendId(frontend.getId());
             response.setProjectName(frontend.getProjectName());
             response.setDeploymentType(frontend.getDeploymentType());
@@ -2031,424 +1527,495 @@ public class AdminServiceImpl implements AdminService {
             response.setDomainNameSystem(frontend.getDomainNameSystem());
             response.setDockerImage(frontend.getDockerImage());
             
-            // Bước 9: Lấy thông tin Deployment (name, replicas) - tương tự backend
-            try {
-                String deployNameCmd = String.format("kubectl get deployment %s -n %s -o jsonpath='{.metadata.name}'", deploymentName, namespace);
-                String deployName = executeCommand(session, deployNameCmd, true);
-                if (deployName != null && !deployName.trim().isEmpty()) {
-                    response.setDeploymentName(deployName.trim());
-                }
-                
-                String deployReplicasCmd = String.format("kubectl get deployment %s -n %s -o jsonpath='{.spec.replicas}'", deploymentName, namespace);
-                String deployReplicas = executeCommand(session, deployReplicasCmd, true);
-                if (deployReplicas != null && !deployReplicas.trim().isEmpty()) {
-                    try {
-                        response.setReplicas(Integer.parseInt(deployReplicas.trim()));
-                    } catch (NumberFormatException e) {
-                        // Fallback: sử dụng replicas từ entity
-                        response.setReplicas(frontend.getReplicas());
-                    }
-                } else {
-                    response.setReplicas(frontend.getReplicas());
-                }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Deployment, sử dụng giá trị mặc định
-                response.setDeploymentName(deploymentName);
-                response.setReplicas(frontend.getReplicas());
-            }
-            
-            // Bước 10: Lấy thông tin Pod (name, node, status) - tương tự backend
-            try {
-                String podJsonPath = "{.items[0].metadata.name},{.items[0].spec.nodeName},{.items[0].status.phase}";
-                String podCmd = String.format("kubectl get pod -l app=%s -n %s -o jsonpath='%s'", resourceName, namespace, podJsonPath);
-                String podOutput = executeCommand(session, podCmd, true);
-                if (podOutput != null && !podOutput.trim().isEmpty()) {
-                    String[] podParts = podOutput.split(",");
-                    if (podParts.length >= 3) {
-                        response.setPodName(podParts[0].trim());
-                        response.setPodNode(podParts[1].trim());
-                        response.setPodStatus(podParts[2].trim());
-                    }
-                }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Pod
-            }
+            // Bước 6: Deployment, Pod, Service, Ingress của component
+            WorkloadResources workload = readWorkload(namespace, uuid_k8s);
+            response.setDeploymentName(workload.deploymentName());
+            response.setReplicas(workload.replicas() != null ? workload.replicas() : frontend.getReplicas());
+            response.setPodName(workload.podName());
+            response.setPodNode(workload.podNode());
+            response.setPodStatus(workload.podStatus());
+            response.setServiceName(workload.serviceName());
+            response.setServiceType(workload.serviceType());
+            response.setServicePort(workload.servicePort());
+            response.setIngressName(workload.ingressName());
+            response.setIngressHosts(workload.ingressHosts());
+            response.setIngressAddress(workload.ingressAddress());
+            response.setIngressPort(workload.ingressPort());
+            response.setIngressClass(workload.ingressClass());
             
-            // Bước 11: Lấy thông tin Service (name, type, port) - tương tự backend
-            try {
-                String svcNameCmd = String.format("kubectl get svc %s -n %s -o jsonpath='{.metadata.name}'", serviceName, namespace);
-                String svcName = executeCommand(session, svcNameCmd, true);
-                if (svcName != null && !svcName.trim().isEmpty()) {
-                    response.setServiceName(svcName.trim());
-                }
-                
-                String svcTypeCmd = String.format("kubectl get svc %s -n %s -o jsonpath='{.spec.type}'", serviceName, namespace);
-                String svcType = executeCommand(session, svcTypeCmd, true);
-                if (svcType != null && !svcType.trim().isEmpty()) {
-                    response.setServiceType(svcType.trim());
-                }
-                
-                String svcPortCmd = String.format("kubectl get svc %s -n %s -o jsonpath='{.spec.ports[0].port}'", serviceName, namespace);
-                String svcPort = executeCommand(session, svcPortCmd, true);
-                if (svcPort != null && !svcPort.trim().isEmpty()) {
-                    response.setServicePort(svcPort.trim());
-                }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Service
-            }
+            return response;
             
-            // Bước 12: Lấy thông tin Ingress (name, hosts, address, port, class) - tương tự backend
-            // Strategy: Thử tìm theo tên trước, nếu không có thì tìm tất cả ingress và filter theo service name
-            try {
-                // Strategy 1: Kiểm tra ingress có tồn tại không (theo tên chuẩn)
-                String checkIngressCmd = String.format("kubectl get ingress %s -n %s --ignore-not-found -o name", ingressName, namespace);
-                String ingressExists = executeCommand(session, checkIngressCmd, true);
-                
-                if (ingressExists != null && !ingressExists.trim().isEmpty() && ingressExists.contains("ingress")) {
-                    // Tìm thấy ingress theo tên chuẩn
-                    response.setIngressName(ingressName);
-                    
-                    // Lấy hosts
-                    String ingressHostsCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].host}'", ingressName, namespace);
-                    String ingressHosts = executeCommand(session, ingressHostsCmd, true);
-                    if (ingressHosts != null && !ingressHosts.trim().isEmpty()) {
-                        response.setIngressHosts(ingressHosts.trim());
-                    }
-                    
-                    // Lấy address
-                    String ingressAddressCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.status.loadBalancer.ingress[0].ip}{.status.loadBalancer.ingress[0].hostname}'", ingressName, namespace);
-                    String ingressAddress = executeCommand(session, ingressAddressCmd, true);
-                    if (ingressAddress != null && !ingressAddress.trim().isEmpty() && !ingressAddress.trim().equals("<none>")) {
-                        response.setIngressAddress(ingressAddress.trim());
-                    }
-                    
-                    // Lấy port
-                    String ingressPortCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].http.paths[*].backend.service.port.number}'", ingressName, namespace);
-                    String ingressPort = executeCommand(session, ingressPortCmd, true);
-                    if (ingressPort != null && !ingressPort.trim().isEmpty()) {
-                        String[] ports = ingressPort.trim().split("\\s+");
-                        if (ports.length > 0) {
-                            response.setIngressPort(ports[0]);
+        } catch (Exception e) {
+            throw new RuntimeException("Không thể lấy chi tiết frontend: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Thông tin Kubernetes của một backend/frontend (Deployment, Pod, Service, Ingress).
+     * Field null nếu không tìm thấy resource tương ứng.
+     */
+    private record WorkloadResources(String deploymentName, Integer replicas,
+                                     String podName, String podNode, String podStatus,
+                                     String serviceName, String serviceType, String servicePort,
+                                     String ingressName, String ingressHosts, String ingressAddress,
+                                     String ingressPort, String ingressClass) {
+    }
+
+    /**
+     * Đọc Deployment, Pod, Service, Ingress của một backend/frontend.
+     * 
+     * Quy trình xử lý:
+     * 1. Mỗi loại resource một lần đọc từ ClusterStateCache theo label my-spring-app/component-id={uuid}
+     * 2. Workload deploy trước khi có label sở hữu: nhận diện theo tên chuẩn cũ
+     *    - Deployment: app-{uuid}; Pod: label app=app-{uuid}; Service: app-{uuid}-svc
+     *    - Ingress: app-{uuid}-ing, hoặc ingress có backend service là app-{uuid}-svc
+     * 3. Deployment: name, replicas; Pod: pod đầu tiên (name, node, status); Service: name, type, port đầu tiên
+     * 4. Ingress: name, hosts (cách nhau bằng khoảng trắng), address (IP hoặc hostname), port backend đầu tiên, class
+     * 
+     * @param namespace Namespace của project
+     * @param uuid_k8s uuid_k8s của backend/frontend
+     * @return WorkloadResources (field null nếu không tìm thấy)
+     */
+    private WorkloadResources readWorkload(String namespace, String uuid_k8s) {
+        String resourceName = "app-" + uuid_k8s;           // Deployment name: app-{uuid}
+        String serviceName = resourceName + "-svc";          // Service name: app-{uuid}-svc
+        String ingressName = resourceName + "-ing";         // Ingress name: app-{uuid}-ing
+        
+        // Deployment (name, replicas)
+        String deploymentName = null;
+        Integer replicas = null;
+        V1Deployment deployment = preferNamed(componentResources(V1Deployment.class, namespace, uuid_k8s,
+                item -> resourceName.equals(nameOf(item))), resourceName);
+        if (deployment != null) {
+            deploymentName = nameOf(deployment);
+            replicas = deployment.getSpec() != null ? deployment.getSpec().getReplicas() : null;
+        }
+        
+        // Pod (lấy pod đầu tiên của deployment)
+        String podName = null;
+        String podNode = null;
+        String podStatus = null;
+        List<V1Pod> pods = componentResources(V1Pod.class, namespace, uuid_k8s, item -> hasAppLabel(item, resourceName));
+        if (!pods.isEmpty()) {
+            V1Pod pod = pods.get(0);
+            podName = nameOf(pod);
+            podNode = pod.getSpec() != null ? pod.getSpec().getNodeName() : null;
+            podStatus = pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+        }
+        
+        // Service (name, type, port)
+        String serviceType = null;
+        String servicePort = null;
+        String actualServiceName = null;
+        V1Service service = preferNamed(componentResources(V1Service.class, namespace, uuid_k8s,
+                item -> serviceName.equals(nameOf(item))), serviceName);
+        if (service != null) {
+            actualServiceName = nameOf(service);
+            serviceType = service.getSpec() != null ? service.getSpec().getType() : null;
+            V1ServicePort port = firstPort(service);
+            servicePort = port != null && port.getPort() != null ? String.valueOf(port.getPort()) : null;
+        }
+        
+        // Ingress (name, hosts, address, port, class)
+        String ingressHosts = null;
+        String ingressAddress = null;
+        String ingressPort = null;
+        String ingressClass = null;
+        String actualIngressName = null;
+        V1Ingress ingress = preferNamed(componentResources(V1Ingress.class, namespace, uuid_k8s,
+                item -> ingressName.equals(nameOf(item)) || ingressBackendServices(item).contains(serviceName)), ingressName);
+        if (ingress != null) {
+            actualIngressName = nameOf(ingress);
+            V1IngressSpec spec = ingress.getSpec();
+            if (spec != null) {
+                List<String> hosts = new ArrayList<>();
+                if (spec.getRules() != null) {
+                    for (V1IngressRule rule : spec.getRules()) {
+                        if (rule.getHost() != null && !rule.getHost().isEmpty()) {
+                            hosts.add(rule.getHost());
                         }
-                    }
-                    
-                    // Lấy ingress class
-                    String ingressClassCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.ingressClassName}'", ingressName, namespace);
-                    String ingressClass = executeCommand(session, ingressClassCmd, true);
-                    if (ingressClass != null && !ingressClass.trim().isEmpty()) {
-                        response.setIngressClass(ingressClass.trim());
-                    }
-                } else {
-                    // Strategy 2: Fallback - tìm tất cả ingress và filter theo service name
-                    String findIngressCmd = String.format("kubectl get ingress -n %s -o jsonpath='{range .items[*]}{.metadata.name}{\\\"\\t\\\"}{.spec.rules[*].http.paths[*].backend.service.name}{\\\"\\n\\\"}{end}'", namespace);
-                    String allIngresses = executeCommand(session, findIngressCmd, true);
-                    if (allIngresses != null && !allIngresses.trim().isEmpty()) {
-                        String[] lines = allIngresses.split("\n");
-                        for (String line : lines) {
-                            if (line.contains(serviceName)) {
-                                String[] parts = line.split("\t");
-                                if (parts.length > 0) {
-                                    String foundIngressName = parts[0].trim();
-                                    response.setIngressName(foundIngressName);
-                                    
-                                    // Lấy các thông tin tương tự như Strategy 1
-                                    String ingressHostsCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].host}'", foundIngressName, namespace);
-                                    String ingressHosts = executeCommand(session, ingressHostsCmd, true);
-                                    if (ingressHosts != null && !ingressHosts.trim().isEmpty()) {
-                                        response.setIngressHosts(ingressHosts.trim());
-                                    }
-                                    
-                                    String ingressAddressCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.status.loadBalancer.ingress[0].ip}{.status.loadBalancer.ingress[0].hostname}'", foundIngressName, namespace);
-                                    String ingressAddress = executeCommand(session, ingressAddressCmd, true);
-                                    if (ingressAddress != null && !ingressAddress.trim().isEmpty() && !ingressAddress.trim().equals("<none>")) {
-                                        response.setIngressAddress(ingressAddress.trim());
-                                    }
-                                    
-                                    String ingressPortCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.rules[*].http.paths[*].backend.service.port.number}'", foundIngressName, namespace);
-                                    String ingressPort = executeCommand(session, ingressPortCmd, true);
-                                    if (ingressPort != null && !ingressPort.trim().isEmpty()) {
-                                        String[] ports = ingressPort.trim().split("\\s+");
-                                        if (ports.length > 0) {
-                                            response.setIngressPort(ports[0]);
-                                        }
-                                    }
-                                    
-                                    String ingressClassCmd = String.format("kubectl get ingress %s -n %s -o jsonpath='{.spec.ingressClassName}'", foundIngressName, namespace);
-                                    String ingressClass = executeCommand(session, ingressClassCmd, true);
-                                    if (ingressClass != null && !ingressClass.trim().isEmpty()) {
-                                        response.setIngressClass(ingressClass.trim());
-                                    }
+                        // Lấy port backend đầu tiên nếu có nhiều port
+                        if (ingressPort == null && rule.getHttp() != null && rule.getHttp().getPaths() != null) {
+                            for (V1HTTPIngressPath path : rule.getHttp().getPaths()) {
+                                if (path.getBackend() != null && path.getBackend().getService() != null
+                                        && path.getBackend().getService().getPort() != null
+                                        && path.getBackend().getService().getPort().getNumber() != null) {
+                                    ingressPort = String.valueOf(path.getBackend().getService().getPort().getNumber());
                                     break;
                                 }
                             }
                         }
                     }
                 }
-            } catch (Exception e) {
-                // Bỏ qua lỗi khi lấy thông tin Ingress
+                ingressHosts = hosts.isEmpty() ? null : String.join(" ", hosts);
+                ingressClass = spec.getIngressClassName();
             }
-            
-            return response;
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Không thể lấy chi tiết frontend: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
+            // Address có thể là IP hoặc hostname từ LoadBalancer
+            V1IngressStatus status = ingress.getStatus();
+            if (status != null && status.getLoadBalancer() != null
+                    && status.getLoadBalancer().getIngress() != null
+                    && !status.getLoadBalancer().getIngress().isEmpty()) {
+                V1IngressLoadBalancerIngress lbIngress = status.getLoadBalancer().getIngress().get(0);
+                ingressAddress = lbIngress.getIp() != null ? lbIngress.getIp() : lbIngress.getHostname();
             }
         }
+        
+        return new WorkloadResources(deploymentName, replicas, podName, podNode, podStatus,
+                actualServiceName, serviceType, servicePort,
+                actualIngressName, ingressHosts, ingressAddress, ingressPort, ingressClass);
     }
 
     /**
-     * Lấy thông tin tổng quan về cluster metrics (Nodes, Pods, Deployments, CPU/Memory usage).
+     * Resource của một component trong namespace, sắp xếp theo tên.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server
-     * 2. Lấy thông tin Nodes: kubectl get nodes - đếm total, healthy (Ready), unhealthy (NotReady)
-     * 3. Lấy thông tin Pods: kubectl get pods --all-namespaces - đếm total, running, pending, failed
-     * 4. Lấy thông tin Deployments: kubectl get deployments --all-namespaces - đếm total, active (ready > 0), error (ready = 0)
-     * 5. Lấy CPU/Memory usage từ overview API (tái sử dụng logic có sẵn)
-     * 6. Tổng hợp và trả về DashboardMetricsResponse
+     * 1. Một lần đọc từ ClusterStateCache theo label my-spring-app/component-id={uuid}
+     *    (cache tắt/chưa sync thì ClusterStateCache gửi label selector thẳng xuống API server)
+     * 2. Không có object nào mang label (component deploy trước khi manifest có label sở hữu):
+     *    đọc resource của namespace và lọc theo quy ước tên cũ (legacyMatch)
+     * 
+     * @param type Loại resource (V1Pod, V1Service, V1Ingress...)
+     * @param namespace Namespace của project
+     * @param uuid_k8s uuid_k8s của component
+     * @param legacyMatch Điều kiện nhận diện theo tên/label "app" cho object chưa có label sở hữu
+     * @return Danh sách object (có thể rỗng)
+     */
+    private <T extends KubernetesObject> List<T> componentResources(Class<T> type, String namespace, String uuid_k8s,
+                                                                   Predicate<T> legacyMatch) {
+        ListQuery byLabel = new ListQuery(Set.of(namespace), OwnershipLabels.componentSelector(uuid_k8s),
+                null, "name", null, null, null);
+        List<T> items = clusterStateCache.query(type, byLabel).items();
+        if (!items.isEmpty()) {
+            return items;
+        }
+        ListQuery legacy = new ListQuery(Set.of(namespace), null, null, "name", null, null,
+                object -> legacyMatch.test(type.cast(object)));
+        return clusterStateCache.query(type, legacy).items();
+    }
+
+    /**
+     * Object có tên đúng bằng name, nếu không có thì object đầu tiên (null nếu danh sách rỗng).
+     */
+    private static <T extends KubernetesObject> T preferNamed(List<T> items, String name) {
+        for (T item : items) {
+            if (name.equals(nameOf(item))) {
+                return item;
+            }
+        }
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    private static String nameOf(KubernetesObject object) {
+        return object.getMetadata() != null ? object.getMetadata().getName() : null;
+    }
+
+    private static boolean hasAppLabel(KubernetesObject object, String app) {
+        return object.getMetadata() != null && object.getMetadata().getLabels() != null
+                && app.equals(object.getMetadata().getLabels().get("app"));
+    }
+
+    private static V1ServicePort firstPort(V1Service service) {
+        V1ServiceSpec spec = service.getSpec();
+        return spec != null && spec.getPorts() != null && !spec.getPorts().isEmpty() ? spec.getPorts().get(0) : null;
+    }
+
+    /**
+     * Tên các service mà ingress trỏ tới (spec.rules[*].http.paths[*].backend.service.name).
+     */
+    private static Set<String> ingressBackendServices(V1Ingress ingress) {
+        Set<String> services = new HashSet<>();
+        if (ingress.getSpec() != null && ingress.getSpec().getRules() != null) {
+            for (V1IngressRule rule : ingress.getSpec().getRules()) {
+                if (rule.getHttp() == null || rule.getHttp().getPaths() == null) {
+                    continue;
+                }
+                for (V1HTTPIngressPath path : rule.getHttp().getPaths()) {
+                    if (path.getBackend() != null && path.getBackend().getService() != null) {
+                        services.add(path.getBackend().getService().getName());
+                    }
+                }
+            }
+        }
+        return services;
+    }
+
+    /**
+     * Node mà PV local được gắn vào (nodeAffinity.required.nodeSelectorTerms[0].matchExpressions[0].values[0]).
+     */
+    private static String pvNode(V1PersistentVolumeSpec spec) {
+        if (spec == null || spec.getNodeAffinity() == null || spec.getNodeAffinity().getRequired() == null) {
+            return null;
+        }
+        List<V1NodeSelectorTerm> terms = spec.getNodeAffinity().getRequired().getNodeSelectorTerms();
+        if (terms == null || terms.isEmpty() || terms.get(0).getMatchExpressions() == null
+                || terms.get(0).getMatchExpressions().isEmpty()) {
+            return null;
+        }
+        List<String> values = terms.get(0).getMatchExpressions().get(0).getValues();
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    /**
+     * Lấy thông tin tổng quan về cluster metrics (Nodes, Pods, Deployments, CPU/Memory usage).
      * 
+     * Quy trình xử lý:
+     * 1. Lấy V1Node, V1Pod, V1Deployment qua ClusterMetricsGateway (informer cache, không chạy kubectl)
+     *    (nếu MASTER đang bị circuit breaker chặn thì trả kết quả gần nhất)
+     * 2. Nodes: đếm total, healthy (condition Ready=True), unhealthy
+     * 3. Pods: đếm total, running, pending, failed theo status.phase
+     * 4. Deployments: đếm total, active (readyReplicas > 0), error (spec.replicas > 0 nhưng chưa có replica ready)
+     * 5. CPU/Memory: usage của cluster từ mẫu mới nhất của UsageHistoryStore (không có thì cộng dồn từ
+     *    metrics.k8s.io pods), total là allocatable của các node đã lấy ở bước 1
+     * 6. Tổng hợp và trả về DashboardMetricsResponse, kèm lịch sử CPU/Memory của cluster nếu request có from
+     * 
+     * @param request Khoảng thời gian của lịch sử (có thể null = không kèm lịch sử)
      * @return DashboardMetricsResponse chứa thông tin nodes, pods, deployments, cpuUsage, memoryUsage
-     * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi thực thi lệnh
+     * @throws RuntimeException nếu không thể kết nối API server
      */
     @Override
-    public DashboardMetricsResponse getDashboardMetrics() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
+    public DashboardMetricsResponse getDashboardMetrics(UsageHistoryRequest request) {
+        HistoryRange range = toHistoryRange(request);
+        DashboardMetricsResponse current = currentDashboardMetrics();
+        if (range == null) {
+            return current;
+        }
+        // Response hiện tại được giữ làm cache dùng chung nên lịch sử được gắn vào bản sao
+        return new DashboardMetricsResponse(current.getNodes(), current.getPods(), current.getDeployments(),
+                current.getCpuUsage(), current.getMemoryUsage(),
+                historyPoints(usageHistoryStore.range(UsageHistoryStore.clusterKey(), range.fromMs(), range.toMs(), range.stepMs())));
+    }
 
-        Session session = null;
+    private DashboardMetricsResponse currentDashboardMetrics() {
         try {
-            // Kết nối SSH đến MASTER server
-            session = createSession(masterServer);
-            
+            List<V1Node> clusterNodes = clusterMetricsGateway.nodes();
+            List<V1Pod> clusterPods = clusterMetricsGateway.pods();
+            List<V1Deployment> clusterDeployments = clusterMetricsGateway.deployments();
+
             DashboardMetricsResponse response = new DashboardMetricsResponse();
-            
-            // Bước 1: Lấy thông tin Nodes
-            try {
-                // Lấy danh sách nodes với status - dùng output mặc định và parse từ cột STATUS
-                String nodesCmd = "kubectl get nodes --no-headers";
-                String nodesOutput = executeCommand(session, nodesCmd, true);
-                
-                int totalNodes = 0;
-                int healthyNodes = 0;
-                int unhealthyNodes = 0;
-                
-                if (nodesOutput != null && !nodesOutput.trim().isEmpty()) {
-                    String[] lines = nodesOutput.trim().split("\n");
-                    for (String line : lines) {
-                        if (line.trim().isEmpty()) continue;
-                        totalNodes++;
-                        // Parse status từ output: format "NAME STATUS ROLES AGE VERSION"
-                        // STATUS thường là "Ready" hoặc "NotReady"
-                        String[] parts = line.trim().split("\\s+");
-                        if (parts.length >= 2) {
-                            String status = parts[1].trim();
-                            if (status.equals("Ready")) {
-                                healthyNodes++;
-                            } else {
-                                unhealthyNodes++;
-                            }
-                        } else {
-                            // Nếu không parse được, coi như unhealthy
-                            unhealthyNodes++;
-                        }
-                    }
+
+            // Bước 1: Nodes
+            int healthyNodes = 0;
+            ClusterMetricsGateway.Usage allocatable = ClusterMetricsGateway.Usage.ZERO;
+            for (V1Node node : clusterNodes) {
+                if (ClusterMetricsGateway.isReady(node)) {
+                    healthyNodes++;
                 }
-                
-                response.setNodes(new DashboardMetricsResponse.NodeMetrics(totalNodes, healthyNodes, unhealthyNodes));
-            } catch (Exception e) {
-                // Nếu lỗi, set giá trị mặc định
-                response.setNodes(new DashboardMetricsResponse.NodeMetrics(0, 0, 0));
-            }
-            
-            // Bước 2: Lấy thông tin Pods
-            try {
-                // Lấy danh sách pods với status từ tất cả namespaces
-                String podsCmd = "kubectl get pods --all-namespaces -o custom-columns=NAMESPACE:.metadata.namespace,NAME:.metadata.name,STATUS:.status.phase --no-headers";
-                String podsOutput = executeCommand(session, podsCmd, true);
-                
-                int totalPods = 0;
-                int runningPods = 0;
-                int pendingPods = 0;
-                int failedPods = 0;
-                
-                if (podsOutput != null && !podsOutput.trim().isEmpty()) {
-                    String[] lines = podsOutput.trim().split("\n");
-                    for (String line : lines) {
-                        if (line.trim().isEmpty()) continue;
-                        totalPods++;
-                        // Parse status từ cột thứ 3 (sau namespace và name)
-                        String[] parts = line.trim().split("\\s+");
-                        if (parts.length >= 3) {
-                            String status = parts[2].trim();
-                            if (status.equalsIgnoreCase("Running")) {
-                                runningPods++;
-                            } else if (status.equalsIgnoreCase("Pending")) {
-                                pendingPods++;
-                            } else if (status.equalsIgnoreCase("Failed") || status.equalsIgnoreCase("Error")) {
-                                failedPods++;
-                            }
-                        }
-                    }
+                allocatable = allocatable.plus(ClusterMetricsGateway.allocatable(node));
+            }
+            response.setNodes(new DashboardMetricsResponse.NodeMetrics(
+                    clusterNodes.size(), healthyNodes, clusterNodes.size() - healthyNodes));
+
+            // Bước 2: Pods theo phase
+            int running = 0;
+            int pending = 0;
+            int failed = 0;
+            for (V1Pod pod : clusterPods) {
+                String phase = pod.getStatus() != null ? pod.getStatus().getPhase() : null;
+                if ("Running".equalsIgnoreCase(phase)) {
+                    running++;
+                } else if ("Pending".equalsIgnoreCase(phase)) {
+                    pending++;
+                } else if ("Failed".equalsIgnoreCase(phase)) {
+                    failed++;
                 }
-                
-                response.setPods(new DashboardMetricsResponse.PodMetrics(totalPods, runningPods, pendingPods, failedPods));
-            } catch (Exception e) {
-                // Nếu lỗi, set giá trị mặc định
-                response.setPods(new DashboardMetricsResponse.PodMetrics(0, 0, 0, 0));
             }
-            
-            // Bước 3: Lấy thông tin Deployments
-            try {
-                // Lấy danh sách deployments với ready replicas từ tất cả namespaces
-                String deploymentsCmd = "kubectl get deployments --all-namespaces -o custom-columns=NAMESPACE:.metadata.namespace,NAME:.metadata.name,READY:.status.readyReplicas,DESIRED:.spec.replicas --no-headers";
-                String deploymentsOutput = executeCommand(session, deploymentsCmd, true);
-                
-                int totalDeployments = 0;
-                int activeDeployments = 0;
-                int errorDeployments = 0;
-                
-                if (deploymentsOutput != null && !deploymentsOutput.trim().isEmpty()) {
-                    String[] lines = deploymentsOutput.trim().split("\n");
-                    for (String line : lines) {
-                        if (line.trim().isEmpty()) continue;
-                        totalDeployments++;
-                        // Parse ready và desired replicas
-                        String[] parts = line.trim().split("\\s+");
-                        if (parts.length >= 4) {
-                            try {
-                                int ready = Integer.parseInt(parts[2].trim().equals("<none>") ? "0" : parts[2].trim());
-                                int desired = Integer.parseInt(parts[3].trim());
-                                
-                                // Active: có ít nhất 1 replica ready
-                                if (ready > 0) {
-                                    activeDeployments++;
-                                } else if (desired > 0) {
-                                    // Error: desired > 0 nhưng ready = 0
-                                    errorDeployments++;
-                                }
-                            } catch (NumberFormatException e) {
-                                // Bỏ qua dòng không parse được
-                            }
-                        }
-                    }
+            response.setPods(new DashboardMetricsResponse.PodMetrics(clusterPods.size(), running, pending, failed));
+
+            // Bước 3: Deployments
+            int active = 0;
+            int error = 0;
+            for (V1Deployment deployment : clusterDeployments) {
+                int ready = deployment.getStatus() != null && deployment.getStatus().getReadyReplicas() != null
+                        ? deployment.getStatus().getReadyReplicas() : 0;
+                int desired = deployment.getSpec() != null && deployment.getSpec().getReplicas() != null
+                        ? deployment.getSpec().getReplicas() : 0;
+                if (ready > 0) {
+                    // Active: có ít nhất 1 replica ready
+                    active++;
+                } else if (desired > 0) {
+                    // Error: desired > 0 nhưng ready = 0
+                    error++;
                 }
-                
-                response.setDeployments(new DashboardMetricsResponse.DeploymentMetrics(totalDeployments, activeDeployments, errorDeployments));
-            } catch (Exception e) {
-                // Nếu lỗi, set giá trị mặc định
-                response.setDeployments(new DashboardMetricsResponse.DeploymentMetrics(0, 0, 0));
             }
-            
-            // Bước 4: Lấy CPU/Memory usage từ tất cả pods trong cluster (--all-namespaces)
-            try {
-                // Lấy allocatable để làm total
-                ClusterAllocatableResponse allocatable = getClusterAllocatable();
-                
-                // Tính tổng CPU/Memory từ tất cả pods trong cluster
-                String topPodsCmd = "kubectl top pods --all-namespaces --no-headers";
-                String topPodsOutput = executeCommand(session, topPodsCmd, true);
-                
-                double totalCpuUsed = 0.0;
-                long totalMemoryBytes = 0L;
-                
-                if (topPodsOutput != null && !topPodsOutput.trim().isEmpty()) {
-                    String[] lines = topPodsOutput.trim().split("\n");
-                    for (String line : lines) {
-                        if (line.trim().isEmpty()) continue;
-                        
-                        // Format: NAMESPACE POD_NAME CPU MEMORY
-                        // Ví dụ: default nginx-pod 15m 100Mi
-                        String[] parts = line.trim().split("\\s+");
-                        if (parts.length >= 4) {
-                            try {
-                                // Parse CPU từ cột thứ 3 (index 2)
-                                double cpu = parseCpuCores(parts[2]);
-                                // Parse Memory từ cột thứ 4 (index 3)
-                                long memory = parseMemoryBytes(parts[3]);
-                                
-                                totalCpuUsed += cpu;
-                                totalMemoryBytes += memory;
-                            } catch (NumberFormatException e) {
-                                // Bỏ qua dòng không parse được
-                            }
-                        }
+            response.setDeployments(new DashboardMetricsResponse.DeploymentMetrics(clusterDeployments.size(), active, error));
+
+            // Bước 4: CPU/Memory usage của tất cả pods (metrics-server không khả dụng thì usage = 0)
+            ClusterMetricsGateway.Usage used = ClusterMetricsGateway.Usage.ZERO;
+            long sampledAt = usageHistoryStore.freshSampleAt();
+            UsagePoint sampled = sampledAt >= 0 ? usageHistoryStore.sampleAt(UsageHistoryStore.clusterKey(), sampledAt) : null;
+            if (sampled != null) {
+                used = new ClusterMetricsGateway.Usage(sampled.cpuCores(), sampled.memoryBytes());
+            } else {
+                try {
+                    for (ClusterMetricsGateway.Usage usage : clusterMetricsGateway.podUsageByNamespace().values()) {
+                        used = used.plus(usage);
                     }
+                } catch (Exception e) {
+                    System.err.println("[getDashboardMetrics] Khong lay duoc metrics cua pods: " + e.getMessage());
                 }
-                
-                // Chuyển đổi Memory từ bytes sang GB
-                double totalMemoryGb = bytesToGb(totalMemoryBytes);
-                
-                response.setCpuUsage(new DashboardMetricsResponse.ResourceUsage(
-                    roundToThreeDecimals(totalCpuUsed),
-                    allocatable.getTotalCpuCores()
-                ));
-                
-                response.setMemoryUsage(new DashboardMetricsResponse.ResourceUsage(
-                    roundToThreeDecimals(totalMemoryGb),
-                    allocatable.getTotalMemoryGb()
-                ));
-            } catch (Exception e) {
-                // Nếu lỗi, set giá trị mặc định
-                response.setCpuUsage(new DashboardMetricsResponse.ResourceUsage(0.0, 0.0));
-                response.setMemoryUsage(new DashboardMetricsResponse.ResourceUsage(0.0, 0.0));
             }
-            
+            response.setCpuUsage(new DashboardMetricsResponse.ResourceUsage(
+                    roundToThreeDecimals(used.cpuCores()),
+                    roundToThreeDecimals(allocatable.cpuCores())
+            ));
+            response.setMemoryUsage(new DashboardMetricsResponse.ResourceUsage(
+                    roundToThreeDecimals(bytesToGb(used.memoryBytes())),
+                    roundToThreeDecimals(bytesToGb(allocatable.memoryBytes()))
+            ));
+
+            lastDashboardMetrics = response;
             return response;
-            
-        } catch (Exception e) {
+
+        } catch (RuntimeException e) {
+            // MASTER đang bị circuit breaker chặn: trả kết quả gần nhất thay vì chờ timeout
+            DashboardMetricsResponse cached = lastDashboardMetrics;
+            if (cached != null && causedByServerUnavailable(e)) {
+                System.out.println("[getDashboardMetrics] " + e.getMessage() + " - dung ket qua gan nhat");
+                return cached;
+            }
+            if (e instanceof ServerUnavailableException) {
+                throw e;
+            }
             throw new RuntimeException("Không thể lấy dashboard metrics: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
+        }
+    }
+
+    /**
+     * Lỗi có nguyên nhân là ServerUnavailableException (circuit breaker của MASTER đang OPEN),
+     * kể cả khi bị bọc lại bởi KubernetesClientProvider/ClusterStateCache.
+     */
+    private static boolean causedByServerUnavailable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ServerUnavailableException) {
+                return true;
             }
         }
+        return false;
     }
 
     /**
-     * Lấy danh sách tất cả nodes trong cluster với thông tin chi tiết về CPU, Memory, Disk, Pods.
+     * Khoảng thời gian đã chuẩn hoá của một truy vấn lịch sử (epoch ms).
+     */
+    private record HistoryRange(long fromMs, long toMs, long stepMs) {
+    }
+
+    /**
+     * Chuẩn hoá tham số lịch sử.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server
-     * 2. Lấy danh sách nodes với thông tin cơ bản: kubectl get nodes -o wide
-     * 3. Lấy capacity và allocatable cho từng node: kubectl get nodes -o jsonpath
-     * 4. Lấy usage (requested) từ kubectl top nodes
-     * 5. Đếm số pods trên mỗi node: kubectl get pods --all-namespaces --field-selector
-     * 6. Lấy thông tin OS và Kernel từ node info
-     * 7. Tổng hợp và trả về NodeListResponse
+     * 1. Không có from: không kèm lịch sử (null); có to mà không có from là lỗi
+     * 2. to bỏ trống = hiện tại
+     * 3. step bỏ trống = UsageHistoryStore tự chọn (khoảng 300 điểm); có thì parse 30s/5m/1h/1d hoặc số giây
+     * 
+     * @throws IllegalArgumentException nếu tham số không hợp lệ
+     */
+    private HistoryRange toHistoryRange(UsageHistoryRequest request) {
+        if (request == null || request.getFrom() == null) {
+            if (request != null && request.getTo() != null) {
+                throw new IllegalArgumentException("Thiếu tham số from");
+            }
+            return null;
+        }
+        long from = request.getFrom();
+        long to = request.getTo() != null ? request.getTo() : System.currentTimeMillis();
+        if (from > to) {
+            throw new IllegalArgumentException("from phải nhỏ hơn hoặc bằng to");
+        }
+        String step = request.getStep();
+        long stepMs = step == null || step.isBlank() ? usageHistoryStore.defaultStepMs(from, to) : parseStepMs(step.trim());
+        return new HistoryRange(from, to, stepMs);
+    }
+
+    private static long parseStepMs(String step) {
+        try {
+            char unit = step.charAt(step.length() - 1);
+            if (Character.isDigit(unit)) {
+                return Long.parseLong(step) * 1000;
+            }
+            long value = Long.parseLong(step.substring(0, step.length() - 1));
+            return switch (unit) {
+                case 's' -> value * 1000;
+                case 'm' -> value * UsageHistoryStore.MINUTE_MS;
+                case 'h' -> value * UsageHistoryStore.HOUR_MS;
+                case 'd' -> value * 24 * UsageHistoryStore.HOUR_MS;
+                default -> throw new IllegalArgumentException("step không hợp lệ: " + step);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("step không hợp lệ: " + step);
+        }
+    }
+
+    /**
+     * Lịch sử tổng của các namespace (cộng theo từng cửa sổ step).
+     */
+    private List<UsagePointResponse> namespaceHistory(Collection<String> namespaces, HistoryRange range) {
+        List<String> keys = namespaces.stream().map(UsageHistoryStore::namespaceKey).toList();
+        return historyPoints(usageHistoryStore.rangeSum(keys, range.fromMs(), range.toMs(), range.stepMs()));
+    }
+
+    private List<UsagePointResponse> historyPoints(List<UsagePoint> points) {
+        List<UsagePointResponse> history = new ArrayList<>(points.size());
+        for (UsagePoint point : points) {
+            history.add(new UsagePointResponse(point.timestampMs(),
+                    roundToThreeDecimals(point.cpuCores()),
+                    roundToThreeDecimals(bytesToGb(point.memoryBytes()))));
+        }
+        return history;
+    }
+
+    /**
+     * Lấy danh sách tất cả nodes trong cluster với thông tin chi tiết về CPU, Memory, Disk, Pods.
      * 
+     * Quy trình xử lý:
+     * 1. Đọc một trang V1Node từ ClusterStateCache theo bộ lọc của request (label selector, sort, limit/continue;
+     *    phạm vi namespace/project/user = các node đang chạy pod của phạm vi đó), usage node từ metrics.k8s.io
+     *    - name, condition Ready, label control-plane, OS, kernel, capacity/allocatable, creationTimestamp
+     *    - số pods theo node đếm từ spec.nodeName
+     * 2. Với mỗi node có server tương ứng, chạy df -h / để lấy thông tin disk
+     * 3. Tổng hợp và trả về NodeListResponse
+     * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return NodeListResponse chứa danh sách nodes với đầy đủ thông tin
-     * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi thực thi lệnh
+     * @throws RuntimeException nếu không thể kết nối API server
      */
     @Override
-    public NodeListResponse getNodes() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public NodeListResponse getNodes(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server
-            session = createSession(masterServer);
-            
             List<NodeResponse> nodes = new ArrayList<>();
-            
-            // Bước 1: Lấy danh sách tên nodes
-            String getNodesCmd = "kubectl get nodes --no-headers -o custom-columns=NAME:.metadata.name";
-            String nodesOutput = executeCommand(session, getNodesCmd, false);
-            
-            if (nodesOutput == null || nodesOutput.trim().isEmpty()) {
-                return new NodeListResponse(new ArrayList<>());
+
+            // Bước 1: Một trang nodes (lọc/phân trang trước khi SSH lấy disk), usage và số pods theo node
+            ListQuery query = toListQuery(request);
+            if (query.namespaces() != null) {
+                // Node là resource cluster-scoped: phạm vi namespace/project/user = các node đang chạy pod của phạm vi đó
+                Set<String> scopedNodes = new HashSet<>();
+                for (V1Pod pod : clusterStateCache.query(V1Pod.class, ListQuery.ALL.withNamespaces(query.namespaces())).items()) {
+                    if (pod.getSpec() != null && pod.getSpec().getNodeName() != null) {
+                        scopedNodes.add(pod.getSpec().getNodeName());
+                    }
+                }
+                query = query.withNamespaces(null).withFilter(object -> object.getMetadata() != null && scopedNodes.contains(object.getMetadata().getName()));
+            }
+            ClusterStateCache.Snapshot<V1Node> snapshot = clusterStateCache.query(V1Node.class, query);
+            List<V1Node> clusterNodes = snapshot.items();
+            if (clusterNodes.isEmpty()) {
+                return new NodeListResponse(new ArrayList<>(), snapshot.continueToken(), snapshot.remainingItemCount());
+            }
+
+            // Usage theo node (nếu metrics-server không khả dụng thì để 0)
+            Map<String, ClusterMetricsGateway.Usage> usageByNode = new HashMap<>();
+            try {
+                usageByNode = clusterMetricsGateway.nodeUsage();
+            } catch (Exception e) {
+                System.err.println("[getNodes] Khong lay duoc metrics cua nodes: " + e.getMessage());
+            }
+
+            // Số pods theo node
+            Map<String, Integer> podCountByNode = new HashMap<>();
+            for (V1Pod pod : clusterMetricsGateway.pods()) {
+                if (pod.getSpec() != null && pod.getSpec().getNodeName() != null) {
+                    podCountByNode.merge(pod.getSpec().getNodeName(), 1, Integer::sum);
+                }
             }
-            
-            String[] nodeNames = nodesOutput.trim().split("\\r?\\n");
             
             // Bước 1.5: Lấy danh sách tất cả servers từ database để match với nodes
             List<ServerEntity> allServers = serverRepository.findAll();
@@ -2459,123 +2026,49 @@ public class AdminServiceImpl implements AdminService {
                 // Cũng có thể match theo IP nếu cần
             }
             
-            // Bước 2: Lấy thông tin chi tiết cho từng node
-            for (String nodeName : nodeNames) {
-                if (nodeName.trim().isEmpty()) continue;
-                nodeName = nodeName.trim();
+            // Bước 2: Tổng hợp thông tin chi tiết cho từng node
+            for (V1Node clusterNode : clusterNodes) {
+                if (clusterNode.getMetadata() == null || clusterNode.getMetadata().getName() == null) continue;
+                String nodeName = clusterNode.getMetadata().getName();
                 
                 NodeResponse node = new NodeResponse();
                 node.setId(nodeName);
                 node.setName(nodeName);
                 
                 try {
-                    // Lấy status (Ready/NotReady)
-                    String statusCmd = String.format("kubectl get node %s -o jsonpath='{.status.conditions[?(@.type==\"Ready\")].status}'", nodeName);
-                    String status = executeCommand(session, statusCmd, true);
-                    if (status != null && status.trim().equals("True")) {
-                        node.setStatus("ready");
-                    } else {
-                        node.setStatus("notready");
-                    }
-                    
-                    // Lấy role (master/worker) từ labels
-                    String roleCmd = String.format("kubectl get node %s -o jsonpath='{.metadata.labels.node-role\\.kubernetes\\.io/control-plane}'", nodeName);
-                    String roleLabel = executeCommand(session, roleCmd, true);
-                    if (roleLabel != null && !roleLabel.trim().isEmpty()) {
-                        node.setRole("master");
-                    } else {
-                        node.setRole("worker");
-                    }
+                    // Status (Ready/NotReady)
+                    node.setStatus(ClusterMetricsGateway.isReady(clusterNode) ? "ready" : "notready");
                     
-                    // Lấy OS và Kernel
-                    String osCmd = String.format("kubectl get node %s -o jsonpath='{.status.nodeInfo.operatingSystem}'", nodeName);
-                    String os = executeCommand(session, osCmd, true);
-                    node.setOs(os != null ? os.trim() : "Unknown");
-                    
-                    String kernelCmd = String.format("kubectl get node %s -o jsonpath='{.status.nodeInfo.kernelVersion}'", nodeName);
-                    String kernel = executeCommand(session, kernelCmd, true);
-                    node.setKernel(kernel != null ? kernel.trim() : "Unknown");
-                    
-                    // Lấy CPU capacity và allocatable
-                    String cpuCapacityCmd = String.format("kubectl get node %s -o jsonpath='{.status.capacity.cpu}'", nodeName);
-                    String cpuCapacityStr = executeCommand(session, cpuCapacityCmd, true);
-                    double cpuCapacity = 0.0;
-                    if (cpuCapacityStr != null && !cpuCapacityStr.trim().isEmpty()) {
-                        cpuCapacity = parseCpuCores(cpuCapacityStr.trim());
-                    }
+                    // Role (master/worker) từ label control-plane
+                    Map<String, String> labels = clusterNode.getMetadata().getLabels();
+                    node.setRole(labels != null && labels.containsKey("node-role.kubernetes.io/control-plane") ? "master" : "worker");
                     
-                    String cpuAllocatableCmd = String.format("kubectl get node %s -o jsonpath='{.status.allocatable.cpu}'", nodeName);
-                    String cpuAllocatableStr = executeCommand(session, cpuAllocatableCmd, true);
-                    double cpuAllocatable = 0.0;
-                    if (cpuAllocatableStr != null && !cpuAllocatableStr.trim().isEmpty()) {
-                        cpuAllocatable = parseCpuCores(cpuAllocatableStr.trim());
+                    // OS và Kernel
+                    if (clusterNode.getStatus() != null && clusterNode.getStatus().getNodeInfo() != null) {
+                        node.setOs(clusterNode.getStatus().getNodeInfo().getOperatingSystem());
+                        node.setKernel(clusterNode.getStatus().getNodeInfo().getKernelVersion());
                     }
                     
-                    // Lấy Memory capacity và allocatable
-                    String memCapacityCmd = String.format("kubectl get node %s -o jsonpath='{.status.capacity.memory}'", nodeName);
-                    String memCapacityStr = executeCommand(session, memCapacityCmd, true);
-                    long memCapacityBytes = 0L;
-                    if (memCapacityStr != null && !memCapacityStr.trim().isEmpty()) {
-                        memCapacityBytes = parseMemoryBytes(memCapacityStr.trim());
-                    }
+                    // Capacity, allocatable và usage (CPU cores, Memory bytes)
+                    ClusterMetricsGateway.Usage capacity = ClusterMetricsGateway.capacity(clusterNode);
+                    ClusterMetricsGateway.Usage allocatable = ClusterMetricsGateway.allocatable(clusterNode);
+                    ClusterMetricsGateway.Usage used = usageByNode.getOrDefault(nodeName, ClusterMetricsGateway.Usage.ZERO);
                     
-                    String memAllocatableCmd = String.format("kubectl get node %s -o jsonpath='{.status.allocatable.memory}'", nodeName);
-                    String memAllocatableStr = executeCommand(session, memAllocatableCmd, true);
-                    long memAllocatableBytes = 0L;
-                    if (memAllocatableStr != null && !memAllocatableStr.trim().isEmpty()) {
-                        memAllocatableBytes = parseMemoryBytes(memAllocatableStr.trim());
-                    }
-                    
-                    // Lấy CPU và Memory usage từ kubectl top nodes
-                    // Format output: NAME       CPU(cores)   CPU%   MEMORY(bytes)   MEMORY%
-                    // Ví dụ:        master-1   145m         7%     1981Mi          70%
-                    double cpuUsed = 0.0;
-                    long memUsedBytes = 0L;
-                    try {
-                        String topNodesCmd = "kubectl top nodes --no-headers";
-                        String topOutput = executeCommand(session, topNodesCmd, true);
-                        if (topOutput != null && !topOutput.trim().isEmpty()) {
-                            String[] lines = topOutput.trim().split("\\r?\\n");
-                            for (String line : lines) {
-                                String[] parts = line.trim().split("\\s+");
-                                // parts[0] = NAME, parts[1] = CPU(cores), parts[2] = CPU%, parts[3] = MEMORY(bytes), parts[4] = MEMORY%
-                                if (parts.length >= 4 && parts[0].equals(nodeName)) {
-                                    cpuUsed = parseCpuCores(parts[1]);
-                                    memUsedBytes = parseMemoryBytes(parts[3]);
-                                    break;
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        // Nếu kubectl top không khả dụng, để giá trị mặc định 0
-                    }
-                    
-                    // Đếm số pods trên node
-                    int podCount = 0;
-                    try {
-                        String podCountCmd = String.format("kubectl get pods --all-namespaces --field-selector spec.nodeName=%s --no-headers", nodeName);
-                        String podOutput = executeCommand(session, podCountCmd, true);
-                        if (podOutput != null && !podOutput.trim().isEmpty()) {
-                            String[] podLines = podOutput.trim().split("\\r?\\n");
-                            podCount = podLines.length;
-                        }
-                    } catch (Exception e) {
-                        // Nếu không đếm được, để giá trị mặc định 0
-                    }
-                    node.setPodCount(podCount);
+                    // Số pods trên node
+                    node.setPodCount(podCountByNode.getOrDefault(nodeName, 0));
                     
                     // Tạo NodeResource cho CPU
                     NodeResponse.NodeResource cpuResource = new NodeResponse.NodeResource();
-                    cpuResource.setRequested(roundToThreeDecimals(cpuUsed));
-                    cpuResource.setLimit(roundToThreeDecimals(cpuAllocatable));
-                    cpuResource.setCapacity(roundToThreeDecimals(cpuCapacity));
+                    cpuResource.setRequested(roundToThreeDecimals(used.cpuCores()));
+                    cpuResource.setLimit(roundToThreeDecimals(allocatable.cpuCores()));
+                    cpuResource.setCapacity(roundToThreeDecimals(capacity.cpuCores()));
                     node.setCpu(cpuResource);
                     
                     // Tạo NodeResource cho Memory
                     NodeResponse.NodeResource memResource = new NodeResponse.NodeResource();
-                    memResource.setRequested(roundToThreeDecimals(bytesToGb(memUsedBytes)));
-                    memResource.setLimit(roundToThreeDecimals(bytesToGb(memAllocatableBytes)));
-                    memResource.setCapacity(roundToThreeDecimals(bytesToGb(memCapacityBytes)));
+                    memResource.setRequested(roundToThreeDecimals(bytesToGb(used.memoryBytes())));
+                    memResource.setLimit(roundToThreeDecimals(bytesToGb(allocatable.memoryBytes())));
+                    memResource.setCapacity(roundToThreeDecimals(bytesToGb(capacity.memoryBytes())));
                     node.setMemory(memResource);
                     
                     // Disk: Lấy từ server bằng cách SSH vào từng server và chạy df -h /
@@ -2599,11 +2092,11 @@ public class AdminServiceImpl implements AdminService {
                             
                             if (dfOutput != null && !dfOutput.trim().isEmpty()) {
                                 // Parse output: /dev/sda1        20G  5.0G   14G  26% /
-                                String[] dfParts = dfOutput.trim().split("\\s+");
-                                if (dfParts.length >= 4) {
-                                    // dfParts[1] = Size (20G), dfParts[2] = Used (5.0G)
-                                    String sizeStr = dfParts[1]; // 20G
-                                    String usedStr = dfParts[2]; // 5.0G
+                                ColumnTokenizer dfColumns = new ColumnTokenizer(4);
+                                if (dfColumns.tokenize(dfOutput) >= 4) {
+                                    // Cột 1 = Size (20G), cột 2 = Used (5.0G)
+                                    String sizeStr = dfColumns.column(1); // 20G
+                                    String usedStr = dfColumns.column(2); // 5.0G
                                     
                                     diskCapacity = parseMemoryBytes(sizeStr) / BYTES_PER_GB;
                                     diskUsed = parseMemoryBytes(usedStr) / BYTES_PER_GB;
@@ -2612,8 +2105,8 @@ public class AdminServiceImpl implements AdminService {
                         } catch (Exception e) {
                             // Nếu không thể lấy disk info, để giá trị mặc định 0
                         } finally {
-                            if (nodeSession != null && nodeSession.isConnected()) {
-                                nodeSession.disconnect();
+                            if (nodeSession != null) {
+                                sshSessionPool.release(nodeSession);
                             }
                         }
                     }
@@ -2623,10 +2116,9 @@ public class AdminServiceImpl implements AdminService {
                     diskResource.setCapacity(roundToThreeDecimals(diskCapacity));
                     node.setDisk(diskResource);
                     
-                    // UpdatedAt: Lấy từ node conditions
-                    String updatedAtCmd = String.format("kubectl get node %s -o jsonpath='{.metadata.creationTimestamp}'", nodeName);
-                    String updatedAt = executeCommand(session, updatedAtCmd, true);
-                    node.setUpdatedAt(updatedAt != null ? updatedAt.trim() : "");
+                    // UpdatedAt: creationTimestamp của node
+                    OffsetDateTime created = clusterNode.getMetadata().getCreationTimestamp();
+                    node.setUpdatedAt(created != null ? created.toString() : "");
                     
                     nodes.add(node);
                     
@@ -2635,25 +2127,91 @@ public class AdminServiceImpl implements AdminService {
                 }
             }
             
-            return new NodeListResponse(nodes);
+            return new NodeListResponse(nodes, snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách nodes: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
+        }
+    }
+
+    /**
+     * Chuyển tham số query của endpoint danh sách thành ListQuery cho ClusterStateCache.
+     * 
+     * Quy trình xử lý:
+     * 1. projectId/userId: quy về tập namespace của project (hoặc của tất cả project của user)
+     * 2. namespace: giao với phạm vi ở bước 1 (namespace ngoài phạm vi thì không có kết quả)
+     * 3. limit: không truyền thì dùng {@code app.k8s.list.default-limit} (0 = không giới hạn),
+     *    luôn bị chặn trên bởi {@code app.k8s.list.max-limit}
+     * 
+     * @param request Tham số query (null = lấy tất cả)
+     * @return ListQuery tương ứng
+     * @throws RuntimeException nếu project/user không tồn tại
+     */
+    private ListQuery toListQuery(ResourceListRequest request) {
+        if (request == null) {
+            request = new ResourceListRequest();
+        }
+
+        // Bước 1: Phạm vi project/user
+        Set<String> scope = null;
+        if (request.getProjectId() != null) {
+            Long projectId = request.getProjectId();
+            TenancyIndex.ProjectInfo project = tenancyIndex.project(projectId)
+                    .orElseThrow(() -> new RuntimeException("Không tìm thấy project với id " + projectId));
+            scope = collectNamespaces(List.of(project));
+        }
+        if (request.getUserId() != null) {
+            Long userId = request.getUserId();
+            tenancyIndex.user(userId)
+                    .orElseThrow(() -> new RuntimeException("Không tìm thấy user với id " + userId));
+            Set<String> userNamespaces = collectNamespaces(tenancyIndex.projectsOf(userId));
+            if (scope == null) {
+                scope = userNamespaces;
+            } else {
+                scope.retainAll(userNamespaces);
             }
         }
+
+        // Bước 2: Namespace cụ thể
+        Set<String> namespaces = scope;
+        if (request.getNamespace() != null && !request.getNamespace().isBlank()) {
+            String namespace = request.getNamespace().trim();
+            namespaces = scope == null || scope.contains(namespace) ? Set.of(namespace) : Set.of();
+        }
+
+        // Bước 3: Kích thước trang
+        Integer limit = request.getLimit() != null ? request.getLimit() : (defaultListLimit > 0 ? defaultListLimit : null);
+        if (limit != null && maxListLimit > 0) {
+            limit = Math.min(limit, maxListLimit);
+        }
+
+        return new ListQuery(namespaces, request.getLabelSelector(), request.getFieldSelector(), request.getSort(),
+                limit, request.getContinueToken(), null);
+    }
+
+    /**
+     * Áp phạm vi namespace cho resource cluster-scoped (Namespace, PV, Node): phạm vi không dùng được index
+     * namespace mà chuyển thành điều kiện lọc trên namespace "sở hữu" object.
+     * 
+     * @param query ListQuery đã có phạm vi namespace (null = không giới hạn)
+     * @param namespaceOf Namespace sở hữu của object (tên namespace, claimRef.namespace của PV...)
+     */
+    private ListQuery clusterScoped(ListQuery query, Function<KubernetesObject, String> namespaceOf) {
+        if (query.namespaces() == null) {
+            return query;
+        }
+        Set<String> namespaces = query.namespaces();
+        return query.withNamespaces(null).withFilter(object -> namespaces.contains(namespaceOf.apply(object)));
     }
 
     /**
      * Lấy danh sách tất cả namespaces trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng CoreV1Api để lấy danh sách namespaces
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1Namespace objects thành NamespaceResponse:
      *    - Name
      *    - Status (active/terminating) từ status.phase
@@ -2661,100 +2219,66 @@ public class AdminServiceImpl implements AdminService {
      *    - Age từ creationTimestamp
      * 5. Tổng hợp và trả về NamespaceListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return NamespaceListResponse chứa danh sách namespaces
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public NamespaceListResponse getNamespaces() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public NamespaceListResponse getNamespaces(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            CoreV1Api api = new CoreV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            // Namespace là cluster-scoped: phạm vi namespace áp theo chính tên namespace
+            ListQuery query = clusterScoped(toListQuery(request),
+                    object -> object.getMetadata() != null ? object.getMetadata().getName() : null);
+            ClusterStateCache.Snapshot<V1Namespace> snapshot = clusterStateCache.query(V1Namespace.class, query);
             
             List<NamespaceResponse> namespaces = new ArrayList<>();
             
-            // Lấy danh sách namespaces
-            try {
-                io.kubernetes.client.openapi.models.V1NamespaceList namespaceList = api.listNamespace(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (namespaceList.getItems() == null) {
-                    return new NamespaceListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng namespace
-                for (V1Namespace v1Namespace : namespaceList.getItems()) {
-                    try {
-                        NamespaceResponse namespace = new NamespaceResponse();
-                        
-                        // Basic info
-                        String name = v1Namespace.getMetadata().getName();
-                        namespace.setId(name);
-                        namespace.setName(name);
-                        
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1Namespace.getMetadata().getCreationTimestamp();
-                        namespace.setAge(calculateAge(creationTimestamp));
-                        
-                        // Status từ status.phase
-                        V1NamespaceStatus status = v1Namespace.getStatus();
-                        String phase = (status != null && status.getPhase() != null) 
-                                ? status.getPhase() 
-                                : "Active";
-                        
-                        if ("Active".equalsIgnoreCase(phase)) {
-                            namespace.setStatus("active");
-                        } else {
-                            namespace.setStatus("terminating");
-                        }
-                        
-                        // Labels từ metadata.labels
-                        Map<String, String> labels = new HashMap<>();
-                        if (v1Namespace.getMetadata().getLabels() != null) {
-                            labels.putAll(v1Namespace.getMetadata().getLabels());
-                        }
-                        namespace.setLabels(labels);
-                        
-                        namespaces.add(namespace);
-                        
-                    } catch (Exception e) {
-                        // Bỏ qua namespace nếu có lỗi, tiếp tục với namespace tiếp theo
+            // Parse từng namespace
+            for (V1Namespace v1Namespace : snapshot.items()) {
+                try {
+                    NamespaceResponse namespace = new NamespaceResponse();
+                    
+                    // Basic info
+                    String name = v1Namespace.getMetadata().getName();
+                    namespace.setId(name);
+                    namespace.setName(name);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1Namespace.getMetadata().getCreationTimestamp();
+                    namespace.setAge(calculateAge(creationTimestamp));
+                    
+                    // Status từ status.phase
+                    V1NamespaceStatus status = v1Namespace.getStatus();
+                    String phase = (status != null && status.getPhase() != null) 
+                            ? status.getPhase() 
+                            : "Active";
+                    
+                    if ("Active".equalsIgnoreCase(phase)) {
+                        namespace.setStatus("active");
+                    } else {
+                        namespace.setStatus("terminating");
+                    }
+                    
+                    // Labels từ metadata.labels
+                    Map<String, String> labels = new HashMap<>();
+                    if (v1Namespace.getMetadata().getLabels() != null) {
+                        labels.putAll(v1Namespace.getMetadata().getLabels());
                     }
+                    namespace.setLabels(labels);
+                    
+                    namespaces.add(namespace);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua namespace nếu có lỗi, tiếp tục với namespace tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách namespaces từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new NamespaceListResponse(namespaces);
+            return new NamespaceListResponse(namespaces, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách namespaces: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -2762,9 +2286,10 @@ public class AdminServiceImpl implements AdminService {
      * Lấy danh sách tất cả deployments trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng AppsV1Api để lấy danh sách deployments từ tất cả namespaces
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1Deployment objects thành DeploymentResponse:
      *    - Namespace, Name
      *    - Replicas (desired, ready, updated, available) từ spec và status
@@ -2774,201 +2299,130 @@ public class AdminServiceImpl implements AdminService {
      *    - Age từ creationTimestamp
      * 5. Tổng hợp và trả về DeploymentListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return DeploymentListResponse chứa danh sách deployments
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public DeploymentListResponse getDeployments() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public DeploymentListResponse getDeployments(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            AppsV1Api api = new AppsV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            ClusterStateCache.Snapshot<V1Deployment> snapshot = clusterStateCache.query(V1Deployment.class, toListQuery(request));
             
             List<DeploymentResponse> deployments = new ArrayList<>();
             
-            // Lấy danh sách deployments từ tất cả namespaces
-            try {
-                io.kubernetes.client.openapi.models.V1DeploymentList deploymentList = api.listDeploymentForAllNamespaces(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (deploymentList.getItems() == null) {
-                    return new DeploymentListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng deployment
-                for (V1Deployment v1Deployment : deploymentList.getItems()) {
-                    try {
-                        DeploymentResponse deployment = new DeploymentResponse();
-                        
-                        // Basic info
-                        String namespace = v1Deployment.getMetadata().getNamespace();
-                        String name = v1Deployment.getMetadata().getName();
-                        deployment.setId(name + "-" + namespace);
-                        deployment.setName(name);
-                        deployment.setNamespace(namespace);
-                        
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1Deployment.getMetadata().getCreationTimestamp();
-                        deployment.setAge(calculateAge(creationTimestamp));
-                        
-                        // Replicas từ spec và status
-                        int desired = 0;
-                        int ready = 0;
-                        int updated = 0;
-                        int available = 0;
-                        
-                        if (v1Deployment.getSpec() != null && v1Deployment.getSpec().getReplicas() != null) {
-                            desired = v1Deployment.getSpec().getReplicas();
+            // Parse từng deployment
+            for (V1Deployment v1Deployment : snapshot.items()) {
+                try {
+                    DeploymentResponse deployment = new DeploymentResponse();
+                    
+                    // Basic info
+                    String namespace = v1Deployment.getMetadata().getNamespace();
+                    String name = v1Deployment.getMetadata().getName();
+                    deployment.setId(name + "-" + namespace);
+                    deployment.setName(name);
+                    deployment.setNamespace(namespace);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1Deployment.getMetadata().getCreationTimestamp();
+                    deployment.setAge(calculateAge(creationTimestamp));
+                    
+                    // Replicas từ spec và status
+                    int desired = 0;
+                    int ready = 0;
+                    int updated = 0;
+                    int available = 0;
+                    
+                    if (v1Deployment.getSpec() != null && v1Deployment.getSpec().getReplicas() != null) {
+                        desired = v1Deployment.getSpec().getReplicas();
+                    }
+                    
+                    V1DeploymentStatus status = v1Deployment.getStatus();
+                    if (status != null) {
+                        if (status.getReadyReplicas() != null) {
+                            ready = status.getReadyReplicas();
                         }
-                        
-                        V1DeploymentStatus status = v1Deployment.getStatus();
-                        if (status != null) {
-                            if (status.getReadyReplicas() != null) {
-                                ready = status.getReadyReplicas();
-                            }
-                            if (status.getUpdatedReplicas() != null) {
-                                updated = status.getUpdatedReplicas();
-                            }
-                            if (status.getAvailableReplicas() != null) {
-                                available = status.getAvailableReplicas();
-                            }
+                        if (status.getUpdatedReplicas() != null) {
+                            updated = status.getUpdatedReplicas();
                         }
-                        
-                        DeploymentResponse.ReplicasInfo replicas = new DeploymentResponse.ReplicasInfo();
-                        replicas.setDesired(desired);
-                        replicas.setReady(ready);
-                        replicas.setUpdated(updated);
-                        replicas.setAvailable(available);
-                        deployment.setReplicas(replicas);
-                        
-                        // Status: running nếu ready == desired, pending nếu ready < desired, error nếu có điều kiện lỗi
-                        String depStatus = "running";
-                        if (ready < desired) {
-                            depStatus = "pending";
-                        } else if (ready == 0 && desired > 0) {
-                            depStatus = "error";
+                        if (status.getAvailableReplicas() != null) {
+                            available = status.getAvailableReplicas();
                         }
-                        // Kiểm tra conditions để xác định lỗi
-                        if (status != null && status.getConditions() != null) {
-                            for (V1DeploymentCondition condition : status.getConditions()) {
-                                if ("False".equals(condition.getStatus()) && 
-                                    ("Progressing".equals(condition.getType()) || "Available".equals(condition.getType()))) {
-                                    depStatus = "error";
-                                    break;
-                                }
+                    }
+                    
+                    DeploymentResponse.ReplicasInfo replicas = new DeploymentResponse.ReplicasInfo();
+                    replicas.setDesired(desired);
+                    replicas.setReady(ready);
+                    replicas.setUpdated(updated);
+                    replicas.setAvailable(available);
+                    deployment.setReplicas(replicas);
+                    
+                    // Status: running nếu ready == desired, pending nếu ready < desired, error nếu có điều kiện lỗi
+                    String depStatus = "running";
+                    if (ready < desired) {
+                        depStatus = "pending";
+                    } else if (ready == 0 && desired > 0) {
+                        depStatus = "error";
+                    }
+                    // Kiểm tra conditions để xác định lỗi
+                    if (status != null && status.getConditions() != null) {
+                        for (V1DeploymentCondition condition : status.getConditions()) {
+                            if ("False".equals(condition.getStatus()) && 
+                                ("Progressing".equals(condition.getType()) || "Available".equals(condition.getType()))) {
+                                depStatus = "error";
+                                break;
                             }
                         }
-                        deployment.setStatus(depStatus);
-                        
-                        // Containers và Images từ spec.template.spec.containers
-                        List<String> containers = new ArrayList<>();
-                        List<String> images = new ArrayList<>();
-                        if (v1Deployment.getSpec() != null 
-                                && v1Deployment.getSpec().getTemplate() != null
-                                && v1Deployment.getSpec().getTemplate().getSpec() != null
-                                && v1Deployment.getSpec().getTemplate().getSpec().getContainers() != null) {
-                            for (V1Container container : 
-                                    v1Deployment.getSpec().getTemplate().getSpec().getContainers()) {
-                                if (container.getName() != null) {
-                                    containers.add(container.getName());
-                                }
-                                if (container.getImage() != null) {
-                                    images.add(container.getImage());
-                                }
+                    }
+                    deployment.setStatus(depStatus);
+                    
+                    // Containers và Images từ spec.template.spec.containers
+                    List<String> containers = new ArrayList<>();
+                    List<String> images = new ArrayList<>();
+                    if (v1Deployment.getSpec() != null 
+                            && v1Deployment.getSpec().getTemplate() != null
+                            && v1Deployment.getSpec().getTemplate().getSpec() != null
+                            && v1Deployment.getSpec().getTemplate().getSpec().getContainers() != null) {
+                        for (V1Container container : 
+                                v1Deployment.getSpec().getTemplate().getSpec().getContainers()) {
+                            if (container.getName() != null) {
+                                containers.add(container.getName());
+                            }
+                            if (container.getImage() != null) {
+                                images.add(container.getImage());
                             }
                         }
-                        deployment.setContainers(containers);
-                        deployment.setImages(images);
-                        
-                        // Selector từ spec.selector.matchLabels
-                        String selector = "";
-                        if (v1Deployment.getSpec() != null 
-                                && v1Deployment.getSpec().getSelector() != null) {
-                            V1LabelSelector labelSelector = v1Deployment.getSpec().getSelector();
-                            if (labelSelector.getMatchLabels() != null && !labelSelector.getMatchLabels().isEmpty()) {
-                                List<String> selectorParts = new ArrayList<>();
-                                for (java.util.Map.Entry<String, String> entry : labelSelector.getMatchLabels().entrySet()) {
-                                    selectorParts.add(entry.getKey() + "=" + entry.getValue());
-                                }
-                                selector = String.join(",", selectorParts);
+                    }
+                    deployment.setContainers(containers);
+                    deployment.setImages(images);
+                    
+                    // Selector từ spec.selector.matchLabels
+                    String selector = "";
+                    if (v1Deployment.getSpec() != null 
+                            && v1Deployment.getSpec().getSelector() != null) {
+                        V1LabelSelector labelSelector = v1Deployment.getSpec().getSelector();
+                        if (labelSelector.getMatchLabels() != null && !labelSelector.getMatchLabels().isEmpty()) {
+                            List<String> selectorParts = new ArrayList<>();
+                            for (java.util.Map.Entry<String, String> entry : labelSelector.getMatchLabels().entrySet()) {
+                                selectorParts.add(entry.getKey() + "=" + entry.getValue());
                             }
+                            selector = String.join(",", selectorParts);
                         }
-                        deployment.setSelector(selector);
-                        
-                        deployments.add(deployment);
-                        
-                    } catch (Exception e) {
-                        // Bỏ qua deployment nếu có lỗi, tiếp tục với deployment tiếp theo
                     }
+                    deployment.setSelector(selector);
+                    
+                    deployments.add(deployment);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua deployment nếu có lỗi, tiếp tục với deployment tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách deployments từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new DeploymentListResponse(deployments);
+            return new DeploymentListResponse(deployments, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách deployments: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
-        }
-    }
-
-    /**
-     * Helper method để tạo Kubernetes client từ SSH session
-     * 
-     * @param session SSH session đến MASTER server
-     * @return ApiClient để tương tác với Kubernetes API
-     * @throws Exception Nếu có lỗi khi tạo client
-     */
-    private ApiClient createKubernetesClient(Session session) throws Exception {
-        String kubeconfigPath = "~/.kube/config";
-        File tempKubeconfig = null;
-        try {
-            String kubeconfigContent = executeCommand(session, "cat " + kubeconfigPath, false);
-            if (kubeconfigContent == null || kubeconfigContent.trim().isEmpty()) {
-                throw new RuntimeException("Không thể đọc kubeconfig từ master server");
-            }
-
-            tempKubeconfig = File.createTempFile("kubeconfig-", ".yaml");
-            try (FileWriter writer = new FileWriter(tempKubeconfig)) {
-                writer.write(kubeconfigContent);
-            }
-
-            ApiClient client = Config.fromConfig(tempKubeconfig.getAbsolutePath());
-            Configuration.setDefaultApiClient(client);
-            return client;
-        } finally {
-            if (tempKubeconfig != null && tempKubeconfig.exists()) {
-                boolean deleted = tempKubeconfig.delete();
-                if (!deleted) {
-                    tempKubeconfig.deleteOnExit();
-                }
-            }
         }
     }
 
@@ -3004,9 +2458,10 @@ public class AdminServiceImpl implements AdminService {
      * Lấy danh sách tất cả pods trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng CoreV1Api để lấy danh sách pods từ tất cả namespaces
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1Pod objects thành PodResponse:
      *    - Namespace, Name
      *    - Ready (ready/total) từ container statuses
@@ -3017,136 +2472,99 @@ public class AdminServiceImpl implements AdminService {
      *    - Node từ spec.nodeName
      * 5. Tổng hợp và trả về PodListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return PodListResponse chứa danh sách pods
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public PodListResponse getPods() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public PodListResponse getPods(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            CoreV1Api api = new CoreV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            ClusterStateCache.Snapshot<V1Pod> snapshot = clusterStateCache.query(V1Pod.class, toListQuery(request));
             
             List<PodResponse> pods = new ArrayList<>();
             
-            // Lấy danh sách pods từ tất cả namespaces
-            try {
-                io.kubernetes.client.openapi.models.V1PodList podList = api.listPodForAllNamespaces(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (podList.getItems() == null) {
-                    return new PodListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng pod
-                for (V1Pod v1Pod : podList.getItems()) {
-                    try {
-                        PodResponse pod = new PodResponse();
-                        
-                        // Basic info
-                        String namespace = v1Pod.getMetadata().getNamespace();
-                        String name = v1Pod.getMetadata().getName();
-                        pod.setId(name + "-" + namespace);
-                        pod.setName(name);
-                        pod.setNamespace(namespace);
-                        
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1Pod.getMetadata().getCreationTimestamp();
-                        pod.setAge(calculateAge(creationTimestamp));
-                        
-                        // Status
-                        V1PodStatus status = v1Pod.getStatus();
-                        if (status != null) {
-                            String phase = status.getPhase();
-                            if (phase != null) {
-                                String podStatus = phase.toLowerCase();
-                                if (podStatus.contains("running")) {
-                                    pod.setStatus("running");
-                                } else if (podStatus.contains("pending")) {
-                                    pod.setStatus("pending");
-                                } else if (podStatus.contains("failed")) {
-                                    pod.setStatus("failed");
-                                } else if (podStatus.contains("succeeded")) {
-                                    pod.setStatus("succeeded");
-                                } else {
-                                    pod.setStatus("pending");
-                                }
-                            }
-                            
-                            // IP
-                            if (status.getPodIP() != null) {
-                                pod.setIp(status.getPodIP());
-                            }
-                            
-                            // Ready count từ container statuses
-                            int ready = 0;
-                            int total = 0;
-                            int restarts = 0;
-                            
-                            if (status.getContainerStatuses() != null) {
-                                total = status.getContainerStatuses().size();
-                                for (V1ContainerStatus containerStatus : status.getContainerStatuses()) {
-                                    if (containerStatus.getReady() != null && containerStatus.getReady()) {
-                                        ready++;
-                                    }
-                                    if (containerStatus.getRestartCount() != null) {
-                                        restarts += containerStatus.getRestartCount();
-                                    }
-                                }
+            // Parse từng pod
+            for (V1Pod v1Pod : snapshot.items()) {
+                try {
+                    PodResponse pod = new PodResponse();
+                    
+                    // Basic info
+                    String namespace = v1Pod.getMetadata().getNamespace();
+                    String name = v1Pod.getMetadata().getName();
+                    pod.setId(name + "-" + namespace);
+                    pod.setName(name);
+                    pod.setNamespace(namespace);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1Pod.getMetadata().getCreationTimestamp();
+                    pod.setAge(calculateAge(creationTimestamp));
+                    
+                    // Status
+                    V1PodStatus status = v1Pod.getStatus();
+                    if (status != null) {
+                        String phase = status.getPhase();
+                        if (phase != null) {
+                            String podStatus = phase.toLowerCase();
+                            if (podStatus.contains("running")) {
+                                pod.setStatus("running");
+                            } else if (podStatus.contains("pending")) {
+                                pod.setStatus("pending");
+                            } else if (podStatus.contains("failed")) {
+                                pod.setStatus("failed");
+                            } else if (podStatus.contains("succeeded")) {
+                                pod.setStatus("succeeded");
+                            } else {
+                                pod.setStatus("pending");
                             }
-                            
-                            PodResponse.ReadyInfo readyInfo = new PodResponse.ReadyInfo();
-                            readyInfo.setReady(ready);
-                            readyInfo.setTotal(total);
-                            pod.setReady(readyInfo);
-                            pod.setRestarts(restarts);
                         }
                         
-                        // Node từ spec
-                        if (v1Pod.getSpec() != null && v1Pod.getSpec().getNodeName() != null) {
-                            pod.setNode(v1Pod.getSpec().getNodeName());
+                        // IP
+                        if (status.getPodIP() != null) {
+                            pod.setIp(status.getPodIP());
+                        }
+                        
+                        // Ready count từ container statuses
+                        int ready = 0;
+                        int total = 0;
+                        int restarts = 0;
+                        
+                        if (status.getContainerStatuses() != null) {
+                            total = status.getContainerStatuses().size();
+                            for (V1ContainerStatus containerStatus : status.getContainerStatuses()) {
+                                if (containerStatus.getReady() != null && containerStatus.getReady()) {
+                                    ready++;
+                                }
+                                if (containerStatus.getRestartCount() != null) {
+                                    restarts += containerStatus.getRestartCount();
+                                }
+                            }
                         }
                         
-                        pods.add(pod);
-                        
-                    } catch (Exception e) {
-                        // Bỏ qua pod nếu có lỗi, tiếp tục với pod tiếp theo
+                        PodResponse.ReadyInfo readyInfo = new PodResponse.ReadyInfo();
+                        readyInfo.setReady(ready);
+                        readyInfo.setTotal(total);
+                        pod.setReady(readyInfo);
+                        pod.setRestarts(restarts);
+                    }
+                    
+                    // Node từ spec
+                    if (v1Pod.getSpec() != null && v1Pod.getSpec().getNodeName() != null) {
+                        pod.setNode(v1Pod.getSpec().getNodeName());
                     }
+                    
+                    pods.add(pod);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua pod nếu có lỗi, tiếp tục với pod tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách pods từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new PodListResponse(pods);
+            return new PodListResponse(pods, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách pods: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -3154,9 +2572,10 @@ public class AdminServiceImpl implements AdminService {
      * Lấy danh sách tất cả statefulsets trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng AppsV1Api để lấy danh sách statefulsets từ tất cả namespaces
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1StatefulSet objects thành StatefulsetResponse:
      *    - Namespace, Name
      *    - Ready (ready/desired) từ status
@@ -3166,143 +2585,106 @@ public class AdminServiceImpl implements AdminService {
      *    - Age từ creationTimestamp
      * 5. Tổng hợp và trả về StatefulsetListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return StatefulsetListResponse chứa danh sách statefulsets
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public StatefulsetListResponse getStatefulsets() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public StatefulsetListResponse getStatefulsets(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            AppsV1Api api = new AppsV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            ClusterStateCache.Snapshot<V1StatefulSet> snapshot = clusterStateCache.query(V1StatefulSet.class, toListQuery(request));
             
             List<StatefulsetResponse> statefulsets = new ArrayList<>();
             
-            // Lấy danh sách statefulsets từ tất cả namespaces
-            try {
-                io.kubernetes.client.openapi.models.V1StatefulSetList statefulSetList = api.listStatefulSetForAllNamespaces(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (statefulSetList.getItems() == null) {
-                    return new StatefulsetListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng statefulset
-                for (V1StatefulSet v1StatefulSet : statefulSetList.getItems()) {
-                    try {
-                        StatefulsetResponse statefulset = new StatefulsetResponse();
-                        
-                        // Basic info
-                        String namespace = v1StatefulSet.getMetadata().getNamespace();
-                        String name = v1StatefulSet.getMetadata().getName();
-                        statefulset.setId(name + "-" + namespace);
-                        statefulset.setName(name);
-                        statefulset.setNamespace(namespace);
-                        
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1StatefulSet.getMetadata().getCreationTimestamp();
-                        statefulset.setAge(calculateAge(creationTimestamp));
-                        
-                        // Replicas từ status
-                        V1StatefulSetStatus status = v1StatefulSet.getStatus();
-                        int desired = 0;
-                        int ready = 0;
-                        if (v1StatefulSet.getSpec() != null && v1StatefulSet.getSpec().getReplicas() != null) {
-                            desired = v1StatefulSet.getSpec().getReplicas();
-                        }
-                        if (status != null && status.getReadyReplicas() != null) {
-                            ready = status.getReadyReplicas();
-                        }
-                        
-                        StatefulsetResponse.ReplicasInfo replicas = new StatefulsetResponse.ReplicasInfo();
-                        replicas.setDesired(desired);
-                        replicas.setReady(ready);
-                        statefulset.setReplicas(replicas);
-                        
-                        // Status: running nếu ready == desired, error nếu ready < desired và có điều kiện lỗi
-                        String stsStatus = "running";
-                        if (ready < desired) {
-                            // Kiểm tra conditions để xác định có lỗi không
-                            if (status != null && status.getConditions() != null) {
-                                for (io.kubernetes.client.openapi.models.V1StatefulSetCondition condition : status.getConditions()) {
-                                    if ("False".equals(condition.getStatus()) && "Progressing".equals(condition.getType())) {
-                                        stsStatus = "error";
-                                        break;
-                                    }
+            // Parse từng statefulset
+            for (V1StatefulSet v1StatefulSet : snapshot.items()) {
+                try {
+                    StatefulsetResponse statefulset = new StatefulsetResponse();
+                    
+                    // Basic info
+                    String namespace = v1StatefulSet.getMetadata().getNamespace();
+                    String name = v1StatefulSet.getMetadata().getName();
+                    statefulset.setId(name + "-" + namespace);
+                    statefulset.setName(name);
+                    statefulset.setNamespace(namespace);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1StatefulSet.getMetadata().getCreationTimestamp();
+                    statefulset.setAge(calculateAge(creationTimestamp));
+                    
+                    // Replicas từ status
+                    V1StatefulSetStatus status = v1StatefulSet.getStatus();
+                    int desired = 0;
+                    int ready = 0;
+                    if (v1StatefulSet.getSpec() != null && v1StatefulSet.getSpec().getReplicas() != null) {
+                        desired = v1StatefulSet.getSpec().getReplicas();
+                    }
+                    if (status != null && status.getReadyReplicas() != null) {
+                        ready = status.getReadyReplicas();
+                    }
+                    
+                    StatefulsetResponse.ReplicasInfo replicas = new StatefulsetResponse.ReplicasInfo();
+                    replicas.setDesired(desired);
+                    replicas.setReady(ready);
+                    statefulset.setReplicas(replicas);
+                    
+                    // Status: running nếu ready == desired, error nếu ready < desired và có điều kiện lỗi
+                    String stsStatus = "running";
+                    if (ready < desired) {
+                        // Kiểm tra conditions để xác định có lỗi không
+                        if (status != null && status.getConditions() != null) {
+                            for (io.kubernetes.client.openapi.models.V1StatefulSetCondition condition : status.getConditions()) {
+                                if ("False".equals(condition.getStatus()) && "Progressing".equals(condition.getType())) {
+                                    stsStatus = "error";
+                                    break;
                                 }
-                            } else {
-                                stsStatus = "error";
                             }
-                        }
-                        statefulset.setStatus(stsStatus);
-                        
-                        // Service từ spec.serviceName
-                        if (v1StatefulSet.getSpec() != null && v1StatefulSet.getSpec().getServiceName() != null) {
-                            statefulset.setService(v1StatefulSet.getSpec().getServiceName());
                         } else {
-                            statefulset.setService("");
+                            stsStatus = "error";
                         }
-                        
-                        // Containers và Images từ spec.template.spec.containers
-                        List<String> containers = new ArrayList<>();
-                        List<String> images = new ArrayList<>();
-                        if (v1StatefulSet.getSpec() != null 
-                                && v1StatefulSet.getSpec().getTemplate() != null
-                                && v1StatefulSet.getSpec().getTemplate().getSpec() != null
-                                && v1StatefulSet.getSpec().getTemplate().getSpec().getContainers() != null) {
-                            for (io.kubernetes.client.openapi.models.V1Container container : 
-                                    v1StatefulSet.getSpec().getTemplate().getSpec().getContainers()) {
-                                if (container.getName() != null) {
-                                    containers.add(container.getName());
-                                }
-                                if (container.getImage() != null) {
-                                    images.add(container.getImage());
-                                }
+                    }
+                    statefulset.setStatus(stsStatus);
+                    
+                    // Service từ spec.serviceName
+                    if (v1StatefulSet.getSpec() != null && v1StatefulSet.getSpec().getServiceName() != null) {
+                        statefulset.setService(v1StatefulSet.getSpec().getServiceName());
+                    } else {
+                        statefulset.setService("");
+                    }
+                    
+                    // Containers và Images từ spec.template.spec.containers
+                    List<String> containers = new ArrayList<>();
+                    List<String> images = new ArrayList<>();
+                    if (v1StatefulSet.getSpec() != null 
+                            && v1StatefulSet.getSpec().getTemplate() != null
+                            && v1StatefulSet.getSpec().getTemplate().getSpec() != null
+                            && v1StatefulSet.getSpec().getTemplate().getSpec().getContainers() != null) {
+                        for (io.kubernetes.client.openapi.models.V1Container container : 
+                                v1StatefulSet.getSpec().getTemplate().getSpec().getContainers()) {
+                            if (container.getName() != null) {
+                                containers.add(container.getName());
+                            }
+                            if (container.getImage() != null) {
+                                images.add(container.getImage());
                             }
                         }
-                        statefulset.setContainers(containers);
-                        statefulset.setImages(images);
-                        
-                        statefulsets.add(statefulset);
-                        
-                    } catch (Exception e) {
-                        // Bỏ qua statefulset nếu có lỗi, tiếp tục với statefulset tiếp theo
                     }
+                    statefulset.setContainers(containers);
+                    statefulset.setImages(images);
+                    
+                    statefulsets.add(statefulset);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua statefulset nếu có lỗi, tiếp tục với statefulset tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách statefulsets từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new StatefulsetListResponse(statefulsets);
+            return new StatefulsetListResponse(statefulsets, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách statefulsets: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -3310,9 +2692,10 @@ public class AdminServiceImpl implements AdminService {
      * Lấy danh sách tất cả services trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng CoreV1Api để lấy danh sách services từ tất cả namespaces
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1Service objects thành ServiceResponse:
      *    - Namespace, Name
      *    - Type từ spec.type (ClusterIP, NodePort, LoadBalancer)
@@ -3323,169 +2706,132 @@ public class AdminServiceImpl implements AdminService {
      *    - Age từ creationTimestamp
      * 5. Tổng hợp và trả về ServiceListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return ServiceListResponse chứa danh sách services
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public ServiceListResponse getServices() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public ServiceListResponse getServices(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            CoreV1Api api = new CoreV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            ClusterStateCache.Snapshot<V1Service> snapshot = clusterStateCache.query(V1Service.class, toListQuery(request));
             
             List<ServiceResponse> services = new ArrayList<>();
             
-            // Lấy danh sách services từ tất cả namespaces
-            try {
-                io.kubernetes.client.openapi.models.V1ServiceList serviceList = api.listServiceForAllNamespaces(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (serviceList.getItems() == null) {
-                    return new ServiceListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng service
-                for (V1Service v1Service : serviceList.getItems()) {
-                    try {
-                        ServiceResponse service = new ServiceResponse();
-                        
-                        // Basic info
-                        String namespace = v1Service.getMetadata().getNamespace();
-                        String name = v1Service.getMetadata().getName();
-                        service.setId(name + "-" + namespace);
-                        service.setName(name);
-                        service.setNamespace(namespace);
+            // Parse từng service
+            for (V1Service v1Service : snapshot.items()) {
+                try {
+                    ServiceResponse service = new ServiceResponse();
+                    
+                    // Basic info
+                    String namespace = v1Service.getMetadata().getNamespace();
+                    String name = v1Service.getMetadata().getName();
+                    service.setId(name + "-" + namespace);
+                    service.setName(name);
+                    service.setNamespace(namespace);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1Service.getMetadata().getCreationTimestamp();
+                    service.setAge(calculateAge(creationTimestamp));
+                    
+                    // Service spec
+                    V1ServiceSpec spec = v1Service.getSpec();
+                    if (spec != null) {
+                        // Type
+                        if (spec.getType() != null) {
+                            service.setType(spec.getType());
+                        } else {
+                            service.setType("ClusterIP"); // Default
+                        }
                         
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1Service.getMetadata().getCreationTimestamp();
-                        service.setAge(calculateAge(creationTimestamp));
+                        // ClusterIP
+                        if (spec.getClusterIP() != null && !spec.getClusterIP().equals("None")) {
+                            service.setClusterIP(spec.getClusterIP());
+                        } else {
+                            service.setClusterIP("-");
+                        }
                         
-                        // Service spec
-                        V1ServiceSpec spec = v1Service.getSpec();
-                        if (spec != null) {
-                            // Type
-                            if (spec.getType() != null) {
-                                service.setType(spec.getType());
-                            } else {
-                                service.setType("ClusterIP"); // Default
-                            }
-                            
-                            // ClusterIP
-                            if (spec.getClusterIP() != null && !spec.getClusterIP().equals("None")) {
-                                service.setClusterIP(spec.getClusterIP());
-                            } else {
-                                service.setClusterIP("-");
-                            }
-                            
-                            // Ports
-                            List<ServiceResponse.PortInfo> ports = new ArrayList<>();
-                            if (spec.getPorts() != null) {
-                                for (V1ServicePort servicePort : spec.getPorts()) {
-                                    ServiceResponse.PortInfo portInfo = new ServiceResponse.PortInfo();
-                                    if (servicePort.getPort() != null) {
-                                        portInfo.setPort(servicePort.getPort());
-                                    }
-                                    // TargetPort có thể là IntOrString (Integer hoặc String)
-                                    if (servicePort.getTargetPort() != null) {
-                                        if (servicePort.getTargetPort().isInteger()) {
-                                            portInfo.setTargetPort(servicePort.getTargetPort().getIntValue());
-                                        } else if (servicePort.getTargetPort().getStrValue() != null) {
-                                            // Nếu là string, cố gắng parse hoặc dùng port làm targetPort
-                                            try {
-                                                portInfo.setTargetPort(Integer.parseInt(servicePort.getTargetPort().getStrValue()));
-                                            } catch (NumberFormatException e) {
-                                                // Nếu không parse được, dùng port làm targetPort
-                                                portInfo.setTargetPort(servicePort.getPort());
-                                            }
+                        // Ports
+                        List<ServiceResponse.PortInfo> ports = new ArrayList<>();
+                        if (spec.getPorts() != null) {
+                            for (V1ServicePort servicePort : spec.getPorts()) {
+                                ServiceResponse.PortInfo portInfo = new ServiceResponse.PortInfo();
+                                if (servicePort.getPort() != null) {
+                                    portInfo.setPort(servicePort.getPort());
+                                }
+                                // TargetPort có thể là IntOrString (Integer hoặc String)
+                                if (servicePort.getTargetPort() != null) {
+                                    if (servicePort.getTargetPort().isInteger()) {
+                                        portInfo.setTargetPort(servicePort.getTargetPort().getIntValue());
+                                    } else if (servicePort.getTargetPort().getStrValue() != null) {
+                                        // Nếu là string, cố gắng parse hoặc dùng port làm targetPort
+                                        try {
+                                            portInfo.setTargetPort(Integer.parseInt(servicePort.getTargetPort().getStrValue()));
+                                        } catch (NumberFormatException e) {
+                                            // Nếu không parse được, dùng port làm targetPort
+                                            portInfo.setTargetPort(servicePort.getPort());
                                         }
-                                    } else {
-                                        // Nếu không có targetPort, dùng port
-                                        portInfo.setTargetPort(servicePort.getPort());
-                                    }
-                                    if (servicePort.getProtocol() != null) {
-                                        portInfo.setProtocol(servicePort.getProtocol());
-                                    } else {
-                                        portInfo.setProtocol("TCP"); // Default
                                     }
-                                    ports.add(portInfo);
+                                } else {
+                                    // Nếu không có targetPort, dùng port
+                                    portInfo.setTargetPort(servicePort.getPort());
                                 }
-                            }
-                            service.setPorts(ports);
-                            
-                            // Selector
-                            if (spec.getSelector() != null && !spec.getSelector().isEmpty()) {
-                                Map<String, String> selector = new HashMap<>(spec.getSelector());
-                                service.setSelector(selector);
-                            } else {
-                                service.setSelector(new HashMap<>());
+                                if (servicePort.getProtocol() != null) {
+                                    portInfo.setProtocol(servicePort.getProtocol());
+                                } else {
+                                    portInfo.setProtocol("TCP"); // Default
+                                }
+                                ports.add(portInfo);
                             }
                         }
+                        service.setPorts(ports);
                         
-                        // ExternalIP
-                        String externalIP = "-";
-                        V1ServiceStatus status = v1Service.getStatus();
-                        if (status != null && status.getLoadBalancer() != null 
-                                && status.getLoadBalancer().getIngress() != null
-                                && !status.getLoadBalancer().getIngress().isEmpty()) {
-                            // Lấy IP từ LoadBalancer ingress
-                            List<String> externalIPs = new ArrayList<>();
-                            for (io.kubernetes.client.openapi.models.V1LoadBalancerIngress ingress : 
-                                    status.getLoadBalancer().getIngress()) {
-                                if (ingress.getIp() != null) {
-                                    externalIPs.add(ingress.getIp());
-                                } else if (ingress.getHostname() != null) {
-                                    externalIPs.add(ingress.getHostname());
-                                }
-                            }
-                            if (!externalIPs.isEmpty()) {
-                                externalIP = String.join(",", externalIPs);
+                        // Selector
+                        if (spec.getSelector() != null && !spec.getSelector().isEmpty()) {
+                            Map<String, String> selector = new HashMap<>(spec.getSelector());
+                            service.setSelector(selector);
+                        } else {
+                            service.setSelector(new HashMap<>());
+                        }
+                    }
+                    
+                    // ExternalIP
+                    String externalIP = "-";
+                    V1ServiceStatus status = v1Service.getStatus();
+                    if (status != null && status.getLoadBalancer() != null 
+                            && status.getLoadBalancer().getIngress() != null
+                            && !status.getLoadBalancer().getIngress().isEmpty()) {
+                        // Lấy IP từ LoadBalancer ingress
+                        List<String> externalIPs = new ArrayList<>();
+                        for (io.kubernetes.client.openapi.models.V1LoadBalancerIngress ingress : 
+                                status.getLoadBalancer().getIngress()) {
+                            if (ingress.getIp() != null) {
+                                externalIPs.add(ingress.getIp());
+                            } else if (ingress.getHostname() != null) {
+                                externalIPs.add(ingress.getHostname());
                             }
-                        } else if (spec != null && spec.getExternalIPs() != null && !spec.getExternalIPs().isEmpty()) {
-                            // Fallback: lấy từ spec.externalIPs
-                            externalIP = String.join(",", spec.getExternalIPs());
                         }
-                        service.setExternalIP(externalIP);
-                        
-                        services.add(service);
-                        
-                    } catch (Exception e) {
-                        // Bỏ qua service nếu có lỗi, tiếp tục với service tiếp theo
+                        if (!externalIPs.isEmpty()) {
+                            externalIP = String.join(",", externalIPs);
+                        }
+                    } else if (spec != null && spec.getExternalIPs() != null && !spec.getExternalIPs().isEmpty()) {
+                        // Fallback: lấy từ spec.externalIPs
+                        externalIP = String.join(",", spec.getExternalIPs());
                     }
+                    service.setExternalIP(externalIP);
+                    
+                    services.add(service);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua service nếu có lỗi, tiếp tục với service tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách services từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new ServiceListResponse(services);
+            return new ServiceListResponse(services, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách services: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -3493,9 +2839,10 @@ public class AdminServiceImpl implements AdminService {
      * Lấy danh sách tất cả ingress trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng NetworkingV1Api để lấy danh sách ingress từ tất cả namespaces
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1Ingress objects thành IngressResponse:
      *    - Namespace, Name
      *    - IngressClass từ spec.ingressClassName
@@ -3505,164 +2852,127 @@ public class AdminServiceImpl implements AdminService {
      *    - Age từ creationTimestamp
      * 5. Tổng hợp và trả về IngressListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return IngressListResponse chứa danh sách ingress
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public IngressListResponse getIngress() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public IngressListResponse getIngress(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            NetworkingV1Api api = new NetworkingV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            ClusterStateCache.Snapshot<V1Ingress> snapshot = clusterStateCache.query(V1Ingress.class, toListQuery(request));
             
             List<IngressResponse> ingressList = new ArrayList<>();
             
-            // Lấy danh sách ingress từ tất cả namespaces
-            try {
-                io.kubernetes.client.openapi.models.V1IngressList ingressListResponse = api.listIngressForAllNamespaces(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (ingressListResponse.getItems() == null) {
-                    return new IngressListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng ingress
-                for (V1Ingress v1Ingress : ingressListResponse.getItems()) {
-                    try {
-                        IngressResponse ingress = new IngressResponse();
-                        
-                        // Basic info
-                        String namespace = v1Ingress.getMetadata().getNamespace();
-                        String name = v1Ingress.getMetadata().getName();
-                        ingress.setId(name + "-" + namespace);
-                        ingress.setName(name);
-                        ingress.setNamespace(namespace);
+            // Parse từng ingress
+            for (V1Ingress v1Ingress : snapshot.items()) {
+                try {
+                    IngressResponse ingress = new IngressResponse();
+                    
+                    // Basic info
+                    String namespace = v1Ingress.getMetadata().getNamespace();
+                    String name = v1Ingress.getMetadata().getName();
+                    ingress.setId(name + "-" + namespace);
+                    ingress.setName(name);
+                    ingress.setNamespace(namespace);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1Ingress.getMetadata().getCreationTimestamp();
+                    ingress.setAge(calculateAge(creationTimestamp));
+                    
+                    // Ingress spec
+                    V1IngressSpec spec = v1Ingress.getSpec();
+                    if (spec != null) {
+                        // IngressClass từ spec.ingressClassName
+                        if (spec.getIngressClassName() != null) {
+                            ingress.setIngressClass(spec.getIngressClassName());
+                        } else {
+                            ingress.setIngressClass(null);
+                        }
                         
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1Ingress.getMetadata().getCreationTimestamp();
-                        ingress.setAge(calculateAge(creationTimestamp));
+                        // Hosts từ spec.rules[*].host
+                        List<String> hosts = new ArrayList<>();
+                        Set<Integer> portsSet = new HashSet<>();
                         
-                        // Ingress spec
-                        V1IngressSpec spec = v1Ingress.getSpec();
-                        if (spec != null) {
-                            // IngressClass từ spec.ingressClassName
-                            if (spec.getIngressClassName() != null) {
-                                ingress.setIngressClass(spec.getIngressClassName());
-                            } else {
-                                ingress.setIngressClass(null);
-                            }
-                            
-                            // Hosts từ spec.rules[*].host
-                            List<String> hosts = new ArrayList<>();
-                            Set<Integer> portsSet = new HashSet<>();
-                            
-                            if (spec.getRules() != null) {
-                                for (V1IngressRule rule : spec.getRules()) {
-                                    if (rule.getHost() != null && !rule.getHost().isEmpty()) {
-                                        hosts.add(rule.getHost());
-                                    }
-                                    
-                                    // Lấy ports từ paths
-                                    if (rule.getHttp() != null && rule.getHttp().getPaths() != null) {
-                                        for (io.kubernetes.client.openapi.models.V1HTTPIngressPath path : 
-                                                rule.getHttp().getPaths()) {
-                                            if (path.getBackend() != null 
-                                                    && path.getBackend().getService() != null
-                                                    && path.getBackend().getService().getPort() != null) {
-                                                io.kubernetes.client.openapi.models.V1ServiceBackendPort servicePort = 
-                                                        path.getBackend().getService().getPort();
-                                                if (servicePort.getNumber() != null) {
-                                                    portsSet.add(servicePort.getNumber());
-                                                } else if (servicePort.getName() != null) {
-                                                    // Nếu là tên port, thử parse hoặc dùng mặc định
-                                                    // Thường là "http" (80) hoặc "https" (443)
-                                                    if ("http".equalsIgnoreCase(servicePort.getName())) {
-                                                        portsSet.add(80);
-                                                    } else if ("https".equalsIgnoreCase(servicePort.getName())) {
-                                                        portsSet.add(443);
-                                                    }
+                        if (spec.getRules() != null) {
+                            for (V1IngressRule rule : spec.getRules()) {
+                                if (rule.getHost() != null && !rule.getHost().isEmpty()) {
+                                    hosts.add(rule.getHost());
+                                }
+                                
+                                // Lấy ports từ paths
+                                if (rule.getHttp() != null && rule.getHttp().getPaths() != null) {
+                                    for (io.kubernetes.client.openapi.models.V1HTTPIngressPath path : 
+                                            rule.getHttp().getPaths()) {
+                                        if (path.getBackend() != null 
+                                                && path.getBackend().getService() != null
+                                                && path.getBackend().getService().getPort() != null) {
+                                            io.kubernetes.client.openapi.models.V1ServiceBackendPort servicePort = 
+                                                    path.getBackend().getService().getPort();
+                                            if (servicePort.getNumber() != null) {
+                                                portsSet.add(servicePort.getNumber());
+                                            } else if (servicePort.getName() != null) {
+                                                // Nếu là tên port, thử parse hoặc dùng mặc định
+                                                // Thường là "http" (80) hoặc "https" (443)
+                                                if ("http".equalsIgnoreCase(servicePort.getName())) {
+                                                    portsSet.add(80);
+                                                } else if ("https".equalsIgnoreCase(servicePort.getName())) {
+                                                    portsSet.add(443);
                                                 }
                                             }
                                         }
                                     }
                                 }
                             }
-                            
-                            ingress.setHosts(hosts);
-                            
-                            // Ports: nếu không có port nào được tìm thấy, dùng mặc định 80, 443
-                            List<Integer> ports = new ArrayList<>(portsSet);
-                            if (ports.isEmpty()) {
-                                ports.add(80);
-                                ports.add(443);
-                            }
-                            ports.sort(Integer::compareTo);
-                            ingress.setPorts(ports);
-                        } else {
-                            ingress.setHosts(new ArrayList<>());
-                            ingress.setPorts(Arrays.asList(80, 443));
                         }
                         
-                        // Address từ status.loadBalancer.ingress
-                        String address = null;
-                        V1IngressStatus status = v1Ingress.getStatus();
-                        if (status != null && status.getLoadBalancer() != null 
-                                && status.getLoadBalancer().getIngress() != null
-                                && !status.getLoadBalancer().getIngress().isEmpty()) {
-                            List<String> addresses = new ArrayList<>();
-                            for (V1IngressLoadBalancerIngress lbIngress : status.getLoadBalancer().getIngress()) {
-                                if (lbIngress.getIp() != null) {
-                                    addresses.add(lbIngress.getIp());
-                                } else if (lbIngress.getHostname() != null) {
-                                    addresses.add(lbIngress.getHostname());
-                                }
-                            }
-                            if (!addresses.isEmpty()) {
-                                address = String.join(",", addresses);
+                        ingress.setHosts(hosts);
+                        
+                        // Ports: nếu không có port nào được tìm thấy, dùng mặc định 80, 443
+                        List<Integer> ports = new ArrayList<>(portsSet);
+                        if (ports.isEmpty()) {
+                            ports.add(80);
+                            ports.add(443);
+                        }
+                        ports.sort(Integer::compareTo);
+                        ingress.setPorts(ports);
+                    } else {
+                        ingress.setHosts(new ArrayList<>());
+                        ingress.setPorts(Arrays.asList(80, 443));
+                    }
+                    
+                    // Address từ status.loadBalancer.ingress
+                    String address = null;
+                    V1IngressStatus status = v1Ingress.getStatus();
+                    if (status != null && status.getLoadBalancer() != null 
+                            && status.getLoadBalancer().getIngress() != null
+                            && !status.getLoadBalancer().getIngress().isEmpty()) {
+                        List<String> addresses = new ArrayList<>();
+                        for (V1IngressLoadBalancerIngress lbIngress : status.getLoadBalancer().getIngress()) {
+                            if (lbIngress.getIp() != null) {
+                                addresses.add(lbIngress.getIp());
+                            } else if (lbIngress.getHostname() != null) {
+                                addresses.add(lbIngress.getHostname());
                             }
                         }
-                        ingress.setAddress(address);
-                        
-                        ingressList.add(ingress);
-                        
-                    } catch (Exception e) {
-                        // Bỏ qua ingress nếu có lỗi, tiếp tục với ingress tiếp theo
+                        if (!addresses.isEmpty()) {
+                            address = String.join(",", addresses);
+                        }
                     }
+                    ingress.setAddress(address);
+                    
+                    ingressList.add(ingress);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua ingress nếu có lỗi, tiếp tục với ingress tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách ingress từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new IngressListResponse(ingressList);
+            return new IngressListResponse(ingressList, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách ingress: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -3670,9 +2980,10 @@ public class AdminServiceImpl implements AdminService {
      * Lấy danh sách tất cả PVCs (PersistentVolumeClaims) trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng CoreV1Api để lấy danh sách PVCs từ tất cả namespaces
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1PersistentVolumeClaim objects thành PVCResponse:
      *    - Namespace, Name
      *    - Status từ status.phase (Bound/Pending)
@@ -3685,151 +2996,114 @@ public class AdminServiceImpl implements AdminService {
      *    - Age từ creationTimestamp
      * 5. Tổng hợp và trả về PVCListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return PVCListResponse chứa danh sách PVCs
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public PVCListResponse getPVCs() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public PVCListResponse getPVCs(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            CoreV1Api api = new CoreV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            ClusterStateCache.Snapshot<V1PersistentVolumeClaim> snapshot = clusterStateCache.query(V1PersistentVolumeClaim.class, toListQuery(request));
             
             List<PVCResponse> pvcs = new ArrayList<>();
             
-            // Lấy danh sách PVCs từ tất cả namespaces
-            try {
-                io.kubernetes.client.openapi.models.V1PersistentVolumeClaimList pvcList = api.listPersistentVolumeClaimForAllNamespaces(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (pvcList.getItems() == null) {
-                    return new PVCListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng PVC
-                for (V1PersistentVolumeClaim v1PVC : pvcList.getItems()) {
-                    try {
-                        PVCResponse pvc = new PVCResponse();
+            // Parse từng PVC
+            for (V1PersistentVolumeClaim v1PVC : snapshot.items()) {
+                try {
+                    PVCResponse pvc = new PVCResponse();
+                    
+                    // Basic info
+                    String namespace = v1PVC.getMetadata().getNamespace();
+                    String name = v1PVC.getMetadata().getName();
+                    pvc.setId(name + "-" + namespace);
+                    pvc.setName(name);
+                    pvc.setNamespace(namespace);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1PVC.getMetadata().getCreationTimestamp();
+                    pvc.setAge(calculateAge(creationTimestamp));
+                    
+                    // PVC spec
+                    V1PersistentVolumeClaimSpec spec = v1PVC.getSpec();
+                    if (spec != null) {
+                        // AccessModes
+                        List<String> accessModes = new ArrayList<>();
+                        if (spec.getAccessModes() != null) {
+                            accessModes.addAll(spec.getAccessModes());
+                        }
+                        pvc.setAccessModes(accessModes);
                         
-                        // Basic info
-                        String namespace = v1PVC.getMetadata().getNamespace();
-                        String name = v1PVC.getMetadata().getName();
-                        pvc.setId(name + "-" + namespace);
-                        pvc.setName(name);
-                        pvc.setNamespace(namespace);
+                        // StorageClass
+                        if (spec.getStorageClassName() != null) {
+                            pvc.setStorageClass(spec.getStorageClassName());
+                        } else {
+                            pvc.setStorageClass("");
+                        }
                         
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1PVC.getMetadata().getCreationTimestamp();
-                        pvc.setAge(calculateAge(creationTimestamp));
+                        // VolumeAttributesClass - không có trong version hiện tại của Kubernetes Java Client
+                        pvc.setVolumeAttributesClass(null);
                         
-                        // PVC spec
-                        V1PersistentVolumeClaimSpec spec = v1PVC.getSpec();
-                        if (spec != null) {
-                            // AccessModes
-                            List<String> accessModes = new ArrayList<>();
-                            if (spec.getAccessModes() != null) {
-                                accessModes.addAll(spec.getAccessModes());
-                            }
-                            pvc.setAccessModes(accessModes);
-                            
-                            // StorageClass
-                            if (spec.getStorageClassName() != null) {
-                                pvc.setStorageClass(spec.getStorageClassName());
-                            } else {
-                                pvc.setStorageClass("");
-                            }
-                            
-                            // VolumeAttributesClass - không có trong version hiện tại của Kubernetes Java Client
-                            pvc.setVolumeAttributesClass(null);
-                            
-                            // VolumeMode
-                            if (spec.getVolumeMode() != null) {
-                                pvc.setVolumeMode(spec.getVolumeMode());
-                            } else {
-                                pvc.setVolumeMode(null);
-                            }
-                            
-                            // Volume từ spec.volumeName
-                            if (spec.getVolumeName() != null && !spec.getVolumeName().isEmpty()) {
-                                pvc.setVolume(spec.getVolumeName());
-                            } else {
-                                pvc.setVolume(null);
-                            }
+                        // VolumeMode
+                        if (spec.getVolumeMode() != null) {
+                            pvc.setVolumeMode(spec.getVolumeMode());
+                        } else {
+                            pvc.setVolumeMode(null);
                         }
                         
-                        // PVC status
-                        V1PersistentVolumeClaimStatus status = v1PVC.getStatus();
-                        if (status != null) {
-                            // Status từ phase
-                            if (status.getPhase() != null) {
-                                String phase = status.getPhase();
-                                if ("Bound".equalsIgnoreCase(phase)) {
-                                    pvc.setStatus("bound");
-                                } else {
-                                    pvc.setStatus("pending");
-                                }
+                        // Volume từ spec.volumeName
+                        if (spec.getVolumeName() != null && !spec.getVolumeName().isEmpty()) {
+                            pvc.setVolume(spec.getVolumeName());
+                        } else {
+                            pvc.setVolume(null);
+                        }
+                    }
+                    
+                    // PVC status
+                    V1PersistentVolumeClaimStatus status = v1PVC.getStatus();
+                    if (status != null) {
+                        // Status từ phase
+                        if (status.getPhase() != null) {
+                            String phase = status.getPhase();
+                            if ("Bound".equalsIgnoreCase(phase)) {
+                                pvc.setStatus("bound");
                             } else {
                                 pvc.setStatus("pending");
                             }
-                            
-                            // Capacity từ status.capacity
-                            if (status.getCapacity() != null && status.getCapacity().containsKey("storage")) {
-                                String capacity = parseQuantityToGB(status.getCapacity().get("storage"));
-                                pvc.setCapacity(capacity);
-                            } else if (spec != null && spec.getResources() != null 
-                                    && spec.getResources().getRequests() != null
-                                    && spec.getResources().getRequests().containsKey("storage")) {
-                                // Fallback: lấy từ spec.resources.requests.storage
-                                String capacity = parseQuantityToGB(spec.getResources().getRequests().get("storage"));
-                                pvc.setCapacity(capacity);
-                            } else {
-                                pvc.setCapacity("");
-                            }
                         } else {
                             pvc.setStatus("pending");
-                            pvc.setCapacity("");
                         }
                         
-                        pvcs.add(pvc);
-                        
-                    } catch (Exception e) {
-                        // Bỏ qua PVC nếu có lỗi, tiếp tục với PVC tiếp theo
+                        // Capacity từ status.capacity
+                        if (status.getCapacity() != null && status.getCapacity().containsKey("storage")) {
+                            String capacity = parseQuantityToGB(status.getCapacity().get("storage"));
+                            pvc.setCapacity(capacity);
+                        } else if (spec != null && spec.getResources() != null 
+                                && spec.getResources().getRequests() != null
+                                && spec.getResources().getRequests().containsKey("storage")) {
+                            // Fallback: lấy từ spec.resources.requests.storage
+                            String capacity = parseQuantityToGB(spec.getResources().getRequests().get("storage"));
+                            pvc.setCapacity(capacity);
+                        } else {
+                            pvc.setCapacity("");
+                        }
+                    } else {
+                        pvc.setStatus("pending");
+                        pvc.setCapacity("");
                     }
+                    
+                    pvcs.add(pvc);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua PVC nếu có lỗi, tiếp tục với PVC tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách PVCs từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new PVCListResponse(pvcs);
+            return new PVCListResponse(pvcs, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách PVCs: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
 
@@ -3837,9 +3111,10 @@ public class AdminServiceImpl implements AdminService {
      * Lấy danh sách tất cả PVs (PersistentVolumes) trong cluster sử dụng Kubernetes Java Client.
      * 
      * Quy trình xử lý:
-     * 1. Kết nối SSH đến MASTER server để lấy kubeconfig
-     * 2. Tạo Kubernetes Java Client từ kubeconfig
-     * 3. Sử dụng CoreV1Api để lấy danh sách PVs
+     * 1. Đọc một trang từ ClusterStateCache (indexer của informer) theo bộ lọc của request:
+     *    namespace, label/field selector, phạm vi project/user, sort, limit/continue
+     * 2. Cache bị tắt hoặc informer chưa sync kịp thì list trực tiếp một lần từ API server
+     * 3. Kèm resourceVersion và độ trễ dữ liệu (staleness) của cache vào response
      * 4. Parse V1PersistentVolume objects thành PVResponse:
      *    - Name
      *    - Capacity từ spec.capacity.storage
@@ -3854,162 +3129,153 @@ public class AdminServiceImpl implements AdminService {
      *    - Age từ creationTimestamp
      * 5. Tổng hợp và trả về PVListResponse
      * 
+     * @param request Bộ lọc, sắp xếp và phân trang (có thể null = lấy tất cả)
      * @return PVListResponse chứa danh sách PVs
      * @throws RuntimeException nếu không thể kết nối MASTER hoặc lỗi khi gọi Kubernetes API
      */
     @Override
-    public PVListResponse getPVs() {
-        // Lấy thông tin server MASTER
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException(
-                        "Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session session = null;
+    public PVListResponse getPVs(ResourceListRequest request) {
         try {
-            // Kết nối SSH đến MASTER server để lấy kubeconfig
-            session = createSession(masterServer);
-            
-            // Tạo Kubernetes client từ kubeconfig
-            ApiClient client = createKubernetesClient(session);
-            CoreV1Api api = new CoreV1Api(client);
+            // Đọc một trang từ cache informer (indexer cục bộ, không gọi API server mỗi request)
+            // PV là cluster-scoped: phạm vi namespace áp theo namespace của PVC đang bind (claimRef)
+            ListQuery query = clusterScoped(toListQuery(request), object -> {
+                V1PersistentVolumeSpec pvSpec = ((V1PersistentVolume) object).getSpec();
+                V1ObjectReference claimRef = pvSpec != null ? pvSpec.getClaimRef() : null;
+                return claimRef != null ? claimRef.getNamespace() : null;
+            });
+            ClusterStateCache.Snapshot<V1PersistentVolume> snapshot = clusterStateCache.query(V1PersistentVolume.class, query);
             
             List<PVResponse> pvs = new ArrayList<>();
             
-            // Lấy danh sách PVs
-            try {
-                io.kubernetes.client.openapi.models.V1PersistentVolumeList pvList = api.listPersistentVolume(
-                        null,  // allowWatchBookmarks
-                        null,  // _continue
-                        null,  // fieldSelector
-                        null,  // labelSelector
-                        null,  // limit
-                        null,  // pretty
-                        null,  // resourceVersion
-                        null,  // resourceVersionMatch
-                        null,  // sendInitialEvents
-                        null,  // timeoutSeconds
-                        null   // watch
-                );
-                
-                if (pvList.getItems() == null) {
-                    return new PVListResponse(new ArrayList<>());
-                }
-                
-                // Parse từng PV
-                for (V1PersistentVolume v1PV : pvList.getItems()) {
-                    try {
-                        PVResponse pv = new PVResponse();
+            // Parse từng PV
+            for (V1PersistentVolume v1PV : snapshot.items()) {
+                try {
+                    PVResponse pv = new PVResponse();
+                    
+                    // Basic info
+                    String name = v1PV.getMetadata().getName();
+                    pv.setId(name);
+                    pv.setName(name);
+                    
+                    // Age từ creationTimestamp
+                    OffsetDateTime creationTimestamp = v1PV.getMetadata().getCreationTimestamp();
+                    pv.setAge(calculateAge(creationTimestamp));
+                    
+                    // PV spec
+                    V1PersistentVolumeSpec spec = v1PV.getSpec();
+                    if (spec != null) {
+                        // Capacity từ spec.capacity
+                        if (spec.getCapacity() != null && spec.getCapacity().containsKey("storage")) {
+                            String capacity = parseQuantityToGB(spec.getCapacity().get("storage"));
+                            pv.setCapacity(capacity);
+                        } else {
+                            pv.setCapacity("");
+                        }
                         
-                        // Basic info
-                        String name = v1PV.getMetadata().getName();
-                        pv.setId(name);
-                        pv.setName(name);
+                        // AccessModes
+                        List<String> accessModes = new ArrayList<>();
+                        if (spec.getAccessModes() != null) {
+                            accessModes.addAll(spec.getAccessModes());
+                        }
+                        pv.setAccessModes(accessModes);
                         
-                        // Age từ creationTimestamp
-                        OffsetDateTime creationTimestamp = v1PV.getMetadata().getCreationTimestamp();
-                        pv.setAge(calculateAge(creationTimestamp));
+                        // ReclaimPolicy
+                        if (spec.getPersistentVolumeReclaimPolicy() != null) {
+                            pv.setReclaimPolicy(spec.getPersistentVolumeReclaimPolicy());
+                        } else {
+                            pv.setReclaimPolicy("Retain"); // Default
+                        }
                         
-                        // PV spec
-                        V1PersistentVolumeSpec spec = v1PV.getSpec();
-                        if (spec != null) {
-                            // Capacity từ spec.capacity
-                            if (spec.getCapacity() != null && spec.getCapacity().containsKey("storage")) {
-                                String capacity = parseQuantityToGB(spec.getCapacity().get("storage"));
-                                pv.setCapacity(capacity);
-                            } else {
-                                pv.setCapacity("");
-                            }
-                            
-                            // AccessModes
-                            List<String> accessModes = new ArrayList<>();
-                            if (spec.getAccessModes() != null) {
-                                accessModes.addAll(spec.getAccessModes());
-                            }
-                            pv.setAccessModes(accessModes);
-                            
-                            // ReclaimPolicy
-                            if (spec.getPersistentVolumeReclaimPolicy() != null) {
-                                pv.setReclaimPolicy(spec.getPersistentVolumeReclaimPolicy());
-                            } else {
-                                pv.setReclaimPolicy("Retain"); // Default
-                            }
-                            
-                            // StorageClass
-                            if (spec.getStorageClassName() != null) {
-                                pv.setStorageClass(spec.getStorageClassName());
-                            } else {
-                                pv.setStorageClass("");
-                            }
-                            
-                            // Claim từ spec.claimRef
-                            if (spec.getClaimRef() != null) {
-                                V1ObjectReference claimRef = spec.getClaimRef();
-                                PVResponse.ClaimInfo claim = new PVResponse.ClaimInfo();
-                                if (claimRef.getNamespace() != null) {
-                                    claim.setNamespace(claimRef.getNamespace());
-                                }
-                                if (claimRef.getName() != null) {
-                                    claim.setName(claimRef.getName());
-                                }
-                                pv.setClaim(claim);
-                            } else {
-                                pv.setClaim(null);
-                            }
-                            
-                            // VolumeAttributesClass - không có trong version hiện tại của Kubernetes Java Client
-                            pv.setVolumeAttributesClass(null);
-                            
-                            // VolumeMode
-                            if (spec.getVolumeMode() != null) {
-                                pv.setVolumeMode(spec.getVolumeMode());
-                            } else {
-                                pv.setVolumeMode(null);
-                            }
+                        // StorageClass
+                        if (spec.getStorageClassName() != null) {
+                            pv.setStorageClass(spec.getStorageClassName());
+                        } else {
+                            pv.setStorageClass("");
                         }
                         
-                        // PV status
-                        V1PersistentVolumeStatus status = v1PV.getStatus();
-                        if (status != null) {
-                            // Status từ phase
-                            if (status.getPhase() != null) {
-                                String phase = status.getPhase();
-                                pv.setStatus(phase.toLowerCase()); // Available, Bound, Released
-                            } else {
-                                pv.setStatus("available");
+                        // Claim từ spec.claimRef
+                        if (spec.getClaimRef() != null) {
+                            V1ObjectReference claimRef = spec.getClaimRef();
+                            PVResponse.ClaimInfo claim = new PVResponse.ClaimInfo();
+                            if (claimRef.getNamespace() != null) {
+                                claim.setNamespace(claimRef.getNamespace());
                             }
-                            
-                            // Reason
-                            if (status.getReason() != null) {
-                                pv.setReason(status.getReason());
-                            } else {
-                                pv.setReason(null);
+                            if (claimRef.getName() != null) {
+                                claim.setName(claimRef.getName());
                             }
+                            pv.setClaim(claim);
                         } else {
-                            pv.setStatus("available");
-                            pv.setReason(null);
+                            pv.setClaim(null);
                         }
                         
-                        pvs.add(pv);
+                        // VolumeAttributesClass - không có trong version hiện tại của Kubernetes Java Client
+                        pv.setVolumeAttributesClass(null);
+                        
+                        // VolumeMode
+                        if (spec.getVolumeMode() != null) {
+                            pv.setVolumeMode(spec.getVolumeMode());
+                        } else {
+                            pv.setVolumeMode(null);
+                        }
+                    }
+                    
+                    // PV status
+                    V1PersistentVolumeStatus status = v1PV.getStatus();
+                    if (status != null) {
+                        // Status từ phase
+                        if (status.getPhase() != null) {
+                            String phase = status.getPhase();
+                            pv.setStatus(phase.toLowerCase()); // Available, Bound, Released
+                        } else {
+                            pv.setStatus("available");
+                        }
                         
-                    } catch (Exception e) {
-                        // Bỏ qua PV nếu có lỗi, tiếp tục với PV tiếp theo
+                        // Reason
+                        if (status.getReason() != null) {
+                            pv.setReason(status.getReason());
+                        } else {
+                            pv.setReason(null);
+                        }
+                    } else {
+                        pv.setStatus("available");
+                        pv.setReason(null);
                     }
+                    
+                    pvs.add(pv);
+                    
+                } catch (Exception e) {
+                    // Bỏ qua PV nếu có lỗi, tiếp tục với PV tiếp theo
                 }
-                
-            } catch (ApiException e) {
-                throw new RuntimeException("Không thể lấy danh sách PVs từ Kubernetes API: " + e.getMessage(), e);
             }
             
-            return new PVListResponse(pvs);
+            return new PVListResponse(pvs, snapshot.resourceVersion(), snapshot.stalenessMs(),
+                    snapshot.continueToken(), snapshot.remainingItemCount());
             
         } catch (Exception e) {
             throw new RuntimeException("Không thể lấy danh sách PVs: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo đóng SSH session
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-            }
         }
     }
-}
 
+    /**
+     * Thống kê build theo framework: số lần build, tỉ lệ bước dùng cache và thời gian build.
+     */
+    @Override
+    public BuildCacheStatsResponse getBuildCacheStats() {
+        List<BuildCacheStatsResponse.FrameworkStats> frameworks = new ArrayList<>();
+        for (BuildCacheManager.FrameworkSnapshot s : buildCacheManager.snapshot()) {
+            frameworks.add(new BuildCacheStatsResponse.FrameworkStats(s.framework(), s.builds(), s.steps(),
+                    s.cachedSteps(), s.hitRate(), s.averageBuildMs(), s.lastBuildMs()));
+        }
+        return new BuildCacheStatsResponse(buildCacheManager.getDiskBudgetGb(), frameworks);
+    }
+
+    /**
+     * Thống kê cache thông tin kết nối SSH: số lần dùng lại, số lần load từ DB và số entry bị bỏ.
+     */
+    @Override
+    public SshConnectionStatsResponse getSshConnectionStats() {
+        ServerConnectionRegistry.Stats stats = serverConnectionRegistry.stats();
+        return new SshConnectionStatsResponse(stats.hits(), stats.misses(), stats.invalidations(), stats.size(),
+                stats.hitRatio());
+    }
+}
@@ -17,7 +17,10 @@ import my_spring_app.my_spring_app.entity.ServerEntity;
 import my_spring_app.my_spring_app.repository.ServerRepository;
 import my_spring_app.my_spring_app.service.AnsibleService;
 import my_spring_app.my_spring_app.service.ServerService;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.FleetExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -32,6 +35,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service implementation cho Ansible
@@ -46,8 +51,17 @@ public class AnsibleServiceImpl implements AnsibleService {
     @Autowired
     private ServerService serverService;
     
-    private final ExecutorService initTaskExecutor = Executors.newFixedThreadPool(4);
-    private final ExecutorService playbookTaskExecutor = Executors.newFixedThreadPool(2);
+    // Các bước init chạy qua fan-out dùng chung: giới hạn theo host controller + deadline cho mỗi bước
+    @Autowired
+    private FleetExecutor fleetExecutor;
+    
+    // Deadline cho mỗi bước init Ansible (cài đặt package có thể mất vài phút)
+    @Value("${app.ansible.init-step-deadline-ms:1800000}")
+    private long initStepDeadlineMs = 1800000;
+    
+    // Task nền chủ yếu chờ I/O SSH nên chạy trên virtual thread: không còn bị giới hạn bởi pool thread cố định
+    private final ExecutorService playbookTaskExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ansible-playbook-", 0).factory());
     private final ConcurrentMap<String, TaskStatus> initTaskCache = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, TaskStatus> playbookTaskCache = new ConcurrentHashMap<>();
 
@@ -525,7 +539,7 @@ public class AnsibleServiceImpl implements AnsibleService {
         TaskStatus taskStatus = createInitTask(taskId, null);
         taskStatus.appendLog("Bắt đầu bước 1...\n");
         taskStatus.setProgress(5);
-        initTaskExecutor.submit(() -> runInitAnsibleStep1(request, controllerServer, taskStatus));
+        submitInitStep(1, controllerServer, taskStatus, () -> runInitAnsibleStep1(request, controllerServer, taskStatus));
         
         response.setSuccess(true);
         response.setMessage("Đang thực hiện bước 1. Theo dõi tiến trình bằng taskId.");
@@ -549,7 +563,7 @@ public class AnsibleServiceImpl implements AnsibleService {
         TaskStatus taskStatus = createInitTask(taskId, null);
         taskStatus.appendLog("Bắt đầu bước 2...\n");
         taskStatus.setProgress(5);
-        initTaskExecutor.submit(() -> runInitAnsibleStep2(request, controllerServer, taskStatus));
+        submitInitStep(2, controllerServer, taskStatus, () -> runInitAnsibleStep2(request, controllerServer, taskStatus));
             
             response.setSuccess(true);
         response.setMessage("Đang thực hiện bước 2. Theo dõi tiến trình bằng taskId.");
@@ -573,7 +587,7 @@ public class AnsibleServiceImpl implements AnsibleService {
         TaskStatus taskStatus = createInitTask(taskId, null);
         taskStatus.appendLog("Bắt đầu bước 3...\n");
         taskStatus.setProgress(5);
-        initTaskExecutor.submit(() -> runInitAnsibleStep3(request, controllerServer, taskStatus));
+        submitInitStep(3, controllerServer, taskStatus, () -> runInitAnsibleStep3(request, controllerServer, taskStatus));
         
         response.setSuccess(true);
         response.setMessage("Đang thực hiện bước 3. Theo dõi tiến trình bằng taskId.");
@@ -597,13 +611,28 @@ public class AnsibleServiceImpl implements AnsibleService {
         TaskStatus taskStatus = createInitTask(taskId, null);
         taskStatus.appendLog("Bắt đầu bước 4...\n");
         taskStatus.setProgress(5);
-        initTaskExecutor.submit(() -> runInitAnsibleStep4(controllerServer, taskStatus));
+        submitInitStep(4, controllerServer, taskStatus, () -> runInitAnsibleStep4(controllerServer, taskStatus));
         
         response.setSuccess(true);
         response.setMessage("Đang thực hiện bước 4. Theo dõi tiến trình bằng taskId.");
         return response;
     }
     
+    /**
+     * Chạy một bước init trên fan-out dùng chung (chiếm permit của host controller).
+     * Quá deadline thì tác vụ bị interrupt và task được đánh dấu thất bại.
+     */
+    private void submitInitStep(int step, ServerEntity controllerServer, TaskStatus taskStatus, Runnable body) {
+        fleetExecutor.submit("initAnsibleStep" + step, controllerServer.getIp(), initStepDeadlineMs, () -> {
+            body.run();
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error instanceof TimeoutException && "running".equals(taskStatus.getStatus())) {
+                taskStatus.markFailed("Bước " + step + " vượt quá thời gian cho phép (" + (initStepDeadlineMs / 1000) + " giây)");
+            }
+        });
+    }
+    
     /**
      * Escape shell string cho single quotes (giống file mẫu)
      */
@@ -870,19 +899,19 @@ public class AnsibleServiceImpl implements AnsibleService {
                 }
             } catch (Exception ignored) {}
             
-            int successCount = 0;
-            int failCount = 0;
-            int skipped = 0;
-            List<String> errors = new ArrayList<>();
-            int processed = 0;
-            
-            for (ServerEntity targetServer : targetServers) {
-                processed++;
-                taskStatus.appendLog("→ Phân phối SSH key đến " + (targetServer.getName() != null ? targetServer.getName() : targetServer.getIp())
+            final String matchToken = (keyCore != null ? escapeShellForSingleQuotes(keyCore) : escapeShellForSingleQuotes(publicKey));
+            final String fullKeyQuoted = escapeShellForSingleQuotes(publicKey);
+            final int total = targetServers.size();
+            AtomicInteger processed = new AtomicInteger();
+            
+            // Phân phối song song qua fan-out dùng chung; log của từng server được gom lại rồi ghi một lần
+            // để các server không chen log vào nhau
+            List<FleetExecutor.HostOutcome<ServerEntity, KeyDistribution>> outcomes = fleetExecutor.fanOut(
+                    "distributeSshKey", targetServers, ServerEntity::getIp, 0, targetServer -> {
+                TaskStatus hostLog = new TaskStatus(null);
+                hostLog.appendLog("→ Phân phối SSH key đến " + (targetServer.getName() != null ? targetServer.getName() : targetServer.getIp())
                         + " (IP: " + targetServer.getIp() + ")\n");
                 try {
-                    String matchToken = (keyCore != null ? escapeShellForSingleQuotes(keyCore) : escapeShellForSingleQuotes(publicKey));
-                    String fullKeyQuoted = escapeShellForSingleQuotes(publicKey);
                     String addKeyCmd = "bash -lc \"mkdir -p $HOME/.ssh && chmod 700 $HOME/.ssh && touch $HOME/.ssh/authorized_keys && chmod 600 $HOME/.ssh/authorized_keys; " +
                             "if grep -Fq " + matchToken +
                             " $HOME/.ssh/authorized_keys; then echo EXIST; else printf '%s\\n' " + fullKeyQuoted +
@@ -890,12 +919,10 @@ public class AnsibleServiceImpl implements AnsibleService {
                     
                     try {
                         String addOutput = serverService.execCommand(targetServer.getId(), addKeyCmd, 20000);
-                        appendCommandLog(taskStatus, "Thêm public key vào authorized_keys", addKeyCmd, addOutput);
+                        appendCommandLog(hostLog, "Thêm public key vào authorized_keys", addKeyCmd, addOutput);
                     } catch (Exception e) {
-                        skipped++;
-                        errors.add(targetServer.getIp() + ": Không thể kết nối - " + e.getMessage());
-                        taskStatus.appendLog("   ⚠️ Bỏ qua: " + e.getMessage() + "\n");
-                        continue;
+                        hostLog.appendLog("   ⚠️ Bỏ qua: " + e.getMessage() + "\n");
+                        return KeyDistribution.skipped(targetServer.getIp() + ": Không thể kết nối - " + e.getMessage());
                     }
                     
                     String verifyCmd = "bash -lc \"if grep -Fq " + matchToken +
@@ -903,27 +930,47 @@ public class AnsibleServiceImpl implements AnsibleService {
                     String verify = null;
                     try {
                         verify = serverService.execCommand(targetServer.getId(), verifyCmd, 12000);
-                        appendCommandLog(taskStatus, "Kiểm tra key trên node", verifyCmd, verify);
+                        appendCommandLog(hostLog, "Kiểm tra key trên node", verifyCmd, verify);
                     } catch (Exception e) {
-                        appendCommandLog(taskStatus, "Kiểm tra key trên node", verifyCmd, e.getMessage());
+                        appendCommandLog(hostLog, "Kiểm tra key trên node", verifyCmd, e.getMessage());
                     }
                     
                     if (verify != null && verify.contains("OK")) {
-                        successCount++;
-                        taskStatus.appendLog("   ✅ Thành công\n");
-                    } else {
-                        failCount++;
-                        errors.add(targetServer.getIp() + ": Không xác minh được");
-                        taskStatus.appendLog("   ❌ Không xác minh được key\n");
+                        hostLog.appendLog("   ✅ Thành công\n");
+                        return KeyDistribution.ok();
                     }
-                } catch (Exception e) {
-                    failCount++;
-                    errors.add(targetServer.getIp() + ": " + e.getMessage());
-                    taskStatus.appendLog("   ❌ Lỗi: " + e.getMessage() + "\n");
+                    hostLog.appendLog("   ❌ Không xác minh được key\n");
+                    return KeyDistribution.failed(targetServer.getIp() + ": Không xác minh được");
                 } finally {
-                    int progress = 10 + (processed * 80 / targetServers.size());
+                    taskStatus.appendLog(hostLog.snapshotLogs());
+                    int progress = 10 + (processed.incrementAndGet() * 80 / total);
                     taskStatus.setProgress(Math.min(90, progress));
                 }
+            });
+            
+            int successCount = 0;
+            int failCount = 0;
+            int skipped = 0;
+            List<String> errors = new ArrayList<>();
+            for (FleetExecutor.HostOutcome<ServerEntity, KeyDistribution> outcome : outcomes) {
+                if (!outcome.isSuccess()) {
+                    failCount++;
+                    errors.add(outcome.host() + ": " + outcome.errorMessage());
+                    taskStatus.appendLog("   ❌ Lỗi tại " + outcome.host() + ": " + outcome.errorMessage() + "\n");
+                    continue;
+                }
+                KeyDistribution result = outcome.value();
+                switch (result.status()) {
+                    case OK -> successCount++;
+                    case SKIPPED -> {
+                        skipped++;
+                        errors.add(result.detail());
+                    }
+                    case FAILED -> {
+                        failCount++;
+                        errors.add(result.detail());
+                    }
+                }
             }
             
             if (failCount == 0 && skipped == 0) {
@@ -1181,7 +1228,14 @@ public class AnsibleServiceImpl implements AnsibleService {
             
             taskStatus.appendLog("▶️ " + baseCommand + "\n");
             taskStatus.setProgress(25);
-            serverService.execCommand(serverId, finalCommand, 300000, chunk -> taskStatus.appendLog(chunk));
+            // Task đã chạy trên virtual thread riêng nên chạy đồng bộ trên session của pool,
+            // output được stream vào log của task; deadline 300s do engine xử lý
+            CommandResult result = serverService.execCommandStreaming(serverId, finalCommand, 300000,
+                    taskStatus::appendLog);
+            if (result.timedOut()) {
+                taskStatus.markFailed("Playbook vượt quá thời gian cho phép (" + result.durationMs() + "ms): " + filename);
+                return;
+            }
             
             taskStatus.setProgress(100);
             taskStatus.markCompleted("🎉 Đã thực thi playbook thành công: " + filename + "\n");
@@ -1209,6 +1263,26 @@ public class AnsibleServiceImpl implements AnsibleService {
         return status;
     }
     
+    /**
+     * Kết quả phân phối SSH key tới một server: OK, bỏ qua (không kết nối được) hoặc lỗi xác minh.
+     */
+    private record KeyDistribution(Status status, String detail) {
+
+        enum Status { OK, SKIPPED, FAILED }
+
+        static KeyDistribution ok() {
+            return new KeyDistribution(Status.OK, null);
+        }
+
+        static KeyDistribution skipped(String detail) {
+            return new KeyDistribution(Status.SKIPPED, detail);
+        }
+
+        static KeyDistribution failed(String detail) {
+            return new KeyDistribution(Status.FAILED, detail);
+        }
+    }
+
     private static class TaskStatus {
         private final String taskId;
         private final StringBuilder logs = new StringBuilder();
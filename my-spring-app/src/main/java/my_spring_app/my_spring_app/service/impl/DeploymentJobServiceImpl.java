@@ -0,0 +1,83 @@
+package my_spring_app.my_spring_app.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import my_spring_app.my_spring_app.dto.reponse.DeploymentJobResponse;
+import my_spring_app.my_spring_app.entity.DeploymentJobEntity;
+import my_spring_app.my_spring_app.entity.DeploymentJobEventEntity;
+import my_spring_app.my_spring_app.repository.DeploymentJobEventRepository;
+import my_spring_app.my_spring_app.repository.DeploymentJobRepository;
+import my_spring_app.my_spring_app.service.DeploymentJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Đọc trạng thái các job deploy bất đồng bộ (DeploymentJobEngine) để client polling.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DeploymentJobServiceImpl implements DeploymentJobService {
+
+    @Autowired
+    private DeploymentJobRepository deploymentJobRepository;
+
+    @Autowired
+    private DeploymentJobEventRepository deploymentJobEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public DeploymentJobResponse getJob(Long jobId) {
+        DeploymentJobEntity job = deploymentJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy job deploy " + jobId));
+        DeploymentJobResponse response = toResponse(job);
+        response.setEvents(deploymentJobEventRepository.findByJobIdOrderByIdAsc(jobId).stream()
+                .map(this::toEvent)
+                .toList());
+        return response;
+    }
+
+    @Override
+    public List<DeploymentJobResponse> listJobs(String username, Long projectId) {
+        List<DeploymentJobEntity> jobs;
+        if (projectId != null) {
+            jobs = deploymentJobRepository.findByProjectIdOrderByIdDesc(projectId);
+        } else if (username != null && !username.isBlank()) {
+            jobs = deploymentJobRepository.findByUsernameOrderByIdDesc(username);
+        } else {
+            throw new IllegalArgumentException("Cần truyền username hoặc projectId");
+        }
+        return jobs.stream().map(this::toResponse).toList();
+    }
+
+    private DeploymentJobResponse toResponse(DeploymentJobEntity job) {
+        DeploymentJobResponse response = new DeploymentJobResponse();
+        response.setId(job.getId());
+        response.setComponentType(job.getComponentType());
+        response.setProjectId(job.getProjectId());
+        response.setUsername(job.getUsername());
+        response.setStatus(job.getStatus());
+        response.setStage(job.getStage());
+        response.setAttempts(job.getAttempts());
+        response.setErrorMessage(job.getErrorMessage());
+        if (job.getResultPayload() != null) {
+            try {
+                response.setResult(objectMapper.readTree(job.getResultPayload()));
+            } catch (IOException e) {
+                System.err.println("[DeploymentJobService] Ket qua job #" + job.getId() + " khong hop le: " + e.getMessage());
+            }
+        }
+        response.setCreatedAt(job.getCreatedAt());
+        response.setStartedAt(job.getStartedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        return response;
+    }
+
+    private DeploymentJobResponse.Event toEvent(DeploymentJobEventEntity event) {
+        return new DeploymentJobResponse.Event(event.getId(), event.getStage(), event.getMessage(), event.getCreatedAt());
+    }
+}
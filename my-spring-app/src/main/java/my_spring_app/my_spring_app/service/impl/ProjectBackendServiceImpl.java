@@ -10,6 +10,20 @@ import my_spring_app.my_spring_app.entity.UserEntity;
 import my_spring_app.my_spring_app.repository.ProjectBackendRepository;
 import my_spring_app.my_spring_app.repository.ProjectRepository;
 import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandBatch;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.k8s.ComponentStatusReconciler;
+import my_spring_app.my_spring_app.deploy.ArtifactCache;
+import my_spring_app.my_spring_app.deploy.BuildCacheManager;
+import my_spring_app.my_spring_app.deploy.BuilderPool;
+import my_spring_app.my_spring_app.deploy.DeploymentJobEngine;
+import my_spring_app.my_spring_app.deploy.DeploymentProgress;
+import my_spring_app.my_spring_app.deploy.SourceTreeSync;
+import my_spring_app.my_spring_app.k8s.ComponentWorkloads;
+import my_spring_app.my_spring_app.k8s.ManifestApplier;
+import my_spring_app.my_spring_app.k8s.OwnershipLabels;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
 import my_spring_app.my_spring_app.repository.UserRepository;
 import my_spring_app.my_spring_app.service.ProjectBackendService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,25 +31,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.ApiException;
-import io.kubernetes.client.openapi.Configuration;
-import io.kubernetes.client.openapi.apis.AppsV1Api;
-import io.kubernetes.client.openapi.apis.CoreV1Api;
-import io.kubernetes.client.openapi.models.V1Namespace;
-import io.kubernetes.client.openapi.models.V1ObjectMeta;
-import io.kubernetes.client.openapi.models.V1Scale;
-import io.kubernetes.client.openapi.models.V1ScaleSpec;
-import io.kubernetes.client.util.Config;
-
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service implementation cho ProjectBackend
@@ -66,6 +65,38 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
     @Autowired
     private ServerRepository serverRepository;
 
+    // Pool SSH session dùng chung tới MASTER/DOCKER server
+    @Autowired
+    private SshSessionPool sshSessionPool;
+
+    // Cache image theo nội dung source (bỏ qua build khi upload lại đúng file cũ)
+    @Autowired
+    private ArtifactCache artifactCache;
+
+    // Build với BuildKit, giữ cache layer giữa các lần deploy
+    @Autowired
+    private BuildCacheManager buildCacheManager;
+
+    // Pool builder: chọn server build image theo tải, xếp hàng và chuyển builder khi mất kết nối
+    @Autowired
+    private BuilderPool builderPool;
+
+    // Đồng bộ source lên builder theo delta (giữ cây source của component giữa các lần deploy)
+    @Autowired
+    private SourceTreeSync sourceTreeSync;
+
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Server-side apply manifest qua Kubernetes API
+    @Autowired
+    private ManifestApplier manifestApplier;
+
+    // Lệnh scale/delete trên workload qua Kubernetes API
+    @Autowired
+    private ComponentWorkloads componentWorkloads;
+
     /**
      * Tạo short UUID từ UUID đầy đủ để sử dụng trong Kubernetes
      * UUID đầy đủ có 36 ký tự (với dấu gạch ngang), short UUID sẽ có độ dài cố định 12 ký tự
@@ -97,111 +128,6 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
         return shortUuid;
     }
 
-    /**
-     * Kiểm tra và tạo namespace trên Kubernetes cluster nếu chưa tồn tại
-     * Sử dụng Kubernetes Java Client API
-     * 
-     * @param session SSH session đến MASTER server để lấy kubeconfig
-     * @param namespace Tên namespace cần kiểm tra/tạo
-     * @throws Exception Nếu có lỗi khi kiểm tra hoặc tạo namespace
-     */
-    private void ensureNamespaceExists(Session session, String namespace) throws Exception {
-        System.out.println("[ensureNamespaceExists] Kiểm tra namespace: " + namespace);
-        
-        File tempKubeconfig = null;
-        try {
-            // Đọc kubeconfig từ master server (thường ở ~/.kube/config)
-            String kubeconfigPath = "~/.kube/config";
-            System.out.println("[ensureNamespaceExists] Đang đọc kubeconfig từ: " + kubeconfigPath);
-            String kubeconfigContent = executeCommand(session, "cat " + kubeconfigPath);
-            
-            if (kubeconfigContent == null || kubeconfigContent.trim().isEmpty()) {
-                throw new RuntimeException("Không thể đọc kubeconfig từ master server");
-            }
-            
-            // Tạo file kubeconfig tạm thời trên local
-            tempKubeconfig = File.createTempFile("kubeconfig-", ".yaml");
-            tempKubeconfig.deleteOnExit();
-            try (FileWriter writer = new FileWriter(tempKubeconfig)) {
-                writer.write(kubeconfigContent);
-            }
-            System.out.println("[ensureNamespaceExists] Đã tạo file kubeconfig tạm thời: " + tempKubeconfig.getAbsolutePath());
-            
-            // Khởi tạo Kubernetes API client từ kubeconfig
-            ApiClient client = Config.fromConfig(tempKubeconfig.getAbsolutePath());
-            Configuration.setDefaultApiClient(client);
-            CoreV1Api api = new CoreV1Api();
-            
-            // Kiểm tra namespace đã tồn tại chưa
-            try {
-                V1Namespace ns = api.readNamespace(namespace, null);
-                System.out.println("[ensureNamespaceExists] Namespace đã tồn tại: " + namespace + " (Status: " + 
-                    (ns.getStatus() != null && ns.getStatus().getPhase() != null ? ns.getStatus().getPhase() : "Unknown") + ")");
-            } catch (ApiException e) {
-                if (e.getCode() == 404) {
-                    // Namespace chưa tồn tại, tạo mới
-                    System.out.println("[ensureNamespaceExists] Namespace chưa tồn tại, đang tạo mới: " + namespace);
-                    V1Namespace newNamespace = new V1Namespace();
-                    V1ObjectMeta metadata = new V1ObjectMeta();
-                    metadata.setName(namespace);
-                    newNamespace.setMetadata(metadata);
-                    
-                    V1Namespace createdNamespace = api.createNamespace(newNamespace, null, null, null, null);
-                    System.out.println("[ensureNamespaceExists] Đã tạo namespace thành công: " + namespace);
-                } else {
-                    System.err.println("[ensureNamespaceExists] Lỗi API khi kiểm tra namespace. Code: " + e.getCode() + ", Message: " + e.getMessage());
-                    throw new RuntimeException("Lỗi khi kiểm tra namespace: " + e.getMessage(), e);
-                }
-            }
-            
-        } catch (Exception e) {
-            System.err.println("[ensureNamespaceExists] Lỗi: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Không thể kiểm tra/tạo namespace: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo xóa file tạm thời sau khi sử dụng
-            if (tempKubeconfig != null && tempKubeconfig.exists()) {
-                try {
-                    tempKubeconfig.delete();
-                } catch (Exception e) {
-                    System.err.println("[ensureNamespaceExists] Không thể xóa file kubeconfig tạm thời: " + e.getMessage());
-                }
-            }
-        }
-    }
-
-    /**
-     * Tạo Kubernetes ApiClient dựa trên kubeconfig lấy từ MASTER server
-     */
-    private ApiClient createKubernetesClient(Session session) throws Exception {
-        String kubeconfigPath = "~/.kube/config";
-        System.out.println("[createKubernetesClient] Đang đọc kubeconfig từ: " + kubeconfigPath);
-        File tempKubeconfig = null;
-        try {
-            String kubeconfigContent = executeCommand(session, "cat " + kubeconfigPath);
-            if (kubeconfigContent == null || kubeconfigContent.trim().isEmpty()) {
-                throw new RuntimeException("Không thể đọc kubeconfig từ master server");
-            }
-
-            tempKubeconfig = File.createTempFile("kubeconfig-", ".yaml");
-            try (FileWriter writer = new FileWriter(tempKubeconfig)) {
-                writer.write(kubeconfigContent);
-            }
-            System.out.println("[createKubernetesClient] Đã tạo kubeconfig tạm tại: " + tempKubeconfig.getAbsolutePath());
-
-            ApiClient client = Config.fromConfig(tempKubeconfig.getAbsolutePath());
-            Configuration.setDefaultApiClient(client);
-            return client;
-        } finally {
-            if (tempKubeconfig != null && tempKubeconfig.exists()) {
-                boolean deleted = tempKubeconfig.delete();
-                if (!deleted) {
-                    tempKubeconfig.deleteOnExit();
-                }
-            }
-        }
-    }
-
     /**
      * Helper method để tạo nội dung YAML Kubernetes cho backend Spring Boot
      * Tạo file YAML bao gồm: Deployment, Service, và Ingress
@@ -215,11 +141,12 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
      * @param databasePort Database port
      * @param databaseUsername Database username
      * @param databasePassword Database password (có thể null)
+     * @param labels Label sở hữu (OwnershipLabels) gắn vào mọi object được sinh ra
      * @return Nội dung YAML đầy đủ cho Deployment, Service và Ingress
      */
     private String generateBackendSpringBootYaml(String uuid_k8s, String dockerImage, String domainName, String namespace,
                                                   String databaseName, String databaseIp, int databasePort,
-                                                  String databaseUsername, String databasePassword) {
+                                                  String databaseUsername, String databasePassword, Map<String, String> labels) {
         // K8s Service/Ingress dùng DNS-1035: phải bắt đầu bằng chữ cái -> prefix 'app-'
         String resourceName = "app-" + uuid_k8s;
         String dbName = databaseName;
@@ -231,6 +158,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "metadata:\n" +
                 "  name: " + resourceName + "\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  replicas: 1\n" +
                 "  selector:\n" +
@@ -240,6 +169,7 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "    metadata:\n" +
                 "      labels:\n" +
                 "        app: " + resourceName + "\n" +
+                OwnershipLabels.yaml(labels, 8) +
                 "    spec:\n" +
                 "      containers:\n" +
                 "        - name: " + resourceName + "\n" +
@@ -260,6 +190,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "metadata:\n" +
                 "  name: " + resourceName + "-svc\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  type: ClusterIP\n" +
                 "  selector:\n" +
@@ -273,6 +205,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "metadata:\n" +
                 "  name: " + resourceName + "-ing\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "  annotations:\n" +
                 "    nginx.ingress.kubernetes.io/rewrite-target: /\n" +
                 "spec:\n" +
@@ -303,11 +237,12 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
      * @param databasePort Database port
      * @param databaseUsername Database username
      * @param databasePassword Database password (có thể null)
+     * @param labels Label sở hữu (OwnershipLabels) gắn vào mọi object được sinh ra
      * @return Nội dung YAML đầy đủ cho Deployment, Service và Ingress
      */
     private String generateBackendNodeJsYaml(String uuid_k8s, String dockerImage, String domainName, String namespace,
                                              String databaseName, String databaseIp, int databasePort,
-                                             String databaseUsername, String databasePassword) {
+                                             String databaseUsername, String databasePassword, Map<String, String> labels) {
         String resourceName = "app-" + uuid_k8s;
         String dbName = databaseName;
         String dbPassword = databasePassword != null ? databasePassword : "";
@@ -317,6 +252,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "metadata:\n" +
                 "  name: " + resourceName + "\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  replicas: 1\n" +
                 "  selector:\n" +
@@ -326,6 +263,7 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "    metadata:\n" +
                 "      labels:\n" +
                 "        app: " + resourceName + "\n" +
+                OwnershipLabels.yaml(labels, 8) +
                 "    spec:\n" +
                 "      containers:\n" +
                 "        - name: " + resourceName + "\n" +
@@ -350,6 +288,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "metadata:\n" +
                 "  name: " + resourceName + "-svc\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  type: ClusterIP\n" +
                 "  selector:\n" +
@@ -363,6 +303,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                 "metadata:\n" +
                 "  name: " + resourceName + "-ing\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "  annotations:\n" +
                 "    nginx.ingress.kubernetes.io/rewrite-target: /\n" +
                 "spec:\n" +
@@ -400,83 +342,50 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
      * @throws Exception Nếu có lỗi khi thực thi lệnh và ignoreNonZeroExit = false
      */
     private String executeCommand(Session session, String command, boolean ignoreNonZeroExit) throws Exception {
-        ChannelExec channelExec = null;
-
-        try {
-            // Mở channel thực thi lệnh (exec) từ SSH session
-            Channel channel = session.openChannel("exec");
-            channelExec = (ChannelExec) channel;
-
-            // Thiết lập lệnh cần thực thi
-            channelExec.setCommand(command);
-            // Chuyển hướng error stream ra console để dễ debug
-            channelExec.setErrStream(System.err);
-
-            // Lấy input stream để đọc output từ lệnh
-            InputStream inputStream = channelExec.getInputStream();
-            // Kết nối channel để bắt đầu thực thi lệnh
-            channelExec.connect();
-
-            // Khởi tạo biến để lưu output
-            StringBuilder output = new StringBuilder();
-            byte[] buffer = new byte[1024]; // Buffer để đọc dữ liệu
-
-            // Vòng lặp để đọc output từ lệnh
-            while (true) {
-                // Đọc tất cả dữ liệu có sẵn trong input stream
-                while (inputStream.available() > 0) {
-                    int bytesRead = inputStream.read(buffer, 0, 1024);
-                    // Nếu đọc hết dữ liệu thì dừng
-                    if (bytesRead < 0) {
-                        break;
-                    }
-                    // Chuyển đổi bytes sang string và thêm vào output
-                    output.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
-                }
-
-                // Kiểm tra xem channel đã đóng chưa (lệnh đã thực thi xong)
-                if (channelExec.isClosed()) {
-                    // Nếu vẫn còn dữ liệu trong stream, tiếp tục đọc
-                    if (inputStream.available() > 0) {
-                        continue;
-                    }
-                    // Nếu không còn dữ liệu và channel đã đóng thì thoát vòng lặp
-                    break;
-                }
+        // Thực thi qua engine dùng chung: chờ sự kiện đóng channel thay vì sleep-polling
+        CommandResult commandResult = remoteCommandExecutor.execute(session, command, 0);
+        // Giữ hành vi cũ: stderr của lệnh được in ra console để dễ debug
+        if (!commandResult.stderr().isEmpty()) {
+            System.err.print(commandResult.stderr());
+        }
 
-                // Nghỉ 100ms trước khi kiểm tra lại để tránh chiếm CPU
-                try {
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    // Bỏ qua lỗi sleep
-                }
+        // Lấy exit status của lệnh (0 = thành công, != 0 = lỗi)
+        int exitStatus = commandResult.exitStatus();
+        String result = commandResult.stdout().trim();
+
+        if (exitStatus != 0) {
+            if (ignoreNonZeroExit) {
+                // Nếu được phép bỏ qua lỗi, chỉ in ra log
+                System.err.println("[executeCommand] Command exited with status: " + exitStatus + ". Output: " + result + ". Command: " + command);
+            } else {
+                // Nếu không được bỏ qua, throw exception với thông báo lỗi
+                throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
             }
+        }
 
-            // Lấy exit status của lệnh (0 = thành công, != 0 = lỗi)
-            int exitStatus = channelExec.getExitStatus();
-            // Chuyển output sang string và loại bỏ khoảng trắng đầu cuối
-            String result = output.toString().trim();
+        return result;
+    }
 
-            // Xử lý trường hợp lệnh thực thi không thành công (exit status != 0)
-            if (exitStatus != 0) {
-                if (ignoreNonZeroExit) {
-                    // Nếu được phép bỏ qua lỗi, chỉ in ra log
-                    System.err.println("[executeCommand] Command exited with status: " + exitStatus + ". Output: " + result + ". Command: " + command);
-                } else {
-                    // Nếu không được bỏ qua, throw exception với thông báo lỗi
-                    throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
-                }
+    /**
+     * Chạy batch lệnh xoá trên một channel; lệnh lỗi chỉ được log (như executeCommand với ignoreNonZeroExit = true)
+     * @param session SSH session đã kết nối
+     * @param batch Các lệnh xoá
+     * @param caller Tên hàm gọi (dùng cho log)
+     * @throws Exception Nếu không mở được channel
+     */
+    private void runDeleteBatch(Session session, RemoteCommandBatch batch, String caller) throws Exception {
+        RemoteCommandBatch.Results results = remoteCommandExecutor.executeBatch(session, batch, 0);
+        results.asMap().forEach((key, result) -> {
+            if (!result.stderr().isEmpty()) {
+                System.err.print(result.stderr());
             }
-
-            // Trả về kết quả output của lệnh
-            return result;
-
-        } finally {
-            // Đảm bảo đóng channel sau khi thực thi xong để giải phóng tài nguyên
-            if (channelExec != null && channelExec.isConnected()) {
-                channelExec.disconnect();
+            if (result.isSuccess()) {
+                System.out.println("[" + caller + "] Đã xoá " + key);
+            } else {
+                System.err.println("[" + caller + "] Xoá " + key + " lỗi, exit status: " + result.exitStatus()
+                        + ". Output: " + result.stdout().trim());
             }
-        }
+        });
     }
 
     /**
@@ -542,6 +451,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
         String uuid_k8s = generateShortUuid(fullUuid);
         System.out.println("[deployBackend] Tạo UUID đầy đủ: " + fullUuid);
         System.out.println("[deployBackend] Short UUID cho deployment: " + uuid_k8s + " (độ dài: " + uuid_k8s.length() + " ký tự)");
+        // Label sở hữu gắn vào mọi object K8s của component (tra cứu theo label thay vì đoán tên)
+        Map<String, String> ownershipLabels = OwnershipLabels.of(project.getUuid_k8s(), uuid_k8s, OwnershipLabels.TYPE_BACKEND, user.getUsername());
 
         // Lấy namespace từ ProjectEntity
         String namespace = project.getNamespace();
@@ -579,26 +490,15 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
 
         // ========== BƯỚC 2: LẤY THÔNG TIN SERVER TỪ DATABASE ==========
 
-        // Lấy thông tin các server từ database: MASTER (Kubernetes cluster), DOCKER (build/push images)
+        // Lấy thông tin các server từ database: MASTER (Kubernetes cluster)
         Optional<ServerEntity> masterServerOptional = serverRepository.findByRole("MASTER");
-        Optional<ServerEntity> dockerServerOptional = serverRepository.findByRole("DOCKER");
 
         // Validate các server bắt buộc
         if (masterServerOptional.isEmpty()) {
             throw new RuntimeException("Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống.");
         }
-        if (dockerServerOptional.isEmpty()) {
-            throw new RuntimeException("Không tìm thấy server DOCKER. Vui lòng cấu hình server DOCKER trong hệ thống.");
-        }
 
         ServerEntity master_server = masterServerOptional.get();
-        ServerEntity docker_server = dockerServerOptional.get();
-
-        // Khởi tạo các biến để quản lý SSH/SFTP connections
-        Session session = null;           // SSH session đến DOCKER server (dùng cho FILE deployment)
-        ChannelSftp sftp = null;          // SFTP channel đến DOCKER server
-        Session clusterSession = null;    // SSH session đến MASTER server (Kubernetes cluster)
-        ChannelSftp sftpYaml = null;      // SFTP channel đến MASTER server để upload YAML
 
         try {
             // ========== BƯỚC 3: XỬ LÝ DEPLOYMENT THEO PHƯƠNG THỨC ==========
@@ -613,21 +513,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
 
                 projectEntity.setDockerImage(request.getDockerImage());
 
-                // Kết nối SSH đến MASTER server (Kubernetes cluster)
-                System.out.println("[deployBackend] Đang kết nối đến MASTER server: " + master_server.getIp() + ":" + master_server.getPort());
-                JSch jsch = new JSch();
-                clusterSession = jsch.getSession(master_server.getUsername(), master_server.getIp(), master_server.getPort());
-                clusterSession.setPassword(master_server.getPassword());
-                Properties config = new Properties();
-                config.put("StrictHostKeyChecking", "no"); // Không kiểm tra host key
-                clusterSession.setConfig(config);
-                clusterSession.setTimeout(7000);
-                clusterSession.connect();
-                System.out.println("[deployBackend] Kết nối SSH đến MASTER server thành công");
-
                 // Tạo nội dung YAML file (Deployment + Service + Ingress)
                 // Sử dụng uuid_k8s để làm tên resource trong K8s, tránh trùng khi projectName bị trùng
-                String fileName = uuid_k8s + ".yaml";
                 String yamlContent;
                 if ("SPRINGBOOT".equals(framework)) {
                     yamlContent = generateBackendSpringBootYaml(
@@ -639,7 +526,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                         request.getDatabaseIp(),
                         request.getDatabasePort(),
                         request.getDatabaseUsername(),
-                        request.getDatabasePassword()
+                        request.getDatabasePassword(),
+                        ownershipLabels
                     );
                 } else {
                     // NODEJS
@@ -652,48 +540,19 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                         request.getDatabaseIp(),
                         request.getDatabasePort(),
                         request.getDatabaseUsername(),
-                        request.getDatabasePassword()
+                        request.getDatabasePassword(),
+                        ownershipLabels
                     );
                 }
 
-                // Mở SFTP channel để upload YAML file
-                Channel sftpYamlCh = clusterSession.openChannel("sftp");
-                sftpYamlCh.connect();
-                sftpYaml = (ChannelSftp) sftpYamlCh;
-
-                // Tạo thư mục đích với UUID để tránh trùng tên: /home/<master_username>/uploads/<username>/<uuid_k8s của project>/backend/<uuid_k8s>
-                String yamlRemoteDir = "/home/" + master_server.getUsername() + "/uploads/" + user.getUsername() + "/" + project.getUuid_k8s() + "/backend/" + uuid_k8s;
-                System.out.println("[deployBackend] Tạo/cd thư mục YAML: " + yamlRemoteDir);
-                String[] yamlDirParts = yamlRemoteDir.split("/");
-                String yamlCur = "";
-                for (String p : yamlDirParts) {
-                    if (p == null || p.isBlank()) continue;
-                    yamlCur += "/" + p;
-                    try {
-                        sftpYaml.cd(yamlCur); // Thử chuyển vào thư mục
-                    } catch (Exception e) {
-                        sftpYaml.mkdir(yamlCur); // Nếu không tồn tại thì tạo mới
-                        sftpYaml.cd(yamlCur);
-                    }
-                }
-
-                // Upload YAML file lên server
-                InputStream yamlStream = new ByteArrayInputStream(yamlContent.getBytes(StandardCharsets.UTF_8));
-                String yamlRemotePath = yamlRemoteDir + "/" + fileName;
-                sftpYaml.put(yamlStream, yamlRemotePath);
-                System.out.println("[deployBackend] Đã upload YAML file: " + yamlRemotePath);
-
-                // Lưu yamlPath (đường dẫn YAML trên MASTER server)
+                // Lưu manifest (thay cho /home/<master_username>/uploads/...) và apply qua Kubernetes API
                 // Với deployment type là DOCKER: không có sourcePath (null)
                 projectEntity.setSourcePath(null);
-                projectEntity.setYamlPath(yamlRemotePath);
-
-                // Kiểm tra và tạo namespace nếu chưa tồn tại
-                ensureNamespaceExists(clusterSession, namespace);
-
-                // Apply YAML file vào Kubernetes cluster bằng kubectl
-                System.out.println("[deployBackend] Đang apply YAML: kubectl apply -f " + yamlRemotePath);
-                executeCommand(clusterSession, "kubectl apply -f '" + yamlRemotePath + "'");
+                projectEntity.setYamlPath(manifestApplier.archive(user.getUsername(), project.getUuid_k8s(), "backend", uuid_k8s, yamlContent));
+                System.out.println("[deployBackend] Đang apply manifest qua Kubernetes API (MASTER " + master_server.getIp() + ")");
+                DeploymentProgress.stage(DeploymentProgress.APPLY, "Apply manifest vào namespace " + namespace);
+                ManifestApplier.ApplyResult applied = manifestApplier.apply(namespace, yamlContent);
+                System.out.println("[deployBackend] Đã apply " + applied.objectCount() + " object trong " + applied.elapsedMs() + " ms");
 
             } else if ("FILE".equalsIgnoreCase(request.getDeploymentType())) {
                 // ========== PHƯƠNG THỨC 2: DEPLOY TỪ FILE ZIP ==========
@@ -703,199 +562,66 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
                     throw new RuntimeException("File upload không được để trống khi deployment type là FILE");
                 }
 
-                System.out.println("[deployBackend] Kết nối SSH tới DOCKER server: " + docker_server.getIp() + ":" + docker_server.getPort());
-
-                // Bước 1: Kết nối SSH đến DOCKER server (để build và push image)
-                JSch jsch = new JSch();
-                session = jsch.getSession(docker_server.getUsername(), docker_server.getIp(), docker_server.getPort());
-                session.setPassword(docker_server.getPassword());
-                Properties cfg = new Properties();
-                cfg.put("StrictHostKeyChecking", "no");
-                session.setConfig(cfg);
-                session.setTimeout(7000);
-                session.connect();
-                System.out.println("[deployBackend] Đã kết nối SSH DOCKER server thành công");
-
-                // Bước 2: Upload file .zip lên DOCKER server
-                Channel ch = session.openChannel("sftp");
-                ch.connect();
-                sftp = (ChannelSftp) ch;
-
-                // Tạo thư mục đích trên DOCKER server với UUID để tránh trùng tên: /home/<docker_username>/uploads/<username>/<uuid_k8s của project>/backend/<uuid_k8s>
-                String remoteBase = "/home/" + docker_server.getUsername() + "/uploads/" + user.getUsername() + "/" + project.getUuid_k8s() + "/backend/" + uuid_k8s;
-                System.out.println("[deployBackend] Tạo/cd thư mục đích: " + remoteBase);
-                // Đảm bảo thư mục tồn tại (tạo từng cấp thư mục nếu chưa có)
-                String[] parts = remoteBase.split("/");
-                String cur = "";
-                for (String p : parts) {
-                    if (p == null || p.isBlank()) continue;
-                    cur += "/" + p;
-                    try {
-                        sftp.cd(cur);
-                    } catch (Exception e) {
-                        sftp.mkdir(cur);
-                        sftp.cd(cur);
-                    }
-                }
-
-                // Tạo tên file an toàn (loại bỏ ký tự đặc biệt)
-                String originalName = request.getFile().getOriginalFilename();
-                String safeName = originalName != null ? originalName.replaceAll("[^a-zA-Z0-9._-]", "_") : (projectName + ".zip");
-                String remoteZipPath = remoteBase + "/" + safeName;
-                System.out.println("[deployBackend] Upload file lên: " + remoteZipPath);
-                sftp.put(request.getFile().getInputStream(), remoteZipPath);
-
-                // Lưu sourcePath (đường dẫn file zip trên DOCKER server)
-                projectEntity.setSourcePath(remoteZipPath);
-
-                // Bước 3: Giải nén file .zip trên DOCKER server
-                String unzipCmd = "cd " + remoteBase + " && unzip -o '" + safeName + "'";
-                System.out.println("[deployBackend] Giải nén: " + unzipCmd);
-                executeCommand(session, unzipCmd);
-
-                // Bước 4: Build và push Docker image
-                // Xác định thư mục project sau khi giải nén
-                String extractedDir = safeName.endsWith(".zip") ? safeName.substring(0, safeName.length() - 4) : safeName;
-                String projectDir = remoteBase + "/" + extractedDir;
-
-                // Kiểm tra Dockerfile có tồn tại không
-                String checkDockerfile = "test -f '" + projectDir + "/Dockerfile' && echo OK || echo NO";
-                System.out.println("[deployBackend] Kiểm tra Dockerfile: " + checkDockerfile);
-                String check = executeCommand(session, checkDockerfile);
-                if (!"OK".equals(check.trim())) {
-                    throw new RuntimeException("Không tìm thấy Dockerfile trong gói source đã giải nén");
-                }
-
-                // Build Docker image từ Dockerfile
-                // Sử dụng uuid_k8s thay vì projectName để tránh trùng tên image
-                String imageTag = dockerhub_username + "/" + uuid_k8s + ":latest";
-                String buildCmd = "cd '" + projectDir + "' && docker build -t '" + imageTag + "' .";
-                System.out.println("[deployBackend] Docker build: " + buildCmd);
-                executeCommand(session, buildCmd);
-
-                // Push image lên DockerHub
-                String pushCmd = "docker push '" + imageTag + "'";
-                System.out.println("[deployBackend] Docker push: " + pushCmd);
-                executeCommand(session, pushCmd);
-
-                projectEntity.setDockerImage(imageTag); // Lưu image tag vào database
-
-                // Dọn dẹp: Xóa Docker image local sau khi push thành công
-                try {
-                    String rmiCmd = "docker rmi '" + escapeSingleQuotes(imageTag) + "' || true";
-                    System.out.println("[deployBackend] Dọn dẹp Docker image: " + rmiCmd);
-                    executeCommand(session, rmiCmd, true);
-                    System.out.println("[deployBackend] Đã dọn dẹp Docker image: " + imageTag);
-                } catch (Exception cleanupEx) {
-                    System.err.println("[deployBackend] Lỗi khi dọn dẹp Docker image (bỏ qua): " + cleanupEx.getMessage());
-                }
-
-                // Dọn dẹp: Xóa thư mục mã nguồn đã upload và giải nén
-                try {
-                    String cleanupDirCmd = "rm -rf '" + escapeSingleQuotes(remoteBase) + "' || true";
-                    System.out.println("[deployBackend] Dọn dẹp thư mục mã nguồn: " + cleanupDirCmd);
-                    executeCommand(session, cleanupDirCmd, true);
-                    System.out.println("[deployBackend] Đã dọn dẹp thư mục mã nguồn: " + remoteBase);
-                } catch (Exception cleanupEx) {
-                    System.err.println("[deployBackend] Lỗi khi dọn dẹp thư mục mã nguồn (bỏ qua): " + cleanupEx.getMessage());
-                }
-                try {
-                    String uploadsRoot = "/home/" + docker_server.getUsername() + "/uploads";
-                    String cleanupUploadsCmd = "rm -rf '" + escapeSingleQuotes(uploadsRoot) + "' || true";
-                    System.out.println("[deployBackend] Dọn dẹp thư mục uploads: " + cleanupUploadsCmd);
-                    executeCommand(session, cleanupUploadsCmd, true);
-                } catch (Exception cleanupEx) {
-                    System.err.println("[deployBackend] Lỗi khi dọn dẹp thư mục uploads (bỏ qua): " + cleanupEx.getMessage());
+                // Fingerprint source: đã build đúng nội dung này thì dùng lại image, bỏ qua upload/build/push
+                String contentHash = artifactCache.fingerprint(request.getFile());
+                String deployImage = artifactCache.lookup(contentHash, DeploymentJobEngine.TYPE_BACKEND, framework);
+                if (deployImage != null) {
+                    System.out.println("[deployBackend] Dùng lại image đã build cho cùng source: " + deployImage);
+                    DeploymentProgress.stage(DeploymentProgress.BUILD, "Source không đổi, dùng lại image " + deployImage);
+                    projectEntity.setSourcePath(null);
+                } else {
+                    // Upload/build/push trên builder ít tải nhất; builder mất kết nối thì BuilderPool chạy lại trên builder khác
+                    deployImage = builderPool.run("backend " + uuid_k8s, builder -> buildAndPushImage(
+                            builder, request, user, project, projectEntity, projectName, uuid_k8s, framework, contentHash));
                 }
+                projectEntity.setDockerImage(deployImage); // Lưu image vào database
 
-                // Bước 5: Tạo YAML và apply lên Kubernetes cluster (MASTER server)
-                System.out.println("[deployBackend] Chuyển sang MASTER server để upload/apply YAML: " + master_server.getIp() + ":" + master_server.getPort());
-
+                // Bước 5: Tạo YAML và apply lên Kubernetes cluster qua Kubernetes API
                 // Tạo nội dung YAML file
                 // Sử dụng uuid_k8s để làm tên resource trong K8s, tránh trùng khi projectName bị trùng
-                String fileName = uuid_k8s + ".yaml";
                 String yamlContent;
                 if ("SPRINGBOOT".equals(framework)) {
                     yamlContent = generateBackendSpringBootYaml(
                         uuid_k8s,
-                        imageTag,
+                        deployImage,
                         domainName,
                         namespace,
                         request.getDatabaseName(),
                         request.getDatabaseIp(),
                         request.getDatabasePort(),
                         request.getDatabaseUsername(),
-                        request.getDatabasePassword()
+                        request.getDatabasePassword(),
+                        ownershipLabels
                     );
                 } else {
                     // NODEJS
                     yamlContent = generateBackendNodeJsYaml(
                         uuid_k8s,
-                        imageTag,
+                        deployImage,
                         domainName,
                         namespace,
                         request.getDatabaseName(),
                         request.getDatabaseIp(),
                         request.getDatabasePort(),
                         request.getDatabaseUsername(),
-                        request.getDatabasePassword()
+                        request.getDatabasePassword(),
+                        ownershipLabels
                     );
                 }
 
-                // Kết nối SSH đến MASTER server
-                JSch jschCluster = new JSch();
-                clusterSession = jschCluster.getSession(master_server.getUsername(), master_server.getIp(), master_server.getPort());
-                clusterSession.setPassword(master_server.getPassword());
-                Properties cfgCluster = new Properties();
-                cfgCluster.put("StrictHostKeyChecking", "no");
-                clusterSession.setConfig(cfgCluster);
-                clusterSession.setTimeout(7000);
-                clusterSession.connect();
-                System.out.println("[deployBackend] Kết nối SSH tới MASTER server thành công");
-
-                // Mở SFTP channel để upload YAML file
-                Channel sftpYamlCh = clusterSession.openChannel("sftp");
-                sftpYamlCh.connect();
-                sftpYaml = (ChannelSftp) sftpYamlCh;
-
-                // Tạo thư mục đích trên MASTER server với UUID để tránh trùng tên: /home/<master_username>/uploads/<username>/<uuid_k8s của project>/backend/<uuid_k8s>
-                String yamlRemoteDir = "/home/" + master_server.getUsername() + "/uploads/" + user.getUsername() + "/" + project.getUuid_k8s() + "/backend/" + uuid_k8s;
-                System.out.println("[deployBackend] Tạo/cd thư mục YAML: " + yamlRemoteDir);
-                String[] yamlDirParts = yamlRemoteDir.split("/");
-                String yamlCur = "";
-                for (String p : yamlDirParts) {
-                    if (p == null || p.isBlank()) continue;
-                    yamlCur += "/" + p;
-                    try {
-                        sftpYaml.cd(yamlCur);
-                    } catch (Exception e) {
-                        sftpYaml.mkdir(yamlCur);
-                        sftpYaml.cd(yamlCur);
-                    }
-                }
-
-                // Upload YAML file lên MASTER server
-                InputStream yamlStream = new ByteArrayInputStream(yamlContent.getBytes(StandardCharsets.UTF_8));
-                String yamlRemotePath = yamlRemoteDir + "/" + fileName;
-                sftpYaml.put(yamlStream, yamlRemotePath);
-                System.out.println("[deployBackend] Upload YAML: " + yamlRemotePath);
-
-                // Lưu yamlPath (đường dẫn YAML trên MASTER server)
+                // Lưu manifest (thay cho /home/<master_username>/uploads/...) và apply qua Kubernetes API
                 // Với FILE method: đã có sourcePath (đã set ở trên), giờ set thêm yamlPath
-                projectEntity.setYamlPath(yamlRemotePath);
-
-                // Kiểm tra và tạo namespace nếu chưa tồn tại
-                ensureNamespaceExists(clusterSession, namespace);
-
-                // Apply YAML file vào Kubernetes cluster
-                System.out.println("[deployBackend] Đang apply YAML: kubectl apply -f " + yamlRemotePath);
-                executeCommand(clusterSession, "kubectl apply -f '" + yamlRemotePath + "'");
+                projectEntity.setYamlPath(manifestApplier.archive(user.getUsername(), project.getUuid_k8s(), "backend", uuid_k8s, yamlContent));
+                System.out.println("[deployBackend] Đang apply manifest qua Kubernetes API (MASTER " + master_server.getIp() + ")");
+                DeploymentProgress.stage(DeploymentProgress.APPLY, "Apply manifest vào namespace " + namespace);
+                ManifestApplier.ApplyResult applied = manifestApplier.apply(namespace, yamlContent);
+                System.out.println("[deployBackend] Đã apply " + applied.objectCount() + " object trong " + applied.elapsedMs() + " ms");
             }
 
             // ========== BƯỚC 4: CẬP NHẬT TRẠNG THÁI VÀ TRẢ VỀ KẾT QUẢ ==========
 
-            // Cập nhật trạng thái project thành RUNNING
-            projectEntity.setStatus("RUNNING");
+            // Đã apply, chờ pod ready: ComponentStatusReconciler chuyển sang RUNNING/ERROR theo trạng thái thật
+            projectEntity.setStatus(ComponentStatusReconciler.STATUS_PENDING);
             projectBackendRepository.save(projectEntity);
             System.out.println("[deployBackend] Hoàn tất triển khai backend, projectName=" + projectName + ", domain=" + domainName);
 
@@ -914,14 +640,101 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
             projectEntity.setStatus("ERROR");
             projectBackendRepository.save(projectEntity);
             throw new RuntimeException("Lỗi khi triển khai backend: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Upload file zip, build và push image trên builder do BuilderPool chọn
+     * Session/SFTP được mở và đóng trong method để BuilderPool có thể chạy lại trên builder khác khi builder mất kết nối
+     *
+     * @param docker_server Builder được chọn
+     * @return Image đã push (ghim theo digest nếu đọc được)
+     * @throws Exception Nếu có lỗi khi upload, build hoặc push
+     */
+    private String buildAndPushImage(ServerEntity docker_server, DeployBackendRequest request, UserEntity user, ProjectEntity project,
+                                     ProjectBackendEntity projectEntity, String projectName, String uuid_k8s, String framework,
+                                     String contentHash) throws Exception {
+        Session session = null;           // SSH session đến builder
+        ChannelSftp sftp = null;          // SFTP channel đến builder
+        ReentrantLock treeLock = null;    // Khoá cây source của component trên builder (giữ tới khi build xong)
+        try {
+            System.out.println("[deployBackend] Kết nối SSH tới builder: " + docker_server.getIp() + ":" + docker_server.getPort());
+
+            // Bước 1: Kết nối SSH đến builder (để build và push image)
+            session = sshSessionPool.acquire(docker_server);
+            System.out.println("[deployBackend] Đã kết nối SSH builder thành công");
+
+            DeploymentProgress.stage(DeploymentProgress.UPLOAD, "Đồng bộ source lên builder " + docker_server.getIp());
+            // Bước 2: Đồng bộ source lên builder: chỉ gửi các file thay đổi so với lần deploy trước của cùng component
+            Channel ch = session.openChannel("sftp");
+            ch.connect();
+            sftp = (ChannelSftp) ch;
+
+            // Cây source được giữ trên builder theo component: /home/<docker_username>/build-trees/<username>/<uuid_k8s của project>/backend/<projectName>/src
+            String treeKey = SourceTreeSync.treeKey(user.getUsername(), project.getUuid_k8s(), "backend", projectName);
+            treeLock = sourceTreeSync.lock(docker_server, treeKey);
+            SourceTreeSync.SyncResult synced = sourceTreeSync.sync(session, sftp, docker_server, treeKey, request.getFile());
+            DeploymentProgress.stage(DeploymentProgress.UPLOAD, "Đã đồng bộ " + synced.describe());
+
+            // Lưu sourcePath (thư mục source trên builder)
+            projectEntity.setSourcePath(synced.treeDir());
+
+            // Tạo tên file an toàn (loại bỏ ký tự đặc biệt)
+            String originalName = request.getFile().getOriginalFilename();
+            String safeName = originalName != null ? originalName.replaceAll("[^a-zA-Z0-9._-]", "_") : (projectName + ".zip");
+
+            DeploymentProgress.stage(DeploymentProgress.BUILD, "Build Docker image");
+            // Bước 3: Build và push Docker image
+            // Xác định thư mục project sau khi giải nén
+            String extractedDir = safeName.endsWith(".zip") ? safeName.substring(0, safeName.length() - 4) : safeName;
+            String projectDir = synced.treeDir() + "/" + extractedDir;
+
+            // Kiểm tra Dockerfile có tồn tại không
+            String checkDockerfile = "test -f '" + projectDir + "/Dockerfile' && echo OK || echo NO";
+            System.out.println("[deployBackend] Kiểm tra Dockerfile: " + checkDockerfile);
+            String check = executeCommand(session, checkDockerfile);
+            if (!"OK".equals(check.trim())) {
+                throw new RuntimeException("Không tìm thấy Dockerfile trong gói source đã giải nén");
+            }
+
+            // Build Docker image từ Dockerfile
+            // Sử dụng uuid_k8s thay vì projectName để tránh trùng tên image
+            String imageTag = dockerhub_username + "/" + uuid_k8s + ":latest";
+            BuildCacheManager.BuildResult built = buildCacheManager.build(session, framework, projectDir, imageTag);
+            DeploymentProgress.stage(DeploymentProgress.BUILD, "Build xong trong " + built.durationMs() + " ms, "
+                    + built.cachedSteps() + "/" + built.steps() + " bước dùng cache");
+
+            DeploymentProgress.stage(DeploymentProgress.PUSH, "Push image lên DockerHub");
+            // Push image lên DockerHub
+            String pushCmd = "docker push '" + imageTag + "'";
+            System.out.println("[deployBackend] Docker push: " + pushCmd);
+            executeCommand(session, pushCmd);
+
+            // Ghim image theo digest vừa push (manifest và cache dùng cùng một tham chiếu)
+            String digestRef = ArtifactCache.digestReference(
+                    executeCommand(session, ArtifactCache.inspectDigestsCommand(imageTag), true), imageTag);
+            String deployImage = digestRef != null ? digestRef : imageTag;
+            artifactCache.record(contentHash, DeploymentJobEngine.TYPE_BACKEND, framework, digestRef, request.getFile().getSize());
+
+            // Dọn dẹp: Xóa Docker image local sau khi push thành công
+            try {
+                String rmiCmd = "docker rmi '" + escapeSingleQuotes(imageTag) + "' || true";
+                System.out.println("[deployBackend] Dọn dẹp Docker image: " + rmiCmd);
+                executeCommand(session, rmiCmd, true);
+                System.out.println("[deployBackend] Đã dọn dẹp Docker image: " + imageTag);
+            } catch (Exception cleanupEx) {
+                System.err.println("[deployBackend] Lỗi khi dọn dẹp Docker image (bỏ qua): " + cleanupEx.getMessage());
+            }
+
+            // Giữ cây source (lần deploy sau chỉ gửi phần thay đổi), base image và build cache; chỉ giới hạn dung lượng cache trên builder
+            buildCacheManager.enforceBudget(session, docker_server);
+            return deployImage;
         } finally {
-            // ========== DỌN DẸP TÀI NGUYÊN ==========
             // Đảm bảo đóng tất cả các kết nối SSH/SFTP để giải phóng tài nguyên
             if (sftp != null && sftp.isConnected()) sftp.disconnect();
-            if (session != null && session.isConnected()) session.disconnect();
-            if (sftpYaml != null && sftpYaml.isConnected()) sftpYaml.disconnect();
-            if (clusterSession != null && clusterSession.isConnected()) clusterSession.disconnect();
-            System.out.println("[deployBackend] Đã đóng các kết nối SSH/SFTP");
+            if (session != null) sshSessionPool.release(session);
+            if (treeLock != null) treeLock.unlock();
+            System.out.println("[deployBackend] Đã đóng các kết nối SSH/SFTP tới builder " + docker_server.getIp());
         }
     }
 
@@ -941,7 +754,8 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
 
         scaleBackendDeployment(project, backend, 0);
 
-        backend.setStatus("STOPPED");
+        backend.setStatus(ComponentStatusReconciler.STATUS_STOPPED);
+        backend.setReplicas(0);
         projectBackendRepository.save(backend);
         System.out.println("[stopBackend] Đã dừng backend thành công");
     }
@@ -962,7 +776,9 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
 
         scaleBackendDeployment(project, backend, 1);
 
-        backend.setStatus("RUNNING");
+        // Pod đang khởi động, reconciler chuyển sang RUNNING khi ready
+        backend.setStatus(ComponentStatusReconciler.STATUS_PENDING);
+        backend.setReplicas(1);
         projectBackendRepository.save(backend);
         System.out.println("[startBackend] Đã khởi động backend thành công");
     }
@@ -1000,38 +816,13 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
 
         String deploymentName = "app-" + backend.getUuid_k8s();
 
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session clusterSession = null;
         try {
-            JSch jsch = new JSch();
-            clusterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            clusterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            clusterSession.setConfig(config);
-            clusterSession.setTimeout(7000);
-            clusterSession.connect();
-            System.out.println("[scaleBackendDeployment] Đã kết nối tới MASTER server");
-
-            ApiClient client = createKubernetesClient(clusterSession);
-            AppsV1Api appsApi = new AppsV1Api(client);
-
-            V1Scale scale = appsApi.readNamespacedDeploymentScale(deploymentName, namespace, null);
-            if (scale.getSpec() == null) {
-                scale.setSpec(new V1ScaleSpec());
-            }
-            scale.getSpec().setReplicas(replicas);
-            appsApi.replaceNamespacedDeploymentScale(deploymentName, namespace, scale, null, null, null, null);
+            // Một lệnh merge patch trên subresource scale qua ApiClient dùng chung
+            componentWorkloads.scale(namespace, OwnershipLabels.TYPE_BACKEND, backend.getUuid_k8s(), replicas);
             System.out.println("[scaleBackendDeployment] Đã scale deployment " + deploymentName + " về " + replicas + " replica(s)");
         } catch (Exception e) {
             System.err.println("[scaleBackendDeployment] Lỗi: " + e.getMessage());
             throw new RuntimeException("Không thể scale backend: " + e.getMessage(), e);
-        } finally {
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
-            }
         }
     }
 
@@ -1056,50 +847,35 @@ public class ProjectBackendServiceImpl implements ProjectBackendService {
         Session clusterSession = null;
         try {
             // Kết nối SSH tới MASTER server để có thể chạy lệnh kubectl
-            JSch jsch = new JSch();
-            clusterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            clusterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            clusterSession.setConfig(config);
-            clusterSession.setTimeout(7000);
-            clusterSession.connect();
+            clusterSession = sshSessionPool.acquire(masterServer);
             System.out.println("[deleteBackendResources] Đã kết nối MASTER server để xóa resources");
 
-            String deleteIngressCmd = String.format("kubectl -n %s delete ing/%s || true", namespace, ingressName);
-            System.out.println("[deleteBackendResources] " + deleteIngressCmd);
-            executeCommand(clusterSession, deleteIngressCmd, true);
-
-            String deleteServiceCmd = String.format("kubectl -n %s delete svc/%s || true", namespace, serviceName);
-            System.out.println("[deleteBackendResources] " + deleteServiceCmd);
-            executeCommand(clusterSession, deleteServiceCmd, true);
-
-            String deleteDeploymentCmd = String.format("kubectl -n %s delete deploy/%s || true", namespace, deploymentName);
-            System.out.println("[deleteBackendResources] " + deleteDeploymentCmd);
-            executeCommand(clusterSession, deleteDeploymentCmd, true);
+            // Gom các lệnh xoá thành một batch: một round trip thay vì một channel cho mỗi lệnh
+            RemoteCommandBatch batch = new RemoteCommandBatch()
+                    .add("ingress", String.format("kubectl -n %s delete ing/%s || true", namespace, ingressName))
+                    .add("service", String.format("kubectl -n %s delete svc/%s || true", namespace, serviceName))
+                    .add("deployment", String.format("kubectl -n %s delete deploy/%s || true", namespace, deploymentName));
 
+            // Manifest lưu cục bộ thì xoá tại chỗ, đường dẫn cũ trên MASTER thì xoá qua SSH
             String yamlPath = backend.getYamlPath();
-            if (yamlPath != null && !yamlPath.trim().isEmpty()) {
+            if (yamlPath != null && !yamlPath.trim().isEmpty() && !manifestApplier.removeArchived(yamlPath)) {
                 String cleanedPath = yamlPath.trim();
-                String deleteYamlCmd = String.format("rm -f '%s'", escapeSingleQuotes(cleanedPath));
-                System.out.println("[deleteBackendResources] " + deleteYamlCmd);
-                executeCommand(clusterSession, deleteYamlCmd, true);
+                batch.add("yaml", String.format("rm -f '%s'", escapeSingleQuotes(cleanedPath)));
 
                 // Nếu xác định được thư mục chứa file YAML thì xóa luôn thư mục
                 java.io.File yamlFile = new java.io.File(cleanedPath);
                 String parentDir = yamlFile.getParent();
                 if (parentDir != null && !parentDir.trim().isEmpty()) {
-                    String deleteDirCmd = String.format("rm -rf '%s'", escapeSingleQuotes(parentDir.trim()));
-                    System.out.println("[deleteBackendResources] " + deleteDirCmd);
-                    executeCommand(clusterSession, deleteDirCmd, true);
+                    batch.add("dir", String.format("rm -rf '%s'", escapeSingleQuotes(parentDir.trim())));
                 }
             }
+            runDeleteBatch(clusterSession, batch, "deleteBackendResources");
         } catch (Exception e) {
             System.err.println("[deleteBackendResources] Lỗi: " + e.getMessage());
             throw new RuntimeException("Không thể xóa resources backend: " + e.getMessage(), e);
         } finally {
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
+            if (clusterSession != null) {
+                sshSessionPool.release(clusterSession);
             }
         }
     }
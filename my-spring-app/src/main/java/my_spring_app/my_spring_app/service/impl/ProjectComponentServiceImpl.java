@@ -0,0 +1,428 @@
+package my_spring_app.my_spring_app.service.impl;
+
+import com.jcraft.jsch.Session;
+import jakarta.annotation.PostConstruct;
+import my_spring_app.my_spring_app.dto.reponse.BulkComponentResponse;
+import my_spring_app.my_spring_app.dto.request.BulkComponentRequest;
+import my_spring_app.my_spring_app.entity.ProjectBackendEntity;
+import my_spring_app.my_spring_app.entity.ProjectDatabaseEntity;
+import my_spring_app.my_spring_app.entity.ProjectEntity;
+import my_spring_app.my_spring_app.entity.ProjectFrontendEntity;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.entity.UserEntity;
+import my_spring_app.my_spring_app.k8s.ComponentStatusReconciler;
+import my_spring_app.my_spring_app.k8s.ComponentWorkloads;
+import my_spring_app.my_spring_app.k8s.ManifestApplier;
+import my_spring_app.my_spring_app.k8s.OwnershipLabels;
+import my_spring_app.my_spring_app.repository.ProjectBackendRepository;
+import my_spring_app.my_spring_app.repository.ProjectDatabaseRepository;
+import my_spring_app.my_spring_app.repository.ProjectFrontendRepository;
+import my_spring_app.my_spring_app.repository.ProjectRepository;
+import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.repository.UserRepository;
+import my_spring_app.my_spring_app.service.ProjectComponentService;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.FleetExecutor;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Thao tác hàng loạt stop/start/delete/scale trên các component (Database/Backend/Frontend)
+ * của một project hoặc của toàn bộ project thuộc một user.
+ *
+ * Trước đây mỗi component cần một request riêng (stopBackend, deleteDatabase...), dừng cả project
+ * phải gọi tuần tự hàng chục lần. Ở đây các lệnh patch scale/delete chạy song song qua ApiClient dùng
+ * chung (một kết nối tới API server), số lệnh đồng thời bị giới hạn bởi FleetExecutor (permit theo
+ * host, toàn bộ lệnh dùng chung một host key), và kết quả được trả về cho từng component.
+ *
+ * Quy trình xử lý:
+ * 1. Chuẩn hoá action và số replica đích (stop = 0, start = 1, scale = request.replicas)
+ * 2. Nạp component trong phạm vi (kèm project) và lọc theo types/components của request
+ * 3. Component không hợp lệ (thiếu namespace/uuid, database scale > 1) được báo lỗi ngay, không gọi API
+ * 4. Fan-out lệnh Kubernetes cho các component còn lại, chờ đến deadline chung (ngoài transaction: không giữ
+ *    kết nối JDBC trong lúc chờ API server)
+ * 5. Cập nhật DB cho các component thành công trong một transaction ngắn, trên bản ghi đọc lại
+ *    (status/replicas hoặc xoá bản ghi)
+ * 6. Sau commit: xoá manifest đã lưu và các file YAML cũ trên MASTER (nếu có) trong một lệnh SSH duy nhất
+ */
+@Service
+@Transactional
+public class ProjectComponentServiceImpl implements ProjectComponentService {
+
+    private static final String ACTION_STOP = "STOP";
+    private static final String ACTION_START = "START";
+    private static final String ACTION_DELETE = "DELETE";
+    private static final String ACTION_SCALE = "SCALE";
+
+    // Mọi lệnh đi tới cùng một API server nên dùng chung một host key để giới hạn song song
+    private static final String KUBERNETES_API_HOST = "kubernetes-api";
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectDatabaseRepository projectDatabaseRepository;
+
+    @Autowired
+    private ProjectBackendRepository projectBackendRepository;
+
+    @Autowired
+    private ProjectFrontendRepository projectFrontendRepository;
+
+    @Autowired
+    private ServerRepository serverRepository;
+
+    // Lệnh scale/delete trên workload qua Kubernetes API
+    @Autowired
+    private ComponentWorkloads componentWorkloads;
+
+    // Manifest đã apply được lưu cục bộ, xoá cùng component
+    @Autowired
+    private ManifestApplier manifestApplier;
+
+    // Fan-out có giới hạn song song và deadline
+    @Autowired
+    private FleetExecutor fleetExecutor;
+
+    // Pool SSH session dùng chung tới MASTER (chỉ dùng để xoá YAML cũ)
+    @Autowired
+    private SshSessionPool sshSessionPool;
+
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Transaction ngắn cho bước cập nhật DB sau fan-out
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Deadline cho toàn bộ một thao tác hàng loạt
+    @Value("${app.k8s.bulk.deadline-ms:120000}")
+    private long deadlineMs = 120000;
+
+    // Số replica tối đa cho scale
+    @Value("${app.k8s.bulk.max-replicas:10}")
+    private int maxReplicas = 10;
+
+    /**
+     * Một component trong phạm vi thao tác (chỉ giữ giá trị, bản ghi được đọc lại khi cập nhật DB).
+     */
+    private record Target(String type, Long id, ProjectEntity project, String name, String uuid,
+                          String databaseType, String yamlPath) {
+
+        String namespace() {
+            return project.getNamespace();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkComponentResponse bulkProjectComponents(Long projectId, String action, BulkComponentRequest request) {
+        System.out.println("[bulkProjectComponents] Yêu cầu " + action + " cho project id=" + projectId);
+        projectRepository.findById(projectId)
+                .orElseThrow(() -> new RuntimeException("Project không tồn tại với id: " + projectId));
+
+        List<Target> targets = new ArrayList<>();
+        projectDatabaseRepository.findByProjectIdWithProject(projectId).forEach(db -> targets.add(target(db)));
+        projectBackendRepository.findByProjectIdWithProject(projectId).forEach(be -> targets.add(target(be)));
+        projectFrontendRepository.findByProjectIdWithProject(projectId).forEach(fe -> targets.add(target(fe)));
+        return run(action, request, targets);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkComponentResponse bulkUserComponents(String username, String action, BulkComponentRequest request) {
+        System.out.println("[bulkUserComponents] Yêu cầu " + action + " cho user " + username);
+        UserEntity user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User không tồn tại với username: " + username));
+
+        List<Target> targets = new ArrayList<>();
+        projectDatabaseRepository.findByUserWithProject(user).forEach(db -> targets.add(target(db)));
+        projectBackendRepository.findByUserWithProject(user).forEach(be -> targets.add(target(be)));
+        projectFrontendRepository.findByUserWithProject(user).forEach(fe -> targets.add(target(fe)));
+        return run(action, request, targets);
+    }
+
+    private BulkComponentResponse run(String action, BulkComponentRequest request, List<Target> allTargets) {
+        long start = System.currentTimeMillis();
+        String normalizedAction = action == null ? "" : action.trim().toUpperCase(Locale.ROOT);
+        Integer replicas = desiredReplicas(normalizedAction, request);
+        List<Target> targets = filter(allTargets, request);
+
+        // Kiểm tra trước, component không hợp lệ không gọi API
+        List<BulkComponentResponse.Item> items = new ArrayList<>();
+        List<Target> runnable = new ArrayList<>();
+        List<BulkComponentResponse.Item> runnableItems = new ArrayList<>();
+        for (Target target : targets) {
+            BulkComponentResponse.Item item = new BulkComponentResponse.Item(target.type().toUpperCase(Locale.ROOT), target.id(),
+                    target.project().getId(), target.name(), target.uuid(), null, null, null, null, 0);
+            items.add(item);
+            String invalid = validate(target, normalizedAction, replicas);
+            if (invalid != null) {
+                item.setResult("FAILED");
+                item.setMessage(invalid);
+            } else {
+                runnable.add(target);
+                runnableItems.add(item);
+            }
+        }
+
+        List<FleetExecutor.HostOutcome<Target, Integer>> outcomes = fleetExecutor.fanOut(
+                "components:" + normalizedAction.toLowerCase(Locale.ROOT), runnable, t -> KUBERNETES_API_HOST, deadlineMs,
+                target -> {
+                    if (ACTION_DELETE.equals(normalizedAction)) {
+                        return componentWorkloads.delete(target.namespace(),
+                                ComponentWorkloads.resourcesOf(target.type(), target.uuid(), target.databaseType()));
+                    }
+                    componentWorkloads.scale(target.namespace(), target.type(), target.uuid(), replicas);
+                    return replicas;
+                });
+
+        // Kết quả từng component; chỉ component thành công được ghi DB
+        List<Target> applied = new ArrayList<>();
+        String status = replicas == null ? null
+                : replicas == 0 ? ComponentStatusReconciler.STATUS_STOPPED : ComponentStatusReconciler.STATUS_PENDING;
+        for (int i = 0; i < outcomes.size(); i++) {
+            FleetExecutor.HostOutcome<Target, Integer> outcome = outcomes.get(i);
+            BulkComponentResponse.Item item = runnableItems.get(i);
+            item.setDurationMs(outcome.durationMs());
+            if (!outcome.isSuccess()) {
+                item.setResult("FAILED");
+                item.setMessage(outcome.errorMessage());
+                continue;
+            }
+            applied.add(outcome.target());
+            if (ACTION_DELETE.equals(normalizedAction)) {
+                item.setMessage("Đã xóa " + outcome.value() + " resource");
+            } else {
+                item.setStatus(status);
+                item.setReplicas(replicas);
+            }
+            item.setResult("OK");
+        }
+
+        // Transaction ngắn sau fan-out: đọc lại bản ghi để không ghi đè status do ComponentStatusReconciler cập nhật
+        if (!applied.isEmpty()) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                for (Target target : applied) {
+                    if (ACTION_DELETE.equals(normalizedAction)) {
+                        deleteRecord(target);
+                    } else {
+                        updateRecord(target, status, replicas);
+                    }
+                }
+            });
+        }
+
+        // Sau commit mới xoá manifest/YAML: DB lỗi thì component vẫn còn đủ dữ liệu để thao tác lại
+        if (ACTION_DELETE.equals(normalizedAction)) {
+            List<String> legacyYamlPaths = new ArrayList<>();
+            for (Target target : applied) {
+                if (target.yamlPath() != null && !target.yamlPath().isBlank()
+                        && !manifestApplier.removeArchived(target.yamlPath())) {
+                    legacyYamlPaths.add(target.yamlPath().trim());
+                }
+            }
+            removeLegacyYaml(legacyYamlPaths);
+        }
+
+        int succeeded = (int) items.stream().filter(item -> "OK".equals(item.getResult())).count();
+        long elapsedMs = System.currentTimeMillis() - start;
+        System.out.println("[ProjectComponentService] " + normalizedAction + ": " + items.size() + " component, "
+                + succeeded + " OK, " + (items.size() - succeeded) + " loi trong " + elapsedMs + " ms");
+        return new BulkComponentResponse(normalizedAction, items.size(), succeeded, items.size() - succeeded,
+                elapsedMs, items);
+    }
+
+    private Integer desiredReplicas(String action, BulkComponentRequest request) {
+        switch (action) {
+            case ACTION_STOP:
+                return 0;
+            case ACTION_START:
+                return 1;
+            case ACTION_DELETE:
+                return null;
+            case ACTION_SCALE:
+                Integer replicas = request != null ? request.getReplicas() : null;
+                if (replicas == null || replicas < 0 || replicas > maxReplicas) {
+                    throw new RuntimeException("Số replicas phải nằm trong khoảng 0-" + maxReplicas);
+                }
+                return replicas;
+            default:
+                throw new RuntimeException("Thao tác không hợp lệ: " + action + ". Chỉ hỗ trợ stop, start, delete, scale");
+        }
+    }
+
+    private List<Target> filter(List<Target> targets, BulkComponentRequest request) {
+        if (request == null) {
+            return targets;
+        }
+        Set<String> types = new HashSet<>();
+        if (request.getTypes() != null) {
+            for (String type : request.getTypes()) {
+                types.add(normalizeType(type));
+            }
+        }
+        Set<String> refs = new HashSet<>();
+        if (request.getComponents() != null) {
+            for (BulkComponentRequest.ComponentRef ref : request.getComponents()) {
+                if (ref == null || ref.getId() == null) {
+                    throw new RuntimeException("Component trong danh sách phải có type và id");
+                }
+                refs.add(normalizeType(ref.getType()) + ":" + ref.getId());
+            }
+        }
+        List<Target> filtered = new ArrayList<>();
+        for (Target target : targets) {
+            if (!types.isEmpty() && !types.contains(target.type())) continue;
+            if (!refs.isEmpty() && !refs.contains(target.type() + ":" + target.id())) continue;
+            filtered.add(target);
+        }
+        return filtered;
+    }
+
+    private String normalizeType(String type) {
+        String normalized = type == null ? "" : type.trim().toUpperCase(Locale.ROOT);
+        switch (normalized) {
+            case "DATABASE":
+                return OwnershipLabels.TYPE_DATABASE;
+            case "BACKEND":
+                return OwnershipLabels.TYPE_BACKEND;
+            case "FRONTEND":
+                return OwnershipLabels.TYPE_FRONTEND;
+            default:
+                throw new RuntimeException("Loại component không hợp lệ: " + type + ". Chỉ hỗ trợ DATABASE, BACKEND, FRONTEND");
+        }
+    }
+
+    private String validate(Target target, String action, Integer replicas) {
+        if (target.namespace() == null || target.namespace().trim().isEmpty()) {
+            return "Project không có namespace";
+        }
+        if (target.uuid() == null || target.uuid().trim().isEmpty()) {
+            return "Component không có uuid_k8s";
+        }
+        if (ACTION_SCALE.equals(action) && OwnershipLabels.TYPE_DATABASE.equals(target.type()) && replicas > 1) {
+            return "Database chỉ hỗ trợ 0 hoặc 1 replica";
+        }
+        return null;
+    }
+
+    /**
+     * Ghi status/replicas lên bản ghi đọc lại trong transaction hiện tại (bản ghi đã bị xoá thì bỏ qua).
+     */
+    private void updateRecord(Target target, String status, int replicas) {
+        if (OwnershipLabels.TYPE_DATABASE.equals(target.type())) {
+            projectDatabaseRepository.findById(target.id()).ifPresent(database -> {
+                database.setStatus(status);
+                database.setReplicas(replicas);
+                projectDatabaseRepository.save(database);
+            });
+        } else if (OwnershipLabels.TYPE_BACKEND.equals(target.type())) {
+            projectBackendRepository.findById(target.id()).ifPresent(backend -> {
+                backend.setStatus(status);
+                backend.setReplicas(replicas);
+                projectBackendRepository.save(backend);
+            });
+        } else if (OwnershipLabels.TYPE_FRONTEND.equals(target.type())) {
+            projectFrontendRepository.findById(target.id()).ifPresent(frontend -> {
+                frontend.setStatus(status);
+                frontend.setReplicas(replicas);
+                projectFrontendRepository.save(frontend);
+            });
+        }
+    }
+
+    private void deleteRecord(Target target) {
+        if (OwnershipLabels.TYPE_DATABASE.equals(target.type())) {
+            projectDatabaseRepository.findById(target.id()).ifPresent(projectDatabaseRepository::delete);
+        } else if (OwnershipLabels.TYPE_BACKEND.equals(target.type())) {
+            projectBackendRepository.findById(target.id()).ifPresent(projectBackendRepository::delete);
+        } else if (OwnershipLabels.TYPE_FRONTEND.equals(target.type())) {
+            projectFrontendRepository.findById(target.id()).ifPresent(projectFrontendRepository::delete);
+        }
+    }
+
+    /**
+     * Xoá file YAML (và thư mục chứa) của các component deploy trước khi có ManifestApplier, trong một lệnh.
+     */
+    private void removeLegacyYaml(List<String> yamlPaths) {
+        if (yamlPaths.isEmpty()) {
+            return;
+        }
+        ServerEntity masterServer = serverRepository.findByRole("MASTER").orElse(null);
+        if (masterServer == null) {
+            System.err.println("[ProjectComponentService] Không tìm thấy server MASTER, bỏ qua xóa " + yamlPaths.size() + " file YAML cũ");
+            return;
+        }
+        StringBuilder command = new StringBuilder("rm -f");
+        for (String path : yamlPaths) {
+            command.append(" '").append(escapeSingleQuotes(path)).append("'");
+        }
+        for (String path : yamlPaths) {
+            String parentDir = new java.io.File(path).getParent();
+            if (parentDir != null && !parentDir.trim().isEmpty()) {
+                command.append(" ; rm -rf '").append(escapeSingleQuotes(parentDir.trim())).append("'");
+            }
+        }
+        command.append(" || true");
+
+        Session session = null;
+        try {
+            session = sshSessionPool.acquire(masterServer);
+            CommandResult result = remoteCommandExecutor.execute(session, command.toString(), 0);
+            if (!result.isSuccess()) {
+                System.err.println("[ProjectComponentService] Xóa YAML cũ lỗi: " + result.stderr());
+            }
+        } catch (Exception e) {
+            // Component đã xoá xong trên cluster và DB, file YAML cũ chỉ còn là rác trên MASTER
+            System.err.println("[ProjectComponentService] Không thể xóa YAML cũ trên MASTER: " + e.getMessage());
+        } finally {
+            if (session != null) {
+                sshSessionPool.release(session);
+            }
+        }
+    }
+
+    private Target target(ProjectDatabaseEntity database) {
+        return new Target(OwnershipLabels.TYPE_DATABASE, database.getId(), database.getProject(), database.getProjectName(),
+                database.getUuid_k8s(), database.getDatabaseType(), database.getYamlPath());
+    }
+
+    private Target target(ProjectBackendEntity backend) {
+        return new Target(OwnershipLabels.TYPE_BACKEND, backend.getId(), backend.getProject(), backend.getProjectName(),
+                backend.getUuid_k8s(), null, backend.getYamlPath());
+    }
+
+    private Target target(ProjectFrontendEntity frontend) {
+        return new Target(OwnershipLabels.TYPE_FRONTEND, frontend.getId(), frontend.getProject(), frontend.getProjectName(),
+                frontend.getUuid_k8s(), null, frontend.getYamlPath());
+    }
+
+    private String escapeSingleQuotes(String input) {
+        return input.replace("'", "'\"'\"'");
+    }
+}
@@ -10,30 +10,24 @@ import my_spring_app.my_spring_app.entity.UserEntity;
 import my_spring_app.my_spring_app.repository.ProjectDatabaseRepository;
 import my_spring_app.my_spring_app.repository.ProjectRepository;
 import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandBatch;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.k8s.ComponentStatusReconciler;
+import my_spring_app.my_spring_app.deploy.DeploymentProgress;
+import my_spring_app.my_spring_app.k8s.ComponentWorkloads;
+import my_spring_app.my_spring_app.k8s.ManifestApplier;
+import my_spring_app.my_spring_app.k8s.OwnershipLabels;
+import my_spring_app.my_spring_app.ssh.SftpStreamUploader;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
 import my_spring_app.my_spring_app.repository.UserRepository;
 import my_spring_app.my_spring_app.service.ProjectDatabaseService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.ApiException;
-import io.kubernetes.client.openapi.Configuration;
-import io.kubernetes.client.openapi.apis.AppsV1Api;
-import io.kubernetes.client.openapi.apis.CoreV1Api;
-import io.kubernetes.client.openapi.models.V1Namespace;
-import io.kubernetes.client.openapi.models.V1ObjectMeta;
-import io.kubernetes.client.openapi.models.V1Scale;
-import io.kubernetes.client.openapi.models.V1ScaleSpec;
-import io.kubernetes.client.util.Config;
-
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Properties;
 import java.util.UUID;
 
 /**
@@ -56,6 +50,26 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
     @Autowired
     private ServerRepository serverRepository;
 
+    // Pool SSH session dùng chung tới MASTER/DOCKER server
+    @Autowired
+    private SshSessionPool sshSessionPool;
+
+    // Upload SFTP có pipelining và SHA-256
+    @Autowired
+    private SftpStreamUploader sftpStreamUploader;
+
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Server-side apply manifest qua Kubernetes API
+    @Autowired
+    private ManifestApplier manifestApplier;
+
+    // Lệnh scale/delete trên workload qua Kubernetes API
+    @Autowired
+    private ComponentWorkloads componentWorkloads;
+
     /**
      * Tạo short UUID từ UUID đầy đủ để sử dụng trong Kubernetes
      * UUID đầy đủ có 36 ký tự (với dấu gạch ngang), short UUID sẽ có độ dài cố định 12 ký tự
@@ -87,79 +101,6 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
         return shortUuid;
     }
 
-    /**
-     * Kiểm tra và tạo namespace trên Kubernetes cluster nếu chưa tồn tại
-     * Sử dụng Kubernetes Java Client API
-     * 
-     * @param session SSH session đến MASTER server để lấy kubeconfig
-     * @param namespace Tên namespace cần kiểm tra/tạo
-     * @throws Exception Nếu có lỗi khi kiểm tra hoặc tạo namespace
-     */
-    private void ensureNamespaceExists(Session session, String namespace) throws Exception {
-        System.out.println("[ensureNamespaceExists] Kiểm tra namespace: " + namespace);
-        
-        File tempKubeconfig = null;
-        try {
-            // Đọc kubeconfig từ master server (thường ở ~/.kube/config)
-            String kubeconfigPath = "~/.kube/config";
-            System.out.println("[ensureNamespaceExists] Đang đọc kubeconfig từ: " + kubeconfigPath);
-            String kubeconfigContent = executeCommand(session, "cat " + kubeconfigPath);
-            
-            if (kubeconfigContent == null || kubeconfigContent.trim().isEmpty()) {
-                throw new RuntimeException("Không thể đọc kubeconfig từ master server");
-            }
-            
-            // Tạo file kubeconfig tạm thời trên local
-            tempKubeconfig = File.createTempFile("kubeconfig-", ".yaml");
-            tempKubeconfig.deleteOnExit();
-            try (FileWriter writer = new FileWriter(tempKubeconfig)) {
-                writer.write(kubeconfigContent);
-            }
-            System.out.println("[ensureNamespaceExists] Đã tạo file kubeconfig tạm thời: " + tempKubeconfig.getAbsolutePath());
-            
-            // Khởi tạo Kubernetes API client từ kubeconfig
-            ApiClient client = Config.fromConfig(tempKubeconfig.getAbsolutePath());
-            Configuration.setDefaultApiClient(client);
-            CoreV1Api api = new CoreV1Api();
-            
-            // Kiểm tra namespace đã tồn tại chưa
-            try {
-                V1Namespace ns = api.readNamespace(namespace, null);
-                System.out.println("[ensureNamespaceExists] Namespace đã tồn tại: " + namespace + " (Status: " + 
-                    (ns.getStatus() != null && ns.getStatus().getPhase() != null ? ns.getStatus().getPhase() : "Unknown") + ")");
-            } catch (ApiException e) {
-                if (e.getCode() == 404) {
-                    // Namespace chưa tồn tại, tạo mới
-                    System.out.println("[ensureNamespaceExists] Namespace chưa tồn tại, đang tạo mới: " + namespace);
-                    V1Namespace newNamespace = new V1Namespace();
-                    V1ObjectMeta metadata = new V1ObjectMeta();
-                    metadata.setName(namespace);
-                    newNamespace.setMetadata(metadata);
-                    
-                    V1Namespace createdNamespace = api.createNamespace(newNamespace, null, null, null, null);
-                    System.out.println("[ensureNamespaceExists] Đã tạo namespace thành công: " + namespace);
-                } else {
-                    System.err.println("[ensureNamespaceExists] Lỗi API khi kiểm tra namespace. Code: " + e.getCode() + ", Message: " + e.getMessage());
-                    throw new RuntimeException("Lỗi khi kiểm tra namespace: " + e.getMessage(), e);
-                }
-            }
-            
-        } catch (Exception e) {
-            System.err.println("[ensureNamespaceExists] Lỗi: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Không thể kiểm tra/tạo namespace: " + e.getMessage(), e);
-        } finally {
-            // Đảm bảo xóa file tạm thời sau khi sử dụng
-            if (tempKubeconfig != null && tempKubeconfig.exists()) {
-                try {
-                    tempKubeconfig.delete();
-                } catch (Exception e) {
-                    System.err.println("[ensureNamespaceExists] Không thể xóa file kubeconfig tạm thời: " + e.getMessage());
-                }
-            }
-        }
-    }
-
     /**
      * Helper method để tạo nội dung YAML Kubernetes cho MySQL database
      * Tạo file YAML bao gồm: Secret, Service, StatefulSet
@@ -170,10 +111,11 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
      * @param databaseUsername Database username
      * @param databasePassword Database password
      * @param storageSize Storage size in GB
+     * @param labels Label sở hữu (OwnershipLabels) gắn vào mọi object được sinh ra
      * @return Nội dung YAML đầy đủ cho Secret, Service và StatefulSet
      */
     private String generateMySQLYaml(String uuid_k8s, String namespace, String databaseName, 
-                                      String databaseUsername, String databasePassword, Integer storageSize) {
+                                      String databaseUsername, String databasePassword, Integer storageSize, Map<String, String> labels) {
         String resourceName = "db-" + uuid_k8s;
         String secretName = resourceName + "-secret";
         String serviceName = resourceName + "-svc";
@@ -188,6 +130,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "metadata:\n" +
                 "  name: " + secretName + "\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "type: Opaque\n" +
                 "stringData:\n" +
                 "  MYSQL_ROOT_PASSWORD: \"" + escapedRootPassword + "\"\n" +
@@ -202,6 +146,7 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "  namespace: " + namespace + "\n" +
                 "  labels:\n" +
                 "    app: " + resourceName + "\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  type: LoadBalancer\n" +
                 "  selector:\n" +
@@ -216,6 +161,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "metadata:\n" +
                 "  name: " + resourceName + "\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  serviceName: " + serviceName + "\n" +
                 "  replicas: 1\n" +
@@ -226,6 +173,7 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "    metadata:\n" +
                 "      labels:\n" +
                 "        app: " + resourceName + "\n" +
+                OwnershipLabels.yaml(labels, 8) +
                 "    spec:\n" +
                 "      containers:\n" +
                 "        - name: mysql\n" +
@@ -263,6 +211,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "  volumeClaimTemplates:\n" +
                 "    - metadata:\n" +
                 "        name: mysql-data\n" +
+                "        labels:\n" +
+                OwnershipLabels.yaml(labels, 10) +
                 "      spec:\n" +
                 "        accessModes: [\"ReadWriteOnce\"]\n" +
                 "        storageClassName: local-path\n" +
@@ -281,10 +231,11 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
      * @param databaseUsername Database username
      * @param databasePassword Database password
      * @param storageSize Storage size in GB
+     * @param labels Label sở hữu (OwnershipLabels) gắn vào mọi object được sinh ra
      * @return Nội dung YAML đầy đủ cho StatefulSet và Service
      */
     private String generateMongoDBYaml(String uuid_k8s, String namespace, String databaseName,
-                                       String databaseUsername, String databasePassword, Integer storageSize) {
+                                       String databaseUsername, String databasePassword, Integer storageSize, Map<String, String> labels) {
         String resourceName = "db-" + uuid_k8s;
         
         return "apiVersion: apps/v1\n" +
@@ -292,6 +243,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "metadata:\n" +
                 "  name: " + resourceName + "\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  serviceName: " + resourceName + "-svc\n" +
                 "  replicas: 1\n" +
@@ -302,6 +255,7 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "    metadata:\n" +
                 "      labels:\n" +
                 "        app: " + resourceName + "\n" +
+                OwnershipLabels.yaml(labels, 8) +
                 "    spec:\n" +
                 "      containers:\n" +
                 "        - name: mongodb\n" +
@@ -322,6 +276,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "  volumeClaimTemplates:\n" +
                 "    - metadata:\n" +
                 "        name: mongodb-data\n" +
+                "        labels:\n" +
+                OwnershipLabels.yaml(labels, 10) +
                 "      spec:\n" +
                 "        accessModes: [ \"ReadWriteOnce\" ]\n" +
                 "        resources:\n" +
@@ -333,6 +289,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 "metadata:\n" +
                 "  name: " + resourceName + "-svc\n" +
                 "  namespace: " + namespace + "\n" +
+                "  labels:\n" +
+                OwnershipLabels.yaml(labels, 4) +
                 "spec:\n" +
                 "  type: ClusterIP\n" +
                 "  selector:\n" +
@@ -363,61 +321,48 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
      * @throws Exception Nếu có lỗi khi thực thi lệnh và ignoreNonZeroExit = false
      */
     private String executeCommand(Session session, String command, boolean ignoreNonZeroExit) throws Exception {
-        ChannelExec channelExec = null;
-
-        try {
-            Channel channel = session.openChannel("exec");
-            channelExec = (ChannelExec) channel;
-            channelExec.setCommand(command);
-            channelExec.setErrStream(System.err);
-
-            InputStream inputStream = channelExec.getInputStream();
-            channelExec.connect();
-
-            StringBuilder output = new StringBuilder();
-            byte[] buffer = new byte[1024];
-
-            while (true) {
-                while (inputStream.available() > 0) {
-                    int bytesRead = inputStream.read(buffer, 0, 1024);
-                    if (bytesRead < 0) {
-                        break;
-                    }
-                    output.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
-                }
+        // Thực thi qua engine dùng chung: chờ sự kiện đóng channel thay vì sleep-polling
+        CommandResult commandResult = remoteCommandExecutor.execute(session, command, 0);
+        // Giữ hành vi cũ: stderr của lệnh được in ra console để dễ debug
+        if (!commandResult.stderr().isEmpty()) {
+            System.err.print(commandResult.stderr());
+        }
 
-                if (channelExec.isClosed()) {
-                    if (inputStream.available() > 0) {
-                        continue;
-                    }
-                    break;
-                }
+        // Lấy exit status của lệnh (0 = thành công, != 0 = lỗi)
+        int exitStatus = commandResult.exitStatus();
+        String result = commandResult.stdout().trim();
 
-                try {
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    // Bỏ qua lỗi sleep
-                }
+        if (exitStatus != 0) {
+            if (ignoreNonZeroExit) {
+                System.err.println("[executeCommand] Command exited with status: " + exitStatus + ". Output: " + result + ". Command: " + command);
+            } else {
+                throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
             }
+        }
 
-            int exitStatus = channelExec.getExitStatus();
-            String result = output.toString().trim();
+        return result;
+    }
 
-            if (exitStatus != 0) {
-                if (ignoreNonZeroExit) {
-                    System.err.println("[executeCommand] Command exited with status: " + exitStatus + ". Output: " + result + ". Command: " + command);
-                } else {
-                    throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
-                }
+    /**
+     * Chạy batch lệnh xoá trên một channel; lệnh lỗi chỉ được log (như executeCommand với ignoreNonZeroExit = true)
+     * @param session SSH session đã kết nối
+     * @param batch Các lệnh xoá
+     * @param caller Tên hàm gọi (dùng cho log)
+     * @throws Exception Nếu không mở được channel
+     */
+    private void runDeleteBatch(Session session, RemoteCommandBatch batch, String caller) throws Exception {
+        RemoteCommandBatch.Results results = remoteCommandExecutor.executeBatch(session, batch, 0);
+        results.asMap().forEach((key, result) -> {
+            if (!result.stderr().isEmpty()) {
+                System.err.print(result.stderr());
             }
-
-            return result;
-
-        } finally {
-            if (channelExec != null && channelExec.isConnected()) {
-                channelExec.disconnect();
+            if (result.isSuccess()) {
+                System.out.println("[" + caller + "] Đã xoá " + key);
+            } else {
+                System.err.println("[" + caller + "] Xoá " + key + " lỗi, exit status: " + result.exitStatus()
+                        + ". Output: " + result.stdout().trim());
             }
-        }
+        });
     }
 
     /**
@@ -471,6 +416,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
         String uuid_k8s = generateShortUuid(fullUuid);
         System.out.println("[deployDatabase] Tạo UUID đầy đủ: " + fullUuid);
         System.out.println("[deployDatabase] Short UUID cho deployment: " + uuid_k8s + " (độ dài: " + uuid_k8s.length() + " ký tự)");
+        // Label sở hữu gắn vào mọi object K8s của component (tra cứu theo label thay vì đoán tên)
+        Map<String, String> ownershipLabels = OwnershipLabels.of(project.getUuid_k8s(), uuid_k8s, OwnershipLabels.TYPE_DATABASE, user.getUsername());
 
         // Lấy namespace từ ProjectEntity
         String namespace = project.getNamespace();
@@ -528,25 +475,15 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
             // ========== BƯỚC 3: KẾT NỐI ĐẾN MASTER SERVER ==========
 
             System.out.println("[deployDatabase] Kết nối SSH đến MASTER server: " + masterServer.getIp() + ":" + masterServer.getPort());
-            JSch jsch = new JSch();
-            masterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            masterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            masterSession.setConfig(config);
-            masterSession.setTimeout(7000);
-            masterSession.connect();
+            masterSession = sshSessionPool.acquire(masterServer);
             System.out.println("[deployDatabase] Kết nối SSH đến MASTER server thành công");
 
-            // ========== BƯỚC 4: KIỂM TRA VÀ TẠO NAMESPACE ==========
-
-            ensureNamespaceExists(masterSession, namespace);
-
-            // ========== BƯỚC 5: XỬ LÝ FILE DATABASE (NẾU CÓ) ==========
+            // ========== BƯỚC 4: XỬ LÝ FILE DATABASE (NẾU CÓ) ==========
 
             String sqlFilePath = null;
 
             if (request.getFile() != null && !request.getFile().isEmpty()) {
+                DeploymentProgress.stage(DeploymentProgress.UPLOAD, "Upload file database lên MASTER server");
                 // Upload database file lên MASTER server
                 Channel channelMaster = masterSession.openChannel("sftp");
                 channelMaster.connect();
@@ -573,7 +510,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
 
                 String dbRemotePath = remoteDbBase + "/" + dbFileName;
                 System.out.println("[deployDatabase] Upload database file lên: " + dbRemotePath);
-                sftpMaster.put(request.getFile().getInputStream(), dbRemotePath);
+                SftpStreamUploader.UploadResult uploaded = sftpStreamUploader.upload(sftpMaster, request.getFile().getInputStream(), dbRemotePath);
+                DeploymentProgress.stage(DeploymentProgress.UPLOAD, "Đã upload " + uploaded.describe());
                 System.out.println("[deployDatabase] Đã upload database file lên MASTER server: " + dbRemotePath);
 
                 // Lưu đường dẫn file vào entity
@@ -604,57 +542,32 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 sftpMaster = null;
             }
 
-            // ========== BƯỚC 6: TẠO VÀ APPLY YAML CHO DATABASE ==========
+            // ========== BƯỚC 5: TẠO VÀ APPLY YAML CHO DATABASE ==========
 
             // Tạo nội dung YAML file
-            String fileName = uuid_k8s + ".yaml";
             String yamlContent;
             if ("MYSQL".equals(databaseType)) {
-                yamlContent = generateMySQLYaml(uuid_k8s, namespace, databaseName, databaseUsername, databasePassword, storageSize);
+                yamlContent = generateMySQLYaml(uuid_k8s, namespace, databaseName, databaseUsername, databasePassword, storageSize, ownershipLabels);
             } else {
                 // MONGODB
-                yamlContent = generateMongoDBYaml(uuid_k8s, namespace, databaseName, databaseUsername, databasePassword, storageSize);
-            }
-
-            // Mở SFTP channel để upload YAML file
-            Channel sftpYamlCh = masterSession.openChannel("sftp");
-            sftpYamlCh.connect();
-            sftpMaster = (ChannelSftp) sftpYamlCh;
-
-            // Tạo thư mục đích với UUID: /home/<master_username>/uploads/<username>/<uuid_k8s của project>/database/<uuid_k8s>
-            String yamlRemoteDir = "/home/" + masterServer.getUsername() + "/uploads/" + user.getUsername() + "/" + project.getUuid_k8s() + "/database/" + uuid_k8s;
-            System.out.println("[deployDatabase] Tạo/cd thư mục YAML: " + yamlRemoteDir);
-            String[] yamlDirParts = yamlRemoteDir.split("/");
-            String yamlCur = "";
-            for (String p : yamlDirParts) {
-                if (p == null || p.isBlank()) continue;
-                yamlCur += "/" + p;
-                try {
-                    sftpMaster.cd(yamlCur);
-                } catch (Exception e) {
-                    sftpMaster.mkdir(yamlCur);
-                    sftpMaster.cd(yamlCur);
-                }
+                yamlContent = generateMongoDBYaml(uuid_k8s, namespace, databaseName, databaseUsername, databasePassword, storageSize, ownershipLabels);
             }
 
-            // Upload YAML file lên MASTER server
-            InputStream yamlStream = new ByteArrayInputStream(yamlContent.getBytes(StandardCharsets.UTF_8));
-            String yamlRemotePath = yamlRemoteDir + "/" + fileName;
-            sftpMaster.put(yamlStream, yamlRemotePath);
-            System.out.println("[deployDatabase] Đã upload YAML file: " + yamlRemotePath);
-
-            // Lưu yamlPath (đường dẫn YAML trên MASTER server)
-            projectEntity.setYamlPath(yamlRemotePath);
+            // Lưu manifest (thay cho /home/<master_username>/uploads/...), yamlPath trỏ tới bản lưu
+            projectEntity.setYamlPath(manifestApplier.archive(user.getUsername(), project.getUuid_k8s(), "database", uuid_k8s, yamlContent));
 
-            // Apply YAML file vào Kubernetes cluster bằng kubectl
-            System.out.println("[deployDatabase] Đang apply YAML: kubectl apply -f " + yamlRemotePath);
-            executeCommand(masterSession, "kubectl apply -f '" + yamlRemotePath + "'");
+            // Apply manifest qua Kubernetes API (namespace được tạo cùng lúc nếu chưa có)
+            System.out.println("[deployDatabase] Đang apply manifest qua Kubernetes API");
+            DeploymentProgress.stage(DeploymentProgress.APPLY, "Apply manifest vào namespace " + namespace);
+            ManifestApplier.ApplyResult applied = manifestApplier.apply(namespace, yamlContent);
+            System.out.println("[deployDatabase] Đã apply " + applied.objectCount() + " object trong " + applied.elapsedMs() + " ms");
 
             // Đợi một chút để service được tạo
             System.out.println("[deployDatabase] Đợi service được tạo...");
             Thread.sleep(3000); // Đợi 3 giây
 
-            // ========== BƯỚC 6.5: LẤY EXTERNAL-IP TỪ SERVICE ==========
+            // ========== BƯỚC 5.5: LẤY EXTERNAL-IP TỪ SERVICE ==========
+            DeploymentProgress.stage(DeploymentProgress.EXPOSE, "Chờ EXTERNAL-IP của service");
             
             String serviceName = "db-" + uuid_k8s + "-svc";
             System.out.println("[deployDatabase] Đang lấy EXTERNAL-IP từ service: " + serviceName);
@@ -695,9 +608,10 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
             System.out.println("[deployDatabase] Đợi database pod khởi động...");
             Thread.sleep(2000); // Đợi thêm 2 giây
 
-            // ========== BƯỚC 7: IMPORT FILE SQL (NẾU CÓ) ==========
+            // ========== BƯỚC 6: IMPORT FILE SQL (NẾU CÓ) ==========
 
             if (sqlFilePath != null && "MYSQL".equals(databaseType)) {
+                DeploymentProgress.stage(DeploymentProgress.IMPORT, "Import file SQL vào database");
                 // Chờ database sẵn sàng
                 System.out.println("[deployDatabase] Đợi MySQL sẵn sàng...");
                 String waitCmd = "kubectl wait --for=condition=ready pod -l app=db-" + uuid_k8s + " -n " + namespace + " --timeout=120s";
@@ -766,10 +680,11 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
                 System.out.println("[deployDatabase] Import MongoDB chưa được hỗ trợ");
             }
 
-            // ========== BƯỚC 8: CẬP NHẬT TRẠNG THÁI VÀ TRẢ VỀ KẾT QUẢ ==========
+            // ========== BƯỚC 7: CẬP NHẬT TRẠNG THÁI VÀ TRẢ VỀ KẾT QUẢ ==========
 
-            // Cập nhật thông tin vào entity
-            projectEntity.setStatus("RUNNING");
+            // Cập nhật thông tin vào entity (ComponentStatusReconciler chuyển sang RUNNING khi pod ready)
+            projectEntity.setStatus(ComponentStatusReconciler.STATUS_PENDING);
+            projectEntity.setReplicas(1);
             projectDatabaseRepository.save(projectEntity);
             System.out.println("[deployDatabase] Hoàn tất triển khai database, projectName=" + request.getProjectName() + ", databaseName=" + databaseName);
 
@@ -796,8 +711,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
             if (sftpMaster != null && sftpMaster.isConnected()) {
                 sftpMaster.disconnect();
             }
-            if (masterSession != null && masterSession.isConnected()) {
-                masterSession.disconnect();
+            if (masterSession != null) {
+                sshSessionPool.release(masterSession);
             }
             System.out.println("[deployDatabase] Đã đóng các kết nối SSH/SFTP");
         }
@@ -830,7 +745,8 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
         scaleDatabaseStatefulSet(project, database, 0);
 
         // Cập nhật trạng thái
-        database.setStatus("STOPPED");
+        database.setStatus(ComponentStatusReconciler.STATUS_STOPPED);
+        database.setReplicas(0);
         projectDatabaseRepository.save(database);
         System.out.println("[stopDatabase] Đã dừng database thành công");
     }
@@ -861,48 +777,13 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
         // Scale StatefulSet về 1 để khởi động database
         scaleDatabaseStatefulSet(project, database, 1);
 
-        // Cập nhật trạng thái
-        database.setStatus("RUNNING");
+        // Cập nhật trạng thái (pod đang khởi động, reconciler chuyển sang RUNNING khi ready)
+        database.setStatus(ComponentStatusReconciler.STATUS_PENDING);
+        database.setReplicas(1);
         projectDatabaseRepository.save(database);
         System.out.println("[startDatabase] Đã khởi động database thành công");
     }
 
-    /**
-     * Helper method để tạo Kubernetes client từ SSH session
-     * 
-     * @param session SSH session đến MASTER server
-     * @return ApiClient để tương tác với Kubernetes API
-     * @throws Exception Nếu có lỗi khi tạo client
-     */
-    private ApiClient createKubernetesClient(Session session) throws Exception {
-        String kubeconfigPath = "~/.kube/config";
-        System.out.println("[createKubernetesClient] Đang đọc kubeconfig từ: " + kubeconfigPath);
-        File tempKubeconfig = null;
-        try {
-            String kubeconfigContent = executeCommand(session, "cat " + kubeconfigPath);
-            if (kubeconfigContent == null || kubeconfigContent.trim().isEmpty()) {
-                throw new RuntimeException("Không thể đọc kubeconfig từ master server");
-            }
-
-            tempKubeconfig = File.createTempFile("kubeconfig-", ".yaml");
-            try (FileWriter writer = new FileWriter(tempKubeconfig)) {
-                writer.write(kubeconfigContent);
-            }
-            System.out.println("[createKubernetesClient] Đã tạo kubeconfig tạm tại: " + tempKubeconfig.getAbsolutePath());
-
-            ApiClient client = Config.fromConfig(tempKubeconfig.getAbsolutePath());
-            Configuration.setDefaultApiClient(client);
-            return client;
-        } finally {
-            if (tempKubeconfig != null && tempKubeconfig.exists()) {
-                boolean deleted = tempKubeconfig.delete();
-                if (!deleted) {
-                    tempKubeconfig.deleteOnExit();
-                }
-            }
-        }
-    }
-
     /**
      * Helper method để scale StatefulSet của database
      * 
@@ -919,41 +800,13 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
         // Tên StatefulSet là "db-" + uuid_k8s
         String statefulSetName = "db-" + database.getUuid_k8s();
 
-        ServerEntity masterServer = serverRepository.findByRole("MASTER")
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống."));
-
-        Session clusterSession = null;
         try {
-            JSch jsch = new JSch();
-            clusterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            clusterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            clusterSession.setConfig(config);
-            clusterSession.setTimeout(7000);
-            clusterSession.connect();
-            System.out.println("[scaleDatabaseStatefulSet] Đã kết nối tới MASTER server");
-
-            ApiClient client = createKubernetesClient(clusterSession);
-            AppsV1Api appsApi = new AppsV1Api(client);
-
-            // Đọc scale hiện tại của StatefulSet
-            V1Scale scale = appsApi.readNamespacedStatefulSetScale(statefulSetName, namespace, null);
-            if (scale.getSpec() == null) {
-                scale.setSpec(new V1ScaleSpec());
-            }
-            scale.getSpec().setReplicas(replicas);
-            
-            // Cập nhật scale
-            appsApi.replaceNamespacedStatefulSetScale(statefulSetName, namespace, scale, null, null, null, null);
+            // Một lệnh merge patch trên subresource scale qua ApiClient dùng chung
+            componentWorkloads.scale(namespace, OwnershipLabels.TYPE_DATABASE, database.getUuid_k8s(), replicas);
             System.out.println("[scaleDatabaseStatefulSet] Đã scale StatefulSet " + statefulSetName + " về " + replicas + " replica(s)");
         } catch (Exception e) {
             System.err.println("[scaleDatabaseStatefulSet] Lỗi: " + e.getMessage());
             throw new RuntimeException("Không thể scale database: " + e.getMessage(), e);
-        } finally {
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
-            }
         }
     }
 
@@ -1029,72 +882,49 @@ public class ProjectDatabaseServiceImpl implements ProjectDatabaseService {
         Session clusterSession = null;
         try {
             // Kết nối SSH tới MASTER server để có thể chạy lệnh kubectl
-            JSch jsch = new JSch();
-            clusterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            clusterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            clusterSession.setConfig(config);
-            clusterSession.setTimeout(7000);
-            clusterSession.connect();
+            clusterSession = sshSessionPool.acquire(masterServer);
             System.out.println("[deleteDatabaseResources] Đã kết nối MASTER server để xóa resources");
 
-            // Xóa StatefulSet
-            String deleteStatefulSetCmd = String.format("kubectl -n %s delete statefulset/%s || true", namespace, statefulSetName);
-            System.out.println("[deleteDatabaseResources] " + deleteStatefulSetCmd);
-            executeCommand(clusterSession, deleteStatefulSetCmd, true);
-
-            // Xóa Service
-            String deleteServiceCmd = String.format("kubectl -n %s delete svc/%s || true", namespace, serviceName);
-            System.out.println("[deleteDatabaseResources] " + deleteServiceCmd);
-            executeCommand(clusterSession, deleteServiceCmd, true);
+            // Gom các lệnh xoá thành một batch: một round trip thay vì một channel cho mỗi lệnh
+            RemoteCommandBatch batch = new RemoteCommandBatch()
+                    .add("statefulset", String.format("kubectl -n %s delete statefulset/%s || true", namespace, statefulSetName))
+                    .add("service", String.format("kubectl -n %s delete svc/%s || true", namespace, serviceName));
 
             // Xóa Secret (chỉ cho MySQL)
             if ("MYSQL".equalsIgnoreCase(databaseType)) {
-                String deleteSecretCmd = String.format("kubectl -n %s delete secret/%s || true", namespace, secretName);
-                System.out.println("[deleteDatabaseResources] " + deleteSecretCmd);
-                executeCommand(clusterSession, deleteSecretCmd, true);
+                batch.add("secret", String.format("kubectl -n %s delete secret/%s || true", namespace, secretName));
             }
 
             // Xóa PVC chứa dữ liệu
             if (pvcName != null) {
-                String deletePvcCmd = String.format("kubectl -n %s delete pvc/%s || true", namespace, pvcName);
-                System.out.println("[deleteDatabaseResources] " + deletePvcCmd);
-                executeCommand(clusterSession, deletePvcCmd, true);
+                batch.add("pvc", String.format("kubectl -n %s delete pvc/%s || true", namespace, pvcName));
             } else {
                 // Nếu không xác định được loại database, thử xóa cả 2 loại PVC
-                String deleteMySqlPvcCmd = String.format("kubectl -n %s delete pvc/mysql-data-%s-0 || true", namespace, statefulSetName);
-                System.out.println("[deleteDatabaseResources] " + deleteMySqlPvcCmd);
-                executeCommand(clusterSession, deleteMySqlPvcCmd, true);
-                
-                String deleteMongoPvcCmd = String.format("kubectl -n %s delete pvc/mongodb-data-%s-0 || true", namespace, statefulSetName);
-                System.out.println("[deleteDatabaseResources] " + deleteMongoPvcCmd);
-                executeCommand(clusterSession, deleteMongoPvcCmd, true);
+                batch.add("mysql-pvc", String.format("kubectl -n %s delete pvc/mysql-data-%s-0 || true", namespace, statefulSetName));
+                batch.add("mongodb-pvc", String.format("kubectl -n %s delete pvc/mongodb-data-%s-0 || true", namespace, statefulSetName));
             }
 
             // Xóa YAML file và thư mục chứa nó
+            // Manifest lưu cục bộ thì xoá tại chỗ, đường dẫn cũ trên MASTER thì xoá qua SSH
             String yamlPath = database.getYamlPath();
-            if (yamlPath != null && !yamlPath.trim().isEmpty()) {
+            if (yamlPath != null && !yamlPath.trim().isEmpty() && !manifestApplier.removeArchived(yamlPath)) {
                 String cleanedPath = yamlPath.trim();
-                String deleteYamlCmd = String.format("rm -f '%s'", escapeSingleQuotes(cleanedPath));
-                System.out.println("[deleteDatabaseResources] " + deleteYamlCmd);
-                executeCommand(clusterSession, deleteYamlCmd, true);
+                batch.add("yaml", String.format("rm -f '%s'", escapeSingleQuotes(cleanedPath)));
 
                 // Xóa thư mục chứa file YAML
                 java.io.File yamlFile = new java.io.File(cleanedPath);
                 String parentDir = yamlFile.getParent();
                 if (parentDir != null && !parentDir.trim().isEmpty()) {
-                    String deleteDirCmd = String.format("rm -rf '%s'", escapeSingleQuotes(parentDir.trim()));
-                    System.out.println("[deleteDatabaseResources] " + deleteDirCmd);
-                    executeCommand(clusterSession, deleteDirCmd, true);
+                    batch.add("dir", String.format("rm -rf '%s'", escapeSingleQuotes(parentDir.trim())));
                 }
             }
+            runDeleteBatch(clusterSession, batch, "deleteDatabaseResources");
         } catch (Exception e) {
             System.err.println("[deleteDatabaseResources] Lỗi: " + e.getMessage());
             throw new RuntimeException("Không thể xóa resources database: " + e.getMessage(), e);
         } finally {
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
+            if (clusterSession != null) {
+                sshSessionPool.release(clusterSession);
             }
         }
     }
@@ -11,34 +11,33 @@ import my_spring_app.my_spring_app.dto.reponse.ProjectSummaryResponse;
 import my_spring_app.my_spring_app.dto.reponse.ProjectDeploymentHistoryResponse;
 import my_spring_app.my_spring_app.dto.request.CreateProjectRequest;
 import com.jcraft.jsch.*;
-import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
-import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1Namespace;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
-import io.kubernetes.client.util.Config;
 import my_spring_app.my_spring_app.entity.ProjectBackendEntity;
 import my_spring_app.my_spring_app.entity.ProjectDatabaseEntity;
 import my_spring_app.my_spring_app.entity.ProjectEntity;
 import my_spring_app.my_spring_app.entity.ProjectFrontendEntity;
 import my_spring_app.my_spring_app.entity.ServerEntity;
 import my_spring_app.my_spring_app.entity.UserEntity;
+import my_spring_app.my_spring_app.k8s.ComponentStatusReconciler;
 import my_spring_app.my_spring_app.repository.ProjectRepository;
 import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.k8s.KubernetesClientProvider;
+import my_spring_app.my_spring_app.k8s.ManifestApplier;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
 import my_spring_app.my_spring_app.repository.UserRepository;
 import my_spring_app.my_spring_app.service.ProjectService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Properties;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -55,6 +54,19 @@ public class ProjectServiceImpl implements ProjectService {
     @Autowired
     private ServerRepository serverRepository;
 
+    @Autowired
+    private SshSessionPool sshSessionPool;
+
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    @Autowired
+    private KubernetesClientProvider kubernetesClientProvider;
+
+    // Manifest đã apply được lưu cục bộ, xoá cùng project
+    @Autowired
+    private ManifestApplier manifestApplier;
+
     @Override
     public CreateProjectResponse createProject(CreateProjectRequest request) {
         System.out.println("[createProject] Bắt đầu tạo project mới với tên: " + request.getProjectName());
@@ -310,8 +322,12 @@ public class ProjectServiceImpl implements ProjectService {
         response.setId(project.getId());
         response.setProjectName(project.getProjectName());
         response.setDescription(project.getDescription());
-        // Status mặc định - có thể tính toán dựa trên status của components
-        response.setStatus("RUNNING"); // TODO: Tính toán status thực tế
+        // Status của project gộp từ status các component (được ComponentStatusReconciler đồng bộ với cluster)
+        List<String> componentStatuses = new ArrayList<>();
+        databases.forEach(db -> componentStatuses.add(db.getStatus()));
+        backends.forEach(be -> componentStatuses.add(be.getStatus()));
+        frontends.forEach(fe -> componentStatuses.add(fe.getStatus()));
+        response.setStatus(aggregateStatus(componentStatuses));
         response.setCreatedAt(project.getCreatedAt());
         response.setUpdatedAt(project.getUpdatedAt() != null ? project.getUpdatedAt() : project.getCreatedAt());
         response.setUuid_k8s(project.getUuid_k8s());
@@ -623,6 +639,7 @@ public class ProjectServiceImpl implements ProjectService {
             try {
                 deleteProjectDirectory(projectOwnerUsername, uuidK8s);
                 System.out.println("[deleteProject] Đã xóa thư mục project trên server");
+                manifestApplier.removeProjectArchive(projectOwnerUsername, uuidK8s);
             } catch (Exception e) {
                 System.err.println("[deleteProject] Lỗi khi xóa thư mục project trên server: " + e.getMessage());
                 // Vẫn tiếp tục xóa project trong database ngay cả khi xóa thư mục thất bại
@@ -654,43 +671,9 @@ public class ProjectServiceImpl implements ProjectService {
             throw new RuntimeException("Không tìm thấy server MASTER. Vui lòng cấu hình server MASTER trong hệ thống.");
         }
 
-        ServerEntity masterServer = masterServerOptional.get();
-        Session clusterSession = null;
-        File tempKubeconfig = null;
-
         try {
-            // Kết nối SSH tới MASTER server
-            JSch jsch = new JSch();
-            clusterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            clusterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            clusterSession.setConfig(config);
-            clusterSession.setTimeout(7000);
-            clusterSession.connect();
-            System.out.println("[createProjectNamespace] Đã kết nối tới MASTER server");
-
-            // Đọc kubeconfig từ master server
-            String kubeconfigPath = "~/.kube/config";
-            System.out.println("[createProjectNamespace] Đang đọc kubeconfig từ: " + kubeconfigPath);
-            String kubeconfigContent = executeCommand(clusterSession, "cat " + kubeconfigPath, false);
-            
-            if (kubeconfigContent == null || kubeconfigContent.trim().isEmpty()) {
-                throw new RuntimeException("Không thể đọc kubeconfig từ master server");
-            }
-            
-            // Tạo file kubeconfig tạm thời trên local
-            tempKubeconfig = File.createTempFile("kubeconfig-", ".yaml");
-            tempKubeconfig.deleteOnExit();
-            try (FileWriter writer = new FileWriter(tempKubeconfig)) {
-                writer.write(kubeconfigContent);
-            }
-            System.out.println("[createProjectNamespace] Đã tạo file kubeconfig tạm thời: " + tempKubeconfig.getAbsolutePath());
-            
-            // Khởi tạo Kubernetes API client từ kubeconfig
-            ApiClient client = Config.fromConfig(tempKubeconfig.getAbsolutePath());
-            Configuration.setDefaultApiClient(client);
-            CoreV1Api api = new CoreV1Api();
+            // ApiClient dùng chung (kubeconfig đã parse sẵn, đi qua SSH tunnel tới MASTER)
+            CoreV1Api api = new CoreV1Api(kubernetesClientProvider.client());
             
             // Kiểm tra namespace đã tồn tại chưa
             try {
@@ -717,21 +700,6 @@ public class ProjectServiceImpl implements ProjectService {
         } catch (Exception e) {
             System.err.println("[createProjectNamespace] Lỗi khi tạo namespace: " + e.getMessage());
             throw new RuntimeException("Không thể tạo namespace trong Kubernetes: " + e.getMessage(), e);
-        } finally {
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
-            }
-            // Đảm bảo xóa file tạm thời sau khi sử dụng
-            if (tempKubeconfig != null && tempKubeconfig.exists()) {
-                try {
-                    boolean deleted = tempKubeconfig.delete();
-                    if (!deleted) {
-                        tempKubeconfig.deleteOnExit();
-                    }
-                } catch (Exception e) {
-                    System.err.println("[createProjectNamespace] Không thể xóa file kubeconfig tạm thời: " + e.getMessage());
-                }
-            }
         }
     }
 
@@ -759,14 +727,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         try {
             // Kết nối SSH tới MASTER server
-            JSch jsch = new JSch();
-            clusterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            clusterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            clusterSession.setConfig(config);
-            clusterSession.setTimeout(7000);
-            clusterSession.connect();
+            clusterSession = sshSessionPool.acquire(masterServer);
             System.out.println("[deleteProjectNamespace] Đã kết nối tới MASTER server");
 
             // Xóa namespace bằng kubectl
@@ -779,8 +740,8 @@ public class ProjectServiceImpl implements ProjectService {
             System.err.println("[deleteProjectNamespace] Lỗi khi xóa namespace: " + e.getMessage());
             throw new RuntimeException("Không thể xóa namespace trong Kubernetes: " + e.getMessage(), e);
         } finally {
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
+            if (clusterSession != null) {
+                sshSessionPool.release(clusterSession);
             }
         }
     }
@@ -815,14 +776,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         try {
             // Kết nối SSH tới MASTER server
-            JSch jsch = new JSch();
-            clusterSession = jsch.getSession(masterServer.getUsername(), masterServer.getIp(), masterServer.getPort());
-            clusterSession.setPassword(masterServer.getPassword());
-            Properties config = new Properties();
-            config.put("StrictHostKeyChecking", "no");
-            clusterSession.setConfig(config);
-            clusterSession.setTimeout(7000);
-            clusterSession.connect();
+            clusterSession = sshSessionPool.acquire(masterServer);
             System.out.println("[deleteProjectDirectory] Đã kết nối tới MASTER server");
 
             // Xác định đường dẫn thư mục project: /home/<master_username>/uploads/<username>/<uuid_k8s>
@@ -841,8 +795,8 @@ public class ProjectServiceImpl implements ProjectService {
             System.err.println("[deleteProjectDirectory] Lỗi khi xóa thư mục project: " + e.getMessage());
             throw new RuntimeException("Không thể xóa thư mục project trên server: " + e.getMessage(), e);
         } finally {
-            if (clusterSession != null && clusterSession.isConnected()) {
-                clusterSession.disconnect();
+            if (clusterSession != null) {
+                sshSessionPool.release(clusterSession);
             }
         }
     }
@@ -853,6 +807,28 @@ public class ProjectServiceImpl implements ProjectService {
      * @param input Chuỗi cần escape
      * @return Chuỗi đã escape
      */
+    /**
+     * Gộp status các component thành status của project:
+     * ERROR nếu có component lỗi, PENDING nếu có component đang build/khởi động,
+     * RUNNING nếu có component đang chạy (hoặc project chưa có component), còn lại STOPPED.
+     */
+    private static String aggregateStatus(List<String> statuses) {
+        if (statuses.isEmpty()) {
+            return ComponentStatusReconciler.STATUS_RUNNING;
+        }
+        if (statuses.stream().anyMatch(ComponentStatusReconciler.STATUS_ERROR::equalsIgnoreCase)) {
+            return ComponentStatusReconciler.STATUS_ERROR;
+        }
+        if (statuses.stream().anyMatch(status -> ComponentStatusReconciler.STATUS_PENDING.equalsIgnoreCase(status)
+                || "BUILDING".equalsIgnoreCase(status))) {
+            return ComponentStatusReconciler.STATUS_PENDING;
+        }
+        if (statuses.stream().anyMatch(ComponentStatusReconciler.STATUS_RUNNING::equalsIgnoreCase)) {
+            return ComponentStatusReconciler.STATUS_RUNNING;
+        }
+        return ComponentStatusReconciler.STATUS_STOPPED;
+    }
+
     private String escapeSingleQuotes(String input) {
         return input.replace("'", "'\"'\"'");
     }
@@ -867,61 +843,26 @@ public class ProjectServiceImpl implements ProjectService {
      * @throws Exception Nếu có lỗi khi thực thi lệnh và ignoreNonZeroExit = false
      */
     private String executeCommand(Session session, String command, boolean ignoreNonZeroExit) throws Exception {
-        ChannelExec channelExec = null;
-
-        try {
-            Channel channel = session.openChannel("exec");
-            channelExec = (ChannelExec) channel;
-            channelExec.setCommand(command);
-            channelExec.setErrStream(System.err);
-
-            InputStream inputStream = channelExec.getInputStream();
-            channelExec.connect();
-
-            StringBuilder output = new StringBuilder();
-            byte[] buffer = new byte[1024];
-
-            while (true) {
-                while (inputStream.available() > 0) {
-                    int bytesRead = inputStream.read(buffer, 0, 1024);
-                    if (bytesRead < 0) {
-                        break;
-                    }
-                    output.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
-                }
-
-                if (channelExec.isClosed()) {
-                    if (inputStream.available() > 0) {
-                        continue;
-                    }
-                    break;
-                }
-
-                try {
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    // Bỏ qua lỗi sleep
-                }
-            }
-
-            int exitStatus = channelExec.getExitStatus();
-            String result = output.toString().trim();
-
-            if (exitStatus != 0) {
-                if (ignoreNonZeroExit) {
-                    System.err.println("[executeCommand] Command exited with status: " + exitStatus + ". Output: " + result + ". Command: " + command);
-                } else {
-                    throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
-                }
-            }
-
-            return result;
-
-        } finally {
-            if (channelExec != null && channelExec.isConnected()) {
-                channelExec.disconnect();
+        // Thực thi qua engine dùng chung: chờ sự kiện đóng channel thay vì sleep-polling
+        CommandResult commandResult = remoteCommandExecutor.execute(session, command, 0);
+        // Giữ hành vi cũ: stderr của lệnh được in ra console để dễ debug
+        if (!commandResult.stderr().isEmpty()) {
+            System.err.print(commandResult.stderr());
+        }
+
+        // Lấy exit status của lệnh (0 = thành công, != 0 = lỗi)
+        int exitStatus = commandResult.exitStatus();
+        String result = commandResult.stdout().trim();
+
+        if (exitStatus != 0) {
+            if (ignoreNonZeroExit) {
+                System.err.println("[executeCommand] Command exited with status: " + exitStatus + ". Output: " + result + ". Command: " + command);
+            } else {
+                throw new RuntimeException("Command exited with status: " + exitStatus + ". Output: " + result);
             }
         }
+
+        return result;
     }
 
     @Override
@@ -1,7 +1,5 @@
 package my_spring_app.my_spring_app.service.impl;
 
-import com.jcraft.jsch.Channel;
-import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.Session;
 import my_spring_app.my_spring_app.dto.reponse.CheckConnectionResponse;
@@ -9,10 +7,11 @@ import my_spring_app.my_spring_app.dto.reponse.ExecuteCommandResponse;
 import my_spring_app.my_spring_app.dto.request.CheckConnectionRequest;
 import my_spring_app.my_spring_app.dto.request.ExecuteCommandRequest;
 import my_spring_app.my_spring_app.service.SSHService;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.Properties;
 
 /**
@@ -25,6 +24,10 @@ public class SSHServiceImpl implements SSHService {
     // Thời gian chờ kết nối SSH (5 giây)
     private static final int CONNECTION_TIMEOUT = 5000;
 
+    // Engine thực thi lệnh remote dùng chung
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
     /**
      * Kiểm tra kết nối SSH đến server
      * @param request Thông tin request để kiểm tra kết nối (host, port, username, password)
@@ -97,7 +100,6 @@ public class SSHServiceImpl implements SSHService {
         response.setCommand(request.getCommand());
 
         Session session = null;
-        Channel channel = null;
         try {
             // Tạo JSch instance để quản lý SSH connections
             System.out.println("[executeCommand] Tạo JSch instance");
@@ -123,74 +125,29 @@ public class SSHServiceImpl implements SSHService {
             session.connect();
             System.out.println("[executeCommand] Kết nối thành công đến server");
 
-            // Mở kênh exec để thực thi lệnh
-            System.out.println("[executeCommand] Mở kênh exec");
-            channel = session.openChannel("exec");
-            ChannelExec channelExec = (ChannelExec) channel;
-
-            // Thiết lập câu lệnh cần thực thi
-            System.out.println("[executeCommand] Thiết lập lệnh: " + request.getCommand());
-            channelExec.setCommand(request.getCommand());
-
-            // Chuyển hướng error stream sang output stream để dễ debug
-            channelExec.setErrStream(System.err);
-
-            // Lấy input stream để đọc output từ lệnh
-            InputStream inputStream = channelExec.getInputStream();
-
-            // Kết nối channel để bắt đầu thực thi lệnh
-            System.out.println("[executeCommand] Kết nối channel và bắt đầu thực thi lệnh");
-            channel.connect();
-
-            // Đọc output từ lệnh
-            System.out.println("[executeCommand] Đang đọc output từ lệnh...");
-            StringBuilder output = new StringBuilder();
-            byte[] buffer = new byte[1024]; // Buffer để đọc dữ liệu
-
-            // Vòng lặp để đọc output từ lệnh cho đến khi lệnh thực thi xong
-            while (true) {
-                // Đọc tất cả dữ liệu có sẵn trong input stream
-                while (inputStream.available() > 0) {
-                    int bytesRead = inputStream.read(buffer, 0, 1024);
-                    if (bytesRead < 0) {
-                        break;
-                    }
-                    output.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
-                }
-
-                // Kiểm tra xem channel đã đóng chưa (lệnh đã thực thi xong)
-                if (channel.isClosed()) {
-                    // Nếu vẫn còn dữ liệu trong stream, tiếp tục đọc
-                    if (inputStream.available() > 0) {
-                        continue;
-                    }
-                    // Lấy exit status của lệnh (0 = thành công, != 0 = lỗi)
-                    int exitStatus = channel.getExitStatus();
-                    response.setExitStatus(exitStatus);
-                    System.out.println("[executeCommand] Lệnh đã thực thi xong với exit status: " + exitStatus);
-                    break;
-                }
-
-                // Nghỉ 100ms trước khi kiểm tra lại để tránh chiếm CPU
-                try {
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    // Bỏ qua lỗi sleep
-                }
+            // Thực thi lệnh qua engine dùng chung (chờ sự kiện đóng channel, không sleep-polling)
+            System.out.println("[executeCommand] Thực thi lệnh: " + request.getCommand());
+            CommandResult result = remoteCommandExecutor.execute(session, request.getCommand(), 0);
+            // Giữ hành vi cũ: stderr của lệnh in ra console để dễ debug
+            if (!result.stderr().isEmpty()) {
+                System.err.print(result.stderr());
             }
+            String output = result.stdout();
+            response.setExitStatus(result.exitStatus());
+            System.out.println("[executeCommand] Lệnh đã thực thi xong với exit status: " + result.exitStatus());
 
             // Kiểm tra exit status để xác định lệnh thực thi thành công hay thất bại
-            int exitStatus = channel.getExitStatus();
+            int exitStatus = result.exitStatus();
             if (exitStatus == 0) {
                 System.out.println("[executeCommand] Lệnh thực thi thành công");
                 response.setSuccess(true);
-                response.setOutput(output.toString().trim());
+                response.setOutput(output.trim());
                 response.setError(null);
             } else {
                 System.err.println("[executeCommand] Lệnh thực thi thất bại với exit status: " + exitStatus);
-                System.err.println("[executeCommand] Output: " + output.toString().trim());
+                System.err.println("[executeCommand] Output: " + output.trim());
                 response.setSuccess(false);
-                response.setOutput(output.toString().trim());
+                response.setOutput(output.trim());
                 response.setError("Command exited with status: " + exitStatus);
             }
 
@@ -204,11 +161,7 @@ public class SSHServiceImpl implements SSHService {
             response.setExitStatus(-1);
             return response;
         } finally {
-            // Đảm bảo đóng channel và session sau khi thực thi xong để giải phóng tài nguyên
-            if (channel != null && channel.isConnected()) {
-                System.out.println("[executeCommand] Đóng channel");
-                channel.disconnect();
-            }
+            // Đảm bảo đóng session sau khi thực thi xong để giải phóng tài nguyên (channel đã được engine đóng)
             if (session != null && session.isConnected()) {
                 System.out.println("[executeCommand] Đóng SSH session");
                 session.disconnect();
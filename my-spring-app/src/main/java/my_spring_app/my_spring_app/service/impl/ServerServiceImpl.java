@@ -1,7 +1,7 @@
 package my_spring_app.my_spring_app.service.impl;
 
-import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.KeyPair;
 import com.jcraft.jsch.Session;
 import my_spring_app.my_spring_app.dto.reponse.CreateServerResponse;
@@ -13,30 +13,35 @@ import my_spring_app.my_spring_app.dto.request.UpdateServerRequest;
 import my_spring_app.my_spring_app.dto.request.TestSshRequest;
 import my_spring_app.my_spring_app.entity.ServerEntity;
 import my_spring_app.my_spring_app.entity.SshKeyEntity;
+import my_spring_app.my_spring_app.k8s.KubernetesClientProvider;
 import my_spring_app.my_spring_app.repository.ServerRepository;
 import my_spring_app.my_spring_app.repository.SshKeyRepository;
 import my_spring_app.my_spring_app.service.ServerService;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.FleetExecutor;
+import my_spring_app.my_spring_app.ssh.ReachabilityProber;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.RemoteCommandFuture;
+import my_spring_app.my_spring_app.ssh.ServerConnection;
+import my_spring_app.my_spring_app.ssh.ServerConnectionRegistry;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.Properties;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
 /**
@@ -54,6 +59,30 @@ public class ServerServiceImpl implements ServerService {
     @Autowired
     private SshKeyRepository sshKeyRepository;
 
+    // Pool SSH session dùng chung, cần bỏ session cũ khi thông tin kết nối thay đổi
+    @Autowired
+    private SshSessionPool sshSessionPool;
+
+    // Engine thuc thi lenh remote dung chung (cho su kien dong channel, khong sleep-polling)
+    @Autowired
+    private RemoteCommandExecutor remoteCommandExecutor;
+
+    // Cache thong tin ket noi + SSH key da parse, tranh findById va parse PEM cho moi lenh
+    @Autowired
+    private ServerConnectionRegistry serverConnectionRegistry;
+
+    // Fan-out dung chung cho cac thao tac tren nhieu server (gioi han theo host + deadline)
+    @Autowired
+    private FleetExecutor fleetExecutor;
+
+    // Probe TCP khong chan cho ca fleet (NIO Selector), ghi nhan RTT ket noi
+    @Autowired
+    private ReachabilityProber reachabilityProber;
+
+    // ApiClient Kubernetes dung chung qua tunnel toi MASTER, can dung lai khi MASTER thay doi
+    @Autowired
+    private KubernetesClientProvider kubernetesClientProvider;
+
     /**
      * Lấy tất cả server từ database
      * @return Danh sách tất cả server dưới dạng ServerResponse
@@ -277,6 +306,8 @@ public class ServerServiceImpl implements ServerService {
         // Tìm server trong database
         ServerEntity server = serverRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Khong tim thay server voi ID: " + id));
+        String previousRole = server.getRole();
+        ServerEntity.ServerStatus previousStatus = server.getStatus();
         
         // Kiểm tra xem có thay đổi thông tin kết nối không
         boolean connectionFieldChanged = request.getIp() != null || request.getPort() != null || request.getUsername() != null;
@@ -396,6 +427,16 @@ public class ServerServiceImpl implements ServerService {
         System.out.println("[updateServer] Luu thay doi vao database");
         ServerEntity updatedServer = serverRepository.save(server);
         System.out.println("[updateServer] Da cap nhat server thanh cong voi ID: " + updatedServer.getId());
+        // Bo cac SSH session dang giu trong pool (co the dung thong tin dang nhap cu)
+        sshSessionPool.invalidate(updatedServer.getId());
+        serverConnectionRegistry.invalidate(updatedServer.getId());
+        // Tunnel Kubernetes di qua MASTER: dung lai sau commit khi thong tin ket noi, status hoac role doi
+        boolean roleChanged = !Objects.equals(previousRole, updatedServer.getRole());
+        if (roleChanged && ("MASTER".equals(previousRole) || "MASTER".equals(updatedServer.getRole()))) {
+            kubernetesClientProvider.invalidate();
+        } else if (connectionFieldChanged || suppliedNewPassword || previousStatus != updatedServer.getStatus()) {
+            kubernetesClientProvider.invalidate(updatedServer.getId());
+        }
         
         return convertToResponse(updatedServer);
     }
@@ -448,6 +489,9 @@ public class ServerServiceImpl implements ServerService {
         // 3) Xóa server
         serverRepository.delete(server);
         System.out.println("[deleteServer] Da xoa server thanh cong voi ID: " + id);
+        sshSessionPool.invalidate(id);
+        serverConnectionRegistry.invalidate(id);
+        kubernetesClientProvider.invalidate(id);
     }
 
     /**
@@ -558,24 +602,8 @@ public class ServerServiceImpl implements ServerService {
             String escaped = publicKey.replace("'", "'\"'\"'");
             String cmd = "sh -lc \"mkdir -p ~/.ssh && chmod 700 ~/.ssh && touch ~/.ssh/authorized_keys && chmod 600 ~/.ssh/authorized_keys && printf '%s\\n' '"
                     + escaped + "' >> ~/.ssh/authorized_keys\"";
-            ChannelExec ch = null;
-            try {
-                ch = (ChannelExec) session.openChannel("exec");
-                ch.setCommand(cmd);
-                ch.connect(5000);
-                while (!ch.isClosed()) {
-                    try {
-                        Thread.sleep(50);
-                    } catch (InterruptedException ignored) {
-                    }
-                }
-                System.out.println("[generateAndInstallSshKey] Da cai public key thanh cong");
-            } finally {
-                // Dam bao channel luon duoc dong
-                if (ch != null && ch.isConnected()) {
-                    ch.disconnect();
-                }
-            }
+            remoteCommandExecutor.execute(session, cmd, 0);
+            System.out.println("[generateAndInstallSshKey] Da cai public key thanh cong");
 
             // 3) Cau hinh sudo NOPASSWD cho user
             System.out.println("[generateAndInstallSshKey] Cau hinh sudo NOPASSWD...");
@@ -653,28 +681,8 @@ public class ServerServiceImpl implements ServerService {
      * Đảm bảo channel luôn được đóng sau khi thực thi xong
      */
     private String execSimple(Session session, String cmd, int timeoutMs) throws Exception {
-        ChannelExec ch = null;
-        try {
-            ch = (ChannelExec) session.openChannel("exec");
-            ch.setCommand(cmd);
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            ch.setOutputStream(out);
-            ch.connect(timeoutMs);
-            while (!ch.isClosed()) {
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-            return out.toString(StandardCharsets.UTF_8);
-        } finally {
-            // Đảm bảo channel luôn được đóng
-            if (ch != null && ch.isConnected()) {
-                ch.disconnect();
-            }
-        }
+        // Channel luôn được đóng bên trong RemoteCommandExecutor
+        return remoteCommandExecutor.execute(session, cmd, timeoutMs).stdout();
     }
     
     /**
@@ -699,7 +707,6 @@ public class ServerServiceImpl implements ServerService {
                 "echo \"DISK_USED_KB:$(df / 2>/dev/null | awk 'NR==2{print $3}' || echo '0')\"";
         
         Session session = null;
-        ChannelExec channel = null;
         
         try {
             JSch jsch = new JSch();
@@ -727,97 +734,14 @@ public class ServerServiceImpl implements ServerService {
                 throw new RuntimeException("Session khong the ket noi");
             }
             
-            // Thuc thi lenh
-            channel = (ChannelExec) session.openChannel("exec");
-            if (channel == null) {
-                throw new RuntimeException("Khong the mo channel exec");
+            // Thuc thi lenh: engine tra ve ngay khi channel dong (khong con sleep 100ms/200ms)
+            CommandResult result = remoteCommandExecutor.execute(session, metricsCommand, 15000);
+            if (result.timedOut()) {
+                System.err.println("[getServerMetrics] Timeout khi doc output tu server: " + ip);
             }
-            channel.setCommand(metricsCommand);
-            
-            // Đọc cả stdout và stderr
-            InputStream in = channel.getInputStream();
-            InputStream err = channel.getErrStream();
-            channel.connect(10000); // Tang timeout len 10s
             
-            // Kiem tra channel da ket noi chua
-            int retryCount = 0;
-            while (!channel.isConnected() && retryCount < 20) {
-                try {
-                    Thread.sleep(100);
-                    retryCount++;
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Channel connect bi interrupt");
-                }
-            }
-            
-            if (!channel.isConnected()) {
-                throw new RuntimeException("Channel khong the ket noi sau " + (retryCount * 100) + "ms");
-            }
-            
-            // Doc output (cả stdout và stderr)
-            ByteArrayOutputStream outBuf = new ByteArrayOutputStream();
-            ByteArrayOutputStream errBuf = new ByteArrayOutputStream();
-            byte[] buffer = new byte[4096];
-            long deadline = System.currentTimeMillis() + 15000; // Tang timeout len 15s
-            
-            // Đợi channel đóng hoàn toàn và đọc hết output
-            while (true) {
-                boolean hasData = false;
-                
-                // Đọc stdout
-                while (in.available() > 0) {
-                    int read = in.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    outBuf.write(buffer, 0, read);
-                    hasData = true;
-                }
-                
-                // Đọc stderr để debug
-                while (err.available() > 0) {
-                    int read = err.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    errBuf.write(buffer, 0, read);
-                    hasData = true;
-                }
-                
-                // Nếu channel đã đóng và không còn data, thoát
-                if (channel.isClosed() && !hasData) {
-                    // Đợi thêm một chút để đảm bảo đọc hết output
-                    try {
-                        Thread.sleep(200);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                    // Đọc lần cuối
-                    while (in.available() > 0) {
-                        int read = in.read(buffer, 0, buffer.length);
-                        if (read < 0) break;
-                        outBuf.write(buffer, 0, read);
-                    }
-                    while (err.available() > 0) {
-                        int read = err.read(buffer, 0, buffer.length);
-                        if (read < 0) break;
-                        errBuf.write(buffer, 0, read);
-                    }
-                    break;
-                }
-                
-                if (System.currentTimeMillis() > deadline) {
-                    System.err.println("[getServerMetrics] Timeout khi doc output tu server: " + ip);
-                    break;
-                }
-                
-                try {
-                    Thread.sleep(100); // Tăng sleep time để đợi output
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-            
-            String output = outBuf.toString(StandardCharsets.UTF_8).trim();
-            String errorOutput = errBuf.toString(StandardCharsets.UTF_8).trim();
+            String output = result.stdout().trim();
+            String errorOutput = result.stderr().trim();
             
             System.out.println("[getServerMetrics] Output (stdout): " + output);
             if (!errorOutput.isEmpty()) {
@@ -825,7 +749,7 @@ public class ServerServiceImpl implements ServerService {
             }
             
             // Kiểm tra exit status
-            int exitStatus = channel.getExitStatus();
+            int exitStatus = result.exitStatus();
             if (exitStatus != 0 && exitStatus != -1) { // -1 có nghĩa là chưa có exit status
                 System.err.println("[getServerMetrics] Command exit status: " + exitStatus + " cho server: " + ip);
             }
@@ -840,17 +764,7 @@ public class ServerServiceImpl implements ServerService {
             }
             return null;
         } finally {
-            // Dong channel truoc
-            if (channel != null) {
-                try {
-                    if (channel.isConnected()) {
-                        channel.disconnect();
-                    }
-                } catch (Exception e) {
-                    System.err.println("[getServerMetrics] Loi khi dong channel: " + e.getMessage());
-                }
-            }
-            // Dong session sau
+            // Dong session
             if (session != null) {
                 try {
                     if (session.isConnected()) {
@@ -1034,48 +948,21 @@ public class ServerServiceImpl implements ServerService {
     private List<ServerResponse> checkAllStatusesInternal(int timeoutMs) {
         System.out.println("[checkAllStatuses] Bat dau kiem tra status cho tat ca servers (timeout: " + timeoutMs + "ms)");
         List<ServerEntity> servers = serverRepository.findAll();
-        final int POOL_SIZE = Math.min(servers.size(), 16);
-        
-        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
         long start = System.currentTimeMillis();
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
-        
-        for (ServerEntity s : servers) {
-            futures.add(CompletableFuture.runAsync(() -> {
-                // DISABLED servers: chỉ check status (ping) nhưng giữ nguyên DISABLED
-                if (s.getStatus() == ServerEntity.ServerStatus.DISABLED) {
-                    // Vẫn ping để check nhưng không thay đổi status
-                    try (Socket socket = new Socket()) {
-                        InetSocketAddress addr = new InetSocketAddress(s.getIp(), s.getPort() != null ? s.getPort() : 22);
-                        socket.connect(addr, timeoutMs);
-                        // Giữ nguyên DISABLED, không đổi thành ONLINE
-                    } catch (Exception ignored) {
-                        // Giữ nguyên DISABLED, không đổi thành OFFLINE
-                    }
-                    return; // Skip update status
-                }
-                
-                // ONLINE/OFFLINE servers: ping và cập nhật status
-                boolean online = false;
-                try (Socket socket = new Socket()) {
-                    InetSocketAddress addr = new InetSocketAddress(s.getIp(), s.getPort() != null ? s.getPort() : 22);
-                    socket.connect(addr, timeoutMs);
-                    online = true;
-                } catch (Exception ignored) {
-                } finally {
-                    s.setStatus(online ? ServerEntity.ServerStatus.ONLINE : ServerEntity.ServerStatus.OFFLINE);
-                }
-            }, executor));
-        }
         
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        executor.shutdown();
-        try {
-            executor.awaitTermination(2, TimeUnit.SECONDS);
-        } catch (InterruptedException ignored) {
+        // Probe NIO không chặn tới cổng SSH của tất cả servers trên một thread: cả fleet xong trong ~1 timeout
+        List<ReachabilityProber.ProbeResult> probes =
+                reachabilityProber.probeAll(servers, this::sshAddress, timeoutMs);
+        for (int i = 0; i < servers.size(); i++) {
+            ServerEntity s = servers.get(i);
+            // DISABLED servers: vẫn probe (ghi nhận RTT) nhưng giữ nguyên DISABLED
+            if (s.getStatus() != ServerEntity.ServerStatus.DISABLED) {
+                s.setStatus(probes.get(i).reachable() ? ServerEntity.ServerStatus.ONLINE : ServerEntity.ServerStatus.OFFLINE);
+            }
         }
         
         serverRepository.saveAll(servers);
+        serverConnectionRegistry.invalidateAll();
         
         long elapsed = System.currentTimeMillis() - start;
         System.out.println("[checkAllStatuses] Da kiem tra va cap nhat status cho " + servers.size() + " servers trong " + elapsed + " ms");
@@ -1098,7 +985,6 @@ public class ServerServiceImpl implements ServerService {
         System.out.println("[checkAllServers] Bat dau lam moi status va metrics cho tat ca servers (timeout: " + timeoutMs + "ms)");
         // Su dung findAllWithSshKeys de eager load SSH keys
         List<ServerEntity> servers = serverRepository.findAllWithSshKeys();
-        final int POOL_SIZE = Math.min(servers.size(), 16);
         
         // Load SSH keys trước khi các thread chạy (trong transaction)
         Map<Long, String> sshKeyMap = loadSshKeysForServers(servers);
@@ -1106,11 +992,18 @@ public class ServerServiceImpl implements ServerService {
         // Map để lưu kết quả update từ các thread
         Map<Long, ServerUpdateInfo> updateMap = new ConcurrentHashMap<>();
         
-        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
         long start = System.currentTimeMillis();
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
         
-        for (ServerEntity s : servers) {
+        // Bước 1: probe NIO tới tất cả servers cùng lúc, chỉ server kết nối được mới phải lấy metrics qua SSH
+        List<ReachabilityProber.ProbeResult> probes =
+                reachabilityProber.probeAll(servers, this::sshAddress, timeoutMs);
+        Map<Long, Boolean> reachableById = new HashMap<>();
+        for (int i = 0; i < servers.size(); i++) {
+            reachableById.put(servers.get(i).getId(), probes.get(i).reachable());
+        }
+        
+        // Bước 2: kết nối SSH (tối đa 7s) + lệnh metrics (15s): deadline chung cho cả lượt lấy metrics
+        fleetExecutor.fanOut("checkAllServers", servers, ServerEntity::getIp, 30000L, s -> {
             final Long serverId = s.getId();
             final String ip = s.getIp();
             final Integer port = s.getPort();
@@ -1119,73 +1012,50 @@ public class ServerServiceImpl implements ServerService {
             final ServerEntity.ServerStatus currentStatus = s.getStatus();
             final String privateKeyPem = sshKeyMap.get(serverId); // Lấy SSH key đã load sẵn
             
-            futures.add(CompletableFuture.runAsync(() -> {
-                // DISABLED servers: chỉ check status (ping) nhưng giữ nguyên DISABLED
-                if (currentStatus == ServerEntity.ServerStatus.DISABLED) {
-                    // Vẫn ping để check nhưng không thay đổi status
-                    try (Socket socket = new Socket()) {
-                        InetSocketAddress addr = new InetSocketAddress(ip, port != null ? port : 22);
-                        socket.connect(addr, timeoutMs);
-                        // Giữ nguyên DISABLED, không đổi thành ONLINE
-                    } catch (Exception ignored) {
-                        // Giữ nguyên DISABLED, không đổi thành OFFLINE
+            // DISABLED servers: đã probe ở bước 1 nhưng giữ nguyên DISABLED, không cần update gì
+            if (currentStatus == ServerEntity.ServerStatus.DISABLED) {
+                return null;
+            }
+            
+            // ONLINE/OFFLINE servers: cập nhật status theo kết quả probe
+            boolean online = reachableById.getOrDefault(serverId, false);
+            
+            ServerUpdateInfo updateInfo = new ServerUpdateInfo();
+            updateInfo.status = online ? ServerEntity.ServerStatus.ONLINE : ServerEntity.ServerStatus.OFFLINE;
+            
+            // Nếu online, lấy và cập nhật metrics
+            if (online) {
+                try {
+                    // Lấy metrics từ server (sử dụng SSH key đã load sẵn)
+                    Map<String, String> metrics = getServerMetrics(
+                        ip,
+                        port,
+                        username,
+                        privateKeyPem,
+                        password
+                    );
+                    
+                    // Lưu metrics vào updateInfo (chỉ total, không lưu used)
+                    if (metrics != null) {
+                        updateInfo.cpuCores = metrics.get("cpuCores");
+                        updateInfo.ramTotal = metrics.get("ramTotal");
+                        updateInfo.diskTotal = metrics.get("diskTotal");
+                        System.out.println("[checkAllServers] Da lay metrics thanh cong cho server ID " + serverId + " (" + ip + ")");
+                    } else {
+                        // Bao loi khi khong lay duoc metrics
+                        System.err.println("[checkAllServers] KHONG THE LAY METRICS cho server ID " + serverId + " (" + ip + ":" + port + ") - Server online nhung khong the ket noi SSH hoac timeout");
                     }
-                    // Không cần update gì
-                    return;
-                }
-                
-                // ONLINE/OFFLINE servers: ping và cập nhật status
-                boolean online = false;
-                try (Socket socket = new Socket()) {
-                    InetSocketAddress addr = new InetSocketAddress(ip, port != null ? port : 22);
-                    socket.connect(addr, timeoutMs);
-                    online = true;
-                } catch (Exception ignored) {
-                }
-                
-                ServerUpdateInfo updateInfo = new ServerUpdateInfo();
-                updateInfo.status = online ? ServerEntity.ServerStatus.ONLINE : ServerEntity.ServerStatus.OFFLINE;
-                
-                // Nếu online, lấy và cập nhật metrics
-                if (online) {
-                    try {
-                        // Lấy metrics từ server (sử dụng SSH key đã load sẵn)
-                        Map<String, String> metrics = getServerMetrics(
-                            ip,
-                            port,
-                            username,
-                            privateKeyPem,
-                            password
-                        );
-                        
-                        // Lưu metrics vào updateInfo (chỉ total, không lưu used)
-                        if (metrics != null) {
-                            updateInfo.cpuCores = metrics.get("cpuCores");
-                            updateInfo.ramTotal = metrics.get("ramTotal");
-                            updateInfo.diskTotal = metrics.get("diskTotal");
-                            System.out.println("[checkAllServers] Da lay metrics thanh cong cho server ID " + serverId + " (" + ip + ")");
-                        } else {
-                            // Bao loi khi khong lay duoc metrics
-                            System.err.println("[checkAllServers] KHONG THE LAY METRICS cho server ID " + serverId + " (" + ip + ":" + port + ") - Server online nhung khong the ket noi SSH hoac timeout");
-                        }
-                    } catch (Exception e) {
-                        System.err.println("[checkAllServers] LOI KHI LAY METRICS cho server ID " + serverId + " (" + ip + ":" + port + "): " + e.getMessage());
-                        if (e.getCause() != null) {
-                            System.err.println("[checkAllServers] Nguyen nhan: " + e.getCause().getMessage());
-                        }
+                } catch (Exception e) {
+                    System.err.println("[checkAllServers] LOI KHI LAY METRICS cho server ID " + serverId + " (" + ip + ":" + port + "): " + e.getMessage());
+                    if (e.getCause() != null) {
+                        System.err.println("[checkAllServers] Nguyen nhan: " + e.getCause().getMessage());
                     }
                 }
-                
-                updateMap.put(serverId, updateInfo);
-            }, executor));
-        }
-        
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        executor.shutdown();
-        try {
-            executor.awaitTermination(2, TimeUnit.SECONDS);
-        } catch (InterruptedException ignored) {
-        }
+            }
+            
+            updateMap.put(serverId, updateInfo);
+            return null;
+        });
         
         // Dem so server co metrics va khong co metrics
         int serversWithMetrics = 0;
@@ -1296,6 +1166,7 @@ public class ServerServiceImpl implements ServerService {
             
             // Lưu vào database
             serverRepository.save(server);
+            serverConnectionRegistry.invalidate(serverId);
             if (metricsUpdated) {
                 System.out.println("[updateServersInTransaction] Da luu metrics vao database cho server ID " + serverId + 
                                   " (CPU: " + updateInfo.cpuCores + 
@@ -1322,6 +1193,7 @@ public class ServerServiceImpl implements ServerService {
         
         server.setStatus(status);
         ServerEntity updatedServer = serverRepository.save(server);
+        serverConnectionRegistry.invalidate(id);
         
         System.out.println("[updateServerStatus] Da cap nhat status thanh cong");
         return convertToResponse(updatedServer);
@@ -1365,55 +1237,16 @@ public class ServerServiceImpl implements ServerService {
     /**
      * Helper: Thực thi command qua SSH key
      */
-    private String execCommandWithKey(String ip, Integer port, String username, String privateKeyPem, String command, int timeoutMs) {
+    private String execCommandWithKey(ServerConnection connection, String command, int timeoutMs) {
         Session session = null;
-        ChannelExec channel = null;
         try {
-            JSch jsch = new JSch();
-            byte[] prv = privateKeyPem.getBytes(StandardCharsets.UTF_8);
-            jsch.addIdentity("inmem-key", prv, null, null);
-            session = jsch.getSession(username, ip, port);
-            session.setConfig("StrictHostKeyChecking", "no");
-            session.setTimeout(timeoutMs);
-            session.connect(timeoutMs);
-            
-            channel = (ChannelExec) session.openChannel("exec");
-            channel.setCommand(command);
-            
-            InputStream in = channel.getInputStream();
-            InputStream err = channel.getErrStream();
-            channel.connect(timeoutMs);
+            // SSH key da duoc parse san trong ServerConnectionRegistry
+            session = connection.openWithIdentity(timeoutMs);
             
-            ByteArrayOutputStream outBuf = new ByteArrayOutputStream();
-            ByteArrayOutputStream errBuf = new ByteArrayOutputStream();
-            byte[] buffer = new byte[4096];
-            long deadline = System.currentTimeMillis() + timeoutMs;
-            
-            while (true) {
-                // Read stdout
-                while (in.available() > 0) {
-                    int read = in.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    outBuf.write(buffer, 0, read);
-                }
-                // Read stderr
-                while (err.available() > 0) {
-                    int read = err.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    errBuf.write(buffer, 0, read);
-                }
-                if (channel.isClosed()) break;
-                if (System.currentTimeMillis() > deadline) break;
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            CommandResult result = remoteCommandExecutor.execute(session, command, timeoutMs);
             
             // Log stderr if present
-            String errOutput = errBuf.toString(StandardCharsets.UTF_8).trim();
+            String errOutput = result.stderr().trim();
             if (!errOutput.isEmpty()) {
                 System.out.println("[execCommandWithKey] Stderr output length: " + errOutput.length() + " characters");
                 if (errOutput.length() > 1000) {
@@ -1425,8 +1258,8 @@ public class ServerServiceImpl implements ServerService {
             }
             
             // Log exit status
-            if (channel.isClosed()) {
-                int exitStatus = channel.getExitStatus();
+            if (!result.timedOut()) {
+                int exitStatus = result.exitStatus();
                 if (exitStatus == 0) {
                     System.out.println("[execCommandWithKey] Exit status: 0 (success)");
                 } else {
@@ -1434,15 +1267,12 @@ public class ServerServiceImpl implements ServerService {
                 }
             }
             
-            return outBuf.toString(StandardCharsets.UTF_8).trim();
+            return result.stdout().trim();
         } catch (Exception e) {
             System.err.println("[execCommandWithKey] Loi: " + e.getMessage());
             e.printStackTrace();
             return null;
         } finally {
-            if (channel != null && channel.isConnected()) {
-                channel.disconnect();
-            }
             if (session != null && session.isConnected()) {
                 session.disconnect();
             }
@@ -1452,63 +1282,20 @@ public class ServerServiceImpl implements ServerService {
     /**
      * Helper: Thực thi command qua SSH key với streaming output
      */
-    private String execCommandWithKey(String ip, Integer port, String username, String privateKeyPem, String command, int timeoutMs, Consumer<String> outputHandler) {
+    private String execCommandWithKey(ServerConnection connection, String command, int timeoutMs, Consumer<String> outputHandler) {
         Session session = null;
-        ChannelExec channel = null;
         try {
-            JSch jsch = new JSch();
-            byte[] prv = privateKeyPem.getBytes(StandardCharsets.UTF_8);
-            jsch.addIdentity("inmem-key", prv, null, null);
-            session = jsch.getSession(username, ip, port);
-            session.setConfig("StrictHostKeyChecking", "no");
-            session.setTimeout(timeoutMs);
-            session.connect(timeoutMs);
-            
-            channel = (ChannelExec) session.openChannel("exec");
-            channel.setCommand(command);
-            
-            InputStream in = channel.getInputStream();
-            InputStream err = channel.getErrStream();
-            channel.connect(timeoutMs);
+            // SSH key da duoc parse san trong ServerConnectionRegistry
+            session = connection.openWithIdentity(timeoutMs);
             
+            // Gom stdout + stderr theo thu tu nhan duoc, dong thoi day tung chunk cho outputHandler
             StringBuilder aggregated = new StringBuilder();
-            byte[] buffer = new byte[2048];
-            long deadline = System.currentTimeMillis() + timeoutMs;
-            
-            while (true) {
-                // Read stdout
-                while (in.available() > 0) {
-                    int read = in.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    String chunk = new String(buffer, 0, read, StandardCharsets.UTF_8);
-                    aggregated.append(chunk);
-                    if (outputHandler != null) {
-                        outputHandler.accept(chunk);
-                    }
-                }
-                // Read stderr
-                while (err.available() > 0) {
-                    int read = err.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    String chunk = new String(buffer, 0, read, StandardCharsets.UTF_8);
-                    aggregated.append(chunk);
-                    if (outputHandler != null) {
-                        outputHandler.accept(chunk);
-                    }
-                }
-                if (channel.isClosed()) {
-                    if (in.available() == 0 && err.available() == 0) {
-                        break;
-                    }
+            remoteCommandExecutor.execute(session, command, timeoutMs, chunk -> {
+                aggregated.append(chunk);
+                if (outputHandler != null) {
+                    outputHandler.accept(chunk);
                 }
-                if (System.currentTimeMillis() > deadline) break;
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            });
             
             return aggregated.toString();
         } catch (Exception e) {
@@ -1516,9 +1303,6 @@ public class ServerServiceImpl implements ServerService {
             e.printStackTrace();
             return null;
         } finally {
-            if (channel != null && channel.isConnected()) {
-                channel.disconnect();
-            }
             if (session != null && session.isConnected()) {
                 session.disconnect();
             }
@@ -1528,62 +1312,19 @@ public class ServerServiceImpl implements ServerService {
     /**
      * Helper: Thực thi command qua password với streaming output
      */
-    private String execCommandWithPassword(String ip, Integer port, String username, String password, String command, int timeoutMs, Consumer<String> outputHandler) {
+    private String execCommandWithPassword(ServerConnection connection, String command, int timeoutMs, Consumer<String> outputHandler) {
         Session session = null;
-        ChannelExec channel = null;
         try {
-            JSch jsch = new JSch();
-            session = jsch.getSession(username, ip, port);
-            session.setPassword(password);
-            session.setConfig("StrictHostKeyChecking", "no");
-            session.setTimeout(timeoutMs);
-            session.connect(timeoutMs);
-            
-            channel = (ChannelExec) session.openChannel("exec");
-            channel.setCommand(command);
-            
-            InputStream in = channel.getInputStream();
-            InputStream err = channel.getErrStream();
-            channel.connect(timeoutMs);
+            session = connection.openWithPassword(timeoutMs);
             
+            // Gom stdout + stderr theo thu tu nhan duoc, dong thoi day tung chunk cho outputHandler
             StringBuilder aggregated = new StringBuilder();
-            byte[] buffer = new byte[2048];
-            long deadline = System.currentTimeMillis() + timeoutMs;
-            
-            while (true) {
-                // Read stdout
-                while (in.available() > 0) {
-                    int read = in.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    String chunk = new String(buffer, 0, read, StandardCharsets.UTF_8);
-                    aggregated.append(chunk);
-                    if (outputHandler != null) {
-                        outputHandler.accept(chunk);
-                    }
-                }
-                // Read stderr
-                while (err.available() > 0) {
-                    int read = err.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    String chunk = new String(buffer, 0, read, StandardCharsets.UTF_8);
-                    aggregated.append(chunk);
-                    if (outputHandler != null) {
-                        outputHandler.accept(chunk);
-                    }
+            remoteCommandExecutor.execute(session, command, timeoutMs, chunk -> {
+                aggregated.append(chunk);
+                if (outputHandler != null) {
+                    outputHandler.accept(chunk);
                 }
-                if (channel.isClosed()) {
-                    if (in.available() == 0 && err.available() == 0) {
-                        break;
-                    }
-                }
-                if (System.currentTimeMillis() > deadline) break;
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            });
             
             return aggregated.toString();
         } catch (Exception e) {
@@ -1591,9 +1332,6 @@ public class ServerServiceImpl implements ServerService {
             e.printStackTrace();
             return null;
         } finally {
-            if (channel != null && channel.isConnected()) {
-                channel.disconnect();
-            }
             if (session != null && session.isConnected()) {
                 session.disconnect();
             }
@@ -1603,54 +1341,15 @@ public class ServerServiceImpl implements ServerService {
     /**
      * Helper: Thực thi command qua password
      */
-    private String execCommandWithPassword(String ip, Integer port, String username, String password, String command, int timeoutMs) {
+    private String execCommandWithPassword(ServerConnection connection, String command, int timeoutMs) {
         Session session = null;
-        ChannelExec channel = null;
         try {
-            JSch jsch = new JSch();
-            session = jsch.getSession(username, ip, port);
-            session.setPassword(password);
-            session.setConfig("StrictHostKeyChecking", "no");
-            session.setTimeout(timeoutMs);
-            session.connect(timeoutMs);
-            
-            channel = (ChannelExec) session.openChannel("exec");
-            channel.setCommand(command);
-            
-            InputStream in = channel.getInputStream();
-            InputStream err = channel.getErrStream();
-            channel.connect(timeoutMs);
-            
-            ByteArrayOutputStream outBuf = new ByteArrayOutputStream();
-            ByteArrayOutputStream errBuf = new ByteArrayOutputStream();
-            byte[] buffer = new byte[4096];
-            long deadline = System.currentTimeMillis() + timeoutMs;
+            session = connection.openWithPassword(timeoutMs);
             
-            while (true) {
-                // Read stdout
-                while (in.available() > 0) {
-                    int read = in.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    outBuf.write(buffer, 0, read);
-                }
-                // Read stderr
-                while (err.available() > 0) {
-                    int read = err.read(buffer, 0, buffer.length);
-                    if (read < 0) break;
-                    errBuf.write(buffer, 0, read);
-                }
-                if (channel.isClosed()) break;
-                if (System.currentTimeMillis() > deadline) break;
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            CommandResult result = remoteCommandExecutor.execute(session, command, timeoutMs);
             
             // Log stderr if present
-            String errOutput = errBuf.toString(StandardCharsets.UTF_8).trim();
+            String errOutput = result.stderr().trim();
             if (!errOutput.isEmpty()) {
                 System.out.println("[execCommandWithPassword] Stderr output length: " + errOutput.length() + " characters");
                 if (errOutput.length() > 1000) {
@@ -1662,8 +1361,8 @@ public class ServerServiceImpl implements ServerService {
             }
             
             // Log exit status
-            if (channel.isClosed()) {
-                int exitStatus = channel.getExitStatus();
+            if (!result.timedOut()) {
+                int exitStatus = result.exitStatus();
                 if (exitStatus == 0) {
                     System.out.println("[execCommandWithPassword] Exit status: 0 (success)");
                 } else {
@@ -1671,15 +1370,12 @@ public class ServerServiceImpl implements ServerService {
                 }
             }
             
-            return outBuf.toString(StandardCharsets.UTF_8).trim();
+            return result.stdout().trim();
         } catch (Exception e) {
             System.err.println("[execCommandWithPassword] Loi: " + e.getMessage());
             e.printStackTrace();
             return null;
         } finally {
-            if (channel != null && channel.isConnected()) {
-                channel.disconnect();
-            }
             if (session != null && session.isConnected()) {
                 session.disconnect();
             }
@@ -1706,6 +1402,7 @@ public class ServerServiceImpl implements ServerService {
                     // Ket noi thanh cong bang SSH key
                     server.setStatus(ServerEntity.ServerStatus.ONLINE);
                     server = serverRepository.saveAndFlush(server);
+                    serverConnectionRegistry.invalidate(id);
                     System.out.println("[reconnectServer] Reconnect thanh cong bang SSH key");
                     return convertToResponse(server);
                 }
@@ -1730,6 +1427,10 @@ public class ServerServiceImpl implements ServerService {
         server.setPassword(password); // Luu password plaintext (co the encode sau neu can)
         server.setStatus(ServerEntity.ServerStatus.ONLINE);
         server = serverRepository.saveAndFlush(server);
+        // Password moi -> bo cac SSH session cu trong pool va thong tin ket noi da cache
+        sshSessionPool.invalidate(id);
+        serverConnectionRegistry.invalidate(id);
+        kubernetesClientProvider.invalidate(id);
         
         // Generate SSH key neu chua co
         if (server.getSshKey() == null) {
@@ -1742,6 +1443,7 @@ public class ServerServiceImpl implements ServerService {
                     created = sshKeyRepository.saveAndFlush(created);
                     server.setSshKey(created);
                     server = serverRepository.saveAndFlush(server);
+                    serverConnectionRegistry.invalidate(id);
                     System.out.println("[reconnectServer] Da tu dong generate SSH key");
                 }
             } catch (Exception e) {
@@ -1765,35 +1467,34 @@ public class ServerServiceImpl implements ServerService {
         // Set status = DISABLED
         server.setStatus(ServerEntity.ServerStatus.DISABLED);
         server = serverRepository.saveAndFlush(server);
+        sshSessionPool.invalidate(id);
+        serverConnectionRegistry.invalidate(id);
+        kubernetesClientProvider.invalidate(id);
         
         System.out.println("[disconnectServer] Da disconnect server thanh cong");
         return convertToResponse(server);
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String execCommand(Long id, String command, int timeoutMs) {
         System.out.println("[execCommand] Thuc thi command tren server ID: " + id);
         System.out.println("[execCommand] Command: " + command);
         
-        ServerEntity server = serverRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Khong tim thay server voi ID: " + id));
+        // Thong tin ket noi lay tu registry (khong truy van DB neu da co trong cache)
+        ServerConnection connection = serverConnectionRegistry.get(id);
         
         // Kiem tra server status
-        if (server.getStatus() == ServerEntity.ServerStatus.DISABLED) {
+        if (connection.status() == ServerEntity.ServerStatus.DISABLED) {
             throw new RuntimeException("Server da bi ngat ket noi (DISABLED). Vui long ket noi lai truoc khi thuc thi command.");
         }
-        if (server.getStatus() != ServerEntity.ServerStatus.ONLINE) {
+        if (connection.status() != ServerEntity.ServerStatus.ONLINE) {
             throw new RuntimeException("Server khong online. Khong the thuc thi command.");
         }
         
-        String ip = server.getIp();
-        Integer port = server.getPort() != null ? server.getPort() : 22;
-        String username = server.getUsername();
-        
         // Uu tien dung SSH key
-        String privateKeyPem = resolveServerPrivateKeyPem(id);
-        if (privateKeyPem != null && !privateKeyPem.isBlank()) {
-            String output = execCommandWithKey(ip, port, username, privateKeyPem, command, timeoutMs);
+        if (connection.hasIdentity()) {
+            String output = execCommandWithKey(connection, command, timeoutMs);
             if (output != null) {
                 System.out.println("[execCommand] Thuc thi thanh cong bang SSH key");
                 // Log output chi tiet
@@ -1817,9 +1518,8 @@ public class ServerServiceImpl implements ServerService {
         }
         
         // Fallback: dung password neu co
-        String password = server.getPassword();
-        if (password != null && !password.isBlank()) {
-            String output = execCommandWithPassword(ip, port, username, password, command, timeoutMs);
+        if (connection.hasPassword()) {
+            String output = execCommandWithPassword(connection, command, timeoutMs);
             if (output != null) {
                 System.out.println("[execCommand] Thuc thi thanh cong bang password");
                 // Log output chi tiet
@@ -1846,29 +1546,25 @@ public class ServerServiceImpl implements ServerService {
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String execCommand(Long id, String command, int timeoutMs, Consumer<String> outputHandler) {
         System.out.println("[execCommand with outputHandler] Thuc thi command tren server ID: " + id);
         System.out.println("[execCommand with outputHandler] Command: " + command);
         
-        ServerEntity server = serverRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Khong tim thay server voi ID: " + id));
+        // Thong tin ket noi lay tu registry (khong truy van DB neu da co trong cache)
+        ServerConnection connection = serverConnectionRegistry.get(id);
         
         // Kiem tra server status
-        if (server.getStatus() == ServerEntity.ServerStatus.DISABLED) {
+        if (connection.status() == ServerEntity.ServerStatus.DISABLED) {
             throw new RuntimeException("Server da bi ngat ket noi (DISABLED). Vui long ket noi lai truoc khi thuc thi command.");
         }
-        if (server.getStatus() != ServerEntity.ServerStatus.ONLINE) {
+        if (connection.status() != ServerEntity.ServerStatus.ONLINE) {
             throw new RuntimeException("Server khong online. Khong the thuc thi command.");
         }
         
-        String ip = server.getIp();
-        Integer port = server.getPort() != null ? server.getPort() : 22;
-        String username = server.getUsername();
-        
         // Uu tien dung SSH key
-        String privateKeyPem = resolveServerPrivateKeyPem(id);
-        if (privateKeyPem != null && !privateKeyPem.isBlank()) {
-            String output = execCommandWithKey(ip, port, username, privateKeyPem, command, timeoutMs, outputHandler);
+        if (connection.hasIdentity()) {
+            String output = execCommandWithKey(connection, command, timeoutMs, outputHandler);
             if (output != null) {
                 System.out.println("[execCommand with outputHandler] Thuc thi thanh cong bang SSH key");
                 System.out.println("[execCommand with outputHandler] Output: " + output);
@@ -1877,9 +1573,8 @@ public class ServerServiceImpl implements ServerService {
         }
         
         // Fallback: dung password neu co
-        String password = server.getPassword();
-        if (password != null && !password.isBlank()) {
-            String output = execCommandWithPassword(ip, port, username, password, command, timeoutMs, outputHandler);
+        if (connection.hasPassword()) {
+            String output = execCommandWithPassword(connection, command, timeoutMs, outputHandler);
             if (output != null) {
                 System.out.println("[execCommand with outputHandler] Thuc thi thanh cong bang password");
                 return output;
@@ -1889,6 +1584,82 @@ public class ServerServiceImpl implements ServerService {
         throw new RuntimeException("Khong the thuc thi command. Server khong co SSH key hoac password hop le.");
     }
     
+    /**
+     * Thuc thi command dong bo tren session muon tu SshSessionPool, day tung doan output cho outputHandler.
+     *
+     * Quy trinh xu ly:
+     * 1. Kiem tra server ton tai va dang ONLINE
+     * 2. Muon session tu pool (uu tien SSH key, fallback password; server bi circuit breaker chan bi tu choi ngay)
+     * 3. Chay lenh voi deadline timeoutMs, tra session ve pool
+     *
+     * @return CommandResult (timedOut = true neu qua deadline)
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CommandResult execCommandStreaming(Long id, String command, int timeoutMs, Consumer<String> outputHandler) {
+        ServerConnection connection = executableConnection(id);
+        try {
+            return execPooled(connection, command, timeoutMs, outputHandler);
+        } catch (JSchException e) {
+            throw new RuntimeException("Khong the thuc thi command tren server ID " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Thuc thi command bat dong bo tren virtual thread.
+     *
+     * Quy trinh xu ly:
+     * 1. Kiem tra server ton tai va dang ONLINE (loi duoc throw ngay cho caller)
+     * 2. Lay thong tin ket noi tu ServerConnectionRegistry tren thread goi
+     * 3. Tren virtual thread: muon session tu SshSessionPool, chay lenh voi deadline timeoutMs
+     * 4. Tra ve RemoteCommandFuture: hoan tat voi CommandResult, output() phat tung doan output
+     *    (outputSubscriber duoc dang ky truoc khi lenh chay), cancel() dong channel ngay lap tuc
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RemoteCommandFuture execCommandAsync(Long id, String command, int timeoutMs) {
+        return execCommandAsync(id, command, timeoutMs, null);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RemoteCommandFuture execCommandAsync(Long id, String command, int timeoutMs, Flow.Subscriber<? super String> outputSubscriber) {
+        ServerConnection connection = executableConnection(id);
+        return remoteCommandExecutor.submitAsync(
+                outputHandler -> execPooled(connection, command, timeoutMs, outputHandler), outputSubscriber);
+    }
+
+    /**
+     * Thong tin ket noi cua server (tu registry, khong truy van DB neu da co trong cache), da kiem tra trang thai.
+     */
+    private ServerConnection executableConnection(Long id) {
+        ServerConnection connection = serverConnectionRegistry.get(id);
+        if (connection.status() == ServerEntity.ServerStatus.DISABLED) {
+            throw new RuntimeException("Server da bi ngat ket noi (DISABLED). Vui long ket noi lai truoc khi thuc thi command.");
+        }
+        if (connection.status() != ServerEntity.ServerStatus.ONLINE) {
+            throw new RuntimeException("Server khong online. Khong the thuc thi command.");
+        }
+        if (!connection.hasIdentity() && !connection.hasPassword()) {
+            throw new RuntimeException("Khong the thuc thi command. Server khong co SSH key hoac password hop le.");
+        }
+        return connection;
+    }
+
+    private CommandResult execPooled(ServerConnection connection, String command, int timeoutMs,
+                                     Consumer<String> outputHandler) throws JSchException {
+        System.out.println("[execPooled] Thuc thi command tren server ID " + connection.serverId() + ": " + command);
+        Session session = sshSessionPool.acquire(connection);
+        try {
+            CommandResult result = remoteCommandExecutor.execute(session, command, timeoutMs, outputHandler);
+            System.out.println("[execPooled] Hoan tat server ID " + connection.serverId() + ": exit=" + result.exitStatus()
+                    + ", timedOut=" + result.timedOut() + ", " + result.durationMs() + "ms");
+            return result;
+        } finally {
+            sshSessionPool.release(session);
+        }
+    }
+    
     @Override
     @Transactional
     public String shutdownServer(Long id) {
@@ -1913,6 +1684,7 @@ public class ServerServiceImpl implements ServerService {
         // Sau khi shutdown thanh cong, set status = OFFLINE
         server.setStatus(ServerEntity.ServerStatus.OFFLINE);
         serverRepository.saveAndFlush(server);
+        serverConnectionRegistry.invalidate(id);
         
         System.out.println("[shutdownServer] Da gui lenh shutdown thanh cong");
         return output != null ? output : "Da gui lenh shutdown den server";
@@ -1942,6 +1714,7 @@ public class ServerServiceImpl implements ServerService {
         // Sau khi restart, set status = OFFLINE (se tu dong chuyen thanh ONLINE sau khi server khoi dong lai)
         server.setStatus(ServerEntity.ServerStatus.OFFLINE);
         serverRepository.saveAndFlush(server);
+        serverConnectionRegistry.invalidate(id);
         
         System.out.println("[restartServer] Da gui lenh restart thanh cong");
         return output != null ? output : "Da gui lenh restart den server";
@@ -1955,15 +1728,20 @@ public class ServerServiceImpl implements ServerService {
         String ip = server.getIp();
         Integer port = server.getPort() != null ? server.getPort() : 22;
         
-        try (java.net.Socket socket = new java.net.Socket()) {
-            java.net.InetSocketAddress addr = new java.net.InetSocketAddress(ip, port);
-            socket.connect(addr, timeoutMs);
-            System.out.println("[pingServer] Ping thanh cong den server " + ip + ":" + port);
+        ReachabilityProber.ProbeResult probe = reachabilityProber.probe(new InetSocketAddress(ip, port), timeoutMs);
+        if (probe.reachable()) {
+            System.out.println("[pingServer] Ping thanh cong den server " + ip + ":" + port + " (" + probe.rttMs() + " ms)");
             return true;
-        } catch (Exception e) {
-            System.out.println("[pingServer] Ping that bai den server " + ip + ":" + port + " - " + e.getMessage());
-            return false;
         }
+        System.out.println("[pingServer] Ping that bai den server " + ip + ":" + port + " - " + probe.error());
+        return false;
+    }
+    
+    /**
+     * Địa chỉ cổng SSH của server (mặc định 22)
+     */
+    private InetSocketAddress sshAddress(ServerEntity server) {
+        return new InetSocketAddress(server.getIp(), server.getPort() != null ? server.getPort() : 22);
     }
     
     @Override
@@ -1996,7 +1774,7 @@ public class ServerServiceImpl implements ServerService {
                     if (canConnect) {
                         // Kiểm tra sudo NOPASSWD
                         String checkSudoCmd = "sudo -l 2>/dev/null | grep -q 'NOPASSWD' && echo 'HAS_NOPASSWD' || echo 'NO_NOPASSWD'";
-                        String sudoCheckResult = execCommandWithKey(ip, port, username, privateKeyPem, checkSudoCmd, 5000);
+                        String sudoCheckResult = execCommandWithKey(serverConnectionRegistry.get(id), checkSudoCmd, 5000);
                         
                         if (sudoCheckResult != null && sudoCheckResult.contains("HAS_NOPASSWD")) {
                             hasSudoNopasswd = true;
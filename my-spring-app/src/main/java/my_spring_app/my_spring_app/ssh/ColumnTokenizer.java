@@ -0,0 +1,103 @@
+package my_spring_app.my_spring_app.ssh;
+
+/**
+ * Tách cột của một dòng output dạng bảng (kubectl --no-headers, df, ...) theo khoảng trắng,
+ * không dùng regex và có thể tái sử dụng cho nhiều dòng.
+ *
+ * Thay cho line.trim().split("\\s+"): chỉ lưu vị trí bắt đầu/kết thúc của từng cột,
+ * chuỗi con chỉ được tạo khi gọi {@link #column(int)}.
+ *
+ * Cách dùng:
+ * <pre>
+ * ColumnTokenizer columns = new ColumnTokenizer(4);
+ * if (columns.tokenize(line) >= 4) {
+ *     double cpu = parseCpuCores(columns.column(2));
+ * }
+ * </pre>
+ *
+ * Không thread-safe: mỗi luồng parse dùng một instance riêng.
+ */
+public final class ColumnTokenizer {
+
+    private final int[] starts;
+    private final int[] ends;
+    private CharSequence line;
+    private int count;
+
+    /**
+     * @param maxColumns Số cột tối đa cần lấy; các cột sau đó bị bỏ qua
+     */
+    public ColumnTokenizer(int maxColumns) {
+        this.starts = new int[maxColumns];
+        this.ends = new int[maxColumns];
+    }
+
+    /**
+     * Tách dòng thành các cột (phân tách bởi space, tab, \r hoặc \n ở cuối output).
+     *
+     * @return Số cột tìm được (tối đa maxColumns)
+     */
+    public int tokenize(CharSequence line) {
+        this.line = line;
+        this.count = 0;
+        int length = line.length();
+        int i = 0;
+        while (i < length && count < starts.length) {
+            while (i < length && isSeparator(line.charAt(i))) {
+                i++;
+            }
+            if (i >= length) {
+                break;
+            }
+            int start = i;
+            while (i < length && !isSeparator(line.charAt(i))) {
+                i++;
+            }
+            starts[count] = start;
+            ends[count] = i;
+            count++;
+        }
+        return count;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Nội dung cột thứ index (tính từ 0).
+     */
+    public String column(int index) {
+        checkIndex(index);
+        return line.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /**
+     * So sánh cột với giá trị cho trước mà không tạo chuỗi con.
+     */
+    public boolean columnEquals(int index, String value, boolean ignoreCase) {
+        checkIndex(index);
+        int length = ends[index] - starts[index];
+        if (length != value.length()) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            char a = line.charAt(starts[index] + k);
+            char b = value.charAt(k);
+            if (a != b && !(ignoreCase && Character.toLowerCase(a) == Character.toLowerCase(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Cot " + index + " khong ton tai (co " + count + " cot)");
+        }
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+}
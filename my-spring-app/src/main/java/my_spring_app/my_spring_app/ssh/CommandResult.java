@@ -0,0 +1,17 @@
+package my_spring_app.my_spring_app.ssh;
+
+/**
+ * Kết quả thực thi một lệnh remote qua SSH.
+ *
+ * @param exitStatus Exit code của lệnh (-1 nếu chưa nhận được, ví dụ khi timeout)
+ * @param stdout Output chuẩn (UTF-8)
+ * @param stderr Output lỗi (UTF-8)
+ * @param durationMs Thời gian từ lúc mở channel đến khi nhận exit status
+ * @param timedOut true nếu lệnh bị ngắt vì quá deadline
+ */
+public record CommandResult(int exitStatus, String stdout, String stderr, long durationMs, boolean timedOut) {
+
+    public boolean isSuccess() {
+        return !timedOut && exitStatus == 0;
+    }
+}
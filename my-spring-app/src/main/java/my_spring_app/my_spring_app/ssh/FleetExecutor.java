@@ -0,0 +1,278 @@
+package my_spring_app.my_spring_app.ssh;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bộ lập lịch fan-out dùng chung cho các thao tác trên nhiều server (kiểm tra status/metrics,
+ * phân phối SSH key, các bước init Ansible...).
+ *
+ * Trước đây mỗi HTTP call tự tạo Executors.newFixedThreadPool(min(n, 16)) rồi shutdown: song song
+ * tối đa 16 dù fleet lớn đến đâu, và pool bị bỏ lại nếu awaitTermination hết giờ. Ở đây:
+ *
+ * - Một executor virtual thread cho toàn ứng dụng (không tạo/huỷ pool theo request)
+ * - Giới hạn toàn cục ({@code globalConcurrency}) cho số tác vụ fan-out chạy cùng lúc
+ * - Giới hạn theo host ({@code perHostConcurrency}) để không dồn quá nhiều phiên SSH vào một máy;
+ *   semaphore của host bị bỏ khỏi map khi không còn tác vụ nào giữ hoặc chờ (map không lớn theo số IP đã gặp)
+ * - Deadline cho từng thao tác: tác vụ quá hạn bị huỷ (interrupt) và được báo là timeout
+ * - Thời gian chờ/chạy của từng host được trả về trong HostOutcome và ghi log tổng kết
+ */
+@Component
+public class FleetExecutor {
+
+    @Value("${app.fleet.global-concurrency:64}")
+    private int globalConcurrency = 64;
+
+    @Value("${app.fleet.per-host-concurrency:4}")
+    private int perHostConcurrency = 4;
+
+    // Deadline mặc định khi thao tác không truyền deadline riêng
+    @Value("${app.fleet.default-deadline-ms:60000}")
+    private long defaultDeadlineMs = 60000;
+
+    // Số host chậm nhất được in trong log tổng kết
+    @Value("${app.fleet.report-slowest:3}")
+    private int reportSlowest = 3;
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fleet-", 0).factory());
+
+    // Semaphore theo host kèm số tác vụ đang giữ/chờ; entry bị xoá khi về 0
+    private final Map<String, HostPermit> hostPermits = new ConcurrentHashMap<>();
+
+    private Semaphore globalPermits;
+
+    /**
+     * Công việc thực hiện trên một target của fan-out.
+     */
+    @FunctionalInterface
+    public interface HostTask<K, T> {
+        T run(K target) throws Exception;
+    }
+
+    /**
+     * Kết quả của một target: giá trị hoặc lỗi, kèm thời gian chờ permit và thời gian chạy.
+     */
+    public record HostOutcome<K, T>(K target, String host, T value, Throwable error,
+                                    long queuedMs, long durationMs, boolean timedOut) {
+
+        public boolean isSuccess() {
+            return error == null && !timedOut;
+        }
+
+        public String errorMessage() {
+            if (timedOut) return "Het thoi gian cho phep";
+            return error == null ? null : (error.getMessage() != null ? error.getMessage() : error.toString());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        globalPermits = new Semaphore(Math.max(1, globalConcurrency), true);
+    }
+
+    /**
+     * Chạy task trên tất cả target song song và chờ đến khi xong hoặc hết deadline.
+     *
+     * Quy trình xử lý:
+     * 1. Mỗi target chạy trên một virtual thread, chờ permit toàn cục rồi permit của host
+     * 2. Chờ kết quả theo thứ tự target cho đến deadline chung của thao tác
+     * 3. Target chưa xong khi hết deadline bị huỷ và trả về outcome timedOut
+     * 4. Ghi log tổng kết (số OK/lỗi/timeout, các host chậm nhất)
+     *
+     * @param operation Tên thao tác (dùng cho log)
+     * @param targets Danh sách target
+     * @param hostOf Lấy host (IP) của target để áp giới hạn theo host
+     * @param deadlineMs Deadline cho cả thao tác (<= 0 dùng giá trị mặc định)
+     * @param task Công việc cho từng target
+     * @return Outcome theo đúng thứ tự của targets
+     */
+    public <K, T> List<HostOutcome<K, T>> fanOut(String operation, List<K> targets, Function<K, String> hostOf,
+                                                 long deadlineMs, HostTask<K, T> task) {
+        long start = System.currentTimeMillis();
+        long deadline = start + (deadlineMs > 0 ? deadlineMs : defaultDeadlineMs);
+
+        List<Future<HostOutcome<K, T>>> futures = new ArrayList<>(targets.size());
+        for (K target : targets) {
+            String host = hostOf.apply(target);
+            futures.add(executor.submit(() -> runOnHost(target, host, deadline, task)));
+        }
+
+        List<HostOutcome<K, T>> outcomes = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            K target = targets.get(i);
+            Future<HostOutcome<K, T>> future = futures.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                outcomes.add(future.get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                outcomes.add(new HostOutcome<>(target, hostOf.apply(target), null, null,
+                        0, System.currentTimeMillis() - start, true));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new RuntimeException("Thao tác " + operation + " bị gián đoạn", e);
+            } catch (ExecutionException e) {
+                outcomes.add(new HostOutcome<>(target, hostOf.apply(target), null, e.getCause(),
+                        0, System.currentTimeMillis() - start, false));
+            }
+        }
+
+        report(operation, outcomes, System.currentTimeMillis() - start);
+        return outcomes;
+    }
+
+    /**
+     * Chạy một tác vụ nền gắn với một host (ví dụ các bước init Ansible trên controller).
+     * Tác vụ chỉ chiếm permit của host (không chiếm permit toàn cục) để các fan-out lồng bên trong
+     * nó không bị chặn bởi chính nó.
+     *
+     * @param deadlineMs Deadline của tác vụ (<= 0 nghĩa là không giới hạn); quá hạn thì bị interrupt
+     */
+    public <T> CompletableFuture<T> submit(String operation, String host, long deadlineMs, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            long queuedAt = System.currentTimeMillis();
+            HostPermit permit = retainHostPermit(host);
+            try {
+                permit.semaphore().acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                releaseHostPermit(host);
+                result.completeExceptionally(e);
+                return;
+            }
+            long startedAt = System.currentTimeMillis();
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                permit.semaphore().release();
+                releaseHostPermit(host);
+                System.out.println("[FleetExecutor] " + operation + " tren " + host + ": cho "
+                        + (startedAt - queuedAt) + " ms, chay " + (System.currentTimeMillis() - startedAt) + " ms");
+            }
+        });
+        if (deadlineMs > 0) {
+            result.orTimeout(deadlineMs, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+                if (error instanceof TimeoutException) {
+                    System.err.println("[FleetExecutor] " + operation + " tren " + host + " vuot qua deadline "
+                            + deadlineMs + " ms, huy tac vu");
+                    running.cancel(true);
+                }
+            });
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <K, T> HostOutcome<K, T> runOnHost(K target, String host, long deadline, HostTask<K, T> task) {
+        long queuedAt = System.currentTimeMillis();
+        Semaphore hostPermit = retainHostPermit(host).semaphore();
+        boolean globalAcquired = false;
+        boolean hostAcquired = false;
+        try {
+            globalAcquired = globalPermits.tryAcquire(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            if (globalAcquired) {
+                hostAcquired = hostPermit.tryAcquire(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+            long startedAt = System.currentTimeMillis();
+            if (!hostAcquired) {
+                // Hết deadline khi còn đang chờ permit
+                return new HostOutcome<>(target, host, null, null, startedAt - queuedAt, 0, true);
+            }
+            try {
+                T value = task.run(target);
+                return new HostOutcome<>(target, host, value, null, startedAt - queuedAt,
+                        System.currentTimeMillis() - startedAt, false);
+            } catch (Exception e) {
+                return new HostOutcome<>(target, host, null, e, startedAt - queuedAt,
+                        System.currentTimeMillis() - startedAt, false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new HostOutcome<>(target, host, null, null, System.currentTimeMillis() - queuedAt, 0, true);
+        } finally {
+            if (hostAcquired) hostPermit.release();
+            if (globalAcquired) globalPermits.release();
+            releaseHostPermit(host);
+        }
+    }
+
+    /**
+     * Lấy semaphore của host và tăng số tác vụ đang dùng; mỗi lần gọi phải đi kèm một {@link #releaseHostPermit}.
+     */
+    private HostPermit retainHostPermit(String host) {
+        return hostPermits.compute(host != null ? host : "", (h, permit) -> {
+            HostPermit current = permit != null ? permit : new HostPermit(new Semaphore(Math.max(1, perHostConcurrency), true));
+            current.users++;
+            return current;
+        });
+    }
+
+    private void releaseHostPermit(String host) {
+        hostPermits.computeIfPresent(host != null ? host : "", (h, permit) -> --permit.users == 0 ? null : permit);
+    }
+
+    /**
+     * Số host đang có tác vụ giữ hoặc chờ permit.
+     */
+    int trackedHosts() {
+        return hostPermits.size();
+    }
+
+    private <K, T> void report(String operation, List<HostOutcome<K, T>> outcomes, long elapsedMs) {
+        long ok = outcomes.stream().filter(HostOutcome::isSuccess).count();
+        long timedOut = outcomes.stream().filter(HostOutcome::timedOut).count();
+        long failed = outcomes.size() - ok - timedOut;
+        String slowest = outcomes.stream()
+                .sorted(Comparator.comparingLong((HostOutcome<K, T> o) -> o.queuedMs() + o.durationMs()).reversed())
+                .limit(Math.max(0, reportSlowest))
+                .map(o -> o.host() + "=" + o.durationMs() + "ms" + (o.queuedMs() > 0 ? " (cho " + o.queuedMs() + "ms)" : ""))
+                .collect(Collectors.joining(", "));
+        System.out.println("[FleetExecutor] " + operation + ": " + outcomes.size() + " host, " + ok + " OK, "
+                + failed + " loi, " + timedOut + " timeout trong " + elapsedMs + " ms"
+                + (slowest.isEmpty() ? "" : "; cham nhat: " + slowest));
+    }
+
+    /**
+     * Semaphore của một host; {@code users} chỉ được đọc/ghi trong compute của map.
+     */
+    private static final class HostPermit {
+        private final Semaphore semaphore;
+        private int users;
+
+        private HostPermit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        Semaphore semaphore() {
+            return semaphore;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package my_spring_app.my_spring_app.ssh;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Kiểm tra khả năng kết nối TCP (cổng SSH) của cả fleet bằng NIO không chặn.
+ *
+ * Thay vì mỗi server một java.net.Socket chặn tối đa timeoutMs (và chỉ 16 server song song), một
+ * thread duy nhất mở connect không chặn tới tất cả server, đăng ký OP_CONNECT vào Selector và thu
+ * kết quả khi từng kết nối hoàn tất. Cả fleet trả về trong khoảng một cửa sổ timeout.
+ *
+ * Thời gian connect (RTT) của từng host:port được lưu lại (giá trị gần nhất + trung bình trượt EWMA)
+ * để các quyết định lập lịch sau này (chọn server gần/nhanh hơn) có dữ liệu tham khảo.
+ *
+ * Quy trình xử lý:
+ * 1. Mở SocketChannel non-blocking cho từng target và gọi connect()
+ * 2. Đăng ký OP_CONNECT vào một Selector chung
+ * 3. select() đến khi tất cả hoàn tất hoặc hết deadline, finishConnect() cho từng key sẵn sàng
+ * 4. Target chưa xong khi hết deadline được tính là không kết nối được (timeout)
+ */
+@Component
+public class ReachabilityProber {
+
+    // Trọng số của mẫu mới trong trung bình trượt RTT
+    @Value("${app.ssh.probe.rtt-smoothing:0.3}")
+    private double rttSmoothing = 0.3;
+
+    private final Map<String, RttStats> rttByAddress = new ConcurrentHashMap<>();
+
+    /**
+     * Kết quả probe một target.
+     *
+     * @param reachable true nếu connect TCP thành công
+     * @param rttMs Thời gian connect (ms), -1 nếu không kết nối được
+     * @param error Lý do thất bại (null nếu thành công)
+     */
+    public record ProbeResult(boolean reachable, long rttMs, String error) {
+    }
+
+    /**
+     * Thống kê RTT của một host:port.
+     */
+    public record RttSnapshot(long lastMs, double averageMs, long samples, long lastProbedAtMs) {
+    }
+
+    /**
+     * Probe tất cả target song song trên thread hiện tại.
+     *
+     * @param targets Danh sách target
+     * @param addressOf Địa chỉ (IP + cổng SSH) của target
+     * @param timeoutMs Cửa sổ timeout chung cho cả lượt probe
+     * @return Kết quả theo đúng thứ tự của targets
+     */
+    public <K> List<ProbeResult> probeAll(List<K> targets, Function<K, InetSocketAddress> addressOf, int timeoutMs) {
+        ProbeResult[] results = new ProbeResult[targets.size()];
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeoutMs * 1_000_000L;
+        List<Pending> pendings = new ArrayList<>(targets.size());
+
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < targets.size(); i++) {
+                InetSocketAddress address = addressOf.apply(targets.get(i));
+                if (address == null || address.isUnresolved()) {
+                    results[i] = new ProbeResult(false, -1, "Khong phan giai duoc dia chi");
+                    continue;
+                }
+                SocketChannel channel = null;
+                try {
+                    channel = SocketChannel.open();
+                    channel.configureBlocking(false);
+                    Pending pending = new Pending(i, address, channel, System.nanoTime());
+                    if (channel.connect(address)) {
+                        complete(results, pending, null);
+                    } else {
+                        channel.register(selector, SelectionKey.OP_CONNECT, pending);
+                        pendings.add(pending);
+                    }
+                } catch (IOException e) {
+                    closeQuietly(channel);
+                    results[i] = new ProbeResult(false, -1, message(e));
+                }
+            }
+
+            int remaining = pendings.size();
+            while (remaining > 0) {
+                long waitMs = (deadline - System.nanoTime()) / 1_000_000L;
+                if (waitMs <= 0) break;
+                selector.select(waitMs);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Pending pending = (Pending) key.attachment();
+                    key.cancel();
+                    try {
+                        pending.channel.finishConnect();
+                        complete(results, pending, null);
+                    } catch (IOException e) {
+                        complete(results, pending, message(e));
+                    }
+                    remaining--;
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Không mở được Selector để kiểm tra kết nối: " + e.getMessage(), e);
+        } finally {
+            for (Pending pending : pendings) {
+                closeQuietly(pending.channel);
+            }
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new ProbeResult(false, -1, "Timeout sau " + timeoutMs + " ms");
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+        long reachable = Arrays.stream(results).filter(ProbeResult::reachable).count();
+        System.out.println("[ReachabilityProber] Probe " + targets.size() + " server: " + reachable
+                + " ket noi duoc trong " + elapsedMs + " ms (timeout " + timeoutMs + " ms)");
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Probe một địa chỉ (dùng cùng đường NIO để RTT được ghi nhận).
+     */
+    public ProbeResult probe(InetSocketAddress address, int timeoutMs) {
+        return probeAll(List.of(address), a -> a, timeoutMs).get(0);
+    }
+
+    /**
+     * RTT trung bình gần đây của host:port (rỗng nếu chưa từng probe thành công).
+     */
+    public OptionalLong averageRttMs(String host, int port) {
+        RttStats stats = rttByAddress.get(key(host, port));
+        if (stats == null) return OptionalLong.empty();
+        synchronized (stats) {
+            return OptionalLong.of(Math.round(stats.averageMs));
+        }
+    }
+
+    /**
+     * Thống kê RTT của host:port, null nếu chưa có mẫu.
+     */
+    public RttSnapshot rttSnapshot(String host, int port) {
+        RttStats stats = rttByAddress.get(key(host, port));
+        if (stats == null) return null;
+        synchronized (stats) {
+            return new RttSnapshot(stats.lastMs, stats.averageMs, stats.samples, stats.lastProbedAtMs);
+        }
+    }
+
+    private void complete(ProbeResult[] results, Pending pending, String error) {
+        closeQuietly(pending.channel);
+        if (error != null) {
+            results[pending.index] = new ProbeResult(false, -1, error);
+            return;
+        }
+        long rttMs = (System.nanoTime() - pending.startedAtNanos) / 1_000_000L;
+        recordRtt(pending.address, rttMs);
+        results[pending.index] = new ProbeResult(true, rttMs, null);
+    }
+
+    private void recordRtt(InetSocketAddress address, long rttMs) {
+        String host = address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+        RttStats stats = rttByAddress.computeIfAbsent(key(host, address.getPort()), k -> new RttStats());
+        synchronized (stats) {
+            stats.averageMs = stats.samples == 0 ? rttMs : stats.averageMs + rttSmoothing * (rttMs - stats.averageMs);
+            stats.lastMs = rttMs;
+            stats.samples++;
+            stats.lastProbedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    private static String key(String host, int port) {
+        return host + ":" + port;
+    }
+
+    private static String message(IOException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private record Pending(int index, InetSocketAddress address, SocketChannel channel, long startedAtNanos) {
+    }
+
+    private static final class RttStats {
+        private long lastMs;
+        private double averageMs;
+        private long samples;
+        private long lastProbedAtMs;
+    }
+}
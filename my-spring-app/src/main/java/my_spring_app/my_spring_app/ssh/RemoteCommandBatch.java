@@ -0,0 +1,156 @@
+package my_spring_app.my_spring_app.ssh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Gom nhiều lệnh shell thành một script duy nhất chạy trên một channel, rồi tách kết quả
+ * (stdout, stderr, exit code) của từng lệnh ra lại.
+ *
+ * Mục đích: thay cho việc gọi executeCommand cho từng trường jsonpath (N node x ~11 lệnh),
+ * giờ chỉ còn một round trip cho cả danh sách.
+ *
+ * Định dạng script (mỗi lệnh i):
+ * <pre>
+ * printf '%s\n' 'TOKEN:i:OUT'
+ * ( lệnh i ) 2>"$__batch_err" &lt;/dev/null
+ * __batch_rc=$?
+ * printf '\n%s\n' 'TOKEN:i:ERR'; cat "$__batch_err"
+ * printf '\n%s\n' "TOKEN:i:RC:$__batch_rc"
+ * </pre>
+ * TOKEN là chuỗi ngẫu nhiên cho mỗi batch nên không thể trùng với output thật của lệnh.
+ * Mỗi lệnh chạy trong subshell riêng, lệnh lỗi (hoặc gọi exit) không làm dừng các lệnh sau.
+ *
+ * Cách dùng:
+ * <pre>
+ * RemoteCommandBatch batch = new RemoteCommandBatch()
+ *         .add("nodes", "kubectl get nodes ...")
+ *         .add("top", "kubectl top nodes --no-headers");
+ * RemoteCommandBatch.Results results = remoteCommandExecutor.executeBatch(session, batch, 30000);
+ * String top = results.stdout("top");
+ * </pre>
+ */
+public class RemoteCommandBatch {
+
+    private final String token = "__BATCH_" + UUID.randomUUID().toString().replace("-", "") + "__";
+    private final List<String> keys = new ArrayList<>();
+    private final List<String> commands = new ArrayList<>();
+
+    /**
+     * Thêm lệnh vào batch.
+     *
+     * @param key Khóa để lấy kết quả (duy nhất trong batch)
+     * @param command Lệnh shell
+     */
+    public RemoteCommandBatch add(String key, String command) {
+        if (keys.contains(key)) {
+            throw new IllegalArgumentException("Khóa đã tồn tại trong batch: " + key);
+        }
+        keys.add(key);
+        commands.add(command);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * Sinh script shell (POSIX sh) cho toàn bộ batch.
+     */
+    String toScript() {
+        StringBuilder script = new StringBuilder();
+        script.append("__batch_err=$(mktemp 2>/dev/null || echo /tmp/.batch_err_$$)\n");
+        for (int i = 0; i < commands.size(); i++) {
+            script.append("printf '%s\\n' '").append(token).append(':').append(i).append(":OUT'\n");
+            script.append("( ").append(commands.get(i)).append("\n) 2>\"$__batch_err\" </dev/null\n");
+            script.append("__batch_rc=$?\n");
+            script.append("printf '\\n%s\\n' '").append(token).append(':').append(i).append(":ERR'\n");
+            script.append("cat \"$__batch_err\"\n");
+            script.append("printf '\\n%s\\n' \"").append(token).append(':').append(i).append(":RC:$__batch_rc\"\n");
+        }
+        script.append("rm -f \"$__batch_err\"\n");
+        return script.toString();
+    }
+
+    /**
+     * Tách stdout của script thành kết quả từng lệnh.
+     * Lệnh không có marker (script bị ngắt giữa chừng) được trả về với exitStatus -1, timedOut = true.
+     *
+     * @param output stdout của script
+     * @param durationMs Thời gian chạy của cả batch (gán cho từng CommandResult)
+     */
+    Results parse(String output, long durationMs) {
+        Map<String, CommandResult> results = new LinkedHashMap<>();
+        int from = 0;
+        for (int i = 0; i < commands.size(); i++) {
+            String outMarker = token + ":" + i + ":OUT\n";
+            String errMarker = "\n" + token + ":" + i + ":ERR\n";
+            String rcMarker = "\n" + token + ":" + i + ":RC:";
+
+            int outStart = output.indexOf(outMarker, from);
+            int errStart = outStart < 0 ? -1 : output.indexOf(errMarker, outStart + outMarker.length());
+            int rcStart = errStart < 0 ? -1 : output.indexOf(rcMarker, errStart + errMarker.length());
+            if (rcStart < 0) {
+                String partial = outStart < 0 ? "" : output.substring(outStart + outMarker.length(),
+                        errStart < 0 ? output.length() : errStart);
+                results.put(keys.get(i), new CommandResult(-1, partial, "", durationMs, true));
+                continue;
+            }
+
+            String stdout = output.substring(outStart + outMarker.length(), errStart);
+            String stderr = output.substring(errStart + errMarker.length(), rcStart);
+
+            int rcValueStart = rcStart + rcMarker.length();
+            int rcEnd = rcValueStart;
+            while (rcEnd < output.length() && Character.isDigit(output.charAt(rcEnd))) {
+                rcEnd++;
+            }
+            int exitStatus = rcEnd > rcValueStart ? Integer.parseInt(output.substring(rcValueStart, rcEnd)) : -1;
+
+            results.put(keys.get(i), new CommandResult(exitStatus, stdout, stderr, durationMs, false));
+            from = rcEnd;
+        }
+        return new Results(results);
+    }
+
+    /**
+     * Kết quả của batch, tra theo khóa đã dùng khi add().
+     */
+    public static final class Results {
+        private final Map<String, CommandResult> results;
+
+        Results(Map<String, CommandResult> results) {
+            this.results = Collections.unmodifiableMap(results);
+        }
+
+        public CommandResult get(String key) {
+            return results.get(key);
+        }
+
+        /**
+         * stdout đã trim của lệnh; chuỗi rỗng nếu lệnh không tồn tại hoặc không chạy xong.
+         */
+        public String stdout(String key) {
+            CommandResult result = results.get(key);
+            return result == null ? "" : result.stdout().trim();
+        }
+
+        public boolean isSuccess(String key) {
+            CommandResult result = results.get(key);
+            return result != null && result.isSuccess();
+        }
+
+        public Map<String, CommandResult> asMap() {
+            return results;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Engine thực thi lệnh remote dùng chung cho toàn bộ service.
+ *
+ * Thay vì vòng lặp available() + Thread.sleep(50..200ms), engine gắn OutputStream trực tiếp vào
+ * ChannelExec: thread của JSch Session ghi stdout/stderr vào sink ngay khi dữ liệu đến, và đóng
+ * sink stderr khi nhận SSH_MSG_CHANNEL_CLOSE (sau exit-status). Thread gọi chỉ chờ trên latch nên
+ * lệnh hoàn tất là trả về ngay, không còn độ trễ tối thiểu 50-300ms cho mỗi lệnh kubectl.
+ *
+ * Quy trình xử lý:
+ * 1. Mở ChannelExec, gắn sink cho stdout và stderr
+ * 2. Kết nối channel (lệnh bắt đầu chạy)
+ * 3. Chờ sự kiện đóng channel (hoặc deadline)
+ * 4. Đọc exit status và trả về CommandResult
+ */
+@Component
+public class RemoteCommandExecutor {
+
+    @Value("${app.ssh.exec.channel-connect-timeout-ms:10000}")
+    private int channelConnectTimeoutMs = 10000;
+
+    // Số đoạn output tối đa được đệm cho mỗi subscriber của lệnh bất đồng bộ
+    @Value("${app.ssh.exec.async-output-buffer:1024}")
+    private int asyncOutputBuffer = 1024;
+
+    // Thời gian tối đa chờ một subscriber nhận một đoạn output trước khi bỏ đoạn đó với subscriber này
+    @Value("${app.ssh.exec.async-output-stall-ms:30000}")
+    private long asyncOutputStallMs = 30000;
+
+    // Ghi nhận lỗi channel/timeout cho circuit breaker của server (chỉ với session thuộc pool)
+    @Autowired(required = false)
+    private ServerHealthRegistry serverHealthRegistry;
+
+    // Mỗi lệnh bất đồng bộ chạy trên một virtual thread riêng: chờ I/O không chiếm platform thread,
+    // nên số lệnh song song không còn bị giới hạn bởi kích thước pool cố định
+    private final ExecutorService asyncExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ssh-exec-", 0).factory());
+
+    /**
+     * Công việc remote chạy bất đồng bộ: nhận handler để đẩy output, trả về CommandResult.
+     * Thường gồm mở session, gọi execute(...) với handler và đóng session.
+     */
+    @FunctionalInterface
+    public interface AsyncCommand {
+        CommandResult run(Consumer<String> outputHandler) throws Exception;
+    }
+
+    /**
+     * Thực thi lệnh và gom toàn bộ output.
+     *
+     * @param session SSH session đã kết nối
+     * @param command Lệnh shell cần chạy
+     * @param timeoutMs Deadline cho lệnh (<= 0 nghĩa là không giới hạn)
+     * @return CommandResult chứa stdout, stderr, exit status và thời gian chạy
+     * @throws JSchException nếu không mở/kết nối được channel
+     */
+    public CommandResult execute(Session session, String command, long timeoutMs) throws JSchException {
+        return execute(session, command, timeoutMs, null);
+    }
+
+    /**
+     * Thực thi lệnh, đồng thời đẩy từng đoạn output (stdout + stderr) đã decode UTF-8 cho outputHandler.
+     * Ký tự nhiều byte bị cắt giữa hai gói tin được giữ lại và ghép ở lần ghi sau.
+     *
+     * @param outputHandler Callback nhận output theo thời gian thực (có thể null)
+     */
+    public CommandResult execute(Session session, String command, long timeoutMs,
+                                 Consumer<String> outputHandler) throws JSchException {
+        return run(session, command, timeoutMs, new Execution(outputHandler));
+    }
+
+    private CommandResult run(Session session, String command, long timeoutMs, Execution execution)
+            throws JSchException {
+        long start = System.nanoTime();
+        ChannelExec channel;
+        try {
+            channel = (ChannelExec) session.openChannel("exec");
+        } catch (JSchException e) {
+            recordHealth(session, false);
+            throw e;
+        }
+        boolean timedOut = false;
+        try {
+            channel.setCommand(command);
+            channel.setOutputStream(execution.stdout);
+            channel.setErrStream(execution.stderr);
+            try {
+                channel.connect(channelConnectTimeoutMs);
+            } catch (JSchException e) {
+                recordHealth(session, false);
+                throw e;
+            }
+
+            try {
+                timedOut = !execution.await(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JSchException("Bi ngat khi cho lenh: " + command, e);
+            }
+            if (timedOut) {
+                System.err.println("[RemoteCommandExecutor] Timeout sau " + timeoutMs + "ms: " + command);
+            }
+        } finally {
+            if (channel.isConnected()) {
+                channel.disconnect();
+            }
+        }
+        // Lệnh chạy quá hạn trên session vẫn kết nối là lỗi của lệnh, không phải của đường truyền
+        recordHealth(session, !timedOut || session.isConnected());
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int exitStatus = timedOut ? -1 : channel.getExitStatus();
+        return new CommandResult(exitStatus, execution.stdout.text(), execution.stderr.text(), durationMs, timedOut);
+    }
+
+    /**
+     * Thực thi lệnh và đẩy stdout cho lineHandler theo từng dòng, không giữ toàn bộ output trong bộ nhớ.
+     * Dùng cho các lệnh trả về output lớn (kubectl get/top --all-namespaces) để người gọi tổng hợp
+     * ngay trên từng dòng thay vì trim().split("\\r?\\n") cả chuỗi.
+     *
+     * Quy trình xử lý:
+     * 1. Decode stdout UTF-8 tăng dần (như execute(...) có outputHandler)
+     * 2. Ghép các đoạn thành dòng, bỏ \r cuối dòng, gọi lineHandler cho mỗi dòng hoàn chỉnh
+     * 3. Dòng cuối không có \n được đẩy ra khi lệnh kết thúc
+     *
+     * lineHandler chạy trên thread của JSch Session nên cần xử lý nhanh, không chặn.
+     *
+     * @return CommandResult với stdout rỗng (đã đẩy hết qua lineHandler), stderr vẫn được gom đầy đủ
+     * @throws JSchException nếu không mở/kết nối được channel
+     */
+    public CommandResult executeLines(Session session, String command, long timeoutMs,
+                                      Consumer<String> lineHandler) throws JSchException {
+        LineAssembler lines = new LineAssembler(lineHandler);
+        CommandResult result = run(session, command, timeoutMs, Execution.lines(lines));
+        lines.finish();
+        return result;
+    }
+
+    /**
+     * Thực thi cả batch lệnh trong một channel (một round trip) và tách kết quả theo từng lệnh.
+     *
+     * @param session SSH session đã kết nối
+     * @param batch Danh sách lệnh
+     * @param timeoutMs Deadline cho cả batch (<= 0 nghĩa là không giới hạn)
+     * @return Kết quả từng lệnh theo khóa
+     * @throws JSchException nếu không mở/kết nối được channel
+     */
+    public RemoteCommandBatch.Results executeBatch(Session session, RemoteCommandBatch batch, long timeoutMs)
+            throws JSchException {
+        if (batch.isEmpty()) {
+            return batch.parse("", 0);
+        }
+        CommandResult scriptResult = execute(session, batch.toScript(), timeoutMs);
+        return batch.parse(scriptResult.stdout(), scriptResult.durationMs());
+    }
+
+    /**
+     * Thực thi lệnh bất đồng bộ trên virtual thread.
+     *
+     * @param session SSH session đã kết nối (người gọi tự trả/đóng session khi future hoàn tất)
+     * @param command Lệnh shell cần chạy
+     * @param timeoutMs Deadline cho lệnh (<= 0 nghĩa là không giới hạn)
+     * @return RemoteCommandFuture: hoàn tất với CommandResult, output() phát từng đoạn output
+     */
+    public RemoteCommandFuture executeAsync(Session session, String command, long timeoutMs) {
+        return submitAsync(outputHandler -> execute(session, command, timeoutMs, outputHandler), null);
+    }
+
+    /**
+     * Chạy một AsyncCommand trên virtual thread.
+     *
+     * Quy trình xử lý:
+     * 1. Tạo future kèm SubmissionPublisher cho output
+     * 2. Virtual thread chạy task, mỗi đoạn output được xếp hàng (không chặn thread đọc của Session)
+     * 3. Virtual thread thứ hai của lệnh phát hàng đợi qua publisher, chờ subscriber chậm nếu cần
+     * 4. Hoàn tất future với CommandResult (hoặc exception); publisher đóng sau khi phát hết output
+     * 5. cancel() trên future ngắt virtual thread, execute(...) đóng channel trong finally
+     *
+     * @param outputSubscriber Subscriber được đăng ký trước khi task chạy nên không bỏ lỡ output đầu tiên (có thể null)
+     */
+    public RemoteCommandFuture submitAsync(AsyncCommand task, Flow.Subscriber<? super String> outputSubscriber) {
+        RemoteCommandFuture future = new RemoteCommandFuture(new SubmissionPublisher<>(asyncExecutor, asyncOutputBuffer),
+                asyncOutputStallMs);
+        if (outputSubscriber != null) {
+            future.output().subscribe(outputSubscriber);
+        }
+        asyncExecutor.execute(future::drain);
+        asyncExecutor.execute(() -> {
+            future.attach(Thread.currentThread());
+            try {
+                // Có thể đã bị hủy trước khi thread kịp gắn vào future
+                if (future.isDone()) return;
+                future.complete(task.run(future::publish));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                future.detach();
+            }
+        });
+        return future;
+    }
+
+    private void recordHealth(Session session, boolean success) {
+        if (serverHealthRegistry != null) {
+            serverHealthRegistry.recordExec(session, success);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncExecutor.shutdownNow();
+    }
+
+    /**
+     * Trạng thái của một lần thực thi: hai sink và latch báo channel đã đóng.
+     * Sink stderr được JSch đóng trong Channel.disconnect() (khi nhận CLOSE hoặc session rớt),
+     * tức là sau khi exit-status đã được ghi nhận.
+     */
+    static final class Execution {
+        final StreamSink stdout;
+        final StreamSink stderr;
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        Execution(Consumer<String> outputHandler) {
+            this(outputHandler, true, outputHandler);
+        }
+
+        private Execution(Consumer<String> stdoutHandler, boolean keepStdout, Consumer<String> stderrHandler) {
+            this.stdout = new StreamSink(stdoutHandler, null, keepStdout);
+            this.stderr = new StreamSink(stderrHandler, closed, true);
+        }
+
+        /**
+         * Chế độ dòng: stdout chỉ đi qua lineAssembler, không lưu lại; stderr vẫn được gom.
+         */
+        static Execution lines(LineAssembler lineAssembler) {
+            return new Execution(lineAssembler, false, null);
+        }
+
+        boolean await(long timeoutMs) throws InterruptedException {
+            if (timeoutMs <= 0) {
+                closed.await();
+                return true;
+            }
+            return closed.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Ghép các đoạn text đã decode thành dòng (tách theo \n, bỏ \r cuối dòng) mà không dùng regex.
+     * Chỉ giữ phần dòng dở dang giữa hai đoạn.
+     */
+    static final class LineAssembler implements Consumer<String> {
+        private final Consumer<String> lineHandler;
+        private final StringBuilder partial = new StringBuilder();
+
+        LineAssembler(Consumer<String> lineHandler) {
+            this.lineHandler = lineHandler;
+        }
+
+        @Override
+        public synchronized void accept(String chunk) {
+            int from = 0;
+            int newline;
+            while ((newline = chunk.indexOf('\n', from)) >= 0) {
+                if (partial.isEmpty()) {
+                    emit(chunk, from, newline);
+                } else {
+                    partial.append(chunk, from, newline);
+                    emit(partial, 0, partial.length());
+                    partial.setLength(0);
+                }
+                from = newline + 1;
+            }
+            partial.append(chunk, from, chunk.length());
+        }
+
+        /**
+         * Đẩy dòng cuối cùng (output không kết thúc bằng \n).
+         */
+        synchronized void finish() {
+            if (!partial.isEmpty()) {
+                emit(partial, 0, partial.length());
+                partial.setLength(0);
+            }
+        }
+
+        private void emit(CharSequence text, int start, int end) {
+            if (end > start && text.charAt(end - 1) == '\r') {
+                end--;
+            }
+            lineHandler.accept(text.subSequence(start, end).toString());
+        }
+    }
+
+    /**
+     * OutputStream nhận dữ liệu từ thread của JSch: lưu bytes (nếu keepBytes) và (nếu có handler) decode UTF-8 tăng dần.
+     */
+    static final class StreamSink extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final boolean keepBytes;
+        private final Consumer<String> handler;
+        private final CountDownLatch onClose;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final CharsetDecoder decoder;
+        // Các byte cuối chưa đủ một ký tự (tối đa 3 byte với UTF-8)
+        private byte[] carry = new byte[0];
+
+        StreamSink(Consumer<String> handler, CountDownLatch onClose, boolean keepBytes) {
+            this.handler = handler;
+            this.keepBytes = keepBytes;
+            this.onClose = onClose;
+            this.decoder = handler == null ? null : StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (keepBytes) {
+                buffer.write(b, off, len);
+            }
+            if (handler == null || len == 0) return;
+
+            ByteBuffer in;
+            if (carry.length == 0) {
+                in = ByteBuffer.wrap(b, off, len);
+            } else {
+                in = ByteBuffer.allocate(carry.length + len);
+                in.put(carry).put(b, off, len).flip();
+            }
+            CharBuffer out = CharBuffer.allocate(in.remaining());
+            decoder.decode(in, out, false);
+            carry = new byte[in.remaining()];
+            in.get(carry);
+            out.flip();
+            if (out.hasRemaining()) {
+                handler.accept(out.toString());
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            if (handler != null && carry.length > 0) {
+                CharBuffer out = CharBuffer.allocate(carry.length + 1);
+                decoder.decode(ByteBuffer.wrap(carry), out, true);
+                decoder.flush(out);
+                carry = new byte[0];
+                out.flip();
+                if (out.hasRemaining()) handler.accept(out.toString());
+            }
+            if (onClose != null) {
+                onClose.countDown();
+            }
+        }
+
+        synchronized String text() {
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
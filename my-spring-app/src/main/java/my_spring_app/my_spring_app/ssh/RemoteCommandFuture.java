@@ -0,0 +1,171 @@
+package my_spring_app.my_spring_app.ssh;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Kết quả bất đồng bộ của một lệnh remote.
+ *
+ * - Hoàn tất với CommandResult khi channel đóng (hoặc khi hết deadline, timedOut = true)
+ * - output(): Flow.Publisher phát từng đoạn output (stdout + stderr, UTF-8) theo thời gian thực
+ * - cancel(): ngắt virtual thread đang chờ lệnh, channel được đóng ngay trong finally của executor
+ *
+ * Output được ghi từ thread đọc của JSch Session, thread này dùng chung cho mọi channel, SFTP và keep-alive
+ * của session nên không bao giờ được chặn. publish() chỉ thêm đoạn output vào hàng đợi riêng của lệnh;
+ * virtual thread drain() của lệnh phát lần lượt qua publisher và chờ khi subscriber chậm làm buffer đầy.
+ * Subscriber chậm chỉ làm hàng đợi của chính lệnh đó dài ra; publisher đóng sau khi phát hết hàng đợi
+ * (future có thể đã hoàn tất trước đó). Subscriber không nhận một đoạn output trong {@code stallTimeoutMs}
+ * (không request) thì đoạn đó bị bỏ với riêng subscriber này, để drain() không treo mãi.
+ */
+public class RemoteCommandFuture extends CompletableFuture<CommandResult> {
+
+    private final SubmissionPublisher<String> publisher;
+    private final long stallTimeoutMs;
+    private volatile Thread runner;
+    private volatile boolean stallReported;
+
+    // Việc chờ phát (đoạn output, đóng publisher) theo thứ tự; chỉ drain() lấy ra
+    private final BlockingQueue<Runnable> pending = new LinkedBlockingQueue<>();
+    private volatile Thread drainer;
+
+    RemoteCommandFuture(SubmissionPublisher<String> publisher, long stallTimeoutMs) {
+        this.publisher = publisher;
+        this.stallTimeoutMs = stallTimeoutMs;
+    }
+
+    /**
+     * Luồng output của lệnh. Publisher đóng (onComplete/onError) khi lệnh kết thúc.
+     * Subscriber đăng ký muộn chỉ nhận phần output phát sau thời điểm đăng ký;
+     * cần đủ output thì truyền subscriber ngay khi gọi execCommandAsync.
+     */
+    public Flow.Publisher<String> output() {
+        return publisher;
+    }
+
+    /**
+     * Tạo subscriber đơn giản nhận mọi đoạn output (không giới hạn demand).
+     */
+    public static Flow.Subscriber<String> consumer(Consumer<String> onChunk) {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(String chunk) {
+                onChunk.accept(chunk);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+    }
+
+    /**
+     * Nhận một đoạn output từ thread đọc của Session: chỉ xếp hàng, không chờ subscriber.
+     */
+    void publish(String chunk) {
+        if (publisher.isClosed()) {
+            // Lệnh đã bị hủy: không còn ai nhận output
+            return;
+        }
+        pending.add(() -> publisher.offer(chunk, stallTimeoutMs, TimeUnit.MILLISECONDS, this::dropStalled));
+    }
+
+    /**
+     * Phát hàng đợi output qua publisher cho tới khi publisher đóng. Chạy trên virtual thread riêng của lệnh:
+     * offer() chờ khi buffer của subscriber đầy chỉ chặn thread này. Dùng offer có hạn thay vì submit():
+     * submit() chờ trong khoá của publisher và không dừng khi bị ngắt, nên cancel() sẽ không đóng được publisher.
+     */
+    void drain() {
+        drainer = Thread.currentThread();
+        try {
+            while (!publisher.isClosed()) {
+                pending.take().run();
+            }
+        } catch (InterruptedException | IllegalStateException e) {
+            // cancel(): publisher đã đóng, phần output còn lại không còn ai nhận
+        } finally {
+            drainer = null;
+        }
+    }
+
+    private boolean dropStalled(Flow.Subscriber<? super String> subscriber, String chunk) {
+        if (!stallReported && !Thread.currentThread().isInterrupted()) {
+            stallReported = true;
+            System.err.println("[RemoteCommandFuture] Subscriber khong nhan output sau " + stallTimeoutMs
+                    + "ms, bo qua cac doan output bi tre");
+        }
+        return false;
+    }
+
+    void attach(Thread thread) {
+        this.runner = thread;
+    }
+
+    void detach() {
+        this.runner = null;
+    }
+
+    @Override
+    public boolean complete(CommandResult value) {
+        boolean completed = super.complete(value);
+        if (completed) {
+            // Đóng sau khi đã phát hết output đang chờ
+            pending.add(publisher::close);
+        }
+        return completed;
+    }
+
+    @Override
+    public boolean completeExceptionally(Throwable ex) {
+        boolean completed = super.completeExceptionally(ex);
+        if (completed) {
+            pending.add(() -> publisher.closeExceptionally(ex));
+        }
+        return completed;
+    }
+
+    /**
+     * Hủy lệnh: ngắt thread đang chờ để executor đóng channel, bỏ output chưa phát và giải phóng drain().
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            pending.clear();
+            // Đánh thức drain() đang chờ hàng đợi và ngắt offer() đang giữ khoá publisher trước khi đóng
+            pending.add(() -> { });
+            interrupt(drainer);
+            publisher.closeExceptionally(new CancellationException("Lenh da bi huy"));
+            interrupt(runner);
+        }
+        return cancelled;
+    }
+
+    private static void interrupt(Thread thread) {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Các stage phụ thuộc (thenApply, ...) là CompletableFuture thường, không mang publisher.
+     */
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,79 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.Identity;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+
+/**
+ * Thông tin kết nối đã resolve của một server (giữ trong ServerConnectionRegistry).
+ *
+ * @param serverId ID của server
+ * @param host IP/hostname
+ * @param port Cổng SSH (mặc định 22)
+ * @param username Tài khoản SSH
+ * @param password Mật khẩu (có thể null)
+ * @param status Trạng thái server tại thời điểm load
+ * @param identity SSH key đã parse sẵn (null nếu server không có key hoặc key lỗi)
+ * @param loadedAtMs Thời điểm load từ database
+ */
+public record ServerConnection(Long serverId, String host, int port, String username, String password,
+                               ServerEntity.ServerStatus status, Identity identity, long loadedAtMs) {
+
+    public boolean hasIdentity() {
+        return identity != null;
+    }
+
+    public boolean hasPassword() {
+        return password != null && !password.isBlank();
+    }
+
+    /**
+     * Tạo session (chưa connect) với SSH key đã parse sẵn hoặc mật khẩu, để người gọi cấu hình thêm.
+     *
+     * @param withIdentity true: xác thực bằng SSH key (không parse lại PEM), false: bằng mật khẩu
+     */
+    public Session newSession(boolean withIdentity) throws JSchException {
+        JSch jsch = new JSch();
+        if (withIdentity) {
+            if (identity == null) {
+                throw new JSchException("Server " + serverId + " khong co SSH key");
+            }
+            jsch.addIdentity(identity, null);
+        }
+        Session session = jsch.getSession(username, host, port);
+        if (!withIdentity) {
+            session.setPassword(password);
+        }
+        session.setConfig("StrictHostKeyChecking", "no");
+        return session;
+    }
+
+    /**
+     * Mở session bằng SSH key đã parse sẵn.
+     */
+    public Session openWithIdentity(int timeoutMs) throws JSchException {
+        return connect(newSession(true), timeoutMs);
+    }
+
+    /**
+     * Mở session bằng mật khẩu.
+     */
+    public Session openWithPassword(int timeoutMs) throws JSchException {
+        return connect(newSession(false), timeoutMs);
+    }
+
+    private Session connect(Session session, int timeoutMs) throws JSchException {
+        session.setTimeout(timeoutMs);
+        session.connect(timeoutMs);
+        return session;
+    }
+
+    @Override
+    public String toString() {
+        // Không in mật khẩu ra log
+        return "ServerConnection[serverId=" + serverId + ", " + username + "@" + host + ":" + port
+                + ", status=" + status + ", key=" + hasIdentity() + "]";
+    }
+}
@@ -0,0 +1,208 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.Identity;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.KeyPair;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.repository.ServerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache thông tin kết nối của server: host, port, user, password, status và SSH key đã parse sẵn.
+ *
+ * Trước đây mỗi lần execCommand đều findById + load lazy sshKey, rồi tạo JSch mới và parse lại
+ * PEM qua jsch.addIdentity(...). Registry giữ kết quả đó trong bộ nhớ nên các lệnh liên tiếp tới
+ * cùng server bỏ qua cả truy vấn DB lẫn bước parse key.
+ *
+ * Quy trình sử dụng:
+ * 1. {@link #get(Long)} để lấy ServerConnection (miss thì load từ DB và parse key một lần)
+ * 2. Dùng {@link ServerConnection#openWithIdentity(int)} / {@link ServerConnection#openWithPassword(int)}
+ * 3. Khi server được cập nhật, xóa, reconnect hoặc đổi trạng thái: gọi {@link #invalidate(Long)}
+ *
+ * Entry cũ hơn {@code ttlMs} được load lại để giới hạn độ trễ nếu có thay đổi ngoài ứng dụng.
+ */
+@Component
+public class ServerConnectionRegistry {
+
+    @Autowired
+    private ServerRepository serverRepository;
+
+    @Value("${app.ssh.registry.ttl-ms:600000}")
+    private long ttlMs = 600000;
+
+    private final Map<Long, ServerConnection> entries = new ConcurrentHashMap<>();
+
+    // JSch chỉ dùng làm tham số cho KeyPair.load (không tạo session)
+    private final JSch keyParser = new JSch();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Lấy thông tin kết nối của server.
+     *
+     * @param serverId ID của server
+     * @return ServerConnection đã resolve
+     * @throws RuntimeException nếu không tìm thấy server
+     */
+    public ServerConnection get(Long serverId) {
+        ServerConnection cached = entries.get(serverId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAtMs() < ttlMs) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        ServerConnection loaded = load(serverId);
+        entries.put(serverId, loaded);
+        System.out.println("[ServerConnectionRegistry] Load server ID " + serverId + " tu DB (hits=" + hits.get()
+                + ", misses=" + misses.get() + ")");
+        return loaded;
+    }
+
+    /**
+     * Bỏ entry của server (gọi sau khi update, delete, reconnect hoặc đổi status).
+     * Nếu đang trong transaction thì bỏ thêm một lần sau commit, tránh trường hợp thread khác
+     * load lại dữ liệu cũ trong khoảng giữa save và commit.
+     */
+    public void invalidate(Long serverId) {
+        if (serverId == null) return;
+        remove(serverId);
+        afterCommit(() -> remove(serverId));
+    }
+
+    /**
+     * Bỏ toàn bộ entry (ví dụ sau khi cập nhật status hàng loạt).
+     */
+    public void invalidateAll() {
+        clear();
+        afterCommit(this::clear);
+    }
+
+    private void remove(Long serverId) {
+        if (entries.remove(serverId) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private void clear() {
+        int size = entries.size();
+        entries.clear();
+        invalidations.addAndGet(size);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Thống kê hit/miss của registry.
+     */
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), invalidations.get(), entries.size());
+    }
+
+    private ServerConnection load(Long serverId) {
+        ServerEntity server = serverRepository.findByIdWithSshKey(serverId)
+                .orElseThrow(() -> new RuntimeException("Khong tim thay server voi ID: " + serverId));
+
+        Identity identity = null;
+        if (server.getSshKey() != null) {
+            String pem = server.getSshKey().getEncryptedPrivateKey();
+            if (pem != null && !pem.isBlank()) {
+                try {
+                    identity = new KeyPairIdentity("server-" + serverId,
+                            KeyPair.load(keyParser, pem.getBytes(StandardCharsets.UTF_8), null));
+                } catch (JSchException e) {
+                    System.err.println("[ServerConnectionRegistry] Khong parse duoc SSH key cua server ID " + serverId
+                            + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return new ServerConnection(server.getId(), server.getIp(),
+                server.getPort() != null ? server.getPort() : 22, server.getUsername(), server.getPassword(),
+                server.getStatus(), identity, System.currentTimeMillis());
+    }
+
+    /**
+     * Thống kê của registry.
+     */
+    public record Stats(long hits, long misses, long invalidations, int size) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Identity bọc KeyPair đã parse: JSch ký bằng key này cho mọi session, không parse lại PEM.
+     * KeyPair tạo Signature mới cho mỗi lần ký nên dùng chung giữa các session là an toàn.
+     */
+    private static final class KeyPairIdentity implements Identity {
+        private final String name;
+        private final KeyPair keyPair;
+
+        KeyPairIdentity(String name, KeyPair keyPair) {
+            this.name = name;
+            this.keyPair = keyPair;
+        }
+
+        @Override
+        public boolean setPassphrase(byte[] passphrase) {
+            return keyPair.decrypt(passphrase);
+        }
+
+        @Override
+        public byte[] getPublicKeyBlob() {
+            return keyPair.getPublicKeyBlob();
+        }
+
+        @Override
+        public byte[] getSignature(byte[] data) {
+            return keyPair.getSignature(data);
+        }
+
+        @Override
+        public byte[] getSignature(byte[] data, String alg) {
+            return keyPair.getSignature(data, alg);
+        }
+
+        @Override
+        public String getAlgName() {
+            return keyPair.getKeyTypeString();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isEncrypted() {
+            return keyPair.isEncrypted();
+        }
+
+        @Override
+        public void clear() {
+            // Key dùng chung giữa nhiều session: không xóa khi một JSch giải phóng identity
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.exception.ServerUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker + thống kê độ trễ theo từng server.
+ *
+ * Khi MASTER chậm hoặc chết, mỗi request trước đây phải chờ hết timeout kết nối cố định (7s), và
+ * các request song song xếp hàng chờ cùng một host chết. Registry theo dõi kết quả kết nối/thực thi
+ * gần đây của từng server để chặn sớm:
+ *
+ * - CLOSED: hoạt động bình thường
+ * - OPEN: sau {@code failureThreshold} lỗi liên tiếp; mọi lời gọi bị từ chối ngay
+ *   (ServerUnavailableException) trong {@code openDurationMs}
+ * - HALF_OPEN: hết thời gian OPEN, cho đúng một lời gọi thử; thành công thì CLOSED, lỗi thì OPEN lại
+ *
+ * Timeout kết nối được tính từ độ trễ kết nối quan sát được (p95 x {@code connectTimeoutFactor},
+ * giới hạn trong [min, max]) thay vì cố định; chưa đủ mẫu thì dùng giá trị max.
+ */
+@Component
+public class ServerHealthRegistry {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${app.ssh.health.failure-threshold:3}")
+    private int failureThreshold = 3;
+
+    @Value("${app.ssh.health.open-duration-ms:30000}")
+    private long openDurationMs = 30000;
+
+    @Value("${app.ssh.health.latency-window:50}")
+    private int latencyWindow = 50;
+
+    // Số mẫu tối thiểu trước khi dùng timeout thích ứng
+    @Value("${app.ssh.health.min-samples:5}")
+    private int minSamples = 5;
+
+    @Value("${app.ssh.health.connect-timeout-factor:3.0}")
+    private double connectTimeoutFactor = 3.0;
+
+    @Value("${app.ssh.health.connect-timeout-min-ms:1500}")
+    private int connectTimeoutMinMs = 1500;
+
+    @Value("${app.ssh.health.connect-timeout-max-ms:7000}")
+    private int connectTimeoutMaxMs = 7000;
+
+    private final Map<Long, Health> servers = new ConcurrentHashMap<>();
+
+    // Session của pool -> server ID, để ghi nhận kết quả thực thi lệnh trên session đó
+    private final Map<Session, Long> boundSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Kiểm tra server có được phép gọi không.
+     *
+     * @throws ServerUnavailableException nếu breaker đang OPEN (hoặc HALF_OPEN và đã có lời gọi thử)
+     */
+    public void checkAvailable(Long serverId) {
+        if (serverId == null) return;
+        Health health = health(serverId);
+        synchronized (health) {
+            long now = System.currentTimeMillis();
+            if (health.state == State.OPEN && now - health.openedAtMs >= openDurationMs) {
+                health.state = State.HALF_OPEN;
+                health.probeInFlight = false;
+                System.out.println("[ServerHealthRegistry] Server ID " + serverId + " chuyen sang HALF_OPEN, cho phep goi thu");
+            }
+            if (health.state == State.HALF_OPEN) {
+                // Lời gọi thử không ghi nhận kết quả (ví dụ dùng lại session sẵn có) thì cho thử lại sau openDurationMs
+                if (!health.probeInFlight || now - health.probeStartedAtMs >= openDurationMs) {
+                    health.probeInFlight = true;
+                    health.probeStartedAtMs = now;
+                    return;
+                }
+                throw new ServerUnavailableException(serverId, openDurationMs,
+                        "Server ID " + serverId + " đang được kiểm tra lại kết nối, vui lòng thử lại sau");
+            }
+            if (health.state == State.OPEN) {
+                long retryAfterMs = openDurationMs - (now - health.openedAtMs);
+                throw new ServerUnavailableException(serverId, retryAfterMs,
+                        "Server ID " + serverId + " tạm thời không khả dụng sau " + health.consecutiveFailures
+                                + " lần lỗi liên tiếp, thử lại sau " + Math.max(1, retryAfterMs / 1000) + " giây");
+            }
+        }
+    }
+
+    /**
+     * Ghi nhận kết quả một lần kết nối SSH (latency chỉ dùng khi thành công).
+     */
+    public void recordConnect(Long serverId, long latencyMs, boolean success) {
+        if (serverId == null) return;
+        Health health = health(serverId);
+        synchronized (health) {
+            if (success) {
+                health.addLatency(latencyMs);
+                onSuccess(health);
+            } else {
+                onFailure(serverId, health);
+            }
+        }
+    }
+
+    /**
+     * Ghi nhận kết quả thực thi lệnh trên session đã bind (session ngoài pool được bỏ qua).
+     * Exit code khác 0 vẫn là thành công về mặt kết nối; chỉ lỗi channel hoặc session rớt (kể cả khi lệnh
+     * timeout vì session rớt) tính là lỗi. Lệnh chạy quá hạn trên session còn sống không làm mở breaker.
+     */
+    public void recordExec(Session session, boolean success) {
+        Long serverId = session == null ? null : boundSessions.get(session);
+        if (serverId == null) return;
+        Health health = health(serverId);
+        synchronized (health) {
+            if (success) {
+                onSuccess(health);
+            } else {
+                onFailure(serverId, health);
+            }
+        }
+    }
+
+    /**
+     * Timeout kết nối cho server dựa trên độ trễ kết nối gần đây.
+     */
+    public int connectTimeoutMs(Long serverId) {
+        Health health = serverId == null ? null : servers.get(serverId);
+        if (health == null) return connectTimeoutMaxMs;
+        synchronized (health) {
+            if (health.sampleCount < minSamples) return connectTimeoutMaxMs;
+            long adaptive = (long) Math.ceil(health.percentile(0.95) * connectTimeoutFactor);
+            return (int) Math.max(connectTimeoutMinMs, Math.min(connectTimeoutMaxMs, adaptive));
+        }
+    }
+
+    void bind(Session session, Long serverId) {
+        boundSessions.put(session, serverId);
+    }
+
+    void unbind(Session session) {
+        boundSessions.remove(session);
+    }
+
+    /**
+     * Bỏ trạng thái của server (khi đổi IP/port hoặc reconnect thủ công).
+     */
+    public void reset(Long serverId) {
+        if (serverId != null) {
+            servers.remove(serverId);
+        }
+    }
+
+    /**
+     * Trạng thái hiện tại của server.
+     */
+    public Snapshot snapshot(Long serverId) {
+        Health health = servers.get(serverId);
+        if (health == null) {
+            return new Snapshot(State.CLOSED, 0, 0, 0, connectTimeoutMaxMs);
+        }
+        int timeout = connectTimeoutMs(serverId);
+        synchronized (health) {
+            return new Snapshot(health.state, health.consecutiveFailures,
+                    health.percentile(0.5), health.percentile(0.95), timeout);
+        }
+    }
+
+    public record Snapshot(State state, int consecutiveFailures, long connectP50Ms, long connectP95Ms,
+                           int connectTimeoutMs) {
+    }
+
+    private void onSuccess(Health health) {
+        health.consecutiveFailures = 0;
+        health.probeInFlight = false;
+        health.state = State.CLOSED;
+    }
+
+    private void onFailure(Long serverId, Health health) {
+        health.consecutiveFailures++;
+        health.probeInFlight = false;
+        if (health.state == State.HALF_OPEN || health.consecutiveFailures >= failureThreshold) {
+            if (health.state != State.OPEN) {
+                System.err.println("[ServerHealthRegistry] Server ID " + serverId + " chuyen sang OPEN sau "
+                        + health.consecutiveFailures + " loi lien tiep");
+            }
+            health.state = State.OPEN;
+            health.openedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    private Health health(Long serverId) {
+        return servers.computeIfAbsent(serverId, id -> new Health(latencyWindow));
+    }
+
+    /**
+     * Trạng thái breaker + ring buffer độ trễ kết nối của một server (truy cập trong synchronized).
+     */
+    private static final class Health {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAtMs;
+        private boolean probeInFlight;
+        private long probeStartedAtMs;
+        private final long[] latencies;
+        private int sampleCount;
+        private int next;
+
+        private Health(int window) {
+            this.latencies = new long[Math.max(1, window)];
+        }
+
+        private void addLatency(long latencyMs) {
+            latencies[next] = latencyMs;
+            next = (next + 1) % latencies.length;
+            sampleCount = Math.min(sampleCount + 1, latencies.length);
+        }
+
+        private long percentile(double p) {
+            if (sampleCount == 0) return 0;
+            long[] sorted = Arrays.copyOf(latencies, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(p * sampleCount) - 1;
+            return sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpProgressMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Upload một luồng dữ liệu lên server qua SFTP, tính SHA-256 ngay trong lúc gửi.
+ *
+ * Trước đây các service deploy gọi {@code sftp.put(file.getInputStream(), path)} với cấu hình mặc định của JSch
+ * (16 lệnh WRITE chờ ack, tức khoảng 512KB đang trên đường truyền): với link có RTT vài chục ms, upload zip
+ * 100MB bị giới hạn bởi số lệnh chờ ack chứ không phải băng thông. Ở đây số lệnh WRITE gửi liên tiếp
+ * (pipelining) được nâng lên {@code bulkRequests}, JSch đọc thẳng từ luồng nguồn vào packet (không có buffer
+ * trung gian), và mỗi byte đi qua MessageDigest một lần nên có checksum mà không phải đọc lại file.
+ *
+ * Window của channel khi upload do server quảng bá (OpenSSH: 2MB, bằng 64 lệnh x 32KB); window local của JSch
+ * chỉ ảnh hưởng chiều tải về nên không được chỉnh ở đây.
+ */
+@Component
+public class SftpStreamUploader {
+
+    // Số lệnh SSH_FXP_WRITE được gửi trước khi chờ ack (mỗi lệnh tối đa ~32KB)
+    @Value("${app.ssh.sftp.bulk-requests:64}")
+    private int bulkRequests = 64;
+
+    /**
+     * Kết quả upload: số byte, SHA-256 (hex) và thời gian gửi.
+     */
+    public record UploadResult(String remotePath, long bytes, String sha256, long elapsedMs) {
+
+        public double megabytesPerSecond() {
+            return elapsedMs > 0 ? (bytes / 1048576d) / (elapsedMs / 1000d) : 0;
+        }
+
+        public String describe() {
+            return String.format("%.1f MB trong %d ms (%.1f MB/s), sha256 %s",
+                    bytes / 1048576d, elapsedMs, megabytesPerSecond(), sha256);
+        }
+    }
+
+    /**
+     * Ghi đè {@code remotePath} bằng nội dung của {@code in}; luồng nguồn được đóng sau khi gửi xong.
+     */
+    public UploadResult upload(ChannelSftp sftp, InputStream in, String remotePath) throws SftpException, IOException {
+        try {
+            sftp.setBulkRequests(bulkRequests);
+        } catch (JSchException e) {
+            System.err.println("[SftpStreamUploader] Khong dat duoc bulk requests " + bulkRequests + ": " + e.getMessage());
+        }
+        MessageDigest digest = newSha256();
+        ByteCounter counter = new ByteCounter();
+        long start = System.currentTimeMillis();
+        try (InputStream source = new DigestInputStream(in, digest)) {
+            sftp.put(source, remotePath, counter, ChannelSftp.OVERWRITE);
+        }
+        UploadResult result = new UploadResult(remotePath, counter.bytes, HexFormat.of().formatHex(digest.digest()),
+                System.currentTimeMillis() - start);
+        System.out.println("[SftpStreamUploader] Upload " + remotePath + ": " + result.describe());
+        return result;
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM khong ho tro SHA-256", e);
+        }
+    }
+
+    // Đếm số byte JSch đã gửi
+    private static final class ByteCounter implements SftpProgressMonitor {
+
+        private long bytes;
+
+        @Override
+        public void init(int op, String src, String dest, long max) {
+        }
+
+        @Override
+        public boolean count(long count) {
+            bytes += count;
+            return true;
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
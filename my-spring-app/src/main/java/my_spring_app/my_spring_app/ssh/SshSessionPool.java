@@ -0,0 +1,479 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import jakarta.annotation.PreDestroy;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool SSH session dùng chung cho các server MASTER/DOCKER/WORKER.
+ *
+ * Mỗi server (khóa theo ServerEntity.id) giữ tối đa {@code maxSessionsPerServer} session đã
+ * handshake + xác thực sẵn. Mỗi session cho phép tối đa {@code maxChannelsPerSession} lượt mượn
+ * đồng thời (mỗi lượt mượn mở ChannelExec/ChannelSftp trên cùng một kết nối TCP).
+ *
+ * Quy trình sử dụng:
+ * 1. {@link #acquire(ServerEntity)} để mượn session (tự tạo mới nếu chưa có hoặc đã đầy);
+ *    server xác thực bằng SSH key thì dùng {@link #acquire(ServerConnection)}
+ * 2. Mở channel và thực thi lệnh như bình thường
+ * 3. {@link #release(Session)} trong finally thay cho session.disconnect()
+ *
+ * Session nhàn rỗi quá {@code idleTimeoutMs} sẽ bị đóng bởi tác vụ dọn dẹp nền.
+ * Khi thông tin đăng nhập của server thay đổi, gọi {@link #invalidate(Long)} để bỏ các session cũ.
+ * Server đang bị circuit breaker chặn (ServerHealthRegistry) bị từ chối ngay, không chờ timeout kết nối.
+ *
+ * Handshake SSH (tối đa vài giây) chạy ngoài khoá của server: slot được giữ chỗ trong khoá, kết nối ngoài khoá,
+ * nên các handshake tới cùng host chạy song song và {@link #release(Session)} không phải chờ. Khoá là
+ * ReentrantLock/Condition thay vì synchronized/wait để không ghim virtual thread khi chờ.
+ */
+@Component
+public class SshSessionPool {
+
+    @Value("${app.ssh.pool.max-sessions-per-server:4}")
+    private int maxSessionsPerServer;
+
+    @Value("${app.ssh.pool.max-channels-per-session:8}")
+    private int maxChannelsPerSession;
+
+    @Value("${app.ssh.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    @Value("${app.ssh.pool.keepalive-interval-ms:15000}")
+    private int keepaliveIntervalMs;
+
+    // Chỉ dùng khi không có ServerHealthRegistry; bình thường timeout lấy từ độ trễ kết nối quan sát được
+    @Value("${app.ssh.pool.connect-timeout-ms:7000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.ssh.pool.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs;
+
+    // Circuit breaker + timeout thích ứng theo server
+    @Autowired(required = false)
+    private ServerHealthRegistry serverHealthRegistry;
+
+    // Danh sách session theo server id
+    private final Map<Long, ServerSlot> slots = new ConcurrentHashMap<>();
+
+    // Tra ngược từ Session đang được mượn về entry trong pool (Session không override equals/hashCode)
+    private final Map<Session, PooledSession> leased = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ssh-pool-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SshSessionPool() {
+        evictor.scheduleWithFixedDelay(this::evictIdle, 30, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Mượn một SSH session đã kết nối tới server.
+     *
+     * Quy trình xử lý:
+     * 0. Từ chối ngay nếu circuit breaker của server đang OPEN
+     * 1. Bỏ các session đã chết hoặc có thông tin đăng nhập cũ
+     * 2. Chọn session còn slot channel trống, ít lượt mượn nhất
+     * 3. Nếu không có và chưa đạt giới hạn thì tạo session mới
+     * 4. Nếu đã đạt giới hạn thì chờ đến khi có session được trả lại (tối đa acquireTimeoutMs)
+     *
+     * @param server ServerEntity chứa IP, port, username, password
+     * @return Session đã kết nối, phải trả lại bằng {@link #release(Session)}
+     * @throws JSchException nếu không kết nối được hoặc hết thời gian chờ
+     */
+    public Session acquire(ServerEntity server) throws JSchException {
+        if (server == null || server.getId() == null) {
+            throw new IllegalArgumentException("Server không hợp lệ để tạo SSH session");
+        }
+        return acquire(server.getId(), credentialKey(server.getIp(), server.getPort(), server.getUsername(),
+                server.getPassword()), server.getIp() + ":" + server.getPort(), timeoutMs -> open(server, timeoutMs));
+    }
+
+    /**
+     * Mượn session bằng thông tin kết nối của ServerConnectionRegistry: ưu tiên SSH key đã parse sẵn,
+     * key lỗi thì thử mật khẩu. Dùng chung slot (và session) với {@link #acquire(ServerEntity)} của cùng server.
+     *
+     * @param connection Thông tin kết nối đã resolve
+     * @return Session đã kết nối, phải trả lại bằng {@link #release(Session)}
+     * @throws JSchException nếu không kết nối được hoặc hết thời gian chờ
+     */
+    public Session acquire(ServerConnection connection) throws JSchException {
+        if (connection == null || connection.serverId() == null) {
+            throw new IllegalArgumentException("Server không hợp lệ để tạo SSH session");
+        }
+        return acquire(connection.serverId(), credentialKey(connection.host(), connection.port(),
+                connection.username(), connection.password()), connection.host() + ":" + connection.port(),
+                timeoutMs -> open(connection, timeoutMs));
+    }
+
+    private Session acquire(Long serverId, String credentialKey, String address, Opener opener) throws JSchException {
+        if (serverHealthRegistry != null) {
+            serverHealthRegistry.checkAvailable(serverId);
+        }
+        ServerSlot slot = slots.computeIfAbsent(serverId, id -> new ServerSlot());
+        long deadline = System.currentTimeMillis() + acquireTimeoutMs;
+
+        slot.lock.lock();
+        try {
+            while (true) {
+                slot.prune(credentialKey);
+
+                PooledSession best = null;
+                for (PooledSession ps : slot.sessions) {
+                    if (ps.retired || ps.leases >= maxChannelsPerSession) continue;
+                    if (best == null || ps.leases < best.leases) best = ps;
+                }
+                if (best != null) {
+                    return lease(best);
+                }
+
+                // Giữ chỗ cho session mới, handshake chạy ngoài khoá
+                if (slot.liveCount() + slot.connecting < maxSessionsPerServer) {
+                    slot.connecting++;
+                    break;
+                }
+
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new JSchException("Het thoi gian cho SSH session toi server ID: " + serverId);
+                }
+                try {
+                    slot.changed.await(remaining, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JSchException("Bi ngat khi cho SSH session toi server ID: " + serverId);
+                }
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+
+        Session session = null;
+        try {
+            session = connect(serverId, opener);
+        } finally {
+            slot.lock.lock();
+            try {
+                slot.connecting--;
+                if (session != null) {
+                    PooledSession ps = new PooledSession(serverId, session, credentialKey);
+                    slot.sessions.add(ps);
+                    System.out.println("[SshSessionPool] Tao session moi toi " + address
+                            + " (server ID: " + serverId + ", tong: " + slot.liveCount() + ")");
+                    lease(ps);
+                }
+                // Kết nối lỗi: trả chỗ đã giữ để request đang chờ thử kết nối
+                slot.changed.signalAll();
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Mở session riêng, không nằm trong pool, cho kết nối sống lâu (SSH tunnel tới API server).
+     * Dùng chung logic kết nối của pool: chặn sớm khi circuit breaker OPEN, timeout thích ứng,
+     * ghi nhận kết quả kết nối, SSH key (fallback mật khẩu) và keep-alive. Lỗi thực thi lệnh trên
+     * session này cũng được tính cho breaker của server.
+     *
+     * @param connection Thông tin kết nối đã resolve
+     * @return Session đã kết nối, người gọi đóng bằng {@link #closeDedicated(Session)}
+     * @throws JSchException nếu không kết nối được
+     */
+    public Session openDedicated(ServerConnection connection) throws JSchException {
+        if (serverHealthRegistry != null) {
+            serverHealthRegistry.checkAvailable(connection.serverId());
+        }
+        return connect(connection.serverId(), timeoutMs -> open(connection, timeoutMs));
+    }
+
+    /**
+     * Đóng session mở bằng {@link #openDedicated(ServerConnection)}.
+     */
+    public void closeDedicated(Session session) {
+        if (session == null) return;
+        if (serverHealthRegistry != null) serverHealthRegistry.unbind(session);
+        if (session.isConnected()) session.disconnect();
+    }
+
+    /**
+     * Trả session về pool sau khi dùng xong.
+     * Session không thuộc pool (tạo ngoài pool) sẽ được đóng trực tiếp.
+     *
+     * @param session Session đã mượn bằng {@link #acquire(ServerEntity)}
+     */
+    public void release(Session session) {
+        if (session == null) return;
+        PooledSession ps = leased.get(session);
+        if (ps == null) {
+            if (session.isConnected()) session.disconnect();
+            return;
+        }
+        ServerSlot slot = slots.get(ps.serverId);
+        if (slot == null) {
+            closeQuietly(ps);
+            return;
+        }
+        slot.lock.lock();
+        try {
+            ps.leases = Math.max(0, ps.leases - 1);
+            ps.lastUsed = System.currentTimeMillis();
+            if (ps.leases == 0) {
+                leased.remove(session);
+                if (ps.retired || !session.isConnected()) {
+                    slot.sessions.remove(ps);
+                    closeQuietly(ps);
+                }
+            }
+            slot.changed.signalAll();
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * Bỏ toàn bộ session của một server (khi đổi IP/port/username/password hoặc reconnect).
+     * Session đang được mượn sẽ bị đóng khi lượt mượn cuối cùng trả về.
+     *
+     * @param serverId ID của server
+     */
+    public void invalidate(Long serverId) {
+        if (serverId == null) return;
+        // Thông tin kết nối đã đổi: bỏ luôn trạng thái breaker/độ trễ cũ
+        if (serverHealthRegistry != null) {
+            serverHealthRegistry.reset(serverId);
+        }
+        ServerSlot slot = slots.get(serverId);
+        if (slot == null) return;
+        slot.lock.lock();
+        try {
+            int closed = 0;
+            Iterator<PooledSession> it = slot.sessions.iterator();
+            while (it.hasNext()) {
+                PooledSession ps = it.next();
+                ps.retired = true;
+                if (ps.leases == 0) {
+                    it.remove();
+                    closeQuietly(ps);
+                    closed++;
+                }
+            }
+            slot.changed.signalAll();
+            System.out.println("[SshSessionPool] Invalidate server ID: " + serverId + ", da dong " + closed + " session");
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    /**
+     * Đóng các session nhàn rỗi quá idleTimeoutMs hoặc đã mất kết nối.
+     */
+    void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, ServerSlot> entry : slots.entrySet()) {
+            ServerSlot slot = entry.getValue();
+            slot.lock.lock();
+            try {
+                Iterator<PooledSession> it = slot.sessions.iterator();
+                while (it.hasNext()) {
+                    PooledSession ps = it.next();
+                    if (ps.leases > 0) continue;
+                    boolean dead = !ps.session.isConnected();
+                    boolean idle = now - ps.lastUsed > idleTimeoutMs;
+                    if (dead || idle || ps.retired) {
+                        it.remove();
+                        closeQuietly(ps);
+                        System.out.println("[SshSessionPool] Dong session " + (dead ? "mat ket noi" : "nhan roi")
+                                + " cua server ID: " + entry.getKey());
+                    }
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+        for (ServerSlot slot : slots.values()) {
+            slot.lock.lock();
+            try {
+                for (PooledSession ps : slot.sessions) {
+                    closeQuietly(ps);
+                }
+                slot.sessions.clear();
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        leased.clear();
+    }
+
+    private Session lease(PooledSession ps) {
+        ps.leases++;
+        ps.lastUsed = System.currentTimeMillis();
+        leased.put(ps.session, ps);
+        return ps.session;
+    }
+
+    /**
+     * Tạo session mới qua opener, ghi nhận kết quả kết nối cho circuit breaker của server.
+     */
+    private Session connect(Long serverId, Opener opener) throws JSchException {
+        int timeoutMs = serverHealthRegistry != null
+                ? serverHealthRegistry.connectTimeoutMs(serverId)
+                : connectTimeoutMs;
+        long start = System.nanoTime();
+        Session session;
+        try {
+            session = opener.open(timeoutMs);
+        } catch (JSchException e) {
+            if (serverHealthRegistry != null) {
+                serverHealthRegistry.recordConnect(serverId, 0, false);
+            }
+            throw e;
+        }
+        if (serverHealthRegistry != null) {
+            serverHealthRegistry.recordConnect(serverId,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), true);
+            serverHealthRegistry.bind(session, serverId);
+        }
+        return session;
+    }
+
+    /**
+     * Xác thực bằng password, tắt StrictHostKeyChecking,
+     * bật keep-alive để giữ kết nối ấm giữa các request.
+     */
+    Session open(ServerEntity server, int timeoutMs) throws JSchException {
+        JSch jsch = new JSch();
+        Session session = jsch.getSession(server.getUsername(), server.getIp(), server.getPort());
+        session.setPassword(server.getPassword());
+        Properties config = new Properties();
+        config.put("StrictHostKeyChecking", "no");
+        session.setConfig(config);
+        session.setTimeout(timeoutMs);
+        session.connect(timeoutMs);
+        keepAlive(session);
+        return session;
+    }
+
+    /**
+     * Xác thực bằng SSH key đã parse sẵn (fallback mật khẩu), bật keep-alive.
+     */
+    Session open(ServerConnection connection, int timeoutMs) throws JSchException {
+        Session session = null;
+        if (connection.hasIdentity()) {
+            try {
+                session = connection.openWithIdentity(timeoutMs);
+            } catch (JSchException e) {
+                if (!connection.hasPassword()) throw e;
+                System.out.println("[SshSessionPool] SSH key that bai cho server ID " + connection.serverId()
+                        + ", thu bang password: " + e.getMessage());
+            }
+        }
+        if (session == null) {
+            session = connection.openWithPassword(timeoutMs);
+        }
+        keepAlive(session);
+        return session;
+    }
+
+    private void keepAlive(Session session) throws JSchException {
+        // Keep-alive: gửi gói tin mỗi keepaliveIntervalMs, đóng sau 3 lần không phản hồi
+        session.setServerAliveInterval(keepaliveIntervalMs);
+        session.setServerAliveCountMax(3);
+    }
+
+    private void closeQuietly(PooledSession ps) {
+        try {
+            leased.remove(ps.session);
+            if (serverHealthRegistry != null) serverHealthRegistry.unbind(ps.session);
+            if (ps.session.isConnected()) ps.session.disconnect();
+        } catch (Exception ignored) {
+        }
+    }
+
+    // Cùng định dạng cho ServerEntity và ServerConnection để hai cách mượn dùng chung session
+    private static String credentialKey(String host, Integer port, String username, String password) {
+        return host + ":" + (port != null ? port : 22) + ":" + username + ":" + Objects.hashCode(password);
+    }
+
+    /**
+     * Cách mở session mới (theo ServerEntity hoặc ServerConnection).
+     */
+    @FunctionalInterface
+    private interface Opener {
+        Session open(int timeoutMs) throws JSchException;
+    }
+
+    /**
+     * Các session của một server. Mọi truy cập đều nằm trong {@code lock}.
+     */
+    private static class ServerSlot {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Báo cho request đang chờ khi session được trả, bị bỏ hoặc một lần kết nối kết thúc
+        private final Condition changed = lock.newCondition();
+        private final List<PooledSession> sessions = new ArrayList<>();
+        // Số session đang handshake (đã giữ chỗ, chưa nằm trong sessions)
+        private int connecting;
+
+        // Đánh dấu retired các session chết hoặc thông tin đăng nhập đã cũ; đóng ngay nếu không ai mượn
+        private void prune(String credentialKey) {
+            Iterator<PooledSession> it = sessions.iterator();
+            while (it.hasNext()) {
+                PooledSession ps = it.next();
+                if (!ps.session.isConnected() || !ps.credentialKey.equals(credentialKey)) {
+                    ps.retired = true;
+                }
+                if (ps.retired && ps.leases == 0) {
+                    it.remove();
+                    if (ps.session.isConnected()) ps.session.disconnect();
+                }
+            }
+        }
+
+        private int liveCount() {
+            int count = 0;
+            for (PooledSession ps : sessions) {
+                if (!ps.retired) count++;
+            }
+            return count;
+        }
+    }
+
+    private static class PooledSession {
+        private final Long serverId;
+        private final Session session;
+        private final String credentialKey;
+        private int leases;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean retired;
+
+        private PooledSession(Long serverId, Session session, String credentialKey) {
+            this.serverId = serverId;
+            this.session = session;
+            this.credentialKey = credentialKey;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package my_spring_app.my_spring_app.tenancy;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener chuyển sự kiện lưu/xoá của user, project và Database/Backend/Frontend sang TenancyIndex.
+ *
+ * Hibernate tạo listener qua Spring (SpringBeanContainer) nên field được inject; TenancyIndex được lấy
+ * qua ObjectProvider lúc có sự kiện vì listener được tạo cùng EntityManagerFactory, trước các repository
+ * mà TenancyIndex phụ thuộc.
+ */
+public class TenancyEntityListener {
+
+    @Autowired
+    private ObjectProvider<TenancyIndex> tenancyIndex;
+
+    @PostPersist
+    @PostUpdate
+    void saved(Object entity) {
+        TenancyIndex index = tenancyIndex != null ? tenancyIndex.getIfAvailable() : null;
+        if (index != null) {
+            index.onSaved(entity);
+        }
+    }
+
+    @PostRemove
+    void removed(Object entity) {
+        TenancyIndex index = tenancyIndex != null ? tenancyIndex.getIfAvailable() : null;
+        if (index != null) {
+            index.onRemoved(entity);
+        }
+    }
+}
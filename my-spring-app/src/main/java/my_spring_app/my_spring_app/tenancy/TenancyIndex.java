@@ -0,0 +1,481 @@
+package my_spring_app.my_spring_app.tenancy;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import my_spring_app.my_spring_app.entity.ProjectBackendEntity;
+import my_spring_app.my_spring_app.entity.ProjectDatabaseEntity;
+import my_spring_app.my_spring_app.entity.ProjectEntity;
+import my_spring_app.my_spring_app.entity.ProjectFrontendEntity;
+import my_spring_app.my_spring_app.entity.UserEntity;
+import my_spring_app.my_spring_app.repository.ProjectBackendRepository;
+import my_spring_app.my_spring_app.repository.ProjectDatabaseRepository;
+import my_spring_app.my_spring_app.repository.ProjectFrontendRepository;
+import my_spring_app.my_spring_app.repository.ProjectRepository;
+import my_spring_app.my_spring_app.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Chỉ mục trong bộ nhớ: namespace <-> project <-> user, số project của từng user, số Database/Backend/Frontend
+ * của từng project và thống kê theo tier.
+ *
+ * Trước đây các màn hình tổng quan của admin mỗi lần gọi đều findAll() bảng users và projects rồi dựng lại
+ * map namespace -> owner. Chỉ mục được nạp một lần bằng các query projection, sau đó cập nhật theo sự kiện
+ * JPA (TenancyEntityListener) sau khi transaction commit.
+ *
+ * Quy trình sử dụng:
+ * 1. Đọc qua các hàm user/project/namespace... (lần đọc đầu tiên nạp chỉ mục nếu chưa có)
+ * 2. Thay đổi qua JPA được áp dụng tự động; thay đổi ngoài ứng dụng được sửa ở lượt nạp lại định kỳ
+ *    (app.tenancy.resync-interval-ms)
+ */
+@Component
+public class TenancyIndex {
+
+    /**
+     * Role chuẩn của user khách hàng, chỉ user có role này được tính vào thống kê theo tier.
+     */
+    public static final String ROLE_USER = "USER";
+
+    public record UserInfo(Long id, String fullname, String username, String role, String tier) {
+    }
+
+    public record ProjectInfo(Long id, String projectName, String namespace, Long userId,
+                              int databaseCount, int backendCount, int frontendCount) {
+    }
+
+    public record TierStats(String tier, long userCount, long projectCount) {
+    }
+
+    // Chu kỳ nạp lại toàn bộ chỉ mục từ DB (sửa lệch do thay đổi ngoài ứng dụng)
+    @Value("${app.tenancy.resync-interval-ms:600000}")
+    private long resyncIntervalMs = 600000;
+
+    // Repository thao tác bảng user
+    @Autowired
+    private UserRepository userRepository;
+
+    // Repository thao tác bảng project
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    // Repository thao tác bảng project database
+    @Autowired
+    private ProjectDatabaseRepository projectDatabaseRepository;
+
+    // Repository thao tác bảng project backend
+    @Autowired
+    private ProjectBackendRepository projectBackendRepository;
+
+    // Repository thao tác bảng project frontend
+    @Autowired
+    private ProjectFrontendRepository projectFrontendRepository;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tenancy-index-resync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Khoá cho state và pending
+    private final Object lock = new Object();
+
+    // Chỉ một lượt nạp tại một thời điểm
+    private final Object rebuildLock = new Object();
+
+    // null = chưa nạp
+    private State state;
+
+    // Khác null trong lúc đang nạp: sự kiện đến trong lúc nạp được áp dụng lại lên state mới
+    private List<Consumer<State>> pending;
+
+    @PostConstruct
+    void start() {
+        scheduler.schedule(this::rebuildSafely, 0, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::rebuildSafely, resyncIntervalMs, resyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Nạp lại toàn bộ chỉ mục từ DB.
+     *
+     * Quy trình xử lý:
+     * 1. Bật chế độ ghi nhận sự kiện (pending) để không mất thay đổi commit trong lúc đang query
+     * 2. Query projection users, projects và cặp [id, project id] của Database/Backend/Frontend
+     * 3. Áp dụng lại các sự kiện đã ghi nhận lên state mới rồi thay state cũ
+     *
+     * @throws RuntimeException nếu không query được DB (state cũ được giữ nguyên)
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (lock) {
+                pending = new ArrayList<>();
+            }
+            State fresh = new State();
+            try {
+                for (UserEntity user : userRepository.findAll()) {
+                    fresh.putUser(toUserInfo(user));
+                }
+                for (Object[] row : projectRepository.findAllTenancyRows()) {
+                    fresh.putProject((Long) row[0], (String) row[1], (String) row[2], (Long) row[3]);
+                }
+                for (Object[] row : projectDatabaseRepository.findAllIdAndProjectId()) {
+                    fresh.putComponent(State.DATABASE, (Long) row[0], (Long) row[1]);
+                }
+                for (Object[] row : projectBackendRepository.findAllIdAndProjectId()) {
+                    fresh.putComponent(State.BACKEND, (Long) row[0], (Long) row[1]);
+                }
+                for (Object[] row : projectFrontendRepository.findAllIdAndProjectId()) {
+                    fresh.putComponent(State.FRONTEND, (Long) row[0], (Long) row[1]);
+                }
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                pending.forEach(op -> op.accept(fresh));
+                pending = null;
+                state = fresh;
+            }
+            System.out.println("[TenancyIndex] Nap chi muc: " + fresh.users.size() + " user, "
+                    + fresh.projects.size() + " project");
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // DB chưa sẵn sàng: lần đọc tiếp theo hoặc chu kỳ sau sẽ nạp lại
+            System.err.println("[TenancyIndex] Khong nap duoc chi muc: " + e.getMessage());
+        }
+    }
+
+    // ==================== Sự kiện từ TenancyEntityListener ====================
+
+    /**
+     * Entity được persist/update. Giá trị được chụp ngay, áp dụng vào chỉ mục sau khi transaction commit.
+     */
+    public void onSaved(Object entity) {
+        if (entity instanceof UserEntity user) {
+            UserInfo info = toUserInfo(user);
+            afterCommit(s -> s.putUser(info));
+        } else if (entity instanceof ProjectEntity project) {
+            Long id = project.getId();
+            String name = project.getProjectName();
+            String namespace = project.getNamespace();
+            Long userId = project.getUser() != null ? project.getUser().getId() : null;
+            afterCommit(s -> s.putProject(id, name, namespace, userId));
+        } else if (entity instanceof ProjectDatabaseEntity database) {
+            componentSaved(State.DATABASE, database.getId(), database.getProject());
+        } else if (entity instanceof ProjectBackendEntity backend) {
+            componentSaved(State.BACKEND, backend.getId(), backend.getProject());
+        } else if (entity instanceof ProjectFrontendEntity frontend) {
+            componentSaved(State.FRONTEND, frontend.getId(), frontend.getProject());
+        }
+    }
+
+    /**
+     * Entity bị xoá, áp dụng vào chỉ mục sau khi transaction commit.
+     */
+    public void onRemoved(Object entity) {
+        if (entity instanceof UserEntity user) {
+            Long id = user.getId();
+            afterCommit(s -> s.removeUser(id));
+        } else if (entity instanceof ProjectEntity project) {
+            Long id = project.getId();
+            afterCommit(s -> s.removeProject(id));
+        } else if (entity instanceof ProjectDatabaseEntity database) {
+            componentRemoved(State.DATABASE, database.getId(), database.getProject());
+        } else if (entity instanceof ProjectBackendEntity backend) {
+            componentRemoved(State.BACKEND, backend.getId(), backend.getProject());
+        } else if (entity instanceof ProjectFrontendEntity frontend) {
+            componentRemoved(State.FRONTEND, frontend.getId(), frontend.getProject());
+        }
+    }
+
+    private void componentSaved(int type, Long id, ProjectEntity project) {
+        Long projectId = project != null ? project.getId() : null;
+        afterCommit(s -> s.putComponent(type, id, projectId));
+    }
+
+    private void componentRemoved(int type, Long id, ProjectEntity project) {
+        Long projectId = project != null ? project.getId() : null;
+        afterCommit(s -> s.removeComponent(type, id, projectId));
+    }
+
+    private void afterCommit(Consumer<State> op) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(op);
+                }
+            });
+        } else {
+            apply(op);
+        }
+    }
+
+    private void apply(Consumer<State> op) {
+        synchronized (lock) {
+            if (state != null) {
+                op.accept(state);
+            }
+            if (pending != null) {
+                pending.add(op);
+            }
+        }
+    }
+
+    // ==================== Đọc ====================
+
+    public Optional<UserInfo> user(Long userId) {
+        return read(s -> Optional.ofNullable(s.users.get(userId)));
+    }
+
+    /**
+     * Các user có role cho trước (không phân biệt hoa thường), theo thứ tự id.
+     */
+    public List<UserInfo> usersWithRole(String role) {
+        return read(s -> s.users.values().stream()
+                .filter(user -> role.equalsIgnoreCase(user.role()))
+                .sorted(Comparator.comparing(UserInfo::id))
+                .toList());
+    }
+
+    public Optional<ProjectInfo> project(Long projectId) {
+        return read(s -> Optional.ofNullable(s.projects.get(projectId)).map(ProjectNode::snapshot));
+    }
+
+    /**
+     * Các project của user, theo thứ tự id.
+     */
+    public List<ProjectInfo> projectsOf(Long userId) {
+        return read(s -> s.projectsByUser.getOrDefault(userId, Set.of()).stream()
+                .sorted()
+                .map(id -> s.projects.get(id).snapshot())
+                .toList());
+    }
+
+    public int projectCount() {
+        return read(s -> s.projects.size());
+    }
+
+    /**
+     * Các namespace đang được project sử dụng (đã trim, bỏ rỗng).
+     */
+    public Set<String> namespaces() {
+        return read(s -> new HashSet<>(s.projectsByNamespace.keySet()));
+    }
+
+    /**
+     * Namespace -> user sở hữu (namespace dùng chung bởi nhiều project thì lấy project có id lớn nhất).
+     */
+    public Map<String, Long> namespaceOwners() {
+        return read(s -> {
+            Map<String, Long> owners = new HashMap<>();
+            s.projectsByNamespace.forEach((namespace, projectIds) -> {
+                Long ownerId = s.projects.get(projectIds.stream().max(Long::compare).orElseThrow()).userId;
+                if (ownerId != null) {
+                    owners.put(namespace, ownerId);
+                }
+            });
+            return owners;
+        });
+    }
+
+    /**
+     * Số user role USER và số project của họ theo từng tier.
+     */
+    public List<TierStats> tierStats() {
+        return read(s -> s.tiers.entrySet().stream()
+                .map(entry -> new TierStats(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .toList());
+    }
+
+    private <T> T read(Function<State, T> reader) {
+        synchronized (lock) {
+            if (state != null) {
+                return reader.apply(state);
+            }
+        }
+        // Chưa nạp (ví dụ DB chưa sẵn sàng lúc khởi động): nạp đồng bộ
+        synchronized (rebuildLock) {
+            boolean loaded;
+            synchronized (lock) {
+                loaded = state != null;
+            }
+            if (!loaded) {
+                rebuild();
+            }
+        }
+        synchronized (lock) {
+            return reader.apply(state);
+        }
+    }
+
+    private static UserInfo toUserInfo(UserEntity user) {
+        return new UserInfo(user.getId(), user.getFullname(), user.getUsername(), user.getRole(), user.getTier());
+    }
+
+    private static String normalizeNamespace(String namespace) {
+        return namespace == null || namespace.trim().isEmpty() ? null : namespace.trim();
+    }
+
+    // ==================== State ====================
+
+    private static final class ProjectNode {
+        final Long id;
+        String projectName;
+        String namespace;
+        Long userId;
+        @SuppressWarnings("unchecked")
+        final Set<Long>[] components = new Set[]{new HashSet<>(), new HashSet<>(), new HashSet<>()};
+
+        ProjectNode(Long id) {
+            this.id = id;
+        }
+
+        ProjectInfo snapshot() {
+            return new ProjectInfo(id, projectName, namespace, userId,
+                    components[State.DATABASE].size(), components[State.BACKEND].size(), components[State.FRONTEND].size());
+        }
+    }
+
+    /**
+     * Dữ liệu của chỉ mục. Mọi thao tác đều idempotent (áp dụng lại một sự kiện không làm sai số đếm)
+     * để có thể phát lại các sự kiện đến trong lúc nạp.
+     */
+    private static final class State {
+        static final int DATABASE = 0;
+        static final int BACKEND = 1;
+        static final int FRONTEND = 2;
+
+        final Map<Long, UserInfo> users = new HashMap<>();
+        final Map<Long, ProjectNode> projects = new HashMap<>();
+        final Map<Long, Set<Long>> projectsByUser = new HashMap<>();
+        final Map<String, Set<Long>> projectsByNamespace = new HashMap<>();
+        // tier -> [số user, số project] của user role USER
+        final Map<String, long[]> tiers = new TreeMap<>();
+
+        void putUser(UserInfo user) {
+            UserInfo previous = users.put(user.id(), user);
+            contribute(previous, -1);
+            contribute(user, 1);
+        }
+
+        void removeUser(Long userId) {
+            contribute(users.remove(userId), -1);
+        }
+
+        void putProject(Long id, String projectName, String namespace, Long userId) {
+            ProjectNode node = projects.get(id);
+            if (node == null) {
+                node = new ProjectNode(id);
+                projects.put(id, node);
+            } else {
+                unlink(node);
+            }
+            node.projectName = projectName;
+            node.namespace = normalizeNamespace(namespace);
+            node.userId = userId;
+            link(node);
+        }
+
+        void removeProject(Long id) {
+            ProjectNode node = projects.remove(id);
+            if (node != null) {
+                unlink(node);
+            }
+        }
+
+        void putComponent(int type, Long id, Long projectId) {
+            ProjectNode node = projectId != null ? projects.get(projectId) : null;
+            if (node != null && id != null) {
+                node.components[type].add(id);
+            }
+        }
+
+        void removeComponent(int type, Long id, Long projectId) {
+            ProjectNode node = projectId != null ? projects.get(projectId) : null;
+            if (node != null) {
+                node.components[type].remove(id);
+            }
+        }
+
+        private void link(ProjectNode node) {
+            if (node.userId != null) {
+                projectsByUser.computeIfAbsent(node.userId, k -> new HashSet<>()).add(node.id);
+                tierProjects(node.userId, 1);
+            }
+            if (node.namespace != null) {
+                projectsByNamespace.computeIfAbsent(node.namespace, k -> new HashSet<>()).add(node.id);
+            }
+        }
+
+        private void unlink(ProjectNode node) {
+            if (node.userId != null) {
+                removeFrom(projectsByUser, node.userId, node.id);
+                tierProjects(node.userId, -1);
+            }
+            if (node.namespace != null) {
+                removeFrom(projectsByNamespace, node.namespace, node.id);
+            }
+        }
+
+        private void contribute(UserInfo user, int sign) {
+            if (user == null || !ROLE_USER.equalsIgnoreCase(user.role()) || user.tier() == null) {
+                return;
+            }
+            long[] counts = tiers.computeIfAbsent(user.tier(), k -> new long[2]);
+            counts[0] += sign;
+            counts[1] += (long) sign * projectsByUser.getOrDefault(user.id(), Set.of()).size();
+            if (counts[0] == 0 && counts[1] == 0) {
+                tiers.remove(user.tier());
+            }
+        }
+
+        private void tierProjects(Long userId, int delta) {
+            UserInfo user = users.get(userId);
+            if (user == null || !ROLE_USER.equalsIgnoreCase(user.role()) || user.tier() == null) {
+                return;
+            }
+            tiers.computeIfAbsent(user.tier(), k -> new long[2])[1] += delta;
+        }
+
+        private static <K> void removeFrom(Map<K, Set<Long>> index, K key, Long id) {
+            Collection<Long> ids = index.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+}
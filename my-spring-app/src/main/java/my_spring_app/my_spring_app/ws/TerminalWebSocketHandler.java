@@ -2,10 +2,11 @@ package my_spring_app.my_spring_app.ws;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jcraft.jsch.ChannelShell;
+import com.jcraft.jsch.Identity;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
-import my_spring_app.my_spring_app.service.ServerService;
+import my_spring_app.my_spring_app.ssh.ServerConnectionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
@@ -48,10 +49,10 @@ public class TerminalWebSocketHandler extends TextWebSocketHandler {
     }
 
     private final Map<String, SshBinding> connectionMap = new ConcurrentHashMap<>();
-    private final ServerService serverService;
+    private final ServerConnectionRegistry serverConnectionRegistry;
 
-    public TerminalWebSocketHandler(ServerService serverService) {
-        this.serverService = serverService;
+    public TerminalWebSocketHandler(ServerConnectionRegistry serverConnectionRegistry) {
+        this.serverConnectionRegistry = serverConnectionRegistry;
     }
 
     @Override
@@ -138,11 +139,12 @@ public class TerminalWebSocketHandler extends TextWebSocketHandler {
         try {
             // Ưu tiên xác thực bằng SSH key trước
             if (serverId != null) {
-                String pem = serverService.resolveServerPrivateKeyPem(serverId);
-                if (pem != null && !pem.isBlank()) {
+                // SSH key đã được parse sẵn trong registry, không đọc DB và parse lại PEM mỗi lần connect
+                Identity identity = resolveIdentity(serverId);
+                if (identity != null) {
                     triedSshKey = true;
                     logger.info("Trying SSH key authentication for {}@{}:{}", username, host, port);
-                    ssh = createSshSessionWithKey(username, host, port, pem);
+                    ssh = createSshSessionWithKey(username, host, port, identity);
                     if (ssh != null && ssh.isConnected()) {
                         connected = true;
                         logger.info("SSH key authentication successful for {}@{}:{}", username, host, port);
@@ -196,11 +198,19 @@ public class TerminalWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
-    private Session createSshSessionWithKey(String username, String host, int port, String pem) {
+    private Identity resolveIdentity(Long serverId) {
+        try {
+            return serverConnectionRegistry.get(serverId).identity();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot resolve SSH key for server {}", serverId, e);
+            return null;
+        }
+    }
+
+    private Session createSshSessionWithKey(String username, String host, int port, Identity identity) {
         try {
             JSch jsch = new JSch();
-            byte[] privateKey = pem.getBytes(StandardCharsets.UTF_8);
-            jsch.addIdentity("inmem-key", privateKey, null, null);
+            jsch.addIdentity(identity, null);
 
             Session session = jsch.getSession(username, host, port);
             configureSshSession(session);
@@ -0,0 +1,87 @@
+package my_spring_app.my_spring_app.deploy;
+
+import my_spring_app.my_spring_app.entity.ArtifactCacheEntity;
+import my_spring_app.my_spring_app.repository.ArtifactCacheRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fingerprint, chọn digest sau khi push và dọn dẹp LRU của cache image.
+ */
+class ArtifactCacheTests {
+
+    @Test
+    void fingerprintsUploadBySha256() throws Exception {
+        ArtifactCache cache = new ArtifactCache();
+        MockMultipartFile file = new MockMultipartFile("file", "app.zip", "application/zip", "abc".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", cache.fingerprint(file));
+    }
+
+    @Test
+    void fingerprintsStagedUploadOnce(@TempDir Path dir) throws Exception {
+        ArtifactCache cache = new ArtifactCache();
+        Path path = dir.resolve("job.upload");
+        Files.writeString(path, "abc");
+        StagedMultipartFile file = new StagedMultipartFile(path, "app.zip", "application/zip");
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", cache.fingerprint(file));
+        // Lần hỏi sau dùng lại SHA-256 đã tính, không đọc lại file
+        Files.delete(path);
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", cache.fingerprint(file));
+    }
+
+    @Test
+    void picksDigestOfPushedRepository() {
+        String output = "mirror.local:5000/other@sha256:1111\nuser/abc@sha256:2222\n";
+
+        assertEquals("user/abc@sha256:2222", ArtifactCache.digestReference(output, "user/abc:latest"));
+        assertEquals("registry:5000/user/abc@sha256:3333",
+                ArtifactCache.digestReference("registry:5000/user/abc@sha256:3333", "registry:5000/user/abc:latest"));
+        assertNull(ArtifactCache.digestReference("", "user/abc:latest"));
+    }
+
+    @Test
+    void lookupTouchesEntryAndEvictionTrimsLeastRecentlyUsed() {
+        ArtifactCacheRepository repository = mock(ArtifactCacheRepository.class);
+        ArtifactCache cache = new ArtifactCache();
+        ReflectionTestUtils.setField(cache, "artifactCacheRepository", repository);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+
+        ArtifactCacheEntity entry = new ArtifactCacheEntity();
+        entry.setId(5L);
+        entry.setImageRef("user/abc@sha256:2222");
+        when(repository.findByContentHashAndComponentTypeAndFrameworkType("h", "BACKEND", "SPRINGBOOT")).thenReturn(Optional.of(entry));
+
+        assertEquals("user/abc@sha256:2222", cache.lookup("h", "BACKEND", "SPRINGBOOT"));
+        verify(repository).touch(eq(5L), any());
+        assertNull(cache.lookup("h", "FRONTEND", "REACT"));
+
+        when(repository.count()).thenReturn(5L);
+        when(repository.findIdsByLeastRecentlyUsed(PageRequest.of(0, 3))).thenReturn(List.of(1L, 2L, 3L));
+        cache.evict();
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+
+        // Tham chiếu theo tag (chưa có digest) không được lưu
+        cache.record("h", "BACKEND", "SPRINGBOOT", "user/abc:latest", 10);
+        verify(repository, never()).save(any());
+    }
+}
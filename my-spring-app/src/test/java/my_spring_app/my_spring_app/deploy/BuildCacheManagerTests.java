@@ -0,0 +1,78 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Đếm bước CACHED trong output BuildKit, cộng dồn theo framework và giới hạn tần suất prune.
+ */
+class BuildCacheManagerTests {
+
+    private static final String BUILDKIT_OUTPUT = """
+            #1 [internal] load build definition from Dockerfile
+            #1 DONE 0.0s
+            #4 [build 1/4] FROM docker.io/library/maven:3.9-eclipse-temurin-21
+            #4 DONE 0.0s
+            #5 [build 2/4] COPY pom.xml .
+            #5 CACHED
+            #6 [build 3/4] RUN mvn -q dependency:go-offline
+            #6 CACHED
+            #7 [build 4/4] COPY src ./src
+            #7 DONE 0.2s
+            #8 [stage-1 1/2] COPY --from=build /app/target/app.jar app.jar
+            #8 DONE 0.1s
+            """;
+
+    @Test
+    void countsCachedStepsPerFramework() throws Exception {
+        RemoteCommandExecutor executor = mock(RemoteCommandExecutor.class);
+        when(executor.execute(eq(null), anyString(), anyLong()))
+                .thenReturn(new CommandResult(0, "", BUILDKIT_OUTPUT, 1200, false));
+        BuildCacheManager manager = new BuildCacheManager();
+        ReflectionTestUtils.setField(manager, "remoteCommandExecutor", executor);
+
+        BuildCacheManager.BuildResult result = manager.build(null, "SPRINGBOOT", "/home/u/app", "user/abc:latest");
+        manager.build(null, "SPRINGBOOT", "/home/u/app", "user/abc:latest");
+
+        assertEquals(5, result.steps());
+        assertEquals(2, result.cachedSteps());
+        verify(executor, times(2)).execute(eq(null), startsWith("cd '/home/u/app' && DOCKER_BUILDKIT=1 docker build --progress=plain"), eq(0L));
+        List<BuildCacheManager.FrameworkSnapshot> snapshot = manager.snapshot();
+        assertEquals(1, snapshot.size());
+        assertEquals(2, snapshot.get(0).builds());
+        assertEquals(0.4, snapshot.get(0).hitRate(), 1e-9);
+        assertEquals(1200, snapshot.get(0).averageBuildMs());
+    }
+
+    @Test
+    void prunesEachServerAtMostOncePerInterval() throws Exception {
+        RemoteCommandExecutor executor = mock(RemoteCommandExecutor.class);
+        when(executor.execute(eq((Session) null), anyString(), anyLong()))
+                .thenReturn(new CommandResult(0, "", "", 10, false));
+        BuildCacheManager manager = new BuildCacheManager();
+        ReflectionTestUtils.setField(manager, "remoteCommandExecutor", executor);
+        ServerEntity server = new ServerEntity();
+        server.setId(3L);
+
+        manager.enforceBudget(null, server);
+        manager.enforceBudget(null, server);
+
+        verify(executor, times(1)).execute(eq(null), eq("docker builder prune -f --keep-storage 20gb && docker image prune -f"), eq(0L));
+    }
+}
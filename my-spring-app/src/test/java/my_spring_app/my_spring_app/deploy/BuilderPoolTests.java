@@ -0,0 +1,162 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.ServerHealthRegistry;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chọn builder theo tải, giới hạn số build mỗi builder và chuyển builder khi mất kết nối.
+ */
+class BuilderPoolTests {
+
+    private final ServerEntity busy = server(1L, "10.0.0.1");
+    private final ServerEntity idle = server(2L, "10.0.0.2");
+    private final Session busySession = mock(Session.class);
+    private final Session idleSession = mock(Session.class);
+    private final RemoteCommandExecutor executor = mock(RemoteCommandExecutor.class);
+    private BuilderPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ServerRepository serverRepository = mock(ServerRepository.class);
+        when(serverRepository.findAllByRoleInAndStatus(any(), eq(ServerEntity.ServerStatus.ONLINE)))
+                .thenReturn(List.of(busy, idle));
+        SshSessionPool sshSessionPool = mock(SshSessionPool.class);
+        when(sshSessionPool.acquire(busy)).thenReturn(busySession);
+        when(sshSessionPool.acquire(idle)).thenReturn(idleSession);
+        when(executor.execute(eq(busySession), eq(BuilderPool.LOAD_COMMAND), anyLong()))
+                .thenReturn(new CommandResult(0, "3.60 4 8000000000 6000000000\n", "", 5, false));
+        when(executor.execute(eq(idleSession), eq(BuilderPool.LOAD_COMMAND), anyLong()))
+                .thenReturn(new CommandResult(0, "0.20 4 8000000000 1000000000\n", "", 5, false));
+        when(executor.execute(eq(busySession), eq("true"), anyLong()))
+                .thenReturn(new CommandResult(0, "", "", 1, false));
+
+        pool = new BuilderPool();
+        ReflectionTestUtils.setField(pool, "serverRepository", serverRepository);
+        ReflectionTestUtils.setField(pool, "sshSessionPool", sshSessionPool);
+        ReflectionTestUtils.setField(pool, "remoteCommandExecutor", executor);
+        ReflectionTestUtils.setField(pool, "serverHealthRegistry", new ServerHealthRegistry());
+    }
+
+    @Test
+    void placesBuildOnLeastLoadedBuilder() throws Exception {
+        assertSame(idle, pool.run("backend a", builder -> builder));
+
+        // Build đang chạy làm tăng điểm của builder: builder rảnh đủ slot thì build sau sang builder còn lại
+        ReflectionTestUtils.setField(pool, "maxBuildsPerBuilder", 1);
+        assertSame(idle, pool.acquire("backend b", Set.of()));
+        assertSame(busy, pool.acquire("backend c", Set.of()));
+    }
+
+    @Test
+    void queuesWhenEveryBuilderIsFull() throws Exception {
+        ReflectionTestUtils.setField(pool, "maxBuildsPerBuilder", 1);
+        ReflectionTestUtils.setField(pool, "acquireTimeoutMs", 100L);
+        pool.acquire("a", Set.of());
+        pool.acquire("b", Set.of());
+
+        RuntimeException timeout = assertThrows(RuntimeException.class, () -> pool.acquire("c", Set.of()));
+        assertTrue(timeout.getMessage().startsWith("Hết thời gian chờ builder"));
+
+        pool.release(idle);
+        assertSame(idle, pool.acquire("c", Set.of()));
+    }
+
+    @Test
+    void failsOverWhenBuilderDropsMidBuild() throws Exception {
+        when(executor.execute(eq(idleSession), eq("true"), anyLong())).thenThrow(new JSchException("session is down"));
+        List<String> attempts = new ArrayList<>();
+
+        String image = pool.run("frontend x", builder -> {
+            attempts.add(builder.getIp());
+            if (builder == idle) {
+                throw new JSchException("session is down");
+            }
+            return "user/x@sha256:abc";
+        });
+
+        assertEquals("user/x@sha256:abc", image);
+        assertEquals(List.of("10.0.0.2", "10.0.0.1"), attempts);
+    }
+
+    @Test
+    void rethrowsBuildErrorsFromReachableBuilder() throws Exception {
+        when(executor.execute(eq(idleSession), eq("true"), anyLong()))
+                .thenReturn(new CommandResult(0, "", "", 1, false));
+        List<String> attempts = new ArrayList<>();
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> pool.run("backend y", builder -> {
+            attempts.add(builder.getIp());
+            throw new RuntimeException("Docker build thất bại (exit 1)");
+        }));
+
+        assertEquals("Docker build thất bại (exit 1)", error.getMessage());
+        assertEquals(List.of("10.0.0.2"), attempts);
+    }
+
+    @Test
+    void scoresUnmeasuredBuilderByRunningBuilds() throws Exception {
+        when(executor.execute(eq(idleSession), eq(BuilderPool.LOAD_COMMAND), anyLong()))
+                .thenReturn(new CommandResult(127, "", "nproc: not found", 5, false));
+        ReflectionTestUtils.setField(pool, "maxBuildsPerBuilder", 1);
+
+        // Builder không đo được tải vẫn nhận build thay vì bị bỏ qua
+        assertSame(idle, pool.acquire("a", Set.of()));
+        assertSame(busy, pool.acquire("b", Set.of()));
+    }
+
+    @Test
+    void keepsBuildErrorWhenNoBuilderLeftAfterFailover() throws Exception {
+        when(executor.execute(eq(idleSession), eq("true"), anyLong())).thenThrow(new JSchException("session is down"));
+        ServerRepository serverRepository = mock(ServerRepository.class);
+        when(serverRepository.findAllByRoleInAndStatus(any(), eq(ServerEntity.ServerStatus.ONLINE)))
+                .thenReturn(List.of(idle));
+        ReflectionTestUtils.setField(pool, "serverRepository", serverRepository);
+        JSchException dropped = new JSchException("session is down");
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> pool.run("frontend z", builder -> {
+            throw dropped;
+        }));
+
+        assertTrue(error.getMessage().startsWith("Không có builder ONLINE"));
+        assertSame(dropped, error.getCause());
+    }
+
+    @Test
+    void parsesLoadProbeOutput() {
+        BuilderPool.Load load = BuilderPool.parseLoad("2.00 4 8000 2000\n", 0);
+        assertEquals(0.5, load.cpuRatio(), 1e-9);
+        assertEquals(0.25, load.ramRatio(), 1e-9);
+        assertNull(BuilderPool.parseLoad("nproc: not found", 0));
+    }
+
+    private static ServerEntity server(Long id, String ip) {
+        ServerEntity server = new ServerEntity();
+        server.setId(id);
+        server.setIp(ip);
+        return server;
+    }
+}
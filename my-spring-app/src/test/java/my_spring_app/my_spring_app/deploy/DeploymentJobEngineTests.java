@@ -0,0 +1,183 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import my_spring_app.my_spring_app.dto.reponse.DeployBackendResponse;
+import my_spring_app.my_spring_app.dto.request.DeployBackendRequest;
+import my_spring_app.my_spring_app.entity.DeploymentJobEntity;
+import my_spring_app.my_spring_app.entity.DeploymentJobEventEntity;
+import my_spring_app.my_spring_app.repository.DeploymentJobEventRepository;
+import my_spring_app.my_spring_app.repository.DeploymentJobRepository;
+import my_spring_app.my_spring_app.service.ProjectBackendService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vòng đời job deploy: lưu request + file tạm, chạy lại trên worker, ghi tiến độ và kết quả;
+ * job bị ngắt giữa chừng khi app khởi động lại không được chạy lại.
+ */
+class DeploymentJobEngineTests {
+
+    @TempDir
+    Path stagingDir;
+
+    private final Map<Long, DeploymentJobEntity> jobs = new HashMap<>();
+    private final List<DeploymentJobEventEntity> events = new ArrayList<>();
+    private final ProjectBackendService backendService = mock(ProjectBackendService.class);
+    private final DeploymentJobRepository jobRepository = mock(DeploymentJobRepository.class);
+    private final ExecutorService pool = mock(ExecutorService.class);
+    private DeploymentJobEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong ids = new AtomicLong();
+        when(jobRepository.save(any())).thenAnswer(inv -> {
+            DeploymentJobEntity job = inv.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(ids.incrementAndGet());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(jobs.get((Long) inv.getArgument(0))));
+        DeploymentJobEventRepository eventRepository = mock(DeploymentJobEventRepository.class);
+        when(eventRepository.save(any())).thenAnswer(inv -> {
+            DeploymentJobEventEntity event = inv.getArgument(0);
+            events.add(event);
+            return event;
+        });
+
+        engine = new DeploymentJobEngine();
+        ReflectionTestUtils.setField(engine, "workers", 1);
+        ReflectionTestUtils.setField(engine, "stagingDir", stagingDir.toString());
+        ReflectionTestUtils.setField(engine, "deploymentJobRepository", jobRepository);
+        ReflectionTestUtils.setField(engine, "deploymentJobEventRepository", eventRepository);
+        ReflectionTestUtils.setField(engine, "projectBackendService", backendService);
+        ReflectionTestUtils.setField(engine, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+        engine.start();
+        // Hàng đợi không tự chạy: test gọi run() trực tiếp trên thread test
+        engine.shutdown();
+        ReflectionTestUtils.setField(engine, "pool", pool);
+    }
+
+    @Test
+    void runsStagedRequestAndRecordsStages() throws Exception {
+        AtomicReference<String> uploaded = new AtomicReference<>();
+        when(backendService.deploy(any())).thenAnswer(inv -> {
+            DeployBackendRequest request = inv.getArgument(0);
+            DeploymentProgress.stage(DeploymentProgress.BUILD, "docker build");
+            uploaded.set(new String(request.getFile().getBytes(), StandardCharsets.UTF_8) + "|" + request.getDatabasePassword());
+            DeployBackendResponse response = new DeployBackendResponse();
+            response.setStatus("RUNNING");
+            return response;
+        });
+        DeployBackendRequest request = new DeployBackendRequest();
+        request.setProjectName("api");
+        request.setDatabasePassword("secret");
+        request.setUsername("alice");
+        request.setProjectId(7L);
+        request.setFile(new MockMultipartFile("file", "src.zip", "application/zip", "zip-bytes".getBytes(StandardCharsets.UTF_8)));
+
+        DeploymentJobEntity job = engine.submit(DeploymentJobEngine.TYPE_BACKEND, request);
+        Path staged = Path.of(job.getStagedFilePath());
+        assertTrue(Files.exists(staged));
+        assertEquals("alice", job.getUsername());
+        assertEquals(7L, job.getProjectId());
+        assertFalse(job.getRequestPayload().contains("zip-bytes"));
+
+        engine.run(job.getId());
+
+        DeploymentJobEntity done = jobs.get(job.getId());
+        assertEquals("zip-bytes|secret", uploaded.get());
+        assertEquals(DeploymentJobEngine.STATUS_SUCCEEDED, done.getStatus());
+        assertEquals(DeploymentProgress.COMPLETE, done.getStage());
+        assertTrue(done.getResultPayload().contains("RUNNING"));
+        assertNull(done.getRequestPayload());
+        assertFalse(Files.exists(staged));
+        assertTrue(events.stream().anyMatch(e -> DeploymentProgress.BUILD.equals(e.getStage())));
+    }
+
+    @Test
+    void recordsFailureMessage() {
+        when(backendService.deploy(any())).thenThrow(new RuntimeException("docker build thất bại"));
+        DeployBackendRequest request = new DeployBackendRequest();
+        request.setUsername("alice");
+
+        DeploymentJobEntity job = engine.submit(DeploymentJobEngine.TYPE_BACKEND, request);
+        engine.run(job.getId());
+
+        DeploymentJobEntity done = jobs.get(job.getId());
+        assertEquals(DeploymentJobEngine.STATUS_FAILED, done.getStatus());
+        assertEquals(DeploymentProgress.FAILED, done.getStage());
+        assertEquals("docker build thất bại", done.getErrorMessage());
+        assertEquals(1, done.getAttempts());
+    }
+
+    @Test
+    void resultIsRecordedEvenIfThreadWasInterrupted() {
+        when(backendService.deploy(any())).thenAnswer(inv -> {
+            // App bắt đầu tắt ngay sau khi deploy đã xong
+            Thread.currentThread().interrupt();
+            return new DeployBackendResponse();
+        });
+        DeployBackendRequest request = new DeployBackendRequest();
+        request.setUsername("alice");
+
+        DeploymentJobEntity job = engine.submit(DeploymentJobEngine.TYPE_BACKEND, request);
+        try {
+            engine.run(job.getId());
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(DeploymentJobEngine.STATUS_SUCCEEDED, jobs.get(job.getId()).getStatus());
+    }
+
+    @Test
+    void recoverFailsInterruptedJobsInsteadOfReplaying() {
+        DeploymentJobEntity queued = engine.submit(DeploymentJobEngine.TYPE_BACKEND, new DeployBackendRequest());
+        DeploymentJobEntity interrupted = engine.submit(DeploymentJobEngine.TYPE_BACKEND, new DeployBackendRequest());
+        interrupted.setStatus(DeploymentJobEngine.STATUS_RUNNING);
+        interrupted.setStage(DeploymentProgress.BUILD);
+        interrupted.setAttempts(1);
+        clearInvocations(pool);
+        when(jobRepository.findByStatusInOrderByIdAsc(any())).thenReturn(List.of(queued, interrupted));
+
+        engine.recover();
+
+        // Job chưa chạy được đưa lại vào hàng đợi; job đang chạy dở không bị deploy lại
+        verify(pool, times(1)).execute(any());
+        DeploymentJobEntity failed = jobs.get(interrupted.getId());
+        assertEquals(DeploymentJobEngine.STATUS_FAILED, failed.getStatus());
+        assertTrue(failed.getErrorMessage().contains(DeploymentProgress.BUILD));
+        assertEquals(1, failed.getAttempts());
+        verify(backendService, never()).deploy(any());
+    }
+}
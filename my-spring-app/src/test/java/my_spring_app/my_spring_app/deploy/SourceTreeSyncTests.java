@@ -0,0 +1,202 @@
+package my_spring_app.my_spring_app.deploy;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpProgressMonitor;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.SftpStreamUploader;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chỉ các entry thay đổi được gửi (giữ quyền unix), file thừa bị xoá, chưa có cây thì gửi nguyên zip.
+ */
+class SourceTreeSyncTests {
+
+    private static final String BASE = "/home/builder/build-trees/alice/p1/backend/shop";
+
+    @TempDir
+    Path dir;
+
+    private final RemoteCommandExecutor executor = mock(RemoteCommandExecutor.class);
+    private final ChannelSftp sftp = mock(ChannelSftp.class);
+    private final Map<String, byte[]> uploaded = new HashMap<>();
+    private final List<String> commands = new ArrayList<>();
+
+    @Test
+    void sendsOnlyChangedEntries() throws Exception {
+        Path v1 = zip("v1.zip", Map.of("shop/Dockerfile", "FROM maven", "shop/mvnw", "#!/bin/sh",
+                "shop/src/A.java", "class A {}", "shop/src/B.java", "class B {}", "shop/legacy/util/D.java", "class D {}"));
+        Path v2 = zip("v2.zip", Map.of("shop/Dockerfile", "FROM maven", "shop/mvnw", "#!/bin/sh exec",
+                "shop/src/A.java", "class A { int x; }", "shop/src/C.java", "class C {}", "shop/logs/", ""));
+        SourceTreeSync sync = newSync(SourceTreeSync.renderManifest(SourceTreeSync.index(v1)));
+
+        SourceTreeSync.SyncResult result = sync.sync(null, sftp, builder(), "alice/p1/backend/shop", multipart(v2));
+
+        assertTrue(result.delta());
+        assertEquals(3, result.changedFiles());
+        assertEquals(2, result.deletedFiles());
+        assertEquals(1, result.unchangedFiles());
+        assertEquals(BASE + "/src", result.treeDir());
+
+        Path delta = dir.resolve("sent.zip");
+        Files.write(delta, uploaded.get(BASE + "/delta.zip"));
+        Map<String, Integer> modes = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(delta.toFile())) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                modes.put(entry.getName(), entry.getUnixMode() & 0777);
+            }
+        }
+        assertEquals(Map.of("shop/mvnw", 0755, "shop/src/A.java", 0644, "shop/src/C.java", 0644), modes);
+        assertEquals("shop/legacy/util/D.java\nshop/src/B.java\n", new String(uploaded.get(BASE + "/deleted"), StandardCharsets.UTF_8));
+        assertEquals(SourceTreeSync.renderManifest(SourceTreeSync.index(v2)),
+                new String(uploaded.get(BASE + "/manifest"), StandardCharsets.UTF_8));
+        assertFalse(commands.stream().anyMatch(c -> c.contains("rm -rf src")));
+        // Chỉ thư mục cha của file bị xoá được dọn; shop/logs rỗng trong zip mới không bị đụng tới
+        assertEquals("shop/legacy/util\nshop/legacy\n", new String(uploaded.get(BASE + "/deleted-dirs"), StandardCharsets.UTF_8));
+        assertTrue(commands.stream().anyMatch(c -> c.contains("xargs -0 -r rmdir --ignore-fail-on-non-empty --")));
+        assertFalse(commands.stream().anyMatch(c -> c.contains("-empty -delete")));
+    }
+
+    @Test
+    void sendsWholeArchiveWithoutPreviousTree() throws Exception {
+        Path v1 = zip("v1.zip", Map.of("shop/Dockerfile", "FROM node", "shop/index.js", "console.log(1)"));
+        SourceTreeSync sync = newSync(null);
+
+        SourceTreeSync.SyncResult result = sync.sync(null, sftp, builder(), "alice/p1/backend/shop", multipart(v1));
+
+        assertFalse(result.delta());
+        assertEquals(2, result.changedFiles());
+        assertEquals(Files.size(v1), uploaded.get(BASE + "/delta.zip").length);
+        assertTrue(commands.stream().anyMatch(c -> c.contains("rm -rf src && mkdir src && unzip -q -o delta.zip -d src")));
+    }
+
+    @Test
+    void readsStagedUploadInPlace() throws Exception {
+        Path v1 = zip("v1.zip", Map.of("shop/Dockerfile", "FROM node", "shop/index.js", "console.log(1)"));
+        SourceTreeSync sync = newSync(null);
+        // Zip được mở thẳng trên file đã stage của job, không chép qua getInputStream()
+        StagedMultipartFile staged = new StagedMultipartFile(v1, "shop.zip", "application/zip") {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                throw new IOException("file stage không được chép lại");
+            }
+        };
+
+        SourceTreeSync.SyncResult result = sync.sync(null, sftp, builder(), "alice/p1/backend/shop", staged);
+
+        assertEquals(2, result.changedFiles());
+        assertEquals(Files.size(v1), uploaded.get(BASE + "/delta.zip").length);
+        assertTrue(Files.exists(v1));
+    }
+
+    @Test
+    void manifestRoundTripsAndDetectsModeChanges() {
+        Map<String, SourceTreeSync.Entry> previous = new LinkedHashMap<>();
+        previous.put("app/run.sh", new SourceTreeSync.Entry("aa", 3, 0100644));
+        previous.put("app/my file.txt", new SourceTreeSync.Entry("bb", 5, 0100644));
+        Map<String, SourceTreeSync.Entry> current = new LinkedHashMap<>(previous);
+        current.put("app/run.sh", new SourceTreeSync.Entry("aa", 3, 0100755));
+
+        assertEquals(previous, SourceTreeSync.parseManifest(SourceTreeSync.renderManifest(previous)));
+        assertNull(SourceTreeSync.parseManifest("aa x 644 app/run.sh\n"));
+        SourceTreeSync.Delta diff = SourceTreeSync.diff(previous, current);
+        assertEquals(List.of("app/run.sh"), diff.changed());
+        assertEquals(1, diff.unchanged());
+        assertEquals("alice/p_1/backend/my_shop", SourceTreeSync.treeKey("alice", "p/1", "backend", "my shop"));
+        assertEquals(List.of("a/b/c", "a/b", "x"), SourceTreeSync.emptiedDirectories(
+                List.of("a/b/c/D.java", "a/E.java", "x/F.java", "keep/G.java"), Set.of("a/H.java"), Set.of("keep")));
+    }
+
+    private SourceTreeSync newSync(String remoteManifest) throws Exception {
+        when(executor.execute(any(), anyString(), anyLong())).thenAnswer(inv -> {
+            commands.add(inv.getArgument(1));
+            return new CommandResult(0, "", "", 1, false);
+        });
+        when(executor.executeLines(any(), startsWith("test -d"), anyLong(), any())).thenAnswer(inv -> {
+            if (remoteManifest == null) {
+                return new CommandResult(1, "", "", 1, false);
+            }
+            Consumer<String> lines = inv.getArgument(3);
+            remoteManifest.lines().forEach(lines);
+            return new CommandResult(0, "", "", 1, false);
+        });
+        doAnswer(inv -> {
+            uploaded.put(inv.getArgument(1), ((InputStream) inv.getArgument(0)).readAllBytes());
+            return null;
+        }).when(sftp).put(any(InputStream.class), anyString(), any(SftpProgressMonitor.class), anyInt());
+        doAnswer(inv -> {
+            uploaded.put(inv.getArgument(1), ((InputStream) inv.getArgument(0)).readAllBytes());
+            return null;
+        }).when(sftp).put(any(InputStream.class), anyString(), eq(ChannelSftp.OVERWRITE));
+
+        SourceTreeSync sync = new SourceTreeSync();
+        ReflectionTestUtils.setField(sync, "remoteCommandExecutor", executor);
+        ReflectionTestUtils.setField(sync, "sftpStreamUploader", new SftpStreamUploader());
+        return sync;
+    }
+
+    private Path zip(String name, Map<String, String> files) throws Exception {
+        Path path = dir.resolve(name);
+        try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(path.toFile())) {
+            for (Map.Entry<String, String> file : new TreeMap<>(files).entrySet()) {
+                ZipArchiveEntry entry = new ZipArchiveEntry(file.getKey());
+                entry.setUnixMode(file.getKey().endsWith("/") ? 040755 : file.getKey().endsWith("mvnw") ? 0100755 : 0100644);
+                out.putArchiveEntry(entry);
+                out.write(file.getValue().getBytes(StandardCharsets.UTF_8));
+                out.closeArchiveEntry();
+            }
+        }
+        return path;
+    }
+
+    private static MockMultipartFile multipart(Path zip) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Files.copy(zip, bytes);
+        return new MockMultipartFile("file", "shop.zip", "application/zip", bytes.toByteArray());
+    }
+
+    private static ServerEntity builder() {
+        ServerEntity server = new ServerEntity();
+        server.setId(7L);
+        server.setIp("10.0.0.7");
+        server.setUsername("builder");
+        return server;
+    }
+}
@@ -0,0 +1,166 @@
+package my_spring_app.my_spring_app.k8s;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.models.V1Node;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.util.ClientBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Đọc từ indexer của informer (không list lại API server) và staleness trở về 0 khi list lại thành công.
+ * API server giả chạy bằng HttpServer của JDK: list trả JSON cố định, watch giữ kết nối mở.
+ */
+class ClusterStateCacheTests {
+
+    private static final String PODS = """
+            [{"metadata":{"name":"web-1","namespace":"default","labels":{"app":"web"},"creationTimestamp":"2026-01-02T00:00:00Z"}},
+             {"metadata":{"name":"web-2","namespace":"default","labels":{"app":"web"},"creationTimestamp":"2026-01-01T00:00:00Z"}},
+             {"metadata":{"name":"db-1","namespace":"data","labels":{"app":"db"},"creationTimestamp":"2026-01-03T00:00:00Z"}}]""";
+
+    private final Map<String, AtomicInteger> lists = new ConcurrentHashMap<>();
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private volatile boolean failNodes;
+    private volatile boolean stopped;
+    private HttpServer server;
+    private ClusterStateCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+
+        ApiClient client = new ClientBuilder()
+                .setBasePath("http://127.0.0.1:" + server.getAddress().getPort())
+                .setReadTimeout(Duration.ZERO)
+                .build();
+        KubernetesClientProvider provider = mock(KubernetesClientProvider.class);
+        when(provider.client()).thenReturn(client);
+        when(provider.watchClient()).thenReturn(client);
+        cache = new ClusterStateCache();
+        ReflectionTestUtils.setField(cache, "kubernetesClientProvider", provider);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stopped = true;
+        cache.shutdown();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    @Test
+    void readsAreServedFromIndexer() {
+        ClusterStateCache.Snapshot<V1Pod> all = cache.list(V1Pod.class);
+        assertTrue(all.fromCache());
+        assertEquals(3, all.items().size());
+        assertEquals("7", all.resourceVersion());
+
+        assertEquals(List.of("db-1"), names(cache.listByNamespace(V1Pod.class, "data")));
+        assertEquals(List.of("web-1", "web-2"), names(cache.listByLabel(V1Pod.class, "app", "web")).stream().sorted().toList());
+        ClusterStateCache.Snapshot<V1Pod> page = cache.query(V1Pod.class,
+                new ListQuery(Set.of("default"), "app=web", null, "-name", 1, null, null));
+        assertEquals(List.of("web-2"), names(page));
+        assertEquals("offset:1", page.continueToken());
+
+        // created: cũ nhất trước; age: mới nhất trước như cột AGE của kubectl
+        assertEquals(List.of("web-2", "web-1", "db-1"), names(cache.query(V1Pod.class, sorted("created"))));
+        assertEquals(List.of("db-1", "web-1", "web-2"), names(cache.query(V1Pod.class, sorted("age"))));
+        assertEquals(names(cache.query(V1Pod.class, sorted("created"))), names(cache.query(V1Pod.class, sorted("-age"))));
+
+        // Mọi lần đọc sau lần list đầu tiên đều đi qua indexer
+        assertEquals(1, lists.get("/api/v1/pods").get());
+    }
+
+    @Test
+    void stalenessRecoversAfterSuccessfulRelist() throws Exception {
+        assertEquals(0, cache.list(V1Node.class).stalenessMs());
+
+        // Watch đứt, list lại cũng lỗi: dữ liệu cũ dần
+        failNodes = true;
+        awaitTrue(() -> cache.list(V1Node.class).stalenessMs() > 0);
+
+        // List lại thành công (danh sách rỗng, không có sự kiện add/update nào): staleness về 0
+        failNodes = false;
+        awaitTrue(() -> cache.list(V1Node.class).stalenessMs() == 0);
+        assertTrue(lists.get("/api/v1/nodes").get() >= 2);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getQuery();
+        boolean nodes = path.endsWith("/nodes");
+        if (nodes && failNodes) {
+            respond(exchange, 500, "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\",\"code\":500}");
+            return;
+        }
+        if (query != null && query.contains("watch=true")) {
+            // Giữ watch mở; watch của nodes bị đóng khi bắt đầu giả lập lỗi
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream body = exchange.getResponseBody();
+            body.flush();
+            while (!stopped && !(nodes && failNodes)) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            exchange.close();
+            return;
+        }
+        lists.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+        String items = path.equals("/api/v1/pods") ? PODS : "[]";
+        respond(exchange, 200, "{\"metadata\":{\"resourceVersion\":\"7\"},\"items\":" + items + "}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static ListQuery sorted(String sort) {
+        return new ListQuery(null, null, null, sort, null, null, null);
+    }
+
+    private static List<String> names(ClusterStateCache.Snapshot<V1Pod> snapshot) {
+        return snapshot.items().stream().map(pod -> pod.getMetadata().getName()).toList();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Het thoi gian cho dieu kien");
+            Thread.sleep(20);
+        }
+    }
+}
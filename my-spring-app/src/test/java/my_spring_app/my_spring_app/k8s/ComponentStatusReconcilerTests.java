@@ -0,0 +1,94 @@
+package my_spring_app.my_spring_app.k8s;
+
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentCondition;
+import io.kubernetes.client.openapi.models.V1DeploymentSpec;
+import io.kubernetes.client.openapi.models.V1DeploymentStatus;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetSpec;
+import io.kubernetes.client.openapi.models.V1StatefulSetStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Suy ra status từ Deployment/StatefulSet và gộp thay đổi thành lô UPDATE.
+ */
+class ComponentStatusReconcilerTests {
+
+    @Test
+    void derivesStatusFromWorkloadState() {
+        Map<String, String> labels = OwnershipLabels.of("p1", "abc123", OwnershipLabels.TYPE_BACKEND, "alice");
+
+        ComponentStatusReconciler.Observation pending = ComponentStatusReconciler.observe(deployment("app-abc123", labels, 2, 1, null));
+        assertEquals(new ComponentStatusReconciler.Observation(OwnershipLabels.TYPE_BACKEND, "abc123", "PENDING", 2), pending);
+        assertEquals("RUNNING", ComponentStatusReconciler.observe(deployment("app-abc123", labels, 2, 2, null)).status());
+        assertEquals("STOPPED", ComponentStatusReconciler.observe(deployment("app-abc123", labels, 0, 0, null)).status());
+        V1DeploymentCondition deadline = new V1DeploymentCondition().type("Progressing").status("False").reason("ProgressDeadlineExceeded");
+        assertEquals("ERROR", ComponentStatusReconciler.observe(deployment("app-abc123", labels, 1, 0, deadline)).status());
+
+        // Object cũ chưa có label: nhận diện theo tên
+        assertNull(ComponentStatusReconciler.observe(deployment("app-legacy", null, 1, 1, null)).type());
+        assertNull(ComponentStatusReconciler.observe(deployment("coredns", null, 1, 1, null)));
+        V1StatefulSet database = new V1StatefulSet()
+                .metadata(new V1ObjectMeta().name("db-xyz789"))
+                .spec(new V1StatefulSetSpec().replicas(1))
+                .status(new V1StatefulSetStatus().readyReplicas(1));
+        assertEquals(new ComponentStatusReconciler.Observation(OwnershipLabels.TYPE_DATABASE, "xyz789", "RUNNING", 1),
+                ComponentStatusReconciler.observe(database));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushCoalescesPerComponentAndBatchesPerTable() {
+        ComponentStatusReconciler reconciler = new ComponentStatusReconciler();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any())).thenReturn(new int[]{1});
+        ReflectionTestUtils.setField(reconciler, "jdbcTemplate", jdbcTemplate);
+
+        Map<String, ComponentStatusReconciler.Observation> pending =
+                (Map<String, ComponentStatusReconciler.Observation>) ReflectionTestUtils.getField(reconciler, "pending");
+        ComponentStatusReconciler.Observation first = new ComponentStatusReconciler.Observation(OwnershipLabels.TYPE_FRONTEND, "fe1", "PENDING", 1);
+        ComponentStatusReconciler.Observation latest = new ComponentStatusReconciler.Observation(OwnershipLabels.TYPE_FRONTEND, "fe1", "RUNNING", 1);
+        pending.put(first.key(), first);
+        pending.put(latest.key(), latest);
+
+        assertEquals(1, reconciler.flush());
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("UPDATE project_frontend"), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        assertArrayEquals(new Object[]{"RUNNING", 1, "fe1", "RUNNING", 1}, rows.getValue().get(0));
+
+        // Hàng đợi rỗng: không gửi lô nào
+        assertEquals(0, reconciler.flush());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any());
+    }
+
+    private static V1Deployment deployment(String name, Map<String, String> labels, int desired, int ready,
+                                           V1DeploymentCondition condition) {
+        V1DeploymentStatus status = new V1DeploymentStatus().readyReplicas(ready);
+        if (condition != null) {
+            status.addConditionsItem(condition);
+        }
+        return new V1Deployment()
+                .metadata(new V1ObjectMeta().name(name).labels(labels))
+                .spec(new V1DeploymentSpec().replicas(desired))
+                .status(status);
+    }
+}
@@ -0,0 +1,31 @@
+package my_spring_app.my_spring_app.k8s;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tên resource của component theo quy ước khi deploy.
+ */
+class ComponentWorkloadsTests {
+
+    @Test
+    void listsResourcesPerComponentType() {
+        assertEquals(List.of(
+                new ComponentWorkloads.ResourceRef("networking.k8s.io", "v1", "ingresses", "app-abc-ing"),
+                new ComponentWorkloads.ResourceRef("", "v1", "services", "app-abc-svc"),
+                new ComponentWorkloads.ResourceRef("apps", "v1", "deployments", "app-abc")),
+                ComponentWorkloads.resourcesOf(OwnershipLabels.TYPE_FRONTEND, "abc", null));
+
+        assertEquals(List.of(
+                new ComponentWorkloads.ResourceRef("apps", "v1", "statefulsets", "db-xyz"),
+                new ComponentWorkloads.ResourceRef("", "v1", "services", "db-xyz-svc"),
+                new ComponentWorkloads.ResourceRef("", "v1", "persistentvolumeclaims", "mongodb-data-db-xyz-0")),
+                ComponentWorkloads.resourcesOf(OwnershipLabels.TYPE_DATABASE, "xyz", "MONGODB"));
+
+        // Không rõ loại database: xoá Secret và PVC của cả MySQL lẫn MongoDB
+        assertEquals(5, ComponentWorkloads.resourcesOf(OwnershipLabels.TYPE_DATABASE, "xyz", null).size());
+    }
+}
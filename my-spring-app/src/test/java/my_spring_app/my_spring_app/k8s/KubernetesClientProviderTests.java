@@ -0,0 +1,206 @@
+package my_spring_app.my_spring_app.k8s;
+
+import com.jcraft.jsch.Session;
+import io.kubernetes.client.openapi.ApiClient;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.exception.ServerUnavailableException;
+import my_spring_app.my_spring_app.repository.ServerRepository;
+import my_spring_app.my_spring_app.ssh.CommandResult;
+import my_spring_app.my_spring_app.ssh.RemoteCommandExecutor;
+import my_spring_app.my_spring_app.ssh.ServerConnection;
+import my_spring_app.my_spring_app.ssh.ServerConnectionRegistry;
+import my_spring_app.my_spring_app.ssh.ServerHealthRegistry;
+import my_spring_app.my_spring_app.ssh.SshSessionPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Breaker của MASTER OPEN thì client() lỗi ngay; làm mới kubeconfig chạy ngoài khoá và chỉ một luồng làm.
+ * MASTER thay đổi thì tunnel được dựng lại sau commit; cổng forward của client cũ được gỡ muộn một chu kỳ.
+ */
+class KubernetesClientProviderTests {
+
+    private static final String KUBECONFIG = """
+            apiVersion: v1
+            kind: Config
+            clusters:
+            - name: test
+              cluster:
+                server: https://10.0.0.1:6443
+                insecure-skip-tls-verify: true
+            contexts:
+            - name: test
+              context:
+                cluster: test
+                user: admin
+            current-context: test
+            users:
+            - name: admin
+              user:
+                token: secret
+            """;
+
+    private final ServerRepository serverRepository = mock(ServerRepository.class);
+    private final ServerConnectionRegistry serverConnectionRegistry = mock(ServerConnectionRegistry.class);
+    private final RemoteCommandExecutor remoteCommandExecutor = mock(RemoteCommandExecutor.class);
+    private final KubernetesClientProvider provider = new KubernetesClientProvider();
+    private final ServerConnection connection = new ServerConnection(1L, "10.0.0.1", 22, "root", "secret",
+            ServerEntity.ServerStatus.ONLINE, null, System.currentTimeMillis());
+
+    @BeforeEach
+    void setUp() {
+        ServerEntity master = new ServerEntity();
+        master.setId(1L);
+        when(serverRepository.findByRole("MASTER")).thenReturn(Optional.of(master));
+        when(serverConnectionRegistry.get(1L)).thenReturn(connection);
+        ReflectionTestUtils.setField(provider, "serverRepository", serverRepository);
+        ReflectionTestUtils.setField(provider, "serverConnectionRegistry", serverConnectionRegistry);
+        ReflectionTestUtils.setField(provider, "remoteCommandExecutor", remoteCommandExecutor);
+        ReflectionTestUtils.setField(provider, "tunnelEnabled", false);
+    }
+
+    @Test
+    void openBreakerFailsFastWithoutHandshake() {
+        ServerHealthRegistry health = new ServerHealthRegistry();
+        SshSessionPool pool = new SshSessionPool();
+        ReflectionTestUtils.setField(pool, "serverHealthRegistry", health);
+        ReflectionTestUtils.setField(provider, "sshSessionPool", pool);
+        for (int i = 0; i < 3; i++) {
+            health.recordConnect(1L, 0, false);
+        }
+
+        // Không chờ timeout kết nối: lỗi ngay và giữ nguyên loại để trả 503 / dùng dữ liệu cache
+        long start = System.nanoTime();
+        assertThrows(ServerUnavailableException.class, provider::client);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertThrows(ServerUnavailableException.class, provider::watchClient);
+    }
+
+    @Test
+    void periodicRefreshRunsOutsideLockAndKeepsServingOldClient() throws Exception {
+        SshSessionPool pool = mock(SshSessionPool.class);
+        Session tunnel = mock(Session.class);
+        when(tunnel.isConnected()).thenReturn(true);
+        when(pool.openDedicated(connection)).thenReturn(tunnel);
+        ReflectionTestUtils.setField(provider, "sshSessionPool", pool);
+
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch finishRead = new CountDownLatch(1);
+        when(remoteCommandExecutor.execute(any(Session.class), anyString(), anyLong()))
+                .thenReturn(new CommandResult(0, KUBECONFIG, "", 1, false))
+                .thenAnswer(invocation -> {
+                    readStarted.countDown();
+                    finishRead.await(5, TimeUnit.SECONDS);
+                    return new CommandResult(0, KUBECONFIG.replace("secret", "rotated"), "", 1, false);
+                });
+
+        ApiClient first = provider.client();
+        ReflectionTestUtils.setField(provider, "configCheckIntervalMs", 0L);
+
+        CompletableFuture<ApiClient> refreshing = CompletableFuture.supplyAsync(provider::client);
+        assertTrue(readStarted.await(5, TimeUnit.SECONDS));
+
+        // Lần đọc kubeconfig đang treo: luồng khác vẫn lấy client cũ ngay
+        assertSame(first, CompletableFuture.supplyAsync(provider::client).get(1, TimeUnit.SECONDS));
+        verify(remoteCommandExecutor, times(2)).execute(any(Session.class), anyString(), anyLong());
+
+        finishRead.countDown();
+        ApiClient rotated = refreshing.get(5, TimeUnit.SECONDS);
+        assertNotSame(first, rotated);
+        // Tunnel còn sống: chỉ đọc lại kubeconfig, không mở session mới
+        verify(pool, times(1)).openDedicated(connection);
+    }
+
+    @Test
+    void masterChangeRebuildsTunnelAfterCommit() throws Exception {
+        SshSessionPool pool = mock(SshSessionPool.class);
+        Session first = connectedSession();
+        Session second = connectedSession();
+        Session third = connectedSession();
+        when(pool.openDedicated(connection)).thenReturn(first, second, third);
+        ReflectionTestUtils.setField(provider, "sshSessionPool", pool);
+        when(remoteCommandExecutor.execute(any(Session.class), anyString(), anyLong()))
+                .thenReturn(new CommandResult(0, KUBECONFIG, "", 1, false));
+
+        ApiClient before = provider.client();
+        // Server khác thay đổi: giữ nguyên tunnel
+        provider.invalidate(2L);
+        assertSame(before, provider.client());
+
+        ApiClient beforeCommit;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            provider.invalidate(1L);
+            verify(pool).closeDedicated(first);
+            // Thread khác dựng lại tunnel giữa save và commit (có thể từ thông tin kết nối cũ)
+            beforeCommit = provider.client();
+            assertNotSame(before, beforeCommit);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Sau commit tunnel đó cũng bị bỏ, lần gọi sau đọc thông tin kết nối mới
+        verify(pool).closeDedicated(second);
+        assertNotSame(beforeCommit, provider.client());
+        verify(pool, times(3)).openDedicated(connection);
+    }
+
+    @Test
+    void rotatedClientKeepsOldForwardUntilNextCheck() throws Exception {
+        ReflectionTestUtils.setField(provider, "tunnelEnabled", true);
+        SshSessionPool pool = mock(SshSessionPool.class);
+        Session tunnel = connectedSession();
+        when(tunnel.setPortForwardingL(eq("127.0.0.1"), eq(0), anyString(), anyInt())).thenReturn(40001, 40002);
+        when(pool.openDedicated(connection)).thenReturn(tunnel);
+        ReflectionTestUtils.setField(provider, "sshSessionPool", pool);
+        when(remoteCommandExecutor.execute(any(Session.class), anyString(), anyLong()))
+                .thenReturn(new CommandResult(0, KUBECONFIG, "", 1, false))
+                .thenReturn(new CommandResult(0, KUBECONFIG.replace("secret", "rotated"), "", 1, false));
+
+        ApiClient first = provider.client();
+        ReflectionTestUtils.setField(provider, "configCheckIntervalMs", 0L);
+
+        // Kubeconfig đổi: client mới trên cổng mới, request đang giữ client cũ vẫn mở được kết nối tới cổng cũ
+        ApiClient rotated = provider.client();
+        assertNotSame(first, rotated);
+        assertTrue(rotated.getBasePath().endsWith(":40002"));
+        verify(tunnel, never()).delPortForwardingL(anyString(), anyInt());
+
+        // Lần kiểm tra sau: cổng cũ được gỡ, client không đổi
+        assertSame(rotated, provider.client());
+        verify(tunnel).delPortForwardingL("127.0.0.1", 40001);
+        verify(pool, times(1)).openDedicated(connection);
+    }
+
+    private static Session connectedSession() {
+        Session session = mock(Session.class);
+        when(session.isConnected()).thenReturn(true);
+        return session;
+    }
+}
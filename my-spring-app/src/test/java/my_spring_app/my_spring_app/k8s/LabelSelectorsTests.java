@@ -0,0 +1,46 @@
+package my_spring_app.my_spring_app.k8s;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cú pháp label selector dùng để lọc object trong ClusterStateCache.
+ */
+class LabelSelectorsTests {
+
+    private static final Map<String, String> WEB = Map.of("app", "web", "tier", "fe");
+
+    @Test
+    void equalityAndExistenceRequirementsAreAnded() {
+        assertTrue(LabelSelectors.parse("app=web").test(WEB));
+        assertTrue(LabelSelectors.parse("app==web,tier").test(WEB));
+        assertTrue(LabelSelectors.parse("app!=db,!owner").test(WEB));
+        assertFalse(LabelSelectors.parse("app=web,tier=be").test(WEB));
+        assertFalse(LabelSelectors.parse("owner").test(WEB));
+
+        // Không có selector: khớp tất cả, kể cả object không có label
+        assertTrue(LabelSelectors.parse(null).test(null));
+        assertTrue(LabelSelectors.parse("!app").test(null));
+    }
+
+    @Test
+    void setRequirementsKeepCommasInsideParentheses() {
+        Predicate<Map<String, String>> selector = LabelSelectors.parse("tier in (fe, be),app notin (db,cache)");
+        assertTrue(selector.test(WEB));
+        assertFalse(selector.test(Map.of("app", "db", "tier", "be")));
+        assertFalse(selector.test(Map.of("app", "web")));
+    }
+
+    @Test
+    void malformedSelectorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LabelSelectors.parse("app in (web"));
+        assertThrows(IllegalArgumentException.class, () -> LabelSelectors.parse("app=web,"));
+        assertThrows(IllegalArgumentException.class, () -> LabelSelectors.parse("=web"));
+    }
+}
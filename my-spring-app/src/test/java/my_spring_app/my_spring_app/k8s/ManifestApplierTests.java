@@ -0,0 +1,81 @@
+package my_spring_app.my_spring_app.k8s;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tách manifest thành object để apply và lưu/xoá bản lưu cục bộ.
+ */
+class ManifestApplierTests {
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    void parsesMultiDocumentManifest() {
+        String manifest = "apiVersion: apps/v1\n" +
+                "kind: Deployment\n" +
+                "metadata:\n" +
+                "  name: app-abc123\n" +
+                "  namespace: ns-shop\n" +
+                "---\n" +
+                "---\n" +
+                "apiVersion: v1\n" +
+                "kind: Service\n" +
+                "metadata:\n" +
+                "  name: app-abc123-svc\n" +
+                "---\n" +
+                "apiVersion: networking.k8s.io/v1\n" +
+                "kind: Ingress\n" +
+                "metadata:\n" +
+                "  name: app-abc123-ing\n";
+
+        List<ManifestApplier.ManifestObject> objects = ManifestApplier.parse(manifest, "ns-default");
+
+        assertEquals(3, objects.size());
+        assertEquals(new ManifestApplier.ManifestObject("apps", "v1", "deployments", "Deployment", "ns-shop",
+                "app-abc123", objects.get(0).json()), objects.get(0));
+        // Object thiếu namespace được gán namespace đích, cả trong body gửi lên
+        assertEquals("", objects.get(1).group());
+        assertEquals("ns-default", objects.get(1).namespace());
+        assertTrue(objects.get(1).json().contains("\"namespace\":\"ns-default\""));
+        assertEquals("networking.k8s.io", objects.get(2).group());
+        assertEquals("ingresses", objects.get(2).plural());
+
+        assertEquals("networkpolicies", ManifestApplier.plural("NetworkPolicy"));
+        assertThrows(IllegalArgumentException.class, () -> ManifestApplier.parse("kind: Service\n", "ns"));
+    }
+
+    @Test
+    void archivesAndRemovesManifests() throws Exception {
+        ManifestApplier applier = new ManifestApplier();
+        ReflectionTestUtils.setField(applier, "archiveDir", archiveDir.toString());
+
+        String path = applier.archive("alice", "p1", "backend", "abc123", "kind: Service\n");
+        assertNotNull(path);
+        assertEquals("kind: Service\n", Files.readString(Path.of(path)));
+        // Tên thư mục lấy từ dữ liệu người dùng không thoát ra ngoài thư mục lưu trữ
+        String escaped = applier.archive("..", "../p2", "frontend", "x", "kind: Service\n");
+        assertTrue(Path.of(escaped).normalize().startsWith(archiveDir));
+
+        // Đường dẫn cũ trên MASTER không thuộc thư mục lưu trữ
+        assertFalse(applier.removeArchived("/home/master/uploads/alice/p1/backend/abc123/abc123.yaml"));
+        assertTrue(applier.removeArchived(path));
+        assertFalse(Files.exists(archiveDir.resolve("alice")));
+
+        applier.archive("alice", "p3", "database", "db1", "kind: Secret\n");
+        applier.removeProjectArchive("alice", "p3");
+        assertFalse(Files.exists(archiveDir.resolve("alice").resolve("p3")));
+    }
+}
@@ -0,0 +1,34 @@
+package my_spring_app.my_spring_app.k8s;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Label sở hữu gắn vào manifest và selector dùng để tra cứu lại.
+ */
+class OwnershipLabelsTests {
+
+    @Test
+    void labelsRenderAsQuotedYamlAndMatchComponentSelector() {
+        Map<String, String> labels = OwnershipLabels.of("a1b2c3d4e5f6", "123456789012", OwnershipLabels.TYPE_DATABASE, "alice");
+
+        String yaml = OwnershipLabels.yaml(labels, 4);
+        assertTrue(yaml.contains("    my-spring-app/component-id: \"123456789012\"\n"));
+        assertTrue(yaml.contains("    app.kubernetes.io/managed-by: \"my-spring-app\"\n"));
+
+        assertTrue(LabelSelectors.parse(OwnershipLabels.componentSelector("123456789012")).test(labels));
+        assertTrue(LabelSelectors.parse(OwnershipLabels.projectSelector("a1b2c3d4e5f6")).test(labels));
+    }
+
+    @Test
+    void ownerIsSanitizedToValidLabelValue() {
+        assertEquals("nguyen.van-a", OwnershipLabels.sanitize("nguyen.van a"));
+        assertEquals("user-example.com", OwnershipLabels.sanitize("-user@example.com_"));
+        assertEquals(63, OwnershipLabels.sanitize("x".repeat(80)).length());
+        assertEquals("", OwnershipLabels.sanitize(null));
+    }
+}
@@ -0,0 +1,87 @@
+package my_spring_app.my_spring_app.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rollup, truy vấn range và ngân sách bộ nhớ của kho lịch sử usage.
+ */
+class UsageHistoryStoreTests {
+
+    private static final long MINUTE = UsageHistoryStore.MINUTE_MS;
+
+    @Test
+    void rangeAveragesSamplesPerStepWindow() {
+        UsageHistoryStore store = new UsageHistoryStore();
+        long base = System.currentTimeMillis() / (10 * MINUTE) * (10 * MINUTE) - 30 * MINUTE;
+        for (int minute = 0; minute < 10; minute++) {
+            store.record("ns:a", base + minute * MINUTE, minute, 1000L * minute);
+        }
+
+        List<UsagePoint> perMinute = store.range("ns:a", base, base + 9 * MINUTE, MINUTE);
+        assertEquals(10, perMinute.size());
+        assertEquals(3.0, perMinute.get(3).cpuCores(), 1e-9);
+
+        List<UsagePoint> perFive = store.range("ns:a", base, base + 9 * MINUTE, 5 * MINUTE);
+        assertEquals(2, perFive.size());
+        assertEquals(base, perFive.get(0).timestampMs());
+        assertEquals(2.0, perFive.get(0).cpuCores(), 1e-9);
+        assertEquals(7000L, perFive.get(1).memoryBytes());
+    }
+
+    @Test
+    void rangeSumAddsSeriesByWindowAndLatestSampleMatchesRound() {
+        UsageHistoryStore store = new UsageHistoryStore();
+        long now = System.currentTimeMillis();
+        store.record(UsageHistoryStore.namespaceKey("a"), now, 1.0, 100);
+        store.record(UsageHistoryStore.namespaceKey("b"), now, 0.5, 50);
+        store.markSampled(now);
+
+        List<UsagePoint> sum = store.rangeSum(
+                List.of(UsageHistoryStore.namespaceKey("a"), UsageHistoryStore.namespaceKey("b"), "ns:missing"),
+                now, now, MINUTE);
+        assertEquals(1, sum.size());
+        assertEquals(1.5, sum.get(0).cpuCores(), 1e-9);
+        assertEquals(150L, sum.get(0).memoryBytes());
+
+        assertEquals(now, store.freshSampleAt());
+        assertNotNull(store.sampleAt(UsageHistoryStore.namespaceKey("a"), now));
+        assertNull(store.sampleAt(UsageHistoryStore.namespaceKey("a"), now - MINUTE));
+    }
+
+    @Test
+    void fullBudgetEvictsStalestSeriesButNeverCurrentRound() {
+        UsageHistoryStore store = new UsageHistoryStore();
+        ReflectionTestUtils.setField(store, "slots1m", 4);
+        ReflectionTestUtils.setField(store, "slots5m", 4);
+        ReflectionTestUtils.setField(store, "slots1h", 4);
+        // 0 MB: ngân sách tối thiểu một chuỗi
+        ReflectionTestUtils.setField(store, "maxMemoryMb", 0L);
+
+        long now = System.currentTimeMillis();
+        assertTrue(store.record("old", now - MINUTE, 1, 1));
+        assertTrue(store.record("new", now, 1, 1));
+        assertEquals(1, store.seriesCount());
+        assertFalse(store.record("same-round", now, 1, 1));
+        assertEquals(1, store.droppedSeries());
+    }
+
+    @Test
+    void rejectsInvalidWindows() {
+        UsageHistoryStore store = new UsageHistoryStore();
+        long now = System.currentTimeMillis();
+        assertThrows(IllegalArgumentException.class, () -> store.range("cluster", now, now, 1000));
+        assertThrows(IllegalArgumentException.class, () -> store.range("cluster", now, now - MINUTE, MINUTE));
+        assertThrows(IllegalArgumentException.class, () -> store.range("cluster", now - 3000 * MINUTE, now, MINUTE));
+        assertEquals(MINUTE, store.defaultStepMs(now - MINUTE, now));
+    }
+}
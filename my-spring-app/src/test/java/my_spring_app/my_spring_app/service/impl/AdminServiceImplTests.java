@@ -0,0 +1,52 @@
+package my_spring_app.my_spring_app.service.impl;
+
+import io.kubernetes.client.openapi.models.V1Node;
+import my_spring_app.my_spring_app.dto.reponse.DashboardMetricsResponse;
+import my_spring_app.my_spring_app.exception.ServerUnavailableException;
+import my_spring_app.my_spring_app.k8s.ClusterMetricsGateway;
+import my_spring_app.my_spring_app.metrics.UsageHistoryStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dashboard dùng kết quả gần nhất khi breaker của MASTER đang OPEN; lỗi khác vẫn được báo ra.
+ */
+class AdminServiceImplTests {
+
+    private final ClusterMetricsGateway clusterMetricsGateway = mock(ClusterMetricsGateway.class);
+    private final UsageHistoryStore usageHistoryStore = mock(UsageHistoryStore.class);
+    private final AdminServiceImpl adminService = new AdminServiceImpl();
+
+    @Test
+    void openBreakerServesCachedDashboard() {
+        ReflectionTestUtils.setField(adminService, "clusterMetricsGateway", clusterMetricsGateway);
+        ReflectionTestUtils.setField(adminService, "usageHistoryStore", usageHistoryStore);
+        when(usageHistoryStore.freshSampleAt()).thenReturn(-1L);
+        when(clusterMetricsGateway.pods()).thenReturn(List.of());
+        when(clusterMetricsGateway.deployments()).thenReturn(List.of());
+        when(clusterMetricsGateway.podUsageByNamespace()).thenReturn(Map.of());
+        ServerUnavailableException unavailable = new ServerUnavailableException(1L, 30000, "Server 1 tam thoi khong kha dung");
+        when(clusterMetricsGateway.nodes())
+                .thenReturn(List.of(new V1Node()))
+                .thenThrow(new RuntimeException("Không thể lấy danh sách nodes", unavailable))
+                .thenThrow(new IllegalStateException("API server trả lỗi 500"));
+
+        DashboardMetricsResponse first = adminService.getDashboardMetrics(null);
+        assertEquals(1, first.getNodes().getTotal());
+
+        // Lỗi bọc ServerUnavailableException (từ KubernetesClientProvider/ClusterStateCache): trả bản cache
+        assertSame(first, adminService.getDashboardMetrics(null));
+
+        // Lỗi không phải do breaker: không che bằng dữ liệu cũ
+        assertThrows(RuntimeException.class, () -> adminService.getDashboardMetrics(null));
+    }
+}
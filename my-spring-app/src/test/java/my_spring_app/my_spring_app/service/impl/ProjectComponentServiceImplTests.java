@@ -0,0 +1,132 @@
+package my_spring_app.my_spring_app.service.impl;
+
+import my_spring_app.my_spring_app.dto.reponse.BulkComponentResponse;
+import my_spring_app.my_spring_app.entity.ProjectBackendEntity;
+import my_spring_app.my_spring_app.entity.ProjectEntity;
+import my_spring_app.my_spring_app.k8s.ComponentStatusReconciler;
+import my_spring_app.my_spring_app.k8s.ComponentWorkloads;
+import my_spring_app.my_spring_app.repository.ProjectBackendRepository;
+import my_spring_app.my_spring_app.repository.ProjectDatabaseRepository;
+import my_spring_app.my_spring_app.repository.ProjectFrontendRepository;
+import my_spring_app.my_spring_app.repository.ProjectRepository;
+import my_spring_app.my_spring_app.ssh.FleetExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fan-out Kubernetes chạy ngoài transaction; DB được cập nhật sau đó trong một transaction ngắn trên bản ghi đọc lại.
+ */
+class ProjectComponentServiceImplTests {
+
+    private final ProjectBackendRepository projectBackendRepository = mock(ProjectBackendRepository.class);
+    private final ComponentWorkloads componentWorkloads = mock(ComponentWorkloads.class);
+    private final FleetExecutor fleetExecutor = new FleetExecutor();
+    private final List<String> events = new ArrayList<>();
+    private final ProjectComponentServiceImpl service = new ProjectComponentServiceImpl();
+
+    @AfterEach
+    void tearDown() {
+        fleetExecutor.shutdown();
+    }
+
+    @Test
+    void fanOutRunsOutsideTransactionAndUpdatesFreshRecord() throws Exception {
+        ProjectEntity project = new ProjectEntity();
+        project.setId(1L);
+        project.setNamespace("shop");
+        ProjectBackendEntity loaded = backend(project, "RUNNING");
+        // ComponentStatusReconciler đã ghi status mới trong lúc fan-out
+        ProjectBackendEntity current = backend(project, "ERROR");
+
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findById(1L)).thenReturn(Optional.of(project));
+        ProjectDatabaseRepository projectDatabaseRepository = mock(ProjectDatabaseRepository.class);
+        when(projectDatabaseRepository.findByProjectIdWithProject(1L)).thenReturn(List.of());
+        ProjectFrontendRepository projectFrontendRepository = mock(ProjectFrontendRepository.class);
+        when(projectFrontendRepository.findByProjectIdWithProject(1L)).thenReturn(List.of());
+        when(projectBackendRepository.findByProjectIdWithProject(1L)).thenReturn(List.of(loaded));
+        when(projectBackendRepository.findById(7L)).thenReturn(Optional.of(current));
+        List<ProjectBackendEntity> saved = new ArrayList<>();
+        when(projectBackendRepository.save(any(ProjectBackendEntity.class))).thenAnswer(inv -> {
+            events.add("save");
+            saved.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        doAnswer(inv -> {
+            events.add("scale");
+            return null;
+        }).when(componentWorkloads).scale(anyString(), anyString(), anyString(), anyInt());
+
+        ReflectionTestUtils.invokeMethod(fleetExecutor, "init");
+        ReflectionTestUtils.setField(service, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(service, "projectDatabaseRepository", projectDatabaseRepository);
+        ReflectionTestUtils.setField(service, "projectBackendRepository", projectBackendRepository);
+        ReflectionTestUtils.setField(service, "projectFrontendRepository", projectFrontendRepository);
+        ReflectionTestUtils.setField(service, "componentWorkloads", componentWorkloads);
+        ReflectionTestUtils.setField(service, "fleetExecutor", fleetExecutor);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager());
+        service.init();
+
+        BulkComponentResponse response = service.bulkProjectComponents(1L, "stop", null);
+
+        assertEquals(1, response.getSucceeded());
+        // Không có transaction nào mở trong lúc chờ API server; transaction chỉ bao bước ghi DB
+        assertEquals(List.of("scale", "begin", "save", "commit"), events);
+        assertEquals(1, saved.size());
+        assertSame(current, saved.get(0));
+        assertEquals(ComponentStatusReconciler.STATUS_STOPPED, current.getStatus());
+        assertEquals(0, current.getReplicas());
+        assertEquals("RUNNING", loaded.getStatus());
+        assertTrue(response.getItems().stream().allMatch(item -> "OK".equals(item.getResult())));
+    }
+
+    private PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                events.add("begin");
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                events.add("commit");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                events.add("rollback");
+            }
+        };
+    }
+
+    private static ProjectBackendEntity backend(ProjectEntity project, String status) {
+        ProjectBackendEntity backend = new ProjectBackendEntity();
+        backend.setId(7L);
+        backend.setProject(project);
+        backend.setProjectName("api");
+        backend.setUuid_k8s("be7");
+        backend.setStatus(status);
+        backend.setReplicas(1);
+        return backend;
+    }
+}
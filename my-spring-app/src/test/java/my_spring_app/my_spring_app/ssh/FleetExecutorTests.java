@@ -0,0 +1,93 @@
+package my_spring_app.my_spring_app.ssh;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Giới hạn song song theo host, deadline của fan-out và dọn semaphore của host đã rảnh.
+ */
+class FleetExecutorTests {
+
+    private FleetExecutor fleetExecutor;
+
+    @BeforeEach
+    void setUp() {
+        fleetExecutor = new FleetExecutor();
+        ReflectionTestUtils.setField(fleetExecutor, "perHostConcurrency", 2);
+        fleetExecutor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetExecutor.shutdown();
+    }
+
+    @Test
+    void perHostLimitCapsConcurrentTasksOnSameHost() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<FleetExecutor.HostOutcome<Integer, Integer>> outcomes = fleetExecutor.fanOut(
+                "test", List.of(1, 2, 3, 4, 5, 6), target -> "10.0.0.1", 5000, target -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(30);
+                    running.decrementAndGet();
+                    return target * 10;
+                });
+
+        assertEquals(2, peak.get());
+        assertEquals(6, outcomes.size());
+        // Không còn tác vụ nào trên host: semaphore của host được bỏ khỏi map
+        assertEquals(0, fleetExecutor.trackedHosts());
+        for (int i = 0; i < outcomes.size(); i++) {
+            assertTrue(outcomes.get(i).isSuccess());
+            assertEquals((i + 1) * 10, outcomes.get(i).value());
+        }
+    }
+
+    @Test
+    void slowHostIsReportedAsTimedOutWithoutBlockingOthers() {
+        long start = System.currentTimeMillis();
+        List<FleetExecutor.HostOutcome<String, String>> outcomes = fleetExecutor.fanOut(
+                "test", List.of("fast", "slow", "broken"), host -> host, 200, host -> {
+                    if ("slow".equals(host)) Thread.sleep(10_000);
+                    if ("broken".equals(host)) throw new IllegalStateException("boom");
+                    return host;
+                });
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(outcomes.get(0).isSuccess());
+        assertTrue(outcomes.get(1).timedOut());
+        assertFalse(outcomes.get(2).isSuccess());
+        assertEquals("boom", outcomes.get(2).errorMessage());
+    }
+
+    @Test
+    void hostPermitsAreEvictedOnceIdle() throws Exception {
+        List<Integer> targets = IntStream.range(0, 200).boxed().toList();
+        fleetExecutor.fanOut("test", targets, target -> "10.0." + (target / 250) + "." + (target % 250), 5000,
+                target -> target);
+        assertEquals(0, fleetExecutor.trackedHosts());
+
+        CompletableFuture<String> background = fleetExecutor.submit("test", "10.1.0.1", 0, () -> "done");
+        assertEquals("done", background.get(5, TimeUnit.SECONDS));
+        // finally của tác vụ nền chạy sau khi kết quả đã được trả: chờ permit được nhả
+        long deadline = System.currentTimeMillis() + 2000;
+        while (fleetExecutor.trackedHosts() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, fleetExecutor.trackedHosts());
+    }
+}
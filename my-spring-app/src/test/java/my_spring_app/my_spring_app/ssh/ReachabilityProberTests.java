@@ -0,0 +1,48 @@
+package my_spring_app.my_spring_app.ssh;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Probe NIO trả kết quả theo thứ tự target và ghi nhận RTT cho host kết nối được.
+ */
+class ReachabilityProberTests {
+
+    @Test
+    void probesAllTargetsInOnePassAndRecordsRtt() throws Exception {
+        ReachabilityProber prober = new ReachabilityProber();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+
+        int closedPort;
+        try (ServerSocket temp = new ServerSocket(0, 50, loopback)) {
+            closedPort = temp.getLocalPort();
+        }
+
+        try (ServerSocket open = new ServerSocket(0, 50, loopback)) {
+            List<Integer> ports = List.of(open.getLocalPort(), closedPort, open.getLocalPort());
+            List<ReachabilityProber.ProbeResult> results =
+                    prober.probeAll(ports, port -> new InetSocketAddress(loopback, port), 2000);
+
+            assertEquals(3, results.size());
+            assertTrue(results.get(0).reachable());
+            assertFalse(results.get(1).reachable());
+            assertNotNull(results.get(1).error());
+            assertTrue(results.get(2).reachable());
+
+            ReachabilityProber.RttSnapshot rtt = prober.rttSnapshot(loopback.getHostAddress(), open.getLocalPort());
+            assertNotNull(rtt);
+            assertEquals(2, rtt.samples());
+            assertTrue(prober.averageRttMs(loopback.getHostAddress(), open.getLocalPort()).isPresent());
+            assertTrue(prober.averageRttMs(loopback.getHostAddress(), closedPort).isEmpty());
+        }
+    }
+}
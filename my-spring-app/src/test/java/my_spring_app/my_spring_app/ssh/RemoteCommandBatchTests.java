@@ -0,0 +1,77 @@
+package my_spring_app.my_spring_app.ssh;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Script của batch chạy được bằng sh, kết quả từng lệnh (stdout, stderr, exit code) được tách đúng.
+ */
+class RemoteCommandBatchTests {
+
+    @Test
+    void scriptRunsEveryCommandAndResultsAreDemultiplexed() throws Exception {
+        RemoteCommandBatch batch = new RemoteCommandBatch()
+                .add("ingress", "echo 'ingress \"app-1-ing\" deleted'")
+                .add("missing", "echo 'Error from server (NotFound)' >&2; exit 1")
+                .add("multi", "printf 'a\\nb\\n'; echo warn >&2")
+                .add("empty", "true");
+
+        RemoteCommandBatch.Results results = batch.parse(runLocally(batch.toScript()), 7);
+
+        assertEquals(List.of("ingress", "missing", "multi", "empty"), List.copyOf(results.asMap().keySet()));
+        assertEquals("ingress \"app-1-ing\" deleted", results.stdout("ingress"));
+        assertTrue(results.isSuccess("ingress"));
+
+        CommandResult missing = results.get("missing");
+        assertEquals(1, missing.exitStatus());
+        assertEquals("Error from server (NotFound)\n", missing.stderr());
+        assertFalse(missing.timedOut());
+
+        // Lệnh lỗi không dừng các lệnh sau
+        assertEquals("a\nb\n", results.get("multi").stdout());
+        assertEquals("warn\n", results.get("multi").stderr());
+        assertEquals(0, results.get("empty").exitStatus());
+        assertEquals(7, results.get("empty").durationMs());
+    }
+
+    @Test
+    void truncatedOutputMarksRemainingCommandsTimedOut() throws Exception {
+        RemoteCommandBatch batch = new RemoteCommandBatch()
+                .add("first", "echo one")
+                .add("second", "echo two");
+        String output = runLocally(batch.toScript());
+        // Script bị ngắt giữa lệnh thứ hai (deadline của channel)
+        String truncated = output.substring(0, output.indexOf("two") + 3);
+
+        RemoteCommandBatch.Results results = batch.parse(truncated, 1);
+
+        assertTrue(results.isSuccess("first"));
+        assertEquals("one", results.stdout("first"));
+        assertEquals(-1, results.get("second").exitStatus());
+        assertTrue(results.get("second").timedOut());
+        assertEquals("two", results.stdout("second"));
+        assertEquals("", results.stdout("unknown"));
+    }
+
+    @Test
+    void rejectsDuplicateKeys() {
+        RemoteCommandBatch batch = new RemoteCommandBatch().add("svc", "true");
+        assertThrows(IllegalArgumentException.class, () -> batch.add("svc", "false"));
+        assertEquals(1, batch.size());
+    }
+
+    private static String runLocally(String script) throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", script).redirectErrorStream(false).start();
+        String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        return stdout;
+    }
+}
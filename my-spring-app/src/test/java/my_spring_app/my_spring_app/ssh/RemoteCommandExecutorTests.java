@@ -0,0 +1,472 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hoàn tất lệnh theo sự kiện đóng channel, decode output theo chunk và chạy lệnh bất đồng bộ.
+ * Channel giả gọi lại sink như thread của JSch Session (ghi output, EOF, rồi CLOSE).
+ * Benchmark overhead mỗi lệnh (polling cũ so với sự kiện đóng channel) chỉ chạy khi bật -Dbenchmark=true.
+ */
+class RemoteCommandExecutorTests {
+
+    private static final byte[] OUTPUT = "NAME   STATUS   ROLES\nnode-1 Ready    control-plane\n"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final int ITERATIONS = 20;
+    private static final long COMMAND_RUNTIME_MS = 5;
+    private static final byte[] BENCHMARK_OUTPUT = new String(OUTPUT, StandardCharsets.UTF_8).repeat(50)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void completesOnChannelCloseWithoutPolling() throws Exception {
+        Session session = mock(Session.class);
+        AtomicReference<OutputStream> stdout = new AtomicReference<>();
+        AtomicReference<OutputStream> stderr = new AtomicReference<>();
+        CountDownLatch connected = new CountDownLatch(1);
+        ChannelExec channel = channel(stdout, stderr, connected);
+        when(session.openChannel("exec")).thenReturn(channel);
+
+        RemoteCommandExecutor executor = new RemoteCommandExecutor();
+        try {
+            CompletableFuture<CommandResult> result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executor.execute(session, "kubectl get nodes", 0);
+                } catch (JSchException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(connected.await(5, TimeUnit.SECONDS));
+
+            // Output và EOF đã tới nhưng channel chưa CLOSE: lệnh chưa được coi là xong
+            stdout.get().write(OUTPUT, 0, OUTPUT.length);
+            stdout.get().close();
+            assertThrows(TimeoutException.class, () -> result.get(100, TimeUnit.MILLISECONDS));
+
+            // CLOSE (JSch đóng sink stderr trong Channel.disconnect()) đánh thức ngay thread đang chờ
+            stderr.get().close();
+            CommandResult done = result.get(5, TimeUnit.SECONDS);
+            assertEquals(0, done.exitStatus());
+            assertFalse(done.timedOut());
+            assertEquals(new String(OUTPUT, StandardCharsets.UTF_8), done.stdout());
+            // Không có vòng lặp available()/isClosed() nào đọc trạng thái channel
+            verify(channel, never()).isClosed();
+            verify(channel, never()).getInputStream();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Thread "remote" mô phỏng thread của JSch Session (ghi output, EOF, rồi CLOSE), nên phép đo chỉ phản ánh
+     * độ trễ phía đọc, không phụ thuộc mạng. Kết quả được ghi vào test report.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void eventDrivenCompletionRemovesPollingFloor(TestReporter reporter) throws Exception {
+        // Làm nóng JIT cho cả hai cách
+        for (int i = 0; i < 3; i++) {
+            runLegacyPolling();
+            runEventDriven();
+        }
+
+        long legacyTotal = 0;
+        long eventTotal = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            legacyTotal += runLegacyPolling();
+            eventTotal += runEventDriven();
+        }
+        double legacyOverheadMs = legacyTotal / (double) ITERATIONS / 1_000_000d - COMMAND_RUNTIME_MS;
+        double eventOverheadMs = eventTotal / (double) ITERATIONS / 1_000_000d - COMMAND_RUNTIME_MS;
+
+        reporter.publishEntry("pollingOverheadMs", String.format("%.2f", legacyOverheadMs));
+        reporter.publishEntry("eventDrivenOverheadMs", String.format("%.2f", eventOverheadMs));
+        assertTrue(eventOverheadMs < legacyOverheadMs,
+                "Event-driven phai nhanh hon polling: " + eventOverheadMs + " ms so voi " + legacyOverheadMs + " ms");
+        assertTrue(eventOverheadMs < 20, "Overhead event-driven phai duoi 20ms, thuc te: " + eventOverheadMs);
+    }
+
+    @Test
+    void timeoutOnLiveSessionDoesNotOpenBreaker() throws Exception {
+        Session session = mock(Session.class);
+        when(session.isConnected()).thenReturn(true);
+        when(session.openChannel("exec")).thenAnswer(inv -> mock(ChannelExec.class));
+        ServerHealthRegistry health = new ServerHealthRegistry();
+        health.bind(session, 1L);
+        RemoteCommandExecutor executor = new RemoteCommandExecutor();
+        ReflectionTestUtils.setField(executor, "serverHealthRegistry", health);
+        try {
+            // Lệnh chạy lâu (ví dụ build) quá hạn nhiều lần: session vẫn sống nên breaker vẫn CLOSED
+            for (int i = 0; i < 3; i++) {
+                assertTrue(executor.execute(session, "sleep 600", 10).timedOut());
+            }
+            assertEquals(ServerHealthRegistry.State.CLOSED, health.snapshot(1L).state());
+
+            // Session rớt trong lúc chờ: lỗi đường truyền, tính vào breaker
+            when(session.isConnected()).thenReturn(false);
+            for (int i = 0; i < 3; i++) {
+                executor.execute(session, "sleep 600", 10);
+            }
+            assertEquals(ServerHealthRegistry.State.OPEN, health.snapshot(1L).state());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void streamSinkKeepsMultiByteCharactersAcrossChunks() throws Exception {
+        StringBuilder received = new StringBuilder();
+        RemoteCommandExecutor.Execution execution = new RemoteCommandExecutor.Execution(received::append);
+        byte[] text = "Triển khai thành công ✓".getBytes(StandardCharsets.UTF_8);
+
+        // Ghi từng byte một để chắc chắn ký tự nhiều byte bị cắt ngang
+        for (byte b : text) {
+            execution.stdout.write(new byte[]{b}, 0, 1);
+        }
+        execution.stdout.close();
+        execution.stderr.close();
+
+        assertTrue(execution.await(1000));
+        assertEquals("Triển khai thành công ✓", received.toString());
+        assertEquals("Triển khai thành công ✓", execution.stdout.text());
+    }
+
+    @Test
+    void lineModeSplitsChunksWithoutBufferingStdout() throws Exception {
+        List<String> lines = new ArrayList<>();
+        RemoteCommandExecutor.LineAssembler assembler = new RemoteCommandExecutor.LineAssembler(lines::add);
+        RemoteCommandExecutor.Execution execution = RemoteCommandExecutor.Execution.lines(assembler);
+        byte[] text = "kube-system\tcoredns-1   3m   12Mi\r\ndefault  nginx  15m 1Gi\n\nứng-dụng app 1 2"
+                .getBytes(StandardCharsets.UTF_8);
+
+        // Gói tin cắt ngang dòng và ký tự nhiều byte
+        for (int off = 0; off < text.length; off += 7) {
+            execution.stdout.write(text, off, Math.min(7, text.length - off));
+        }
+        execution.stdout.close();
+        execution.stderr.close();
+        assertTrue(execution.await(1000));
+        assembler.finish();
+
+        assertEquals(List.of("kube-system\tcoredns-1   3m   12Mi", "default  nginx  15m 1Gi", "", "ứng-dụng app 1 2"), lines);
+        assertEquals("", execution.stdout.text());
+
+        ColumnTokenizer columns = new ColumnTokenizer(4);
+        assertEquals(4, columns.tokenize(lines.get(0)));
+        assertEquals("kube-system", columns.column(0));
+        assertEquals("12Mi", columns.column(3));
+        assertTrue(columns.columnEquals(2, "3M", true));
+        assertEquals(4, columns.tokenize("  a b c d e  "));
+        assertEquals(0, columns.tokenize("   "));
+        // Output một dòng của df/nproc còn \n ở cuối
+        assertEquals(4, columns.tokenize("/dev/sda1 20G 5.0G 14G 26% /\n"));
+        assertEquals("5.0G", columns.column(2));
+        assertEquals(3, columns.tokenize("2.00 4 8000\n"));
+        assertEquals("8000", columns.column(2));
+    }
+
+    @Test
+    void stalledSubscriberDoesNotBlockOtherChannelsOfSession() throws Exception {
+        Session session = mock(Session.class);
+        AtomicReference<OutputStream> stalledOut = new AtomicReference<>();
+        AtomicReference<OutputStream> stalledErr = new AtomicReference<>();
+        CountDownLatch stalledConnected = new CountDownLatch(1);
+        AtomicReference<OutputStream> otherOut = new AtomicReference<>();
+        AtomicReference<OutputStream> otherErr = new AtomicReference<>();
+        CountDownLatch otherConnected = new CountDownLatch(1);
+        ChannelExec stalledChannel = channel(stalledOut, stalledErr, stalledConnected);
+        ChannelExec otherChannel = channel(otherOut, otherErr, otherConnected);
+        when(session.openChannel("exec")).thenReturn(stalledChannel, otherChannel);
+
+        RemoteCommandExecutor executor = new RemoteCommandExecutor();
+        ReflectionTestUtils.setField(executor, "asyncOutputBuffer", 1);
+        try {
+            // Buffer 1 đoạn đầy ngay
+            RemoteCommandFuture stalled = executor.submitAsync(
+                    handler -> executor.execute(session, "journalctl -f", 0, handler), neverRequesting());
+            assertTrue(stalledConnected.await(5, TimeUnit.SECONDS));
+            CompletableFuture<CommandResult> other = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executor.execute(session, "kubectl get nodes", 0);
+                } catch (JSchException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(otherConnected.await(5, TimeUnit.SECONDS));
+
+            // Một thread đọc của Session phục vụ cả hai channel, lần lượt như JSch
+            CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        stalledOut.get().write(OUTPUT, 0, OUTPUT.length);
+                    }
+                    otherOut.get().write(OUTPUT, 0, OUTPUT.length);
+                    otherOut.get().close();
+                    otherErr.get().close();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            reader.get(5, TimeUnit.SECONDS);
+            CommandResult done = other.get(5, TimeUnit.SECONDS);
+            assertEquals(new String(OUTPUT, StandardCharsets.UTF_8), done.stdout());
+            assertFalse(stalled.isDone());
+            assertTrue(stalled.cancel(true));
+
+            // Lệnh đã xong mà subscriber vẫn không request: đoạn output bị bỏ sau stall timeout, publisher vẫn đóng
+            ReflectionTestUtils.setField(executor, "asyncOutputStallMs", 50L);
+            RemoteCommandFuture finished = executor.submitAsync(handler -> {
+                for (int i = 0; i < 3; i++) {
+                    handler.accept("chunk-" + i + "\n");
+                }
+                return new CommandResult(0, "", "", 1, false);
+            }, neverRequesting());
+            assertEquals(0, finished.get(5, TimeUnit.SECONDS).exitStatus());
+            SubmissionPublisher<String> output = (SubmissionPublisher<String>) finished.output();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!output.isClosed()) {
+                assertTrue(System.currentTimeMillis() < deadline, "Publisher phai dong sau stall timeout");
+                Thread.sleep(20);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void asyncCommandStreamsOutputAndCancelsOnVirtualThread() throws Exception {
+        RemoteCommandExecutor executor = new RemoteCommandExecutor();
+        try {
+            // Lệnh hoàn tất bình thường: subscriber nhận đủ output rồi onComplete, future trả CommandResult
+            StringBuffer streamed = new StringBuffer();
+            CountDownLatch streamClosed = new CountDownLatch(1);
+            RemoteCommandFuture done = executor.submitAsync(handler -> {
+                assertTrue(Thread.currentThread().isVirtual());
+                handler.accept("line-1\n");
+                handler.accept("line-2\n");
+                return new CommandResult(0, "line-1\nline-2\n", "", 1, false);
+            }, subscriber(streamed::append, streamClosed));
+            assertEquals(0, done.get(5, TimeUnit.SECONDS).exitStatus());
+            assertTrue(streamClosed.await(5, TimeUnit.SECONDS));
+            assertEquals("line-1\nline-2\n", streamed.toString());
+
+            // Subscriber chậm (buffer 1 đoạn): output xếp hàng cho subscriber, không bị bỏ và không giữ lệnh lại
+            ReflectionTestUtils.setField(executor, "asyncOutputBuffer", 1);
+            List<String> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch slowClosed = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            RemoteCommandFuture slow = executor.submitAsync(handler -> {
+                for (int i = 0; i < 50; i++) {
+                    handler.accept("chunk-" + i + "\n");
+                }
+                return new CommandResult(0, "", "", 1, false);
+            }, subscriber(chunk -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(chunk);
+            }, slowClosed));
+            // Lệnh hoàn tất dù subscriber chưa nhận; publisher chỉ đóng sau khi phát hết output
+            slow.get(5, TimeUnit.SECONDS);
+            assertFalse(slowClosed.await(200, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertTrue(slowClosed.await(5, TimeUnit.SECONDS));
+            assertEquals(50, received.size());
+            assertEquals("chunk-49\n", received.get(49));
+
+            // Lệnh treo: cancel() phải ngắt thread đang chờ channel
+            CountDownLatch interrupted = new CountDownLatch(1);
+            CountDownLatch waiting = new CountDownLatch(1);
+            RemoteCommandFuture hanging = executor.submitAsync(handler -> {
+                RemoteCommandExecutor.Execution execution = new RemoteCommandExecutor.Execution(handler);
+                waiting.countDown();
+                try {
+                    execution.await(0);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return null;
+            }, null);
+            assertTrue(waiting.await(5, TimeUnit.SECONDS));
+            assertTrue(hanging.cancel(true));
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS), "Thread cua lenh phai bi ngat khi cancel");
+            assertTrue(hanging.isCancelled());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Mô phỏng executeCommand cũ: đọc PipedInputStream bằng available() và sleep 100ms.
+     */
+    private long runLegacyPolling() throws Exception {
+        PipedInputStream in = new PipedInputStream(64 * 1024);
+        PipedOutputStream remoteOut = new PipedOutputStream(in);
+        AtomicBoolean channelClosed = new AtomicBoolean(false);
+
+        long start = System.nanoTime();
+        Thread remote = startRemote(remoteOut, null, () -> channelClosed.set(true));
+
+        StringBuilder output = new StringBuilder();
+        byte[] buffer = new byte[1024];
+        while (true) {
+            while (in.available() > 0) {
+                int read = in.read(buffer, 0, buffer.length);
+                if (read < 0) break;
+                output.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+            }
+            if (channelClosed.get()) {
+                if (in.available() > 0) continue;
+                break;
+            }
+            Thread.sleep(100);
+        }
+        long elapsed = System.nanoTime() - start;
+        remote.join();
+        assertEquals(BENCHMARK_OUTPUT.length, output.length());
+        return elapsed;
+    }
+
+    /**
+     * Engine mới: thread remote ghi thẳng vào sink, đóng sink stderr khi CLOSE.
+     */
+    private long runEventDriven() throws Exception {
+        RemoteCommandExecutor.Execution execution = new RemoteCommandExecutor.Execution(null);
+
+        long start = System.nanoTime();
+        Thread remote = startRemote(execution.stdout, execution.stderr, () -> { });
+        assertTrue(execution.await(5000));
+        long elapsed = System.nanoTime() - start;
+        remote.join();
+        assertEquals(BENCHMARK_OUTPUT.length, execution.stdout.text().length());
+        return elapsed;
+    }
+
+    private Thread startRemote(OutputStream stdout, OutputStream stderr, Runnable onClose) {
+        Thread remote = new Thread(() -> {
+            try {
+                Thread.sleep(COMMAND_RUNTIME_MS);
+                for (int off = 0; off < BENCHMARK_OUTPUT.length; off += 1024) {
+                    stdout.write(BENCHMARK_OUTPUT, off, Math.min(1024, BENCHMARK_OUTPUT.length - off));
+                }
+                stdout.close();          // SSH_MSG_CHANNEL_EOF
+                onClose.run();
+                if (stderr != null) {
+                    stderr.close();      // SSH_MSG_CHANNEL_CLOSE -> Channel.disconnect()
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        remote.start();
+        return remote;
+    }
+
+    /**
+     * ChannelExec giả: giữ lại sink stdout/stderr mà executor gắn vào, báo khi connect.
+     */
+    private static ChannelExec channel(AtomicReference<OutputStream> stdout, AtomicReference<OutputStream> stderr,
+                                       CountDownLatch connected) throws JSchException {
+        ChannelExec channel = mock(ChannelExec.class);
+        when(channel.getExitStatus()).thenReturn(0);
+        doAnswer(inv -> {
+            stdout.set(inv.getArgument(0));
+            return null;
+        }).when(channel).setOutputStream(any(OutputStream.class));
+        doAnswer(inv -> {
+            stderr.set(inv.getArgument(0));
+            return null;
+        }).when(channel).setErrStream(any(OutputStream.class));
+        doAnswer(inv -> {
+            connected.countDown();
+            return null;
+        }).when(channel).connect(anyInt());
+        return channel;
+    }
+
+    /**
+     * Subscriber đăng ký nhưng không bao giờ request (ví dụ client WebSocket đã treo).
+     */
+    private static Flow.Subscriber<String> neverRequesting() {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+            }
+
+            @Override
+            public void onNext(String chunk) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+    }
+
+    private static Flow.Subscriber<String> subscriber(Consumer<String> onChunk, CountDownLatch completed) {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(String chunk) {
+                onChunk.accept(chunk);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package my_spring_app.my_spring_app.ssh;
+
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.repository.ServerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lần lấy sau dùng lại entry đã load, invalidate buộc load lại; stats() đếm đúng hit/miss/invalidation.
+ */
+class ServerConnectionRegistryTests {
+
+    private final ServerRepository serverRepository = mock(ServerRepository.class);
+    private final ServerConnectionRegistry registry = new ServerConnectionRegistry();
+
+    @Test
+    void cachesConnectionsAndCountsHitsAndMisses() {
+        ReflectionTestUtils.setField(registry, "serverRepository", serverRepository);
+        when(serverRepository.findByIdWithSshKey(1L)).thenReturn(Optional.of(server()));
+
+        ServerConnection first = registry.get(1L);
+        assertSame(first, registry.get(1L));
+        assertSame(first, registry.get(1L));
+        assertEquals("10.0.0.1", first.host());
+        assertEquals(22, first.port());
+        assertFalse(first.hasIdentity());
+
+        registry.invalidate(1L);
+        registry.get(1L);
+
+        ServerConnectionRegistry.Stats stats = registry.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.invalidations());
+        assertEquals(1, stats.size());
+        assertEquals(0.5, stats.hitRatio(), 1e-9);
+        verify(serverRepository, times(2)).findByIdWithSshKey(1L);
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        ReflectionTestUtils.setField(registry, "serverRepository", serverRepository);
+        ReflectionTestUtils.setField(registry, "ttlMs", 0L);
+        when(serverRepository.findByIdWithSshKey(1L)).thenReturn(Optional.of(server()));
+
+        registry.get(1L);
+        registry.get(1L);
+
+        assertEquals(0, registry.stats().hits());
+        assertEquals(2, registry.stats().misses());
+        assertEquals(0, registry.stats().hitRatio(), 1e-9);
+    }
+
+    private static ServerEntity server() {
+        ServerEntity server = new ServerEntity();
+        server.setId(1L);
+        server.setIp("10.0.0.1");
+        server.setUsername("root");
+        server.setPassword("secret");
+        server.setStatus(ServerEntity.ServerStatus.ONLINE);
+        return server;
+    }
+}
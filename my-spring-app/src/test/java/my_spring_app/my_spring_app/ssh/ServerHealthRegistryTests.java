@@ -0,0 +1,70 @@
+package my_spring_app.my_spring_app.ssh;
+
+import my_spring_app.my_spring_app.exception.ServerUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Chuyển trạng thái CLOSED -> OPEN -> HALF_OPEN -> CLOSED/OPEN và timeout kết nối thích ứng.
+ */
+class ServerHealthRegistryTests {
+
+    private static final Long SERVER_ID = 1L;
+
+    @Test
+    void breakerOpensAfterConsecutiveFailuresAndRecoversThroughSingleProbe() throws Exception {
+        ServerHealthRegistry registry = new ServerHealthRegistry();
+        ReflectionTestUtils.setField(registry, "openDurationMs", 50L);
+
+        registry.recordConnect(SERVER_ID, 0, false);
+        registry.recordConnect(SERVER_ID, 0, false);
+        assertDoesNotThrow(() -> registry.checkAvailable(SERVER_ID));
+        registry.recordConnect(SERVER_ID, 0, false);
+
+        // Đủ ngưỡng lỗi: bị từ chối ngay
+        assertEquals(ServerHealthRegistry.State.OPEN, registry.snapshot(SERVER_ID).state());
+        assertThrows(ServerUnavailableException.class, () -> registry.checkAvailable(SERVER_ID));
+
+        // Hết thời gian OPEN: chỉ một lời gọi thử được đi qua
+        Thread.sleep(60);
+        assertDoesNotThrow(() -> registry.checkAvailable(SERVER_ID));
+        assertThrows(ServerUnavailableException.class, () -> registry.checkAvailable(SERVER_ID));
+
+        // Lời gọi thử lỗi: OPEN lại ngay, không cần đủ ngưỡng
+        registry.recordConnect(SERVER_ID, 0, false);
+        assertEquals(ServerHealthRegistry.State.OPEN, registry.snapshot(SERVER_ID).state());
+
+        Thread.sleep(60);
+        registry.checkAvailable(SERVER_ID);
+        registry.recordConnect(SERVER_ID, 40, true);
+        assertEquals(ServerHealthRegistry.State.CLOSED, registry.snapshot(SERVER_ID).state());
+        assertDoesNotThrow(() -> registry.checkAvailable(SERVER_ID));
+    }
+
+    @Test
+    void connectTimeoutFollowsObservedLatency() {
+        ServerHealthRegistry registry = new ServerHealthRegistry();
+
+        // Chưa đủ mẫu: dùng giá trị tối đa
+        assertEquals(7000, registry.connectTimeoutMs(SERVER_ID));
+
+        for (int i = 0; i < 20; i++) {
+            registry.recordConnect(SERVER_ID, 600, true);
+        }
+        // p95 = 600ms, hệ số 3
+        assertEquals(1800, registry.connectTimeoutMs(SERVER_ID));
+
+        for (int i = 0; i < 50; i++) {
+            registry.recordConnect(SERVER_ID, 100, true);
+        }
+        // Không thấp hơn giới hạn dưới
+        assertEquals(1500, registry.connectTimeoutMs(SERVER_ID));
+
+        registry.reset(SERVER_ID);
+        assertEquals(7000, registry.connectTimeoutMs(SERVER_ID));
+    }
+}
@@ -0,0 +1,73 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpProgressMonitor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * SHA-256 và số byte được tính trên chính luồng JSch gửi đi, khớp với SHA-256 của file nhận được.
+ * Phía server là một file local: ChannelSftp giả chỉ chép luồng nguồn sang file đó.
+ */
+class SftpStreamUploaderTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void digestMatchesUploadedFile() throws Exception {
+        Path local = dir.resolve("app.zip");
+        byte[] payload = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(payload);
+        Files.write(local, payload);
+        Path remote = dir.resolve("remote-app.zip");
+
+        ChannelSftp sftp = mock(ChannelSftp.class);
+        doAnswer(inv -> {
+            InputStream in = inv.getArgument(0);
+            SftpProgressMonitor monitor = inv.getArgument(2);
+            try (OutputStream out = Files.newOutputStream(remote)) {
+                monitor.count(in.transferTo(out));
+            }
+            return null;
+        }).when(sftp).put(any(InputStream.class), eq(remote.toString()), any(SftpProgressMonitor.class), eq(ChannelSftp.OVERWRITE));
+
+        InputStream source = Files.newInputStream(local);
+        SftpStreamUploader.UploadResult result = new SftpStreamUploader().upload(sftp, source, remote.toString());
+
+        verify(sftp).setBulkRequests(64);
+        assertEquals(Files.size(local), result.bytes());
+        assertEquals(Files.size(local), Files.size(remote));
+        // Checksum tính lúc gửi phải giống SHA-256 của file đã nhận và của file gốc
+        assertEquals(sha256(remote), result.sha256());
+        assertEquals(sha256(local), result.sha256());
+        // Luồng nguồn được đóng sau khi gửi
+        assertThrows(IOException.class, source::read);
+    }
+
+    private static String sha256(Path file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,162 @@
+package my_spring_app.my_spring_app.ssh;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import my_spring_app.my_spring_app.entity.ServerEntity;
+import my_spring_app.my_spring_app.exception.ServerUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Handshake chạy ngoài khoá của server: release không bị chặn, kết nối lỗi trả lại chỗ đã giữ.
+ */
+class SshSessionPoolTests {
+
+    private final CountDownLatch handshakeStarted = new CountDownLatch(1);
+    private final CountDownLatch finishHandshake = new CountDownLatch(1);
+    private final AtomicInteger opens = new AtomicInteger();
+    private volatile boolean failNext;
+    private volatile boolean blockNext;
+    private final SshSessionPool pool = new SshSessionPool() {
+        @Override
+        Session open(ServerEntity server, int timeoutMs) throws JSchException {
+            opens.incrementAndGet();
+            if (failNext) {
+                failNext = false;
+                throw new JSchException("Auth fail");
+            }
+            if (blockNext) {
+                blockNext = false;
+                handshakeStarted.countDown();
+                try {
+                    finishHandshake.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Session session = mock(Session.class);
+            when(session.isConnected()).thenReturn(true);
+            return session;
+        }
+
+        @Override
+        Session open(ServerConnection connection, int timeoutMs) throws JSchException {
+            return open(server, timeoutMs);
+        }
+    };
+
+    private final ServerEntity server = server();
+
+    @AfterEach
+    void tearDown() {
+        finishHandshake.countDown();
+        pool.shutdown();
+    }
+
+    @Test
+    void releaseDoesNotWaitForHandshakeToSameServer() throws Exception {
+        configure(2, 1);
+        Session first = pool.acquire(server);
+
+        blockNext = true;
+        CompletableFuture<Session> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.acquire(server);
+            } catch (JSchException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(handshakeStarted.await(5, TimeUnit.SECONDS));
+
+        // Handshake thứ hai đang chạy: release của session đầu vẫn vào được khoá ngay
+        CompletableFuture.runAsync(() -> pool.release(first)).get(1, TimeUnit.SECONDS);
+        assertSame(first, pool.acquire(server));
+
+        finishHandshake.countDown();
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, opens.get());
+    }
+
+    @Test
+    void failedConnectReturnsReservation() throws Exception {
+        configure(1, 1);
+        failNext = true;
+
+        assertThrows(JSchException.class, () -> pool.acquire(server));
+
+        // Chỗ đã giữ được trả lại: lần sau kết nối ngay thay vì chờ hết acquireTimeoutMs
+        Session session = pool.acquire(server);
+        assertEquals(2, opens.get());
+        pool.release(session);
+    }
+
+    @Test
+    void connectionFromRegistrySharesSessionsWithEntity() throws Exception {
+        configure(1, 2);
+        Session first = pool.acquire(server);
+        ServerConnection connection = new ServerConnection(1L, "10.0.0.1", 22, "root", "secret",
+                ServerEntity.ServerStatus.ONLINE, null, System.currentTimeMillis());
+
+        // Cùng thông tin đăng nhập: mượn lại session đã mở thay vì handshake mới
+        Session second = pool.acquire(connection);
+        assertSame(first, second);
+        assertEquals(1, opens.get());
+        pool.release(first);
+        pool.release(second);
+    }
+
+    @Test
+    void dedicatedSessionUsesBreakerAndStaysOutsidePool() throws Exception {
+        configure(1, 1);
+        ServerHealthRegistry health = new ServerHealthRegistry();
+        ReflectionTestUtils.setField(pool, "serverHealthRegistry", health);
+        ServerConnection connection = new ServerConnection(1L, "10.0.0.1", 22, "root", "secret",
+                ServerEntity.ServerStatus.ONLINE, null, System.currentTimeMillis());
+
+        // Session riêng không chiếm chỗ của pool
+        Session tunnel = pool.openDedicated(connection);
+        Session pooled = pool.acquire(server);
+        assertEquals(2, opens.get());
+        pool.closeDedicated(tunnel);
+        verify(tunnel).disconnect();
+        pool.release(pooled);
+
+        // Breaker OPEN: từ chối ngay, không handshake
+        for (int i = 0; i < 3; i++) {
+            health.recordConnect(1L, 0, false);
+        }
+        assertThrows(ServerUnavailableException.class, () -> pool.openDedicated(connection));
+        assertEquals(2, opens.get());
+    }
+
+    private void configure(int maxSessions, int maxChannels) {
+        ReflectionTestUtils.setField(pool, "maxSessionsPerServer", maxSessions);
+        ReflectionTestUtils.setField(pool, "maxChannelsPerSession", maxChannels);
+        ReflectionTestUtils.setField(pool, "acquireTimeoutMs", 200L);
+        ReflectionTestUtils.setField(pool, "idleTimeoutMs", 300000L);
+    }
+
+    private static ServerEntity server() {
+        ServerEntity server = new ServerEntity();
+        server.setId(1L);
+        server.setIp("10.0.0.1");
+        server.setPort(22);
+        server.setUsername("root");
+        server.setPassword("secret");
+        return server;
+    }
+}
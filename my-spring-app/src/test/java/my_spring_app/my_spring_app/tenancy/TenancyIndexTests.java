@@ -0,0 +1,103 @@
+package my_spring_app.my_spring_app.tenancy;
+
+import my_spring_app.my_spring_app.entity.ProjectDatabaseEntity;
+import my_spring_app.my_spring_app.entity.ProjectEntity;
+import my_spring_app.my_spring_app.entity.UserEntity;
+import my_spring_app.my_spring_app.repository.ProjectBackendRepository;
+import my_spring_app.my_spring_app.repository.ProjectDatabaseRepository;
+import my_spring_app.my_spring_app.repository.ProjectFrontendRepository;
+import my_spring_app.my_spring_app.repository.ProjectRepository;
+import my_spring_app.my_spring_app.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Nạp chỉ mục từ DB và cập nhật theo sự kiện entity (không có transaction nên áp dụng ngay).
+ */
+class TenancyIndexTests {
+
+    @Test
+    void loadsFromProjectionsAndTracksLifecycleEvents() {
+        UserEntity alice = user(1L, "alice", "USER", "STANDARD");
+        List<Object[]> projects = new ArrayList<>();
+        projects.add(new Object[]{10L, "shop", " ns-shop ", 1L});
+        List<Object[]> databases = new ArrayList<>();
+        databases.add(new Object[]{100L, 10L});
+        TenancyIndex index = index(List.of(alice, user(2L, "root", "ADMIN", "PREMIUM")), projects, databases);
+
+        assertEquals(1, index.usersWithRole("USER").size());
+        assertEquals(Map.of("ns-shop", 1L), index.namespaceOwners());
+        assertEquals(1, index.projectsOf(1L).get(0).databaseCount());
+        assertEquals(List.of(new TenancyIndex.TierStats("STANDARD", 1, 1)), index.tierStats());
+
+        // Project mới + component deploy
+        ProjectEntity blog = new ProjectEntity();
+        blog.setId(11L);
+        blog.setProjectName("blog");
+        blog.setNamespace("ns-blog");
+        blog.setUser(alice);
+        index.onSaved(blog);
+        ProjectDatabaseEntity database = new ProjectDatabaseEntity();
+        database.setId(101L);
+        database.setProject(blog);
+        index.onSaved(database);
+        index.onSaved(database);
+
+        assertEquals(2, index.projectCount());
+        assertEquals(1, index.project(11L).orElseThrow().databaseCount());
+        assertTrue(index.namespaces().contains("ns-blog"));
+
+        // Đổi tier: project đi theo user sang tier mới
+        alice.setTier("PREMIUM");
+        index.onSaved(alice);
+        assertEquals(List.of(new TenancyIndex.TierStats("PREMIUM", 1, 2)), index.tierStats());
+
+        // Xoá component rồi xoá project
+        index.onRemoved(database);
+        assertEquals(0, index.project(11L).orElseThrow().databaseCount());
+        index.onRemoved(blog);
+        assertEquals(1, index.projectsOf(1L).size());
+        assertEquals(List.of(new TenancyIndex.TierStats("PREMIUM", 1, 1)), index.tierStats());
+    }
+
+    private static TenancyIndex index(List<UserEntity> users, List<Object[]> projects, List<Object[]> databases) {
+        UserRepository userRepository = mock(UserRepository.class);
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        ProjectDatabaseRepository databaseRepository = mock(ProjectDatabaseRepository.class);
+        ProjectBackendRepository backendRepository = mock(ProjectBackendRepository.class);
+        ProjectFrontendRepository frontendRepository = mock(ProjectFrontendRepository.class);
+        when(userRepository.findAll()).thenReturn(users);
+        when(projectRepository.findAllTenancyRows()).thenReturn(projects);
+        when(databaseRepository.findAllIdAndProjectId()).thenReturn(databases);
+        when(backendRepository.findAllIdAndProjectId()).thenReturn(List.of());
+        when(frontendRepository.findAllIdAndProjectId()).thenReturn(List.of());
+
+        TenancyIndex index = new TenancyIndex();
+        ReflectionTestUtils.setField(index, "userRepository", userRepository);
+        ReflectionTestUtils.setField(index, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(index, "projectDatabaseRepository", databaseRepository);
+        ReflectionTestUtils.setField(index, "projectBackendRepository", backendRepository);
+        ReflectionTestUtils.setField(index, "projectFrontendRepository", frontendRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static UserEntity user(Long id, String username, String role, String tier) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setUsername(username);
+        user.setFullname(username);
+        user.setRole(role);
+        user.setTier(tier);
+        return user;
+    }
+}